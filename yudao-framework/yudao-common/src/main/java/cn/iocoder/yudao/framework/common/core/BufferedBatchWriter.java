@@ -0,0 +1,241 @@
+package cn.iocoder.yudao.framework.common.core;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 缓冲 + 批量写入器
+ *
+ * 写入方调用 {@link #offer(Object)} 把数据放入有界队列，由单个后台线程按「数量」或「时间」攒批，调用 flusher 批量写入。
+ * 适合访问日志、设备上报等，允许少量延迟、但写入频率很高的场景，将 N 次单条写入合并成 1 次批量写入
+ *
+ * @param <T> 数据类型
+ * @author 芋道源码
+ */
+@Slf4j
+public class BufferedBatchWriter<T> {
+
+    /**
+     * 队列满时的溢出策略
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * 丢弃新数据
+         */
+        DROP,
+        /**
+         * 采样：队列使用超过一半后，按照采样率写入；队列满时，丢弃
+         */
+        SAMPLE,
+        /**
+         * 阻塞写入方，直到队列有空间；超过阻塞时长后，丢弃
+         */
+        BLOCK
+
+    }
+
+    /**
+     * 名字，用于线程名、日志
+     */
+    @Getter
+    private final String name;
+    /**
+     * 每批最大数量
+     */
+    private final int batchSize;
+    /**
+     * 最大攒批时长
+     */
+    private final long flushIntervalNanos;
+    /**
+     * 溢出策略
+     */
+    private final OverflowPolicy overflowPolicy;
+    /**
+     * 采样率，范围 (0, 1]，仅 {@link OverflowPolicy#SAMPLE} 使用
+     */
+    private final double sampleRate;
+    /**
+     * 最大阻塞时长，仅 {@link OverflowPolicy#BLOCK} 使用
+     */
+    private final Duration blockTimeout;
+    /**
+     * 批量写入的逻辑
+     */
+    private final Consumer<List<T>> flusher;
+
+    private final int capacity;
+    private final BlockingQueue<T> queue;
+    private final Thread flushThread;
+    private volatile boolean running = true;
+
+    /**
+     * 被丢弃的数量
+     */
+    private final AtomicLong droppedCount = new AtomicLong();
+    /**
+     * 写入成功的数量
+     */
+    private final AtomicLong flushedCount = new AtomicLong();
+    /**
+     * 写入失败的数量
+     */
+    private final AtomicLong failedCount = new AtomicLong();
+
+    public BufferedBatchWriter(String name, int capacity, int batchSize, Duration flushInterval,
+                               OverflowPolicy overflowPolicy, double sampleRate, Duration blockTimeout,
+                               Consumer<List<T>> flusher) {
+        this.name = name;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = sampleRate;
+        this.blockTimeout = blockTimeout;
+        this.flusher = flusher;
+        this.capacity = capacity;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.flushThread = new NamedThreadFactory(name + "-flush-", true).newThread(this::runFlushLoop);
+        this.flushThread.start();
+    }
+
+    /**
+     * 放入数据
+     *
+     * @param item 数据
+     * @return 是否放入成功；false 表示被丢弃
+     */
+    public boolean offer(T item) {
+        if (!running) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        boolean success;
+        switch (overflowPolicy) {
+            case SAMPLE:
+                success = (queue.size() * 2 < capacity || ThreadLocalRandom.current().nextDouble() < sampleRate)
+                        && queue.offer(item);
+                break;
+            case BLOCK:
+                try {
+                    success = queue.offer(item, blockTimeout.toNanos(), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    success = false;
+                }
+                break;
+            default:
+                success = queue.offer(item);
+        }
+        if (!success) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        // 放入后再次检查：如果期间已关闭，后台线程可能已经完成最后的排空，这条数据不会再被写入
+        // 此时尝试从队列移除：移除成功，说明未被排空，计为丢弃；移除失败，说明已被排空写入
+        if (!running && queue.remove(item)) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 关闭：不再接收新数据，并将队列中剩余的数据全部写入
+     *
+     * @param timeout 最大等待时长
+     */
+    public void shutdown(Duration timeout) {
+        // 不使用 interrupt 打断，避免影响正在执行的批量写入（例如说，JDBC 操作）；后台线程最多 flushInterval 后感知到
+        running = false;
+        try {
+            flushThread.join(timeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("[shutdown][{} 关闭超时，剩余 {} 条数据未写入]", name, queue.size());
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    private void runFlushLoop() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                // 阻塞等待第一条数据
+                T first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // 攒批：直到达到批量大小，或者超过攒批时长
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    T next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // 关闭时，排空队列
+        flush(batch);
+        while (!queue.isEmpty()) {
+            queue.drainTo(batch, batchSize);
+            flush(batch);
+        }
+    }
+
+    private void flush(List<T> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            flusher.accept(new ArrayList<>(batch)); // 复制一份，避免 flusher 持有引用后被 clear
+            flushedCount.addAndGet(batch.size());
+        } catch (Throwable ex) {
+            failedCount.addAndGet(batch.size());
+            log.error("[flush][{} 批量写入 {} 条数据失败]", name, batch.size(), ex);
+        } finally {
+            batch.clear();
+        }
+    }
+
+}
@@ -0,0 +1,179 @@
+package cn.iocoder.yudao.framework.common.core;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+/**
+ * 合并 + 批量写入器
+ *
+ * 与 {@link BufferedBatchWriter} 不同，写入方调用 {@link #offer(Object, Object)} 时，相同 key 的数据通过 merger 合并，
+ * 只保留合并后的一份；由单个后台线程每隔 flushInterval，按照 batchSize 分批调用 flusher 写入。
+ * 适合「只关心最新值」的场景，例如说设备的最后上报时间、最新属性，高频上报时 N 次写入合并成 1 次
+ *
+ * @param <K> key 类型
+ * @param <V> value 类型
+ * @author 芋道源码
+ */
+@Slf4j
+public class CoalescingWriter<K, V> {
+
+    /**
+     * 名字，用于线程名、日志
+     */
+    @Getter
+    private final String name;
+    /**
+     * 每批最大数量
+     */
+    private final int batchSize;
+    /**
+     * 合并时长
+     */
+    private final long flushIntervalNanos;
+    /**
+     * 待写入 key 的最大数量，超过时提前唤醒后台线程写入
+     */
+    private final int maxPendingSize;
+    /**
+     * 合并的逻辑：参数依次为旧值、新值
+     */
+    private final BinaryOperator<V> merger;
+    /**
+     * 批量写入的逻辑
+     */
+    private final Consumer<Map<K, V>> flusher;
+
+    private final ConcurrentHashMap<K, V> pending = new ConcurrentHashMap<>();
+    private final Thread flushThread;
+    private volatile boolean running = true;
+
+    /**
+     * 放入的数量
+     */
+    private final AtomicLong offeredCount = new AtomicLong();
+    /**
+     * 写入成功的数量（合并后）
+     */
+    private final AtomicLong flushedCount = new AtomicLong();
+    /**
+     * 写入失败的数量（合并后）
+     */
+    private final AtomicLong failedCount = new AtomicLong();
+
+    public CoalescingWriter(String name, int batchSize, Duration flushInterval, int maxPendingSize,
+                            BinaryOperator<V> merger, Consumer<Map<K, V>> flusher) {
+        this.name = name;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxPendingSize = maxPendingSize;
+        this.merger = merger;
+        this.flusher = flusher;
+        this.flushThread = new NamedThreadFactory(name + "-flush-", true).newThread(this::runFlushLoop);
+        this.flushThread.start();
+    }
+
+    /**
+     * 放入数据：与尚未写入的相同 key 的数据合并
+     *
+     * @param key key
+     * @param value 数据
+     * @return 是否放入成功；false 表示已关闭
+     */
+    public boolean offer(K key, V value) {
+        if (!running) {
+            return false;
+        }
+        pending.merge(key, value, merger);
+        offeredCount.incrementAndGet();
+        if (pending.size() >= maxPendingSize) {
+            LockSupport.unpark(flushThread);
+        }
+        return true;
+    }
+
+    /**
+     * 关闭：不再接收新数据，并将剩余的数据全部写入
+     *
+     * @param timeout 最大等待时长
+     */
+    public void shutdown(Duration timeout) {
+        running = false;
+        LockSupport.unpark(flushThread);
+        try {
+            flushThread.join(timeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!pending.isEmpty()) {
+            log.warn("[shutdown][{} 关闭超时，剩余 {} 条数据未写入]", name, pending.size());
+        }
+    }
+
+    public int getPendingSize() {
+        return pending.size();
+    }
+
+    public long getOfferedCount() {
+        return offeredCount.get();
+    }
+
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    private void runFlushLoop() {
+        while (running) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            drain();
+        }
+        // 关闭时，排空剩余数据
+        drain();
+    }
+
+    private void drain() {
+        Map<K, V> batch = new LinkedHashMap<>();
+        for (Iterator<K> iterator = pending.keySet().iterator(); iterator.hasNext(); ) {
+            K key = iterator.next();
+            // 通过 remove 原子取出，期间并发 offer 的新数据会进入下一轮
+            V value = pending.remove(key);
+            if (value == null) {
+                continue;
+            }
+            batch.put(key, value);
+            if (batch.size() >= batchSize) {
+                flush(batch);
+                batch = new LinkedHashMap<>();
+            }
+        }
+        flush(batch);
+    }
+
+    private void flush(Map<K, V> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            flusher.accept(batch);
+            flushedCount.addAndGet(batch.size());
+        } catch (Throwable ex) {
+            failedCount.addAndGet(batch.size());
+            log.error("[flush][{} 批量写入 {} 条数据失败]", name, batch.size(), ex);
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package cn.iocoder.yudao.framework.common.pojo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * 游标分页参数
+ *
+ * 基于上一页最后一条记录的（排序字段，编号）定位下一页，即 keyset 分页，避免 LIMIT OFFSET 深分页越来越慢。
+ * 不传 {@link #lastId} 时，查询第一页；{@link #getPageNo()} 在游标分页中不生效
+ *
+ * @author 芋道源码
+ */
+@Schema(description = "游标分页参数")
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class CursorPageParam extends PageParam {
+
+    /**
+     * 总数 - 未统计
+     */
+    public static final Long TOTAL_NONE = -1L;
+
+    @Schema(description = "上一页最后一条记录的编号，为空时查询第一页", example = "1024")
+    private Long lastId;
+
+    /**
+     * 上一页最后一条记录的排序字段的值
+     *
+     * 仅按照非编号字段排序时需要，且类型需要和排序字段一致，一般由后端设置
+     */
+    @Schema(hidden = true)
+    private Object lastSortValue;
+
+    @Schema(description = "上一次查询返回的总数，传入时不再重复 COUNT，直接返回该值", example = "10000")
+    private Long total;
+
+    @Schema(description = "是否查询总数，为 false 时总数返回 -1", example = "true")
+    private Boolean searchCount = true;
+
+}
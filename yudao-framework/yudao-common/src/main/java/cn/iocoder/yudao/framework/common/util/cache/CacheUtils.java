@@ -1,23 +1,80 @@
 package cn.iocoder.yudao.framework.common.util.cache;
 
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.alibaba.ttl.TtlRunnable;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Cache 工具类
  *
  * @author 芋道源码
  */
+@Slf4j
 public class CacheUtils {
 
+    /**
+     * 异步刷新线程池的默认线程数
+     */
+    public static final int RELOAD_EXECUTOR_POOL_SIZE_DEFAULT = Math.max(2, Runtime.getRuntime().availableProcessors());
+    /**
+     * 异步刷新线程池的默认队列大小
+     */
+    public static final int RELOAD_EXECUTOR_QUEUE_CAPACITY_DEFAULT = 1000;
+
+    /**
+     * 异步刷新被拒绝的次数
+     */
+    private static final AtomicLong RELOAD_REJECTED_COUNT = new AtomicLong();
+
+    /**
+     * 刷新被跳过（刷新合并、线程池拒绝）时，返回的异常
+     *
+     * 返回失败的 Future 而不是旧值：Guava 会保留旧值，但不会重置写入时间，下一次读取时会重新尝试刷新
+     */
+    private static final RejectedExecutionException RELOAD_SKIPPED_EXCEPTION =
+            new RejectedExecutionException("Cache reload skipped, another key is reloading");
+
+    static {
+        // 共享的异常，不需要堆栈，避免 Guava 打印刷新失败日志时刷屏
+        RELOAD_SKIPPED_EXCEPTION.setStackTrace(new StackTraceElement[0]);
+    }
+
+    /**
+     * 所有异步刷新的 LoadingCache 共享的线程池
+     *
+     * 有界：线程数、队列大小都有上限，避免 Redis、数据库抖动时，大量 key 同时过期，创建成百上千的线程
+     */
+    private static volatile ThreadPoolExecutor reloadExecutor = buildReloadExecutor(
+            RELOAD_EXECUTOR_POOL_SIZE_DEFAULT, RELOAD_EXECUTOR_QUEUE_CAPACITY_DEFAULT);
+
+    /**
+     * 提交到 {@link #reloadExecutor} 的 Executor，每次执行时读取最新的线程池，保证重新配置后，已构建的缓存也能生效
+     *
+     * 同时，通过 TtlRunnable 传递 TransmittableThreadLocal 上下文（例如说，租户编号）
+     */
+    private static final Executor RELOAD_EXECUTOR_DELEGATE = command -> reloadExecutor.execute(TtlRunnable.get(command));
+
     /**
      * 构建异步刷新的 LoadingCache 对象
      *
      * 注意：如果你的缓存和 ThreadLocal 有关系，要么自己处理 ThreadLocal 的传递，要么使用 {@link #buildCache(Duration, CacheLoader)} 方法
+     * 目前仅 TransmittableThreadLocal 会传递到刷新线程，普通的 ThreadLocal 不会
      *
      * 或者简单理解：
      * 1、和“人”相关的，使用 {@link #buildCache(Duration, CacheLoader)} 方法
@@ -28,11 +85,27 @@ public class CacheUtils {
      * @return LoadingCache 对象
      */
     public static <K, V> LoadingCache<K, V> buildAsyncReloadingCache(Duration duration, CacheLoader<K, V> loader) {
+        return buildAsyncReloadingCache(duration, loader, false);
+    }
+
+    /**
+     * 构建异步刷新的 LoadingCache 对象
+     *
+     * 当 coalescing 为 true 时，开启“刷新合并”模式：同一个缓存同一时刻最多只有一个 key 在刷新，
+     * 其它同时过期的 key 本次刷新失败、继续返回旧值，下一次读取时再重新尝试刷新。适合 key 较多、且允许短暂脏读的缓存
+     *
+     * @param duration 过期时间
+     * @param loader  CacheLoader 对象
+     * @param coalescing 是否开启刷新合并
+     * @return LoadingCache 对象
+     */
+    public static <K, V> LoadingCache<K, V> buildAsyncReloadingCache(Duration duration, CacheLoader<K, V> loader,
+                                                                     boolean coalescing) {
         return CacheBuilder.newBuilder()
                 // 只阻塞当前数据加载线程，其他线程返回旧值
                 .refreshAfterWrite(duration)
                 // 通过 asyncReloading 实现全异步加载，包括 refreshAfterWrite 被阻塞的加载线程
-                .build(CacheLoader.asyncReloading(loader, Executors.newCachedThreadPool())); // TODO 芋艿：可能要思考下，未来要不要做成可配置
+                .build(new AsyncReloadingCacheLoader<>(loader, coalescing));
     }
 
     /**
@@ -46,4 +119,111 @@ public class CacheUtils {
         return CacheBuilder.newBuilder().refreshAfterWrite(duration).build(loader);
     }
 
+    // ========== 异步刷新线程池 ==========
+
+    /**
+     * 重新配置异步刷新的线程池
+     *
+     * 已构建的缓存，会在下一次刷新时，使用新的线程池；旧的线程池，执行完已提交的任务后关闭
+     *
+     * @param poolSize 线程数
+     * @param queueCapacity 队列大小
+     */
+    public static synchronized void configReloadExecutor(int poolSize, int queueCapacity) {
+        ThreadPoolExecutor oldExecutor = reloadExecutor;
+        reloadExecutor = buildReloadExecutor(poolSize, queueCapacity);
+        oldExecutor.shutdown();
+        log.info("[configReloadExecutor][异步刷新线程池配置为 poolSize({}) queueCapacity({})]", poolSize, queueCapacity);
+    }
+
+    /**
+     * 获得异步刷新的线程池，用于监控活跃线程数、排队任务数等
+     *
+     * @return 线程池
+     */
+    public static ThreadPoolExecutor getReloadExecutor() {
+        return reloadExecutor;
+    }
+
+    /**
+     * 获得异步刷新被拒绝的次数
+     *
+     * @return 次数
+     */
+    public static long getReloadRejectedCount() {
+        return RELOAD_REJECTED_COUNT.get();
+    }
+
+    private static ThreadPoolExecutor buildReloadExecutor(int poolSize, int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory("cache-reload-", true),
+                (runnable, pool) -> {
+                    RELOAD_REJECTED_COUNT.incrementAndGet();
+                    throw new RejectedExecutionException("Cache reload task rejected from " + pool);
+                });
+        executor.allowCoreThreadTimeOut(true); // 空闲时，允许回收所有线程
+        return executor;
+    }
+
+    /**
+     * 异步刷新的 CacheLoader，替代 {@link CacheLoader#asyncReloading(CacheLoader, Executor)}
+     *
+     * 额外支持：1. 任务被线程池拒绝时，本次刷新失败、继续使用旧值；2. 刷新合并
+     */
+    private static class AsyncReloadingCacheLoader<K, V> extends CacheLoader<K, V> {
+
+        private final CacheLoader<K, V> loader;
+        /**
+         * 是否开启刷新合并
+         */
+        private final boolean coalescing;
+        /**
+         * 刷新合并模式下，是否有 key 正在刷新
+         */
+        private final AtomicBoolean reloading = new AtomicBoolean(false);
+
+        AsyncReloadingCacheLoader(CacheLoader<K, V> loader, boolean coalescing) {
+            this.loader = loader;
+            this.coalescing = coalescing;
+        }
+
+        @Override
+        public V load(K key) throws Exception {
+            return loader.load(key);
+        }
+
+        @Override
+        public Map<K, V> loadAll(Iterable<? extends K> keys) throws Exception {
+            return loader.loadAll(keys);
+        }
+
+        @Override
+        public ListenableFuture<V> reload(K key, V oldValue) {
+            // 刷新合并：已有 key 在刷新，本次刷新失败，下一次读取时重试
+            if (coalescing && !reloading.compareAndSet(false, true)) {
+                return Futures.immediateFailedFuture(RELOAD_SKIPPED_EXCEPTION);
+            }
+            ListenableFutureTask<V> task = ListenableFutureTask.create(() -> {
+                try {
+                    return loader.reload(key, oldValue).get();
+                } finally {
+                    if (coalescing) {
+                        reloading.set(false);
+                    }
+                }
+            });
+            try {
+                RELOAD_EXECUTOR_DELEGATE.execute(task);
+            } catch (RejectedExecutionException ex) {
+                log.warn("[reload][key({}) 刷新任务被拒绝，继续使用旧值，下一次读取时重试]", key);
+                if (coalescing) {
+                    reloading.set(false);
+                }
+                return Futures.immediateFailedFuture(ex);
+            }
+            return task;
+        }
+
+    }
+
 }
@@ -0,0 +1,103 @@
+package cn.iocoder.yudao.framework.common.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link BufferedBatchWriter} 的单元测试
+ */
+public class BufferedBatchWriterTest {
+
+    @Test
+    public void testOffer_flushByBatchSize() {
+        // 准备参数
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        BufferedBatchWriter<Integer> writer = new BufferedBatchWriter<>("test", 100, 2, Duration.ofSeconds(10L),
+                BufferedBatchWriter.OverflowPolicy.DROP, 1D, Duration.ZERO, batches::add);
+
+        // 调用
+        for (int i = 0; i < 5; i++) {
+            assertTrue(writer.offer(i));
+        }
+        writer.shutdown(Duration.ofSeconds(15L));
+        // 断言：最后一批在关闭时排空
+        assertEquals(5, batches.stream().mapToInt(List::size).sum());
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 2));
+        assertEquals(5, writer.getFlushedCount());
+        assertEquals(0, writer.getDroppedCount());
+    }
+
+    @Test
+    public void testOffer_drop() throws InterruptedException {
+        // 准备参数：阻塞 flusher，使队列堆积
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BufferedBatchWriter<Integer> writer = new BufferedBatchWriter<>("test", 1, 1, Duration.ofMillis(10L),
+                BufferedBatchWriter.OverflowPolicy.DROP, 1D, Duration.ZERO, batch -> {
+            flushing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        assertTrue(writer.offer(1));
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+
+        // 调用：队列容量为 1，第 3 条被丢弃
+        assertTrue(writer.offer(2));
+        assertFalse(writer.offer(3));
+        // 断言
+        assertEquals(1, writer.getDroppedCount());
+        release.countDown();
+        writer.shutdown(Duration.ofSeconds(5L));
+        assertEquals(2, writer.getFlushedCount());
+    }
+
+    @Test
+    public void testOffer_concurrentShutdown() throws InterruptedException {
+        // 准备参数
+        AtomicLong written = new AtomicLong();
+        BufferedBatchWriter<Integer> writer = new BufferedBatchWriter<>("test", 10000, 10, Duration.ofMillis(1L),
+                BufferedBatchWriter.OverflowPolicy.DROP, 1D, Duration.ZERO, batch -> written.addAndGet(batch.size()));
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        CountDownLatch started = new CountDownLatch(4);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                for (int j = 0; j < 20000; j++) {
+                    if (writer.offer(j)) {
+                        accepted.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        // 调用：写入过程中关闭
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        writer.shutdown(Duration.ofSeconds(10L));
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // 断言：放入成功的数据都被写入，其余都计入丢弃
+        assertEquals(accepted.get(), written.get());
+        assertEquals(accepted.get(), writer.getFlushedCount());
+        assertEquals(rejected.get(), writer.getDroppedCount());
+        assertEquals(0, writer.getQueueSize());
+    }
+
+}
@@ -0,0 +1,73 @@
+package cn.iocoder.yudao.framework.common.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link CoalescingWriter} 的单元测试
+ */
+public class CoalescingWriterTest {
+
+    @Test
+    public void testOffer_coalesce() {
+        // 准备参数：合并时长足够长，保证在关闭前不写入
+        List<Map<String, Long>> batches = new CopyOnWriteArrayList<>();
+        CoalescingWriter<String, Long> writer = new CoalescingWriter<>("test", 100, Duration.ofSeconds(10L),
+                Integer.MAX_VALUE, Math::max, batches::add);
+
+        // 调用
+        for (long i = 0; i < 10; i++) {
+            assertTrue(writer.offer("a", i));
+            assertTrue(writer.offer("b", 10 - i));
+        }
+        writer.shutdown(Duration.ofSeconds(5L));
+        // 断言：每个 key 只写入一次合并后的值
+        assertEquals(1, batches.size());
+        assertEquals(9L, batches.get(0).get("a"));
+        assertEquals(10L, batches.get(0).get("b"));
+        assertEquals(20, writer.getOfferedCount());
+        assertEquals(2, writer.getFlushedCount());
+        assertFalse(writer.offer("c", 1L));
+    }
+
+    @Test
+    public void testOffer_batchSize() {
+        // 准备参数
+        List<Map<Integer, Integer>> batches = new CopyOnWriteArrayList<>();
+        CoalescingWriter<Integer, Integer> writer = new CoalescingWriter<>("test", 2, Duration.ofSeconds(10L),
+                Integer.MAX_VALUE, (oldValue, newValue) -> newValue, batch -> batches.add(new HashMap<>(batch)));
+
+        // 调用
+        for (int i = 0; i < 5; i++) {
+            writer.offer(i, i);
+        }
+        writer.shutdown(Duration.ofSeconds(5L));
+        // 断言：按照 batchSize 分批写入
+        assertEquals(5, batches.stream().mapToInt(Map::size).sum());
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 2));
+    }
+
+    @Test
+    public void testFlush_fail() {
+        // 准备参数
+        CoalescingWriter<String, String> writer = new CoalescingWriter<>("test", 100, Duration.ofMillis(10L),
+                Integer.MAX_VALUE, (oldValue, newValue) -> newValue, batch -> {
+            throw new IllegalStateException("模拟写入失败");
+        });
+
+        // 调用
+        writer.offer("a", "1");
+        writer.shutdown(Duration.ofSeconds(5L));
+        // 断言
+        assertEquals(1, writer.getFailedCount());
+        assertEquals(0, writer.getPendingSize());
+    }
+
+}
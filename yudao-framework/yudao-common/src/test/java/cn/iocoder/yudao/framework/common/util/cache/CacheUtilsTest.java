@@ -0,0 +1,116 @@
+package cn.iocoder.yudao.framework.common.util.cache;
+
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link CacheUtils} 的单元测试
+ */
+public class CacheUtilsTest {
+
+    @Test
+    public void testBuildAsyncReloadingCache_coalescing() throws Exception {
+        // 准备参数
+        AtomicInteger version = new AtomicInteger();
+        AtomicInteger reloadCount = new AtomicInteger();
+        CountDownLatch reloadStarted = new CountDownLatch(1);
+        CountDownLatch reloadRelease = new CountDownLatch(1);
+        LoadingCache<String, Integer> cache = CacheUtils.buildAsyncReloadingCache(Duration.ofMinutes(1L),
+                new CacheLoader<String, Integer>() {
+
+                    @Override
+                    public Integer load(String key) throws Exception {
+                        if (version.get() > 0) {
+                            reloadCount.incrementAndGet();
+                            reloadStarted.countDown();
+                            reloadRelease.await();
+                        }
+                        return version.get();
+                    }
+
+                }, true);
+        assertEquals(0, cache.get("a"));
+        assertEquals(0, cache.get("b"));
+
+        // 调用：a 刷新中时，b 的刷新被合并，继续使用旧值
+        version.set(1);
+        cache.refresh("a");
+        assertTrue(reloadStarted.await(5, TimeUnit.SECONDS));
+        cache.refresh("b");
+        // 断言
+        assertEquals(1, reloadCount.get());
+        assertEquals(0, cache.get("b"));
+
+        // 调用：a 刷新完成
+        reloadRelease.countDown();
+        for (int i = 0; i < 50 && cache.get("a") != 1; i++) {
+            Thread.sleep(100L);
+        }
+        // 断言
+        assertEquals(1, cache.get("a"));
+    }
+
+    @Test
+    public void testBuildAsyncReloadingCache_rejected() throws Exception {
+        // 准备参数：1 个线程、1 个队列，便于占满
+        CacheUtils.configReloadExecutor(1, 1);
+        try {
+            AtomicInteger version = new AtomicInteger();
+            CountDownLatch reloadStarted = new CountDownLatch(1);
+            CountDownLatch reloadRelease = new CountDownLatch(1);
+            LoadingCache<String, Integer> cache = CacheUtils.buildAsyncReloadingCache(Duration.ofMinutes(1L),
+                    new CacheLoader<String, Integer>() {
+
+                        @Override
+                        public Integer load(String key) throws Exception {
+                            if (version.get() > 0 && reloadRelease.getCount() > 0) {
+                                reloadStarted.countDown();
+                                reloadRelease.await();
+                            }
+                            return version.get();
+                        }
+
+                    });
+            assertEquals(0, cache.get("running"));
+            assertEquals(0, cache.get("queued"));
+            assertEquals(0, cache.get("a"));
+
+            // 调用：running 占用线程、queued 占满队列后，a 的刷新被拒绝
+            version.set(1);
+            cache.refresh("running");
+            assertTrue(reloadStarted.await(5, TimeUnit.SECONDS));
+            cache.refresh("queued");
+            long rejectedCount = CacheUtils.getReloadRejectedCount();
+            cache.refresh("a");
+            // 断言：被拒绝时，继续使用旧值
+            assertEquals(rejectedCount + 1, CacheUtils.getReloadRejectedCount());
+            assertEquals(0, cache.get("a"));
+
+            // 调用：线程池空闲后，a 再次刷新成功
+            reloadRelease.countDown();
+            for (int i = 0; i < 50 && cache.get("queued") != 1; i++) {
+                Thread.sleep(100L);
+            }
+            cache.refresh("a");
+            for (int i = 0; i < 50 && cache.get("a") != 1; i++) {
+                Thread.sleep(100L);
+            }
+            // 断言
+            assertEquals(1, cache.get("a"));
+            assertEquals(1, cache.get("running"));
+        } finally {
+            CacheUtils.configReloadExecutor(CacheUtils.RELOAD_EXECUTOR_POOL_SIZE_DEFAULT,
+                    CacheUtils.RELOAD_EXECUTOR_QUEUE_CAPACITY_DEFAULT);
+        }
+    }
+
+}
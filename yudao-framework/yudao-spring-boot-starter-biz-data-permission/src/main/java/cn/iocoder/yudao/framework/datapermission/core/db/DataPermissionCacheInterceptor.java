@@ -0,0 +1,116 @@
+package cn.iocoder.yudao.framework.datapermission.core.db;
+
+import com.baomidou.mybatisplus.extension.plugins.inner.DataPermissionInterceptor;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.time.Duration;
+
+/**
+ * 带缓存的 {@link DataPermissionInterceptor} 实现类
+ *
+ * 每条 SQL 都需要经过 JSqlParser 解析、改写、再输出，对于带 JOIN 的列表页，同一条 SQL 会被反复解析，CPU 消耗明显。
+ * 因此，以（SQL，MappedStatement 编号，{@link DataPermissionRuleHandler#getCacheKey(String)} 数据权限标识）为 key，缓存改写后的 SQL：
+ * 1. 无需数据权限时，直接返回原 SQL，不进行解析
+ * 2. 数据权限标识相同时，直接返回缓存中改写后的 SQL
+ * 3. 存在不支持缓存的规则时，退化为每次改写
+ *
+ * @author 芋道源码
+ */
+public class DataPermissionCacheInterceptor extends DataPermissionInterceptor {
+
+    /**
+     * 缓存的最大数量
+     */
+    public static final long CACHE_MAXIMUM_SIZE_DEFAULT = 10000L;
+    /**
+     * 缓存的过期时间（访问后）
+     */
+    public static final Duration CACHE_EXPIRE_DEFAULT = Duration.ofHours(1);
+
+    private final DataPermissionRuleHandler ruleHandler;
+
+    /**
+     * 改写后的 SQL 缓存
+     *
+     * key：{@link #buildCacheKey(String, String, String)}
+     * value：改写后的 SQL
+     */
+    private final Cache<String, String> sqlCache;
+
+    public DataPermissionCacheInterceptor(DataPermissionRuleHandler ruleHandler) {
+        this(ruleHandler, CACHE_MAXIMUM_SIZE_DEFAULT, CACHE_EXPIRE_DEFAULT);
+    }
+
+    public DataPermissionCacheInterceptor(DataPermissionRuleHandler ruleHandler, long maximumSize, Duration expire) {
+        super(ruleHandler);
+        this.ruleHandler = ruleHandler;
+        this.sqlCache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expire)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public String parserSingle(String sql, Object obj) {
+        return parser(sql, obj, false);
+    }
+
+    @Override
+    public String parserMulti(String sql, Object obj) {
+        return parser(sql, obj, true);
+    }
+
+    private String parser(String sql, Object obj, boolean multi) {
+        // 1. 无需数据权限，直接返回原 SQL
+        String mappedStatementId = (String) obj;
+        String permissionKey = ruleHandler.getCacheKey(mappedStatementId);
+        if (DataPermissionRuleHandler.CACHE_KEY_NONE.equals(permissionKey)) {
+            return sql;
+        }
+        // 2. 不支持缓存，每次改写
+        if (permissionKey == null) {
+            return multi ? super.parserMulti(sql, obj) : super.parserSingle(sql, obj);
+        }
+
+        // 3. 优先从缓存中获取，不存在时改写并缓存
+        String cacheKey = buildCacheKey(sql, mappedStatementId, permissionKey);
+        String result = sqlCache.getIfPresent(cacheKey);
+        if (result == null) {
+            result = multi ? super.parserMulti(sql, obj) : super.parserSingle(sql, obj);
+            sqlCache.put(cacheKey, result);
+        }
+        return result;
+    }
+
+    private static String buildCacheKey(String sql, String mappedStatementId, String permissionKey) {
+        return mappedStatementId + '\n' + permissionKey + '\n' + sql;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        sqlCache.invalidateAll();
+    }
+
+    /**
+     * 获得缓存的数量，主要用于监控和单元测试
+     *
+     * @return 数量
+     */
+    public long getCacheSize() {
+        return sqlCache.size();
+    }
+
+    /**
+     * 获得缓存的命中数量，主要用于监控和单元测试
+     *
+     * @return 命中数量
+     */
+    public long getCacheHitCount() {
+        return sqlCache.stats().hitCount();
+    }
+
+}
@@ -25,6 +25,11 @@ import static cn.iocoder.yudao.framework.security.core.util.SecurityFrameworkUti
 @RequiredArgsConstructor
 public class DataPermissionRuleHandler implements MultiDataPermissionHandler {
 
+    /**
+     * 缓存标识 - 无需数据权限
+     */
+    public static final String CACHE_KEY_NONE = "";
+
     private final DataPermissionRuleFactory ruleFactory;
 
     @Override
@@ -61,4 +66,32 @@ public class DataPermissionRuleHandler implements MultiDataPermissionHandler {
         return allExpression;
     }
 
+    /**
+     * 获得指定 Mapper 在当前上下文下的数据权限缓存标识，由生效的每条规则的 {@link DataPermissionRule#getCacheKey()} 组成
+     *
+     * @param mappedStatementId 指定 Mapper 的编号
+     * @return 缓存标识。如果是 {@link #CACHE_KEY_NONE}，说明无需数据权限；如果是 null，说明不支持缓存
+     */
+    public String getCacheKey(String mappedStatementId) {
+        // 特殊：跨租户访问
+        if (skipPermissionCheck()) {
+            return CACHE_KEY_NONE;
+        }
+        List<DataPermissionRule> rules = ruleFactory.getDataPermissionRule(mappedStatementId);
+        if (CollUtil.isEmpty(rules)) {
+            return CACHE_KEY_NONE;
+        }
+
+        // 拼接每条规则的缓存标识，任一规则不支持缓存，则整体不支持
+        StringBuilder cacheKey = new StringBuilder();
+        for (DataPermissionRule rule : rules) {
+            String ruleCacheKey = rule.getCacheKey();
+            if (ruleCacheKey == null) {
+                return null;
+            }
+            cacheKey.append(rule.getClass().getName()).append('=').append(ruleCacheKey).append(';');
+        }
+        return cacheKey.toString();
+    }
+
 }
@@ -33,4 +33,16 @@ public interface DataPermissionRule {
      */
     Expression getExpression(String tableName, Alias tableAlias);
 
+    /**
+     * 获得当前上下文（登录用户等）下，该规则的缓存标识
+     *
+     * 用于 {@link cn.iocoder.yudao.framework.datapermission.core.db.DataPermissionCacheInterceptor} 缓存改写后的 SQL：
+     * 缓存标识相同时，{@link #getExpression(String, Alias)} 对同一张表，必须返回相同的条件
+     *
+     * @return 缓存标识；返回 null 时，表示不支持缓存，每次都重新改写 SQL
+     */
+    default String getCacheKey() {
+        return null;
+    }
+
 }
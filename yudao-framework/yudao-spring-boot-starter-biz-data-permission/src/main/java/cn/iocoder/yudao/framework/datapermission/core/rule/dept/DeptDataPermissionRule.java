@@ -30,6 +30,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * 基于部门的 {@link DataPermissionRule} 数据权限规则实现
@@ -62,6 +63,11 @@ public class DeptDataPermissionRule implements DataPermissionRule {
 
     static final Expression EXPRESSION_NULL = new NullValue();
 
+    /**
+     * 缓存标识 - 不拼接条件
+     */
+    static final String CACHE_KEY_SKIP = "SKIP";
+
     private final PermissionCommonApi permissionApi;
 
     /**
@@ -103,17 +109,11 @@ public class DeptDataPermissionRule implements DataPermissionRule {
         }
 
         // 获得数据权限
-        DeptDataPermissionRespDTO deptDataPermission = loginUser.getContext(CONTEXT_KEY, DeptDataPermissionRespDTO.class);
-        // 从上下文中拿不到，则调用逻辑进行获取
+        DeptDataPermissionRespDTO deptDataPermission = getDeptDataPermission(loginUser);
         if (deptDataPermission == null) {
-            deptDataPermission = permissionApi.getDeptDataPermission(loginUser.getId());
-            if (deptDataPermission == null) {
-                log.error("[getExpression][LoginUser({}) 获取数据权限为 null]", JsonUtils.toJsonString(loginUser));
-                throw new NullPointerException(String.format("LoginUser(%d) Table(%s/%s) 未返回数据权限",
-                        loginUser.getId(), tableName, tableAlias.getName()));
-            }
-            // 添加到上下文中，避免重复计算
-            loginUser.setContext(CONTEXT_KEY, deptDataPermission);
+            log.error("[getExpression][LoginUser({}) 获取数据权限为 null]", JsonUtils.toJsonString(loginUser));
+            throw new NullPointerException(String.format("LoginUser(%d) Table(%s/%s) 未返回数据权限",
+                    loginUser.getId(), tableName, tableAlias.getName()));
         }
 
         // 情况一，如果是 ALL 可查看全部，则无需拼接条件
@@ -148,6 +148,49 @@ public class DeptDataPermissionRule implements DataPermissionRule {
         return new ParenthesedExpressionList(new OrExpression(deptExpression, userExpression));
     }
 
+    @Override
+    public String getCacheKey() {
+        // 不进行数据权限的处理，对应 getExpression 返回 null 的情况
+        LoginUser loginUser = SecurityFrameworkUtils.getLoginUser();
+        if (loginUser == null
+                || ObjectUtil.notEqual(loginUser.getUserType(), UserTypeEnum.ADMIN.getValue())) {
+            return CACHE_KEY_SKIP;
+        }
+        DeptDataPermissionRespDTO deptDataPermission = getDeptDataPermission(loginUser);
+        if (deptDataPermission == null) { // 获取不到时，不缓存，交给 getExpression 处理
+            return null;
+        }
+        if (deptDataPermission.getAll()) {
+            return CACHE_KEY_SKIP;
+        }
+        // 生成的条件，只和 deptIds、self 相关，可查看自己时还和 userId 相关。其中 deptIds 排序，保证相同的数据权限得到相同的标识
+        String deptIds = CollUtil.join(new TreeSet<>(CollUtil.emptyIfNull(deptDataPermission.getDeptIds())), ",");
+        if (Boolean.FALSE.equals(deptDataPermission.getSelf())) {
+            return "dept:" + deptIds;
+        }
+        return "dept:" + deptIds + ";self:" + loginUser.getId();
+    }
+
+    /**
+     * 获得登录用户的部门数据权限，会缓存到 LoginUser 的上下文中，避免同一请求重复获取
+     *
+     * @param loginUser 登录用户
+     * @return 部门数据权限，可能为 null
+     */
+    private DeptDataPermissionRespDTO getDeptDataPermission(LoginUser loginUser) {
+        DeptDataPermissionRespDTO deptDataPermission = loginUser.getContext(CONTEXT_KEY, DeptDataPermissionRespDTO.class);
+        if (deptDataPermission != null) {
+            return deptDataPermission;
+        }
+        // 从上下文中拿不到，则调用逻辑进行获取
+        deptDataPermission = permissionApi.getDeptDataPermission(loginUser.getId());
+        if (deptDataPermission != null) {
+            // 添加到上下文中，避免重复计算
+            loginUser.setContext(CONTEXT_KEY, deptDataPermission);
+        }
+        return deptDataPermission;
+    }
+
     private Expression buildDeptExpression(String tableName, Alias tableAlias, Set<Long> deptIds) {
         // 如果不存在配置，则无需作为条件
         String columnName = deptColumns.get(tableName);
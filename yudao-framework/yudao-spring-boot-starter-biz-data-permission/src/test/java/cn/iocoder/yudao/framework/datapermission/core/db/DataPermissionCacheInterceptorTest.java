@@ -0,0 +1,150 @@
+package cn.iocoder.yudao.framework.datapermission.core.db;
+
+import cn.iocoder.yudao.framework.datapermission.core.rule.DataPermissionRule;
+import cn.iocoder.yudao.framework.datapermission.core.rule.DataPermissionRuleFactory;
+import cn.iocoder.yudao.framework.mybatis.core.util.MyBatisUtils;
+import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
+import net.sf.jsqlparser.expression.Alias;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static cn.iocoder.yudao.framework.common.util.collection.SetUtils.asSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link DataPermissionCacheInterceptor} 的单元测试
+ *
+ * @author 芋道源码
+ */
+public class DataPermissionCacheInterceptorTest extends BaseMockitoUnitTest {
+
+    private static final String MAPPED_STATEMENT_ID = "cn.iocoder.yudao.UserMapper.selectList";
+
+    @Mock
+    private DataPermissionRuleFactory ruleFactory;
+
+    private DataPermissionCacheInterceptor interceptor;
+
+    /**
+     * 规则的 dept_id 条件值，模拟不同用户的数据权限
+     */
+    private final AtomicReference<Long> deptId = new AtomicReference<>(10L);
+    /**
+     * 规则的缓存标识，为 null 时表示不支持缓存
+     */
+    private final AtomicReference<String> ruleCacheKey = new AtomicReference<>();
+    /**
+     * {@link DataPermissionRule#getExpression(String, Alias)} 的调用次数
+     */
+    private final AtomicInteger expressionCount = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        interceptor = new DataPermissionCacheInterceptor(new DataPermissionRuleHandler(ruleFactory));
+        ruleCacheKey.set("dept:10");
+
+        DataPermissionRule deptRule = new DataPermissionRule() {
+
+            @Override
+            public Set<String> getTableNames() {
+                return asSet("t_user");
+            }
+
+            @Override
+            public Expression getExpression(String tableName, Alias tableAlias) {
+                expressionCount.incrementAndGet();
+                return new EqualsTo(MyBatisUtils.buildColumn(tableName, tableAlias, "dept_id"),
+                        new LongValue(deptId.get()));
+            }
+
+            @Override
+            public String getCacheKey() {
+                return ruleCacheKey.get();
+            }
+
+        };
+        when(ruleFactory.getDataPermissionRule(any())).thenReturn(Collections.singletonList(deptRule));
+    }
+
+    @Test
+    public void testParserSingle_cache() {
+        // 调用（第一次，改写并缓存）
+        String result = interceptor.parserSingle("select * from t_user where id = ?", MAPPED_STATEMENT_ID);
+        // 断言
+        assertEquals("SELECT * FROM t_user WHERE id = ? AND t_user.dept_id = 10", result);
+        assertEquals(1, expressionCount.get());
+
+        // 调用（第二次，命中缓存，不再改写）
+        result = interceptor.parserSingle("select * from t_user where id = ?", MAPPED_STATEMENT_ID);
+        // 断言
+        assertEquals("SELECT * FROM t_user WHERE id = ? AND t_user.dept_id = 10", result);
+        assertEquals(1, expressionCount.get());
+        assertEquals(1, interceptor.getCacheSize());
+        assertEquals(1, interceptor.getCacheHitCount());
+    }
+
+    @Test
+    public void testParserSingle_differentCacheKey() {
+        // 调用（用户一）
+        String result = interceptor.parserSingle("select * from t_user where id = ?", MAPPED_STATEMENT_ID);
+        assertEquals("SELECT * FROM t_user WHERE id = ? AND t_user.dept_id = 10", result);
+
+        // 调用（用户二，数据权限不同，不能命中用户一的缓存）
+        deptId.set(20L);
+        ruleCacheKey.set("dept:20");
+        result = interceptor.parserSingle("select * from t_user where id = ?", MAPPED_STATEMENT_ID);
+        // 断言
+        assertEquals("SELECT * FROM t_user WHERE id = ? AND t_user.dept_id = 20", result);
+        assertEquals(2, expressionCount.get());
+        assertEquals(2, interceptor.getCacheSize());
+    }
+
+    @Test
+    public void testParserMulti_cache() {
+        // 调用
+        interceptor.parserMulti("update t_user set name = ? where id = ?", MAPPED_STATEMENT_ID);
+        String result = interceptor.parserMulti("update t_user set name = ? where id = ?", MAPPED_STATEMENT_ID);
+        // 断言
+        assertEquals("UPDATE t_user SET name = ? WHERE id = ? AND t_user.dept_id = 10", result);
+        assertEquals(1, expressionCount.get());
+    }
+
+    @Test
+    public void testParserSingle_notSupportCache() {
+        // mock 规则不支持缓存
+        ruleCacheKey.set(null);
+
+        // 调用
+        interceptor.parserSingle("select * from t_user where id = ?", MAPPED_STATEMENT_ID);
+        String result = interceptor.parserSingle("select * from t_user where id = ?", MAPPED_STATEMENT_ID);
+        // 断言
+        assertEquals("SELECT * FROM t_user WHERE id = ? AND t_user.dept_id = 10", result);
+        assertEquals(2, expressionCount.get());
+        assertEquals(0, interceptor.getCacheSize());
+    }
+
+    @Test
+    public void testParserSingle_noRule() {
+        // mock 无数据权限规则
+        when(ruleFactory.getDataPermissionRule(any())).thenReturn(Collections.emptyList());
+
+        // 调用
+        String result = interceptor.parserSingle("select * from t_user where id = ?", MAPPED_STATEMENT_ID);
+        // 断言：原样返回，不进行解析
+        assertEquals("select * from t_user where id = ?", result);
+        assertEquals(0, expressionCount.get());
+        assertEquals(0, interceptor.getCacheSize());
+    }
+
+}
@@ -235,4 +235,76 @@ class DeptDataPermissionRuleTest extends BaseMockitoUnitTest {
         }
     }
 
+    @Test // 无 LoginUser 时，无需拼接条件
+    public void testGetCacheKey_noLoginUser() {
+        // 调用
+        String cacheKey = rule.getCacheKey();
+        // 断言
+        assertEquals(DeptDataPermissionRule.CACHE_KEY_SKIP, cacheKey);
+    }
+
+    @Test // 无数据权限时，不支持缓存
+    public void testGetCacheKey_noDeptDataPermission() {
+        try (MockedStatic<SecurityFrameworkUtils> securityFrameworkUtilsMock
+                     = mockStatic(SecurityFrameworkUtils.class)) {
+            // mock 方法
+            LoginUser loginUser = randomPojo(LoginUser.class, o -> o.setId(1L)
+                    .setUserType(UserTypeEnum.ADMIN.getValue()));
+            securityFrameworkUtilsMock.when(SecurityFrameworkUtils::getLoginUser).thenReturn(loginUser);
+
+            // 调用
+            String cacheKey = rule.getCacheKey();
+            // 断言
+            assertNull(cacheKey);
+        }
+    }
+
+    @Test // 相同的部门（顺序不同）得到相同的缓存标识；不可查看自己时，和用户无关
+    public void testGetCacheKey_dept() {
+        try (MockedStatic<SecurityFrameworkUtils> securityFrameworkUtilsMock
+                     = mockStatic(SecurityFrameworkUtils.class)) {
+            // mock 方法（LoginUser 1）
+            LoginUser loginUser01 = randomPojo(LoginUser.class, o -> o.setId(1L)
+                    .setUserType(UserTypeEnum.ADMIN.getValue()));
+            securityFrameworkUtilsMock.when(SecurityFrameworkUtils::getLoginUser).thenReturn(loginUser01);
+            when(permissionApi.getDeptDataPermission(same(1L))).thenReturn(new DeptDataPermissionRespDTO()
+                    .setDeptIds(CollUtil.newLinkedHashSet(20L, 10L)));
+            // 调用
+            String cacheKey01 = rule.getCacheKey();
+
+            // mock 方法（LoginUser 2）
+            LoginUser loginUser02 = randomPojo(LoginUser.class, o -> o.setId(2L)
+                    .setUserType(UserTypeEnum.ADMIN.getValue()));
+            securityFrameworkUtilsMock.when(SecurityFrameworkUtils::getLoginUser).thenReturn(loginUser02);
+            when(permissionApi.getDeptDataPermission(same(2L))).thenReturn(new DeptDataPermissionRespDTO()
+                    .setDeptIds(CollUtil.newLinkedHashSet(10L, 20L)));
+            // 调用
+            String cacheKey02 = rule.getCacheKey();
+
+            // 断言
+            assertEquals("dept:10,20", cacheKey01);
+            assertEquals(cacheKey01, cacheKey02);
+        }
+    }
+
+    @Test // 可查看自己时，和用户相关
+    public void testGetCacheKey_self() {
+        try (MockedStatic<SecurityFrameworkUtils> securityFrameworkUtilsMock
+                     = mockStatic(SecurityFrameworkUtils.class)) {
+            // mock 方法
+            LoginUser loginUser = randomPojo(LoginUser.class, o -> o.setId(1L)
+                    .setUserType(UserTypeEnum.ADMIN.getValue()));
+            securityFrameworkUtilsMock.when(SecurityFrameworkUtils::getLoginUser).thenReturn(loginUser);
+            DeptDataPermissionRespDTO deptDataPermission = new DeptDataPermissionRespDTO()
+                    .setDeptIds(CollUtil.newLinkedHashSet(10L)).setSelf(true);
+            when(permissionApi.getDeptDataPermission(same(1L))).thenReturn(deptDataPermission);
+
+            // 调用
+            String cacheKey = rule.getCacheKey();
+            // 断言
+            assertEquals("dept:10;self:1", cacheKey);
+            assertSame(deptDataPermission, loginUser.getContext(DeptDataPermissionRule.CONTEXT_KEY, DeptDataPermissionRespDTO.class));
+        }
+    }
+
 }
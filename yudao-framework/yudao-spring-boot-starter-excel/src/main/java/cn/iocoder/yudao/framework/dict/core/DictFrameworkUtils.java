@@ -1,17 +1,21 @@
 package cn.iocoder.yudao.framework.dict.core;
 
-import cn.hutool.core.collection.CollUtil;
 import cn.iocoder.yudao.framework.common.biz.system.dict.DictDataCommonApi;
 import cn.iocoder.yudao.framework.common.util.cache.CacheUtils;
 import cn.iocoder.yudao.framework.common.biz.system.dict.dto.DictDataRespDTO;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import lombok.Getter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 
 import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
 
@@ -27,14 +31,16 @@ public class DictFrameworkUtils {
 
     /**
      * 针对 dictType 的字段数据缓存
+     *
+     * 加载、刷新时，构建 value、label 的索引，避免每次解析都遍历字典数据（例如说，Excel 导出时，每个单元格都要解析一次）
      */
-    private static final LoadingCache<String, List<DictDataRespDTO>> GET_DICT_DATA_CACHE = CacheUtils.buildAsyncReloadingCache(
+    private static final LoadingCache<String, DictDataIndex> GET_DICT_DATA_CACHE = CacheUtils.buildAsyncReloadingCache(
             Duration.ofMinutes(1L), // 过期时间 1 分钟
-            new CacheLoader<String, List<DictDataRespDTO>>() {
+            new CacheLoader<String, DictDataIndex>() {
 
                 @Override
-                public List<DictDataRespDTO> load(String dictType) {
-                    return dictDataApi.getDictDataList(dictType);
+                public DictDataIndex load(String dictType) {
+                    return new DictDataIndex(dictDataApi.getDictDataList(dictType));
                 }
 
             });
@@ -58,22 +64,80 @@ public class DictFrameworkUtils {
 
     @SneakyThrows
     public static String parseDictDataLabel(String dictType, String value) {
-        List<DictDataRespDTO> dictDatas = GET_DICT_DATA_CACHE.get(dictType);
-        DictDataRespDTO dictData = CollUtil.findOne(dictDatas, data -> Objects.equals(data.getValue(), value));
-        return dictData != null ? dictData.getLabel(): null;
+        return GET_DICT_DATA_CACHE.get(dictType).getValueLabelMap().get(value);
+    }
+
+    /**
+     * 批量解析字典标签，适合 Excel 导出等，整列数据一次性转换的场景
+     *
+     * @param dictType 字典类型
+     * @param values 字典值数组
+     * @return 字典标签数组，和 values 一一对应；解析不到时，对应位置为 null
+     */
+    @SneakyThrows
+    public static List<String> parseDictDataLabelList(String dictType, Collection<String> values) {
+        return translate(GET_DICT_DATA_CACHE.get(dictType).getValueLabelMap(), values);
     }
 
     @SneakyThrows
     public static List<String> getDictDataLabelList(String dictType) {
-        List<DictDataRespDTO> dictDatas = GET_DICT_DATA_CACHE.get(dictType);
+        List<DictDataRespDTO> dictDatas = GET_DICT_DATA_CACHE.get(dictType).getDictDatas();
         return convertList(dictDatas, DictDataRespDTO::getLabel);
     }
 
     @SneakyThrows
     public static String parseDictDataValue(String dictType, String label) {
-        List<DictDataRespDTO> dictDatas = GET_DICT_DATA_CACHE.get(dictType);
-        DictDataRespDTO dictData = CollUtil.findOne(dictDatas, data -> Objects.equals(data.getLabel(), label));
-        return dictData!= null ? dictData.getValue(): null;
+        return GET_DICT_DATA_CACHE.get(dictType).getLabelValueMap().get(label);
+    }
+
+    /**
+     * 批量解析字典值，适合 Excel 导入等，整列数据一次性转换的场景
+     *
+     * @param dictType 字典类型
+     * @param labels 字典标签数组
+     * @return 字典值数组，和 labels 一一对应；解析不到时，对应位置为 null
+     */
+    @SneakyThrows
+    public static List<String> parseDictDataValueList(String dictType, Collection<String> labels) {
+        return translate(GET_DICT_DATA_CACHE.get(dictType).getLabelValueMap(), labels);
+    }
+
+    private static List<String> translate(Map<String, String> index, Collection<String> keys) {
+        // 不使用 convertList 方法，因为它会过滤 null 结果，导致和 keys 无法一一对应
+        List<String> result = new ArrayList<>(keys.size());
+        keys.forEach(key -> result.add(index.get(key)));
+        return result;
+    }
+
+    /**
+     * 某个字典类型的字典数据，及其 value、label 的不可变索引
+     */
+    @Getter
+    private static class DictDataIndex {
+
+        private final List<DictDataRespDTO> dictDatas;
+        /**
+         * value 与 label 的映射
+         */
+        private final Map<String, String> valueLabelMap;
+        /**
+         * label 与 value 的映射
+         */
+        private final Map<String, String> labelValueMap;
+
+        DictDataIndex(List<DictDataRespDTO> dictDatas) {
+            this.dictDatas = dictDatas != null ? dictDatas : Collections.emptyList();
+            Map<String, String> valueLabelMap = new HashMap<>(this.dictDatas.size() * 2);
+            Map<String, String> labelValueMap = new HashMap<>(this.dictDatas.size() * 2);
+            // 使用 putIfAbsent，重复时以第一个字典数据为准
+            this.dictDatas.forEach(dictData -> {
+                valueLabelMap.putIfAbsent(dictData.getValue(), dictData.getLabel());
+                labelValueMap.putIfAbsent(dictData.getLabel(), dictData.getValue());
+            });
+            this.valueLabelMap = Collections.unmodifiableMap(valueLabelMap);
+            this.labelValueMap = Collections.unmodifiableMap(labelValueMap);
+        }
+
     }
 
 }
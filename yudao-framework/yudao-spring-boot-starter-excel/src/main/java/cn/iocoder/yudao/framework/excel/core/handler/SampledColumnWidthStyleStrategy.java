@@ -0,0 +1,49 @@
+package cn.iocoder.yudao.framework.excel.core.handler;
+
+import com.alibaba.excel.metadata.Head;
+import com.alibaba.excel.metadata.data.WriteCellData;
+import com.alibaba.excel.write.metadata.holder.WriteSheetHolder;
+import com.alibaba.excel.write.style.column.LongestMatchColumnWidthStyleStrategy;
+import org.apache.poi.ss.usermodel.Cell;
+
+import java.util.List;
+
+/**
+ * 基于采样的列宽策略
+ *
+ * 只根据表头 + 每个 sheet 的前 sampleRows 行数据计算列宽，之后的行不再计算。
+ * 相比 {@link LongestMatchColumnWidthStyleStrategy} 每个单元格都要计算一次，适合大数据量的流式导出
+ *
+ * @author 芋道源码
+ */
+public class SampledColumnWidthStyleStrategy extends LongestMatchColumnWidthStyleStrategy {
+
+    /**
+     * 默认采样行数
+     */
+    public static final int SAMPLE_ROWS_DEFAULT = 100;
+
+    /**
+     * 采样行数
+     */
+    private final int sampleRows;
+
+    public SampledColumnWidthStyleStrategy() {
+        this(SAMPLE_ROWS_DEFAULT);
+    }
+
+    public SampledColumnWidthStyleStrategy(int sampleRows) {
+        this.sampleRows = sampleRows;
+    }
+
+    @Override
+    protected void setColumnWidth(WriteSheetHolder writeSheetHolder, List<WriteCellData<?>> cellDataList,
+                                  Cell cell, Head head, Integer relativeRowIndex, Boolean isHead) {
+        // 使用 cell 的行号，而不是 relativeRowIndex，因为分批写入时，relativeRowIndex 每批都会从 0 开始
+        if (!isHead && cell.getRowIndex() > sampleRows) {
+            return;
+        }
+        super.setColumnWidth(writeSheetHolder, cellDataList, cell, head, relativeRowIndex, isHead);
+    }
+
+}
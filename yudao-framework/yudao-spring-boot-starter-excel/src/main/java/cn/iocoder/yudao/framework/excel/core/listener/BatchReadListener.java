@@ -0,0 +1,109 @@
+package cn.iocoder.yudao.framework.excel.core.listener;
+
+import com.alibaba.excel.context.AnalysisContext;
+import com.alibaba.excel.exception.ExcelDataConvertException;
+import com.alibaba.excel.read.listener.ReadListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 分批读取的 {@link ReadListener} 实现类
+ *
+ * 每读取 batchSize 行，回调一次 batchConsumer，内存中最多只保留一批数据，适合大数据量的导入。
+ * 单元格转换失败时，记录到 {@link #getFailureRows()} 中，跳过该行，继续读取
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class BatchReadListener<T> implements ReadListener<T> {
+
+    /**
+     * 每批数量
+     */
+    private final int batchSize;
+    /**
+     * 每批数据的处理逻辑
+     */
+    private final Consumer<List<T>> batchConsumer;
+
+    /**
+     * 当前批次的数据
+     */
+    private List<T> batch;
+    /**
+     * 已读取的行数（不含表头，不含转换失败的行）
+     */
+    private volatile int readCount;
+    /**
+     * 转换失败的行
+     *
+     * key：行号，从 1 开始，和 Excel 中显示的一致
+     * value：失败原因
+     */
+    private final Map<Integer, String> failureRows = new LinkedHashMap<>();
+
+    public BatchReadListener(int batchSize, Consumer<List<T>> batchConsumer) {
+        this.batchSize = batchSize;
+        this.batchConsumer = batchConsumer;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    public void invoke(T data, AnalysisContext context) {
+        batch.add(data);
+        readCount++;
+        if (batch.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    @Override
+    public void doAfterAllAnalysed(AnalysisContext context) {
+        flush();
+        log.info("[doAfterAllAnalysed][读取完成，共 {} 行，转换失败 {} 行]", readCount, failureRows.size());
+    }
+
+    @Override
+    public void onException(Exception exception, AnalysisContext context) throws Exception {
+        // 单元格转换失败，记录后跳过该行；其它异常，例如说 batchConsumer 抛出的业务异常，直接抛出
+        if (!(exception instanceof ExcelDataConvertException)) {
+            throw exception;
+        }
+        ExcelDataConvertException ex = (ExcelDataConvertException) exception;
+        failureRows.put(ex.getRowIndex() + 1, String.format("第 %d 列格式不正确", ex.getColumnIndex() + 1));
+    }
+
+    private void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchConsumer.accept(batch);
+        log.info("[flush][已处理 {} 行]", readCount);
+        batch = new ArrayList<>(batchSize); // 新建，而不是 clear，避免 batchConsumer 持有引用
+    }
+
+    /**
+     * 获得已读取的行数，可用于展示导入进度
+     *
+     * @return 行数
+     */
+    public int getReadCount() {
+        return readCount;
+    }
+
+    /**
+     * 获得转换失败的行
+     *
+     * @return 行号与失败原因的映射
+     */
+    public Map<Integer, String> getFailureRows() {
+        return Collections.unmodifiableMap(failureRows);
+    }
+
+}
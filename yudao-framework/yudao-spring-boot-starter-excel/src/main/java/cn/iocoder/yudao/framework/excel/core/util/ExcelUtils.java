@@ -1,15 +1,22 @@
 package cn.iocoder.yudao.framework.excel.core.util;
 
 import cn.iocoder.yudao.framework.common.util.http.HttpUtils;
+import cn.iocoder.yudao.framework.excel.core.handler.SampledColumnWidthStyleStrategy;
 import cn.iocoder.yudao.framework.excel.core.handler.SelectSheetWriteHandler;
+import cn.iocoder.yudao.framework.excel.core.listener.BatchReadListener;
 import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
 import com.alibaba.excel.converters.longconverter.LongStringConverter;
+import com.alibaba.excel.write.metadata.WriteSheet;
 import com.alibaba.excel.write.style.column.LongestMatchColumnWidthStyleStrategy;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Excel 工具类
@@ -18,6 +25,21 @@ import java.util.List;
  */
 public class ExcelUtils {
 
+    /**
+     * 流式导出时，默认每批查询的数量
+     */
+    public static final int STREAM_PAGE_SIZE_DEFAULT = 1000;
+    /**
+     * 流式导出时，每个 sheet 的最大数据行数
+     *
+     * Excel 单个 sheet 最多 1048576 行，这里预留一些余量
+     */
+    public static final int STREAM_SHEET_MAX_ROWS = 1000000;
+    /**
+     * 分批导入时，默认每批处理的数量
+     */
+    public static final int BATCH_READ_SIZE_DEFAULT = 500;
+
     /**
      * 将列表以 Excel 响应给前端
      *
@@ -43,10 +65,101 @@ public class ExcelUtils {
         response.setContentType("application/vnd.ms-excel;charset=UTF-8");
     }
 
+    /**
+     * 将数据以 Excel 流式响应给前端，适合大数据量的导出
+     *
+     * 和 {@link #write(HttpServletResponse, String, String, Class, List)} 的差异：
+     * 1. 通过 pageLoader 分批加载数据，每批写入后即可被 GC 回收，内存占用只和 pageSize 相关，和总数据量无关
+     * 2. 超过 {@link #STREAM_SHEET_MAX_ROWS} 行时，自动拆分到新的 sheet 页
+     * 3. 使用 {@link SampledColumnWidthStyleStrategy} 采样计算列宽；不注册 {@link SelectSheetWriteHandler} 下拉框
+     *
+     * @param response   响应
+     * @param filename   文件名
+     * @param sheetName  Excel sheet 名
+     * @param head       Excel head 头
+     * @param pageSize   每批数量
+     * @param pageLoader 分批加载数据，参数为页码（从 1 开始）；返回空或者数量小于 pageSize 时，表示没有更多数据。
+     *                   可以基于 BaseMapperX 的分页查询，也可以在 lambda 中记录上一批的最后一个编号，实现游标查询
+     * @param <T>        泛型，保证 head 和 data 类型的一致性
+     * @throws IOException 写入失败的情况
+     */
+    public static <T> void write(HttpServletResponse response, String filename, String sheetName,
+                                 Class<T> head, int pageSize, Function<Integer, List<T>> pageLoader) throws IOException {
+        ExcelWriter excelWriter = EasyExcel.write(response.getOutputStream(), head)
+                .autoCloseStream(false) // 不要自动关闭，交给 Servlet 自己处理
+                .registerWriteHandler(new SampledColumnWidthStyleStrategy()) // 基于前 N 行采样，自动适配列宽
+                .registerConverter(new LongStringConverter()) // 避免 Long 类型丢失精度
+                .build();
+        boolean success = false;
+        try {
+            int sheetNo = 0;
+            int sheetRows = 0;
+            WriteSheet writeSheet = EasyExcel.writerSheet(sheetNo, sheetName).build();
+            for (int pageNo = 1; ; pageNo++) {
+                List<T> data = pageLoader.apply(pageNo);
+                if (data == null || data.isEmpty()) {
+                    // 没有任何数据时，也要写入表头
+                    if (pageNo == 1) {
+                        excelWriter.write(Collections.<T>emptyList(), writeSheet);
+                    }
+                    break;
+                }
+                // 写入当前批次；超过 sheet 最大行数时，拆分到新的 sheet 页
+                int offset = 0;
+                while (offset < data.size()) {
+                    if (sheetRows >= STREAM_SHEET_MAX_ROWS) {
+                        sheetNo++;
+                        sheetRows = 0;
+                        writeSheet = EasyExcel.writerSheet(sheetNo, sheetName + "-" + (sheetNo + 1)).build();
+                    }
+                    int end = Math.min(data.size(), offset + STREAM_SHEET_MAX_ROWS - sheetRows);
+                    excelWriter.write(data.subList(offset, end), writeSheet);
+                    sheetRows += end - offset;
+                    offset = end;
+                }
+                if (data.size() < pageSize) {
+                    break;
+                }
+            }
+            // 设置 header 和 contentType。写在 finish 之前的原因是，finish 时才真正写入响应；同时避免报错时，响应 contentType 已经被修改了
+            response.addHeader("Content-Disposition", "attachment;filename=" + HttpUtils.encodeUtf8(filename));
+            response.setContentType("application/vnd.ms-excel;charset=UTF-8");
+            success = true;
+        } finally {
+            if (success) {
+                excelWriter.finish();
+            } else {
+                excelWriter.writeContext().finish(true); // 异常时，只释放临时文件等资源，不写入响应
+            }
+        }
+    }
+
     public static <T> List<T> read(MultipartFile file, Class<T> head) throws IOException {
         return EasyExcel.read(file.getInputStream(), head, null)
                 .autoCloseStream(false)  // 不要自动关闭，交给 Servlet 自己处理
                 .doReadAllSync();
     }
 
+    /**
+     * 分批读取 Excel，适合大数据量的导入
+     *
+     * 和 {@link #read(MultipartFile, Class)} 的差异：边读取边处理，每 batchSize 行回调一次 batchConsumer，
+     * 内存中最多只保留一批数据；batchConsumer 中可以进行校验，并通过 BaseMapperX 的 insertBatch 批量写入
+     *
+     * @param file          Excel 文件
+     * @param head          Excel head 头
+     * @param batchSize     每批数量
+     * @param batchConsumer 每批数据的处理逻辑
+     * @return 读取结果，包括读取行数、转换失败的行
+     * @throws IOException 读取失败的情况
+     */
+    public static <T> BatchReadListener<T> read(MultipartFile file, Class<T> head, int batchSize,
+                                                Consumer<List<T>> batchConsumer) throws IOException {
+        BatchReadListener<T> listener = new BatchReadListener<>(batchSize, batchConsumer);
+        EasyExcel.read(file.getInputStream(), head, listener)
+                .autoCloseStream(false)  // 不要自动关闭，交给 Servlet 自己处理
+                .sheet().doRead();
+        return listener;
+    }
+
 }
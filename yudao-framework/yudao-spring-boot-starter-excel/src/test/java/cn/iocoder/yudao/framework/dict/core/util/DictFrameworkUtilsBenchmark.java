@@ -0,0 +1,90 @@
+package cn.iocoder.yudao.framework.dict.core.util;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.iocoder.yudao.framework.common.biz.system.dict.dto.DictDataRespDTO;
+import cn.iocoder.yudao.framework.dict.core.DictFrameworkUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DictFrameworkUtils} 的 JMH 基准测试：对比「遍历查找」和「索引查找」解析一整列字典数据的耗时
+ *
+ * 运行方式：直接执行 {@link #main(String[])} 方法
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DictFrameworkUtilsBenchmark {
+
+    private static final String DICT_TYPE = "benchmark_dict";
+
+    /**
+     * 字典数据数量
+     */
+    @Param({"10", "50"})
+    private int dictSize;
+    /**
+     * 一列的行数，模拟 Excel 导出
+     */
+    @Param({"10000"})
+    private int rowSize;
+
+    private List<DictDataRespDTO> dictDatas;
+    private List<String> values;
+
+    @Setup
+    public void setUp() {
+        dictDatas = new ArrayList<>(dictSize);
+        for (int i = 0; i < dictSize; i++) {
+            dictDatas.add(new DictDataRespDTO().setDictType(DICT_TYPE)
+                    .setValue(String.valueOf(i)).setLabel("标签" + i));
+        }
+        values = new ArrayList<>(rowSize);
+        for (int i = 0; i < rowSize; i++) {
+            values.add(String.valueOf(ThreadLocalRandom.current().nextInt(dictSize)));
+        }
+        DictFrameworkUtils.init(dictType -> dictDatas);
+        DictFrameworkUtils.clearCache();
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        for (String value : values) {
+            DictDataRespDTO dictData = CollUtil.findOne(dictDatas, data -> Objects.equals(data.getValue(), value));
+            blackhole.consume(dictData != null ? dictData.getLabel() : null);
+        }
+    }
+
+    @Benchmark
+    public void indexedParse(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(DictFrameworkUtils.parseDictDataLabel(DICT_TYPE, value));
+        }
+    }
+
+    @Benchmark
+    public void indexedParseList(Blackhole blackhole) {
+        blackhole.consume(DictFrameworkUtils.parseDictDataLabelList(DICT_TYPE, values));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DictFrameworkUtilsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
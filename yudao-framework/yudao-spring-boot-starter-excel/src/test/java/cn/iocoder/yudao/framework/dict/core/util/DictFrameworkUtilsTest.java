@@ -9,6 +9,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 
+import java.util.Arrays;
 import java.util.List;
 
 import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.randomPojo;
@@ -58,4 +59,21 @@ public class DictFrameworkUtilsTest extends BaseMockitoUnitTest {
         assertEquals("dog", DictFrameworkUtils.parseDictDataValue("animal", "狗"));
     }
 
+    @Test
+    public void testParseDictDataLabelList() {
+        // mock 数据
+        List<DictDataRespDTO> dictDatas = ListUtil.of(
+                randomPojo(DictDataRespDTO.class, o -> o.setDictType("animal").setValue("cat").setLabel("猫")),
+                randomPojo(DictDataRespDTO.class, o -> o.setDictType("animal").setValue("dog").setLabel("狗"))
+        );
+        // mock 方法
+        when(dictDataApi.getDictDataList(eq("animal"))).thenReturn(dictDatas);
+
+        // 断言返回值
+        assertEquals(Arrays.asList("狗", null, "猫"),
+                DictFrameworkUtils.parseDictDataLabelList("animal", Arrays.asList("dog", "pig", "cat")));
+        assertEquals(Arrays.asList("cat", "dog"),
+                DictFrameworkUtils.parseDictDataValueList("animal", Arrays.asList("猫", "狗")));
+    }
+
 }
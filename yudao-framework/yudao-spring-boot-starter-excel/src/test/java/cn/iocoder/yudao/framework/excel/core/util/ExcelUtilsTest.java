@@ -0,0 +1,118 @@
+package cn.iocoder.yudao.framework.excel.core.util;
+
+import cn.iocoder.yudao.framework.excel.core.listener.BatchReadListener;
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.annotation.ExcelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link ExcelUtils} 的单元测试
+ */
+public class ExcelUtilsTest {
+
+    @Test
+    public void testWrite_stream() throws Exception {
+        // 准备参数：共 25 条数据，每批 10 条
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        List<Integer> pageNos = new ArrayList<>();
+
+        // 调用
+        ExcelUtils.write(response, "测试.xls", "数据", DemoExcelVO.class, 10, pageNo -> {
+            pageNos.add(pageNo);
+            int from = (pageNo - 1) * 10;
+            int to = Math.min(25, from + 10);
+            List<DemoExcelVO> list = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                list.add(new DemoExcelVO((long) i, "名字" + i));
+            }
+            return list;
+        });
+        // 断言：数量不足一批时，停止加载
+        assertEquals(3, pageNos.size());
+        assertTrue(response.getHeader("Content-Disposition").startsWith("attachment;filename="));
+        List<DemoExcelVO> result = EasyExcel.read(new ByteArrayInputStream(response.getContentAsByteArray()),
+                DemoExcelVO.class, null).doReadAllSync();
+        assertEquals(25, result.size());
+        assertEquals(new DemoExcelVO(24L, "名字24"), result.get(24));
+    }
+
+    @Test
+    public void testWrite_streamEmpty() throws Exception {
+        // 准备参数
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // 调用
+        ExcelUtils.write(response, "测试.xls", "数据", DemoExcelVO.class, 10,
+                pageNo -> Collections.emptyList());
+        // 断言：只有表头
+        List<DemoExcelVO> result = EasyExcel.read(new ByteArrayInputStream(response.getContentAsByteArray()),
+                DemoExcelVO.class, null).doReadAllSync();
+        assertEquals(0, result.size());
+    }
+
+    @Test
+    public void testRead_batch() throws Exception {
+        // 准备参数：第 3 行的编号不是数字，共 24 条有效数据
+        List<DemoRawExcelVO> rows = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            rows.add(new DemoRawExcelVO(i == 2 ? "abc" : String.valueOf(i), "名字" + i));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EasyExcel.write(out, DemoRawExcelVO.class).sheet("数据").doWrite(rows);
+        MockMultipartFile file = new MockMultipartFile("file", out.toByteArray());
+        List<Integer> batchSizes = new ArrayList<>();
+
+        // 调用
+        BatchReadListener<DemoExcelVO> result = ExcelUtils.read(file, DemoExcelVO.class, 10,
+                list -> batchSizes.add(list.size()));
+        // 断言
+        assertEquals(Arrays.asList(10, 10, 4), batchSizes);
+        assertEquals(24, result.getReadCount());
+        assertEquals(1, result.getFailureRows().size());
+        assertEquals("第 1 列格式不正确", result.getFailureRows().get(4)); // 表头占第 1 行
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DemoRawExcelVO {
+
+        @ExcelProperty("编号")
+        private String id;
+
+        @ExcelProperty("名字")
+        private String name;
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Accessors(chain = false) // 设置 chain = false，避免导入有问题
+    public static class DemoExcelVO {
+
+        @ExcelProperty("编号")
+        private Long id;
+
+        @ExcelProperty("名字")
+        private String name;
+
+    }
+
+}
@@ -1,6 +1,10 @@
 package cn.iocoder.yudao.framework.tracer.config;
 
+import cn.iocoder.yudao.framework.common.util.cache.CacheUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
@@ -24,4 +28,19 @@ public class YudaoMetricsAutoConfiguration {
         return registry -> registry.config().commonTags("application", applicationName);
     }
 
+    /**
+     * 监控 {@link CacheUtils} 本地缓存异步刷新的线程池：活跃线程数、排队任务数、拒绝次数
+     */
+    @Bean
+    public MeterBinder cacheReloadExecutorMetrics() {
+        return registry -> {
+            Gauge.builder("yudao.cache.reload.executor.active", () -> CacheUtils.getReloadExecutor().getActiveCount())
+                    .description("本地缓存异步刷新的活跃线程数").register(registry);
+            Gauge.builder("yudao.cache.reload.executor.queued", () -> CacheUtils.getReloadExecutor().getQueue().size())
+                    .description("本地缓存异步刷新的排队任务数").register(registry);
+            FunctionCounter.builder("yudao.cache.reload.executor.rejected", CacheUtils.class, clazz -> CacheUtils.getReloadRejectedCount())
+                    .description("本地缓存异步刷新的拒绝次数").register(registry);
+        };
+    }
+
 }
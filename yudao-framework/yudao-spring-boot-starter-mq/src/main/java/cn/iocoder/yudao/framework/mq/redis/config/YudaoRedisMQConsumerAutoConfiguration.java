@@ -8,14 +8,22 @@ import cn.iocoder.yudao.framework.mq.redis.core.RedisMQTemplate;
 import cn.iocoder.yudao.framework.mq.redis.core.job.RedisPendingMessageResendJob;
 import cn.iocoder.yudao.framework.mq.redis.core.job.RedisStreamMessageCleanupJob;
 import cn.iocoder.yudao.framework.mq.redis.core.pubsub.AbstractRedisChannelMessageListener;
+import cn.iocoder.yudao.framework.mq.redis.core.stream.AbstractRedisStreamBatchMessageListener;
 import cn.iocoder.yudao.framework.mq.redis.core.stream.AbstractRedisStreamMessageListener;
+import cn.iocoder.yudao.framework.mq.redis.core.stream.RedisStreamBatchMessageListenerContainer;
 import cn.iocoder.yudao.framework.redis.config.YudaoRedisAutoConfiguration;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RedissonClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisServerCommands;
 import org.springframework.data.redis.connection.stream.Consumer;
 import org.springframework.data.redis.connection.stream.ObjectRecord;
@@ -107,34 +115,61 @@ public class YudaoRedisMQConsumerAutoConfiguration {
         StreamMessageListenerContainer<String, ObjectRecord<String, String>> container =
                 StreamMessageListenerContainer.create(redisMQTemplate.getRedisTemplate().getRequiredConnectionFactory(), containerOptions);
 
-        // 第二步，注册监听器，消费对应的 Stream 主题
+        // 第二步，注册监听器，消费对应的 Stream 主题。批量监听器，由 RedisStreamBatchMessageListenerContainer 负责
         String consumerName = buildConsumerName();
-        listeners.parallelStream().forEach(listener -> {
+        listeners.parallelStream().filter(listener -> !(listener instanceof AbstractRedisStreamBatchMessageListener))
+                .forEach(listener -> {
             log.info("[redisStreamMessageListenerContainer][开始注册 StreamKey({}) 对应的监听器({})]",
                     listener.getStreamKey(), listener.getClass().getName());
             // 创建 listener 对应的消费者分组
-            try {
-                redisTemplate.opsForStream().createGroup(listener.getStreamKey(), listener.getGroup());
-            } catch (Exception ignore) {
-            }
+            createGroup(redisTemplate, listener);
             // 设置 listener 对应的 redisTemplate
             listener.setRedisMQTemplate(redisMQTemplate);
-            // 创建 Consumer 对象
-            Consumer consumer = Consumer.from(listener.getGroup(), consumerName);
-            // 设置 Consumer 消费进度，以最小消费进度为准
-            StreamOffset<String> streamOffset = StreamOffset.create(listener.getStreamKey(), ReadOffset.lastConsumed());
-            // 设置 Consumer 监听
-            StreamMessageListenerContainer.StreamReadRequestBuilder<String> builder = StreamMessageListenerContainer.StreamReadRequest
-                    .builder(streamOffset).consumer(consumer)
-                    .autoAcknowledge(false) // 不自动 ack
-                    .cancelOnError(throwable -> false); // 默认配置，发生异常就取消消费，显然不符合预期；因此，我们设置为 false
-            container.register(builder.build(), listener);
-            log.info("[redisStreamMessageListenerContainer][完成注册 StreamKey({}) 对应的监听器({})]",
-                    listener.getStreamKey(), listener.getClass().getName());
+            // 按照并发数，创建多个 Consumer 对象，各自拉取消息
+            for (int i = 0; i < listener.getConcurrency(); i++) {
+                Consumer consumer = Consumer.from(listener.getGroup(),
+                        AbstractRedisStreamMessageListener.buildConsumerName(consumerName, i));
+                // 设置 Consumer 消费进度，以最小消费进度为准
+                StreamOffset<String> streamOffset = StreamOffset.create(listener.getStreamKey(), ReadOffset.lastConsumed());
+                // 设置 Consumer 监听
+                StreamMessageListenerContainer.StreamReadRequestBuilder<String> builder = StreamMessageListenerContainer.StreamReadRequest
+                        .builder(streamOffset).consumer(consumer)
+                        .autoAcknowledge(false) // 不自动 ack
+                        .cancelOnError(throwable -> false); // 默认配置，发生异常就取消消费，显然不符合预期；因此，我们设置为 false
+                container.register(builder.build(), listener);
+            }
+            log.info("[redisStreamMessageListenerContainer][完成注册 StreamKey({}) 对应的监听器({})，并发数({})]",
+                    listener.getStreamKey(), listener.getClass().getName(), listener.getConcurrency());
         });
         return container;
     }
 
+    /**
+     * 创建 Redis Stream 批量消费的容器
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnBean(AbstractRedisStreamBatchMessageListener.class) // 只有 AbstractRedisStreamBatchMessageListener 存在的时候，才需要创建
+    public RedisStreamBatchMessageListenerContainer redisStreamBatchMessageListenerContainer(
+            RedisMQTemplate redisMQTemplate, List<AbstractRedisStreamBatchMessageListener<?>> listeners) {
+        RedisTemplate<String, ?> redisTemplate = redisMQTemplate.getRedisTemplate();
+        checkRedisVersion(redisTemplate);
+        listeners.forEach(listener -> {
+            createGroup(redisTemplate, listener);
+            listener.setRedisMQTemplate(redisMQTemplate);
+        });
+        return new RedisStreamBatchMessageListenerContainer(redisMQTemplate, listeners, buildConsumerName());
+    }
+
+    /**
+     * 创建 listener 对应的消费者分组，已存在时忽略
+     */
+    private static void createGroup(RedisTemplate<String, ?> redisTemplate, AbstractRedisStreamMessageListener<?> listener) {
+        try {
+            redisTemplate.opsForStream().createGroup(listener.getStreamKey(), listener.getGroup());
+        } catch (Exception ignore) {
+        }
+    }
+
     /**
      * 构建消费者名字，使用本地 IP + 进程编号的方式。
      * 参考自 RocketMQ clientId 的实现
@@ -160,4 +195,35 @@ public class YudaoRedisMQConsumerAutoConfiguration {
         }
     }
 
+    /**
+     * Redis Stream 监听器的 Metrics 配置类：消费成功、失败、重新投递、死信数量，以及消费者分组的积压数量
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterBinder.class)
+    @ConditionalOnBean(AbstractRedisStreamMessageListener.class)
+    static class RedisStreamMetricsConfiguration {
+
+        @Bean
+        public MeterBinder redisStreamMessageListenerMetrics(List<AbstractRedisStreamMessageListener<?>> listeners) {
+            return registry -> listeners.forEach(listener -> {
+                Tags tags = Tags.of("stream", listener.getStreamKey(), "group", listener.getGroup());
+                FunctionCounter.builder("yudao.mq.redis.stream.consume.success", listener,
+                                AbstractRedisStreamMessageListener::getConsumeSuccessCount)
+                        .tags(tags).description("Redis Stream 消费成功的消息数量").register(registry);
+                FunctionCounter.builder("yudao.mq.redis.stream.consume.failure", listener,
+                                AbstractRedisStreamMessageListener::getConsumeFailureCount)
+                        .tags(tags).description("Redis Stream 消费失败的消息数量").register(registry);
+                FunctionCounter.builder("yudao.mq.redis.stream.redeliver", listener,
+                                AbstractRedisStreamMessageListener::getRedeliverCount)
+                        .tags(tags).description("Redis Stream 重新投递的消息数量").register(registry);
+                FunctionCounter.builder("yudao.mq.redis.stream.dead-letter", listener,
+                                AbstractRedisStreamMessageListener::getDeadLetterCount)
+                        .tags(tags).description("Redis Stream 进入死信的消息数量").register(registry);
+                Gauge.builder("yudao.mq.redis.stream.lag", listener, AbstractRedisStreamMessageListener::getLag)
+                        .tags(tags).description("Redis Stream 消费者分组的积压数量").register(registry);
+            });
+        }
+
+    }
+
 }
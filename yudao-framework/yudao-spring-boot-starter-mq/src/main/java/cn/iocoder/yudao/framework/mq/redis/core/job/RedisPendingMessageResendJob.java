@@ -81,18 +81,18 @@ public class RedisPendingMessageResendJob {
                         return;
                     }
                     // 获取指定 id 的消息体
-                    List<MapRecord<String, Object, Object>> records = ops.range(listener.getStreamKey(),
+                    List<ObjectRecord<String, String>> records = ops.range(String.class, listener.getStreamKey(),
                             Range.of(Range.Bound.inclusive(pendingMessage.getIdAsString()), Range.Bound.inclusive(pendingMessage.getIdAsString())));
                     if (CollUtil.isEmpty(records)) {
+                        // 消息已经被清理，直接 ack，避免一直留在 pending 中
+                        ops.acknowledge(listener.getStreamKey(), groupName, pendingMessage.getId());
                         return;
                     }
-                    // 重新投递消息
-                    redisTemplate.getRedisTemplate().opsForStream().add(StreamRecords.newRecord()
-                            .ofObject(records.get(0).getValue()) // 设置内容
-                            .withStreamKey(listener.getStreamKey()));
-                    // ack 消息消费完成
-                    redisTemplate.getRedisTemplate().opsForStream().acknowledge(groupName, records.get(0));
-                    log.info("[processPendingMessage][消息({})重新投递成功]", records.get(0).getId());
+                    // 重新投递消息（投递次数 + 1），超过最大投递次数时进入死信
+                    boolean deadLetter = listener.redeliver(records.get(0));
+                    if (!deadLetter) {
+                        log.info("[processPendingMessage][消息({})重新投递成功]", records.get(0).getId());
+                    }
                 });
             });
         });
@@ -58,15 +58,21 @@ public class RedisStreamMessageCleanupJob {
     private void execute() {
         StreamOperations<String, Object, Object> ops = redisTemplate.getRedisTemplate().opsForStream();
         listeners.forEach(listener -> {
-            try {
-                // 使用 XTRIM 命令清理消息，只保留最近的 MAX_LEN 条消息
-                Long trimCount = ops.trim(listener.getStreamKey(), MAX_COUNT, true);
-                if (trimCount != null && trimCount > 0) {
-                    log.info("[execute][Stream({}) 清理消息数量({})]", listener.getStreamKey(), trimCount);
-                }
-            } catch (Exception ex) {
-                log.error("[execute][Stream({}) 清理异常]", listener.getStreamKey(), ex);
-            }
+            trim(ops, listener.getStreamKey());
+            // 死信 Stream 同样需要清理
+            trim(ops, listener.getDeadLetterStreamKey());
         });
     }
+
+    private void trim(StreamOperations<String, Object, Object> ops, String streamKey) {
+        try {
+            // 使用 XTRIM 命令清理消息，只保留最近的 MAX_LEN 条消息
+            Long trimCount = ops.trim(streamKey, MAX_COUNT, true);
+            if (trimCount != null && trimCount > 0) {
+                log.info("[execute][Stream({}) 清理消息数量({})]", streamKey, trimCount);
+            }
+        } catch (Exception ex) {
+            log.error("[execute][Stream({}) 清理异常]", streamKey, ex);
+        }
+    }
 }
\ No newline at end of file
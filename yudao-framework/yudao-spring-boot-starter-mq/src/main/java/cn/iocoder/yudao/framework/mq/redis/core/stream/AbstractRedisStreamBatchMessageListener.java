@@ -0,0 +1,125 @@
+package cn.iocoder.yudao.framework.mq.redis.core.stream;
+
+import cn.iocoder.yudao.framework.mq.redis.core.message.AbstractRedisMessage;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Redis Stream 批量消费的监听器抽象类
+ *
+ * 由 {@link RedisStreamBatchMessageListenerContainer} 一次拉取最多 {@link #getBatchSize()} 条消息，
+ * 调用 {@link #onMessage(List)} 批量处理后，通过一次 XACK 确认整批消息
+ *
+ * @param <T> 消息类型。一定要填写噢，不然会报错
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public abstract class AbstractRedisStreamBatchMessageListener<T extends AbstractRedisStreamMessage>
+        extends AbstractRedisStreamMessageListener<T> {
+
+    /**
+     * 默认的每批最大消息数量
+     */
+    public static final int BATCH_SIZE_DEFAULT = 100;
+    /**
+     * 默认的拉取阻塞时间
+     */
+    public static final Duration POLL_TIMEOUT_DEFAULT = Duration.ofSeconds(2);
+
+    /**
+     * 每批最大消息数量
+     */
+    @Getter
+    @Setter
+    private int batchSize = BATCH_SIZE_DEFAULT;
+    /**
+     * 拉取阻塞时间，即 XREADGROUP 的 BLOCK 参数
+     */
+    @Getter
+    @Setter
+    private Duration pollTimeout = POLL_TIMEOUT_DEFAULT;
+
+    @Override
+    public final void onMessage(T message) {
+        onMessage(Collections.singletonList(message));
+    }
+
+    /**
+     * 批量处理消息
+     *
+     * 注意，抛出异常时，整批消息都不会 ack，后续会被重新投递，所以需要保证幂等
+     *
+     * @param messages 消息数组
+     */
+    public abstract void onMessage(List<T> messages);
+
+    /**
+     * 批量消费拉取到的消息
+     *
+     * 按照 headers 分组后（保证同一组消息的上下文一致，例如说租户），每组调用一次 {@link #onMessage(List)}，
+     * 最后将成功的消息，通过一次 XACK 确认。分组时忽略每条消息各自的投递次数，避免重新投递的消息被拆成单条消费
+     *
+     * @param records 拉取到的消息
+     */
+    public void onRecords(List<ObjectRecord<String, String>> records) {
+        // 解析消息，并按照 headers 分组
+        Map<Map<String, String>, List<ObjectRecord<String, String>>> recordGroups = new LinkedHashMap<>();
+        Map<Map<String, String>, List<T>> messageGroups = new LinkedHashMap<>();
+        for (ObjectRecord<String, String> record : records) {
+            T message = parseMessage(record.getValue());
+            Map<String, String> groupKey = buildGroupKey(message.getHeaders());
+            recordGroups.computeIfAbsent(groupKey, key -> new ArrayList<>()).add(record);
+            messageGroups.computeIfAbsent(groupKey, key -> new ArrayList<>()).add(message);
+        }
+
+        // 逐组消费
+        List<RecordId> ackIds = new ArrayList<>(records.size());
+        messageGroups.forEach((headers, messages) -> {
+            AbstractRedisMessage first = messages.get(0);
+            List<ObjectRecord<String, String>> groupRecords = recordGroups.get(headers);
+            try {
+                consumeMessageBefore(first);
+                onMessage(messages);
+                groupRecords.forEach(record -> ackIds.add(record.getId()));
+                incrementConsumeCount(messages.size(), 0);
+            } catch (Exception ex) {
+                // 消费失败时，不 ack 消息，由 RedisPendingMessageResendJob 重新投递，超过最大次数后进入死信
+                incrementConsumeCount(0, messages.size());
+                log.error("[onRecords][StreamKey({}) 消息({}~{}) 共 {} 条消费异常]", getStreamKey(),
+                        groupRecords.get(0).getId(), groupRecords.get(groupRecords.size() - 1).getId(),
+                        messages.size(), ex);
+            } finally {
+                consumeMessageAfter(first);
+            }
+        });
+
+        // 一次 XACK 确认所有成功的消息
+        if (!ackIds.isEmpty()) {
+            redisMQTemplate.getRedisTemplate().opsForStream().acknowledge(getStreamKey(), getGroup(),
+                    ackIds.toArray(new RecordId[0]));
+        }
+    }
+
+    /**
+     * 构建分组的 KEY：消息的 headers，排除 {@link AbstractRedisStreamMessage#HEADER_DELIVERY_COUNT} 投递次数
+     *
+     * @param headers 消息的 headers
+     * @return 分组的 KEY
+     */
+    private static Map<String, String> buildGroupKey(Map<String, String> headers) {
+        if (!headers.containsKey(AbstractRedisStreamMessage.HEADER_DELIVERY_COUNT)) {
+            return headers;
+        }
+        Map<String, String> groupKey = new HashMap<>(headers);
+        groupKey.remove(AbstractRedisStreamMessage.HEADER_DELIVERY_COUNT);
+        return groupKey;
+    }
+
+}
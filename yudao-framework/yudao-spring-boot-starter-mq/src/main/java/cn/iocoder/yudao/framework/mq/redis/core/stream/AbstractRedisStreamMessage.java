@@ -10,6 +10,11 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
  */
 public abstract class AbstractRedisStreamMessage extends AbstractRedisMessage {
 
+    /**
+     * Header - 投递次数，首次投递时为空，由 {@link cn.iocoder.yudao.framework.mq.redis.core.job.RedisPendingMessageResendJob} 重新投递时累加
+     */
+    public static final String HEADER_DELIVERY_COUNT = "delivery-count";
+
     /**
      * 获得 Redis Stream Key，默认使用类名
      *
@@ -20,4 +25,15 @@ public abstract class AbstractRedisStreamMessage extends AbstractRedisMessage {
         return getClass().getSimpleName();
     }
 
+    /**
+     * 获得投递次数
+     *
+     * @return 投递次数，首次投递为 1
+     */
+    @JsonIgnore // 避免序列化
+    public int getDeliveryCount() {
+        String deliveryCount = getHeader(HEADER_DELIVERY_COUNT);
+        return deliveryCount != null ? Integer.parseInt(deliveryCount) : 1;
+    }
+
 }
@@ -8,23 +8,46 @@ import cn.iocoder.yudao.framework.mq.redis.core.message.AbstractRedisMessage;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StreamOperations;
 import org.springframework.data.redis.stream.StreamListener;
 
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Redis Stream 监听器抽象类，用于实现集群消费
  *
+ * 1. 并发：通过 {@link #setConcurrency(int)} 设置，同一个消费者分组下注册多个消费者，并行消费
+ * 2. 重试：消费异常时，不 ack 消息，由 {@link cn.iocoder.yudao.framework.mq.redis.core.job.RedisPendingMessageResendJob} 重新投递
+ * 3. 死信：投递次数达到 {@link #setMaxDeliveryCount(int)} 后，转移到 {@link #getDeadLetterStreamKey()} 死信 Stream 中
+ *
  * @param <T> 消息类型。一定要填写噢，不然会报错
  *
  * @author 芋道源码
  */
+@Slf4j
 public abstract class AbstractRedisStreamMessageListener<T extends AbstractRedisStreamMessage>
         implements StreamListener<String, ObjectRecord<String, String>> {
 
+    /**
+     * 默认的并发消费者数量
+     */
+    public static final int CONCURRENCY_DEFAULT = 1;
+    /**
+     * 默认的最大投递次数
+     */
+    public static final int MAX_DELIVERY_COUNT_DEFAULT = 16;
+    /**
+     * 死信 Stream Key 的后缀
+     */
+    public static final String DEAD_LETTER_STREAM_KEY_SUFFIX = ":dlq";
+
     /**
      * 消息类型
      */
@@ -45,7 +68,39 @@ public abstract class AbstractRedisStreamMessageListener<T extends AbstractRedis
      * RedisMQTemplate
      */
     @Setter
-    private RedisMQTemplate redisMQTemplate;
+    protected RedisMQTemplate redisMQTemplate;
+
+    /**
+     * 并发消费者数量
+     *
+     * 每个消费者独立拉取消息，避免一条慢消息阻塞后续所有消息
+     */
+    @Getter
+    @Setter
+    private int concurrency = CONCURRENCY_DEFAULT;
+    /**
+     * 最大投递次数，超过后进入死信 Stream
+     */
+    @Getter
+    @Setter
+    private int maxDeliveryCount = MAX_DELIVERY_COUNT_DEFAULT;
+
+    /**
+     * 消费成功的消息数量
+     */
+    private final AtomicLong consumeSuccessCount = new AtomicLong();
+    /**
+     * 消费失败的消息数量
+     */
+    private final AtomicLong consumeFailureCount = new AtomicLong();
+    /**
+     * 重新投递的消息数量
+     */
+    private final AtomicLong redeliverCount = new AtomicLong();
+    /**
+     * 进入死信的消息数量
+     */
+    private final AtomicLong deadLetterCount = new AtomicLong();
 
     @SneakyThrows
     protected AbstractRedisStreamMessageListener() {
@@ -56,18 +111,22 @@ public abstract class AbstractRedisStreamMessageListener<T extends AbstractRedis
     @Override
     public void onMessage(ObjectRecord<String, String> message) {
         // 消费消息
-        T messageObj = JsonUtils.parseObject(message.getValue(), messageType);
+        T messageObj = parseMessage(message.getValue());
         try {
             consumeMessageBefore(messageObj);
             // 消费消息
             this.onMessage(messageObj);
             // ack 消息消费完成
             redisMQTemplate.getRedisTemplate().opsForStream().acknowledge(group, message);
+            consumeSuccessCount.incrementAndGet();
             // TODO 芋艿：需要额外考虑以下几个点：
-            // 1. 处理异常的情况
-            // 2. 发送日志；以及事务的结合
-            // 3. 消费日志；以及通用的幂等性
-            // 4. 消费失败的重试，https://zhuanlan.zhihu.com/p/60501638
+            // 1. 发送日志；以及事务的结合
+            // 2. 消费日志；以及通用的幂等性
+        } catch (Exception ex) {
+            // 消费失败时，不 ack 消息，由 RedisPendingMessageResendJob 重新投递，超过最大次数后进入死信
+            consumeFailureCount.incrementAndGet();
+            log.error("[onMessage][StreamKey({}) 消息({}) 第 {} 次消费异常]", streamKey, message.getId(),
+                    messageObj.getDeliveryCount(), ex);
         } finally {
             consumeMessageAfter(messageObj);
         }
@@ -80,6 +139,106 @@ public abstract class AbstractRedisStreamMessageListener<T extends AbstractRedis
      */
     public abstract void onMessage(T message);
 
+    // ========== 重新投递、死信 ==========
+
+    /**
+     * 获得死信 Stream Key
+     *
+     * @return 死信 Stream Key
+     */
+    public String getDeadLetterStreamKey() {
+        return streamKey + DEAD_LETTER_STREAM_KEY_SUFFIX;
+    }
+
+    /**
+     * 重新投递超时未 ack 的消息：投递次数 + 1 后，重新添加到 Stream 中；达到最大投递次数时，改为添加到死信 Stream 中
+     *
+     * @param record 超时未 ack 的消息
+     * @return 是否进入死信
+     */
+    public boolean redeliver(ObjectRecord<String, String> record) {
+        StreamOperations<String, Object, Object> ops = redisMQTemplate.getRedisTemplate().opsForStream();
+        T message = parseMessage(record.getValue());
+        boolean deadLetter = message.getDeliveryCount() >= maxDeliveryCount;
+        if (!deadLetter) {
+            message.addHeader(AbstractRedisStreamMessage.HEADER_DELIVERY_COUNT, String.valueOf(message.getDeliveryCount() + 1));
+        }
+        // 重新投递，或者添加到死信
+        ops.add(StreamRecords.newRecord()
+                .ofObject(JsonUtils.toJsonString(message)) // 设置内容
+                .withStreamKey(deadLetter ? getDeadLetterStreamKey() : streamKey));
+        // ack 原消息
+        ops.acknowledge(group, record);
+        if (deadLetter) {
+            deadLetterCount.incrementAndGet();
+            log.error("[redeliver][StreamKey({}) 消息({}) 投递 {} 次仍失败，进入死信({})]", streamKey, record.getId(),
+                    message.getDeliveryCount(), getDeadLetterStreamKey());
+        } else {
+            redeliverCount.incrementAndGet();
+        }
+        return deadLetter;
+    }
+
+    // ========== 监控 ==========
+
+    public long getConsumeSuccessCount() {
+        return consumeSuccessCount.get();
+    }
+
+    public long getConsumeFailureCount() {
+        return consumeFailureCount.get();
+    }
+
+    public long getRedeliverCount() {
+        return redeliverCount.get();
+    }
+
+    public long getDeadLetterCount() {
+        return deadLetterCount.get();
+    }
+
+    /**
+     * 获得消费者分组的积压数量
+     *
+     * Redis 7.0+ 返回 XINFO GROUPS 的 lag（未投递）+ pending（已投递未 ack）；低版本只返回 pending
+     *
+     * @return 积压数量；获取失败时，返回 -1
+     */
+    public long getLag() {
+        try {
+            StreamInfo.XInfoGroups groups = redisMQTemplate.getRedisTemplate().opsForStream().groups(streamKey);
+            return groups.stream().filter(xInfoGroup -> group.equals(xInfoGroup.groupName()))
+                    .findFirst().map(xInfoGroup -> {
+                        long lag = xInfoGroup.pendingCount();
+                        Object undelivered = xInfoGroup.getRaw().get("lag");
+                        if (undelivered instanceof Number) {
+                            lag += ((Number) undelivered).longValue();
+                        }
+                        return lag;
+                    }).orElse(0L);
+        } catch (Exception ex) {
+            log.warn("[getLag][StreamKey({}) 获取积压数量失败]", streamKey, ex);
+            return -1;
+        }
+    }
+
+    // ========== 内部方法 ==========
+
+    /**
+     * 构建第 index 个并发消费者的名字。第 0 个保持原名，保证并发数调整前后，原消费者的 pending 消息仍然归属于它
+     *
+     * @param consumerName 消费者名字
+     * @param index 并发的序号
+     * @return 消费者名字
+     */
+    public static String buildConsumerName(String consumerName, int index) {
+        return index == 0 ? consumerName : consumerName + "-" + index;
+    }
+
+    protected T parseMessage(String value) {
+        return JsonUtils.parseObject(value, messageType);
+    }
+
     /**
      * 通过解析类上的泛型，获得消息类型
      *
@@ -94,14 +253,14 @@ public abstract class AbstractRedisStreamMessageListener<T extends AbstractRedis
         return (Class<T>) type;
     }
 
-    private void consumeMessageBefore(AbstractRedisMessage message) {
+    protected void consumeMessageBefore(AbstractRedisMessage message) {
         assert redisMQTemplate != null;
         List<RedisMessageInterceptor> interceptors = redisMQTemplate.getInterceptors();
         // 正序
         interceptors.forEach(interceptor -> interceptor.consumeMessageBefore(message));
     }
 
-    private void consumeMessageAfter(AbstractRedisMessage message) {
+    protected void consumeMessageAfter(AbstractRedisMessage message) {
         assert redisMQTemplate != null;
         List<RedisMessageInterceptor> interceptors = redisMQTemplate.getInterceptors();
         // 倒序
@@ -110,4 +269,9 @@ public abstract class AbstractRedisStreamMessageListener<T extends AbstractRedis
         }
     }
 
+    protected void incrementConsumeCount(long successCount, long failureCount) {
+        consumeSuccessCount.addAndGet(successCount);
+        consumeFailureCount.addAndGet(failureCount);
+    }
+
 }
@@ -0,0 +1,105 @@
+package cn.iocoder.yudao.framework.mq.redis.core.stream;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.thread.ThreadUtil;
+import cn.iocoder.yudao.framework.mq.redis.core.RedisMQTemplate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.StreamOperations;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AbstractRedisStreamBatchMessageListener} 的容器
+ *
+ * 为每个监听器启动 {@link AbstractRedisStreamMessageListener#getConcurrency()} 个拉取线程，每个线程对应消费者分组下的一个消费者，
+ * 循环通过 XREADGROUP COUNT BLOCK 批量拉取消息。
+ *
+ * 为什么不使用 Spring 的 StreamMessageListenerContainer？它拉取到一批消息后，仍然是逐条回调，无法批量处理、批量 ack
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RedisStreamBatchMessageListenerContainer {
+
+    /**
+     * 拉取异常后，等待的时间（毫秒），避免 Redis 不可用时空转
+     */
+    private static final long ERROR_BACKOFF_MILLIS = 1000L;
+    /**
+     * 停止时，等待拉取线程结束的时间（秒）
+     */
+    private static final long STOP_AWAIT_SECONDS = 10L;
+
+    private final RedisMQTemplate redisMQTemplate;
+    private final List<AbstractRedisStreamBatchMessageListener<?>> listeners;
+    /**
+     * 消费者名字的前缀，实际名字见 {@link AbstractRedisStreamMessageListener#buildConsumerName(String, int)}
+     */
+    private final String consumerName;
+
+    private volatile boolean running;
+    private ExecutorService executor;
+
+    public void start() {
+        if (CollUtil.isEmpty(listeners)) {
+            return;
+        }
+        int threads = listeners.stream().mapToInt(AbstractRedisStreamMessageListener::getConcurrency).sum();
+        executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("redis-stream-batch-", true));
+        running = true;
+        listeners.forEach(listener -> {
+            for (int i = 0; i < listener.getConcurrency(); i++) {
+                Consumer consumer = Consumer.from(listener.getGroup(),
+                        AbstractRedisStreamMessageListener.buildConsumerName(consumerName, i));
+                executor.execute(() -> poll(listener, consumer));
+            }
+            log.info("[start][StreamKey({}) 对应的批量监听器({}) 启动 {} 个消费者]",
+                    listener.getStreamKey(), listener.getClass().getName(), listener.getConcurrency());
+        });
+    }
+
+    public void stop() {
+        running = false;
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(STOP_AWAIT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("[stop][等待拉取线程结束超时]");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void poll(AbstractRedisStreamBatchMessageListener<?> listener, Consumer consumer) {
+        StreamOperations<String, Object, Object> ops = redisMQTemplate.getRedisTemplate().opsForStream();
+        StreamReadOptions readOptions = StreamReadOptions.empty()
+                .count(listener.getBatchSize()).block(listener.getPollTimeout());
+        StreamOffset<String> streamOffset = StreamOffset.create(listener.getStreamKey(), ReadOffset.lastConsumed());
+        while (running) {
+            try {
+                List<ObjectRecord<String, String>> records = ops.read(String.class, consumer, readOptions, streamOffset);
+                if (CollUtil.isEmpty(records)) {
+                    continue;
+                }
+                listener.onRecords(records);
+            } catch (Exception ex) {
+                if (!running) {
+                    break;
+                }
+                log.error("[poll][StreamKey({}) 消费者({}) 拉取消息异常]", listener.getStreamKey(), consumer.getName(), ex);
+                ThreadUtil.sleep(ERROR_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+}
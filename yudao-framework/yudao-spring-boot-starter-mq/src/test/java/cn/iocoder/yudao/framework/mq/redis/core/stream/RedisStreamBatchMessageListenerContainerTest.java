@@ -0,0 +1,285 @@
+package cn.iocoder.yudao.framework.mq.redis.core.stream;
+
+import cn.hutool.core.util.ReflectUtil;
+import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
+import cn.iocoder.yudao.framework.mq.redis.core.RedisMQTemplate;
+import cn.iocoder.yudao.framework.redis.config.YudaoRedisAutoConfiguration;
+import com.github.fppt.jedismock.RedisServer;
+import com.github.fppt.jedismock.server.ServiceOptions;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.junit.jupiter.api.*;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.redisson.spring.data.connection.RedissonConnectionFactory;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link RedisStreamBatchMessageListenerContainer} 和 {@link AbstractRedisStreamBatchMessageListener} 的单元测试
+ *
+ * 基于内嵌 Redis（jedis-mock），消费者分组命令由 {@link RedisStreamGroupCommandInterceptor} 模拟
+ *
+ * @author 芋道源码
+ */
+public class RedisStreamBatchMessageListenerContainerTest {
+
+    private static final String GROUP = "test-group";
+    private static final String CONSUMER = "test-consumer";
+    private static final String HEADER_TENANT_ID = "tenant-id";
+
+    private static final RedisStreamGroupCommandInterceptor interceptor = new RedisStreamGroupCommandInterceptor();
+    private static RedisServer redisServer;
+    private static RedissonClient redissonClient;
+    private static RedisTemplate<String, Object> redisTemplate;
+    private static RedisMQTemplate redisMQTemplate;
+
+    private TestBatchListener listener;
+    private RedisStreamBatchMessageListenerContainer container;
+
+    @BeforeAll
+    public static void startRedis() throws Exception {
+        redisServer = RedisServer.newRedisServer().setOptions(ServiceOptions.withInterceptor(interceptor)).start();
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://" + redisServer.getHost() + ":" + redisServer.getBindPort());
+        redissonClient = Redisson.create(config);
+        redisTemplate = new YudaoRedisAutoConfiguration().redisTemplate(new RedissonConnectionFactory(redissonClient));
+        redisTemplate.afterPropertiesSet();
+        redisMQTemplate = new RedisMQTemplate(redisTemplate);
+    }
+
+    @AfterAll
+    public static void stopRedis() throws Exception {
+        redissonClient.shutdown();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        interceptor.reset();
+        listener = new TestBatchListener();
+        listener.setRedisMQTemplate(redisMQTemplate);
+        ReflectUtil.setFieldValue(listener, "group", GROUP);
+        listener.setPollTimeout(Duration.ofMillis(100));
+        redisTemplate.delete(Arrays.asList(listener.getStreamKey(), listener.getDeadLetterStreamKey()));
+        redisTemplate.opsForStream().createGroup(listener.getStreamKey(), ReadOffset.from("0-0"), GROUP);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Test
+    public void testPoll_concurrency() {
+        // 准备参数：两个消费者，每条消息消费较慢
+        listener.setConcurrency(2);
+        listener.setBatchSize(5);
+        listener.consumeMillis = 50;
+        for (int i = 0; i < 40; i++) {
+            redisMQTemplate.send(new TestStreamMessage().setIndex(i));
+        }
+
+        // 调用
+        startContainer();
+        // 断言：每条消息消费且只消费一次，由两个消费者分担，并全部 ack
+        waitUntil(() -> listener.getConsumeSuccessCount() == 40);
+        assertEquals(buildIndexes(40), listener.getConsumedIndexes());
+        assertEquals(2, listener.threads.size());
+        waitUntil(() -> interceptor.getPendingCount(listener.getStreamKey(), GROUP) == 0);
+    }
+
+    @Test
+    public void testPoll_batchAck() {
+        // 准备参数：一个消费者，两个租户的消息交替
+        listener.setBatchSize(10);
+        for (int i = 0; i < 25; i++) {
+            TestStreamMessage message = new TestStreamMessage().setIndex(i);
+            message.addHeader(HEADER_TENANT_ID, String.valueOf(i % 2));
+            redisMQTemplate.send(message);
+        }
+
+        // 调用
+        startContainer();
+        // 断言：拉取 10 + 10 + 5 三批，每批按照租户分成两组回调，但只 XACK 一次
+        waitUntil(() -> listener.getConsumeSuccessCount() == 25);
+        waitUntil(() -> interceptor.getPendingCount(listener.getStreamKey(), GROUP) == 0);
+        assertEquals(buildIndexes(25), listener.getConsumedIndexes());
+        assertEquals(6, listener.batches.size());
+        listener.batches.forEach(batch -> assertEquals(1, batch.stream()
+                .map(message -> message.getHeader(HEADER_TENANT_ID)).distinct().count()));
+        assertEquals(3, interceptor.getAckCommandCount());
+    }
+
+    @Test
+    public void testOnRecords_ignoreDeliveryCount() {
+        // 准备参数：投递次数不同的消息
+        List<ObjectRecord<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TestStreamMessage message = new TestStreamMessage().setIndex(i);
+            message.addHeader(HEADER_TENANT_ID, "1");
+            if (i > 0) {
+                message.addHeader(AbstractRedisStreamMessage.HEADER_DELIVERY_COUNT, String.valueOf(i + 1));
+            }
+            records.add(StreamRecords.newRecord().in(listener.getStreamKey()).withId(RecordId.of(i + 1, 0))
+                    .ofObject(JsonUtils.toJsonString(message)));
+        }
+
+        // 调用
+        listener.onRecords(records);
+        // 断言：重新投递的消息，仍然和其它消息合并成一批，并且保留各自的投递次数
+        assertEquals(1, listener.batches.size());
+        assertEquals(Arrays.asList(1, 2, 3), listener.batches.get(0).stream()
+                .map(AbstractRedisStreamMessage::getDeliveryCount).collect(Collectors.toList()));
+        assertEquals(1, interceptor.getAckCommandCount());
+    }
+
+    @Test
+    public void testRedeliver() {
+        // 准备参数：消费失败
+        listener.fail = true;
+        for (int i = 0; i < 3; i++) {
+            redisMQTemplate.send(new TestStreamMessage().setIndex(i));
+        }
+        startContainer();
+        waitUntil(() -> listener.getConsumeFailureCount() == 3);
+        assertEquals(3, interceptor.getPendingCount(listener.getStreamKey(), GROUP));
+
+        container.stop();
+
+        // 调用：重新投递未 ack 的消息，并恢复消费
+        listener.fail = false;
+        List<ObjectRecord<String, String>> records = redisTemplate.opsForStream()
+                .range(String.class, listener.getStreamKey(), Range.unbounded());
+        assertNotNull(records);
+        records.forEach(record -> assertFalse(listener.redeliver(record)));
+        assertEquals(3, listener.getRedeliverCount());
+        assertEquals(0, interceptor.getPendingCount(listener.getStreamKey(), GROUP));
+        startContainer();
+        // 断言：投递次数 + 1 后，合并成一批消费成功
+        waitUntil(() -> listener.getConsumeSuccessCount() == 3);
+        waitUntil(() -> interceptor.getPendingCount(listener.getStreamKey(), GROUP) == 0);
+        assertEquals(1, listener.batches.size());
+        assertEquals(buildIndexes(3), listener.getConsumedIndexes());
+        listener.batches.get(0).forEach(message -> assertEquals(2, message.getDeliveryCount()));
+    }
+
+    @Test
+    public void testRedeliver_deadLetter() {
+        // 准备参数：已投递到最大次数，仍然消费失败
+        listener.fail = true;
+        listener.setMaxDeliveryCount(2);
+        TestStreamMessage message = new TestStreamMessage().setIndex(1);
+        message.addHeader(AbstractRedisStreamMessage.HEADER_DELIVERY_COUNT, "2");
+        redisMQTemplate.send(message);
+        startContainer();
+        waitUntil(() -> listener.getConsumeFailureCount() == 1);
+
+        // 调用
+        List<ObjectRecord<String, String>> records = redisTemplate.opsForStream()
+                .range(String.class, listener.getStreamKey(), Range.unbounded());
+        assertNotNull(records);
+        assertTrue(listener.redeliver(records.get(0)));
+        // 断言：进入死信 Stream，原消息已 ack，且不再重新投递
+        assertEquals(1, listener.getDeadLetterCount());
+        assertEquals(0, listener.getRedeliverCount());
+        assertEquals(0, interceptor.getPendingCount(listener.getStreamKey(), GROUP));
+        assertEquals(1L, redisTemplate.opsForStream().size(listener.getStreamKey()));
+        List<ObjectRecord<String, String>> deadLetters = redisTemplate.opsForStream()
+                .range(String.class, listener.getDeadLetterStreamKey(), Range.unbounded());
+        assertNotNull(deadLetters);
+        assertEquals(1, deadLetters.size());
+        TestStreamMessage deadLetter = JsonUtils.parseObject(deadLetters.get(0).getValue(), TestStreamMessage.class);
+        assertNotNull(deadLetter);
+        assertEquals(1, deadLetter.getIndex());
+        assertEquals(2, deadLetter.getDeliveryCount());
+    }
+
+    private void startContainer() {
+        container = new RedisStreamBatchMessageListenerContainer(redisMQTemplate,
+                Collections.singletonList(listener), CONSUMER);
+        container.start();
+    }
+
+    private static Set<Integer> buildIndexes(int count) {
+        Set<Integer> indexes = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待条件超时");
+            try {
+                Thread.sleep(20L);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                fail(ex);
+            }
+        }
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class TestStreamMessage extends AbstractRedisStreamMessage {
+
+        private Integer index;
+
+        public TestStreamMessage setIndex(Integer index) {
+            this.index = index;
+            return this;
+        }
+
+    }
+
+    public static class TestBatchListener extends AbstractRedisStreamBatchMessageListener<TestStreamMessage> {
+
+        private final List<List<TestStreamMessage>> batches = new CopyOnWriteArrayList<>();
+        private final Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+        private volatile boolean fail;
+        private volatile long consumeMillis;
+
+        @Override
+        public void onMessage(List<TestStreamMessage> messages) {
+            if (fail) {
+                throw new IllegalStateException("模拟消费失败");
+            }
+            if (consumeMillis > 0) {
+                try {
+                    Thread.sleep(consumeMillis);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            threads.add(Thread.currentThread().getName());
+            batches.add(new ArrayList<>(messages));
+        }
+
+        private Set<Integer> getConsumedIndexes() {
+            List<Integer> indexes = batches.stream().flatMap(List::stream)
+                    .map(TestStreamMessage::getIndex).collect(Collectors.toList());
+            assertEquals(indexes.size(), new HashSet<>(indexes).size(), "存在重复消费的消息");
+            return new HashSet<>(indexes);
+        }
+
+    }
+
+}
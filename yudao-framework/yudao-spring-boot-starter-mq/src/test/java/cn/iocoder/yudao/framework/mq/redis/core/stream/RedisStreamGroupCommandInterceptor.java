@@ -0,0 +1,301 @@
+package cn.iocoder.yudao.framework.mq.redis.core.stream;
+
+import com.github.fppt.jedismock.datastructures.Slice;
+import com.github.fppt.jedismock.operations.server.MockExecutor;
+import com.github.fppt.jedismock.server.RedisCommandInterceptor;
+import com.github.fppt.jedismock.server.Response;
+import com.github.fppt.jedismock.storage.OperationExecutorState;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 内嵌 Redis（jedis-mock）的消费者分组命令拦截器
+ *
+ * jedis-mock 只实现了 XADD、XRANGE 等基础的 Stream 命令，不支持消费者分组，所以这里模拟
+ * XGROUP CREATE、XREADGROUP（仅支持 &gt; 读取新消息）、XACK 三个命令，其它命令交给 jedis-mock 执行
+ *
+ * @author 芋道源码
+ */
+public class RedisStreamGroupCommandInterceptor implements RedisCommandInterceptor {
+
+    /**
+     * 阻塞读取时，轮询新消息的间隔（毫秒）
+     */
+    private static final long BLOCK_POLL_MILLIS = 10L;
+
+    /**
+     * 消费者分组的映射
+     *
+     * KEY：Stream Key + 分组名
+     */
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+
+    /**
+     * XACK 命令的执行次数
+     */
+    private final AtomicInteger ackCommandCount = new AtomicInteger();
+
+    @Override
+    public Slice execCommand(OperationExecutorState state, String name, List<Slice> params) {
+        switch (name.toLowerCase()) {
+            case "xgroup":
+                return xgroup(state, params);
+            case "xreadgroup":
+                return xreadgroup(state, params);
+            case "xack":
+                return xack(params);
+            default:
+                return MockExecutor.proceed(state, name, params);
+        }
+    }
+
+    public void reset() {
+        groups.clear();
+        ackCommandCount.set(0);
+    }
+
+    public int getAckCommandCount() {
+        return ackCommandCount.get();
+    }
+
+    /**
+     * 获得消费者分组已投递、未 ack 的消息数量
+     *
+     * @param key Stream Key
+     * @param groupName 分组名
+     * @return 消息数量
+     */
+    public int getPendingCount(String key, String groupName) {
+        Group group = groups.get(buildKey(key, groupName));
+        if (group == null) {
+            return 0;
+        }
+        synchronized (group) {
+            return group.pending.size();
+        }
+    }
+
+    // ========== 命令 ==========
+
+    private Slice xgroup(OperationExecutorState state, List<Slice> params) {
+        if (!"create".equalsIgnoreCase(params.get(0).toString())) {
+            return Response.error("ERR unsupported XGROUP subcommand in test");
+        }
+        String key = params.get(1).toString();
+        String groupName = params.get(2).toString();
+        String id = params.get(3).toString();
+        if ("$".equals(id)) {
+            List<Object> entries = parseArray(MockExecutor.proceed(state, "xrevrange",
+                    slices(key, "+", "-", "COUNT", "1")));
+            id = entries.isEmpty() ? "0-0" : getEntryId(entries.get(0));
+        }
+        if (groups.putIfAbsent(buildKey(key, groupName), new Group(id)) != null) {
+            return Response.error("BUSYGROUP Consumer Group name already exists");
+        }
+        return Response.OK;
+    }
+
+    private Slice xreadgroup(OperationExecutorState state, List<Slice> params) {
+        // 解析参数：GROUP group consumer [COUNT count] [BLOCK milliseconds] [NOACK] STREAMS key >
+        String groupName = null;
+        String consumer = null;
+        long count = Long.MAX_VALUE;
+        long block = -1;
+        int streamsIndex = -1;
+        for (int i = 0; i < params.size() && streamsIndex < 0; i++) {
+            String param = params.get(i).toString().toUpperCase();
+            switch (param) {
+                case "GROUP":
+                    groupName = params.get(++i).toString();
+                    consumer = params.get(++i).toString();
+                    break;
+                case "COUNT":
+                    count = Long.parseLong(params.get(++i).toString());
+                    break;
+                case "BLOCK":
+                    block = Long.parseLong(params.get(++i).toString());
+                    break;
+                case "STREAMS":
+                    streamsIndex = i;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (streamsIndex < 0 || params.size() - streamsIndex != 3
+                || !">".equals(params.get(streamsIndex + 2).toString())) {
+            return Response.error("ERR only XREADGROUP of one stream with > is supported in test");
+        }
+        String key = params.get(streamsIndex + 1).toString();
+        Group group = groups.get(buildKey(key, groupName));
+        if (group == null) {
+            return Response.error("NOGROUP No such key '" + key + "' or consumer group '" + groupName + "'");
+        }
+
+        // 读取新消息；阻塞读取时，轮询到有消息或超时为止
+        long deadline = System.currentTimeMillis() + Math.max(block, 0);
+        while (true) {
+            List<Slice> entries = readNewEntries(state, key, group, consumer, count);
+            if (!entries.isEmpty()) {
+                return Response.array(Collections.singletonList(Response.array(Arrays.asList(
+                        Response.bulkString(Slice.create(key)), Response.array(entries)))));
+            }
+            if (block < 0 || System.currentTimeMillis() >= deadline) {
+                return Response.NULL_ARRAY;
+            }
+            try {
+                Thread.sleep(BLOCK_POLL_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return Response.NULL_ARRAY;
+            }
+        }
+    }
+
+    private Slice xack(List<Slice> params) {
+        ackCommandCount.incrementAndGet();
+        Group group = groups.get(buildKey(params.get(0).toString(), params.get(1).toString()));
+        if (group == null) {
+            return Response.integer(0);
+        }
+        int count = 0;
+        synchronized (group) {
+            for (int i = 2; i < params.size(); i++) {
+                if (group.pending.remove(params.get(i).toString()) != null) {
+                    count++;
+                }
+            }
+        }
+        return Response.integer(count);
+    }
+
+    private List<Slice> readNewEntries(OperationExecutorState state, String key, Group group,
+                                       String consumer, long count) {
+        synchronized (group) {
+            List<Object> entries = parseArray(MockExecutor.proceed(state, "xrange", slices(key,
+                    nextId(group.lastDeliveredId), "+", "COUNT", String.valueOf(count))));
+            List<Slice> result = new ArrayList<>(entries.size());
+            for (Object entry : entries) {
+                String id = getEntryId(entry);
+                group.pending.put(id, consumer);
+                group.lastDeliveredId = id;
+                result.add(toResponse(entry));
+            }
+            return result;
+        }
+    }
+
+    // ========== RESP 编解码 ==========
+
+    @SuppressWarnings("unchecked")
+    private static String getEntryId(Object entry) {
+        return new String((byte[]) ((List<Object>) entry).get(0), StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Slice toResponse(Object value) {
+        if (value instanceof byte[]) {
+            return Response.bulkString(Slice.create((byte[]) value));
+        }
+        List<Slice> items = new ArrayList<>();
+        ((List<Object>) value).forEach(item -> items.add(toResponse(item)));
+        return Response.array(items);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> parseArray(Slice response) {
+        Object value = parse(response.data(), new int[]{0});
+        if (value instanceof String && ((String) value).startsWith("-")) {
+            throw new IllegalStateException((String) value);
+        }
+        return value != null ? (List<Object>) value : Collections.emptyList();
+    }
+
+    /**
+     * 解析 RESP 应答：数组解析为 List，字符串解析为 byte[]，错误解析为以 - 开头的 String
+     */
+    private static Object parse(byte[] data, int[] position) {
+        char type = (char) data[position[0]++];
+        String line = readLine(data, position);
+        switch (type) {
+            case '*': {
+                int size = Integer.parseInt(line);
+                if (size < 0) {
+                    return null;
+                }
+                List<Object> items = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    items.add(parse(data, position));
+                }
+                return items;
+            }
+            case '$': {
+                int length = Integer.parseInt(line);
+                if (length < 0) {
+                    return null;
+                }
+                byte[] bytes = Arrays.copyOfRange(data, position[0], position[0] + length);
+                position[0] += length + 2;
+                return bytes;
+            }
+            case '-':
+                return "-" + line;
+            default:
+                return line;
+        }
+    }
+
+    private static String readLine(byte[] data, int[] position) {
+        int start = position[0];
+        while (data[position[0]] != '\r') {
+            position[0]++;
+        }
+        String line = new String(data, start, position[0] - start, StandardCharsets.UTF_8);
+        position[0] += 2;
+        return line;
+    }
+
+    private static List<Slice> slices(String... values) {
+        List<Slice> slices = new ArrayList<>(values.length);
+        for (String value : values) {
+            slices.add(Slice.create(value));
+        }
+        return slices;
+    }
+
+    private static String nextId(String id) {
+        int index = id.indexOf('-');
+        if (index < 0) {
+            return id + "-1";
+        }
+        return id.substring(0, index) + "-" + (Long.parseLong(id.substring(index + 1)) + 1);
+    }
+
+    private static String buildKey(String key, String groupName) {
+        return key + ":" + groupName;
+    }
+
+    private static class Group {
+
+        /**
+         * 最后投递的消息编号
+         */
+        private String lastDeliveredId;
+        /**
+         * 已投递、未 ack 的消息
+         *
+         * KEY：消息编号
+         * VALUE：消费者名
+         */
+        private final Map<String, String> pending = new HashMap<>();
+
+        private Group(String lastDeliveredId) {
+            this.lastDeliveredId = lastDeliveredId;
+        }
+
+    }
+
+}
@@ -2,10 +2,13 @@ package cn.iocoder.yudao.framework.mybatis.config;
 
 import cn.hutool.core.util.StrUtil;
 import cn.iocoder.yudao.framework.mybatis.core.handler.DefaultDBFieldHandler;
+import cn.iocoder.yudao.framework.mybatis.core.injector.InsertBatchValues;
+import cn.iocoder.yudao.framework.mybatis.core.injector.YudaoSqlInjector;
 import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.autoconfigure.MybatisPlusAutoConfiguration;
 import com.baomidou.mybatisplus.core.handlers.MetaObjectHandler;
 import com.baomidou.mybatisplus.core.incrementer.IKeyGenerator;
+import com.baomidou.mybatisplus.core.injector.ISqlInjector;
 import com.baomidou.mybatisplus.extension.incrementer.*;
 import com.baomidou.mybatisplus.extension.parser.JsqlParserGlobal;
 import com.baomidou.mybatisplus.extension.parser.cache.JdkSerialCaffeineJsqlParseCache;
@@ -15,6 +18,8 @@ import org.apache.ibatis.annotations.Mapper;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.env.ConfigurableEnvironment;
 
@@ -45,6 +50,14 @@ public class YudaoMybatisAutoConfiguration {
         return mybatisPlusInterceptor;
     }
 
+    @Bean
+    public ISqlInjector yudaoSqlInjector(ConfigurableEnvironment environment) {
+        // 多行 VALUES 批量插入时，各数据库每条 SQL 的绑定参数上限，例如说 yudao.mybatis.insert-batch.max-parameters.mysql=20000
+        Binder.get(environment).bind("yudao.mybatis.insert-batch.max-parameters", Bindable.mapOf(DbType.class, Integer.class))
+                .ifBound(maxParameters -> maxParameters.forEach(InsertBatchValues::configMaxParameters));
+        return new YudaoSqlInjector(); // 注入 BaseMapperX 的多行 VALUES 批量插入等方法
+    }
+
     @Bean
     public MetaObjectHandler defaultMetaObjectHandler() {
         return new DefaultDBFieldHandler(); // 自动填充参数类
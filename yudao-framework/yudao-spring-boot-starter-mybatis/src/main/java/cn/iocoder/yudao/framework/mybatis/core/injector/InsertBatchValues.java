@@ -0,0 +1,174 @@
+package cn.iocoder.yudao.framework.mybatis.core.injector;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.core.enums.SqlMethod;
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.toolkit.sql.SqlInjectionUtils;
+import com.baomidou.mybatisplus.core.toolkit.sql.SqlScriptUtils;
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.executor.keygen.KeyGenerator;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 多行 VALUES 的批量插入：INSERT INTO table (a, b) VALUES (?, ?), (?, ?), ...
+ *
+ * 和 MyBatis Plus 的 InsertBatchSomeColumn 的差异：和单条 insert 一样，值为 null 的字段不插入，使用数据库的默认值。
+ * 实现上，以第一个实体的字段是否为 null，决定插入哪些列；所以调用前，需要通过 {@link #split(TableInfo, Collection, int, DbType)}
+ * 按照「字段是否为 null」分组，保证同一条 SQL 中的实体，插入的列完全相同
+ *
+ * @author 芋道源码
+ */
+public class InsertBatchValues extends AbstractMethod {
+
+    public static final String METHOD_NAME = "insertBatchValues";
+
+    /**
+     * 支持多行 VALUES 的数据库
+     */
+    private static final Set<DbType> SUPPORT_DB_TYPES = EnumSet.of(DbType.MYSQL, DbType.MARIADB,
+            DbType.POSTGRE_SQL, DbType.H2);
+
+    /**
+     * 每条 SQL 的绑定参数上限的默认值：MySQL、PostgreSQL 的协议中，参数数量都是 2 字节的无符号整数
+     */
+    public static final int MAX_PARAMETERS_DEFAULT = 65535;
+
+    /**
+     * 各数据库每条 SQL 的绑定参数上限，未配置时使用 {@link #MAX_PARAMETERS_DEFAULT}
+     *
+     * 例如说：MySQL 的单条 SQL 还受 max_allowed_packet 限制，行较宽时，可以调小该值
+     */
+    private static final Map<DbType, Integer> MAX_PARAMETERS = new ConcurrentHashMap<>();
+
+    static {
+        // PostgreSQL JDBC 驱动 42.4.0 之前，参数数量按照 2 字节的有符号整数校验
+        MAX_PARAMETERS.put(DbType.POSTGRE_SQL, (int) Short.MAX_VALUE);
+    }
+
+    /**
+     * 列的模板：第一个实体
+     */
+    private static final String COLUMN_PREFIX = "list[0].";
+
+    public InsertBatchValues() {
+        super(METHOD_NAME);
+    }
+
+    @Override
+    public MappedStatement injectMappedStatement(Class<?> mapperClass, Class<?> modelClass, TableInfo tableInfo) {
+        // 列、值都包含主键；使用第一个实体作为列的模板
+        String columnScript = SqlScriptUtils.convertTrim(tableInfo.getAllInsertSqlColumnMaybeIf(COLUMN_PREFIX),
+                LEFT_BRACKET, RIGHT_BRACKET, null, COMMA);
+        String valuesScript = SqlScriptUtils.convertForeach(SqlScriptUtils.convertTrim(tableInfo.getAllInsertSqlPropertyMaybeIf(ENTITY_DOT),
+                LEFT_BRACKET, RIGHT_BRACKET, null, COMMA), LIST, null, ENTITY, COMMA);
+        String sql = String.format(SqlMethod.INSERT_ONE.getSql(), tableInfo.getTableName(), columnScript, valuesScript);
+        SqlSource sqlSource = super.createSqlSource(configuration, sql, modelClass);
+        // 自增主键：通过 JDBC getGeneratedKeys 回填编号
+        KeyGenerator keyGenerator = NoKeyGenerator.INSTANCE;
+        String keyProperty = null;
+        String keyColumn = null;
+        if (tableInfo.havePK() && tableInfo.getIdType() == IdType.AUTO) {
+            keyGenerator = Jdbc3KeyGenerator.INSTANCE;
+            keyProperty = tableInfo.getKeyProperty();
+            keyColumn = SqlInjectionUtils.removeEscapeCharacter(tableInfo.getKeyColumn());
+        }
+        return addInsertMappedStatement(mapperClass, modelClass, methodName, sqlSource, keyGenerator, keyProperty, keyColumn);
+    }
+
+    /**
+     * 判断是否支持多行 VALUES 的批量插入
+     *
+     * @param dbType    数据库类型
+     * @param tableInfo 表信息
+     * @return 是否支持
+     */
+    public static boolean isSupported(DbType dbType, TableInfo tableInfo) {
+        if (tableInfo == null || !SUPPORT_DB_TYPES.contains(dbType)) {
+            return false;
+        }
+        // 基于序列生成主键时（例如说，PostgreSQL 的 @KeySequence），每条记录都需要先查询一次序列，无法批量
+        return tableInfo.getIdType() != IdType.INPUT || tableInfo.getKeySequence() == null;
+    }
+
+    /**
+     * 配置数据库每条 SQL 的绑定参数上限
+     *
+     * @param dbType        数据库类型
+     * @param maxParameters 绑定参数上限
+     */
+    public static void configMaxParameters(DbType dbType, int maxParameters) {
+        if (maxParameters <= 0) {
+            throw new IllegalArgumentException("maxParameters 必须大于 0");
+        }
+        MAX_PARAMETERS.put(dbType, maxParameters);
+    }
+
+    /**
+     * 获得数据库每条 SQL 的绑定参数上限
+     *
+     * @param dbType 数据库类型
+     * @return 绑定参数上限
+     */
+    public static int getMaxParameters(DbType dbType) {
+        return MAX_PARAMETERS.getOrDefault(dbType, MAX_PARAMETERS_DEFAULT);
+    }
+
+    /**
+     * 将实体拆分成多组，每组对应一条多行 VALUES 的 SQL
+     *
+     * 1. 按照「每个字段是否为 null、是否为空字符串」分组，保证同一组的实体，插入的列完全相同
+     * 2. 每组的行数 = 绑定参数上限 / 插入的列数，并且不超过 size
+     *
+     * @param tableInfo 表信息
+     * @param entities  实体们
+     * @param size      每组最大数量；小于等于 0 时，只受绑定参数上限约束
+     * @param dbType    数据库类型，用于获得绑定参数上限
+     * @return 实体分组
+     */
+    public static <T> List<List<T>> split(TableInfo tableInfo, Collection<T> entities, int size, DbType dbType) {
+        Map<BitSet, List<T>> groups = new LinkedHashMap<>();
+        Map<BitSet, Integer> groupColumnCounts = new HashMap<>();
+        for (T entity : entities) {
+            BitSet mask = new BitSet();
+            int index = 0;
+            int columnCount = 0;
+            if (tableInfo.havePK() && tableInfo.getPropertyValue(entity, tableInfo.getKeyProperty()) != null) {
+                mask.set(index);
+                columnCount++;
+            }
+            index++;
+            for (TableFieldInfo field : tableInfo.getFieldList()) {
+                Object value = tableInfo.getPropertyValue(entity, field.getProperty());
+                if (value != null) {
+                    mask.set(index);
+                    columnCount++;
+                }
+                index++;
+                mask.set(index++, value instanceof CharSequence && ((CharSequence) value).length() == 0);
+            }
+            groups.computeIfAbsent(mask, key -> new ArrayList<>()).add(entity);
+            groupColumnCounts.putIfAbsent(mask, columnCount);
+        }
+        int maxParameters = getMaxParameters(dbType);
+        List<List<T>> result = new ArrayList<>();
+        groups.forEach((mask, group) -> {
+            int rows = Math.max(1, maxParameters / Math.max(1, groupColumnCounts.get(mask)));
+            if (size > 0) {
+                rows = Math.min(rows, size);
+            }
+            for (int i = 0; i < group.size(); i += rows) {
+                result.add(group.subList(i, Math.min(i + rows, group.size())));
+            }
+        });
+        return result;
+    }
+
+}
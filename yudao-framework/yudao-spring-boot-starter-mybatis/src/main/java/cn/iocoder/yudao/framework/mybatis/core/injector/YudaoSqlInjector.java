@@ -0,0 +1,27 @@
+package cn.iocoder.yudao.framework.mybatis.core.injector;
+
+import cn.iocoder.yudao.framework.mybatis.core.mapper.BaseMapperX;
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.injector.DefaultSqlInjector;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.List;
+
+/**
+ * 自定义的 SQL 注入器，在 MyBatis Plus 默认方法的基础上，注入 {@link BaseMapperX} 额外需要的方法
+ *
+ * 注意：MyBatis Plus Join 会包装该注入器，连表相关的方法不受影响
+ *
+ * @author 芋道源码
+ */
+public class YudaoSqlInjector extends DefaultSqlInjector {
+
+    @Override
+    public List<AbstractMethod> getMethodList(Configuration configuration, Class<?> mapperClass, TableInfo tableInfo) {
+        List<AbstractMethod> methodList = super.getMethodList(configuration, mapperClass, tableInfo);
+        methodList.add(new InsertBatchValues());
+        return methodList;
+    }
+
+}
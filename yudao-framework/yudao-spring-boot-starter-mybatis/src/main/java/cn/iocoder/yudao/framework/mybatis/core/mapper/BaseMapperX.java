@@ -1,10 +1,13 @@
 package cn.iocoder.yudao.framework.mybatis.core.mapper;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.lang.Assert;
+import cn.iocoder.yudao.framework.common.pojo.CursorPageParam;
 import cn.iocoder.yudao.framework.common.pojo.PageParam;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.framework.common.pojo.SortablePageParam;
 import cn.iocoder.yudao.framework.common.pojo.SortingField;
+import cn.iocoder.yudao.framework.mybatis.core.injector.InsertBatchValues;
 import cn.iocoder.yudao.framework.mybatis.core.util.JdbcUtils;
 import cn.iocoder.yudao.framework.mybatis.core.util.MyBatisUtils;
 import com.baomidou.mybatisplus.annotation.DbType;
@@ -13,7 +16,10 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
 import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.toolkit.Db;
 import com.github.yulichang.base.MPJBaseMapper;
 import com.github.yulichang.interfaces.MPJBaseJoin;
@@ -22,6 +28,7 @@ import org.apache.ibatis.annotations.Param;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * 在 MyBatis Plus 的 BaseMapper 的基础上拓展，提供更多的能力
@@ -31,6 +38,13 @@ import java.util.List;
  */
 public interface BaseMapperX<T> extends MPJBaseMapper<T> {
 
+    /**
+     * JDBC batch 批量插入的默认数量，和 Db.saveBatch 保持一致
+     *
+     * 多行 VALUES 批量插入时，不使用该值，每条 SQL 的行数由绑定参数上限推导，见 {@link InsertBatchValues#split(TableInfo, Collection, int, DbType)}
+     */
+    int DEFAULT_BATCH_SIZE = 1000;
+
     default PageResult<T> selectPage(SortablePageParam pageParam, @Param("ew") Wrapper<T> queryWrapper) {
         return selectPage(pageParam, pageParam.getSortingFields(), queryWrapper);
     }
@@ -53,6 +67,97 @@ public interface BaseMapperX<T> extends MPJBaseMapper<T> {
         return new PageResult<>(mpPage.getRecords(), mpPage.getTotal());
     }
 
+    /**
+     * 游标分页查询，按照编号倒序
+     *
+     * @param pageParam    游标分页参数
+     * @param idField      编号字段
+     * @param queryWrapper 查询条件，不要包含排序
+     * @return 分页结果
+     */
+    default PageResult<T> selectCursorPage(CursorPageParam pageParam, SFunction<T, ?> idField,
+                                           LambdaQueryWrapper<T> queryWrapper) {
+        return selectCursorPage(pageParam, null, idField, false, queryWrapper);
+    }
+
+    /**
+     * 游标分页查询，基于（排序字段，编号）定位，即 keyset 分页
+     *
+     * 相比 {@link #selectPage(PageParam, Wrapper)} 的 LIMIT OFFSET，查询耗时不随页码增加；并且可以跳过、复用 COUNT 查询。
+     * 需要 (sortField, idField) 上有联合索引（只按编号排序时，主键即可）
+     *
+     * @param pageParam    游标分页参数
+     * @param sortField    排序字段，为空时只按照编号排序
+     * @param idField      编号字段，保证排序字段相同时，顺序稳定
+     * @param asc          是否正序
+     * @param queryWrapper 查询条件，不要包含排序
+     * @return 分页结果；不查询总数时，total 为 {@link CursorPageParam#TOTAL_NONE}
+     */
+    default PageResult<T> selectCursorPage(CursorPageParam pageParam, SFunction<T, ?> sortField, SFunction<T, ?> idField,
+                                           boolean asc, LambdaQueryWrapper<T> queryWrapper) {
+        // 1. 总数：不查询、复用上一次的总数、或者 COUNT 查询。需要在添加游标条件之前
+        Long total = CursorPageParam.TOTAL_NONE;
+        if (Boolean.TRUE.equals(pageParam.getSearchCount())) {
+            total = pageParam.getTotal() != null ? pageParam.getTotal() : selectCount(queryWrapper);
+        }
+
+        // 2.1 游标条件：(sort, id) 在上一页最后一条记录之后
+        Long lastId = pageParam.getLastId();
+        if (lastId != null) {
+            if (sortField == null) {
+                queryWrapper.gt(asc, idField, lastId).lt(!asc, idField, lastId);
+            } else {
+                Object lastSortValue = pageParam.getLastSortValue();
+                Assert.notNull(lastSortValue, "按照排序字段分页时，lastSortValue 不能为空");
+                queryWrapper.and(w -> w.gt(asc, sortField, lastSortValue).lt(!asc, sortField, lastSortValue)
+                        .or(o -> o.eq(sortField, lastSortValue).gt(asc, idField, lastId).lt(!asc, idField, lastId)));
+            }
+        }
+        // 2.2 排序
+        if (sortField != null) {
+            queryWrapper.orderBy(true, asc, sortField);
+        }
+        queryWrapper.orderBy(true, asc, idField);
+
+        // 3. 查询：只取第一页，并关闭 MyBatis Plus 的 COUNT 查询
+        if (PageParam.PAGE_SIZE_NONE.equals(pageParam.getPageSize())) {
+            return new PageResult<>(selectList(queryWrapper), total);
+        }
+        Page<T> mpPage = new Page<>(1, pageParam.getPageSize(), false);
+        selectPage(mpPage, queryWrapper);
+        return new PageResult<>(mpPage.getRecords(), total);
+    }
+
+    /**
+     * 分页查询，按照编号倒序，优先使用游标分页
+     *
+     * 1. 传入 lastId、或者查询第一页时，使用 {@link #selectCursorPage(CursorPageParam, SFunction, LambdaQueryWrapper)}，不需要 OFFSET
+     * 2. 否则，按照 pageNo 使用 LIMIT OFFSET 分页，兼容直接跳页
+     *
+     * 两种方式的总数，都遵循 {@link CursorPageParam#getSearchCount()}、{@link CursorPageParam#getTotal()}
+     *
+     * @param pageParam    游标分页参数
+     * @param idField      编号字段
+     * @param queryWrapper 查询条件，不要包含排序
+     * @return 分页结果；不查询总数时，total 为 {@link CursorPageParam#TOTAL_NONE}
+     */
+    default PageResult<T> selectCursorOrOffsetPage(CursorPageParam pageParam, SFunction<T, ?> idField,
+                                                   LambdaQueryWrapper<T> queryWrapper) {
+        if (pageParam.getLastId() != null || Objects.equals(pageParam.getPageNo(), 1)
+                || PageParam.PAGE_SIZE_NONE.equals(pageParam.getPageSize())) {
+            return selectCursorPage(pageParam, idField, queryWrapper);
+        }
+        // 跳页：LIMIT OFFSET 分页，并关闭 MyBatis Plus 的 COUNT 查询
+        Long total = CursorPageParam.TOTAL_NONE;
+        if (Boolean.TRUE.equals(pageParam.getSearchCount())) {
+            total = pageParam.getTotal() != null ? pageParam.getTotal() : selectCount(queryWrapper);
+        }
+        queryWrapper.orderBy(true, false, idField);
+        Page<T> mpPage = new Page<>(pageParam.getPageNo(), pageParam.getPageSize(), false);
+        selectPage(mpPage, queryWrapper);
+        return new PageResult<>(mpPage.getRecords(), total);
+    }
+
     default <D> PageResult<D> selectJoinPage(PageParam pageParam, Class<D> clazz, MPJLambdaWrapper<T> lambdaWrapper) {
         // 特殊：不分页，直接查询全部
         if (PageParam.PAGE_SIZE_NONE.equals(pageParam.getPageSize())) {
@@ -170,31 +275,48 @@ public interface BaseMapperX<T> extends MPJBaseMapper<T> {
      * @param entities 实体们
      */
     default Boolean insertBatch(Collection<T> entities) {
-        // 特殊：SQL Server 批量插入后，获取 id 会报错，因此通过循环处理
-        DbType dbType = JdbcUtils.getDbType();
-        if (JdbcUtils.isSQLServer(dbType)) {
-            entities.forEach(this::insert);
-            return CollUtil.isNotEmpty(entities);
-        }
-        return Db.saveBatch(entities);
+        return insertBatch(entities, 0);
     }
 
     /**
      * 批量插入，适合大量数据插入
      *
+     * 1. MySQL、PostgreSQL 等支持多行 VALUES 的数据库，使用 INSERT INTO ... VALUES (...), (...) 批量插入，自增编号会回填到实体
+     * 2. 其它数据库，使用 Db.saveBatch 的 JDBC batch，逐条 INSERT
+     *
      * @param entities 实体们
-     * @param size     插入数量 Db.saveBatch 默认为 1000
+     * @param size     每条 SQL（或每个 JDBC batch）插入的最大数量；小于等于 0 时，多行 VALUES 只受绑定参数上限约束，
+     *                 JDBC batch 使用 {@link #DEFAULT_BATCH_SIZE}
      */
     default Boolean insertBatch(Collection<T> entities, int size) {
+        if (CollUtil.isEmpty(entities)) {
+            return false;
+        }
         // 特殊：SQL Server 批量插入后，获取 id 会报错，因此通过循环处理
         DbType dbType = JdbcUtils.getDbType();
         if (JdbcUtils.isSQLServer(dbType)) {
             entities.forEach(this::insert);
             return CollUtil.isNotEmpty(entities);
         }
-        return Db.saveBatch(entities, size);
+        // 多行 VALUES 批量插入
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(CollUtil.getFirst(entities).getClass());
+        if (InsertBatchValues.isSupported(dbType, tableInfo)) {
+            InsertBatchValues.split(tableInfo, entities, size, dbType).forEach(this::insertBatchValues);
+            return true;
+        }
+        return Db.saveBatch(entities, size > 0 ? size : DEFAULT_BATCH_SIZE);
     }
 
+    /**
+     * 多行 VALUES 批量插入，由 {@link InsertBatchValues} 注入
+     *
+     * 注意：不要直接调用，需要通过 {@link #insertBatch(Collection, int)} 分组后调用
+     *
+     * @param entities 实体们，插入的列以第一个实体为准
+     * @return 插入条数
+     */
+    int insertBatchValues(@Param("list") Collection<T> entities);
+
     default int updateBatch(T update) {
         return update(update, new QueryWrapper<>());
     }
@@ -1,7 +1,9 @@
 package cn.iocoder.yudao.framework.redis.config;
 
 import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.framework.common.util.cache.CacheUtils;
 import cn.iocoder.yudao.framework.redis.core.TimeoutRedisCacheManager;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.cache.CacheProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -17,6 +19,7 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.util.StringUtils;
 
+import javax.annotation.Resource;
 import java.util.Objects;
 
 import static cn.iocoder.yudao.framework.redis.config.YudaoRedisAutoConfiguration.buildRedisSerializer;
@@ -27,7 +30,17 @@ import static cn.iocoder.yudao.framework.redis.config.YudaoRedisAutoConfiguratio
 @AutoConfiguration
 @EnableConfigurationProperties({CacheProperties.class, YudaoCacheProperties.class})
 @EnableCaching
-public class YudaoCacheAutoConfiguration {
+public class YudaoCacheAutoConfiguration implements InitializingBean {
+
+    @Resource
+    private YudaoCacheProperties yudaoCacheProperties;
+
+    @Override
+    public void afterPropertiesSet() {
+        // 配置 CacheUtils 本地缓存异步刷新的线程池
+        YudaoCacheProperties.ReloadExecutor reloadExecutor = yudaoCacheProperties.getReloadExecutor();
+        CacheUtils.configReloadExecutor(reloadExecutor.getPoolSize(), reloadExecutor.getQueueCapacity());
+    }
 
     /**
      * RedisCacheConfiguration Bean
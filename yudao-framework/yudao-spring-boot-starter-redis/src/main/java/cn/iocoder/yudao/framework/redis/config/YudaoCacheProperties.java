@@ -1,5 +1,6 @@
 package cn.iocoder.yudao.framework.redis.config;
 
+import cn.iocoder.yudao.framework.common.util.cache.CacheUtils;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
@@ -24,4 +25,23 @@ public class YudaoCacheProperties {
      */
     private Integer redisScanBatchSize = REDIS_SCAN_BATCH_SIZE_DEFAULT;
 
+    /**
+     * 本地缓存（CacheUtils#buildAsyncReloadingCache）异步刷新的线程池，对应 {@link CacheUtils#getReloadExecutor()}
+     */
+    private ReloadExecutor reloadExecutor = new ReloadExecutor();
+
+    @Data
+    public static class ReloadExecutor {
+
+        /**
+         * 线程数
+         */
+        private Integer poolSize = CacheUtils.RELOAD_EXECUTOR_POOL_SIZE_DEFAULT;
+        /**
+         * 队列大小，超过后的刷新任务会被拒绝，继续使用旧值
+         */
+        private Integer queueCapacity = CacheUtils.RELOAD_EXECUTOR_QUEUE_CAPACITY_DEFAULT;
+
+    }
+
 }
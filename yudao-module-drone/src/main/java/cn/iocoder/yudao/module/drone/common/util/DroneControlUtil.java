@@ -4,6 +4,9 @@ import com.intelligt.modbus.jlibmodbus.Modbus;
 import com.intelligt.modbus.jlibmodbus.master.ModbusMaster;
 import com.intelligt.modbus.jlibmodbus.master.ModbusMasterFactory;
 import com.intelligt.modbus.jlibmodbus.tcp.TcpParameters;
+import cn.iocoder.yudao.module.drone.framework.mavlink.config.DroneMavlinkProperties;
+import cn.iocoder.yudao.module.drone.framework.mavlink.core.DroneMavlinkSession;
+import cn.iocoder.yudao.module.drone.framework.mavlink.core.DroneMavlinkSessionManager;
 import io.dronefleet.mavlink.MavlinkConnection;
 import io.dronefleet.mavlink.common.*;
 import io.dronefleet.mavlink.util.EnumValue;
@@ -15,6 +18,8 @@ import java.net.InetAddress;
 import java.net.Socket;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import static org.apache.commons.math3.util.Decimal64.NAN;
 
@@ -22,6 +27,7 @@ import static org.apache.commons.math3.util.Decimal64.NAN;
  * 无人机柜控制工具类
  * 整合了无人机MAVLink控制和无人机柜Modbus控制的所有核心功能
  * 支持多设备控制，所有关键参数都可以自定义传入
+ * 无人机控制推荐使用 DroneMavlinkSession 会话方法：复用长连接，并返回飞控的应答；Socket 方法保留兼容
  * 
  * @author 系统管理员
  * @since 2025-01-20
@@ -112,6 +118,51 @@ public class DroneControlUtil {
     /** 取件码地址2 */
     public static final int DEFAULT_MODBUS_ADDR_CODE_2 = 0xBC1;
     
+    /** 无人机 MAVLink 会话管理器，为空时在第一次使用时自行创建 */
+    private volatile DroneMavlinkSessionManager mavlinkSessionManager;
+    
+    /** 会话管理器是否由工具类自行创建，自行创建的需要由 close() 关闭 */
+    private boolean ownSessionManager;
+    
+    /**
+     * 创建工具类，会话方法第一次使用时，按照默认的 drone.mavlink.* 配置自行创建会话管理器
+     */
+    public DroneControlUtil() {
+    }
+    
+    /**
+     * 创建工具类
+     * @param mavlinkSessionManager 无人机 MAVLink 会话管理器，一般为 Spring 容器中的 Bean
+     */
+    public DroneControlUtil(DroneMavlinkSessionManager mavlinkSessionManager) {
+        this.mavlinkSessionManager = mavlinkSessionManager;
+    }
+    
+    private DroneMavlinkSessionManager getSessionManager() {
+        if (mavlinkSessionManager == null) {
+            synchronized (this) {
+                if (mavlinkSessionManager == null) {
+                    DroneMavlinkSessionManager sessionManager = new DroneMavlinkSessionManager(new DroneMavlinkProperties());
+                    sessionManager.start();
+                    ownSessionManager = true;
+                    mavlinkSessionManager = sessionManager;
+                }
+            }
+        }
+        return mavlinkSessionManager;
+    }
+    
+    /**
+     * 关闭工具类自行创建的会话管理器，及其所有无人机会话；传入的会话管理器由其创建方负责关闭
+     */
+    public synchronized void close() {
+        if (ownSessionManager && mavlinkSessionManager != null) {
+            mavlinkSessionManager.stop();
+            mavlinkSessionManager = null;
+            ownSessionManager = false;
+        }
+    }
+    
     // ============================== 连接管理 ==============================
     
     /**
@@ -158,6 +209,25 @@ public class DroneControlUtil {
         throw new IOException("无法连接到无人机");
     }
     
+    /**
+     * 获取无人机会话（使用默认参数）
+     * @return 无人机会话
+     */
+    public DroneMavlinkSession connectDroneSession() {
+        return connectDroneSession(DEFAULT_DRONE_HOST, DEFAULT_DRONE_PORT);
+    }
+    
+    /**
+     * 获取无人机会话（指定地址和端口）
+     * 同一架无人机复用 DroneMavlinkSessionManager 中的长连接，连接在第一次发送时建立，断开后由后台线程重连
+     * @param host 无人机地址
+     * @param port 无人机端口
+     * @return 无人机会话
+     */
+    public DroneMavlinkSession connectDroneSession(String host, int port) {
+        return getSessionManager().getSession(host, port);
+    }
+    
     /**
      * 连接无人机柜（使用默认参数）
      * @return ModbusMaster连接对象
@@ -229,6 +299,19 @@ public class DroneControlUtil {
         }
     }
     
+    /**
+     * 关闭并移除无人机会话
+     * 注意：会话是该无人机所有流程共享的长连接，关闭后其它流程等待中的命令也会失败；
+     * 单个流程结束时不需要调用，只在不再控制该无人机时（例如说，无人机下线）调用
+     * @param session 要关闭的无人机会话
+     */
+    public void closeDroneSession(DroneMavlinkSession session) {
+        if (session != null) {
+            getSessionManager().removeSession(session.getHost(), session.getPort());
+            log.info("无人机会话已关闭: {}:{}", session.getHost(), session.getPort());
+        }
+    }
+    
     /**
      * 关闭连接
      * @param master 要关闭的ModbusMaster
@@ -827,6 +910,233 @@ public class DroneControlUtil {
         log.info("任务确认已发送，系统ID: {}", sysId);
     }
     
+    // ============================== MAVLink 无人机会话控制方法 ==============================
+    // 命令通过 DroneMavlinkSession 长连接发送，返回飞控的 COMMAND_ACK；系统ID、目标ID 由 drone.mavlink.* 配置
+    
+    /**
+     * 构建设置飞行速度的任务项
+     * @param seq 序列号
+     * @param speed 速度值
+     * @return 任务项
+     */
+    public MissionItemInt buildSpeedItem(int seq, int speed) {
+        DroneMavlinkProperties properties = getSessionManager().getProperties();
+        return MissionItemInt.builder()
+                .param1(0)
+                .param2(speed)
+                .param3(-1)
+                .param4(0)
+                .targetSystem(properties.getTargetSystem())
+                .targetComponent(properties.getTargetComponent())
+                .seq(seq)
+                .frame(MavFrame.MAV_FRAME_GLOBAL)
+                .command(MavCmd.MAV_CMD_DO_CHANGE_SPEED)
+                .current(0)
+                .autocontinue(1)
+                .missionType(MavMissionType.MAV_MISSION_TYPE_MISSION)
+                .build();
+    }
+    
+    /**
+     * 构建起飞的任务项
+     * @param latitude 纬度 (需要乘以10^7)
+     * @param longitude 经度 (需要乘以10^7)
+     * @param altitude 高度 (米)
+     * @param seq 序列号
+     * @return 任务项
+     */
+    public MissionItemInt buildTakeoffItem(int latitude, int longitude, int altitude, int seq) {
+        DroneMavlinkProperties properties = getSessionManager().getProperties();
+        return MissionItemInt.builder()
+                .param1(2)
+                .param2(0)
+                .param3(0)
+                .param4(NAN.floatValue())
+                .x(latitude)
+                .y(longitude)
+                .z(altitude)
+                .targetSystem(properties.getTargetSystem())
+                .targetComponent(properties.getTargetComponent())
+                .seq(seq)
+                .frame(MavFrame.MAV_FRAME_GLOBAL)
+                .command(MavCmd.MAV_CMD_NAV_TAKEOFF)
+                .current(0)
+                .autocontinue(1)
+                .missionType(MavMissionType.MAV_MISSION_TYPE_MISSION)
+                .build();
+    }
+    
+    /**
+     * 构建航点的任务项
+     * @param latitude 纬度 (需要乘以10^7)
+     * @param longitude 经度 (需要乘以10^7)
+     * @param altitude 高度 (米)
+     * @param seq 序列号
+     * @param headingAngle 航向角 (度)
+     * @return 任务项
+     */
+    public MissionItemInt buildWaypointItem(int latitude, int longitude, int altitude, int seq, float headingAngle) {
+        DroneMavlinkProperties properties = getSessionManager().getProperties();
+        return MissionItemInt.builder()
+                .param1(0)
+                .param2(0)
+                .param3(0)
+                .param4(headingAngle)
+                .x(latitude)
+                .y(longitude)
+                .z(altitude)
+                .targetSystem(properties.getTargetSystem())
+                .targetComponent(properties.getTargetComponent())
+                .seq(seq)
+                .frame(MavFrame.MAV_FRAME_GLOBAL)
+                .command(MavCmd.MAV_CMD_NAV_WAYPOINT)
+                .current(0)
+                .autocontinue(1)
+                .missionType(MavMissionType.MAV_MISSION_TYPE_MISSION)
+                .build();
+    }
+    
+    /**
+     * 构建降落的任务项
+     * @param latitude 纬度 (需要乘以10^7)
+     * @param longitude 经度 (需要乘以10^7)
+     * @param altitude 高度 (米)
+     * @param seq 序列号
+     * @param isFinalLanding 是否最终降落（影响autocontinue参数）
+     * @return 任务项
+     */
+    public MissionItemInt buildLandingItem(int latitude, int longitude, int altitude, int seq, boolean isFinalLanding) {
+        DroneMavlinkProperties properties = getSessionManager().getProperties();
+        return MissionItemInt.builder()
+                .param1(0)
+                .param2(0)
+                .param3(0)
+                .param4(NAN.floatValue())
+                .x(latitude)
+                .y(longitude)
+                .z(altitude)
+                .targetSystem(properties.getTargetSystem())
+                .targetComponent(properties.getTargetComponent())
+                .seq(seq)
+                .frame(MavFrame.MAV_FRAME_GLOBAL)
+                .command(MavCmd.MAV_CMD_NAV_LAND)
+                .current(0)
+                .autocontinue(isFinalLanding ? 0 : 1)
+                .missionType(MavMissionType.MAV_MISSION_TYPE_MISSION)
+                .build();
+    }
+    
+    /**
+     * 上传航线任务
+     * @param session 无人机会话
+     * @param items 任务项，seq 需要从 0 开始连续编号
+     * @return 飞控的 MISSION_ACK 结果
+     */
+    public CompletableFuture<MavMissionResult> uploadMission(DroneMavlinkSession session, List<MissionItemInt> items) {
+        log.info("上传航线任务: {}:{}, 任务数: {}", session.getHost(), session.getPort(), items.size());
+        return session.uploadMission(items);
+    }
+    
+    /**
+     * 下载航线任务
+     * @param session 无人机会话
+     * @return 飞控当前的任务项
+     */
+    public CompletableFuture<List<MissionItemInt>> downloadMission(DroneMavlinkSession session) {
+        log.info("下载航线任务: {}:{}", session.getHost(), session.getPort());
+        return session.downloadMission();
+    }
+    
+    /**
+     * 解锁无人机
+     * @param session 无人机会话
+     * @return 飞控的 COMMAND_ACK
+     */
+    public CompletableFuture<CommandAck> armDrone(DroneMavlinkSession session) {
+        log.info("无人机解锁命令: {}:{}", session.getHost(), session.getPort());
+        return session.sendCommand(MavCmd.MAV_CMD_COMPONENT_ARM_DISARM, 1); // 1=解锁，0=加锁
+    }
+    
+    /**
+     * 加锁无人机
+     * @param session 无人机会话
+     * @return 飞控的 COMMAND_ACK
+     */
+    public CompletableFuture<CommandAck> disarmDrone(DroneMavlinkSession session) {
+        log.info("无人机加锁命令: {}:{}", session.getHost(), session.getPort());
+        return session.sendCommand(MavCmd.MAV_CMD_COMPONENT_ARM_DISARM, 0); // 1=解锁，0=加锁
+    }
+    
+    /**
+     * 一键起飞
+     * @param session 无人机会话
+     * @param altitude 起飞高度 (米)
+     * @return 飞控的 COMMAND_ACK
+     */
+    public CompletableFuture<CommandAck> takeoffNow(DroneMavlinkSession session, int altitude) {
+        log.info("一键起飞命令: {}:{}, 高度: {}米", session.getHost(), session.getPort(), altitude);
+        return session.sendCommand(MavCmd.MAV_CMD_NAV_TAKEOFF_LOCAL, 0, 0, 0, 0, 0, 0, altitude);
+    }
+    
+    /**
+     * 设置飞行模式
+     * @param session 无人机会话
+     * @param mode 飞行模式 (2=定高, 3=定点, 4=任务, 5=返航)
+     * @param subMode 子模式 (仅任务模式使用: 2=自动起飞, 3=自动跟踪, 4=自动任务, 5=自动返航, 6=自动降落)
+     * @return 飞控的 COMMAND_ACK
+     */
+    public CompletableFuture<CommandAck> setFlightMode(DroneMavlinkSession session, int mode, int subMode) {
+        log.info("设置飞行模式: {}:{}, mode={}, subMode={}", session.getHost(), session.getPort(), mode, subMode);
+        return session.sendCommand(MavCmd.MAV_CMD_DO_SET_MODE, 1, mode, subMode);
+    }
+    
+    /**
+     * 控制机械臂/夹子
+     * @param session 无人机会话
+     * @param servoValue PWM值 (800=关闭夹子, 2300=打开夹子)
+     * @return 飞控的 COMMAND_ACK
+     */
+    public CompletableFuture<CommandAck> controlServo(DroneMavlinkSession session, int servoValue) {
+        String action = (servoValue == SERVO_OPEN) ? "打开" : "关闭";
+        log.info("机械臂控制: {}:{}, {} (PWM: {})", session.getHost(), session.getPort(), action, servoValue);
+        return session.sendCommand(MavCmd.MAV_CMD_DO_SET_SERVO, 8, servoValue); // 舵机通道 8
+    }
+    
+    /**
+     * 设置返航点；SET_HOME_POSITION 没有应答，发送即返回
+     * @param session 无人机会话
+     * @param latitude 纬度 (需要乘以10^7)
+     * @param longitude 经度 (需要乘以10^7)
+     * @param altitude 高度 (毫米)
+     */
+    public void setHomePosition(DroneMavlinkSession session, int latitude, int longitude, int altitude) {
+        List<Float> quaternion = new ArrayList<>();
+        quaternion.add(0F);
+        
+        SetHomePosition setHome = SetHomePosition.builder()
+                .latitude(latitude)
+                .longitude(longitude)
+                .altitude(altitude)
+                .x(0).y(0).z(0)
+                .q(quaternion)
+                .approachX(0).approachY(0).approachZ(0)
+                .targetSystem(getSessionManager().getProperties().getTargetSystem())
+                .timeUsec(BigInteger.ZERO)
+                .build();
+        session.sendMessage(setHome);
+        log.info("设置返航点: {}:{}, 纬度={}, 经度={}, 高度={}mm", session.getHost(), session.getPort(), latitude, longitude, altitude);
+    }
+    
+    /**
+     * 一键返航
+     * @param session 无人机会话
+     * @return 飞控的 COMMAND_ACK
+     */
+    public CompletableFuture<CommandAck> returnToLaunch(DroneMavlinkSession session) {
+        log.info("一键返航命令: {}:{}", session.getHost(), session.getPort());
+        return session.sendCommand(MavCmd.MAV_CMD_NAV_RETURN_TO_LAUNCH);
+    }
+    
     // ============================== Modbus 无人机柜控制方法 ==============================
     
     /**
@@ -1449,6 +1759,207 @@ public class DroneControlUtil {
         log.info("简单配送流程已启动");
     }
     
+    /**
+     * 完整的配送流程 - 带货物配送
+     * @param droneSession 无人机会话
+     * @param containerMaster 无人机柜连接
+     * @param takeoffLat 起飞点纬度 (需要乘以10^7)
+     * @param takeoffLon 起飞点经度 (需要乘以10^7)
+     * @param takeoffAlt 起飞高度 (米)
+     * @param destinationLat 目的地纬度 (需要乘以10^7)
+     * @param destinationLon 目的地经度 (需要乘以10^7)
+     * @param destinationAlt 目的地高度 (米)
+     * @param pickupCode1 取件码前三位
+     * @param pickupCode2 取件码后三位
+     * @throws Exception 操作异常
+     */
+    public void executeDeliveryWithContainer(DroneMavlinkSession droneSession, ModbusMaster containerMaster,
+                                           int takeoffLat, int takeoffLon, int takeoffAlt,
+                                           int destinationLat, int destinationLon, int destinationAlt,
+                                           int pickupCode1, int pickupCode2) throws Exception {
+        log.info("开始执行带箱子的配送流程");
+        
+        // 1. 设置无人机柜为自动模式
+        setContainerAutoMode(containerMaster);
+        
+        // 2. 检查存件格口状态
+        checkStorageStatus(containerMaster);
+        
+        // 3. 打开舱门
+        openDoor(containerMaster);
+        
+        // 4. 设置航线任务，总共6个任务
+        List<MissionItemInt> items = new ArrayList<>();
+        items.add(buildTakeoffItem(takeoffLat, takeoffLon, takeoffAlt, 0));
+        items.add(buildSpeedItem(1, 15)); // 设置速度15m/s
+        items.add(buildWaypointItem(takeoffLat, takeoffLon, 100, 2, NAN.floatValue()));
+        items.add(buildWaypointItem(takeoffLat, takeoffLon, 100, 3, NAN.floatValue()));
+        items.add(buildLandingItem(destinationLat, destinationLon, 0, 4, false));
+        items.add(buildLandingItem(destinationLat, destinationLon, 0, 5, true));
+        
+        // 5. 上传并确认航线
+        uploadAndVerifyMission(droneSession, items);
+        
+        // 6. 解锁并起飞，设置自动任务模式
+        armAndTakeoff(droneSession);
+        
+        log.info("无人机已起飞，等待到达目的地...");
+        // 注意：这里需要外部监控无人机状态，等待降落完成
+        
+        log.info("配送流程第一阶段完成");
+    }
+    
+    /**
+     * 配送流程第二阶段 - 存件和返程
+     * @param droneSession 无人机会话
+     * @param containerMaster 无人机柜连接
+     * @param returnLat 返程点纬度 (需要乘以10^7)
+     * @param returnLon 返程点经度 (需要乘以10^7)
+     * @param returnAlt 返程高度 (米)
+     * @param pickupCode1 取件码前三位
+     * @param pickupCode2 取件码后三位
+     * @param needPickup 是否需要取件
+     * @throws Exception 操作异常
+     */
+    public void executeStorageAndReturn(DroneMavlinkSession droneSession, ModbusMaster containerMaster,
+                                      int returnLat, int returnLon, int returnAlt,
+                                      int pickupCode1, int pickupCode2, boolean needPickup) throws Exception {
+        log.info("开始执行存件和返程流程");
+        
+        // 1. 确认无人机已降落
+        confirmDroneOnPad(containerMaster);
+        
+        // 2. 开始存件操作
+        startStorageOperation(containerMaster, pickupCode1, pickupCode2);
+        
+        // 3. 等待舵机状态就绪
+        waitForServoStatus(containerMaster, 1, 30000); // 等待30秒
+        
+        // 4. 打开机械臂
+        waitForCommand(controlServo(droneSession, SERVO_OPEN), "打开机械臂");
+        setServoStatus(containerMaster, 10, 11, "开舵机");
+        
+        // 5. 等待存件完成
+        int storageResult = waitForStorageComplete(containerMaster);
+        
+        if (storageResult == 111 && needPickup) {
+            // 需要取包裹
+            waitForServoStatus(containerMaster, 2, 30000);
+            waitForCommand(controlServo(droneSession, SERVO_CLOSE), "关闭机械臂"); // 关闭夹子
+            Thread.sleep(3000);
+            setServoStatus(containerMaster, 20, 21, "关舵机");
+            waitForStatus(containerMaster, DEFAULT_MODBUS_ADDR_STORAGE, 121, "无人机取件");
+            
+            // 设置返程航线
+            List<MissionItemInt> items = new ArrayList<>();
+            items.add(buildTakeoffItem(returnLat, returnLon, 50, 0));
+            items.add(buildLandingItem(returnLat, returnLon, 0, 1, false));
+            items.add(buildLandingItem(returnLat, returnLon, 0, 2, true));
+            
+            // 上传并确认返程航线
+            uploadAndVerifyMission(droneSession, items);
+            
+            // 起飞返程
+            armAndTakeoff(droneSession);
+            Thread.sleep(5000);
+            
+            setParkingEmpty(containerMaster);
+            
+        } else {
+            // 不需要取包裹，直接返程
+            setServoStatus(containerMaster, 20, 21, "关舵机");
+            setParkingEmpty(containerMaster);
+        }
+        
+        // 最后关闭舱门
+        closeDoor(containerMaster);
+        
+        log.info("存件和返程流程完成");
+    }
+    
+    /**
+     * 简单配送流程 - 不带货柜操作
+     * @param droneSession 无人机会话
+     * @param takeoffLat 起飞点纬度 (需要乘以10^7)
+     * @param takeoffLon 起飞点经度 (需要乘以10^7)
+     * @param takeoffAlt 起飞高度 (米)
+     * @param destinationLat 目的地纬度 (需要乘以10^7)
+     * @param destinationLon 目的地经度 (需要乘以10^7)
+     * @param destinationAlt 目的地高度 (米)
+     * @throws Exception 操作异常
+     */
+    public void executeSimpleDelivery(DroneMavlinkSession droneSession, 
+                                    int takeoffLat, int takeoffLon, int takeoffAlt,
+                                    int destinationLat, int destinationLon, int destinationAlt) throws Exception {
+        log.info("开始执行简单配送流程");
+        
+        // 设置航线任务
+        List<MissionItemInt> items = new ArrayList<>();
+        items.add(buildTakeoffItem(takeoffLat, takeoffLon, takeoffAlt, 0));
+        items.add(buildLandingItem(destinationLat, destinationLon, destinationAlt, 1, false));
+        items.add(buildLandingItem(destinationLat, destinationLon, destinationAlt, 2, true));
+        
+        // 上传并确认航线
+        uploadAndVerifyMission(droneSession, items);
+        
+        // 解锁并起飞
+        armAndTakeoff(droneSession);
+        
+        log.info("简单配送流程已启动");
+    }
+    
+    /**
+     * 上传航线任务，并下载确认飞控中的任务数量一致
+     * @param session 无人机会话
+     * @param items 任务项
+     * @throws Exception 上传被拒绝、超时或离线
+     */
+    private void uploadAndVerifyMission(DroneMavlinkSession session, List<MissionItemInt> items) throws Exception {
+        MavMissionResult result = getResult(uploadMission(session, items));
+        if (result != MavMissionResult.MAV_MISSION_ACCEPTED) {
+            throw new Exception("航线任务上传被拒绝: " + result);
+        }
+        List<MissionItemInt> downloaded = getResult(downloadMission(session));
+        if (downloaded.size() != items.size()) {
+            throw new Exception("航线任务确认失败，上传=" + items.size() + ", 下载=" + downloaded.size());
+        }
+        log.info("航线任务已上传并确认，任务数: {}", items.size());
+    }
+    
+    /**
+     * 解锁并起飞到 50 米，设置自动任务模式
+     * @param session 无人机会话
+     * @throws Exception 命令被拒绝、超时或离线
+     */
+    private void armAndTakeoff(DroneMavlinkSession session) throws Exception {
+        waitForCommand(armDrone(session), "解锁");
+        Thread.sleep(5000);
+        waitForCommand(takeoffNow(session, 50), "一键起飞");
+        waitForCommand(setFlightMode(session, 4, 4), "设置自动任务模式");
+    }
+    
+    /**
+     * 等待命令的 COMMAND_ACK
+     * @param future 命令
+     * @param description 命令描述
+     * @throws Exception 命令被拒绝、超时或离线
+     */
+    private static void waitForCommand(CompletableFuture<CommandAck> future, String description) throws Exception {
+        CommandAck ack = getResult(future);
+        if (ack.result().entry() != MavResult.MAV_RESULT_ACCEPTED) {
+            throw new Exception(description + " 被拒绝: " + ack.result().entry());
+        }
+        log.info("{} 完成", description);
+    }
+    
+    private static <T> T getResult(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+    
     // ============================== 工具方法 ==============================
     
     /**
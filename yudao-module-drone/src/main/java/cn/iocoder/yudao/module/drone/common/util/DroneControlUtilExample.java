@@ -1,9 +1,13 @@
 package cn.iocoder.yudao.module.drone.common.util;
 
+import cn.iocoder.yudao.module.drone.framework.mavlink.core.DroneMavlinkSession;
 import com.intelligt.modbus.jlibmodbus.master.ModbusMaster;
+import io.dronefleet.mavlink.common.MavMissionResult;
+import io.dronefleet.mavlink.common.MissionItemInt;
 import lombok.extern.slf4j.Slf4j;
 
-import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 无人机柜控制工具类使用示例
@@ -16,6 +20,7 @@ import java.net.Socket;
 public class DroneControlUtilExample {
     
     public static void main(String[] args) {
+        // 无参构造时自行创建会话管理器；在 Spring 中使用 DroneControlUtil(DroneMavlinkSessionManager)，系统ID、目标ID 等通过 drone.mavlink.* 配置
         DroneControlUtil droneControl = new DroneControlUtil();
         
         try {
@@ -33,6 +38,8 @@ public class DroneControlUtilExample {
             
         } catch (Exception e) {
             log.error("示例执行失败: {}", e.getMessage(), e);
+        } finally {
+            droneControl.close();
         }
     }
     
@@ -43,8 +50,9 @@ public class DroneControlUtilExample {
         log.info("=== 基本连接测试示例（默认参数） ===");
         
         // 使用默认参数连接
-        Socket droneSocket = droneControl.connectDrone();
-        log.info("无人机连接成功: {}", droneSocket.getRemoteSocketAddress());
+        DroneMavlinkSession droneSession = droneControl.connectDroneSession();
+        List<MissionItemInt> mission = droneControl.downloadMission(droneSession).get();
+        log.info("无人机连接成功: {}:{}, 当前航线任务数: {}", droneSession.getHost(), droneSession.getPort(), mission.size());
         
         ModbusMaster containerMaster = droneControl.connectContainer();
         log.info("无人机柜连接成功");
@@ -53,8 +61,7 @@ public class DroneControlUtilExample {
         droneControl.setContainerAutoMode(containerMaster);
         droneControl.checkStorageStatus(containerMaster);
         
-        // 关闭连接
-        droneControl.closeConnection(droneSocket);
+        // 关闭无人机柜连接；无人机会话是共享的长连接，流程结束时不需要关闭
         droneControl.closeConnection(containerMaster);
         
         log.info("基本连接测试完成");
@@ -67,36 +74,33 @@ public class DroneControlUtilExample {
         log.info("=== 多设备控制示例 ===");
         
         // 连接第一套设备（默认参数）
-        Socket drone1 = droneControl.connectDrone("sk.yunenjoy.cn", 61473);
+        DroneMavlinkSession drone1 = droneControl.connectDroneSession("sk.yunenjoy.cn", 61473);
         ModbusMaster container1 = droneControl.connectContainer("172.22.33.253", 502);
         
         // 连接第二套设备（不同参数）
-        Socket drone2 = droneControl.connectDrone("192.168.1.100", 61474);
+        DroneMavlinkSession drone2 = droneControl.connectDroneSession("192.168.1.100", 61474);
         ModbusMaster container2 = droneControl.connectContainer("192.168.1.101", 502);
         
         // 连接第三套设备（不同参数）
-        Socket drone3 = droneControl.connectDrone("192.168.1.102", 61475);
+        DroneMavlinkSession drone3 = droneControl.connectDroneSession("192.168.1.102", 61475);
         ModbusMaster container3 = droneControl.connectContainer("192.168.1.103", 502);
         
-        // 设置不同的设备参数
-        // 设备1：系统ID=1，从站ID=1
-        droneControl.setMissionCount(drone1, 5, 1, 1, 1, 1);
+        // 设置不同的设备参数；每架无人机一个会话，命令互不阻塞
+        // 设备1：从站ID=1
+        log.info("设备1 航线任务数: {}", droneControl.downloadMission(drone1).get().size());
         droneControl.setContainerAutoMode(container1, 1, 0xBCC, 0xBCD);
         
-        // 设备2：系统ID=2，从站ID=2
-        droneControl.setMissionCount(drone2, 5, 2, 1, 2, 1);
+        // 设备2：从站ID=2
+        log.info("设备2 航线任务数: {}", droneControl.downloadMission(drone2).get().size());
         droneControl.setContainerAutoMode(container2, 2, 0xBCC, 0xBCD);
         
-        // 设备3：系统ID=3，从站ID=3
-        droneControl.setMissionCount(drone3, 5, 3, 1, 3, 1);
+        // 设备3：从站ID=3
+        log.info("设备3 航线任务数: {}", droneControl.downloadMission(drone3).get().size());
         droneControl.setContainerAutoMode(container3, 3, 0xBCC, 0xBCD);
         
         log.info("多设备控制示例完成");
         
-        // 清理连接
-        droneControl.closeConnection(drone1);
-        droneControl.closeConnection(drone2);
-        droneControl.closeConnection(drone3);
+        // 清理无人机柜连接
         droneControl.closeConnection(container1);
         droneControl.closeConnection(container2);
         droneControl.closeConnection(container3);
@@ -114,11 +118,7 @@ public class DroneControlUtilExample {
         String containerHost = "192.168.100.51";
         int containerPort = 502;
         
-        // MAVLink参数
-        int droneSystemId = 5;
-        int droneCompId = 1;
-        int targetSysId = 5;
-        int targetCompId = 1;
+        // MAVLink参数：系统ID、目标ID 通过 drone.mavlink.* 配置
         
         // Modbus参数
         int containerSlaveId = 3;
@@ -128,42 +128,37 @@ public class DroneControlUtilExample {
         int servoAddr = 0xBBB;
         
         // 连接设备
-        Socket droneSocket = droneControl.connectDrone(droneHost, dronePort);
+        DroneMavlinkSession droneSession = droneControl.connectDroneSession(droneHost, dronePort);
         ModbusMaster containerMaster = droneControl.connectContainer(containerHost, containerPort);
         
-        // 设置航线任务（使用自定义参数）
-        droneControl.setMissionCount(droneSocket, 6, droneSystemId, droneCompId, targetSysId, targetCompId);
-        droneControl.setSpeed(droneSocket, 1, 15, droneSystemId, droneCompId, targetSysId, targetCompId);
-        
         // 设置起飞点
         int takeoffLat = DroneControlUtil.degreesToMavlinkInt(28.7904567);
         int takeoffLon = DroneControlUtil.degreesToMavlinkInt(115.3875000);
-        droneControl.setTakeoff(droneSocket, takeoffLat, takeoffLon, 50, 0, 
-                               droneSystemId, droneCompId, targetSysId, targetCompId);
+        List<MissionItemInt> items = new ArrayList<>();
+        items.add(droneControl.buildTakeoffItem(takeoffLat, takeoffLon, 50, 0));
+        items.add(droneControl.buildSpeedItem(1, 15));
         
         // 设置目的地
         int destLat = DroneControlUtil.degreesToMavlinkInt(28.7911779);
         int destLon = DroneControlUtil.degreesToMavlinkInt(115.3857110);
-        droneControl.setLanding(droneSocket, destLat, destLon, 0, 5, true,
-                               droneSystemId, droneCompId, targetSysId, targetCompId);
+        items.add(droneControl.buildLandingItem(destLat, destLon, 0, 2, true));
         
-        // 下载航线
-        droneControl.downloadMission(droneSocket, droneSystemId, droneCompId, targetSysId, targetCompId);
-        droneControl.acknowledgeMission(droneSocket, droneSystemId, droneCompId, targetSysId, targetCompId);
+        // 上传航线
+        MavMissionResult missionResult = droneControl.uploadMission(droneSession, items).get();
+        log.info("航线上传结果: {}", missionResult);
         
         // 无人机柜操作（使用自定义参数）
         droneControl.setContainerAutoMode(containerMaster, containerSlaveId, 0xBCC, 0xBCD);
         droneControl.openDoor(containerMaster, containerSlaveId, doorAddr);
         
         // 解锁并起飞
-        droneControl.armDrone(droneSocket, droneSystemId, droneCompId, targetSysId, targetCompId);
+        log.info("解锁结果: {}", droneControl.armDrone(droneSession).get().result().entry());
         DroneControlUtil.waitFor(5000);
-        droneControl.takeoffNow(droneSocket, 50, droneSystemId, droneCompId, targetSysId, targetCompId);
+        log.info("起飞结果: {}", droneControl.takeoffNow(droneSession, 50).get().result().entry());
         
         log.info("自定义参数配送流程示例启动完成");
         
-        // 清理连接
-        droneControl.closeConnection(droneSocket);
+        // 清理无人机柜连接
         droneControl.closeConnection(containerMaster);
     }
     
@@ -176,7 +171,6 @@ public class DroneControlUtilExample {
         // 准备多个设备的参数
         String[] droneHosts = {"192.168.1.10", "192.168.1.11", "192.168.1.12"};
         String[] containerHosts = {"192.168.1.20", "192.168.1.21", "192.168.1.22"};
-        int[] systemIds = {1, 2, 3};
         int[] slaveIds = {1, 2, 3};
         
         // 并行连接多个设备
@@ -184,16 +178,15 @@ public class DroneControlUtilExample {
             final int index = i;
             new Thread(() -> {
                 try {
-                    Socket drone = droneControl.connectDrone(droneHosts[index], 61473);
+                    DroneMavlinkSession drone = droneControl.connectDroneSession(droneHosts[index], 61473);
                     ModbusMaster container = droneControl.connectContainer(containerHosts[index], 502);
                     
                     // 同时控制多个设备
-                    droneControl.setMissionCount(drone, 5, systemIds[index], 1, systemIds[index], 1);
+                    droneControl.downloadMission(drone).get();
                     droneControl.setContainerAutoMode(container, slaveIds[index], 0xBCC, 0xBCD);
                     
                     log.info("设备 {} 控制完成", index + 1);
                     
-                    droneControl.closeConnection(drone);
                     droneControl.closeConnection(container);
                 } catch (Exception e) {
                     log.error("设备 {} 控制失败: {}", index + 1, e.getMessage());
@@ -218,11 +211,7 @@ public class DroneControlUtilExample {
         String containerHost = "172.22.33.253";
         int containerPort = 502;
         
-        // 自定义MAVLink参数（针对特定无人机）
-        int sysId = 2;  // 无人机系统ID
-        int compId = 1; // 组件ID
-        int targetSys = 2; // 目标系统ID
-        int targetComp = 1; // 目标组件ID
+        // MAVLink参数：系统ID、目标ID 通过 drone.mavlink.* 配置
         
         // 自定义Modbus参数（针对特定货柜）
         int slaveId = 1; // 从站ID
@@ -231,7 +220,7 @@ public class DroneControlUtilExample {
         int storageAddr = 0xBBA; // 存件地址
         int servoAddr = 0xBBB; // 舵机地址
         
-        Socket droneSocket = droneControl.connectDrone(droneHost, dronePort);
+        DroneMavlinkSession droneSession = droneControl.connectDroneSession(droneHost, dronePort);
         ModbusMaster containerMaster = droneControl.connectContainer(containerHost, containerPort);
         
         // 1. 无人机柜准备（使用自定义参数）
@@ -240,32 +229,29 @@ public class DroneControlUtilExample {
         droneControl.checkStorageStatus(containerMaster, slaveId, 0xBBE);
         droneControl.openDoor(containerMaster, slaveId, doorAddr);
         
-        // 2. 无人机航线设置（使用自定义参数）
-        log.info("Step 2: 设置无人机航线（系统ID: {}）", sysId);
-        droneControl.setMissionCount(droneSocket, 6, sysId, compId, targetSys, targetComp);
-        droneControl.setSpeed(droneSocket, 1, 15, sysId, compId, targetSys, targetComp);
-        
+        // 2. 无人机航线设置
+        log.info("Step 2: 设置无人机航线（{}:{}）", droneHost, dronePort);
         int lat = DroneControlUtil.degreesToMavlinkInt(28.7904567);
         int lon = DroneControlUtil.degreesToMavlinkInt(115.3875000);
         
-        droneControl.setTakeoff(droneSocket, lat, lon, 50, 0, sysId, compId, targetSys, targetComp);
-        droneControl.setWaypoint(droneSocket, lat, lon, 100, 2, 0.0f, sysId, compId, targetSys, targetComp);
-        droneControl.setLanding(droneSocket, lat, lon, 0, 4, true, sysId, compId, targetSys, targetComp);
+        List<MissionItemInt> items = new ArrayList<>();
+        items.add(droneControl.buildTakeoffItem(lat, lon, 50, 0));
+        items.add(droneControl.buildSpeedItem(1, 15));
+        items.add(droneControl.buildWaypointItem(lat, lon, 100, 2, 0.0f));
+        items.add(droneControl.buildLandingItem(lat, lon, 0, 3, true));
+        MavMissionResult missionResult = droneControl.uploadMission(droneSession, items).get();
         
         // 3. 下载航线
-        log.info("Step 3: 下载并确认航线");
-        droneControl.downloadMission(droneSocket, sysId, compId, targetSys, targetComp);
-        for (int i = 0; i < 6; i++) {
-            droneControl.requestMissionItem(droneSocket, i, sysId, compId, targetSys, targetComp);
-        }
-        droneControl.acknowledgeMission(droneSocket, sysId, compId, targetSys, targetComp);
+        log.info("Step 3: 下载并确认航线，上传结果: {}", missionResult);
+        List<MissionItemInt> downloaded = droneControl.downloadMission(droneSession).get();
+        log.info("飞控中的航线任务数: {}", downloaded.size());
         
         // 4. 无人机起飞
         log.info("Step 4: 无人机起飞");
-        droneControl.armDrone(droneSocket, sysId, compId, targetSys, targetComp);
+        droneControl.armDrone(droneSession).get();
         DroneControlUtil.waitFor(5000);
-        droneControl.takeoffNow(droneSocket, 50, sysId, compId, targetSys, targetComp);
-        droneControl.setFlightMode(droneSocket, 4, 4, sysId, compId, targetSys, targetComp);
+        droneControl.takeoffNow(droneSession, 50).get();
+        droneControl.setFlightMode(droneSession, 4, 4).get();
         
         // 5. 模拟等待降落
         log.info("Step 5: 等待无人机降落");
@@ -280,20 +266,19 @@ public class DroneControlUtilExample {
         // 7. 机械臂操作
         log.info("Step 7: 机械臂操作");
         droneControl.waitForServoStatus(containerMaster, 1, 30000, slaveId, servoAddr);
-        droneControl.controlServo(droneSocket, DroneControlUtil.SERVO_OPEN, sysId, compId, targetSys, targetComp);
+        droneControl.controlServo(droneSession, DroneControlUtil.SERVO_OPEN).get();
         droneControl.setServoStatus(containerMaster, 10, 11, "开舵机", slaveId, servoAddr);
         
         // 8. 完成操作
         log.info("Step 8: 完成存件并关闭");
         int result = droneControl.waitForStorageComplete(containerMaster, slaveId, storageAddr);
         if (result == 111) {
-            droneControl.controlServo(droneSocket, DroneControlUtil.SERVO_CLOSE, sysId, compId, targetSys, targetComp);
+            droneControl.controlServo(droneSession, DroneControlUtil.SERVO_CLOSE).get();
         }
         droneControl.setServoStatus(containerMaster, 20, 21, "关舵机", slaveId, servoAddr);
         droneControl.closeDoor(containerMaster, slaveId, doorAddr);
         
-        // 清理连接
-        droneControl.closeConnection(droneSocket);
+        // 清理无人机柜连接
         droneControl.closeConnection(containerMaster);
         
         log.info("分步骤操作示例完成");
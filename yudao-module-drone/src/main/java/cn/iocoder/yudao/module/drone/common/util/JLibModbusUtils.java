@@ -32,6 +32,16 @@ public class JLibModbusUtils {
         Modbus.setAutoIncrementTransactionId(true);
     }
 
+    /**
+     * 基于已有的 Modbus 连接创建，例如说 CabinetModbusSessionManager 管理的长连接
+     *
+     * 连接由调用方管理，使用完后不要调用 {@link #close()}
+     */
+    public JLibModbusUtils(ModbusMaster master, int slaveId) {
+        this.master = master;
+        this.slaveId = slaveId;
+    }
+
     private void connect() throws Exception {
         if (!master.isConnected()) {
             master.connect();
@@ -2,10 +2,10 @@ package cn.iocoder.yudao.module.drone.controller.app;
 
 import cn.iocoder.yudao.framework.common.pojo.CommonResult;
 import cn.iocoder.yudao.framework.common.util.object.BeanUtils;
-import cn.iocoder.yudao.module.drone.common.util.JLibModbusUtils;
 import cn.iocoder.yudao.module.drone.controller.admin.vo.ModbusRequest;
 import cn.iocoder.yudao.module.drone.controller.app.vo.AppDroneRespVO;
 import cn.iocoder.yudao.module.drone.dal.dataobject.droneComm.dronesDO;
+import cn.iocoder.yudao.module.drone.service.cabinet.CabinetControlService;
 import cn.iocoder.yudao.module.drone.service.droneComm.dronesService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,6 +14,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.annotation.Resource;
+import java.util.concurrent.CompletableFuture;
 
 import static cn.iocoder.yudao.framework.common.pojo.CommonResult.success;
 
@@ -25,44 +26,41 @@ public class AppDroneController {
 
     @Resource
     private dronesService dronesService;
+    @Resource
+    private CabinetControlService cabinetControlService;
 
     @PostMapping("/package/can-store")
     @Operation(summary = "检查是否可以存件")
-    public CommonResult<Boolean> canStorePackage(@Validated @RequestBody ModbusRequest request) throws Exception {
-        JLibModbusUtils modbusUtils = new JLibModbusUtils(request.getIp(), request.getPort(), request.getSlaveId());
-        return success(modbusUtils.canStorePackage());
+    public CompletableFuture<CommonResult<Boolean>> canStorePackage(@Validated @RequestBody ModbusRequest request) {
+        return cabinetControlService.canStorePackage(request).thenApply(CommonResult::success);
     }
 
     @PostMapping("/package/user-pickup-by-box")
     @Operation(summary = "用户取件（格口号方式）")
-    public CommonResult<Boolean> userPickupByBox(
+    public CompletableFuture<CommonResult<Boolean>> userPickupByBox(
             @Validated @RequestBody ModbusRequest request,
-            @RequestParam("boxNo") @Parameter(description = "格口号") Integer boxNo) throws Exception {
-        JLibModbusUtils modbusUtils = new JLibModbusUtils(request.getIp(), request.getPort(), request.getSlaveId());
-        return success(modbusUtils.userPickupByBox(boxNo) == JLibModbusUtils.ResultCode.SUCCESS);
+            @RequestParam("boxNo") @Parameter(description = "格口号") Integer boxNo) {
+        return cabinetControlService.userPickupByBox(request, boxNo).thenApply(CommonResult::success);
     }
 
     @PostMapping("/package/user-pickup-by-code")
     @Operation(summary = "用户取件（取件码方式）")
-    public CommonResult<Boolean> userPickupByCode(
+    public CompletableFuture<CommonResult<Boolean>> userPickupByCode(
             @Validated @RequestBody ModbusRequest request,
-            @RequestParam("code") @Parameter(description = "取件码") Integer code) throws Exception {
-        JLibModbusUtils modbusUtils = new JLibModbusUtils(request.getIp(), request.getPort(), request.getSlaveId());
-        return success(modbusUtils.userPickupByCode(code) == JLibModbusUtils.ResultCode.SUCCESS);
+            @RequestParam("code") @Parameter(description = "取件码") Integer code) {
+        return cabinetControlService.userPickupByCode(request, code).thenApply(CommonResult::success);
     }
 
     @PostMapping("/package/user-pickup-empty")
     @Operation(summary = "用户取空包裹")
-    public CommonResult<Boolean> userPickupEmptyBox(@Validated @RequestBody ModbusRequest request) throws Exception {
-        JLibModbusUtils modbusUtils = new JLibModbusUtils(request.getIp(), request.getPort(), request.getSlaveId());
-        return success(modbusUtils.userPickupEmptyBox() == JLibModbusUtils.ResultCode.SUCCESS);
+    public CompletableFuture<CommonResult<Boolean>> userPickupEmptyBox(@Validated @RequestBody ModbusRequest request) {
+        return cabinetControlService.userPickupEmptyBox(request).thenApply(CommonResult::success);
     }
 
     @PostMapping("/package/can-deposit")
     @Operation(summary = "检查是否可以寄件")
-    public CommonResult<Boolean> canDeposit(@Validated @RequestBody ModbusRequest request) throws Exception {
-        JLibModbusUtils modbusUtils = new JLibModbusUtils(request.getIp(), request.getPort(), request.getSlaveId());
-        return success(modbusUtils.canDeposit());
+    public CompletableFuture<CommonResult<Boolean>> canDeposit(@Validated @RequestBody ModbusRequest request) {
+        return cabinetControlService.canDeposit(request).thenApply(CommonResult::success);
     }
 
     @GetMapping("/get-by-order")
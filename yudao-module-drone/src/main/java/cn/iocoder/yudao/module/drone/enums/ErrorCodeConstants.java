@@ -12,5 +12,16 @@ public interface ErrorCodeConstants {
     // ========== 无人机柜 1-060-001-000 ==========
     ErrorCode CABINET_NOT_EXISTS = new ErrorCode(1_060_001_000, "无人机柜不存在");
     ErrorCode CABINET_CODE_DUPLICATE = new ErrorCode(1_060_001_001, "柜子编号已存在");
+    ErrorCode CABINET_MODBUS_OFFLINE = new ErrorCode(1_060_001_002, "无人机柜({}:{})连接失败，请稍后重试");
+    ErrorCode CABINET_MODBUS_BUSY = new ErrorCode(1_060_001_003, "无人机柜({}:{})正在执行其他操作，请稍后重试");
+    ErrorCode CABINET_MODBUS_WATCH_TIMEOUT = new ErrorCode(1_060_001_004, "无人机柜({}:{})等待寄存器({})的状态超时，最后的状态为({})");
+    ErrorCode CABINET_MODBUS_WATCH_UNEXPECTED = new ErrorCode(1_060_001_005, "无人机柜({}:{})寄存器({})的状态({})异常");
+
+    // ========== 无人机 1-060-002-000 ==========
     ErrorCode DRONES_NOT_EXISTS = new ErrorCode(1_060_002_000, "无人机不存在");
+    ErrorCode DRONE_MAVLINK_OFFLINE = new ErrorCode(1_060_002_001, "无人机({}:{})连接失败，请稍后重试");
+    ErrorCode DRONE_MAVLINK_BUSY = new ErrorCode(1_060_002_002, "无人机({}:{})正在执行({})，请稍后重试");
+    ErrorCode DRONE_MAVLINK_COMMAND_TIMEOUT = new ErrorCode(1_060_002_003, "无人机({}:{})未响应命令({})");
+    ErrorCode DRONE_MAVLINK_MISSION_TIMEOUT = new ErrorCode(1_060_002_004, "无人机({}:{})上传航线超时，已上传 {}/{} 个航点");
+    ErrorCode DRONE_MAVLINK_MISSION_DOWNLOAD_TIMEOUT = new ErrorCode(1_060_002_005, "无人机({}:{})下载航线超时，已下载 {}/{} 个航点");
 } 
\ No newline at end of file
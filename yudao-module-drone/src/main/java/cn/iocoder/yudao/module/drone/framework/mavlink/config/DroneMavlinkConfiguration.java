@@ -0,0 +1,27 @@
+package cn.iocoder.yudao.module.drone.framework.mavlink.config;
+
+import cn.iocoder.yudao.module.drone.framework.mavlink.core.DroneMavlinkSessionManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 无人机 MAVLink 连接的配置类
+ *
+ * @author 芋道源码
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(DroneMavlinkProperties.class)
+public class DroneMavlinkConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public DroneMavlinkSessionManager droneMavlinkSessionManager(DroneMavlinkProperties properties,
+                                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        DroneMavlinkSessionManager sessionManager = new DroneMavlinkSessionManager(properties);
+        meterRegistry.ifAvailable(sessionManager::bindTo);
+        return sessionManager;
+    }
+
+}
@@ -0,0 +1,86 @@
+package cn.iocoder.yudao.module.drone.framework.mavlink.config;
+
+import cn.iocoder.yudao.module.drone.common.util.DroneControlUtil;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * 无人机 MAVLink 连接的配置项
+ *
+ * @author 芋道源码
+ */
+@ConfigurationProperties(prefix = "drone.mavlink")
+@Validated
+@Data
+public class DroneMavlinkProperties {
+
+    /**
+     * 本端（地面站）的系统 ID
+     */
+    @NotNull(message = "系统 ID 不能为空")
+    private Integer systemId = DroneControlUtil.DEFAULT_MAVLINK_SYSTEM_ID;
+    /**
+     * 本端（地面站）的组件 ID
+     */
+    @NotNull(message = "组件 ID 不能为空")
+    private Integer componentId = DroneControlUtil.DEFAULT_MAVLINK_COMPONENT_ID;
+    /**
+     * 无人机的系统 ID：只处理该系统发出的消息，命令也发往该系统
+     */
+    @NotNull(message = "目标系统 ID 不能为空")
+    private Integer targetSystem = DroneControlUtil.DEFAULT_TARGET_SYSTEM;
+    /**
+     * 无人机的组件 ID
+     */
+    @NotNull(message = "目标组件 ID 不能为空")
+    private Integer targetComponent = DroneControlUtil.DEFAULT_TARGET_COMPONENT;
+
+    /**
+     * 建立连接的超时时长
+     */
+    @NotNull(message = "连接超时时长不能为空")
+    private Duration connectTimeout = Duration.ofSeconds(5L);
+    /**
+     * 链路超时时长：超过该时长没有收到任何消息，视为连接断开
+     */
+    @NotNull(message = "链路超时时长不能为空")
+    private Duration linkTimeout = Duration.ofSeconds(5L);
+    /**
+     * 连接失败后的重连间隔；在此期间，命令直接返回无人机离线，由后台线程负责重连
+     */
+    @NotNull(message = "重连间隔不能为空")
+    private Duration reconnectInterval = Duration.ofSeconds(5L);
+    /**
+     * 地面站心跳的发送间隔，飞控依赖该心跳判断地面站是否在线
+     */
+    @NotNull(message = "心跳间隔不能为空")
+    private Duration heartbeatInterval = Duration.ofSeconds(1L);
+    /**
+     * 空闲时长：超过该时长没有命令的无人机，关闭其连接
+     */
+    @NotNull(message = "空闲时长不能为空")
+    private Duration idleTimeout = Duration.ofHours(1L);
+
+    /**
+     * 等待命令 COMMAND_ACK 的超时时长，超时后重发
+     */
+    @NotNull(message = "命令超时时长不能为空")
+    private Duration commandTimeout = Duration.ofSeconds(2L);
+    /**
+     * 命令超时后的重发次数
+     */
+    @NotNull(message = "命令重发次数不能为空")
+    @Min(value = 0, message = "命令重发次数不能小于 0")
+    private Integer commandRetries = 2;
+    /**
+     * 上传航线时，超过该时长没有进展（飞控未请求航点、未返回结果），视为超时
+     */
+    @NotNull(message = "航线上传超时时长不能为空")
+    private Duration missionTimeout = Duration.ofSeconds(5L);
+
+}
@@ -0,0 +1,785 @@
+package cn.iocoder.yudao.module.drone.framework.mavlink.core;
+
+import cn.hutool.core.io.IoUtil;
+import cn.iocoder.yudao.framework.common.exception.ServiceException;
+import cn.iocoder.yudao.module.drone.framework.mavlink.config.DroneMavlinkProperties;
+import io.dronefleet.mavlink.MavlinkConnection;
+import io.dronefleet.mavlink.util.EnumValue;
+import io.dronefleet.mavlink.MavlinkMessage;
+import io.dronefleet.mavlink.common.*;
+import io.micrometer.core.instrument.*;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
+import static cn.iocoder.yudao.module.drone.enums.ErrorCodeConstants.*;
+
+/**
+ * 无人机的 MAVLink 会话：一架无人机（IP + 端口）对应一个长连接
+ *
+ * 1. 遥测：每个连接一个读线程，持续读取飞控的消息，将心跳、位置、电池等更新到 {@link #getTelemetry()} 快照
+ * 2. 命令：{@link #sendCommand(CommandLong)} 发送后立即返回，读线程收到 COMMAND_ACK 后，按照命令编号完成对应的 {@link CompletableFuture}；
+ *    超时未响应时，按照 MAVLink 的约定递增 confirmation 重发
+ * 3. 航线：{@link #uploadMission(List)} 一次性发送 MISSION_COUNT 和全部航点，不再每个航点等待一次往返；
+ *    飞控重复请求某个航点时（说明之前的丢失了），再补发该航点。{@link #downloadMission()} 按照协议逐个请求航点，超时重发请求
+ * 4. 快速失败：连接失败后，{@link DroneMavlinkProperties#getReconnectInterval()} 内的命令直接返回离线，由后台线程负责重连
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class DroneMavlinkSession {
+
+    @Getter
+    private final String host;
+    @Getter
+    private final int port;
+    private final DroneMavlinkProperties properties;
+    /**
+     * 命令、航线传输的超时调度，由 {@link DroneMavlinkSessionManager} 共享
+     */
+    private final ScheduledExecutorService timeoutExecutor;
+
+    private final ReentrantLock connectLock = new ReentrantLock();
+    /**
+     * 写入锁，保证多条消息（例如说航线的 MISSION_COUNT + 航点）连续写入，不与其它命令交错
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    /**
+     * 当前连接，由 {@link #connectLock} 保护；为空表示未连接
+     */
+    private volatile Link link;
+    /**
+     * 下次允许建立连接的时间（毫秒）
+     */
+    private volatile long nextConnectTime;
+    /**
+     * 最近一次命令的时间（毫秒），用于判断是否空闲
+     */
+    @Getter
+    private volatile long lastAccessTime = System.currentTimeMillis();
+    /**
+     * 是否已关闭，关闭后不再建立连接
+     */
+    private volatile boolean closed;
+
+    /**
+     * 最新的遥测快照，只由读线程更新
+     */
+    @Getter
+    private volatile DroneTelemetry telemetry = new DroneTelemetry();
+    /**
+     * 等待 COMMAND_ACK 的命令
+     *
+     * KEY：命令编号 {@link MavCmd}；COMMAND_ACK 只携带命令编号，所以同一种命令同时只能有一个在等待
+     */
+    private final Map<Integer, PendingCommand> pendingCommands = new ConcurrentHashMap<>();
+    /**
+     * 传输中的航线，为 {@link MissionUpload} 或 {@link MissionDownload}；MAVLink 的航线协议同时只能有一个传输
+     */
+    private final AtomicReference<Object> missionTransfer = new AtomicReference<>();
+
+    private final AtomicLong connectFailedCount = new AtomicLong();
+    private final AtomicLong commandTimeoutCount = new AtomicLong();
+    /**
+     * 命令从发送到 COMMAND_ACK 的耗时，为空时不统计
+     */
+    private Timer acceptedTimer;
+    private Timer rejectedTimer;
+    private final List<Meter> meters = new ArrayList<>();
+
+    public DroneMavlinkSession(String host, int port, DroneMavlinkProperties properties,
+                               ScheduledExecutorService timeoutExecutor) {
+        this.host = host;
+        this.port = port;
+        this.properties = properties;
+        this.timeoutExecutor = timeoutExecutor;
+    }
+
+    // ========== 命令 ==========
+
+    /**
+     * 发送 COMMAND_LONG 命令，目标为 {@link DroneMavlinkProperties#getTargetSystem()}，未传的参数为 0
+     *
+     * @param command 命令
+     * @param params 参数 param1 ~ param7
+     * @return 飞控的 COMMAND_ACK；无人机离线、同一命令正在等待、超时未响应时，以 {@link ServiceException} 结束
+     */
+    public CompletableFuture<CommandAck> sendCommand(MavCmd command, float... params) {
+        float[] values = new float[7];
+        System.arraycopy(params, 0, values, 0, Math.min(params.length, values.length));
+        return sendCommand(CommandLong.builder()
+                .targetSystem(properties.getTargetSystem())
+                .targetComponent(properties.getTargetComponent())
+                .command(command)
+                .confirmation(0)
+                .param1(values[0]).param2(values[1]).param3(values[2]).param4(values[3])
+                .param5(values[4]).param6(values[5]).param7(values[6])
+                .build());
+    }
+
+    /**
+     * 发送 COMMAND_LONG 命令
+     *
+     * @param command 命令
+     * @return 飞控的 COMMAND_ACK；无人机离线、同一命令正在等待、超时未响应时，以 {@link ServiceException} 结束
+     */
+    public CompletableFuture<CommandAck> sendCommand(CommandLong command) {
+        lastAccessTime = System.currentTimeMillis();
+        PendingCommand pending = new PendingCommand(command);
+        if (pendingCommands.putIfAbsent(pending.key, pending) != null) {
+            pending.future.completeExceptionally(exception(DRONE_MAVLINK_BUSY, host, port, command.command().entry()));
+            return pending.future;
+        }
+        pending.future.whenComplete((ack, ex) -> pendingCommands.remove(pending.key, pending));
+        pending.send();
+        return pending.future;
+    }
+
+    private void handleCommandAck(CommandAck ack) {
+        PendingCommand pending = pendingCommands.get(ack.command().value());
+        if (pending == null) {
+            return;
+        }
+        // 执行中：飞控已收到，延长等待时间，不再重发
+        if (ack.result().entry() == MavResult.MAV_RESULT_IN_PROGRESS) {
+            pending.scheduleTimeout();
+            return;
+        }
+        Timer timer = ack.result().entry() == MavResult.MAV_RESULT_ACCEPTED ? acceptedTimer : rejectedTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - pending.startTime, TimeUnit.NANOSECONDS);
+        }
+        pending.future.complete(ack);
+    }
+
+    private class PendingCommand {
+
+        private final CommandLong command;
+        private final int key;
+        private final CompletableFuture<CommandAck> future = new CompletableFuture<>();
+        private final long startTime = System.nanoTime();
+
+        /**
+         * 已发送的次数
+         */
+        private int attempts;
+        private volatile ScheduledFuture<?> timeout;
+
+        private PendingCommand(CommandLong command) {
+            this.command = command;
+            this.key = command.command().value();
+            future.whenComplete((ack, ex) -> {
+                ScheduledFuture<?> timeout = this.timeout;
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+            });
+        }
+
+        /**
+         * 发送（重发时递增 confirmation），并开始等待 COMMAND_ACK
+         */
+        private void send() {
+            try {
+                DroneMavlinkSession.this.send(attempts == 0 ? command : withConfirmation(command, attempts));
+                attempts++;
+                scheduleTimeout();
+            } catch (ServiceException ex) {
+                future.completeExceptionally(ex);
+            }
+        }
+
+        private void scheduleTimeout() {
+            ScheduledFuture<?> timeout = this.timeout;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            try {
+                this.timeout = timeoutExecutor.schedule(this::onTimeout,
+                        properties.getCommandTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ex) {
+                future.completeExceptionally(ex);
+            }
+        }
+
+        private void onTimeout() {
+            if (future.isDone()) {
+                return;
+            }
+            if (attempts <= properties.getCommandRetries()) {
+                log.warn("[onTimeout][无人机({}:{}) 命令({}) 未响应，第 {} 次重发]", host, port, command.command().entry(), attempts);
+                send();
+                return;
+            }
+            commandTimeoutCount.incrementAndGet();
+            future.completeExceptionally(exception(DRONE_MAVLINK_COMMAND_TIMEOUT, host, port, command.command().entry()));
+        }
+
+    }
+
+    /**
+     * 发送不需要响应的消息，例如说 SET_HOME_POSITION
+     *
+     * @param payload 消息
+     * @throws ServiceException 无人机离线
+     */
+    public void sendMessage(Object payload) {
+        lastAccessTime = System.currentTimeMillis();
+        send(payload);
+    }
+
+    private static CommandLong withConfirmation(CommandLong command, int confirmation) {
+        return CommandLong.builder()
+                .targetSystem(command.targetSystem())
+                .targetComponent(command.targetComponent())
+                .command(command.command())
+                .confirmation(confirmation)
+                .param1(command.param1()).param2(command.param2()).param3(command.param3()).param4(command.param4())
+                .param5(command.param5()).param6(command.param6()).param7(command.param7())
+                .build();
+    }
+
+    // ========== 航线 ==========
+
+    /**
+     * 上传航线
+     *
+     * @param items 航点，seq 需要从 0 开始连续编号，targetSystem、targetComponent 需要与 {@link DroneMavlinkProperties} 一致
+     * @return 飞控的 MISSION_ACK 结果；无人机离线、正在上传其它航线、超时时，以 {@link ServiceException} 结束
+     */
+    public CompletableFuture<MavMissionResult> uploadMission(List<MissionItemInt> items) {
+        lastAccessTime = System.currentTimeMillis();
+        MissionUpload upload = new MissionUpload(items);
+        if (!missionTransfer.compareAndSet(null, upload)) {
+            upload.future.completeExceptionally(exception(DRONE_MAVLINK_BUSY, host, port, "航线传输"));
+            return upload.future;
+        }
+        upload.future.whenComplete((result, ex) -> missionTransfer.compareAndSet(upload, null));
+        upload.start();
+        return upload.future;
+    }
+
+    /**
+     * 下载航线
+     *
+     * @return 飞控当前的航点，按照 seq 排序；无人机离线、正在传输其它航线、超时时，以 {@link ServiceException} 结束
+     */
+    public CompletableFuture<List<MissionItemInt>> downloadMission() {
+        lastAccessTime = System.currentTimeMillis();
+        MissionDownload download = new MissionDownload();
+        if (!missionTransfer.compareAndSet(null, download)) {
+            download.future.completeExceptionally(exception(DRONE_MAVLINK_BUSY, host, port, "航线传输"));
+            return download.future;
+        }
+        download.future.whenComplete((result, ex) -> missionTransfer.compareAndSet(download, null));
+        download.start();
+        return download.future;
+    }
+
+    private void handleMissionRequest(int seq) {
+        Object transfer = missionTransfer.get();
+        if (transfer instanceof MissionUpload) {
+            ((MissionUpload) transfer).onRequest(seq);
+        }
+    }
+
+    private void handleMissionCount(MissionCount count) {
+        Object transfer = missionTransfer.get();
+        if (transfer instanceof MissionDownload && isMission(count.missionType())) {
+            ((MissionDownload) transfer).onCount(count.count());
+        }
+    }
+
+    private void handleMissionItem(MissionItemInt item) {
+        Object transfer = missionTransfer.get();
+        if (transfer instanceof MissionDownload && isMission(item.missionType())) {
+            ((MissionDownload) transfer).onItem(item);
+        }
+    }
+
+    private void handleMissionAck(MissionAck ack) {
+        Object transfer = missionTransfer.get();
+        if (!(transfer instanceof MissionUpload)) {
+            return;
+        }
+        MissionUpload upload = (MissionUpload) transfer;
+        if (!isMission(ack.missionType())) {
+            return;
+        }
+        // 航点乱序：飞控会继续请求正确的航点，不结束上传
+        if (ack.type().entry() == MavMissionResult.MAV_MISSION_INVALID_SEQUENCE) {
+            return;
+        }
+        upload.future.complete(ack.type().entry());
+    }
+
+    private class MissionUpload {
+
+        private final List<MissionItemInt> items;
+        private final CompletableFuture<MavMissionResult> future = new CompletableFuture<>();
+
+        /**
+         * 飞控已请求的最大航点序号；小于等于该序号的请求，说明之前发送的航点丢失，需要补发
+         */
+        private int highestRequested = -1;
+        private volatile ScheduledFuture<?> timeout;
+
+        private MissionUpload(List<MissionItemInt> items) {
+            this.items = items;
+            future.whenComplete((result, ex) -> {
+                ScheduledFuture<?> timeout = this.timeout;
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+            });
+        }
+
+        private void start() {
+            List<Object> payloads = new ArrayList<>(items.size() + 1);
+            payloads.add(MissionCount.builder()
+                    .targetSystem(properties.getTargetSystem())
+                    .targetComponent(properties.getTargetComponent())
+                    .count(items.size())
+                    .missionType(MavMissionType.MAV_MISSION_TYPE_MISSION)
+                    .build());
+            payloads.addAll(items);
+            try {
+                send(payloads.toArray());
+                scheduleTimeout();
+            } catch (ServiceException ex) {
+                future.completeExceptionally(ex);
+            }
+        }
+
+        private synchronized void onRequest(int seq) {
+            if (future.isDone() || seq < 0 || seq >= items.size()) {
+                return;
+            }
+            scheduleTimeout();
+            if (seq > highestRequested) {
+                highestRequested = seq;
+                return;
+            }
+            log.warn("[onRequest][无人机({}:{}) 重新请求航点({})，补发]", host, port, seq);
+            try {
+                send(items.get(seq));
+            } catch (ServiceException ex) {
+                future.completeExceptionally(ex);
+            }
+        }
+
+        private void scheduleTimeout() {
+            ScheduledFuture<?> timeout = this.timeout;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            try {
+                this.timeout = timeoutExecutor.schedule(() -> future.completeExceptionally(exception(
+                        DRONE_MAVLINK_MISSION_TIMEOUT, host, port, highestRequested + 1, items.size())),
+                        properties.getMissionTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ex) {
+                future.completeExceptionally(ex);
+            }
+        }
+
+    }
+
+    /**
+     * 是否为航点类型；未携带类型（MAVLink 1）时，视为航点
+     */
+    private static boolean isMission(EnumValue<MavMissionType> missionType) {
+        return missionType == null || missionType.entry() == null
+                || missionType.entry() == MavMissionType.MAV_MISSION_TYPE_MISSION;
+    }
+
+    private class MissionDownload {
+
+        private final CompletableFuture<List<MissionItemInt>> future = new CompletableFuture<>();
+
+        /**
+         * 飞控的航点，收到 MISSION_COUNT 之前为空
+         */
+        private MissionItemInt[] items;
+        /**
+         * 下一个请求的航点序号
+         */
+        private int next;
+        /**
+         * 当前请求已发送的次数
+         */
+        private int attempts;
+        private volatile ScheduledFuture<?> timeout;
+
+        private MissionDownload() {
+            future.whenComplete((result, ex) -> {
+                ScheduledFuture<?> timeout = this.timeout;
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+            });
+        }
+
+        private synchronized void start() {
+            request();
+        }
+
+        private synchronized void onCount(int count) {
+            // 重发 MISSION_REQUEST_LIST 导致的重复 MISSION_COUNT，忽略
+            if (future.isDone() || items != null) {
+                return;
+            }
+            items = new MissionItemInt[count];
+            attempts = 0;
+            next();
+        }
+
+        private synchronized void onItem(MissionItemInt item) {
+            if (future.isDone() || items == null || item.seq() != next) {
+                return;
+            }
+            items[next++] = item;
+            attempts = 0;
+            next();
+        }
+
+        /**
+         * 请求下一个航点；已全部收到时，回复 MISSION_ACK 结束下载
+         */
+        private void next() {
+            if (next < items.length) {
+                request();
+                return;
+            }
+            try {
+                send(MissionAck.builder()
+                        .targetSystem(properties.getTargetSystem())
+                        .targetComponent(properties.getTargetComponent())
+                        .type(MavMissionResult.MAV_MISSION_ACCEPTED)
+                        .missionType(MavMissionType.MAV_MISSION_TYPE_MISSION)
+                        .build());
+            } catch (ServiceException ex) {
+                log.warn("[next][无人机({}:{}) 航线下载完成，但回复 MISSION_ACK 失败]", host, port);
+            }
+            future.complete(Arrays.asList(items));
+        }
+
+        /**
+         * 发送当前的请求：未收到 MISSION_COUNT 时为 MISSION_REQUEST_LIST，否则为 MISSION_REQUEST_INT
+         */
+        private void request() {
+            Object request = items == null
+                    ? MissionRequestList.builder()
+                        .targetSystem(properties.getTargetSystem())
+                        .targetComponent(properties.getTargetComponent())
+                        .missionType(MavMissionType.MAV_MISSION_TYPE_MISSION)
+                        .build()
+                    : MissionRequestInt.builder()
+                        .targetSystem(properties.getTargetSystem())
+                        .targetComponent(properties.getTargetComponent())
+                        .seq(next)
+                        .missionType(MavMissionType.MAV_MISSION_TYPE_MISSION)
+                        .build();
+            try {
+                send(request);
+                attempts++;
+                scheduleTimeout();
+            } catch (ServiceException ex) {
+                future.completeExceptionally(ex);
+            }
+        }
+
+        private void scheduleTimeout() {
+            ScheduledFuture<?> timeout = this.timeout;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            try {
+                this.timeout = timeoutExecutor.schedule(this::onTimeout,
+                        properties.getCommandTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ex) {
+                future.completeExceptionally(ex);
+            }
+        }
+
+        private synchronized void onTimeout() {
+            if (future.isDone()) {
+                return;
+            }
+            if (attempts <= properties.getCommandRetries()) {
+                log.warn("[onTimeout][无人机({}:{}) 航线下载未响应，第 {} 次重发请求]", host, port, attempts);
+                request();
+                return;
+            }
+            future.completeExceptionally(exception(DRONE_MAVLINK_MISSION_DOWNLOAD_TIMEOUT, host, port,
+                    next, items != null ? items.length : 0));
+        }
+
+    }
+
+    // ========== 连接 ==========
+
+    /**
+     * 发送地面站心跳；未连接时，到达重连时间后重连
+     *
+     * 由 {@link DroneMavlinkSessionManager} 每隔 {@link DroneMavlinkProperties#getHeartbeatInterval()} 调用
+     */
+    public void heartbeat() {
+        if (link == null && (closed || System.currentTimeMillis() < nextConnectTime)) {
+            return;
+        }
+        try {
+            send(Heartbeat.builder()
+                    .type(MavType.MAV_TYPE_GCS)
+                    .autopilot(MavAutopilot.MAV_AUTOPILOT_INVALID)
+                    .systemStatus(MavState.MAV_STATE_ACTIVE)
+                    .mavlinkVersion(3)
+                    .build());
+        } catch (ServiceException ignored) {
+            // 连接失败已记录日志，等待下次重连
+        }
+    }
+
+    /**
+     * 连续写入多条消息
+     *
+     * @param payloads 消息
+     * @throws ServiceException 无人机离线
+     */
+    private void send(Object... payloads) {
+        writeLock.lock();
+        try {
+            Link link = getLink();
+            try {
+                for (Object payload : payloads) {
+                    link.connection.send2(properties.getSystemId(), properties.getComponentId(), payload);
+                }
+                link.out.flush();
+            } catch (IOException ex) {
+                log.warn("[send][无人机({}:{}) 发送失败，断开连接]", host, port, ex);
+                disconnect(link);
+                throw exception(DRONE_MAVLINK_OFFLINE, host, port);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 获得当前连接，未连接时建立连接；只尝试一次，失败后等待 {@link DroneMavlinkProperties#getReconnectInterval()} 再重试
+     */
+    private Link getLink() {
+        Link link = this.link;
+        if (link != null) {
+            return link;
+        }
+        connectLock.lock();
+        try {
+            if (this.link != null) {
+                return this.link;
+            }
+            if (closed || System.currentTimeMillis() < nextConnectTime) {
+                throw exception(DRONE_MAVLINK_OFFLINE, host, port);
+            }
+            Socket socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(host, port), (int) properties.getConnectTimeout().toMillis());
+                socket.setSoTimeout((int) properties.getLinkTimeout().toMillis());
+                socket.setTcpNoDelay(true);
+                OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+                link = new Link(socket, out, MavlinkConnection.create(
+                        new BufferedInputStream(socket.getInputStream()), out));
+            } catch (IOException ex) {
+                IoUtil.close(socket);
+                nextConnectTime = System.currentTimeMillis() + properties.getReconnectInterval().toMillis();
+                connectFailedCount.incrementAndGet();
+                log.warn("[getLink][无人机({}:{}) 连接失败({})，{} 毫秒后重试]", host, port, ex.getMessage(),
+                        properties.getReconnectInterval().toMillis());
+                throw exception(DRONE_MAVLINK_OFFLINE, host, port);
+            }
+            nextConnectTime = 0L;
+            this.link = link;
+            Link newLink = link;
+            Thread reader = new Thread(() -> read(newLink), "drone-mavlink-reader-" + host + ":" + port);
+            reader.setDaemon(true);
+            reader.start();
+            log.info("[getLink][无人机({}:{}) 连接成功]", host, port);
+            return link;
+        } finally {
+            connectLock.unlock();
+        }
+    }
+
+    /**
+     * 读线程：持续读取消息，直到连接断开
+     */
+    private void read(Link link) {
+        try {
+            MavlinkMessage<?> message;
+            while ((message = link.connection.next()) != null) {
+                if (message.getOriginSystemId() != properties.getTargetSystem()) {
+                    continue;
+                }
+                try {
+                    handleMessage(message.getPayload());
+                } catch (Exception ex) {
+                    log.error("[read][无人机({}:{}) 处理消息({})异常]", host, port, message, ex);
+                }
+            }
+            log.warn("[read][无人机({}:{}) 连接被关闭]", host, port);
+        } catch (IOException ex) {
+            if (this.link == link) {
+                log.warn("[read][无人机({}:{}) 读取异常({})，断开连接]", host, port, ex.getMessage());
+            }
+        } finally {
+            disconnect(link);
+        }
+    }
+
+    private void handleMessage(Object payload) {
+        if (payload instanceof Heartbeat) {
+            Heartbeat heartbeat = (Heartbeat) payload;
+            telemetry = telemetry.toBuilder().heartbeatTime(LocalDateTime.now())
+                    .type(heartbeat.type().value()).autopilot(heartbeat.autopilot().value())
+                    .baseMode(heartbeat.baseMode().value()).customMode(heartbeat.customMode())
+                    .systemStatus(heartbeat.systemStatus().value())
+                    .armed(heartbeat.baseMode().flagsEnabled(MavModeFlag.MAV_MODE_FLAG_SAFETY_ARMED))
+                    .build();
+        } else if (payload instanceof GlobalPositionInt) {
+            GlobalPositionInt position = (GlobalPositionInt) payload;
+            telemetry = telemetry.toBuilder().positionTime(LocalDateTime.now())
+                    .latitude(position.lat()).longitude(position.lon())
+                    .altitude(position.alt()).relativeAltitude(position.relativeAlt())
+                    .vx(position.vx()).vy(position.vy()).vz(position.vz()).heading(position.hdg())
+                    .build();
+        } else if (payload instanceof SysStatus) {
+            SysStatus status = (SysStatus) payload;
+            telemetry = telemetry.toBuilder().batteryVoltage(status.voltageBattery())
+                    .batteryRemaining(status.batteryRemaining()).build();
+        } else if (payload instanceof GpsRawInt) {
+            GpsRawInt gps = (GpsRawInt) payload;
+            telemetry = telemetry.toBuilder().gpsFixType(gps.fixType().value())
+                    .satellitesVisible(gps.satellitesVisible()).build();
+        } else if (payload instanceof CommandAck) {
+            handleCommandAck((CommandAck) payload);
+        } else if (payload instanceof MissionRequestInt) {
+            handleMissionRequest(((MissionRequestInt) payload).seq());
+        } else if (payload instanceof MissionRequest) {
+            handleMissionRequest(((MissionRequest) payload).seq());
+        } else if (payload instanceof MissionAck) {
+            handleMissionAck((MissionAck) payload);
+        } else if (payload instanceof MissionCount) {
+            handleMissionCount((MissionCount) payload);
+        } else if (payload instanceof MissionItemInt) {
+            handleMissionItem((MissionItemInt) payload);
+        }
+    }
+
+    /**
+     * 断开连接，并结束等待中的命令、航线传输
+     */
+    private void disconnect(Link link) {
+        connectLock.lock();
+        try {
+            if (this.link != link) {
+                return;
+            }
+            this.link = null;
+        } finally {
+            connectLock.unlock();
+        }
+        IoUtil.close(link.socket);
+        ServiceException ex = exception(DRONE_MAVLINK_OFFLINE, host, port);
+        pendingCommands.values().forEach(pending -> pending.future.completeExceptionally(ex));
+        Object transfer = missionTransfer.get();
+        if (transfer instanceof MissionUpload) {
+            ((MissionUpload) transfer).future.completeExceptionally(ex);
+        } else if (transfer instanceof MissionDownload) {
+            ((MissionDownload) transfer).future.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * 是否已连接
+     */
+    public boolean isConnected() {
+        return link != null;
+    }
+
+    /**
+     * 关闭会话
+     */
+    public void close() {
+        closed = true;
+        Link link = this.link;
+        if (link != null) {
+            disconnect(link);
+        }
+    }
+
+    /**
+     * 注册监控指标，指标名为 drone.mavlink.*，通过 drone 标签区分不同的无人机
+     *
+     * @param registry MeterRegistry
+     */
+    public void bindTo(MeterRegistry registry) {
+        Tags tags = Tags.of("drone", host + ":" + port);
+        acceptedTimer = Timer.builder("drone.mavlink.command").tags(tags).tag("result", "accepted")
+                .description("命令从发送到收到 COMMAND_ACK 的耗时").register(registry);
+        rejectedTimer = Timer.builder("drone.mavlink.command").tags(tags).tag("result", "rejected")
+                .description("命令从发送到收到 COMMAND_ACK 的耗时").register(registry);
+        meters.add(acceptedTimer);
+        meters.add(rejectedTimer);
+        meters.add(Gauge.builder("drone.mavlink.connected", this, session -> session.isConnected() ? 1 : 0)
+                .tags(tags).description("是否已连接").register(registry));
+        meters.add(Gauge.builder("drone.mavlink.pending-commands", pendingCommands, Map::size)
+                .tags(tags).description("等待 COMMAND_ACK 的命令数量").register(registry));
+        meters.add(FunctionCounter.builder("drone.mavlink.command-timeout", commandTimeoutCount, AtomicLong::get)
+                .tags(tags).description("命令重发后仍未响应的次数").register(registry));
+        meters.add(FunctionCounter.builder("drone.mavlink.connect-failed", connectFailedCount, AtomicLong::get)
+                .tags(tags).description("连接失败的次数").register(registry));
+    }
+
+    /**
+     * 移除监控指标
+     *
+     * @param registry MeterRegistry
+     */
+    public void unbindFrom(MeterRegistry registry) {
+        meters.forEach(registry::remove);
+        meters.clear();
+    }
+
+    /**
+     * 一次连接：断开后整体丢弃，重连时创建新的
+     */
+    private static class Link {
+
+        private final Socket socket;
+        private final OutputStream out;
+        private final MavlinkConnection connection;
+
+        private Link(Socket socket, OutputStream out, MavlinkConnection connection) {
+            this.socket = socket;
+            this.out = out;
+            this.connection = connection;
+        }
+
+    }
+
+}
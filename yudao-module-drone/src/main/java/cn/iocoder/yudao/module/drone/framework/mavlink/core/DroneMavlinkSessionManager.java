@@ -0,0 +1,154 @@
+package cn.iocoder.yudao.module.drone.framework.mavlink.core;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.iocoder.yudao.module.drone.framework.mavlink.config.DroneMavlinkProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 无人机 MAVLink 会话的管理器
+ *
+ * 按照无人机的 IP + 端口，复用 {@link DroneMavlinkSession} 长连接，避免每条命令都重新建立连接；
+ * 后台线程每隔 {@link DroneMavlinkProperties#getHeartbeatInterval()}，向所有会话发送地面站心跳、断线重连，并关闭空闲的会话
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class DroneMavlinkSessionManager {
+
+    @Getter
+    private final DroneMavlinkProperties properties;
+
+    /**
+     * 会话的映射
+     *
+     * KEY：IP:端口
+     */
+    private final Map<String, DroneMavlinkSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * 心跳、重连的线程；重连可能阻塞到连接超时，所以与 {@link #timeoutExecutor} 分开
+     */
+    private final ScheduledExecutorService heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(
+            new NamedThreadFactory("drone-mavlink-heartbeat-", true));
+    /**
+     * 命令、航线传输的超时线程，所有会话共享
+     */
+    private final ScheduledExecutorService timeoutExecutor = Executors.newSingleThreadScheduledExecutor(
+            new NamedThreadFactory("drone-mavlink-timeout-", true));
+
+    /**
+     * 监控，为空时不统计
+     */
+    private volatile MeterRegistry meterRegistry;
+
+    public DroneMavlinkSessionManager(DroneMavlinkProperties properties) {
+        this.properties = properties;
+    }
+
+    public void start() {
+        long interval = properties.getHeartbeatInterval().toMillis();
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        heartbeatExecutor.shutdownNow();
+        timeoutExecutor.shutdownNow();
+        sessions.values().forEach(this::closeSession);
+        sessions.clear();
+    }
+
+    /**
+     * 注册监控指标
+     *
+     * @param registry MeterRegistry
+     */
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        Gauge.builder("drone.mavlink.sessions", sessions, Map::size)
+                .description("无人机的会话数量").register(registry);
+    }
+
+    /**
+     * 获得无人机的会话，不存在时创建；连接在第一次发送时建立
+     *
+     * @param host 无人机 IP
+     * @param port 无人机端口
+     * @return 会话
+     */
+    public DroneMavlinkSession getSession(String host, int port) {
+        return sessions.computeIfAbsent(buildKey(host, port), key -> {
+            DroneMavlinkSession session = new DroneMavlinkSession(host, port, properties, timeoutExecutor);
+            if (meterRegistry != null) {
+                session.bindTo(meterRegistry);
+            }
+            return session;
+        });
+    }
+
+    /**
+     * 获得无人机的最新遥测快照
+     *
+     * @param host 无人机 IP
+     * @param port 无人机端口
+     * @return 遥测快照；没有会话时返回 null
+     */
+    public DroneTelemetry getTelemetry(String host, int port) {
+        DroneMavlinkSession session = sessions.get(buildKey(host, port));
+        return session != null ? session.getTelemetry() : null;
+    }
+
+    /**
+     * 移除无人机的会话，并断开连接
+     *
+     * @param host 无人机 IP
+     * @param port 无人机端口
+     */
+    public void removeSession(String host, Integer port) {
+        if (host == null || port == null) {
+            return;
+        }
+        DroneMavlinkSession session = sessions.remove(buildKey(host, port));
+        if (session != null) {
+            closeSession(session);
+        }
+    }
+
+    private void heartbeat() {
+        long now = System.currentTimeMillis();
+        sessions.forEach((key, session) -> {
+            try {
+                if (now - session.getLastAccessTime() > properties.getIdleTimeout().toMillis()) {
+                    if (sessions.remove(key, session)) {
+                        log.info("[heartbeat][无人机({}) 空闲超过 {} 毫秒，关闭连接]", key, properties.getIdleTimeout().toMillis());
+                        closeSession(session);
+                    }
+                    return;
+                }
+                session.heartbeat();
+            } catch (Exception ex) {
+                log.error("[heartbeat][无人机({}) 心跳异常]", key, ex);
+            }
+        });
+    }
+
+    private void closeSession(DroneMavlinkSession session) {
+        if (meterRegistry != null) {
+            session.unbindFrom(meterRegistry);
+        }
+        session.close();
+    }
+
+    private static String buildKey(String host, int port) {
+        return host + ":" + port;
+    }
+
+}
@@ -0,0 +1,115 @@
+package cn.iocoder.yudao.module.drone.framework.mavlink.core;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 无人机的最新遥测快照，由 {@link DroneMavlinkSession} 的读线程根据收到的消息更新
+ *
+ * 每次更新都会创建新的对象，读取方拿到的快照不会被修改
+ *
+ * @author 芋道源码
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class DroneTelemetry {
+
+    // ========== 心跳 HEARTBEAT ==========
+
+    /**
+     * 最近一次收到心跳的时间
+     */
+    private LocalDateTime heartbeatTime;
+    /**
+     * 飞行器类型，对应 MavType
+     */
+    private Integer type;
+    /**
+     * 飞控类型，对应 MavAutopilot
+     */
+    private Integer autopilot;
+    /**
+     * 基础模式，对应 MavModeFlag 的位组合
+     */
+    private Integer baseMode;
+    /**
+     * 自定义模式，由飞控定义
+     */
+    private Long customMode;
+    /**
+     * 系统状态，对应 MavState
+     */
+    private Integer systemStatus;
+    /**
+     * 是否已解锁
+     */
+    private Boolean armed;
+
+    // ========== 位置 GLOBAL_POSITION_INT ==========
+
+    /**
+     * 最近一次收到位置的时间
+     */
+    private LocalDateTime positionTime;
+    /**
+     * 纬度 (乘以10^7)
+     */
+    private Integer latitude;
+    /**
+     * 经度 (乘以10^7)
+     */
+    private Integer longitude;
+    /**
+     * 海拔高度 (毫米)
+     */
+    private Integer altitude;
+    /**
+     * 相对起飞点的高度 (毫米)
+     */
+    private Integer relativeAltitude;
+    /**
+     * 北向速度 (厘米/秒)
+     */
+    private Integer vx;
+    /**
+     * 东向速度 (厘米/秒)
+     */
+    private Integer vy;
+    /**
+     * 地向速度 (厘米/秒)
+     */
+    private Integer vz;
+    /**
+     * 航向 (0.01 度)
+     */
+    private Integer heading;
+
+    // ========== 电池 SYS_STATUS ==========
+
+    /**
+     * 电池电压 (毫伏)
+     */
+    private Integer batteryVoltage;
+    /**
+     * 剩余电量 (百分比)，-1 表示飞控未提供
+     */
+    private Integer batteryRemaining;
+
+    // ========== 定位 GPS_RAW_INT ==========
+
+    /**
+     * 定位类型，对应 GpsFixType
+     */
+    private Integer gpsFixType;
+    /**
+     * 可见卫星数
+     */
+    private Integer satellitesVisible;
+
+}
@@ -0,0 +1,37 @@
+package cn.iocoder.yudao.module.drone.framework.modbus.config;
+
+import cn.iocoder.yudao.module.drone.framework.modbus.core.CabinetModbusSessionManager;
+import cn.iocoder.yudao.module.drone.framework.modbus.core.CabinetRegisterWatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 无人机柜 Modbus 连接的配置类
+ *
+ * @author 芋道源码
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(DroneModbusProperties.class)
+public class DroneModbusConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public CabinetModbusSessionManager cabinetModbusSessionManager(DroneModbusProperties properties,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        CabinetModbusSessionManager sessionManager = new CabinetModbusSessionManager(properties);
+        meterRegistry.ifAvailable(sessionManager::bindTo);
+        return sessionManager;
+    }
+
+    @Bean(destroyMethod = "stop")
+    public CabinetRegisterWatcher cabinetRegisterWatcher(CabinetModbusSessionManager sessionManager,
+                                                         DroneModbusProperties properties,
+                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        CabinetRegisterWatcher registerWatcher = new CabinetRegisterWatcher(sessionManager, properties);
+        meterRegistry.ifAvailable(registerWatcher::bindTo);
+        return registerWatcher;
+    }
+
+}
@@ -0,0 +1,89 @@
+package cn.iocoder.yudao.module.drone.framework.modbus.config;
+
+import cn.iocoder.yudao.module.drone.common.util.DroneControlUtil;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * 无人机柜 Modbus 连接的配置项
+ *
+ * @author 芋道源码
+ */
+@ConfigurationProperties(prefix = "drone.modbus")
+@Validated
+@Data
+public class DroneModbusProperties {
+
+    /**
+     * 读写寄存器的响应超时时长
+     */
+    @NotNull(message = "响应超时时长不能为空")
+    private Duration responseTimeout = Duration.ofSeconds(3L);
+    /**
+     * 等待同一柜子上一个操作完成的最大时长；超过后，直接返回柜子繁忙
+     */
+    @NotNull(message = "等待时长不能为空")
+    private Duration lockTimeout = Duration.ofSeconds(10L);
+    /**
+     * 连接失败后的重连间隔；在此期间，请求直接返回柜子离线，由后台线程负责重连
+     */
+    @NotNull(message = "重连间隔不能为空")
+    private Duration reconnectInterval = Duration.ofSeconds(5L);
+    /**
+     * 心跳间隔：连接超过该时长没有通信时，读取一次 {@link #healthCheckAddress} 寄存器，检查连接是否可用
+     */
+    @NotNull(message = "心跳间隔不能为空")
+    private Duration healthCheckInterval = Duration.ofSeconds(30L);
+    /**
+     * 心跳读取的输入寄存器地址，默认为模式状态
+     */
+    @NotNull(message = "心跳寄存器地址不能为空")
+    private Integer healthCheckAddress = DroneControlUtil.DEFAULT_MODBUS_ADDR_MODE_STATUS;
+    /**
+     * 空闲时长：超过该时长没有请求的柜子，关闭其连接
+     */
+    @NotNull(message = "空闲时长不能为空")
+    private Duration idleTimeout = Duration.ofHours(1L);
+
+    /**
+     * 寄存器状态等待的配置
+     */
+    @Valid
+    private Watch watch = new Watch();
+
+    @Data
+    public static class Watch {
+
+        /**
+         * 轮询线程数，所有柜子共享
+         */
+        @NotNull(message = "轮询线程数不能为空")
+        @Min(value = 1, message = "轮询线程数不能小于 1")
+        private Integer threads = 2;
+        /**
+         * 最小轮询间隔：寄存器的值变化后，按照该间隔轮询
+         */
+        @NotNull(message = "最小轮询间隔不能为空")
+        private Duration minInterval = Duration.ofMillis(200L);
+        /**
+         * 最大轮询间隔：寄存器的值未变化时，轮询间隔逐步翻倍，直到该间隔
+         */
+        @NotNull(message = "最大轮询间隔不能为空")
+        private Duration maxInterval = Duration.ofSeconds(1L);
+        /**
+         * 默认的等待超时时长
+         *
+         * 需要小于 spring.mvc.async.request-timeout，否则请求先于等待超时
+         */
+        @NotNull(message = "等待超时时长不能为空")
+        private Duration timeout = Duration.ofSeconds(60L);
+
+    }
+
+}
@@ -0,0 +1,284 @@
+package cn.iocoder.yudao.module.drone.framework.modbus.core;
+
+import cn.iocoder.yudao.module.drone.common.util.DroneControlUtil;
+import cn.iocoder.yudao.module.drone.framework.modbus.config.DroneModbusProperties;
+import com.intelligt.modbus.jlibmodbus.exception.ModbusIOException;
+import com.intelligt.modbus.jlibmodbus.master.ModbusMaster;
+import com.intelligt.modbus.jlibmodbus.master.ModbusMasterFactory;
+import com.intelligt.modbus.jlibmodbus.tcp.TcpParameters;
+import io.micrometer.core.instrument.*;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
+import static cn.iocoder.yudao.module.drone.enums.ErrorCodeConstants.CABINET_MODBUS_BUSY;
+import static cn.iocoder.yudao.module.drone.enums.ErrorCodeConstants.CABINET_MODBUS_OFFLINE;
+
+/**
+ * 无人机柜的 Modbus 会话：一个柜子（IP + 端口）对应一个长连接
+ *
+ * 1. 串行：同一个柜子的寄存器读写，通过公平锁串行执行，避免多个操作（例如说开舱门、取件）的读写交错
+ * 2. 快速失败：连接失败后，{@link DroneModbusProperties#getReconnectInterval()} 内的请求直接返回离线，不阻塞请求线程
+ * 3. 保活：由 {@link CabinetModbusSessionManager} 定时调用 {@link #healthCheck()}，检查空闲连接、重连断开的连接
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class CabinetModbusSession {
+
+    @Getter
+    private final String host;
+    @Getter
+    private final int port;
+    private final DroneModbusProperties properties;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    /**
+     * Modbus 连接，由 {@link #lock} 保护；为空表示未连接
+     */
+    private volatile ModbusMaster master;
+    /**
+     * 下次允许建立连接的时间（毫秒）
+     */
+    private volatile long nextConnectTime;
+    /**
+     * 最近一次请求的时间（毫秒），用于判断是否空闲
+     */
+    @Getter
+    private volatile long lastAccessTime = System.currentTimeMillis();
+    /**
+     * 最近一次与柜子通信成功的时间（毫秒），用于判断是否需要心跳
+     */
+    private volatile long lastActiveTime;
+    /**
+     * 最近一次请求的从站 ID，心跳时使用
+     */
+    private volatile int lastSlaveId = DroneControlUtil.DEFAULT_MODBUS_SLAVE_ID;
+    /**
+     * 是否已关闭，关闭后不再建立连接
+     */
+    private volatile boolean closed;
+
+    private final AtomicLong connectFailedCount = new AtomicLong();
+    /**
+     * 操作耗时，为空时不统计
+     */
+    private Timer successTimer;
+    private Timer failureTimer;
+    private final List<Meter> meters = new ArrayList<>();
+
+    public CabinetModbusSession(String host, int port, DroneModbusProperties properties) {
+        this.host = host;
+        this.port = port;
+        this.properties = properties;
+    }
+
+    /**
+     * 在该柜子的连接上执行操作
+     *
+     * @param slaveId 从站 ID
+     * @param callback 操作
+     * @return 操作的返回值
+     * @throws Exception 柜子繁忙、离线，或者操作异常
+     */
+    public <T> T execute(int slaveId, ModbusCallback<T> callback) throws Exception {
+        return execute(slaveId, properties.getLockTimeout(), callback);
+    }
+
+    /**
+     * 在该柜子的连接上执行操作
+     *
+     * @param slaveId 从站 ID
+     * @param lockTimeout 等待柜子空闲的最大时长，为 0 时不等待
+     * @param callback 操作
+     * @return 操作的返回值
+     * @throws Exception 柜子繁忙、离线，或者操作异常
+     */
+    public <T> T execute(int slaveId, Duration lockTimeout, ModbusCallback<T> callback) throws Exception {
+        lastAccessTime = System.currentTimeMillis();
+        lastSlaveId = slaveId;
+        if (!lock.tryLock(lockTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw exception(CABINET_MODBUS_BUSY, host, port);
+        }
+        long startTime = System.nanoTime();
+        boolean success = false;
+        try {
+            ModbusMaster master = getConnectedMaster();
+            try {
+                T result = callback.execute(master, slaveId);
+                lastActiveTime = System.currentTimeMillis();
+                success = true;
+                return result;
+            } catch (ModbusIOException ex) {
+                // IO 异常（包括响应超时）后，连接上可能残留未读取的响应，直接断开，由后台线程或下一个请求重连
+                log.warn("[execute][无人机柜({}:{}) 通信异常，断开连接]", host, port, ex);
+                disconnect();
+                throw ex;
+            }
+        } finally {
+            lock.unlock();
+            Timer timer = success ? successTimer : failureTimer;
+            if (timer != null) {
+                timer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * 获得已连接的 Modbus 连接，需要持有 {@link #lock}
+     */
+    private ModbusMaster getConnectedMaster() {
+        if (master != null && master.isConnected()) {
+            return master;
+        }
+        if (closed || System.currentTimeMillis() < nextConnectTime || !connect()) {
+            throw exception(CABINET_MODBUS_OFFLINE, host, port);
+        }
+        return master;
+    }
+
+    /**
+     * 建立连接，需要持有 {@link #lock}；只尝试一次，失败后等待 {@link DroneModbusProperties#getReconnectInterval()} 再重试
+     *
+     * @return 是否成功
+     */
+    private boolean connect() {
+        disconnect();
+        try {
+            TcpParameters tcpParameters = new TcpParameters(InetAddress.getByName(host), port, true);
+            ModbusMaster newMaster = ModbusMasterFactory.createModbusMasterTCP(tcpParameters);
+            newMaster.setResponseTimeout((int) properties.getResponseTimeout().toMillis());
+            newMaster.connect();
+            master = newMaster;
+            nextConnectTime = 0L;
+            lastActiveTime = System.currentTimeMillis();
+            log.info("[connect][无人机柜({}:{}) 连接成功]", host, port);
+            return true;
+        } catch (Exception ex) {
+            nextConnectTime = System.currentTimeMillis() + properties.getReconnectInterval().toMillis();
+            connectFailedCount.incrementAndGet();
+            log.warn("[connect][无人机柜({}:{}) 连接失败({})，{} 毫秒后重试]", host, port, ex.getMessage(),
+                    properties.getReconnectInterval().toMillis());
+            return false;
+        }
+    }
+
+    /**
+     * 断开连接，需要持有 {@link #lock}
+     */
+    private void disconnect() {
+        if (master == null) {
+            return;
+        }
+        try {
+            master.disconnect();
+        } catch (Exception ex) {
+            log.warn("[disconnect][无人机柜({}:{}) 断开连接异常]", host, port, ex);
+        } finally {
+            master = null;
+        }
+    }
+
+    /**
+     * 心跳检查：断开的连接，到达重连时间后重连；空闲的连接，读取一次寄存器，确认连接可用
+     *
+     * 正在执行操作时，说明连接在使用中，跳过本次检查
+     */
+    public void healthCheck() {
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            if (master == null || !master.isConnected()) {
+                if (!closed && now >= nextConnectTime) {
+                    connect();
+                }
+                return;
+            }
+            if (now - lastActiveTime < properties.getHealthCheckInterval().toMillis()) {
+                return;
+            }
+            try {
+                master.readInputRegisters(lastSlaveId, properties.getHealthCheckAddress(), 1);
+                lastActiveTime = now;
+            } catch (ModbusIOException ex) {
+                log.warn("[healthCheck][无人机柜({}:{}) 心跳失败({})，重新连接]", host, port, ex.getMessage());
+                connect();
+            } catch (Exception ex) {
+                // 协议异常（例如说从站返回异常码），说明连接本身可用
+                lastActiveTime = now;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 是否已连接
+     */
+    public boolean isConnected() {
+        ModbusMaster master = this.master;
+        return master != null && master.isConnected();
+    }
+
+    /**
+     * 关闭会话：等待正在执行的操作完成，超时后强制断开
+     */
+    public void close() {
+        closed = true;
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(properties.getLockTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            disconnect();
+        } finally {
+            if (locked) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 注册监控指标，指标名为 drone.cabinet.modbus.*，通过 cabinet 标签区分不同的柜子
+     *
+     * @param registry MeterRegistry
+     */
+    public void bindTo(MeterRegistry registry) {
+        Tags tags = Tags.of("cabinet", host + ":" + port);
+        successTimer = Timer.builder("drone.cabinet.modbus.execute").tags(tags).tag("result", "success")
+                .description("每次操作的耗时，不包括等待柜子空闲的时间").register(registry);
+        failureTimer = Timer.builder("drone.cabinet.modbus.execute").tags(tags).tag("result", "failure")
+                .description("每次操作的耗时，不包括等待柜子空闲的时间").register(registry);
+        meters.add(successTimer);
+        meters.add(failureTimer);
+        meters.add(Gauge.builder("drone.cabinet.modbus.connected", this, session -> session.isConnected() ? 1 : 0)
+                .tags(tags).description("是否已连接").register(registry));
+        meters.add(Gauge.builder("drone.cabinet.modbus.waiting", lock, ReentrantLock::getQueueLength)
+                .tags(tags).description("等待柜子空闲的请求数量").register(registry));
+        meters.add(FunctionCounter.builder("drone.cabinet.modbus.connect-failed", connectFailedCount, AtomicLong::get)
+                .tags(tags).description("连接失败的次数").register(registry));
+    }
+
+    /**
+     * 移除监控指标
+     *
+     * @param registry MeterRegistry
+     */
+    public void unbindFrom(MeterRegistry registry) {
+        meters.forEach(registry::remove);
+        meters.clear();
+    }
+
+}
@@ -0,0 +1,171 @@
+package cn.iocoder.yudao.module.drone.framework.modbus.core;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.iocoder.yudao.module.drone.dal.dataobject.cabinet.CabinetDO;
+import cn.iocoder.yudao.module.drone.framework.modbus.config.DroneModbusProperties;
+import com.intelligt.modbus.jlibmodbus.Modbus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 无人机柜 Modbus 会话的管理器
+ *
+ * 按照柜子的 IP + 端口，复用 {@link CabinetModbusSession} 长连接，避免每次操作都重新建立 TCP 连接；
+ * 后台线程每隔 {@link DroneModbusProperties#getReconnectInterval()}，对所有会话进行心跳检查、断线重连，并关闭空闲的会话
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class CabinetModbusSessionManager {
+
+    private final DroneModbusProperties properties;
+
+    /**
+     * 会话的映射
+     *
+     * KEY：IP:端口
+     */
+    private final Map<String, CabinetModbusSession> sessions = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService healthCheckExecutor = Executors.newSingleThreadScheduledExecutor(
+            new NamedThreadFactory("drone-modbus-health-check-", true));
+
+    /**
+     * 监控，为空时不统计
+     */
+    private volatile MeterRegistry meterRegistry;
+
+    public CabinetModbusSessionManager(DroneModbusProperties properties) {
+        this.properties = properties;
+    }
+
+    public void start() {
+        // 每个连接的事务编号自增，便于匹配请求和响应
+        Modbus.setAutoIncrementTransactionId(true);
+        long interval = properties.getReconnectInterval().toMillis();
+        healthCheckExecutor.scheduleWithFixedDelay(this::healthCheck, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        healthCheckExecutor.shutdownNow();
+        sessions.values().forEach(this::closeSession);
+        sessions.clear();
+    }
+
+    /**
+     * 注册监控指标
+     *
+     * @param registry MeterRegistry
+     */
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        Gauge.builder("drone.cabinet.modbus.sessions", sessions, Map::size)
+                .description("柜子的会话数量").register(registry);
+    }
+
+    /**
+     * 在柜子的连接上执行操作
+     *
+     * @param cabinet 柜子
+     * @param callback 操作
+     * @return 操作的返回值
+     * @throws Exception 柜子繁忙、离线，或者操作异常
+     */
+    public <T> T execute(CabinetDO cabinet, ModbusCallback<T> callback) throws Exception {
+        return execute(cabinet.getIp(), cabinet.getPort(), cabinet.getSlaveId(), callback);
+    }
+
+    /**
+     * 在柜子的连接上执行操作
+     *
+     * @param host 柜子 IP
+     * @param port 柜子端口
+     * @param slaveId 从站 ID
+     * @param callback 操作
+     * @return 操作的返回值
+     * @throws Exception 柜子繁忙、离线，或者操作异常
+     */
+    public <T> T execute(String host, int port, int slaveId, ModbusCallback<T> callback) throws Exception {
+        return execute(host, port, slaveId, properties.getLockTimeout(), callback);
+    }
+
+    /**
+     * 在柜子的连接上执行操作
+     *
+     * @param host 柜子 IP
+     * @param port 柜子端口
+     * @param slaveId 从站 ID
+     * @param lockTimeout 等待柜子空闲的最大时长，为 0 时不等待
+     * @param callback 操作
+     * @return 操作的返回值
+     * @throws Exception 柜子繁忙、离线，或者操作异常
+     */
+    public <T> T execute(String host, int port, int slaveId, Duration lockTimeout,
+                         ModbusCallback<T> callback) throws Exception {
+        return getSession(host, port).execute(slaveId, lockTimeout, callback);
+    }
+
+    private CabinetModbusSession getSession(String host, int port) {
+        return sessions.computeIfAbsent(buildKey(host, port), key -> {
+            CabinetModbusSession session = new CabinetModbusSession(host, port, properties);
+            if (meterRegistry != null) {
+                session.bindTo(meterRegistry);
+            }
+            return session;
+        });
+    }
+
+    /**
+     * 移除柜子的会话，并断开连接；柜子的 IP、端口变更或者被删除时调用
+     *
+     * @param host 柜子 IP
+     * @param port 柜子端口
+     */
+    public void removeSession(String host, Integer port) {
+        if (host == null || port == null) {
+            return;
+        }
+        CabinetModbusSession session = sessions.remove(buildKey(host, port));
+        if (session != null) {
+            closeSession(session);
+        }
+    }
+
+    private void healthCheck() {
+        long now = System.currentTimeMillis();
+        sessions.forEach((key, session) -> {
+            try {
+                if (now - session.getLastAccessTime() > properties.getIdleTimeout().toMillis()) {
+                    if (sessions.remove(key, session)) {
+                        log.info("[healthCheck][无人机柜({}) 空闲超过 {} 毫秒，关闭连接]", key, properties.getIdleTimeout().toMillis());
+                        closeSession(session);
+                    }
+                    return;
+                }
+                session.healthCheck();
+            } catch (Exception ex) {
+                log.error("[healthCheck][无人机柜({}) 心跳检查异常]", key, ex);
+            }
+        });
+    }
+
+    private void closeSession(CabinetModbusSession session) {
+        if (meterRegistry != null) {
+            session.unbindFrom(meterRegistry);
+        }
+        session.close();
+    }
+
+    private static String buildKey(String host, int port) {
+        return host + ":" + port;
+    }
+
+}
@@ -0,0 +1,70 @@
+package cn.iocoder.yudao.module.drone.framework.modbus.core;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * 柜子寄存器状态的等待，由 {@link CabinetRegisterWatcher} 执行
+ *
+ * 先依次写入 {@link #writes}，间隔一次轮询后，再轮询 {@link #address} 输入寄存器，直到满足 {@link #completed} 条件、出现异常状态或者超时
+ *
+ * @author 芋道源码
+ */
+@Data
+public class CabinetRegisterWatch {
+
+    /**
+     * 柜子 IP
+     */
+    private String host;
+    /**
+     * 柜子端口
+     */
+    private Integer port;
+    /**
+     * 从站 ID
+     */
+    private Integer slaveId;
+
+    /**
+     * 开始等待前，依次写入的寄存器
+     *
+     * KEY：寄存器地址
+     * VALUE：写入的值
+     */
+    private Map<Integer, Integer> writes = new LinkedHashMap<>();
+    /**
+     * 轮询的输入寄存器地址
+     */
+    private Integer address;
+    /**
+     * 完成的条件
+     */
+    private IntPredicate completed;
+    /**
+     * 等待中的条件：既不满足 {@link #completed}，也不满足该条件时，视为异常状态，结束等待
+     *
+     * 为空时，任意值都继续等待
+     */
+    private IntPredicate pending;
+    /**
+     * 超时时长，为空时使用默认值；为 0 时只读取一次
+     */
+    private Duration timeout;
+    /**
+     * 是否独占柜子：同一柜子同时只能有一个独占的等待，避免两个操作交替写入寄存器
+     *
+     * 只读取寄存器的检查，不需要独占
+     */
+    private Boolean exclusive = true;
+
+    public CabinetRegisterWatch addWrite(int address, int value) {
+        writes.put(address, value);
+        return this;
+    }
+
+}
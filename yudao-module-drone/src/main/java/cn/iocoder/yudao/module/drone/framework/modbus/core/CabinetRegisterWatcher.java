@@ -0,0 +1,231 @@
+package cn.iocoder.yudao.module.drone.framework.modbus.core;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.iocoder.yudao.framework.common.exception.ServiceException;
+import cn.iocoder.yudao.module.drone.framework.modbus.config.DroneModbusProperties;
+import com.intelligt.modbus.jlibmodbus.exception.ModbusIOException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
+import static cn.iocoder.yudao.module.drone.enums.ErrorCodeConstants.*;
+
+/**
+ * 柜子寄存器状态的等待器
+ *
+ * 替代在请求线程上 while (true) { 读寄存器; Thread.sleep } 的轮询：所有柜子的等待，由少量轮询线程定时执行，结果通过 {@link CompletableFuture} 返回。
+ * 1. 不阻塞：第一次轮询只写入寄存器，之后每次轮询只读取一次寄存器；柜子正在执行其他操作时，不等待，下次再试
+ * 2. 自适应间隔：寄存器的值变化后，按照最小间隔轮询；值未变化时，间隔逐步翻倍，直到最大间隔
+ * 3. 超时：超过 {@link CabinetRegisterWatch#getTimeout()} 仍未完成时，以 {@link ServiceException} 结束
+ * 4. 独占：同一柜子已有独占的等待时，新的独占等待直接以柜子繁忙结束，避免两个操作交替写入寄存器
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class CabinetRegisterWatcher {
+
+    private final CabinetModbusSessionManager sessionManager;
+    private final DroneModbusProperties.Watch properties;
+    /**
+     * 等待柜子空闲的最大时长，见 {@link DroneModbusProperties#getLockTimeout()}
+     */
+    private final Duration lockTimeout;
+
+    private final ScheduledExecutorService executor;
+    /**
+     * 等待中的任务
+     */
+    private final Set<Task> tasks = ConcurrentHashMap.newKeySet();
+    /**
+     * 独占中的柜子
+     *
+     * KEY：柜子 IP:端口
+     * VALUE：独占的任务
+     */
+    private final Map<String, Task> exclusiveTasks = new ConcurrentHashMap<>();
+
+    public CabinetRegisterWatcher(CabinetModbusSessionManager sessionManager, DroneModbusProperties properties) {
+        this.sessionManager = sessionManager;
+        this.properties = properties.getWatch();
+        this.lockTimeout = properties.getLockTimeout();
+        this.executor = Executors.newScheduledThreadPool(this.properties.getThreads(),
+                new NamedThreadFactory("drone-modbus-watch-", true));
+    }
+
+    public void stop() {
+        executor.shutdownNow();
+        tasks.forEach(task -> task.future.cancel(false));
+    }
+
+    /**
+     * 注册监控指标
+     *
+     * @param registry MeterRegistry
+     */
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("drone.cabinet.modbus.watching", tasks, Set::size)
+                .description("等待中的寄存器状态数量").register(registry);
+    }
+
+    /**
+     * 等待寄存器状态
+     *
+     * @param watch 等待
+     * @return 满足完成条件时的寄存器值
+     */
+    public CompletableFuture<Integer> watch(CabinetRegisterWatch watch) {
+        Task task = new Task(watch);
+        if (task.exclusiveKey != null && exclusiveTasks.putIfAbsent(task.exclusiveKey, task) != null) {
+            task.future.completeExceptionally(exception(CABINET_MODBUS_BUSY, watch.getHost(), watch.getPort()));
+            return task.future;
+        }
+        tasks.add(task);
+        task.future.whenComplete((value, ex) -> task.release());
+        task.schedule(0L);
+        return task.future;
+    }
+
+    private class Task implements Runnable {
+
+        private final CabinetRegisterWatch watch;
+        private final CompletableFuture<Integer> future = new CompletableFuture<>();
+        private final long deadline;
+        /**
+         * 一直没有读取到寄存器时，因为柜子繁忙而重试的截止时间
+         */
+        private final long busyDeadline;
+        /**
+         * 独占的柜子，为空表示不独占
+         */
+        private final String exclusiveKey;
+
+        /**
+         * 是否已写入 {@link CabinetRegisterWatch#getWrites()}
+         */
+        private boolean written;
+        /**
+         * 是否已读取到寄存器
+         */
+        private boolean read;
+        private Integer lastValue;
+        private long interval;
+
+        private Task(CabinetRegisterWatch watch) {
+            this.watch = watch;
+            Duration timeout = watch.getTimeout() != null ? watch.getTimeout() : properties.getTimeout();
+            long now = System.nanoTime();
+            this.deadline = now + timeout.toNanos();
+            this.busyDeadline = now + lockTimeout.toNanos();
+            this.exclusiveKey = Boolean.FALSE.equals(watch.getExclusive()) ? null : watch.getHost() + ":" + watch.getPort();
+            this.interval = properties.getMinInterval().toNanos();
+        }
+
+        @Override
+        public void run() {
+            // 调用方已取消
+            if (future.isDone()) {
+                return;
+            }
+            Integer value = null;
+            boolean busy = false;
+            try {
+                value = sessionManager.execute(watch.getHost(), watch.getPort(), watch.getSlaveId(), Duration.ZERO,
+                        (master, slaveId) -> {
+                            // 写入的这次轮询不读取：柜子尚未处理写入，读到的是旧值，可能误判为已完成或异常状态
+                            if (!written && !watch.getWrites().isEmpty()) {
+                                for (Map.Entry<Integer, Integer> write : watch.getWrites().entrySet()) {
+                                    master.writeSingleRegister(slaveId, write.getKey(), write.getValue());
+                                }
+                                written = true;
+                                return null;
+                            }
+                            return master.readInputRegisters(slaveId, watch.getAddress(), 1)[0];
+                        });
+            } catch (ServiceException ex) {
+                // 柜子正在执行其他操作，下次再试；其它（例如说离线），直接结束
+                if (!CABINET_MODBUS_BUSY.getCode().equals(ex.getCode())) {
+                    fail(ex);
+                    return;
+                }
+                busy = true;
+            } catch (ModbusIOException ex) {
+                // 通信异常时，会话已断开连接，下次轮询时重连
+                log.warn("[run][无人机柜({}:{}) 寄存器({}) 读取异常({})，稍后重试]", watch.getHost(), watch.getPort(),
+                        watch.getAddress(), ex.getMessage());
+            } catch (Exception ex) {
+                fail(ex);
+                return;
+            }
+
+            // 判断状态
+            if (value != null) {
+                read = true;
+                if (watch.getCompleted().test(value)) {
+                    release();
+                    future.complete(value);
+                    return;
+                }
+                if (watch.getPending() != null && !watch.getPending().test(value)) {
+                    fail(exception(CABINET_MODBUS_WATCH_UNEXPECTED,
+                            watch.getHost(), watch.getPort(), watch.getAddress(), value));
+                    return;
+                }
+                interval = Objects.equals(value, lastValue)
+                        ? Math.min(interval * 2, properties.getMaxInterval().toNanos())
+                        : properties.getMinInterval().toNanos();
+                lastValue = value;
+            }
+
+            // 下次轮询
+            long now = System.nanoTime();
+            long remaining = deadline - now;
+            if (remaining <= 0) {
+                // 因为柜子繁忙，一次都没有读取到寄存器：在 lockTimeout 内继续重试，避免只读取一次的检查被误判
+                if (busy && !read) {
+                    if (busyDeadline - now > 0) {
+                        schedule(Math.min(properties.getMinInterval().toNanos(), busyDeadline - now));
+                        return;
+                    }
+                    fail(exception(CABINET_MODBUS_BUSY, watch.getHost(), watch.getPort()));
+                    return;
+                }
+                fail(exception(CABINET_MODBUS_WATCH_TIMEOUT,
+                        watch.getHost(), watch.getPort(), watch.getAddress(), lastValue));
+                return;
+            }
+            schedule(Math.min(interval, remaining));
+        }
+
+        private void schedule(long delay) {
+            try {
+                executor.schedule(this, delay, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException ex) {
+                fail(ex);
+            }
+        }
+
+        /**
+         * 以异常结束：先释放独占的柜子，这样调用方在回调中可以立即执行下一个操作
+         */
+        private void fail(Throwable ex) {
+            release();
+            future.completeExceptionally(ex);
+        }
+
+        private void release() {
+            tasks.remove(this);
+            if (exclusiveKey != null) {
+                exclusiveTasks.remove(exclusiveKey, this);
+            }
+        }
+
+    }
+
+}
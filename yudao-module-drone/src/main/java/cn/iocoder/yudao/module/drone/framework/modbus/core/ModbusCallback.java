@@ -0,0 +1,26 @@
+package cn.iocoder.yudao.module.drone.framework.modbus.core;
+
+import com.intelligt.modbus.jlibmodbus.master.ModbusMaster;
+
+/**
+ * 在无人机柜的 Modbus 连接上执行的操作
+ *
+ * @param <T> 返回值类型
+ * @author 芋道源码
+ */
+@FunctionalInterface
+public interface ModbusCallback<T> {
+
+    /**
+     * 执行操作
+     *
+     * 执行期间独占该柜子的连接，不要关闭或断开 master，由 {@link CabinetModbusSession} 统一管理
+     *
+     * @param master 已连接的 Modbus 连接
+     * @param slaveId 从站 ID
+     * @return 返回值
+     * @throws Exception 操作异常
+     */
+    T execute(ModbusMaster master, int slaveId) throws Exception;
+
+}
@@ -0,0 +1,139 @@
+package cn.iocoder.yudao.module.drone.service.cabinet;
+
+import cn.iocoder.yudao.module.drone.controller.admin.vo.ModbusRequest;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 无人机柜控制 Service 接口
+ *
+ * 所有操作都是异步的：写入寄存器后，由 {@link cn.iocoder.yudao.module.drone.framework.modbus.core.CabinetRegisterWatcher}
+ * 等待柜子的状态，不占用请求线程。返回 true 表示成功，false 表示超时或者柜子返回异常状态；柜子离线时，以异常结束
+ *
+ * @author 芋道源码
+ */
+public interface CabinetControlService {
+
+    /**
+     * 开舱门
+     *
+     * @param request 柜子
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> openDoor(ModbusRequest request);
+
+    /**
+     * 关舱门
+     *
+     * @param request 柜子
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> closeDoor(ModbusRequest request);
+
+    /**
+     * 确认停机坪有飞机
+     *
+     * @param request 柜子
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> confirmDroneArrived(ModbusRequest request);
+
+    /**
+     * 确认停机坪无飞机
+     *
+     * @param request 柜子
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> confirmDroneLeft(ModbusRequest request);
+
+    /**
+     * 打开舵机
+     *
+     * @param request 柜子
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> openServo(ModbusRequest request);
+
+    /**
+     * 关闭舵机
+     *
+     * @param request 柜子
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> closeServo(ModbusRequest request);
+
+    /**
+     * 检查是否可以存件
+     *
+     * @param request 柜子
+     * @return 是否可以
+     */
+    CompletableFuture<Boolean> canStorePackage(ModbusRequest request);
+
+    /**
+     * 无人机存件
+     *
+     * @param request 柜子
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> droneStorePackage(ModbusRequest request);
+
+    /**
+     * 无人机取件
+     *
+     * @param request 柜子
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> dronePickupPackage(ModbusRequest request);
+
+    /**
+     * 用户取件（格口号方式）
+     *
+     * @param request 柜子
+     * @param boxNo 格口号
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> userPickupByBox(ModbusRequest request, int boxNo);
+
+    /**
+     * 用户取件（取件码方式）
+     *
+     * @param request 柜子
+     * @param code 取件码
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> userPickupByCode(ModbusRequest request, int code);
+
+    /**
+     * 用户取空包裹
+     *
+     * @param request 柜子
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> userPickupEmptyBox(ModbusRequest request);
+
+    /**
+     * 远程回收空包裹
+     *
+     * @param request 柜子
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> remoteRecycleEmptyBox(ModbusRequest request);
+
+    /**
+     * 远程寄件
+     *
+     * @param request 柜子
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> remoteDeposit(ModbusRequest request);
+
+    /**
+     * 检查是否可以寄件
+     *
+     * @param request 柜子
+     * @return 是否可以
+     */
+    CompletableFuture<Boolean> canDeposit(ModbusRequest request);
+
+}
@@ -0,0 +1,175 @@
+package cn.iocoder.yudao.module.drone.service.cabinet;
+
+import cn.iocoder.yudao.framework.common.exception.ServiceException;
+import cn.iocoder.yudao.module.drone.controller.admin.vo.ModbusRequest;
+import cn.iocoder.yudao.module.drone.framework.modbus.core.CabinetRegisterWatch;
+import cn.iocoder.yudao.module.drone.framework.modbus.core.CabinetRegisterWatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntPredicate;
+
+import static cn.iocoder.yudao.module.drone.common.util.DroneControlUtil.*;
+import static cn.iocoder.yudao.module.drone.enums.ErrorCodeConstants.CABINET_MODBUS_WATCH_TIMEOUT;
+import static cn.iocoder.yudao.module.drone.enums.ErrorCodeConstants.CABINET_MODBUS_WATCH_UNEXPECTED;
+
+/**
+ * 无人机柜控制 Service 实现类
+ *
+ * @author 芋道源码
+ */
+@Service
+@Slf4j
+public class CabinetControlServiceImpl implements CabinetControlService {
+
+    /**
+     * 存取件类操作的等待时长，与原先 10 次 * 500ms 的轮询保持一致
+     */
+    private static final Duration PACKAGE_TIMEOUT = Duration.ofSeconds(5L);
+
+    private static final int ADDR_STORAGE_PICKUP_MODE = 0xBC3;
+    private static final int ADDR_STORAGE_PICKUP_BOX = 0xBC2;
+    private static final int ADDR_RECYCLE = 0xBC4;
+    private static final int ADDR_EMPTY_BOX = 0xBC5;
+    private static final int ADDR_DEPOSIT = 0xBC7;
+    private static final int ADDR_DEPOSIT_STATUS = 0xBD2;
+
+    @Resource
+    private CabinetRegisterWatcher cabinetRegisterWatcher;
+
+    @Override
+    public CompletableFuture<Boolean> openDoor(ModbusRequest request) {
+        return execute(newWatch(request, DEFAULT_MODBUS_ADDR_DOOR, 11, value -> value == 10)
+                .addWrite(DEFAULT_MODBUS_ADDR_DOOR, 10));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> closeDoor(ModbusRequest request) {
+        return execute(newWatch(request, DEFAULT_MODBUS_ADDR_DOOR, 21, value -> value == 20)
+                .addWrite(DEFAULT_MODBUS_ADDR_DOOR, 20));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> confirmDroneArrived(ModbusRequest request) {
+        return execute(newWatch(request, DEFAULT_MODBUS_ADDR_PARKING, 11, value -> value == 10)
+                .addWrite(DEFAULT_MODBUS_ADDR_PARKING, 10));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> confirmDroneLeft(ModbusRequest request) {
+        return execute(newWatch(request, DEFAULT_MODBUS_ADDR_PARKING, 21, value -> value == 20)
+                .addWrite(DEFAULT_MODBUS_ADDR_PARKING, 20));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> openServo(ModbusRequest request) {
+        return execute(newWatch(request, DEFAULT_MODBUS_ADDR_SERVO, 11, value -> value == 10)
+                .addWrite(DEFAULT_MODBUS_ADDR_SERVO, 10));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> closeServo(ModbusRequest request) {
+        return execute(newWatch(request, DEFAULT_MODBUS_ADDR_SERVO, 21, value -> value == 20)
+                .addWrite(DEFAULT_MODBUS_ADDR_SERVO, 20));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> canStorePackage(ModbusRequest request) {
+        return execute(newCheck(request, DEFAULT_MODBUS_ADDR_STORAGE_STATUS, 11));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> droneStorePackage(ModbusRequest request) {
+        return execute(newWatch(request, DEFAULT_MODBUS_ADDR_STORAGE, 111, null)
+                .addWrite(DEFAULT_MODBUS_ADDR_STORAGE, 110).setTimeout(PACKAGE_TIMEOUT));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> dronePickupPackage(ModbusRequest request) {
+        return execute(newWatch(request, DEFAULT_MODBUS_ADDR_STORAGE, 121, null)
+                .setTimeout(PACKAGE_TIMEOUT));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> userPickupByBox(ModbusRequest request, int boxNo) {
+        return execute(newWatch(request, ADDR_STORAGE_PICKUP_MODE, 211, null)
+                .addWrite(ADDR_STORAGE_PICKUP_MODE, 210).addWrite(ADDR_STORAGE_PICKUP_BOX, boxNo)
+                .setTimeout(PACKAGE_TIMEOUT));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> userPickupByCode(ModbusRequest request, int code) {
+        return execute(newWatch(request, ADDR_STORAGE_PICKUP_MODE, 211, null)
+                .addWrite(ADDR_STORAGE_PICKUP_MODE, code).setTimeout(PACKAGE_TIMEOUT));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> userPickupEmptyBox(ModbusRequest request) {
+        return execute(newWatch(request, ADDR_EMPTY_BOX, 111, null)
+                .addWrite(ADDR_EMPTY_BOX, 110).setTimeout(PACKAGE_TIMEOUT));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> remoteRecycleEmptyBox(ModbusRequest request) {
+        // 两步依次执行：第一步成功后，才执行第二步
+        return execute(newWatch(request, ADDR_RECYCLE, 211, null)
+                .addWrite(ADDR_RECYCLE, 210).setTimeout(PACKAGE_TIMEOUT))
+                .thenCompose(success -> success
+                        ? execute(newWatch(request, ADDR_EMPTY_BOX, 211, null)
+                                .addWrite(ADDR_EMPTY_BOX, 210).setTimeout(PACKAGE_TIMEOUT))
+                        : CompletableFuture.completedFuture(false));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> remoteDeposit(ModbusRequest request) {
+        return execute(newWatch(request, ADDR_DEPOSIT, 211, null)
+                .addWrite(ADDR_DEPOSIT, 210).setTimeout(PACKAGE_TIMEOUT));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> canDeposit(ModbusRequest request) {
+        return execute(newCheck(request, ADDR_DEPOSIT_STATUS, 10));
+    }
+
+    private static CabinetRegisterWatch newWatch(ModbusRequest request, int address, int completedValue,
+                                                 IntPredicate pending) {
+        return new CabinetRegisterWatch().setHost(request.getIp()).setPort(request.getPort())
+                .setSlaveId(request.getSlaveId()).setAddress(address)
+                .setCompleted(value -> value == completedValue).setPending(pending);
+    }
+
+    /**
+     * 只读取一次寄存器，判断是否为期望的值；不独占柜子，柜子繁忙时由 {@link CabinetRegisterWatcher} 重试
+     */
+    private static CabinetRegisterWatch newCheck(ModbusRequest request, int address, int expectedValue) {
+        return newWatch(request, address, expectedValue, value -> false).setTimeout(Duration.ZERO)
+                .setExclusive(false);
+    }
+
+    /**
+     * 执行等待：超时、异常状态时返回 false；柜子繁忙、离线等其它异常，继续抛出
+     */
+    private CompletableFuture<Boolean> execute(CabinetRegisterWatch watch) {
+        return cabinetRegisterWatcher.watch(watch).handle((value, ex) -> {
+            if (ex == null) {
+                return true;
+            }
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof ServiceException && isWatchFailure((ServiceException) cause)) {
+                log.warn("[execute][{}]", cause.getMessage());
+                return false;
+            }
+            throw new CompletionException(cause);
+        });
+    }
+
+    private static boolean isWatchFailure(ServiceException ex) {
+        return CABINET_MODBUS_WATCH_TIMEOUT.getCode().equals(ex.getCode())
+                || CABINET_MODBUS_WATCH_UNEXPECTED.getCode().equals(ex.getCode());
+    }
+
+}
@@ -1,6 +1,7 @@
 package cn.iocoder.yudao.module.drone.service.cabinet;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.ObjUtil;
 import org.springframework.stereotype.Service;
 import javax.annotation.Resource;
 import org.springframework.validation.annotation.Validated;
@@ -16,6 +17,7 @@ import cn.iocoder.yudao.framework.common.util.object.BeanUtils;
 import cn.iocoder.yudao.framework.mybatis.core.query.LambdaQueryWrapperX;
 
 import cn.iocoder.yudao.module.drone.dal.mysql.cabinet.CabinetMapper;
+import cn.iocoder.yudao.module.drone.framework.modbus.core.CabinetModbusSessionManager;
 
 import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
 import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
@@ -34,6 +36,9 @@ public class CabinetServiceImpl implements CabinetService {
     @Resource
     private CabinetMapper cabinetMapper;
 
+    @Resource
+    private CabinetModbusSessionManager cabinetModbusSessionManager;
+
     @Override
     public Long createCabinet(CabinetSaveReqVO createReqVO) {
         // 校验柜子编号是否重复
@@ -51,39 +56,50 @@ public class CabinetServiceImpl implements CabinetService {
     @Override
     public void updateCabinet(CabinetSaveReqVO updateReqVO) {
         // 校验存在
-        validateCabinetExists(updateReqVO.getId());
+        CabinetDO cabinet = validateCabinetExists(updateReqVO.getId());
         // 更新
         CabinetDO updateObj = BeanUtils.toBean(updateReqVO, CabinetDO.class);
         cabinetMapper.updateById(updateObj);
+        // 地址变更时，关闭旧地址的 Modbus 连接
+        if (ObjUtil.notEqual(cabinet.getIp(), updateObj.getIp()) || ObjUtil.notEqual(cabinet.getPort(), updateObj.getPort())) {
+            cabinetModbusSessionManager.removeSession(cabinet.getIp(), cabinet.getPort());
+        }
     }
 
     @Override
     public void deleteCabinet(Long id) {
         // 校验存在
-        validateCabinetExists(id);
+        CabinetDO cabinet = validateCabinetExists(id);
         // 删除
         cabinetMapper.deleteById(id);
+        // 关闭 Modbus 连接
+        cabinetModbusSessionManager.removeSession(cabinet.getIp(), cabinet.getPort());
     }
 
     @Override
         public void deleteCabinetListByIds(List<Long> ids) {
         // 校验存在
-        validateCabinetExists(ids);
+        List<CabinetDO> cabinets = validateCabinetExists(ids);
         // 删除
         cabinetMapper.deleteByIds(ids);
+        // 关闭 Modbus 连接
+        cabinets.forEach(cabinet -> cabinetModbusSessionManager.removeSession(cabinet.getIp(), cabinet.getPort()));
         }
 
-    private void validateCabinetExists(List<Long> ids) {
+    private List<CabinetDO> validateCabinetExists(List<Long> ids) {
         List<CabinetDO> list = cabinetMapper.selectByIds(ids);
         if (CollUtil.isEmpty(list) || list.size() != ids.size()) {
             throw exception(CABINET_NOT_EXISTS);
         }
+        return list;
     }
 
-    private void validateCabinetExists(Long id) {
-        if (cabinetMapper.selectById(id) == null) {
+    private CabinetDO validateCabinetExists(Long id) {
+        CabinetDO cabinet = cabinetMapper.selectById(id);
+        if (cabinet == null) {
             throw exception(CABINET_NOT_EXISTS);
         }
+        return cabinet;
     }
 
     @Override
@@ -0,0 +1,369 @@
+package cn.iocoder.yudao.module.drone.framework.mavlink.core;
+
+import cn.hutool.core.io.IoUtil;
+import cn.iocoder.yudao.framework.common.exception.ErrorCode;
+import cn.iocoder.yudao.framework.common.exception.ServiceException;
+import cn.iocoder.yudao.module.drone.framework.mavlink.config.DroneMavlinkProperties;
+import io.dronefleet.mavlink.MavlinkConnection;
+import io.dronefleet.mavlink.MavlinkMessage;
+import io.dronefleet.mavlink.common.*;
+import io.dronefleet.mavlink.util.EnumValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+
+import static cn.iocoder.yudao.module.drone.enums.ErrorCodeConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link DroneMavlinkSession} 的单元测试，基于本地的 ServerSocket 模拟飞控
+ */
+public class DroneMavlinkSessionTest {
+
+    /**
+     * 飞控的系统编号，与 {@link DroneMavlinkProperties#getTargetSystem()} 一致
+     */
+    private static final int AUTOPILOT_SYSTEM_ID = 1;
+
+    private DroneMavlinkProperties properties;
+    private ScheduledExecutorService timeoutExecutor;
+    private FakeAutopilot autopilot;
+    private DroneMavlinkSession session;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        properties = new DroneMavlinkProperties();
+        properties.setCommandTimeout(Duration.ofMillis(200));
+        properties.setCommandRetries(2);
+        properties.setMissionTimeout(Duration.ofMillis(500));
+        properties.setReconnectInterval(Duration.ofMillis(500));
+        timeoutExecutor = Executors.newSingleThreadScheduledExecutor();
+        autopilot = new FakeAutopilot();
+        session = new DroneMavlinkSession("127.0.0.1", autopilot.getPort(), properties, timeoutExecutor);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        session.close();
+        autopilot.close();
+        timeoutExecutor.shutdownNow();
+    }
+
+    // ========== 遥测 ==========
+
+    @Test
+    public void testHeartbeat_telemetry() throws Exception {
+        // 调用：发送地面站心跳，建立连接
+        session.heartbeat();
+        assertEquals(MavType.MAV_TYPE_GCS, autopilot.expect(Heartbeat.class).type().entry());
+        assertTrue(session.isConnected());
+
+        // mock 数据：其它系统的位置需要忽略；飞控的心跳（已解锁）、位置
+        autopilot.send(2, GlobalPositionInt.builder().lat(1).lon(1).build());
+        autopilot.send(Heartbeat.builder().type(MavType.MAV_TYPE_QUADROTOR)
+                .autopilot(MavAutopilot.MAV_AUTOPILOT_PX4).baseMode(MavModeFlag.MAV_MODE_FLAG_SAFETY_ARMED)
+                .customMode(4).systemStatus(MavState.MAV_STATE_ACTIVE).mavlinkVersion(3).build());
+        autopilot.send(GlobalPositionInt.builder().lat(287904567).lon(1153875000).alt(50000)
+                .relativeAlt(10000).hdg(9000).build());
+        // 断言
+        waitUntil(() -> session.getTelemetry().getPositionTime() != null);
+        DroneTelemetry telemetry = session.getTelemetry();
+        assertNotNull(telemetry.getHeartbeatTime());
+        assertTrue(telemetry.getArmed());
+        assertEquals(4L, telemetry.getCustomMode());
+        assertEquals(EnumValue.of(MavState.MAV_STATE_ACTIVE).value(), telemetry.getSystemStatus());
+        assertEquals(287904567, telemetry.getLatitude());
+        assertEquals(1153875000, telemetry.getLongitude());
+        assertEquals(10000, telemetry.getRelativeAltitude());
+        assertEquals(9000, telemetry.getHeading());
+    }
+
+    // ========== 命令 ==========
+
+    @Test
+    public void testSendCommand_ackByCommand() throws Exception {
+        // 调用：同时发送两个命令
+        CompletableFuture<CommandAck> arm = session.sendCommand(MavCmd.MAV_CMD_COMPONENT_ARM_DISARM, 1);
+        CompletableFuture<CommandAck> takeoff = session.sendCommand(MavCmd.MAV_CMD_NAV_TAKEOFF_LOCAL,
+                0, 0, 0, 0, 0, 0, 50);
+        CommandLong armCommand = autopilot.expect(CommandLong.class);
+        assertEquals(MavCmd.MAV_CMD_COMPONENT_ARM_DISARM, armCommand.command().entry());
+        assertEquals(1F, armCommand.param1());
+        assertEquals(50F, autopilot.expect(CommandLong.class).param7());
+        // 断言：同一命令正在等待时，直接返回忙碌
+        assertServiceException(DRONE_MAVLINK_BUSY, session.sendCommand(MavCmd.MAV_CMD_COMPONENT_ARM_DISARM, 0));
+
+        // mock 数据：乱序响应，并夹杂未发送命令的响应
+        autopilot.send(commandAck(MavCmd.MAV_CMD_NAV_RETURN_TO_LAUNCH, MavResult.MAV_RESULT_ACCEPTED));
+        autopilot.send(commandAck(MavCmd.MAV_CMD_NAV_TAKEOFF_LOCAL, MavResult.MAV_RESULT_DENIED));
+        autopilot.send(commandAck(MavCmd.MAV_CMD_COMPONENT_ARM_DISARM, MavResult.MAV_RESULT_ACCEPTED));
+        // 断言：按照命令编号，完成各自的 future
+        assertEquals(MavResult.MAV_RESULT_ACCEPTED, arm.get(5, TimeUnit.SECONDS).result().entry());
+        assertEquals(MavResult.MAV_RESULT_DENIED, takeoff.get(5, TimeUnit.SECONDS).result().entry());
+    }
+
+    @Test
+    public void testSendCommand_retryAndInProgress() throws Exception {
+        // 调用
+        CompletableFuture<CommandAck> future = session.sendCommand(MavCmd.MAV_CMD_COMPONENT_ARM_DISARM, 1);
+        // mock 数据：第一次发送丢失，超时后递增 confirmation 重发
+        assertEquals(0, autopilot.expect(CommandLong.class).confirmation());
+        assertEquals(1, autopilot.expect(CommandLong.class).confirmation());
+        // mock 数据：执行中，总耗时超过命令超时时间后才完成
+        autopilot.send(commandAck(MavCmd.MAV_CMD_COMPONENT_ARM_DISARM, MavResult.MAV_RESULT_IN_PROGRESS));
+        Thread.sleep(150);
+        autopilot.send(commandAck(MavCmd.MAV_CMD_COMPONENT_ARM_DISARM, MavResult.MAV_RESULT_IN_PROGRESS));
+        Thread.sleep(150);
+        autopilot.send(commandAck(MavCmd.MAV_CMD_COMPONENT_ARM_DISARM, MavResult.MAV_RESULT_ACCEPTED));
+
+        // 断言：执行中延长等待时间，不再重发
+        assertEquals(MavResult.MAV_RESULT_ACCEPTED, future.get(5, TimeUnit.SECONDS).result().entry());
+        assertNull(autopilot.poll(CommandLong.class, 300));
+    }
+
+    @Test
+    public void testSendCommand_timeout() throws Exception {
+        // 调用：飞控始终不响应
+        CompletableFuture<CommandAck> future = session.sendCommand(MavCmd.MAV_CMD_NAV_RETURN_TO_LAUNCH);
+
+        // 断言：重发 commandRetries 次后超时
+        assertServiceException(DRONE_MAVLINK_COMMAND_TIMEOUT, future);
+        for (int confirmation = 0; confirmation <= properties.getCommandRetries(); confirmation++) {
+            assertEquals(confirmation, autopilot.expect(CommandLong.class).confirmation());
+        }
+        assertNull(autopilot.poll(CommandLong.class, 300));
+    }
+
+    // ========== 航线 ==========
+
+    @Test
+    public void testUploadMission_pipelined() throws Exception {
+        // 准备参数
+        List<MissionItemInt> items = buildItems(5);
+
+        // 调用
+        CompletableFuture<MavMissionResult> future = session.uploadMission(items);
+        // 断言：飞控请求任何航点之前，MISSION_COUNT 和全部航点已经发送
+        assertEquals(5, autopilot.expect(MissionCount.class).count());
+        for (int seq = 0; seq < items.size(); seq++) {
+            assertEquals(seq, autopilot.expect(MissionItemInt.class).seq());
+        }
+        // mock 数据：飞控逐个请求，已收到的航点不补发；重新请求航点 2，说明之前的丢失了
+        for (int seq = 0; seq < items.size(); seq++) {
+            autopilot.send(MissionRequestInt.builder().seq(seq).build());
+        }
+        autopilot.send(MissionRequestInt.builder().seq(2).build());
+        // 断言：只补发航点 2
+        assertEquals(2, autopilot.expect(MissionItemInt.class).seq());
+        assertNull(autopilot.poll(MissionItemInt.class, 100));
+
+        // mock 数据：航点乱序的 MISSION_ACK 不结束上传
+        autopilot.send(missionAck(MavMissionResult.MAV_MISSION_INVALID_SEQUENCE));
+        Thread.sleep(100);
+        assertFalse(future.isDone());
+        autopilot.send(missionAck(MavMissionResult.MAV_MISSION_ACCEPTED));
+        // 断言
+        assertEquals(MavMissionResult.MAV_MISSION_ACCEPTED, future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testUploadMission_timeout() throws Exception {
+        // 调用：飞控只请求了第一个航点
+        CompletableFuture<MavMissionResult> future = session.uploadMission(buildItems(3));
+        autopilot.expect(MissionCount.class);
+        autopilot.send(MissionRequestInt.builder().seq(0).build());
+
+        // 断言
+        assertServiceException(DRONE_MAVLINK_MISSION_TIMEOUT, future);
+    }
+
+    @Test
+    public void testDownloadMission() throws Exception {
+        // 调用
+        CompletableFuture<List<MissionItemInt>> future = session.downloadMission();
+        // 断言：MISSION_REQUEST_LIST 未响应时重发；下载中不允许上传
+        autopilot.expect(MissionRequestList.class);
+        assertServiceException(DRONE_MAVLINK_BUSY, session.uploadMission(buildItems(1)));
+        autopilot.expect(MissionRequestList.class);
+
+        // mock 数据：飞控有 2 个航点，逐个响应请求
+        List<MissionItemInt> items = buildItems(2);
+        autopilot.send(MissionCount.builder().count(items.size())
+                .missionType(MavMissionType.MAV_MISSION_TYPE_MISSION).build());
+        for (MissionItemInt item : items) {
+            assertEquals(item.seq(), autopilot.expect(MissionRequestInt.class).seq());
+            autopilot.send(item);
+        }
+        // 断言：收到全部航点后回复 MISSION_ACK
+        assertEquals(MavMissionResult.MAV_MISSION_ACCEPTED, autopilot.expect(MissionAck.class).type().entry());
+        List<MissionItemInt> result = future.get(5, TimeUnit.SECONDS);
+        assertEquals(2, result.size());
+        assertEquals(0, result.get(0).seq());
+        assertEquals(items.get(1).x(), result.get(1).x());
+    }
+
+    // ========== 连接 ==========
+
+    @Test
+    public void testDisconnect_failPending() throws Exception {
+        // 准备参数：超时足够长，只能由断开连接结束
+        properties.setCommandTimeout(Duration.ofSeconds(10));
+        properties.setMissionTimeout(Duration.ofSeconds(10));
+        CompletableFuture<CommandAck> command = session.sendCommand(MavCmd.MAV_CMD_COMPONENT_ARM_DISARM, 1);
+        CompletableFuture<MavMissionResult> upload = session.uploadMission(buildItems(2));
+        autopilot.expect(CommandLong.class);
+        autopilot.expect(MissionCount.class);
+
+        // 调用：飞控断开连接
+        long startTime = System.currentTimeMillis();
+        autopilot.closeClient();
+
+        // 断言：等待中的命令、航线上传立即以离线结束
+        assertServiceException(DRONE_MAVLINK_OFFLINE, command);
+        assertServiceException(DRONE_MAVLINK_OFFLINE, upload);
+        assertTrue(System.currentTimeMillis() - startTime < 5000);
+        waitUntil(() -> !session.isConnected());
+    }
+
+    @Test
+    public void testConnect_fastFail() throws Exception {
+        // 准备参数：飞控未启动的端口
+        int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        session.close();
+        session = new DroneMavlinkSession("127.0.0.1", port, properties, timeoutExecutor);
+
+        // 调用：连接失败
+        long startTime = System.currentTimeMillis();
+        assertServiceException(DRONE_MAVLINK_OFFLINE, session.sendCommand(MavCmd.MAV_CMD_COMPONENT_ARM_DISARM, 1));
+        // 断言：重连间隔内直接返回离线，不再尝试连接
+        assertServiceException(DRONE_MAVLINK_OFFLINE, session.sendCommand(MavCmd.MAV_CMD_COMPONENT_ARM_DISARM, 1));
+        assertTrue(System.currentTimeMillis() - startTime < properties.getReconnectInterval().toMillis());
+        assertFalse(session.isConnected());
+    }
+
+    private List<MissionItemInt> buildItems(int count) {
+        List<MissionItemInt> items = new ArrayList<>();
+        for (int seq = 0; seq < count; seq++) {
+            items.add(MissionItemInt.builder().seq(seq)
+                    .targetSystem(properties.getTargetSystem()).targetComponent(properties.getTargetComponent())
+                    .command(MavCmd.MAV_CMD_NAV_WAYPOINT).frame(MavFrame.MAV_FRAME_GLOBAL)
+                    .x(287904567 + seq).y(1153875000).z(100).autocontinue(1)
+                    .missionType(MavMissionType.MAV_MISSION_TYPE_MISSION).build());
+        }
+        return items;
+    }
+
+    private static CommandAck commandAck(MavCmd command, MavResult result) {
+        return CommandAck.builder().command(command).result(result).build();
+    }
+
+    private static MissionAck missionAck(MavMissionResult result) {
+        return MissionAck.builder().type(result).missionType(MavMissionType.MAV_MISSION_TYPE_MISSION).build();
+    }
+
+    private static void assertServiceException(ErrorCode errorCode, CompletableFuture<?> future) {
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        ServiceException cause = assertInstanceOf(ServiceException.class, ex.getCause());
+        assertEquals(errorCode.getCode(), cause.getCode());
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待条件超时");
+            Thread.sleep(10L);
+        }
+    }
+
+    /**
+     * 模拟飞控：接受一个连接，记录收到的消息，由测试按需发送响应
+     */
+    private static class FakeAutopilot {
+
+        private final ServerSocket serverSocket;
+        /**
+         * 收到的消息
+         */
+        private final BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        private volatile Socket client;
+        private volatile MavlinkConnection connection;
+        private final CountDownLatch accepted = new CountDownLatch(1);
+
+        private FakeAutopilot() throws IOException {
+            serverSocket = new ServerSocket(0);
+            Thread thread = new Thread(this::run, "fake-autopilot");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void run() {
+            try {
+                client = serverSocket.accept();
+                connection = MavlinkConnection.create(client.getInputStream(), client.getOutputStream());
+                accepted.countDown();
+                MavlinkMessage<?> message;
+                while ((message = connection.next()) != null) {
+                    received.add(message.getPayload());
+                }
+            } catch (IOException ignored) {
+                // 连接关闭
+            }
+        }
+
+        private void send(Object payload) throws Exception {
+            send(AUTOPILOT_SYSTEM_ID, payload);
+        }
+
+        private synchronized void send(int systemId, Object payload) throws Exception {
+            assertTrue(accepted.await(5, TimeUnit.SECONDS), "会话未连接");
+            connection.send2(systemId, 1, payload);
+        }
+
+        /**
+         * 等待收到指定类型的消息，跳过其它类型的消息
+         */
+        private <T> T expect(Class<T> type) throws InterruptedException {
+            T payload = poll(type, 5000);
+            assertNotNull(payload, "未收到 " + type.getSimpleName());
+            return payload;
+        }
+
+        private <T> T poll(Class<T> type, long timeoutMillis) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            for (long wait = timeoutMillis; wait > 0; wait = deadline - System.currentTimeMillis()) {
+                Object payload = received.poll(wait, TimeUnit.MILLISECONDS);
+                if (type.isInstance(payload)) {
+                    return type.cast(payload);
+                }
+            }
+            return null;
+        }
+
+        private void closeClient() {
+            IoUtil.close(client);
+        }
+
+        private void close() {
+            IoUtil.close(serverSocket);
+            closeClient();
+        }
+
+    }
+
+}
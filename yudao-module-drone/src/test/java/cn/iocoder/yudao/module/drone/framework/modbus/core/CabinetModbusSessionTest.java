@@ -0,0 +1,167 @@
+package cn.iocoder.yudao.module.drone.framework.modbus.core;
+
+import cn.iocoder.yudao.framework.common.exception.ServiceException;
+import cn.iocoder.yudao.module.drone.framework.modbus.config.DroneModbusProperties;
+import com.intelligt.modbus.jlibmodbus.exception.ModbusIOException;
+import com.intelligt.modbus.jlibmodbus.data.DataHolder;
+import com.intelligt.modbus.jlibmodbus.data.ModbusHoldingRegisters;
+import com.intelligt.modbus.jlibmodbus.slave.ModbusSlave;
+import com.intelligt.modbus.jlibmodbus.slave.ModbusSlaveFactory;
+import com.intelligt.modbus.jlibmodbus.tcp.TcpParameters;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.concurrent.*;
+
+import static cn.iocoder.yudao.module.drone.enums.ErrorCodeConstants.CABINET_MODBUS_BUSY;
+import static cn.iocoder.yudao.module.drone.enums.ErrorCodeConstants.CABINET_MODBUS_OFFLINE;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link CabinetModbusSession} 的单元测试，基于本地的 jlibmodbus TCP 从站模拟柜子
+ */
+public class CabinetModbusSessionTest {
+
+    private static final int SLAVE_ID = 1;
+
+    private DroneModbusProperties properties;
+    private int port;
+    /**
+     * 模拟柜子的 Modbus 从站，为空表示未启动
+     */
+    private ModbusSlave slave;
+    private CabinetModbusSession session;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        properties = new DroneModbusProperties();
+        properties.setResponseTimeout(Duration.ofMillis(500));
+        properties.setReconnectInterval(Duration.ofMillis(500));
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        session = new CabinetModbusSession("127.0.0.1", port, properties);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        session.close();
+        stopSlave();
+    }
+
+    @Test
+    public void testExecute_reuseConnection() throws Exception {
+        // mock 数据
+        startSlave();
+        slave.getDataHolder().getInputRegisters().set(10, 11);
+
+        // 调用：写入保持寄存器，并读取输入寄存器
+        int value = session.execute(SLAVE_ID, (master, slaveId) -> {
+            master.writeSingleRegister(slaveId, 20, 10);
+            return master.readInputRegisters(slaveId, 10, 1)[0];
+        });
+        // 断言
+        assertEquals(11, value);
+        assertEquals(10, slave.getDataHolder().getHoldingRegisters().get(20));
+        assertTrue(session.isConnected());
+        // 调用：第二次复用同一个连接
+        CompletableFuture<Object> masterFuture = new CompletableFuture<>();
+        session.execute(SLAVE_ID, (master, slaveId) -> masterFuture.complete(master));
+        assertSame(masterFuture.get(), session.execute(SLAVE_ID, (master, slaveId) -> master));
+    }
+
+    @Test
+    public void testExecute_lockTimeout() throws Exception {
+        // mock 数据：另一个操作占用柜子
+        properties.setLockTimeout(Duration.ofMillis(100));
+        startSlave();
+        CountDownLatch executing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> other = executor.submit(() -> session.execute(SLAVE_ID, (master, slaveId) -> {
+                executing.countDown();
+                return release.await(5, TimeUnit.SECONDS);
+            }));
+            assertTrue(executing.await(5, TimeUnit.SECONDS));
+
+            // 调用：等待超过 lockTimeout，返回柜子繁忙
+            long startTime = System.currentTimeMillis();
+            ServiceException ex = assertThrows(ServiceException.class, () -> session.execute(SLAVE_ID,
+                    (master, slaveId) -> fail("不应该执行")));
+            // 断言
+            assertEquals(CABINET_MODBUS_BUSY.getCode(), ex.getCode());
+            assertTrue(System.currentTimeMillis() - startTime >= 90);
+            release.countDown();
+            assertTrue(other.get(5, TimeUnit.SECONDS));
+            // 断言：另一个操作完成后，可以继续执行
+            Boolean success = session.execute(SLAVE_ID, (master, slaveId) -> true);
+            assertTrue(success);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExecute_reconnectWindow() throws Exception {
+        // 调用：柜子未启动，连接失败
+        ServiceException ex = assertThrows(ServiceException.class,
+                () -> session.execute(SLAVE_ID, (master, slaveId) -> 1));
+        assertEquals(CABINET_MODBUS_OFFLINE.getCode(), ex.getCode());
+
+        // 调用：柜子启动后，重连间隔内仍直接返回离线，不尝试连接
+        startSlave();
+        long startTime = System.currentTimeMillis();
+        ex = assertThrows(ServiceException.class, () -> session.execute(SLAVE_ID, (master, slaveId) -> 1));
+        assertEquals(CABINET_MODBUS_OFFLINE.getCode(), ex.getCode());
+        assertTrue(System.currentTimeMillis() - startTime < properties.getReconnectInterval().toMillis());
+        assertFalse(session.isConnected());
+
+        // 调用：超过重连间隔后，重新连接
+        Thread.sleep(properties.getReconnectInterval().toMillis() + 50);
+        Boolean success = session.execute(SLAVE_ID, (master, slaveId) -> true);
+        assertTrue(success);
+        assertTrue(session.isConnected());
+    }
+
+    @Test
+    public void testExecute_ioExceptionDisconnect() throws Exception {
+        // mock 数据
+        startSlave();
+        session.execute(SLAVE_ID, (master, slaveId) -> master.readInputRegisters(slaveId, 0, 1));
+
+        // 调用：柜子断开后，通信异常
+        stopSlave();
+        assertThrows(ModbusIOException.class, () -> session.execute(SLAVE_ID,
+                (master, slaveId) -> master.readInputRegisters(slaveId, 0, 1)));
+        // 断言：断开连接，由后续的请求或者心跳重连
+        assertFalse(session.isConnected());
+        startSlave();
+        session.healthCheck();
+        assertTrue(session.isConnected());
+    }
+
+    private void startSlave() throws Exception {
+        slave = ModbusSlaveFactory.createModbusSlaveTCP(new TcpParameters(
+                InetAddress.getByName("127.0.0.1"), port, true));
+        slave.setServerAddress(SLAVE_ID);
+        DataHolder dataHolder = new DataHolder();
+        dataHolder.setHoldingRegisters(new ModbusHoldingRegisters(100));
+        dataHolder.setInputRegisters(new ModbusHoldingRegisters(100));
+        slave.setDataHolder(dataHolder);
+        slave.listen();
+    }
+
+    private void stopSlave() throws Exception {
+        if (slave != null) {
+            slave.shutdown();
+            slave = null;
+        }
+    }
+
+}
@@ -0,0 +1,235 @@
+package cn.iocoder.yudao.module.drone.framework.modbus.core;
+
+import cn.iocoder.yudao.framework.common.exception.ServiceException;
+import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
+import cn.iocoder.yudao.module.drone.framework.modbus.config.DroneModbusProperties;
+import com.intelligt.modbus.jlibmodbus.master.ModbusMaster;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
+import static cn.iocoder.yudao.module.drone.enums.ErrorCodeConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link CabinetRegisterWatcher} 的单元测试
+ */
+public class CabinetRegisterWatcherTest extends BaseMockitoUnitTest {
+
+    private static final String HOST = "127.0.0.1";
+    private static final int PORT = 502;
+    private static final int SLAVE_ID = 1;
+    private static final int ADDRESS = 0xBB9;
+
+    @Mock
+    private CabinetModbusSessionManager sessionManager;
+    @Mock
+    private ModbusMaster master;
+
+    private DroneModbusProperties properties;
+    private CabinetRegisterWatcher watcher;
+
+    /**
+     * 每次读取寄存器的时间（纳秒）
+     */
+    private final List<Long> readTimes = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        properties = new DroneModbusProperties();
+        properties.getWatch().setMinInterval(Duration.ofMillis(50));
+        properties.getWatch().setMaxInterval(Duration.ofMillis(400));
+        properties.getWatch().setTimeout(Duration.ofSeconds(5));
+        watcher = new CabinetRegisterWatcher(sessionManager, properties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        watcher.stop();
+    }
+
+    @Test
+    public void testWatch_writeThenRead() throws Exception {
+        // mock 方法：读取到的值，已经是完成状态
+        mockExecute();
+        List<Long> writeTimes = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> writeTimes.add(System.nanoTime())).when(master)
+                .writeSingleRegister(anyInt(), anyInt(), anyInt());
+        mockRead(11);
+
+        // 调用
+        CompletableFuture<Integer> future = watcher.watch(newWatch().addWrite(ADDRESS, 10).addWrite(ADDRESS + 1, 3));
+        // 断言：先依次写入，间隔一次轮询后再读取，不会读到写入前的旧值
+        assertEquals(11, future.get(5, TimeUnit.SECONDS));
+        InOrder inOrder = inOrder(master);
+        inOrder.verify(master).writeSingleRegister(eq(SLAVE_ID), eq(ADDRESS), eq(10));
+        inOrder.verify(master).writeSingleRegister(eq(SLAVE_ID), eq(ADDRESS + 1), eq(3));
+        inOrder.verify(master).readInputRegisters(eq(SLAVE_ID), eq(ADDRESS), eq(1));
+        assertTrue(readTimes.get(0) - writeTimes.get(1) >= TimeUnit.MILLISECONDS.toNanos(40));
+        verify(sessionManager, times(2)).execute(eq(HOST), eq(PORT), eq(SLAVE_ID), eq(Duration.ZERO), any());
+    }
+
+    @Test
+    public void testWatch_backoff() throws Exception {
+        // mock 方法：值未变化时，间隔逐步翻倍；变化后，恢复为最小间隔
+        mockExecute();
+        mockRead(10, 10, 10, 10, 10, 12, 12, 11);
+
+        // 调用
+        CompletableFuture<Integer> future = watcher.watch(newWatch());
+        // 断言
+        assertEquals(11, future.get(5, TimeUnit.SECONDS));
+        assertEquals(8, readTimes.size());
+        long[] expectedIntervals = {50, 100, 200, 400, 400, 50, 100};
+        for (int i = 0; i < expectedIntervals.length; i++) {
+            long interval = TimeUnit.NANOSECONDS.toMillis(readTimes.get(i + 1) - readTimes.get(i));
+            assertTrue(interval >= expectedIntervals[i] - 10,
+                    "第 " + (i + 1) + " 次间隔 " + interval + " 毫秒，期望 " + expectedIntervals[i] + " 毫秒");
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(readTimes.get(6) - readTimes.get(5)) < 300);
+    }
+
+    @Test
+    public void testWatch_busyRetry() throws Exception {
+        // mock 方法：第一次柜子繁忙，下次再试
+        when(sessionManager.execute(eq(HOST), eq(PORT), eq(SLAVE_ID), eq(Duration.ZERO), any()))
+                .thenThrow(exception(CABINET_MODBUS_BUSY, HOST, PORT))
+                .thenAnswer(invocation -> invocation.<ModbusCallback<?>>getArgument(4).execute(master, SLAVE_ID));
+        mockRead(11);
+
+        // 调用
+        CompletableFuture<Integer> future = watcher.watch(newWatch());
+        // 断言
+        assertEquals(11, future.get(5, TimeUnit.SECONDS));
+        verify(sessionManager, times(2)).execute(eq(HOST), eq(PORT), eq(SLAVE_ID), eq(Duration.ZERO), any());
+    }
+
+    @Test
+    public void testWatch_offline() throws Exception {
+        // mock 方法：柜子离线，直接结束
+        when(sessionManager.execute(eq(HOST), eq(PORT), eq(SLAVE_ID), eq(Duration.ZERO), any()))
+                .thenThrow(exception(CABINET_MODBUS_OFFLINE, HOST, PORT));
+
+        // 调用，并断言
+        assertServiceException(CABINET_MODBUS_OFFLINE.getCode(), watcher.watch(newWatch()));
+        verify(sessionManager, times(1)).execute(eq(HOST), eq(PORT), eq(SLAVE_ID), eq(Duration.ZERO), any());
+    }
+
+    @Test
+    public void testWatch_timeout() throws Exception {
+        // mock 方法：一直处于等待中的状态
+        mockExecute();
+        mockRead(10);
+
+        // 调用
+        long startTime = System.nanoTime();
+        CompletableFuture<Integer> future = watcher.watch(newWatch().setTimeout(Duration.ofMillis(300)));
+        // 断言
+        assertServiceException(CABINET_MODBUS_WATCH_TIMEOUT.getCode(), future);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) >= 290);
+    }
+
+    @Test
+    public void testWatch_unexpected() throws Exception {
+        // mock 方法：既不是完成，也不是等待中的状态
+        mockExecute();
+        mockRead(10, 30);
+
+        // 调用，并断言
+        assertServiceException(CABINET_MODBUS_WATCH_UNEXPECTED.getCode(),
+                watcher.watch(newWatch().setPending(value -> value == 10)));
+        assertEquals(2, readTimes.size());
+    }
+
+    @Test
+    public void testWatch_exclusive() throws Exception {
+        // mock 方法：第一个操作一直处于等待中的状态
+        mockExecute();
+        mockRead(10);
+        CompletableFuture<Integer> future1 = watcher.watch(newWatch().addWrite(ADDRESS, 10)
+                .setTimeout(Duration.ofMillis(300)));
+
+        // 调用：同一柜子的另一个操作，直接返回柜子繁忙；只读取的检查，不受影响
+        assertServiceException(CABINET_MODBUS_BUSY.getCode(), watcher.watch(newWatch().addWrite(ADDRESS, 20)));
+        assertServiceException(CABINET_MODBUS_WATCH_TIMEOUT.getCode(), watcher.watch(newWatch()
+                .setTimeout(Duration.ZERO).setExclusive(false)));
+        // 断言：第一个操作结束后，可以执行下一个操作
+        assertServiceException(CABINET_MODBUS_WATCH_TIMEOUT.getCode(), future1);
+        CompletableFuture<Integer> future2 = future1.handle((value, ex) -> null)
+                .thenCompose(ignored -> watcher.watch(newWatch().setTimeout(Duration.ofMillis(100))));
+        assertServiceException(CABINET_MODBUS_WATCH_TIMEOUT.getCode(), future2);
+    }
+
+    @Test
+    public void testWatch_checkBusyRetry() throws Exception {
+        // mock 方法：前两次柜子繁忙
+        when(sessionManager.execute(eq(HOST), eq(PORT), eq(SLAVE_ID), eq(Duration.ZERO), any()))
+                .thenThrow(exception(CABINET_MODBUS_BUSY, HOST, PORT))
+                .thenThrow(exception(CABINET_MODBUS_BUSY, HOST, PORT))
+                .thenAnswer(invocation -> invocation.<ModbusCallback<?>>getArgument(4).execute(master, SLAVE_ID));
+        mockRead(11);
+
+        // 调用：只读取一次的检查
+        CompletableFuture<Integer> future = watcher.watch(newWatch().setTimeout(Duration.ZERO).setExclusive(false));
+        // 断言：柜子繁忙时重试，直到读取到寄存器
+        assertEquals(11, future.get(5, TimeUnit.SECONDS));
+        verify(sessionManager, times(3)).execute(eq(HOST), eq(PORT), eq(SLAVE_ID), eq(Duration.ZERO), any());
+    }
+
+    @Test
+    public void testWatch_checkBusyTimeout() throws Exception {
+        // mock 方法：柜子一直繁忙
+        properties.setLockTimeout(Duration.ofMillis(200));
+        watcher.stop();
+        watcher = new CabinetRegisterWatcher(sessionManager, properties);
+        when(sessionManager.execute(eq(HOST), eq(PORT), eq(SLAVE_ID), eq(Duration.ZERO), any()))
+                .thenThrow(exception(CABINET_MODBUS_BUSY, HOST, PORT));
+
+        // 调用
+        long startTime = System.nanoTime();
+        CompletableFuture<Integer> future = watcher.watch(newWatch().setTimeout(Duration.ZERO).setExclusive(false));
+        // 断言：超过 lockTimeout 后，返回柜子繁忙，而不是等待超时
+        assertServiceException(CABINET_MODBUS_BUSY.getCode(), future);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) >= 190);
+    }
+
+    private CabinetRegisterWatch newWatch() {
+        return new CabinetRegisterWatch().setHost(HOST).setPort(PORT).setSlaveId(SLAVE_ID)
+                .setAddress(ADDRESS).setCompleted(value -> value == 11);
+    }
+
+    private void mockExecute() throws Exception {
+        when(sessionManager.execute(eq(HOST), eq(PORT), eq(SLAVE_ID), eq(Duration.ZERO), any()))
+                .thenAnswer(invocation -> invocation.<ModbusCallback<?>>getArgument(4).execute(master, SLAVE_ID));
+    }
+
+    /**
+     * 依次返回读取到的值，最后一个值一直重复
+     */
+    private void mockRead(int... values) throws Exception {
+        when(master.readInputRegisters(eq(SLAVE_ID), eq(ADDRESS), eq(1))).thenAnswer(invocation -> {
+            int index = Math.min(readTimes.size(), values.length - 1);
+            readTimes.add(System.nanoTime());
+            return new int[]{values[index]};
+        });
+    }
+
+    private static void assertServiceException(Integer code, CompletableFuture<Integer> future) throws Exception {
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ServiceException.class, ex.getCause());
+        assertEquals(code, ((ServiceException) ex.getCause()).getCode());
+    }
+
+}
@@ -1,8 +1,8 @@
 package cn.iocoder.yudao.module.infra.controller.admin.logger;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.iocoder.yudao.framework.apilog.core.annotation.ApiAccessLog;
 import cn.iocoder.yudao.framework.common.pojo.CommonResult;
-import cn.iocoder.yudao.framework.common.pojo.PageParam;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.framework.common.util.object.BeanUtils;
 import cn.iocoder.yudao.framework.excel.core.util.ExcelUtils;
@@ -50,11 +50,17 @@ public class ApiAccessLogController {
     @ApiAccessLog(operateType = EXPORT)
     public void exportApiAccessLogExcel(@Valid ApiAccessLogPageReqVO exportReqVO,
                                         HttpServletResponse response) throws IOException {
-        exportReqVO.setPageSize(PageParam.PAGE_SIZE_NONE);
-        List<ApiAccessLogDO> list = apiAccessLogService.getApiAccessLogPage(exportReqVO).getList();
-        // 导出 Excel
+        // 导出 Excel：访问日志数据量较大，游标分批查询 + 流式写入
+        exportReqVO.setPageSize(ExcelUtils.STREAM_PAGE_SIZE_DEFAULT);
+        exportReqVO.setSearchCount(false);
         ExcelUtils.write(response, "API 访问日志.xls", "数据", ApiAccessLogRespVO.class,
-                BeanUtils.toBean(list, ApiAccessLogRespVO.class));
+                ExcelUtils.STREAM_PAGE_SIZE_DEFAULT, pageNo -> {
+                    List<ApiAccessLogDO> list = apiAccessLogService.getApiAccessLogPage(exportReqVO).getList();
+                    if (CollUtil.isNotEmpty(list)) {
+                        exportReqVO.setLastId(CollUtil.getLast(list).getId());
+                    }
+                    return BeanUtils.toBean(list, ApiAccessLogRespVO.class);
+                });
     }
 
 }
@@ -1,8 +1,8 @@
 package cn.iocoder.yudao.module.infra.controller.admin.logger;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.iocoder.yudao.framework.apilog.core.annotation.ApiAccessLog;
 import cn.iocoder.yudao.framework.common.pojo.CommonResult;
-import cn.iocoder.yudao.framework.common.pojo.PageParam;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.framework.common.util.object.BeanUtils;
 import cn.iocoder.yudao.framework.excel.core.util.ExcelUtils;
@@ -64,11 +64,17 @@ public class ApiErrorLogController {
     @ApiAccessLog(operateType = EXPORT)
     public void exportApiErrorLogExcel(@Valid ApiErrorLogPageReqVO exportReqVO,
                                        HttpServletResponse response) throws IOException {
-        exportReqVO.setPageSize(PageParam.PAGE_SIZE_NONE);
-        List<ApiErrorLogDO> list = apiErrorLogService.getApiErrorLogPage(exportReqVO).getList();
-        // 导出 Excel
+        // 导出 Excel：游标分批查询 + 流式写入
+        exportReqVO.setPageSize(ExcelUtils.STREAM_PAGE_SIZE_DEFAULT);
+        exportReqVO.setSearchCount(false);
         ExcelUtils.write(response, "API 错误日志.xls", "数据", ApiErrorLogRespVO.class,
-                BeanUtils.toBean(list, ApiErrorLogRespVO.class));
+                ExcelUtils.STREAM_PAGE_SIZE_DEFAULT, pageNo -> {
+                    List<ApiErrorLogDO> list = apiErrorLogService.getApiErrorLogPage(exportReqVO).getList();
+                    if (CollUtil.isNotEmpty(list)) {
+                        exportReqVO.setLastId(CollUtil.getLast(list).getId());
+                    }
+                    return BeanUtils.toBean(list, ApiErrorLogRespVO.class);
+                });
     }
 
 }
@@ -20,16 +20,16 @@ import java.time.LocalDateTime;
 public interface ApiAccessLogMapper extends BaseMapperX<ApiAccessLogDO> {
 
     default PageResult<ApiAccessLogDO> selectPage(ApiAccessLogPageReqVO reqVO) {
-        return selectPage(reqVO, new LambdaQueryWrapperX<ApiAccessLogDO>()
+        LambdaQueryWrapperX<ApiAccessLogDO> query = new LambdaQueryWrapperX<ApiAccessLogDO>()
                 .eqIfPresent(ApiAccessLogDO::getUserId, reqVO.getUserId())
                 .eqIfPresent(ApiAccessLogDO::getUserType, reqVO.getUserType())
                 .eqIfPresent(ApiAccessLogDO::getApplicationName, reqVO.getApplicationName())
                 .likeIfPresent(ApiAccessLogDO::getRequestUrl, reqVO.getRequestUrl())
                 .betweenIfPresent(ApiAccessLogDO::getBeginTime, reqVO.getBeginTime())
                 .geIfPresent(ApiAccessLogDO::getDuration, reqVO.getDuration())
-                .eqIfPresent(ApiAccessLogDO::getResultCode, reqVO.getResultCode())
-                .orderByDesc(ApiAccessLogDO::getId)
-        );
+                .eqIfPresent(ApiAccessLogDO::getResultCode, reqVO.getResultCode());
+        // 第一页、传入 lastId 时，使用游标分页，避免访问日志的深分页越来越慢
+        return selectCursorOrOffsetPage(reqVO, ApiAccessLogDO::getId, query);
     }
 
     /**
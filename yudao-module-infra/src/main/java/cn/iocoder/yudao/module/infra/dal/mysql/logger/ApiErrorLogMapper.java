@@ -20,15 +20,14 @@ import java.time.LocalDateTime;
 public interface ApiErrorLogMapper extends BaseMapperX<ApiErrorLogDO> {
 
     default PageResult<ApiErrorLogDO> selectPage(ApiErrorLogPageReqVO reqVO) {
-        return selectPage(reqVO, new LambdaQueryWrapperX<ApiErrorLogDO>()
+        // 按照编号降序；第一页、传入 lastId 时，使用游标分页
+        return selectCursorOrOffsetPage(reqVO, ApiErrorLogDO::getId, new LambdaQueryWrapperX<ApiErrorLogDO>()
                 .eqIfPresent(ApiErrorLogDO::getUserId, reqVO.getUserId())
                 .eqIfPresent(ApiErrorLogDO::getUserType, reqVO.getUserType())
                 .eqIfPresent(ApiErrorLogDO::getApplicationName, reqVO.getApplicationName())
                 .likeIfPresent(ApiErrorLogDO::getRequestUrl, reqVO.getRequestUrl())
                 .betweenIfPresent(ApiErrorLogDO::getExceptionTime, reqVO.getExceptionTime())
-                .eqIfPresent(ApiErrorLogDO::getProcessStatus, reqVO.getProcessStatus())
-                .orderByDesc(ApiErrorLogDO::getId)
-        );
+                .eqIfPresent(ApiErrorLogDO::getProcessStatus, reqVO.getProcessStatus()));
     }
 
     /**
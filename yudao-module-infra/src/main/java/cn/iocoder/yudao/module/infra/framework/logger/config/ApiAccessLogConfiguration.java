@@ -0,0 +1,14 @@
+package cn.iocoder.yudao.module.infra.framework.logger.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * API 访问日志的配置类
+ *
+ * @author 芋道源码
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ApiAccessLogProperties.class)
+public class ApiAccessLogConfiguration {
+}
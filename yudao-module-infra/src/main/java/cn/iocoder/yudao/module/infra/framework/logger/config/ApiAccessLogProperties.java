@@ -0,0 +1,71 @@
+package cn.iocoder.yudao.module.infra.framework.logger.config;
+
+import cn.iocoder.yudao.framework.common.core.BufferedBatchWriter;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * API 访问日志的配置项
+ *
+ * @author 芋道源码
+ */
+@ConfigurationProperties(prefix = "yudao.access-log")
+@Validated
+@Data
+public class ApiAccessLogProperties {
+
+    /**
+     * 批量写入的配置
+     */
+    @Valid
+    private Batch batch = new Batch();
+
+    @Data
+    public static class Batch {
+
+        /**
+         * 是否开启批量写入；关闭时，每条访问日志单独 insert
+         */
+        @NotNull(message = "是否开启批量写入不能为空")
+        private Boolean enable = true;
+        /**
+         * 缓冲队列的容量
+         */
+        @NotNull(message = "缓冲队列的容量不能为空")
+        private Integer capacity = 10000;
+        /**
+         * 每批最大数量
+         */
+        @NotNull(message = "每批最大数量不能为空")
+        private Integer batchSize = 200;
+        /**
+         * 最大攒批时长
+         */
+        @NotNull(message = "最大攒批时长不能为空")
+        private Duration flushInterval = Duration.ofSeconds(1L);
+        /**
+         * 队列满时的溢出策略
+         */
+        @NotNull(message = "溢出策略不能为空")
+        private BufferedBatchWriter.OverflowPolicy overflowPolicy = BufferedBatchWriter.OverflowPolicy.DROP;
+        /**
+         * 采样率，仅 SAMPLE 溢出策略使用
+         */
+        private Double sampleRate = 0.1D;
+        /**
+         * 最大阻塞时长，仅 BLOCK 溢出策略使用
+         */
+        private Duration blockTimeout = Duration.ofMillis(100L);
+        /**
+         * 关闭时，等待剩余日志写入的最大时长
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(10L);
+
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * API 日志的写入，例如说：访问日志的批量写入
+ */
+package cn.iocoder.yudao.module.infra.framework.logger;
@@ -1,6 +1,9 @@
 package cn.iocoder.yudao.module.infra.service.logger;
 
+import cn.hutool.core.util.BooleanUtil;
 import cn.iocoder.yudao.framework.common.biz.infra.logger.dto.ApiAccessLogCreateReqDTO;
+import cn.iocoder.yudao.framework.common.core.BufferedBatchWriter;
+import cn.iocoder.yudao.framework.common.core.KeyValue;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.framework.common.util.object.BeanUtils;
 import cn.iocoder.yudao.framework.common.util.string.StrUtils;
@@ -9,12 +12,23 @@ import cn.iocoder.yudao.framework.tenant.core.util.TenantUtils;
 import cn.iocoder.yudao.module.infra.controller.admin.logger.vo.apiaccesslog.ApiAccessLogPageReqVO;
 import cn.iocoder.yudao.module.infra.dal.dataobject.logger.ApiAccessLogDO;
 import cn.iocoder.yudao.module.infra.dal.mysql.logger.ApiAccessLogMapper;
+import cn.iocoder.yudao.module.infra.framework.logger.config.ApiAccessLogProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static cn.iocoder.yudao.module.infra.dal.dataobject.logger.ApiAccessLogDO.REQUEST_PARAMS_MAX_LENGTH;
 import static cn.iocoder.yudao.module.infra.dal.dataobject.logger.ApiAccessLogDO.RESULT_MSG_MAX_LENGTH;
@@ -32,11 +46,57 @@ public class ApiAccessLogServiceImpl implements ApiAccessLogService {
     @Resource
     private ApiAccessLogMapper apiAccessLogMapper;
 
+    @Resource
+    private ApiAccessLogProperties apiAccessLogProperties;
+    @Autowired(required = false) // 未引入 Micrometer 监控时，不强制注入
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 访问日志的批量写入器，KEY 为租户编号
+     *
+     * 为空时，表示未开启批量写入
+     */
+    private BufferedBatchWriter<KeyValue<Long, ApiAccessLogDO>> batchWriter;
+
+    @PostConstruct
+    public void initBatchWriter() {
+        ApiAccessLogProperties.Batch batch = apiAccessLogProperties.getBatch();
+        if (BooleanUtil.isFalse(batch.getEnable())) {
+            return;
+        }
+        batchWriter = new BufferedBatchWriter<>("api-access-log", batch.getCapacity(), batch.getBatchSize(),
+                batch.getFlushInterval(), batch.getOverflowPolicy(), batch.getSampleRate(), batch.getBlockTimeout(),
+                this::insertApiAccessLogBatch);
+        if (meterRegistry != null) {
+            Gauge.builder("infra.api-access-log.batch.queued", batchWriter, BufferedBatchWriter::getQueueSize)
+                    .description("访问日志待写入的数量").register(meterRegistry);
+            FunctionCounter.builder("infra.api-access-log.batch.dropped", batchWriter, BufferedBatchWriter::getDroppedCount)
+                    .description("访问日志被丢弃的数量").register(meterRegistry);
+            FunctionCounter.builder("infra.api-access-log.batch.flushed", batchWriter, BufferedBatchWriter::getFlushedCount)
+                    .description("访问日志写入成功的数量").register(meterRegistry);
+            FunctionCounter.builder("infra.api-access-log.batch.failed", batchWriter, BufferedBatchWriter::getFailedCount)
+                    .description("访问日志写入失败的数量").register(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    public void destroyBatchWriter() {
+        if (batchWriter != null) {
+            batchWriter.shutdown(apiAccessLogProperties.getBatch().getShutdownTimeout());
+        }
+    }
+
     @Override
     public void createApiAccessLog(ApiAccessLogCreateReqDTO createDTO) {
         ApiAccessLogDO apiAccessLog = BeanUtils.toBean(createDTO, ApiAccessLogDO.class);
         apiAccessLog.setRequestParams(StrUtils.maxLength(apiAccessLog.getRequestParams(), REQUEST_PARAMS_MAX_LENGTH));
         apiAccessLog.setResultMsg(StrUtils.maxLength(apiAccessLog.getResultMsg(), RESULT_MSG_MAX_LENGTH));
+        // 情况一：开启批量写入，放入缓冲队列，由后台线程批量 insert
+        if (batchWriter != null) {
+            batchWriter.offer(new KeyValue<>(TenantContextHolder.getTenantId(), apiAccessLog));
+            return;
+        }
+        // 情况二：未开启批量写入，直接 insert
         if (TenantContextHolder.getTenantId() != null) {
             apiAccessLogMapper.insert(apiAccessLog);
         } else {
@@ -45,6 +105,26 @@ public class ApiAccessLogServiceImpl implements ApiAccessLogService {
         }
     }
 
+    /**
+     * 批量插入访问日志，按照租户分组后 insertBatch
+     *
+     * @param accessLogs 访问日志数组，KEY 为租户编号
+     */
+    private void insertApiAccessLogBatch(List<KeyValue<Long, ApiAccessLogDO>> accessLogs) {
+        // 不使用 convertMultiMap 方法，因为租户编号可能为空
+        Map<Long, List<ApiAccessLogDO>> tenantAccessLogs = new HashMap<>();
+        accessLogs.forEach(accessLog -> tenantAccessLogs.computeIfAbsent(accessLog.getKey(), key -> new ArrayList<>())
+                .add(accessLog.getValue()));
+        tenantAccessLogs.forEach((tenantId, list) -> {
+            if (tenantId != null) {
+                TenantUtils.execute(tenantId, () -> apiAccessLogMapper.insertBatch(list));
+            } else {
+                // 极端情况下，上下文中没有租户时，此时忽略租户上下文，避免插入失败！
+                TenantUtils.executeIgnore(() -> apiAccessLogMapper.insertBatch(list));
+            }
+        });
+    }
+
     @Override
     public PageResult<ApiAccessLogDO> getApiAccessLogPage(ApiAccessLogPageReqVO pageReqVO) {
         return apiAccessLogMapper.selectPage(pageReqVO);
@@ -0,0 +1,123 @@
+package cn.iocoder.yudao.module.infra.dal.mysql.logger;
+
+import cn.iocoder.yudao.framework.test.core.ut.BaseDbUnitTest;
+import cn.iocoder.yudao.module.infra.dal.dataobject.logger.ApiAccessLogDO;
+import com.baomidou.mybatisplus.extension.toolkit.Db;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.randomPojo;
+
+/**
+ * {@link ApiAccessLogMapper#insertBatch} 的 JMH 基准测试：对比「多行 VALUES」和「Db.saveBatch 逐条 INSERT」的耗时
+ *
+ * 运行方式：直接执行 {@link #main(String[])} 方法
+ * 1. 默认基于单元测试的 H2 内存数据库，几乎没有网络往返，只能对比两者的 CPU 开销
+ * 2. 通过 -Dbenchmark.datasource.url、-Dbenchmark.datasource.username、-Dbenchmark.datasource.password
+ *    指定 MySQL 等真实数据库（需要已存在 infra_api_access_log 表），才能体现网络往返的差异。
+ *    对照组：url 带上 rewriteBatchedStatements=true 时，MySQL 驱动会把 saveBatch 改写成多行 VALUES
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2) // 预热：JIT、连接池、MyBatis 的 MappedStatement 缓存
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiAccessLogMapperInsertBatchBenchmark {
+
+    /**
+     * 每次插入的数量
+     */
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    /**
+     * 外部数据源的系统属性前缀
+     */
+    private static final String DATASOURCE_PROPERTY_PREFIX = "benchmark.datasource.";
+
+    private ConfigurableApplicationContext context;
+    private ApiAccessLogMapper apiAccessLogMapper;
+    private JdbcTemplate jdbcTemplate;
+
+    private List<ApiAccessLogDO> accessLogs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(BaseDbUnitTest.Application.class)
+                .web(WebApplicationType.NONE).profiles("unit-test");
+        String url = System.getProperty(DATASOURCE_PROPERTY_PREFIX + "url");
+        if (url != null) {
+            builder.properties("spring.datasource.url=" + url,
+                    "spring.datasource.driver-class-name=",
+                    "spring.datasource.username=" + System.getProperty(DATASOURCE_PROPERTY_PREFIX + "username", ""),
+                    "spring.datasource.password=" + System.getProperty(DATASOURCE_PROPERTY_PREFIX + "password", ""),
+                    "spring.sql.init.mode=never"); // 真实数据库，不执行 H2 的建表脚本
+        }
+        context = builder.run();
+        apiAccessLogMapper = context.getBean(ApiAccessLogMapper.class);
+        jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+        accessLogs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            accessLogs.add(randomPojo(ApiAccessLogDO.class, o -> o.setId(null)));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void clean() {
+        jdbcTemplate.execute("TRUNCATE TABLE infra_api_access_log");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void saveBatch() {
+        Db.saveBatch(accessLogs, 1000);
+    }
+
+    @Benchmark
+    public void insertBatchValues() {
+        apiAccessLogMapper.insertBatch(accessLogs, 1000);
+    }
+
+    /**
+     * 每条 SQL 的行数，由绑定参数上限推导
+     */
+    @Benchmark
+    public void insertBatchValuesAuto() {
+        apiAccessLogMapper.insertBatch(accessLogs);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        // 将外部数据源的系统属性，传递给 fork 出的 JVM
+        List<String> jvmArgs = new ArrayList<>();
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith(DATASOURCE_PROPERTY_PREFIX))
+                .forEach(name -> jvmArgs.add("-D" + name + "=" + System.getProperty(name)));
+        Options options = new OptionsBuilder()
+                .include(ApiAccessLogMapperInsertBatchBenchmark.class.getSimpleName())
+                .jvmArgsAppend(jvmArgs.toArray(new String[0]))
+                .build();
+        new Runner(options).run();
+    }
+
+}
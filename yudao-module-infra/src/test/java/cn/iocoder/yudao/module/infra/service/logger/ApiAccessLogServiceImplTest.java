@@ -1,27 +1,33 @@
 package cn.iocoder.yudao.module.infra.service.logger;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.iocoder.yudao.framework.common.biz.infra.logger.dto.ApiAccessLogCreateReqDTO;
 import cn.iocoder.yudao.framework.common.enums.UserTypeEnum;
 import cn.iocoder.yudao.framework.common.exception.enums.GlobalErrorCodeConstants;
+import cn.iocoder.yudao.framework.common.pojo.CursorPageParam;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.framework.test.core.ut.BaseDbUnitTest;
 import cn.iocoder.yudao.module.infra.controller.admin.logger.vo.apiaccesslog.ApiAccessLogPageReqVO;
 import cn.iocoder.yudao.module.infra.dal.dataobject.logger.ApiAccessLogDO;
 import cn.iocoder.yudao.module.infra.dal.mysql.logger.ApiAccessLogMapper;
+import cn.iocoder.yudao.module.infra.framework.logger.config.ApiAccessLogConfiguration;
 import org.junit.jupiter.api.Test;
 import org.springframework.context.annotation.Import;
 
 import javax.annotation.Resource;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
 import static cn.iocoder.yudao.framework.common.util.date.LocalDateTimeUtils.*;
 import static cn.iocoder.yudao.framework.common.util.object.ObjectUtils.cloneIgnoreId;
 import static cn.iocoder.yudao.framework.test.core.util.AssertUtils.assertPojoEquals;
 import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.randomPojo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
-@Import(ApiAccessLogServiceImpl.class)
+@Import({ApiAccessLogServiceImpl.class, ApiAccessLogConfiguration.class})
 public class ApiAccessLogServiceImplTest extends BaseDbUnitTest {
 
     @Resource
@@ -74,6 +80,52 @@ public class ApiAccessLogServiceImplTest extends BaseDbUnitTest {
         assertPojoEquals(apiAccessLogDO, pageResult.getList().get(0));
     }
 
+    @Test
+    public void testGetApiAccessLogPage_cursor() {
+        // mock 数据
+        List<ApiAccessLogDO> logs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ApiAccessLogDO apiAccessLogDO = randomPojo(ApiAccessLogDO.class, o -> o.setUserId(2233L));
+            apiAccessLogMapper.insert(apiAccessLogDO);
+            logs.add(apiAccessLogDO);
+        }
+        apiAccessLogMapper.insert(randomPojo(ApiAccessLogDO.class, o -> o.setUserId(3344L))); // 测试 userId 不匹配
+        logs.sort(Comparator.comparing(ApiAccessLogDO::getId).reversed());
+        // 准备参数
+        ApiAccessLogPageReqVO reqVO = new ApiAccessLogPageReqVO();
+        reqVO.setUserId(2233L);
+        reqVO.setPageSize(2);
+
+        // 调用：第一页，不查询总数时，不 COUNT
+        reqVO.setSearchCount(false);
+        PageResult<ApiAccessLogDO> pageResult = apiAccessLogService.getApiAccessLogPage(reqVO);
+        assertEquals(CursorPageParam.TOTAL_NONE, pageResult.getTotal());
+        assertEquals(convertList(logs.subList(0, 2), ApiAccessLogDO::getId), convertList(pageResult.getList(), ApiAccessLogDO::getId));
+        // 调用：跳页，未传入 lastId 时，走普通分页
+        reqVO.setSearchCount(true);
+        reqVO.setPageNo(2);
+        pageResult = apiAccessLogService.getApiAccessLogPage(reqVO);
+        assertEquals(5, pageResult.getTotal());
+        assertEquals(convertList(logs.subList(2, 4), ApiAccessLogDO::getId), convertList(pageResult.getList(), ApiAccessLogDO::getId));
+        // 调用：第一页，游标分页，查询总数
+        reqVO.setPageNo(1);
+        pageResult = apiAccessLogService.getApiAccessLogPage(reqVO);
+        assertEquals(5, pageResult.getTotal());
+        assertEquals(convertList(logs.subList(0, 2), ApiAccessLogDO::getId), convertList(pageResult.getList(), ApiAccessLogDO::getId));
+        // 调用：第二页，复用总数
+        reqVO.setLastId(CollUtil.getLast(pageResult.getList()).getId());
+        reqVO.setTotal(pageResult.getTotal());
+        pageResult = apiAccessLogService.getApiAccessLogPage(reqVO);
+        assertEquals(5, pageResult.getTotal());
+        assertEquals(convertList(logs.subList(2, 4), ApiAccessLogDO::getId), convertList(pageResult.getList(), ApiAccessLogDO::getId));
+        // 调用：第三页，不查询总数
+        reqVO.setLastId(CollUtil.getLast(pageResult.getList()).getId());
+        reqVO.setSearchCount(false);
+        pageResult = apiAccessLogService.getApiAccessLogPage(reqVO);
+        assertEquals(CursorPageParam.TOTAL_NONE, pageResult.getTotal());
+        assertEquals(convertList(logs.subList(4, 5), ApiAccessLogDO::getId), convertList(pageResult.getList(), ApiAccessLogDO::getId));
+    }
+
     @Test
     public void testCleanJobLog() {
         // mock 数据
@@ -96,14 +148,18 @@ public class ApiAccessLogServiceImplTest extends BaseDbUnitTest {
     }
 
     @Test
-    public void testCreateApiAccessLog() {
+    public void testCreateApiAccessLog() throws InterruptedException {
         // 准备参数
         ApiAccessLogCreateReqDTO createDTO = randomPojo(ApiAccessLogCreateReqDTO.class);
 
         // 调用
         apiAccessLogService.createApiAccessLog(createDTO);
-        // 断言
+        // 断言：默认开启批量写入，需要等待后台线程写入
         ApiAccessLogDO apiAccessLogDO = apiAccessLogMapper.selectOne(null);
+        for (int i = 0; i < 50 && apiAccessLogDO == null; i++) {
+            Thread.sleep(100L);
+            apiAccessLogDO = apiAccessLogMapper.selectOne(null);
+        }
         assertPojoEquals(createDTO, apiAccessLogDO);
     }
 
@@ -45,6 +45,17 @@ public interface IotDeviceUpstreamApi {
     @PostMapping(PREFIX + "/report-event")
     CommonResult<Boolean> reportDeviceEvent(@Valid @RequestBody IotDeviceEventReportReqDTO reportReqDTO);
 
+    /**
+     * 批量上报设备的状态、属性、事件数据
+     *
+     * 用于插件合并短时间内的多条上行消息，减少 HTTP 调用的次数
+     *
+     * @param batchReqDTO 批量上报 DTO
+     * @return 每条消息的处理结果
+     */
+    @PostMapping(PREFIX + "/report-batch")
+    CommonResult<IotDeviceUpstreamBatchRespDTO> reportDeviceBatch(@Valid @RequestBody IotDeviceUpstreamBatchReqDTO batchReqDTO);
+
     // TODO @芋艿：这个需要 plugins 接入下
     /**
      * 注册设备
@@ -72,6 +83,14 @@ public interface IotDeviceUpstreamApi {
     @PostMapping(PREFIX + "/add-topology")
     CommonResult<Boolean> addDeviceTopology(@Valid @RequestBody IotDeviceTopologyAddReqDTO addReqDTO);
 
+    /**
+     * 上报设备的 OTA 升级进度
+     *
+     * @param progressReqDTO 升级进度 DTO
+     */
+    @PostMapping(PREFIX + "/report-ota-progress")
+    CommonResult<Boolean> reportDeviceOtaProgress(@Valid @RequestBody IotDeviceOtaProgressReqDTO progressReqDTO);
+
     // TODO @芋艿：考虑 http 认证
     /**
      * 认证 Emqx 连接
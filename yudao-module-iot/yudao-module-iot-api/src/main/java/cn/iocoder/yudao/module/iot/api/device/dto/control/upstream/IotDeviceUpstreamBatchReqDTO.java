@@ -0,0 +1,37 @@
+package cn.iocoder.yudao.module.iot.api.device.dto.control.upstream;
+
+import lombok.Data;
+
+import javax.validation.Valid;
+import java.util.List;
+
+/**
+ * IoT 设备上行的批量 Request DTO
+ *
+ * 插件将短时间内的多条上行消息合并后，一次性提交给服务端。服务端按照 stateUpdates、propertyReports、eventReports 的顺序处理，
+ * 每个列表内保持提交时的顺序
+ *
+ * @author 芋道源码
+ */
+@Data
+public class IotDeviceUpstreamBatchReqDTO {
+
+    /**
+     * 设备状态更新列表
+     */
+    @Valid
+    private List<IotDeviceStateUpdateReqDTO> stateUpdates;
+
+    /**
+     * 设备属性上报列表
+     */
+    @Valid
+    private List<IotDevicePropertyReportReqDTO> propertyReports;
+
+    /**
+     * 设备事件上报列表
+     */
+    @Valid
+    private List<IotDeviceEventReportReqDTO> eventReports;
+
+}
@@ -0,0 +1,32 @@
+package cn.iocoder.yudao.module.iot.api.device.dto.control.upstream;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * IoT 设备上行的批量 Response DTO
+ *
+ * 每个列表与 {@link IotDeviceUpstreamBatchReqDTO} 中的同名列表一一对应，表示对应位置的消息是否处理成功
+ *
+ * @author 芋道源码
+ */
+@Data
+public class IotDeviceUpstreamBatchRespDTO {
+
+    /**
+     * 设备状态更新的处理结果
+     */
+    private List<Boolean> stateUpdates;
+
+    /**
+     * 设备属性上报的处理结果
+     */
+    private List<Boolean> propertyReports;
+
+    /**
+     * 设备事件上报的处理结果
+     */
+    private List<Boolean> eventReports;
+
+}
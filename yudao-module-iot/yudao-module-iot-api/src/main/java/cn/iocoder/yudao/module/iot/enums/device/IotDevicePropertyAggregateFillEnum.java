@@ -0,0 +1,43 @@
+package cn.iocoder.yudao.module.iot.enums.device;
+
+import cn.iocoder.yudao.framework.common.core.ArrayValuable;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+
+/**
+ * IoT 设备属性历史的聚合窗口填充方式枚举，与 TDengine 的 FILL 子句对应
+ *
+ * @author 芋道源码
+ */
+@RequiredArgsConstructor
+@Getter
+public enum IotDevicePropertyAggregateFillEnum implements ArrayValuable<String> {
+
+    NONE("none", "不填充，忽略没有数据的窗口"),
+    NULL("null", "填充 null"),
+    PREV("prev", "填充前一个窗口的值"),
+    LINEAR("linear", "按照前后窗口的值线性填充");
+
+    public static final String[] ARRAYS = Arrays.stream(values()).map(IotDevicePropertyAggregateFillEnum::getFill).toArray(String[]::new);
+
+    /**
+     * 填充方式
+     */
+    private final String fill;
+    /**
+     * 名字
+     */
+    private final String name;
+
+    @Override
+    public String[] array() {
+        return ARRAYS;
+    }
+
+    public static IotDevicePropertyAggregateFillEnum of(String fill) {
+        return Arrays.stream(values()).filter(item -> item.getFill().equals(fill)).findFirst().orElse(null);
+    }
+
+}
@@ -0,0 +1,47 @@
+package cn.iocoder.yudao.module.iot.enums.device;
+
+import cn.iocoder.yudao.framework.common.core.ArrayValuable;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+
+/**
+ * IoT 设备属性历史的聚合函数枚举
+ *
+ * @author 芋道源码
+ */
+@RequiredArgsConstructor
+@Getter
+public enum IotDevicePropertyAggregateFunctionEnum implements ArrayValuable<String> {
+
+    AVG("avg", "平均值", true),
+    MIN("min", "最小值", true),
+    MAX("max", "最大值", true),
+    LAST("last", "最后值", false);
+
+    public static final String[] ARRAYS = Arrays.stream(values()).map(IotDevicePropertyAggregateFunctionEnum::getFunction).toArray(String[]::new);
+
+    /**
+     * 函数
+     */
+    private final String function;
+    /**
+     * 名字
+     */
+    private final String name;
+    /**
+     * 是否仅支持数值类型的属性
+     */
+    private final boolean numeric;
+
+    @Override
+    public String[] array() {
+        return ARRAYS;
+    }
+
+    public static IotDevicePropertyAggregateFunctionEnum of(String function) {
+        return Arrays.stream(values()).filter(item -> item.getFunction().equals(function)).findFirst().orElse(null);
+    }
+
+}
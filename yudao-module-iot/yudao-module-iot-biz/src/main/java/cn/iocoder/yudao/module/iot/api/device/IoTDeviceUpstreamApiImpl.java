@@ -43,6 +43,11 @@ public class IoTDeviceUpstreamApiImpl implements IotDeviceUpstreamApi {
         return success(true);
     }
 
+    @Override
+    public CommonResult<IotDeviceUpstreamBatchRespDTO> reportDeviceBatch(IotDeviceUpstreamBatchReqDTO batchReqDTO) {
+        return success(deviceUpstreamService.reportDeviceBatch(batchReqDTO));
+    }
+
     @Override
     public CommonResult<Boolean> registerDevice(IotDeviceRegisterReqDTO registerReqDTO) {
         deviceUpstreamService.registerDevice(registerReqDTO);
@@ -61,6 +66,12 @@ public class IoTDeviceUpstreamApiImpl implements IotDeviceUpstreamApi {
         return success(true);
     }
 
+    @Override
+    public CommonResult<Boolean> reportDeviceOtaProgress(IotDeviceOtaProgressReqDTO progressReqDTO) {
+        deviceUpstreamService.reportDeviceOtaProgress(progressReqDTO);
+        return success(true);
+    }
+
     @Override
     public CommonResult<Boolean> authenticateEmqxConnection(IotDeviceEmqxAuthReqDTO authReqDTO) {
         boolean result = deviceUpstreamService.authenticateEmqxConnection(authReqDTO);
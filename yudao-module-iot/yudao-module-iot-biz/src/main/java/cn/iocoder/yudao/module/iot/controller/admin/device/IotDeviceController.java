@@ -5,6 +5,7 @@ import cn.iocoder.yudao.framework.common.pojo.CommonResult;
 import cn.iocoder.yudao.framework.common.pojo.PageParam;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.framework.common.util.object.BeanUtils;
+import cn.iocoder.yudao.framework.excel.core.listener.BatchReadListener;
 import cn.iocoder.yudao.framework.excel.core.util.ExcelUtils;
 import cn.iocoder.yudao.module.iot.controller.admin.device.vo.control.IotDeviceDownstreamReqVO;
 import cn.iocoder.yudao.module.iot.controller.admin.device.vo.control.IotDeviceUpstreamReqVO;
@@ -25,13 +26,13 @@ import javax.annotation.Resource;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
 
 import static cn.iocoder.yudao.framework.apilog.core.enums.OperateTypeEnum.EXPORT;
+import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
 import static cn.iocoder.yudao.framework.common.pojo.CommonResult.success;
 import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
+import static cn.iocoder.yudao.module.iot.enums.ErrorCodeConstants.DEVICE_IMPORT_LIST_IS_EMPTY;
 
 @Tag(name = "管理后台 - IoT 设备")
 @RestController
@@ -144,8 +145,23 @@ public class IotDeviceController {
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "updateSupport", required = false, defaultValue = "false") Boolean updateSupport)
             throws Exception {
-        List<IotDeviceImportExcelVO> list = ExcelUtils.read(file, IotDeviceImportExcelVO.class);
-        return success(deviceService.importDevice(list, updateSupport));
+        // 分批读取、导入，避免一次性加载整个 Excel
+        IotDeviceImportRespVO respVO = IotDeviceImportRespVO.builder().createDeviceNames(new ArrayList<>())
+                .updateDeviceNames(new ArrayList<>()).failureDeviceNames(new LinkedHashMap<>()).build();
+        BatchReadListener<IotDeviceImportExcelVO> readResult = ExcelUtils.read(file, IotDeviceImportExcelVO.class,
+                ExcelUtils.BATCH_READ_SIZE_DEFAULT, list -> {
+                    IotDeviceImportRespVO batchRespVO = deviceService.importDevice(list, updateSupport);
+                    respVO.getCreateDeviceNames().addAll(batchRespVO.getCreateDeviceNames());
+                    respVO.getUpdateDeviceNames().addAll(batchRespVO.getUpdateDeviceNames());
+                    respVO.getFailureDeviceNames().putAll(batchRespVO.getFailureDeviceNames());
+                });
+        // 格式不正确的行，没有设备名称，使用行号作为 key
+        readResult.getFailureRows().forEach((rowNo, message) ->
+                respVO.getFailureDeviceNames().put(String.format("第 %d 行", rowNo), message));
+        if (readResult.getReadCount() == 0 && readResult.getFailureRows().isEmpty()) {
+            throw exception(DEVICE_IMPORT_LIST_IS_EMPTY);
+        }
+        return success(respVO);
     }
 
     @GetMapping("/get-import-template")
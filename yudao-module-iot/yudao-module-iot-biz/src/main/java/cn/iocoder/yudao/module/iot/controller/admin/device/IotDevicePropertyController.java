@@ -6,6 +6,7 @@ import cn.hutool.core.lang.Assert;
 import cn.hutool.core.util.StrUtil;
 import cn.iocoder.yudao.framework.common.pojo.CommonResult;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
+import cn.iocoder.yudao.module.iot.controller.admin.device.vo.data.IotDevicePropertyHistoryAggregateReqVO;
 import cn.iocoder.yudao.module.iot.controller.admin.device.vo.data.IotDevicePropertyHistoryPageReqVO;
 import cn.iocoder.yudao.module.iot.controller.admin.device.vo.data.IotDevicePropertyRespVO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDeviceDO;
@@ -92,4 +93,12 @@ public class IotDevicePropertyController {
         return success(devicePropertyService.getHistoryDevicePropertyPage(pageReqVO));
     }
 
+    @GetMapping("/history-aggregate-list")
+    @Operation(summary = "获取设备属性历史聚合数据", description = "按照时间窗口降采样，用于图表展示")
+    @PreAuthorize("@ss.hasPermission('iot:device:property-query')")
+    public CommonResult<List<IotDevicePropertyRespVO>> getHistoryDevicePropertyAggregateList(
+            @Valid IotDevicePropertyHistoryAggregateReqVO reqVO) {
+        return success(devicePropertyService.getHistoryDevicePropertyAggregateList(reqVO));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package cn.iocoder.yudao.module.iot.controller.admin.device.vo.data;
+
+import cn.iocoder.yudao.framework.common.validation.InEnum;
+import cn.iocoder.yudao.module.iot.enums.device.IotDevicePropertyAggregateFillEnum;
+import cn.iocoder.yudao.module.iot.enums.device.IotDevicePropertyAggregateFunctionEnum;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+
+import static cn.iocoder.yudao.framework.common.util.date.DateUtils.FORMAT_YEAR_MONTH_DAY_HOUR_MINUTE_SECOND;
+
+@Schema(description = "管理后台 - IoT 设备属性历史聚合 Request VO")
+@Data
+public class IotDevicePropertyHistoryAggregateReqVO {
+
+    @Schema(description = "设备编号", requiredMode = Schema.RequiredMode.REQUIRED, example = "177")
+    @NotNull(message = "设备编号不能为空")
+    private Long deviceId;
+
+    @Schema(description = "属性标识符", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotEmpty(message = "属性标识符不能为空")
+    private String identifier;
+
+    @Schema(description = "时间范围", requiredMode = Schema.RequiredMode.REQUIRED)
+    @DateTimeFormat(pattern = FORMAT_YEAR_MONTH_DAY_HOUR_MINUTE_SECOND)
+    @NotNull(message = "时间范围不能为空")
+    @Size(min = 2, max = 2, message = "请选择时间范围")
+    private LocalDateTime[] times;
+
+    @Schema(description = "目标点数，根据时间范围计算聚合窗口", example = "500")
+    @Min(value = 1, message = "目标点数最小为 1")
+    @Max(value = 5000, message = "目标点数最大为 5000")
+    private Integer points = 500;
+
+    @Schema(description = "聚合窗口（秒），优先于目标点数", example = "60")
+    @Min(value = 1, message = "聚合窗口最小为 1 秒")
+    private Long interval;
+
+    @Schema(description = "聚合函数", requiredMode = Schema.RequiredMode.REQUIRED, example = "avg")
+    @NotEmpty(message = "聚合函数不能为空")
+    @InEnum(IotDevicePropertyAggregateFunctionEnum.class)
+    private String function = IotDevicePropertyAggregateFunctionEnum.AVG.getFunction();
+
+    @Schema(description = "填充方式", requiredMode = Schema.RequiredMode.REQUIRED, example = "none")
+    @NotEmpty(message = "填充方式不能为空")
+    @InEnum(IotDevicePropertyAggregateFillEnum.class)
+    private String fill = IotDevicePropertyAggregateFillEnum.NONE.getFill();
+
+}
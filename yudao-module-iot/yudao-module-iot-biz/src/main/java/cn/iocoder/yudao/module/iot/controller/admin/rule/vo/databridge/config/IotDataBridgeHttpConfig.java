@@ -32,5 +32,11 @@ public class IotDataBridgeHttpConfig extends IotDataBridgeAbstractConfig {
      * 请求体
      */
     private String body;
+    /**
+     * 是否批量推送
+     *
+     * 开启后，非 GET 请求会将一批消息合并成一个请求，请求体的 messages 字段为消息数组；关闭时，每条消息一个请求，请求体的 message 字段为消息
+     */
+    private Boolean batch;
 
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package cn.iocoder.yudao.module.iot.dal.dataobject.device;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.SortedMap;
+
+/**
+ * IoT 设备属性数据 DO
+ *
+ * 对应 TDengine 的 device_property_${deviceKey} 子表的一行，用于批量写入
+ *
+ * @author 芋道源码
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IotDevicePropertyDataDO {
+
+    /**
+     * 产品标识
+     *
+     * 关联 {@link IotDeviceDO#getProductKey()}
+     */
+    private String productKey;
+    /**
+     * 设备标识
+     *
+     * 关联 {@link IotDeviceDO#getDeviceKey()}
+     */
+    private String deviceKey; // 非存储字段，用于 TDengine 的 TAG
+
+    /**
+     * 属性
+     *
+     * key：物模型的 identifier；value：属性值
+     * 使用有序 Map 的原因：相同属性集合的多行数据，values 的顺序保持一致，可以合并到同一个 VALUES 子句
+     */
+    private SortedMap<String, Object> properties;
+
+    /**
+     * 上报时间戳
+     */
+    private Long reportTime;
+
+    /**
+     * 时序时间
+     */
+    private Long ts;
+
+}
@@ -7,6 +7,7 @@ import cn.iocoder.yudao.module.iot.controller.admin.device.vo.group.IotDeviceGro
 import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDeviceGroupDO;
 import org.apache.ibatis.annotations.Mapper;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -32,4 +33,8 @@ public interface IotDeviceGroupMapper extends BaseMapperX<IotDeviceGroupDO> {
         return selectOne(IotDeviceGroupDO::getName, name);
     }
 
+    default List<IotDeviceGroupDO> selectListByNames(Collection<String> names) {
+        return selectList(IotDeviceGroupDO::getName, names);
+    }
+
 }
\ No newline at end of file
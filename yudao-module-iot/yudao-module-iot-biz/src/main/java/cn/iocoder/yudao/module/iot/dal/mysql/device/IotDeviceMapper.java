@@ -7,10 +7,12 @@ import cn.iocoder.yudao.framework.mybatis.core.query.LambdaQueryWrapperX;
 import cn.iocoder.yudao.module.iot.controller.admin.device.vo.device.IotDevicePageReqVO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDeviceDO;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import org.apache.ibatis.annotations.Mapper;
 
 import javax.annotation.Nullable;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -37,6 +39,10 @@ public interface IotDeviceMapper extends BaseMapperX<IotDeviceDO> {
         return selectOne(IotDeviceDO::getDeviceName, deviceName);
     }
 
+    default List<IotDeviceDO> selectListByDeviceNames(Collection<String> deviceNames) {
+        return selectList(IotDeviceDO::getDeviceName, deviceNames);
+    }
+
     default IotDeviceDO selectByProductKeyAndDeviceName(String productKey, String deviceName) {
         return selectOne(IotDeviceDO::getProductKey, productKey,
                 IotDeviceDO::getDeviceName, deviceName);
@@ -55,6 +61,14 @@ public interface IotDeviceMapper extends BaseMapperX<IotDeviceDO> {
                 .apply("LOWER(device_key) = {0}", deviceKey.toLowerCase()));
     }
 
+    default List<IotDeviceDO> selectListByDeviceKeys(Collection<String> deviceKeys) {
+        return selectList(IotDeviceDO::getDeviceKey, deviceKeys);
+    }
+
+    default int updateListState(Collection<Long> ids, IotDeviceDO updateObj) {
+        return update(updateObj, new LambdaUpdateWrapper<IotDeviceDO>().in(IotDeviceDO::getId, ids));
+    }
+
     default List<IotDeviceDO> selectListByDeviceType(Integer deviceType) {
         return selectList(IotDeviceDO::getDeviceType, deviceType);
     }
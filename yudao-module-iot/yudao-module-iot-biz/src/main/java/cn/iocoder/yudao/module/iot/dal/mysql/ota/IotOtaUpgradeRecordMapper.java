@@ -1,76 +1,67 @@
 package cn.iocoder.yudao.module.iot.dal.mysql.ota;
 
+import cn.hutool.core.map.MapUtil;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.framework.mybatis.core.mapper.BaseMapperX;
 import cn.iocoder.yudao.framework.mybatis.core.query.LambdaQueryWrapperX;
+import cn.iocoder.yudao.framework.mybatis.core.query.QueryWrapperX;
 import cn.iocoder.yudao.module.iot.controller.admin.ota.vo.upgrade.record.IotOtaUpgradeRecordPageReqVO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.ota.IotOtaUpgradeRecordDO;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import org.apache.ibatis.annotations.Mapper;
-import org.apache.ibatis.annotations.Param;
-import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertMap;
+
 @Mapper
 public interface IotOtaUpgradeRecordMapper extends BaseMapperX<IotOtaUpgradeRecordDO> {
 
-    // TODO @li：selectByFirmwareIdAndTaskIdAndDeviceId；让方法自解释
-    /**
-     * 根据条件查询单个OTA升级记录
-     *
-     * @param firmwareId 固件ID，可选参数，用于筛选固件ID匹配的记录
-     * @param taskId     任务ID，可选参数，用于筛选任务ID匹配的记录
-     * @param deviceId   设备ID，可选参数，用于筛选设备ID匹配的记录
-     * @return 返回符合条件的单个OTA升级记录，如果不存在则返回null
-     */
-    default IotOtaUpgradeRecordDO selectByConditions(Long firmwareId, Long taskId, String deviceId) {
-        // 使用LambdaQueryWrapperX构建查询条件，根据传入的参数动态添加查询条件
-        return selectOne(new LambdaQueryWrapperX<IotOtaUpgradeRecordDO>()
-                .eqIfPresent(IotOtaUpgradeRecordDO::getFirmwareId, firmwareId)
-                .eqIfPresent(IotOtaUpgradeRecordDO::getTaskId, taskId)
-                .eqIfPresent(IotOtaUpgradeRecordDO::getDeviceId, deviceId));
+    default List<IotOtaUpgradeRecordDO> selectListByFirmwareIdAndTaskIdAndDeviceIds(Long firmwareId, Long taskId,
+                                                                                 Collection<String> deviceIds) {
+        return selectList(new LambdaQueryWrapperX<IotOtaUpgradeRecordDO>()
+                .eq(IotOtaUpgradeRecordDO::getFirmwareId, firmwareId)
+                .eq(IotOtaUpgradeRecordDO::getTaskId, taskId)
+                .in(IotOtaUpgradeRecordDO::getDeviceId, deviceIds));
     }
 
-    // TODO @li：这个是不是 groupby status 就 ok 拉？
-    /**
-     * 根据任务ID和设备名称查询OTA升级记录的状态统计信息。
-     * 该函数通过SQL查询统计不同状态（0到5）的记录数量，并返回一个包含统计结果的Map列表。
-     *
-     * @param taskId     任务ID，用于筛选特定任务的OTA升级记录。
-     * @param deviceName 设备名称，支持模糊查询，用于筛选特定设备的OTA升级记录。
-     * @return 返回一个Map列表，每个Map包含不同状态（0到5）的记录数量。
-     */
-    @Select("select count(case when status = 0 then 1 else 0) as `0` " +
-            "count(case when status = 1 then 1 else 0) as `1` " +
-            "count(case when status = 2 then 1 else 0) as `2` " +
-            "count(case when status = 3 then 1 else 0) as `3` " +
-            "count(case when status = 4 then 1 else 0) as `4` " +
-            "count(case when status = 5 then 1 else 0) as `5` " +
-            "from iot_ota_upgrade_record " +
-            "where task_id = #{taskId} " +
-            "and device_name like concat('%', #{deviceName}, '%') " +
-            "and status = #{status}")
-    List<Map<String, Object>> selectOtaUpgradeRecordCount(@Param("taskId") Long taskId,
-                                                          @Param("deviceName") String deviceName);
+    default List<IotOtaUpgradeRecordDO> selectListByFirmwareIdAndDeviceNamesAndStatus(Long firmwareId,
+                                                                                   Collection<String> deviceNames,
+                                                                                   Collection<Integer> statuses) {
+        return selectList(new LambdaQueryWrapperX<IotOtaUpgradeRecordDO>()
+                .eq(IotOtaUpgradeRecordDO::getFirmwareId, firmwareId)
+                .in(IotOtaUpgradeRecordDO::getDeviceName, deviceNames)
+                .in(IotOtaUpgradeRecordDO::getStatus, statuses));
+    }
+
+    default List<IotOtaUpgradeRecordDO> selectListByTaskIdAndStatus(Long taskId, Integer status, int limit) {
+        return selectList(new LambdaQueryWrapperX<IotOtaUpgradeRecordDO>()
+                .eq(IotOtaUpgradeRecordDO::getTaskId, taskId)
+                .eq(IotOtaUpgradeRecordDO::getStatus, status)
+                .orderByAsc(IotOtaUpgradeRecordDO::getId)
+                .last("LIMIT " + limit));
+    }
 
     /**
-     * 根据固件ID查询OTA升级记录的状态统计信息。
-     * 该函数通过SQL查询统计不同状态（0到5）的记录数量，并返回一个包含统计结果的Map列表。
+     * 按照状态分组，统计升级记录的数量
      *
-     * @param firmwareId 固件ID，用于筛选特定固件的OTA升级记录。
-     * @return 返回一个Map列表，每个Map包含不同状态（0到5）的记录数量。
+     * @param firmwareId 固件编号，可为空
+     * @param taskId 任务编号，可为空
+     * @param deviceName 设备名称，模糊匹配，可为空
+     * @return 各状态的数量，key 为状态
      */
-    @Select("select count(case when status = 0 then 1 else 0) as `0` " +
-            "count(case when status = 1 then 1 else 0) as `1` " +
-            "count(case when status = 2 then 1 else 0) as `2` " +
-            "count(case when status = 3 then 1 else 0) as `3` " +
-            "count(case when status = 4 then 1 else 0) as `4` " +
-            "count(case when status = 5 then 1 else 0) as `5` " +
-            "from iot_ota_upgrade_record " +
-            "where firmware_id = #{firmwareId}")
-    List<Map<String, Object>> selectOtaUpgradeRecordStatistics(Long firmwareId);
+    default Map<Integer, Long> selectCountMapGroupByStatus(Long firmwareId, Long taskId, String deviceName) {
+        List<Map<String, Object>> result = selectMaps(new QueryWrapperX<IotOtaUpgradeRecordDO>()
+                .eqIfPresent("firmware_id", firmwareId)
+                .eqIfPresent("task_id", taskId)
+                .likeIfPresent("device_name", deviceName)
+                .select("status", "COUNT(1) AS count")
+                .groupBy("status"));
+        return convertMap(result, record -> MapUtil.getInt(record, "status"),
+                record -> MapUtil.getLong(record, "count"));
+    }
 
     // TODO @li：这里的注释，可以去掉哈
     /**
@@ -99,15 +90,27 @@ public interface IotOtaUpgradeRecordMapper extends BaseMapperX<IotOtaUpgradeReco
      * @param whereStatus 用于筛选升级记录的当前状态值，类型为Integer
      */
     // TODO @li：改成 updateByTaskIdAndStatus(taskId, status, IotOtaUpgradeRecordDO) 更通用一些。
-    default void updateUpgradeRecordStatusByTaskIdAndStatus(Integer setStatus, Long taskId, Integer whereStatus) {
+    default int updateUpgradeRecordStatusByTaskIdAndStatus(Integer setStatus, Long taskId, Integer whereStatus) {
         // 使用LambdaUpdateWrapper构建更新条件，将指定状态的记录更新为指定状态
-        update(new LambdaUpdateWrapper<IotOtaUpgradeRecordDO>()
+        return update(new LambdaUpdateWrapper<IotOtaUpgradeRecordDO>()
                 .set(IotOtaUpgradeRecordDO::getStatus, setStatus)
                 .eq(IotOtaUpgradeRecordDO::getTaskId, taskId)
                 .eq(IotOtaUpgradeRecordDO::getStatus, whereStatus)
         );
     }
 
+    default int updateByIdAndStatus(Long id, Integer whereStatus, IotOtaUpgradeRecordDO updateObj) {
+        return update(updateObj, new LambdaUpdateWrapper<IotOtaUpgradeRecordDO>()
+                .eq(IotOtaUpgradeRecordDO::getId, id)
+                .eq(IotOtaUpgradeRecordDO::getStatus, whereStatus));
+    }
+
+    default int updateByIdsAndStatus(Collection<Long> ids, Integer whereStatus, IotOtaUpgradeRecordDO updateObj) {
+        return update(updateObj, new LambdaUpdateWrapper<IotOtaUpgradeRecordDO>()
+                .in(IotOtaUpgradeRecordDO::getId, ids)
+                .eq(IotOtaUpgradeRecordDO::getStatus, whereStatus));
+    }
+
     // TODO @li：参考上面的建议，调整下这个方法
     /**
      * 根据状态查询符合条件的升级记录列表
@@ -123,24 +126,6 @@ public interface IotOtaUpgradeRecordMapper extends BaseMapperX<IotOtaUpgradeReco
                 .eq(IotOtaUpgradeRecordDO::getStatus, state));
     }
 
-    // TODO @li：参考上面的建议，调整下这个方法
-    /**
-     * 更新升级记录状态
-     * <p>
-     * 该函数用于批量更新指定ID列表中的升级记录状态。通过传入的ID列表和状态值，使用LambdaUpdateWrapper构建更新条件，
-     * 并执行更新操作。
-     *
-     * @param ids    需要更新的升级记录ID列表，类型为List<Long>。传入的ID列表中的记录将被更新。
-     * @param status 要更新的状态值，类型为Integer。该值将被设置到符合条件的升级记录中。
-     */
-    default void updateUpgradeRecordStatus(List<Long> ids, Integer status) {
-        // 使用LambdaUpdateWrapper构建更新条件，设置状态字段，并根据ID列表进行筛选
-        update(new LambdaUpdateWrapper<IotOtaUpgradeRecordDO>()
-                .set(IotOtaUpgradeRecordDO::getStatus, status)
-                .in(IotOtaUpgradeRecordDO::getId, ids)
-        );
-    }
-
     // TODO @li：参考上面的建议，调整下这个方法
     /**
      * 根据任务ID查询升级记录列表
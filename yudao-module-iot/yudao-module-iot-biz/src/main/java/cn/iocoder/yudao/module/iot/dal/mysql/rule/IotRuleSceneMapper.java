@@ -1,10 +1,27 @@
 package cn.iocoder.yudao.module.iot.dal.mysql.rule;
 
+import cn.hutool.core.convert.Convert;
 import cn.iocoder.yudao.framework.mybatis.core.mapper.BaseMapperX;
+import cn.iocoder.yudao.framework.mybatis.core.query.LambdaQueryWrapperX;
 import cn.iocoder.yudao.module.iot.dal.dataobject.rule.IotRuleSceneDO;
 import org.apache.ibatis.annotations.Mapper;
 
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
 @Mapper
 public interface IotRuleSceneMapper extends BaseMapperX<IotRuleSceneDO> {
 
+    default List<IotRuleSceneDO> selectListByUpdateTimeGt(LocalDateTime updateTime) {
+        return selectList(new LambdaQueryWrapperX<IotRuleSceneDO>()
+                .gt(IotRuleSceneDO::getUpdateTime, updateTime));
+    }
+
+    default List<Long> selectIdList() {
+        return Convert.toList(Long.class,
+                selectObjs(new LambdaQueryWrapperX<IotRuleSceneDO>()
+                        .select(Collections.singletonList(IotRuleSceneDO::getId)))); // 只查询 id 字段，加速返回速度
+    }
+
 }
@@ -27,6 +27,42 @@ public interface RedisKeyConstants {
      */
     String DEVICE_REPORT_TIMES = "iot:device_report_times";
 
+    /**
+     * 设备属性历史的聚合结果缓存，采用 HASH 结构，只缓存已经关闭的窗口
+     *
+     * KEY 格式：device_property_aggregate:{deviceKey}:{identifier}:{function}:{interval}
+     * HASH KEY：窗口开始时间（毫秒）
+     * VALUE 数据类型：String(JSON) 聚合结果；空字符串表示窗口没有数据
+     */
+    String DEVICE_PROPERTY_AGGREGATE = "iot:device_property_aggregate:%s:%s:%s:%d";
+
+    /**
+     * 设备消息数量的统计，采用 HASH 结构
+     *
+     * KEY 格式：device_message_count:{tenantId}
+     * HASH KEY：total 开始统计后的消息总数；start_time 开始统计的时间（毫秒）；seed 开始统计前的消息总数
+     * VALUE 数据类型：Long
+     */
+    String DEVICE_MESSAGE_COUNT = "iot:device_message_count:%d";
+
+    /**
+     * 设备消息每小时数量的统计，采用 HASH 结构，按天拆分 KEY 并设置过期时间
+     *
+     * KEY 格式：device_message_hour_count:{tenantId}:{yyyyMMdd}
+     * HASH KEY：{direction}:{小时开始时间（毫秒）}，direction 为 all 全部、up 上行、down 下行
+     * VALUE 数据类型：Long
+     */
+    String DEVICE_MESSAGE_HOUR_COUNT = "iot:device_message_hour_count:%d:%s";
+
+    /**
+     * OTA 升级记录各状态的数量，采用 HASH 结构，用于升级任务、固件的统计，避免每次 GROUP BY 查询
+     *
+     * KEY 格式：ota_upgrade_record_count:{type}:{id}，type 为 firmware 固件、task 升级任务
+     * HASH KEY：升级状态，对应 {@link cn.iocoder.yudao.module.iot.enums.ota.IotOtaUpgradeRecordStatusEnum}
+     * VALUE 数据类型：Long
+     */
+    String OTA_UPGRADE_RECORD_COUNT = "iot:ota_upgrade_record_count:%s:%d";
+
     /**
      * 设备信息的数据缓存，使用 Spring Cache 操作（忽略租户）
      *
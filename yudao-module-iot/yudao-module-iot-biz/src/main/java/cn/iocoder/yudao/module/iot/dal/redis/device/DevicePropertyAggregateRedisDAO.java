@@ -0,0 +1,73 @@
+package cn.iocoder.yudao.module.iot.dal.redis.device;
+
+import cn.hutool.core.collection.CollUtil;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.*;
+
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertMap;
+import static cn.iocoder.yudao.module.iot.dal.redis.RedisKeyConstants.DEVICE_PROPERTY_AGGREGATE;
+
+/**
+ * 设备属性历史聚合结果的 Redis DAO
+ *
+ * @author 芋道源码
+ */
+@Repository
+public class DevicePropertyAggregateRedisDAO {
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 获得多个窗口的聚合结果
+     *
+     * @return 聚合结果，key 为窗口开始时间；未缓存的窗口不存在
+     */
+    public Map<Long, String> get(String deviceKey, String identifier, String function, long interval,
+                                 List<Long> windows) {
+        if (CollUtil.isEmpty(windows)) {
+            return Collections.emptyMap();
+        }
+        String redisKey = formatKey(deviceKey, identifier, function, interval);
+        List<Object> values = stringRedisTemplate.opsForHash().multiGet(redisKey, convertList(windows, String::valueOf));
+        Map<Long, String> result = new HashMap<>(windows.size());
+        for (int i = 0; i < windows.size(); i++) {
+            if (values.get(i) != null) {
+                result.put(windows.get(i), (String) values.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 缓存多个窗口的聚合结果，并刷新过期时间
+     *
+     * @param values 聚合结果，key 为窗口开始时间
+     */
+    public void putAll(String deviceKey, String identifier, String function, long interval,
+                       Map<Long, String> values, Duration timeout) {
+        if (CollUtil.isEmpty(values)) {
+            return;
+        }
+        String redisKey = formatKey(deviceKey, identifier, function, interval);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.hMSet(redisKey, convertMap(values.entrySet(),
+                    entry -> String.valueOf(entry.getKey()), Map.Entry::getValue));
+            stringConnection.pExpire(redisKey, timeout.toMillis());
+            return null;
+        });
+    }
+
+    private static String formatKey(String deviceKey, String identifier, String function, long interval) {
+        return String.format(DEVICE_PROPERTY_AGGREGATE, deviceKey, identifier, function, interval);
+    }
+
+}
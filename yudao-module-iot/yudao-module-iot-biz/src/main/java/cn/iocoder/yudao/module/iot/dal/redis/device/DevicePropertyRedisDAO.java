@@ -3,6 +3,8 @@ package cn.iocoder.yudao.module.iot.dal.redis.device;
 import cn.hutool.core.collection.CollUtil;
 import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
 import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDevicePropertyDO;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Repository;
 
@@ -43,6 +45,29 @@ public class DevicePropertyRedisDAO {
                 entry -> JsonUtils.toJsonString(entry.getValue())));
     }
 
+    /**
+     * 批量写入多个设备的属性：每个设备一条 HSET 命令，通过 pipeline 一次网络往返发送
+     *
+     * @param devicesProperties 设备属性，key 为设备标识
+     */
+    public void putAll(Map<String, Map<String, IotDevicePropertyDO>> devicesProperties) {
+        if (CollUtil.isEmpty(devicesProperties)) {
+            return;
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            devicesProperties.forEach((deviceKey, properties) -> {
+                if (CollUtil.isEmpty(properties)) {
+                    return;
+                }
+                stringConnection.hMSet(formatKey(deviceKey), convertMap(properties.entrySet(),
+                        Map.Entry::getKey,
+                        entry -> JsonUtils.toJsonString(entry.getValue())));
+            });
+            return null;
+        });
+    }
+
     private static String formatKey(String deviceKey) {
         return String.format(DEVICE_PROPERTY, deviceKey);
     }
@@ -3,11 +3,14 @@ package cn.iocoder.yudao.module.iot.dal.redis.device;
 import cn.hutool.core.date.LocalDateTimeUtil;
 import cn.iocoder.yudao.module.iot.dal.redis.RedisKeyConstants;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Repository;
 
 import javax.annotation.Resource;
 import java.time.LocalDateTime;
-import java.util.Set;
+import java.util.*;
 
 /**
  * 设备的最后上报时间的 Redis DAO
@@ -17,6 +20,21 @@ import java.util.Set;
 @Repository
 public class DeviceReportTimeRedisDAO {
 
+    /**
+     * 移除上报时间未变化的设备的 Lua 脚本
+     *
+     * ARGV 格式：deviceKey1, reportTime1, deviceKey2, reportTime2 ...
+     */
+    private static final RedisScript<Long> REMOVE_IF_UNCHANGED_SCRIPT = new DefaultRedisScript<>(
+            "local count = 0\n" +
+            "for i = 1, #ARGV, 2 do\n" +
+            "  local score = redis.call('ZSCORE', KEYS[1], ARGV[i])\n" +
+            "  if score and tonumber(score) == tonumber(ARGV[i + 1]) then\n" +
+            "    count = count + redis.call('ZREM', KEYS[1], ARGV[i])\n" +
+            "  end\n" +
+            "end\n" +
+            "return count", Long.class);
+
     @Resource
     private StringRedisTemplate stringRedisTemplate;
 
@@ -25,9 +43,60 @@ public class DeviceReportTimeRedisDAO {
                 LocalDateTimeUtil.toEpochMilli(reportTime));
     }
 
-    public Set<String> range(LocalDateTime maxReportTime) {
-        return stringRedisTemplate.opsForZSet().rangeByScore(RedisKeyConstants.DEVICE_REPORT_TIMES, 0,
-                LocalDateTimeUtil.toEpochMilli(maxReportTime));
+    /**
+     * 批量更新设备的最后上报时间，通过一条 ZADD 命令写入
+     *
+     * @param reportTimes 设备的最后上报时间（毫秒），key 为设备标识
+     */
+    public void updateBatch(Map<String, Long> reportTimes) {
+        if (reportTimes.isEmpty()) {
+            return;
+        }
+        Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>(reportTimes.size());
+        reportTimes.forEach((deviceKey, reportTime) ->
+                tuples.add(ZSetOperations.TypedTuple.of(deviceKey, reportTime.doubleValue())));
+        stringRedisTemplate.opsForZSet().add(RedisKeyConstants.DEVICE_REPORT_TIMES, tuples);
+    }
+
+    /**
+     * 获得最后上报时间小于等于 maxReportTime 的设备，按照上报时间升序
+     *
+     * @param maxReportTime 最大上报时间
+     * @param count 最大数量
+     * @return 设备的最后上报时间（毫秒），key 为设备标识
+     */
+    public Map<String, Long> range(LocalDateTime maxReportTime, int count) {
+        Set<ZSetOperations.TypedTuple<String>> tuples = stringRedisTemplate.opsForZSet().rangeByScoreWithScores(
+                RedisKeyConstants.DEVICE_REPORT_TIMES, 0, LocalDateTimeUtil.toEpochMilli(maxReportTime), 0, count);
+        if (tuples == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Long> result = new LinkedHashMap<>(tuples.size());
+        tuples.forEach(tuple -> result.put(tuple.getValue(), Objects.requireNonNull(tuple.getScore()).longValue()));
+        return result;
+    }
+
+    /**
+     * 移除设备的最后上报时间
+     *
+     * 仅移除上报时间未变化的设备，避免误删读取之后新上报的时间
+     *
+     * @param reportTimes 设备的最后上报时间（毫秒），key 为设备标识
+     * @return 移除的数量
+     */
+    public long removeIfUnchanged(Map<String, Long> reportTimes) {
+        if (reportTimes.isEmpty()) {
+            return 0;
+        }
+        Object[] args = new Object[reportTimes.size() * 2];
+        int i = 0;
+        for (Map.Entry<String, Long> entry : reportTimes.entrySet()) {
+            args[i++] = entry.getKey();
+            args[i++] = String.valueOf(entry.getValue());
+        }
+        Long count = stringRedisTemplate.execute(REMOVE_IF_UNCHANGED_SCRIPT,
+                Collections.singletonList(RedisKeyConstants.DEVICE_REPORT_TIMES), args);
+        return count != null ? count : 0;
     }
 
 }
@@ -0,0 +1,105 @@
+package cn.iocoder.yudao.module.iot.dal.redis.ota;
+
+import cn.hutool.core.util.NumberUtil;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.*;
+
+import static cn.iocoder.yudao.module.iot.dal.redis.RedisKeyConstants.OTA_UPGRADE_RECORD_COUNT;
+
+/**
+ * OTA 升级记录各状态数量的 Redis DAO
+ *
+ * 数量在 KEY 不存在时，由调用方从数据库统计后写入；之后随升级记录的状态变化增量累加
+ *
+ * @author 芋道源码
+ */
+@Repository
+public class OtaUpgradeRecordCountRedisDAO {
+
+    public static final String TYPE_FIRMWARE = "firmware";
+    public static final String TYPE_TASK = "task";
+
+    /**
+     * KEY 存在时，才累加数量的 Lua 脚本。KEY 不存在时，说明尚未统计或者已过期，等待下次读取时从数据库统计
+     *
+     * ARGV 格式：status1, delta1, status2, delta2 ...
+     */
+    private static final RedisScript<Long> INCREMENT_IF_EXISTS_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then\n" +
+            "  return 0\n" +
+            "end\n" +
+            "for i = 1, #ARGV, 2 do\n" +
+            "  redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1])\n" +
+            "end\n" +
+            "return 1", Long.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 获得各状态的数量
+     *
+     * @param type 类型
+     * @param id 固件或升级任务的编号
+     * @return 各状态的数量；KEY 不存在时，返回 null
+     */
+    public Map<Integer, Long> get(String type, Long id) {
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(formatKey(type, id));
+        if (entries.isEmpty()) {
+            return null;
+        }
+        Map<Integer, Long> result = new HashMap<>(entries.size());
+        entries.forEach((status, count) -> result.put(NumberUtil.parseInt(String.valueOf(status)),
+                NumberUtil.parseLong(String.valueOf(count))));
+        return result;
+    }
+
+    /**
+     * 设置各状态的数量
+     *
+     * @param type 类型
+     * @param id 固件或升级任务的编号
+     * @param counts 各状态的数量，需要包含所有状态，保证 KEY 存在
+     * @param expire 过期时长
+     */
+    public void set(String type, Long id, Map<Integer, Long> counts, Duration expire) {
+        String key = formatKey(type, id);
+        Map<String, String> values = new HashMap<>(counts.size());
+        counts.forEach((status, count) -> values.put(String.valueOf(status), String.valueOf(count)));
+        stringRedisTemplate.opsForHash().putAll(key, values);
+        stringRedisTemplate.expire(key, expire);
+    }
+
+    /**
+     * 累加各状态的数量
+     *
+     * @param type 类型
+     * @param id 固件或升级任务的编号
+     * @param deltas 各状态的变化量
+     */
+    public void increment(String type, Long id, Map<Integer, Long> deltas) {
+        List<String> args = new ArrayList<>(deltas.size() * 2);
+        deltas.forEach((status, delta) -> {
+            if (delta != 0) {
+                args.add(String.valueOf(status));
+                args.add(String.valueOf(delta));
+            }
+        });
+        if (args.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.execute(INCREMENT_IF_EXISTS_SCRIPT, Collections.singletonList(formatKey(type, id)),
+                args.toArray());
+    }
+
+    private static String formatKey(String type, Long id) {
+        return String.format(OTA_UPGRADE_RECORD_COUNT, type, id);
+    }
+
+}
@@ -0,0 +1,208 @@
+package cn.iocoder.yudao.module.iot.dal.redis.statistics;
+
+import cn.hutool.core.date.DatePattern;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.NumberUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static cn.iocoder.yudao.module.iot.dal.redis.RedisKeyConstants.DEVICE_MESSAGE_COUNT;
+import static cn.iocoder.yudao.module.iot.dal.redis.RedisKeyConstants.DEVICE_MESSAGE_HOUR_COUNT;
+
+/**
+ * 设备消息数量统计的 Redis DAO
+ *
+ * 由消息的消费方增量累加，统计页直接读取，避免每次 COUNT(*) 整张 device_log 超级表
+ *
+ * @author 芋道源码
+ */
+@Repository
+public class DeviceMessageStatisticsRedisDAO {
+
+    /**
+     * 每小时数量的保留时长
+     */
+    public static final Duration HOUR_COUNT_RETENTION = Duration.ofDays(31);
+
+    public static final String DIRECTION_ALL = "all";
+    public static final String DIRECTION_UPSTREAM = "up";
+    public static final String DIRECTION_DOWNSTREAM = "down";
+
+    private static final String FIELD_TOTAL = "total";
+    private static final String FIELD_START_TIME = "start_time";
+    private static final String FIELD_SEED = "seed";
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 批量累加消息数量，通过 pipeline 一次网络往返发送
+     *
+     * @param counters 累加的数量
+     * @param startTime 开始统计的时间（毫秒），仅第一次写入时生效
+     */
+    public void incrementBatch(Map<Counter, Long> counters, long startTime) {
+        if (counters.isEmpty()) {
+            return;
+        }
+        Set<String> hourKeys = new HashSet<>();
+        Set<String> countKeys = new HashSet<>();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            counters.forEach((counter, delta) -> {
+                String hourKey = formatHourKey(counter.getTenantId(), counter.getHour());
+                stringConnection.hIncrBy(hourKey, formatHourField(counter.getDirection(), counter.getHour()), delta);
+                if (hourKeys.add(hourKey)) {
+                    stringConnection.pExpire(hourKey, HOUR_COUNT_RETENTION.toMillis());
+                }
+                if (!DIRECTION_ALL.equals(counter.getDirection())) {
+                    return;
+                }
+                String countKey = formatCountKey(counter.getTenantId());
+                stringConnection.hIncrBy(countKey, FIELD_TOTAL, delta);
+                if (countKeys.add(countKey)) {
+                    stringConnection.hSetNX(countKey, FIELD_START_TIME, String.valueOf(startTime));
+                }
+            });
+            return null;
+        });
+    }
+
+    /**
+     * 获得消息数量的统计
+     *
+     * @param tenantId 租户编号
+     * @return 统计；未开始统计时，返回 null
+     */
+    public Count getCount(Long tenantId) {
+        List<Object> values = stringRedisTemplate.opsForHash().multiGet(formatCountKey(tenantId),
+                Arrays.asList(FIELD_TOTAL, FIELD_START_TIME, FIELD_SEED));
+        if (values.get(1) == null) {
+            return null;
+        }
+        return new Count(parseLong(values.get(0)), parseLong(values.get(1)),
+                values.get(2) != null ? parseLong(values.get(2)) : null);
+    }
+
+    /**
+     * 设置开始统计前的消息总数
+     *
+     * @param tenantId 租户编号
+     * @param seed 开始统计前的消息总数
+     */
+    public void setSeed(Long tenantId, long seed) {
+        stringRedisTemplate.opsForHash().putIfAbsent(formatCountKey(tenantId), FIELD_SEED, String.valueOf(seed));
+    }
+
+    /**
+     * 获得每小时的消息数量
+     *
+     * @param tenantId 租户编号
+     * @param direction 方向
+     * @param startHour 开始小时（毫秒，已对齐）
+     * @param endHour 结束小时（毫秒，已对齐，包含）
+     * @return 每小时的消息数量，key 为小时开始时间；没有消息的小时不存在
+     */
+    public Map<Long, Long> getHourCountMap(Long tenantId, String direction, long startHour, long endHour) {
+        // 1. 按天读取
+        List<String> hourKeys = new ArrayList<>();
+        for (long day = startHour; day <= endHour; day += TimeUnit.DAYS.toMillis(1)) {
+            hourKeys.add(formatHourKey(tenantId, day));
+        }
+        String lastHourKey = formatHourKey(tenantId, endHour);
+        if (!hourKeys.contains(lastHourKey)) {
+            hourKeys.add(lastHourKey);
+        }
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            hourKeys.forEach(stringConnection::hGetAll);
+            return null;
+        });
+
+        // 2. 过滤出方向、时间范围内的小时
+        String prefix = direction + StrUtil.COLON;
+        Map<Long, Long> result = new HashMap<>();
+        results.forEach(entries -> ((Map<?, ?>) entries).forEach((field, value) -> {
+            String fieldStr = String.valueOf(field);
+            if (!fieldStr.startsWith(prefix)) {
+                return;
+            }
+            long hour = Long.parseLong(fieldStr.substring(prefix.length()));
+            if (hour >= startHour && hour <= endHour) {
+                result.put(hour, parseLong(value));
+            }
+        }));
+        return result;
+    }
+
+    private static long parseLong(Object value) {
+        return value != null ? NumberUtil.parseLong(String.valueOf(value)) : 0L;
+    }
+
+    private static String formatCountKey(Long tenantId) {
+        return String.format(DEVICE_MESSAGE_COUNT, tenantId);
+    }
+
+    private static String formatHourKey(Long tenantId, long hour) {
+        return String.format(DEVICE_MESSAGE_HOUR_COUNT, tenantId, DateUtil.format(new Date(hour), DatePattern.PURE_DATE_PATTERN));
+    }
+
+    private static String formatHourField(String direction, long hour) {
+        return direction + StrUtil.COLON + hour;
+    }
+
+    /**
+     * 累加的计数器
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Counter {
+
+        /**
+         * 租户编号
+         */
+        private Long tenantId;
+        /**
+         * 方向，{@link #DIRECTION_ALL}、{@link #DIRECTION_UPSTREAM}、{@link #DIRECTION_DOWNSTREAM}
+         */
+        private String direction;
+        /**
+         * 小时开始时间（毫秒）
+         */
+        private Long hour;
+
+    }
+
+    /**
+     * 消息数量的统计
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Count {
+
+        /**
+         * 开始统计后的消息总数
+         */
+        private Long total;
+        /**
+         * 开始统计的时间（毫秒）
+         */
+        private Long startTime;
+        /**
+         * 开始统计前的消息总数，为空时表示尚未计算
+         */
+        private Long seed;
+
+    }
+
+}
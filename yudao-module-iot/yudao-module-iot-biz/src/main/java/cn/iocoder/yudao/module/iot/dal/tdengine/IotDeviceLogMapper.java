@@ -1,5 +1,6 @@
 package cn.iocoder.yudao.module.iot.dal.tdengine;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.iocoder.yudao.module.iot.controller.admin.device.vo.data.IotDeviceLogPageReqVO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDeviceLogDO;
 import cn.iocoder.yudao.module.iot.framework.tdengine.core.annotation.TDengineDS;
@@ -8,8 +9,7 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  * 设备日志 {@link IotDeviceLogDO} Mapper 接口
@@ -40,6 +40,24 @@ public interface IotDeviceLogMapper {
      */
     void insert(IotDeviceLogDO log);
 
+    /**
+     * 批量插入设备日志数据
+     *
+     * 按照子表分组，拼接成一条多表、多行的 INSERT 语句；子表不存在时，会自动创建
+     *
+     * @param logs 设备日志数据；需要设置 ts 时序时间，不能重复
+     */
+    default void insertBatch(List<IotDeviceLogDO> logs) {
+        if (CollUtil.isEmpty(logs)) {
+            return;
+        }
+        Map<String, List<IotDeviceLogDO>> groups = new LinkedHashMap<>();
+        logs.forEach(log -> groups.computeIfAbsent(log.getDeviceKey(), key -> new ArrayList<>()).add(log));
+        insertBatchByGroups(groups.values());
+    }
+
+    void insertBatchByGroups(@Param("groups") Collection<List<IotDeviceLogDO>> groups);
+
     /**
      * 获得设备日志分页
      *
@@ -53,9 +71,11 @@ public interface IotDeviceLogMapper {
      * 统计设备日志数量
      *
      * @param createTime 创建时间，如果为空，则统计所有日志数量
+     * @param endTime 结束时间（不包含），如果为空，则不限制
      * @return 日志数量
      */
-    Long selectCountByCreateTime(@Param("createTime") Long createTime);
+    Long selectCountByCreateTime(@Param("createTime") Long createTime,
+                                 @Param("endTime") Long endTime);
 
     // TODO @super：1）上行、下行，不写在 mapper 里，而是通过参数传递，这样，selectDeviceLogUpCountByHour、selectDeviceLogDownCountByHour 可以合并；
     //  TODO @super：2）不能只基于 identifier 来计算，而是要 type + identifier 成对
@@ -6,6 +6,7 @@ import cn.hutool.core.util.StrUtil;
 import cn.iocoder.yudao.module.iot.controller.admin.device.vo.data.IotDevicePropertyHistoryPageReqVO;
 import cn.iocoder.yudao.module.iot.controller.admin.device.vo.data.IotDevicePropertyRespVO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDeviceDO;
+import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDevicePropertyDataDO;
 import cn.iocoder.yudao.module.iot.framework.tdengine.core.TDengineTableField;
 import cn.iocoder.yudao.module.iot.framework.tdengine.core.annotation.TDengineDS;
 import com.baomidou.mybatisplus.annotation.InterceptorIgnore;
@@ -13,9 +14,7 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Mapper
@@ -84,7 +83,82 @@ public interface IotDevicePropertyMapper {
                 @Param("properties") Map<String, Object> properties,
                 @Param("reportTime") Long reportTime);
 
+    /**
+     * 批量插入设备属性数据
+     *
+     * 按照「子表 + 属性集合」分组，拼接成一条多表、多行的 INSERT 语句；子表不存在时，会自动创建
+     *
+     * @param list 设备属性数据；需要设置 ts 时序时间，不能重复
+     */
+    default void insertBatch(List<IotDevicePropertyDataDO> list) {
+        if (CollUtil.isEmpty(list)) {
+            return;
+        }
+        Map<String, List<IotDevicePropertyDataDO>> groups = new LinkedHashMap<>();
+        list.forEach(data -> groups.computeIfAbsent(data.getDeviceKey() + data.getProperties().keySet(),
+                key -> new ArrayList<>()).add(data));
+        insertBatchByGroups(groups.values());
+    }
+
+    void insertBatchByGroups(@Param("groups") Collection<List<IotDevicePropertyDataDO>> groups);
+
     IPage<IotDevicePropertyRespVO> selectPageByHistory(IPage<?> page,
                                                        @Param("reqVO") IotDevicePropertyHistoryPageReqVO reqVO);
 
+    /**
+     * 按照时间窗口聚合查询设备属性历史数据，没有数据的窗口不返回
+     *
+     * @param deviceKey 设备标识
+     * @param field 字段名
+     * @param function 聚合函数
+     * @param startTime 开始时间（毫秒，包含）
+     * @param endTime 结束时间（毫秒，不包含）
+     * @param interval 窗口大小（毫秒）
+     * @return 聚合结果，updateTime 为窗口开始时间
+     */
+    List<IotDevicePropertyRespVO> selectListByHistoryAggregate(@Param("deviceKey") String deviceKey,
+                                                               @Param("field") String field,
+                                                               @Param("function") String function,
+                                                               @Param("startTime") Long startTime,
+                                                               @Param("endTime") Long endTime,
+                                                               @Param("interval") Long interval);
+
+    /**
+     * 从流计算预聚合的超级表中，按照时间窗口二次聚合查询设备属性历史数据
+     *
+     * 窗口大小必须是预聚合窗口的整数倍
+     *
+     * @see #createProductPropertyAggregateStream(String, List, Long)
+     */
+    List<IotDevicePropertyRespVO> selectListByHistoryStreamAggregate(@Param("productKey") String productKey,
+                                                                     @Param("deviceKey") String deviceKey,
+                                                                     @Param("field") String field,
+                                                                     @Param("function") String function,
+                                                                     @Param("startTime") Long startTime,
+                                                                     @Param("endTime") Long endTime,
+                                                                     @Param("interval") Long interval);
+
+    /**
+     * 创建产品属性的预聚合流计算：按照设备分区、固定窗口，计算每个字段的 sum、count、min、max、last，
+     * 写入 product_property_agg_${productKey} 超级表；FILL_HISTORY 会回填已有的历史数据
+     *
+     * @param productKey 产品标识
+     * @param fields 数值类型的字段
+     * @param interval 预聚合窗口（毫秒）
+     */
+    void createProductPropertyAggregateStream(@Param("productKey") String productKey,
+                                              @Param("fields") List<TDengineTableField> fields,
+                                              @Param("interval") Long interval);
+
+    /**
+     * 获得流计算预聚合的超级表的字段
+     *
+     * @see #createProductPropertyAggregateStream(String, List, Long)
+     */
+    List<TDengineTableField> getProductPropertyAggregateSTableFieldList(@Param("productKey") String productKey);
+
+    void dropProductPropertyAggregateStream(@Param("productKey") String productKey);
+
+    void dropProductPropertyAggregateSTable(@Param("productKey") String productKey);
+
 }
@@ -0,0 +1,14 @@
+package cn.iocoder.yudao.module.iot.framework.databridge.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * IoT 数据桥梁发送的 Configuration
+ *
+ * @author 芋道源码
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(IotDataBridgeProperties.class)
+public class IotDataBridgeConfiguration {
+}
@@ -0,0 +1,94 @@
+package cn.iocoder.yudao.module.iot.framework.databridge.config;
+
+import cn.iocoder.yudao.framework.common.core.BufferedBatchWriter;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * IoT 数据桥梁发送的配置项
+ *
+ * @author 芋道源码
+ */
+@ConfigurationProperties(prefix = "iot.data-bridge")
+@Validated
+@Data
+public class IotDataBridgeProperties {
+
+    /**
+     * 是否异步发送；关闭时，在规则场景的执行线程中同步发送
+     */
+    @NotNull(message = "是否异步发送不能为空")
+    private Boolean async = true;
+    /**
+     * 每个数据桥梁的缓冲队列的容量，即最多积压的消息数量
+     */
+    @NotNull(message = "缓冲队列的容量不能为空")
+    private Integer capacity = 10000;
+    /**
+     * 每批最大数量
+     */
+    @NotNull(message = "每批最大数量不能为空")
+    private Integer batchSize = 100;
+    /**
+     * 最大攒批时长，即发送的延迟预算
+     */
+    @NotNull(message = "最大攒批时长不能为空")
+    private Duration flushInterval = Duration.ofMillis(100L);
+    /**
+     * 队列满时的溢出策略
+     *
+     * 默认 DROP：某个数据桥梁的目标缓慢或不可用时，丢弃它的消息，不拖慢规则场景的执行
+     */
+    @NotNull(message = "溢出策略不能为空")
+    private BufferedBatchWriter.OverflowPolicy overflowPolicy = BufferedBatchWriter.OverflowPolicy.DROP;
+    /**
+     * 采样率，仅 SAMPLE 溢出策略使用
+     */
+    private Double sampleRate = 0.1D;
+    /**
+     * 最大阻塞时长，仅 BLOCK 溢出策略使用
+     */
+    private Duration blockTimeout = Duration.ofMillis(100L);
+    /**
+     * 关闭时，等待剩余消息发送的最大时长
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(10L);
+
+    /**
+     * HTTP 数据桥梁的配置
+     */
+    @Valid
+    private Http http = new Http();
+
+    @Data
+    public static class Http {
+
+        /**
+         * 连接池的最大连接数
+         */
+        @NotNull(message = "连接池的最大连接数不能为空")
+        private Integer maxConnections = 200;
+        /**
+         * 连接池的每个目标地址的最大连接数
+         */
+        @NotNull(message = "每个目标地址的最大连接数不能为空")
+        private Integer maxConnectionsPerRoute = 20;
+        /**
+         * 连接超时时间
+         */
+        @NotNull(message = "连接超时时间不能为空")
+        private Duration connectTimeout = Duration.ofSeconds(5L);
+        /**
+         * 读取超时时间
+         */
+        @NotNull(message = "读取超时时间不能为空")
+        private Duration readTimeout = Duration.ofSeconds(10L);
+
+    }
+
+}
@@ -0,0 +1,33 @@
+package cn.iocoder.yudao.module.iot.framework.mq.config;
+
+import cn.iocoder.yudao.module.iot.framework.mq.core.IotDeviceMessageSubscriber;
+import cn.iocoder.yudao.module.iot.framework.mq.core.IotLocalDeviceMessageTransport;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * IoT 设备消息 pipeline 的配置类
+ *
+ * @author 芋道源码
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(IotMessagePipelineProperties.class)
+public class IotMessagePipelineConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(prefix = "iot.message-pipeline", name = "transport", havingValue = "local", matchIfMissing = true)
+    public IotLocalDeviceMessageTransport iotLocalDeviceMessageTransport(IotMessagePipelineProperties properties,
+                                                                         List<IotDeviceMessageSubscriber> subscribers,
+                                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        IotLocalDeviceMessageTransport transport = new IotLocalDeviceMessageTransport(properties, subscribers);
+        meterRegistry.ifAvailable(transport::bindTo);
+        return transport;
+    }
+
+}
@@ -0,0 +1,59 @@
+package cn.iocoder.yudao.module.iot.framework.mq.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * IoT 设备消息 pipeline 的配置项
+ *
+ * @author 芋道源码
+ */
+@ConfigurationProperties(prefix = "iot.message-pipeline")
+@Validated
+@Data
+public class IotMessagePipelineProperties {
+
+    /**
+     * 传输方式
+     */
+    @NotNull(message = "传输方式不能为空")
+    private Transport transport = Transport.LOCAL;
+    /**
+     * 每个订阅者的分区（lane）数量，即消费线程数
+     *
+     * 同一个设备的消息，固定路由到同一个分区，保证顺序
+     */
+    @NotNull(message = "分区数量不能为空")
+    @Min(value = 1, message = "分区数量不能小于 1")
+    private Integer lanes = 4;
+    /**
+     * 每个分区的队列容量
+     */
+    @NotNull(message = "分区的队列容量不能为空")
+    @Min(value = 1, message = "分区的队列容量不能小于 1")
+    private Integer queueCapacity = 1024;
+    /**
+     * 队列满时，发送方的最大阻塞时长；超过后，丢弃消息
+     */
+    @NotNull(message = "最大阻塞时长不能为空")
+    private Duration blockTimeout = Duration.ofMillis(500L);
+    /**
+     * 关闭时，等待剩余消息消费的最大时长
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(10L);
+
+    public enum Transport {
+
+        /**
+         * 本地内存，基于有界的环形队列
+         */
+        LOCAL
+
+    }
+
+}
@@ -0,0 +1,29 @@
+package cn.iocoder.yudao.module.iot.framework.mq.core;
+
+import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
+
+/**
+ * IoT 设备消息的订阅者
+ *
+ * 每个订阅者是 pipeline 中独立的一个 stage：拥有独立的分区队列与消费线程，慢的订阅者不会拖慢其它订阅者；
+ * 同一个设备的消息，在同一个订阅者内按照发送顺序串行消费
+ *
+ * @author 芋道源码
+ */
+public interface IotDeviceMessageSubscriber {
+
+    /**
+     * 获得订阅者名字，用于线程名、监控指标
+     *
+     * @return 名字
+     */
+    String getName();
+
+    /**
+     * 处理消息
+     *
+     * @param message 设备消息
+     */
+    void onMessage(IotDeviceMessage message);
+
+}
@@ -0,0 +1,22 @@
+package cn.iocoder.yudao.module.iot.framework.mq.core;
+
+import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
+
+/**
+ * IoT 设备消息的传输，负责将消息按照设备分区，投递给所有的 {@link IotDeviceMessageSubscriber}
+ *
+ * 目前只有 {@link IotLocalDeviceMessageTransport} 本地内存的实现；后续可扩展 Redis Stream、Kafka 等实现，
+ * 以设备编号作为分区键即可保证同一设备的顺序
+ *
+ * @author 芋道源码
+ */
+public interface IotDeviceMessageTransport {
+
+    /**
+     * 发送消息
+     *
+     * @param message 设备消息
+     */
+    void send(IotDeviceMessage message);
+
+}
@@ -0,0 +1,238 @@
+package cn.iocoder.yudao.module.iot.framework.mq.core;
+
+import cn.iocoder.yudao.framework.tenant.core.util.TenantUtils;
+import cn.iocoder.yudao.module.iot.framework.mq.config.IotMessagePipelineProperties;
+import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于本地内存的 {@link IotDeviceMessageTransport} 实现类
+ *
+ * 每个 {@link IotDeviceMessageSubscriber} 对应一个 stage，每个 stage 有 N 个 lane（分区），每个 lane 是「有界环形队列 + 单线程」：
+ * 1. 顺序：按照设备编号 hash 到固定的 lane，同一设备的消息在每个 stage 内串行消费
+ * 2. 隔离：stage 之间的队列、线程相互独立，例如说规则场景执行慢，不会拖慢属性的持久化
+ * 3. 背压：lane 队列满时，阻塞发送方最多 blockTimeout 时长；仍然满时，丢弃该 stage 的这条消息，并计入监控
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class IotLocalDeviceMessageTransport implements IotDeviceMessageTransport {
+
+    /**
+     * 当前线程是否为 lane 的消费线程
+     *
+     * 订阅者在消费时再次发送消息（例如说，设备上线），如果阻塞等待自己所在的 lane，可能互相等待，所以此时不阻塞
+     */
+    private static final ThreadLocal<Boolean> IN_LANE = new ThreadLocal<>();
+    /**
+     * lane 拉取消息的超时时间（毫秒），用于检查是否停止
+     */
+    private static final long POLL_TIMEOUT_MILLIS = 100L;
+
+    private final IotMessagePipelineProperties properties;
+    private final List<Stage> stages;
+
+    private volatile boolean running;
+
+    public IotLocalDeviceMessageTransport(IotMessagePipelineProperties properties,
+                                          List<IotDeviceMessageSubscriber> subscribers) {
+        this.properties = properties;
+        this.stages = new ArrayList<>(subscribers.size());
+        subscribers.forEach(subscriber -> stages.add(new Stage(subscriber)));
+    }
+
+    public void start() {
+        running = true;
+        stages.forEach(Stage::start);
+        log.info("[start][启动 {} 个 stage，每个 stage {} 个 lane]", stages.size(), properties.getLanes());
+    }
+
+    public void stop() {
+        running = false;
+        long deadline = System.nanoTime() + properties.getShutdownTimeout().toNanos();
+        for (Stage stage : stages) {
+            for (Lane lane : stage.lanes) {
+                try {
+                    lane.thread.join(Math.max(1L, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (lane.thread.isAlive()) {
+                    log.warn("[stop][stage({}) lane({}) 等待消费剩余 {} 条消息超时]", stage.name, lane.thread.getName(),
+                            lane.queue.size());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void send(IotDeviceMessage message) {
+        if (!running) {
+            log.warn("[send][pipeline 未启动或已停止，丢弃消息({})]", message);
+            return;
+        }
+        int partition = partition(message);
+        boolean inLane = Boolean.TRUE.equals(IN_LANE.get());
+        for (Stage stage : stages) {
+            stage.offer(partition, message, inLane);
+        }
+    }
+
+    /**
+     * 计算消息所在的分区：优先使用设备编号，不存在时使用产品标识 + 设备名称
+     *
+     * @param message 设备消息
+     * @return 分区
+     */
+    private int partition(IotDeviceMessage message) {
+        int hash = message.getDeviceKey() != null ? message.getDeviceKey().hashCode()
+                : Objects.hash(message.getProductKey(), message.getDeviceName());
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, properties.getLanes());
+    }
+
+    /**
+     * 注册监控指标，指标名为 iot.message-pipeline.*，通过 stage 标签区分不同的订阅者
+     *
+     * @param registry MeterRegistry
+     */
+    public void bindTo(MeterRegistry registry) {
+        stages.forEach(stage -> {
+            Gauge.builder("iot.message-pipeline.queued", stage, Stage::getQueueSize)
+                    .tag("stage", stage.name).description("待消费的消息数量").register(registry);
+            FunctionCounter.builder("iot.message-pipeline.dropped", stage.droppedCount, AtomicLong::get)
+                    .tag("stage", stage.name).description("队列满被丢弃的消息数量").register(registry);
+            FunctionCounter.builder("iot.message-pipeline.consumed", stage.consumedCount, AtomicLong::get)
+                    .tag("stage", stage.name).description("消费成功的消息数量").register(registry);
+            FunctionCounter.builder("iot.message-pipeline.failed", stage.failedCount, AtomicLong::get)
+                    .tag("stage", stage.name).description("消费异常的消息数量").register(registry);
+            stage.timer = Timer.builder("iot.message-pipeline.process")
+                    .tag("stage", stage.name).description("消费耗时").register(registry);
+        });
+    }
+
+    /**
+     * pipeline 的 stage，对应一个 {@link IotDeviceMessageSubscriber}
+     */
+    private class Stage {
+
+        private final String name;
+        private final IotDeviceMessageSubscriber subscriber;
+        private final Lane[] lanes;
+
+        private final AtomicLong droppedCount = new AtomicLong();
+        private final AtomicLong consumedCount = new AtomicLong();
+        private final AtomicLong failedCount = new AtomicLong();
+        /**
+         * 消费耗时，为空时不统计
+         */
+        private volatile Timer timer;
+
+        private Stage(IotDeviceMessageSubscriber subscriber) {
+            this.name = subscriber.getName();
+            this.subscriber = subscriber;
+            this.lanes = new Lane[properties.getLanes()];
+            for (int i = 0; i < lanes.length; i++) {
+                lanes[i] = new Lane(this, i);
+            }
+        }
+
+        private void start() {
+            for (Lane lane : lanes) {
+                lane.thread.start();
+            }
+        }
+
+        private void offer(int partition, IotDeviceMessage message, boolean inLane) {
+            BlockingQueue<IotDeviceMessage> queue = lanes[partition].queue;
+            boolean success;
+            try {
+                success = inLane ? queue.offer(message)
+                        : queue.offer(message, properties.getBlockTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                success = false;
+            }
+            if (!success) {
+                droppedCount.incrementAndGet();
+                log.warn("[offer][stage({}) lane({}) 队列已满，丢弃消息({})]", name, partition, message.getRequestId());
+            }
+        }
+
+        private void consume(IotDeviceMessage message) {
+            long startTime = System.nanoTime();
+            try {
+                if (message.getTenantId() != null) {
+                    TenantUtils.execute(message.getTenantId(), () -> subscriber.onMessage(message));
+                } else {
+                    subscriber.onMessage(message);
+                }
+                consumedCount.incrementAndGet();
+            } catch (Throwable ex) {
+                failedCount.incrementAndGet();
+                log.error("[consume][stage({}) 消费消息({}) 异常]", name, message, ex);
+            } finally {
+                Timer timer = this.timer;
+                if (timer != null) {
+                    timer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        private int getQueueSize() {
+            int size = 0;
+            for (Lane lane : lanes) {
+                size += lane.queue.size();
+            }
+            return size;
+        }
+
+    }
+
+    /**
+     * stage 的一个分区：有界环形队列 + 单线程
+     */
+    private class Lane {
+
+        private final BlockingQueue<IotDeviceMessage> queue;
+        private final Thread thread;
+
+        private Lane(Stage stage, int index) {
+            this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+            this.thread = new Thread(() -> run(stage), "iot-" + stage.name + "-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void run(Stage stage) {
+            IN_LANE.set(Boolean.TRUE);
+            // 停止时，继续消费完队列中剩余的消息
+            while (running || !queue.isEmpty()) {
+                IotDeviceMessage message;
+                try {
+                    message = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (message != null) {
+                    stage.consume(message);
+                }
+            }
+        }
+
+    }
+
+}
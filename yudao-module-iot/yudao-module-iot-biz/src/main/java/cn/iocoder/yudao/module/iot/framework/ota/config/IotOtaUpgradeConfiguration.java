@@ -0,0 +1,14 @@
+package cn.iocoder.yudao.module.iot.framework.ota.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * IoT OTA 升级的 Configuration
+ *
+ * @author 芋道源码
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(IotOtaUpgradeProperties.class)
+public class IotOtaUpgradeConfiguration {
+}
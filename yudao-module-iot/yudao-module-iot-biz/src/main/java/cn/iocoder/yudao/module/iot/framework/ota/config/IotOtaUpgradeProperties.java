@@ -0,0 +1,57 @@
+package cn.iocoder.yudao.module.iot.framework.ota.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * IoT OTA 升级的配置项
+ *
+ * @author 芋道源码
+ */
+@ConfigurationProperties(prefix = "iot.ota-upgrade")
+@Validated
+@Data
+public class IotOtaUpgradeProperties {
+
+    /**
+     * 推送速率，即每秒最多推送的设备数量，避免大量设备同时下载固件
+     */
+    @NotNull(message = "推送速率不能为空")
+    private Double pushRate = 20D;
+    /**
+     * 每波推送的设备数量：每次执行 Job 时，每个升级任务最多推送一波
+     */
+    @NotNull(message = "每波推送的设备数量不能为空")
+    private Integer waveSize = 200;
+
+    /**
+     * 升级进度的合并时长：同一设备在该时长内多次上报进度，只保留最新的一次，再批量更新升级记录
+     */
+    @NotNull(message = "升级进度的合并时长不能为空")
+    private Duration progressFlushInterval = Duration.ofSeconds(1L);
+    /**
+     * 升级进度每批最大更新数量
+     */
+    @NotNull(message = "升级进度每批最大更新数量不能为空")
+    private Integer progressBatchSize = 500;
+    /**
+     * 待更新升级进度的最大数量，超过时提前更新
+     */
+    @NotNull(message = "待更新升级进度的最大数量不能为空")
+    private Integer progressMaxPendingSize = 10000;
+    /**
+     * 关闭时，等待剩余升级进度更新的最大时长
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(10L);
+
+    /**
+     * 升级记录各状态数量的过期时长，过期后从数据库重新统计，修正计数的偏差
+     */
+    @NotNull(message = "升级记录各状态数量的过期时长不能为空")
+    private Duration countExpire = Duration.ofHours(1L);
+
+}
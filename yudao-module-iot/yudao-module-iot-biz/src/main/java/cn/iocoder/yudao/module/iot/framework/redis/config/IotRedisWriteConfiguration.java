@@ -0,0 +1,14 @@
+package cn.iocoder.yudao.module.iot.framework.redis.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * IoT Redis 合并写入的 Configuration
+ *
+ * @author 芋道源码
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(IotRedisWriteProperties.class)
+public class IotRedisWriteConfiguration {
+}
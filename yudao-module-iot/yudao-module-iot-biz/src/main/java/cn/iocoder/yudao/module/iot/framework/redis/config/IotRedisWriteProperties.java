@@ -0,0 +1,47 @@
+package cn.iocoder.yudao.module.iot.framework.redis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * IoT Redis 合并写入的配置项
+ *
+ * 设备的最后上报时间、最新属性，在 flushInterval 内只保留每个设备的最新值，再批量写入 Redis
+ *
+ * @author 芋道源码
+ */
+@ConfigurationProperties(prefix = "iot.redis.write")
+@Validated
+@Data
+public class IotRedisWriteProperties {
+
+    /**
+     * 是否开启合并写入；关闭时，每条消息单独写入 Redis
+     */
+    @NotNull(message = "是否开启合并写入不能为空")
+    private Boolean enable = true;
+    /**
+     * 合并时长，即写入的延迟预算
+     */
+    @NotNull(message = "合并时长不能为空")
+    private Duration flushInterval = Duration.ofMillis(500L);
+    /**
+     * 每批最大设备数量，即一次 pipeline 的命令数
+     */
+    @NotNull(message = "每批最大设备数量不能为空")
+    private Integer batchSize = 500;
+    /**
+     * 待写入设备的最大数量，超过时提前写入
+     */
+    @NotNull(message = "待写入设备的最大数量不能为空")
+    private Integer maxPendingSize = 50000;
+    /**
+     * 关闭时，等待剩余数据写入的最大时长
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(10L);
+
+}
@@ -0,0 +1,38 @@
+package cn.iocoder.yudao.module.iot.framework.redis.core;
+
+import cn.iocoder.yudao.framework.common.core.CoalescingWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+
+/**
+ * {@link CoalescingWriter} 合并写入 Redis 的监控指标
+ *
+ * 指标名为 iot.redis-write.*，通过 name 标签区分不同的写入器；offered 与 flushed 的差值，即合并掉的 Redis 写入次数
+ *
+ * @author 芋道源码
+ */
+@AllArgsConstructor
+public class IotCoalescingWriterMeterBinder implements MeterBinder {
+
+    private final CoalescingWriter<?, ?> writer;
+    /**
+     * pending 指标的描述，即写入器 key 的含义，例如说「待写入的设备数量」
+     */
+    private final String pendingDescription;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("iot.redis-write.pending", writer, CoalescingWriter::getPendingSize)
+                .tag("name", writer.getName()).description(pendingDescription).register(registry);
+        FunctionCounter.builder("iot.redis-write.offered", writer, CoalescingWriter::getOfferedCount)
+                .tag("name", writer.getName()).description("合并前的写入次数").register(registry);
+        FunctionCounter.builder("iot.redis-write.flushed", writer, CoalescingWriter::getFlushedCount)
+                .tag("name", writer.getName()).description("合并后写入成功的数量").register(registry);
+        FunctionCounter.builder("iot.redis-write.failed", writer, CoalescingWriter::getFailedCount)
+                .tag("name", writer.getName()).description("合并后写入失败的数量").register(registry);
+    }
+
+}
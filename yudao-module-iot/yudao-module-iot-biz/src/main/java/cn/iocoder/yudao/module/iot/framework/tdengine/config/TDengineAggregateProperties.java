@@ -0,0 +1,45 @@
+package cn.iocoder.yudao.module.iot.framework.tdengine.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * TDengine 设备属性历史聚合查询的配置项
+ *
+ * @author 芋道源码
+ */
+@ConfigurationProperties(prefix = "iot.tdengine.aggregate")
+@Validated
+@Data
+public class TDengineAggregateProperties {
+
+    /**
+     * 是否开启 TDengine 流计算预聚合
+     *
+     * 开启后，定义产品属性时，为数值类型的属性创建 1 分钟窗口的流计算，查询窗口为 1 分钟整数倍时，从预聚合的超级表中二次聚合
+     */
+    @NotNull(message = "是否开启流计算预聚合不能为空")
+    private Boolean streamEnable = false;
+    /**
+     * 是否开启聚合结果的缓存
+     *
+     * 只缓存已经关闭的窗口，即窗口结束时间早于 当前时间 - closeDelay；从流计算预聚合查询的窗口可能尚未完整，不缓存
+     */
+    @NotNull(message = "是否开启聚合结果的缓存不能为空")
+    private Boolean cacheEnable = true;
+    /**
+     * 聚合结果的缓存时长
+     */
+    @NotNull(message = "聚合结果的缓存时长不能为空")
+    private Duration cacheTimeout = Duration.ofDays(1L);
+    /**
+     * 窗口关闭的延迟，用于容忍设备数据的延迟上报
+     */
+    @NotNull(message = "窗口关闭的延迟不能为空")
+    private Duration closeDelay = Duration.ofMinutes(1L);
+
+}
@@ -0,0 +1,14 @@
+package cn.iocoder.yudao.module.iot.framework.tdengine.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * TDengine 批量写入、聚合查询的 Configuration
+ *
+ * @author 芋道源码
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties({TDengineBatchProperties.class, TDengineAggregateProperties.class})
+public class TDengineBatchConfiguration {
+}
@@ -0,0 +1,65 @@
+package cn.iocoder.yudao.module.iot.framework.tdengine.config;
+
+import cn.iocoder.yudao.framework.common.core.BufferedBatchWriter;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * TDengine 批量写入的配置项
+ *
+ * 设备属性、设备日志共用该配置，各自使用独立的缓冲队列
+ *
+ * @author 芋道源码
+ */
+@ConfigurationProperties(prefix = "iot.tdengine.batch")
+@Validated
+@Data
+public class TDengineBatchProperties {
+
+    /**
+     * 是否开启批量写入；关闭时，每条消息单独 insert
+     */
+    @NotNull(message = "是否开启批量写入不能为空")
+    private Boolean enable = true;
+    /**
+     * 缓冲队列的容量
+     */
+    @NotNull(message = "缓冲队列的容量不能为空")
+    private Integer capacity = 20000;
+    /**
+     * 每批最大数量
+     *
+     * 注意，TDengine 单条 SQL 默认最大 1MB，需要结合单行大小设置
+     */
+    @NotNull(message = "每批最大数量不能为空")
+    private Integer batchSize = 500;
+    /**
+     * 最大攒批时长，即写入的延迟预算
+     */
+    @NotNull(message = "最大攒批时长不能为空")
+    private Duration flushInterval = Duration.ofMillis(500L);
+    /**
+     * 队列满时的溢出策略
+     *
+     * 默认 BLOCK：阻塞消费线程，形成背压，避免设备数据被静默丢弃
+     */
+    @NotNull(message = "溢出策略不能为空")
+    private BufferedBatchWriter.OverflowPolicy overflowPolicy = BufferedBatchWriter.OverflowPolicy.BLOCK;
+    /**
+     * 采样率，仅 SAMPLE 溢出策略使用
+     */
+    private Double sampleRate = 0.1D;
+    /**
+     * 最大阻塞时长，仅 BLOCK 溢出策略使用
+     */
+    private Duration blockTimeout = Duration.ofSeconds(1L);
+    /**
+     * 关闭时，等待剩余数据写入的最大时长
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(10L);
+
+}
@@ -0,0 +1,217 @@
+package cn.iocoder.yudao.module.iot.framework.tdengine.core;
+
+import cn.iocoder.yudao.framework.common.core.BufferedBatchWriter;
+import cn.iocoder.yudao.module.iot.framework.tdengine.config.TDengineBatchProperties;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * TDengine 的批量写入器（write-behind）
+ *
+ * 基于 {@link BufferedBatchWriter} 攒批，按照「数量」或「时间」触发 flush：
+ * 1. 按照子表分组，交给 inserter 拼接成一条「多表、多行」的 INSERT 语句，一次网络往返写入整批数据
+ * 2. 为每行分配显式的时间戳：使用入队时间，并保证同一子表内严格递增，避免同一批次内 NOW 相同导致的数据覆盖
+ * 3. 整批写入失败时（例如说，某个产品的超级表未定义），降级为逐个子表写入，避免一个子表拖累整批数据
+ *
+ * @param <T> 数据类型
+ * @author 芋道源码
+ */
+@Slf4j
+public class TDengineBatchWriter<T> {
+
+    /**
+     * 子表最后时间戳的过期时长
+     *
+     * 超过该时长没有写入的子表，最后时间戳必然早于新数据的入队时间，不再需要记录，避免子表（设备）越来越多时无限增长
+     */
+    private static final Duration LAST_TS_EXPIRE = Duration.ofMinutes(10L);
+
+    private final String name;
+    /**
+     * 获得数据所属的子表
+     */
+    private final Function<T, String> tableFunction;
+    /**
+     * 设置数据的时间戳
+     */
+    private final BiConsumer<T, Long> tsSetter;
+    /**
+     * 批量写入的逻辑，传入的数据已经按照子表连续排列
+     */
+    private final Consumer<List<T>> inserter;
+
+    private final BufferedBatchWriter<Row<T>> writer;
+    /**
+     * 每个子表最后写入的时间戳，超过 {@link #LAST_TS_EXPIRE} 没有写入时过期
+     *
+     * KEY：子表
+     */
+    private final Cache<String, Long> lastTsCache;
+
+    /**
+     * 执行的 INSERT 语句数量
+     */
+    private final AtomicLong statementCount = new AtomicLong();
+    /**
+     * 降级为逐个子表写入的次数
+     */
+    private final AtomicLong fallbackCount = new AtomicLong();
+    /**
+     * 降级后，仍然写入失败的数量
+     */
+    private final AtomicLong discardedCount = new AtomicLong();
+    /**
+     * flush 耗时，为空时不统计
+     */
+    private Timer flushTimer;
+
+    public TDengineBatchWriter(String name, TDengineBatchProperties properties,
+                               Function<T, String> tableFunction, BiConsumer<T, Long> tsSetter,
+                               Consumer<List<T>> inserter) {
+        this(name, properties, tableFunction, tsSetter, inserter, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    TDengineBatchWriter(String name, TDengineBatchProperties properties,
+                        Function<T, String> tableFunction, BiConsumer<T, Long> tsSetter,
+                        Consumer<List<T>> inserter, Ticker ticker) {
+        this.name = name;
+        this.tableFunction = tableFunction;
+        this.tsSetter = tsSetter;
+        this.inserter = inserter;
+        this.lastTsCache = CacheBuilder.newBuilder().expireAfterAccess(LAST_TS_EXPIRE).ticker(ticker).build();
+        this.writer = new BufferedBatchWriter<>(name, properties.getCapacity(), properties.getBatchSize(),
+                properties.getFlushInterval(), properties.getOverflowPolicy(), properties.getSampleRate(),
+                properties.getBlockTimeout(), this::flush);
+    }
+
+    /**
+     * 放入数据
+     *
+     * @param item 数据
+     * @return 是否放入成功；false 表示被丢弃
+     */
+    public boolean offer(T item) {
+        return writer.offer(new Row<>(item, System.currentTimeMillis()));
+    }
+
+    public void shutdown(Duration timeout) {
+        writer.shutdown(timeout);
+    }
+
+    /**
+     * 注册监控指标，指标名为 iot.tdengine.batch.*，通过 name 标签区分不同的写入器
+     *
+     * @param registry MeterRegistry
+     */
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("iot.tdengine.batch.queued", writer, BufferedBatchWriter::getQueueSize)
+                .tag("name", name).description("待写入的数量").register(registry);
+        FunctionCounter.builder("iot.tdengine.batch.dropped", writer, BufferedBatchWriter::getDroppedCount)
+                .tag("name", name).description("队列满被丢弃的数量").register(registry);
+        FunctionCounter.builder("iot.tdengine.batch.flushed", writer, BufferedBatchWriter::getFlushedCount)
+                .tag("name", name).description("flush 的数量").register(registry);
+        FunctionCounter.builder("iot.tdengine.batch.failed", writer, BufferedBatchWriter::getFailedCount)
+                .tag("name", name).description("flush 异常的数量").register(registry);
+        FunctionCounter.builder("iot.tdengine.batch.discarded", discardedCount, AtomicLong::get)
+                .tag("name", name).description("降级写入后，仍然失败的数量").register(registry);
+        FunctionCounter.builder("iot.tdengine.batch.statements", statementCount, AtomicLong::get)
+                .tag("name", name).description("执行的 INSERT 语句数量").register(registry);
+        FunctionCounter.builder("iot.tdengine.batch.fallbacks", fallbackCount, AtomicLong::get)
+                .tag("name", name).description("降级为逐个子表写入的次数").register(registry);
+        flushTimer = Timer.builder("iot.tdengine.batch.flush")
+                .tag("name", name).description("flush 耗时").register(registry);
+    }
+
+    private void flush(List<Row<T>> rows) {
+        long startTime = System.nanoTime();
+        try {
+            doFlush(rows);
+        } finally {
+            if (flushTimer != null) {
+                flushTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void doFlush(List<Row<T>> rows) {
+        // 1. 按照子表分组，并分配时间戳
+        Map<String, List<T>> tables = new LinkedHashMap<>();
+        for (Row<T> row : rows) {
+            String table = tableFunction.apply(row.item);
+            Long lastTs = lastTsCache.getIfPresent(table);
+            long ts = lastTs != null ? Math.max(row.time, lastTs + 1) : row.time;
+            lastTsCache.put(table, ts);
+            tsSetter.accept(row.item, ts);
+            tables.computeIfAbsent(table, key -> new ArrayList<>()).add(row.item);
+        }
+
+        // 2. 整批写入
+        List<T> items = new ArrayList<>(rows.size());
+        tables.values().forEach(items::addAll);
+        try {
+            statementCount.incrementAndGet();
+            inserter.accept(items);
+            return;
+        } catch (RuntimeException ex) {
+            if (tables.size() == 1) {
+                throw ex;
+            }
+            fallbackCount.incrementAndGet();
+            log.warn("[doFlush][{} 整批写入 {} 个子表失败，降级为逐个子表写入]", name, tables.size(), ex);
+        }
+
+        // 3. 降级：逐个子表写入
+        tables.forEach((table, tableItems) -> {
+            try {
+                statementCount.incrementAndGet();
+                inserter.accept(tableItems);
+            } catch (RuntimeException ex) {
+                discardedCount.addAndGet(tableItems.size());
+                log.error("[doFlush][{} 子表({}) 写入 {} 条数据失败]", name, table, tableItems.size(), ex);
+            }
+        });
+    }
+
+    public long getDiscardedCount() {
+        return discardedCount.get();
+    }
+
+    public long getStatementCount() {
+        return statementCount.get();
+    }
+
+    @VisibleForTesting
+    long getLastTsSize() {
+        lastTsCache.cleanUp();
+        return lastTsCache.size();
+    }
+
+    @AllArgsConstructor
+    private static class Row<T> {
+
+        private final T item;
+        /**
+         * 入队时间
+         */
+        private final long time;
+
+    }
+
+}
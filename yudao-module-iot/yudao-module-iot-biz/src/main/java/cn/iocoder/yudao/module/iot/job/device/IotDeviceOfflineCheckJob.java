@@ -1,11 +1,7 @@
 package cn.iocoder.yudao.module.iot.job.device;
 
-import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.util.IdUtil;
-import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
+import cn.hutool.core.util.StrUtil;
 import cn.iocoder.yudao.framework.quartz.core.handler.JobHandler;
-import cn.iocoder.yudao.framework.tenant.core.job.TenantJob;
-import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.IotDeviceStateUpdateReqDTO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDeviceDO;
 import cn.iocoder.yudao.module.iot.enums.device.IotDeviceStateEnum;
 import cn.iocoder.yudao.module.iot.service.device.IotDeviceService;
@@ -16,15 +12,19 @@ import org.springframework.stereotype.Component;
 import javax.annotation.Resource;
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 /**
  * IoT 设备离线检查 Job
  *
  * 检测逻辑：设备最后一条 {@link cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage} 消息超过一定时间，则认为设备离线
  *
+ * 实现逻辑：设备的最后上报时间，记录在 ZSET 中，按照上报时间排序。每次执行时，只分批获取已经超时的设备，下线后从 ZSET 中移除；
+ * 设备再次上报时，会重新写入 ZSET。因此，每次只处理上次执行以来超时的设备，无需扫描全部在线设备。
+ *
+ * 注意：ZSET 是跨租户的，所以不使用 @TenantJob 注解，避免每个租户重复扫描
+ *
  * @author 芋道源码
  */
 @Component
@@ -37,6 +37,15 @@ public class IotDeviceOfflineCheckJob implements JobHandler {
      */
     public static final Duration OFFLINE_TIMEOUT = Duration.ofMinutes(10);
 
+    /**
+     * 每批处理的设备数量
+     */
+    private static final int BATCH_SIZE = 1000;
+    /**
+     * 每次执行的最大批次，避免单次执行时间过长；剩余的设备，下次执行时继续处理
+     */
+    private static final int MAX_BATCH_COUNT = 100;
+
     @Resource
     private IotDeviceService deviceService;
     @Resource
@@ -45,31 +54,31 @@ public class IotDeviceOfflineCheckJob implements JobHandler {
     private IotDeviceUpstreamService deviceUpstreamService;
 
     @Override
-    @TenantJob
     public String execute(String param) {
-        // 1.1 获得在线设备列表
-        List<IotDeviceDO> devices = deviceService.getDeviceListByState(IotDeviceStateEnum.ONLINE.getState());
-        if (CollUtil.isEmpty(devices)) {
-            return JsonUtils.toJsonString(Collections.emptyList());
-        }
-        // 1.2 获取超时的 deviceKey 集合
-        Set<String> timeoutDeviceKeys = devicePropertyService.getDeviceKeysByReportTime(
-                LocalDateTime.now().minus(OFFLINE_TIMEOUT));
-
-        // 2. 下线设备
-        List<String> offlineDeviceKeys = CollUtil.newArrayList();
-        for (IotDeviceDO device : devices) {
-            if (!timeoutDeviceKeys.contains(device.getDeviceKey())) {
-                continue;
+        LocalDateTime maxReportTime = LocalDateTime.now().minus(OFFLINE_TIMEOUT);
+        int timeoutCount = 0;
+        int offlineCount = 0;
+        for (int i = 0; i < MAX_BATCH_COUNT; i++) {
+            // 1. 获得一批超时的设备。已处理的设备会从 ZSET 中移除，所以每次都从头获取
+            Map<String, Long> reportTimes = devicePropertyService.getDeviceReportTimeMap(maxReportTime, BATCH_SIZE);
+            if (reportTimes.isEmpty()) {
+                break;
             }
-            offlineDeviceKeys.add(device.getDeviceKey());
+            timeoutCount += reportTimes.size();
+
+            // 2. 批量下线设备
             // 为什么不直接更新状态呢？因为通过 IotDeviceMessage 可以经过一系列的处理，例如说记录日志等等
-            deviceUpstreamService.updateDeviceState(((IotDeviceStateUpdateReqDTO)
-                    new IotDeviceStateUpdateReqDTO().setRequestId(IdUtil.fastSimpleUUID()).setReportTime(LocalDateTime.now())
-                            .setProductKey(device.getProductKey()).setDeviceName(device.getDeviceName()))
-                    .setState((IotDeviceStateEnum.OFFLINE.getState())));
+            List<IotDeviceDO> devices = deviceService.getDeviceListByDeviceKeys(reportTimes.keySet());
+            offlineCount += deviceUpstreamService.updateDeviceStateBatch(devices,
+                    IotDeviceStateEnum.OFFLINE.getState()).size();
+
+            // 3. 移除已处理的设备
+            devicePropertyService.removeDeviceReportTimes(reportTimes);
+            if (reportTimes.size() < BATCH_SIZE) {
+                break;
+            }
         }
-        return JsonUtils.toJsonString(offlineDeviceKeys);
+        return StrUtil.format("超时设备数量为: {}，离线设备数量为: {}", timeoutCount, offlineCount);
     }
 
 }
@@ -0,0 +1,46 @@
+package cn.iocoder.yudao.module.iot.job.ota;
+
+import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.framework.quartz.core.handler.JobHandler;
+import cn.iocoder.yudao.module.iot.dal.dataobject.ota.IotOtaUpgradeTaskDO;
+import cn.iocoder.yudao.module.iot.enums.ota.IotOtaUpgradeTaskStatusEnum;
+import cn.iocoder.yudao.module.iot.service.ota.IotOtaUpgradeTaskService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.List;
+
+/**
+ * IoT OTA 升级推送 Job
+ *
+ * 每次执行时，每个进行中的升级任务推送一波设备（iot.ota-upgrade.wave-size），并按照 iot.ota-upgrade.push-rate 限速，
+ * 避免大量设备同时下载固件；剩余的设备，下次执行时继续推送。设备上报的升级进度，见 IotOtaUpgradeRecordService#updateUpgradeRecordProgress
+ *
+ * 注意：升级任务、升级记录不区分租户，所以不使用 @TenantJob 注解；推送时，按照设备所属的租户下发
+ *
+ * @author 芋道源码
+ */
+@Component
+@Slf4j
+public class IotOtaUpgradeJob implements JobHandler {
+
+    @Resource
+    private IotOtaUpgradeTaskService upgradeTaskService;
+
+    @Override
+    public String execute(String param) {
+        List<IotOtaUpgradeTaskDO> upgradeTasks = upgradeTaskService.getUpgradeTaskByState(
+                IotOtaUpgradeTaskStatusEnum.IN_PROGRESS.getStatus());
+        int pushCount = 0;
+        for (IotOtaUpgradeTaskDO upgradeTask : upgradeTasks) {
+            try {
+                pushCount += upgradeTaskService.pushUpgradeTask(upgradeTask);
+            } catch (Exception ex) {
+                log.error("[execute][升级任务({}) 推送失败]", upgradeTask.getId(), ex);
+            }
+        }
+        return StrUtil.format("升级任务数量为: {}，推送设备数量为: {}", upgradeTasks.size(), pushCount);
+    }
+
+}
@@ -0,0 +1,29 @@
+package cn.iocoder.yudao.module.iot.mq.consumer.device;
+
+import cn.iocoder.yudao.framework.mq.redis.core.pubsub.AbstractRedisChannelMessageListener;
+import cn.iocoder.yudao.module.iot.mq.message.device.IotDeviceCacheRemoveMessage;
+import cn.iocoder.yudao.module.iot.service.device.IotDeviceService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 针对 {@link IotDeviceCacheRemoveMessage} 的消费者，失效当前节点的设备本地缓存
+ *
+ * @author 芋道源码
+ */
+@Component
+@Slf4j
+public class IotDeviceCacheRemoveConsumer extends AbstractRedisChannelMessageListener<IotDeviceCacheRemoveMessage> {
+
+    @Resource
+    private IotDeviceService deviceService;
+
+    @Override
+    public void onMessage(IotDeviceCacheRemoveMessage message) {
+        log.debug("[onMessage][失效设备本地缓存({})]", message.getCacheKeys());
+        deviceService.invalidateDeviceLocalCache(message.getCacheKeys());
+    }
+
+}
@@ -1,10 +1,9 @@
 package cn.iocoder.yudao.module.iot.mq.consumer.device;
 
+import cn.iocoder.yudao.module.iot.framework.mq.core.IotDeviceMessageSubscriber;
 import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
 import cn.iocoder.yudao.module.iot.service.device.data.IotDeviceLogService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
@@ -16,13 +15,17 @@ import javax.annotation.Resource;
  */
 @Component
 @Slf4j
-public class IotDeviceLogMessageConsumer {
+public class IotDeviceLogMessageConsumer implements IotDeviceMessageSubscriber {
 
     @Resource
     private IotDeviceLogService deviceLogService;
 
-    @EventListener
-    @Async
+    @Override
+    public String getName() {
+        return "device-log";
+    }
+
+    @Override
     public void onMessage(IotDeviceMessage message) {
         log.info("[onMessage][消息内容({})]", message);
         deviceLogService.createDeviceLog(message);
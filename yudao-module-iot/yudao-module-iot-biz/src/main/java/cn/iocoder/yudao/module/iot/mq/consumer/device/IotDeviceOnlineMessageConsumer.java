@@ -7,12 +7,11 @@ import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDeviceDO;
 import cn.iocoder.yudao.module.iot.enums.device.IotDeviceMessageIdentifierEnum;
 import cn.iocoder.yudao.module.iot.enums.device.IotDeviceMessageTypeEnum;
 import cn.iocoder.yudao.module.iot.enums.device.IotDeviceStateEnum;
+import cn.iocoder.yudao.module.iot.framework.mq.core.IotDeviceMessageSubscriber;
 import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
 import cn.iocoder.yudao.module.iot.service.device.IotDeviceService;
 import cn.iocoder.yudao.module.iot.service.device.control.IotDeviceUpstreamService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
@@ -28,7 +27,7 @@ import java.util.Objects;
  */
 @Component
 @Slf4j
-public class IotDeviceOnlineMessageConsumer {
+public class IotDeviceOnlineMessageConsumer implements IotDeviceMessageSubscriber {
 
     @Resource
     private IotDeviceService deviceService;
@@ -36,8 +35,12 @@ public class IotDeviceOnlineMessageConsumer {
     @Resource
     private IotDeviceUpstreamService deviceUpstreamService;
 
-    @EventListener
-    @Async
+    @Override
+    public String getName() {
+        return "device-online";
+    }
+
+    @Override
     public void onMessage(IotDeviceMessage message) {
         // 1.1 只处理上行消息。因为，只有设备上行的消息，才会触发设备上线的逻辑
         if (!isUpstreamMessage(message)) {
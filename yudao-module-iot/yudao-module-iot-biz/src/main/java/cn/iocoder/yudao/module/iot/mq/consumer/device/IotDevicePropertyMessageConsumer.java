@@ -3,11 +3,10 @@ package cn.iocoder.yudao.module.iot.mq.consumer.device;
 import cn.hutool.core.util.ObjectUtil;
 import cn.iocoder.yudao.module.iot.enums.device.IotDeviceMessageIdentifierEnum;
 import cn.iocoder.yudao.module.iot.enums.device.IotDeviceMessageTypeEnum;
+import cn.iocoder.yudao.module.iot.framework.mq.core.IotDeviceMessageSubscriber;
 import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
 import cn.iocoder.yudao.module.iot.service.device.data.IotDevicePropertyService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
@@ -19,13 +18,17 @@ import javax.annotation.Resource;
  */
 @Component
 @Slf4j
-public class IotDevicePropertyMessageConsumer {
+public class IotDevicePropertyMessageConsumer implements IotDeviceMessageSubscriber {
 
     @Resource
     private IotDevicePropertyService deviceDataService;
 
-    @EventListener
-    @Async
+    @Override
+    public String getName() {
+        return "device-property";
+    }
+
+    @Override
     public void onMessage(IotDeviceMessage message) {
         if (ObjectUtil.notEqual(message.getType(), IotDeviceMessageTypeEnum.PROPERTY.getType())
                 || ObjectUtil.notEqual(message.getIdentifier(), IotDeviceMessageIdentifierEnum.PROPERTY_REPORT.getIdentifier())) {
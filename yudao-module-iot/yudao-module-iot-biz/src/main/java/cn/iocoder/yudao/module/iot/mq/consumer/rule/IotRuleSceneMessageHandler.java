@@ -1,10 +1,9 @@
 package cn.iocoder.yudao.module.iot.mq.consumer.rule;
 
+import cn.iocoder.yudao.module.iot.framework.mq.core.IotDeviceMessageSubscriber;
 import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
 import cn.iocoder.yudao.module.iot.service.rule.IotRuleSceneService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
@@ -16,13 +15,17 @@ import javax.annotation.Resource;
  */
 @Component
 @Slf4j
-public class IotRuleSceneMessageHandler {
+public class IotRuleSceneMessageHandler implements IotDeviceMessageSubscriber {
 
     @Resource
     private IotRuleSceneService ruleSceneService;
 
-    @EventListener
-    @Async
+    @Override
+    public String getName() {
+        return "rule-scene";
+    }
+
+    @Override
     public void onMessage(IotDeviceMessage message) {
         log.info("[onMessage][消息内容({})]", message);
         ruleSceneService.executeRuleSceneByDevice(message);
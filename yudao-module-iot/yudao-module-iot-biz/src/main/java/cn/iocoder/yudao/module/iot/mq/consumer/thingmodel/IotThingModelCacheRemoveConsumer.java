@@ -0,0 +1,29 @@
+package cn.iocoder.yudao.module.iot.mq.consumer.thingmodel;
+
+import cn.iocoder.yudao.framework.mq.redis.core.pubsub.AbstractRedisChannelMessageListener;
+import cn.iocoder.yudao.module.iot.mq.message.thingmodel.IotThingModelCacheRemoveMessage;
+import cn.iocoder.yudao.module.iot.service.thingmodel.IotThingModelService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 针对 {@link IotThingModelCacheRemoveMessage} 的消费者，失效当前节点的物模型本地缓存
+ *
+ * @author 芋道源码
+ */
+@Component
+@Slf4j
+public class IotThingModelCacheRemoveConsumer extends AbstractRedisChannelMessageListener<IotThingModelCacheRemoveMessage> {
+
+    @Resource
+    private IotThingModelService thingModelService;
+
+    @Override
+    public void onMessage(IotThingModelCacheRemoveMessage message) {
+        log.debug("[onMessage][失效物模型本地缓存({})]", message.getProductKey());
+        thingModelService.invalidateThingModelLocalCache(message.getProductKey());
+    }
+
+}
@@ -0,0 +1,21 @@
+package cn.iocoder.yudao.module.iot.mq.message.device;
+
+import cn.iocoder.yudao.framework.mq.redis.core.pubsub.AbstractRedisChannelMessage;
+import lombok.Data;
+
+import java.util.Collection;
+
+/**
+ * 设备缓存删除的广播消息，用于失效各节点的设备本地缓存
+ *
+ * @author 芋道源码
+ */
+@Data
+public class IotDeviceCacheRemoveMessage extends AbstractRedisChannelMessage {
+
+    /**
+     * 缓存 key 数组，格式为 ${productKey}_${deviceName}
+     */
+    private Collection<String> cacheKeys;
+
+}
@@ -0,0 +1,19 @@
+package cn.iocoder.yudao.module.iot.mq.message.thingmodel;
+
+import cn.iocoder.yudao.framework.mq.redis.core.pubsub.AbstractRedisChannelMessage;
+import lombok.Data;
+
+/**
+ * 物模型缓存删除的广播消息，用于失效各节点的物模型本地缓存
+ *
+ * @author 芋道源码
+ */
+@Data
+public class IotThingModelCacheRemoveMessage extends AbstractRedisChannelMessage {
+
+    /**
+     * 产品标识
+     */
+    private String productKey;
+
+}
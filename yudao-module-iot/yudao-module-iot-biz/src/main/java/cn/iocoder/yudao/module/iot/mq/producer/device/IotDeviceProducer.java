@@ -1,11 +1,16 @@
 package cn.iocoder.yudao.module.iot.mq.producer.device;
 
+import cn.hutool.core.collection.CollUtil;
+import cn.iocoder.yudao.framework.mq.redis.core.RedisMQTemplate;
+import cn.iocoder.yudao.module.iot.framework.mq.core.IotDeviceMessageTransport;
 import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
+import cn.iocoder.yudao.module.iot.mq.message.device.IotDeviceCacheRemoveMessage;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
+import java.util.Collection;
 
 /**
  * IoT 设备相关消息的 Producer
@@ -18,15 +23,32 @@ import javax.annotation.Resource;
 public class IotDeviceProducer {
 
     @Resource
-    private ApplicationContext applicationContext;
+    @Lazy // 延迟加载，解决循环依赖的问题：transport 依赖订阅者，订阅者又间接依赖 producer
+    private IotDeviceMessageTransport deviceMessageTransport;
+    @Resource
+    private RedisMQTemplate redisMQTemplate;
 
     /**
      * 发送 {@link IotDeviceMessage} 消息
      *
+     * 按照设备分区后，投递给所有的 {@link cn.iocoder.yudao.module.iot.framework.mq.core.IotDeviceMessageSubscriber}
+     *
      * @param thingModelMessage 物模型消息
      */
     public void sendDeviceMessage(IotDeviceMessage thingModelMessage) {
-        applicationContext.publishEvent(thingModelMessage);
+        deviceMessageTransport.send(thingModelMessage);
+    }
+
+    /**
+     * 发送 {@link IotDeviceCacheRemoveMessage} 广播消息
+     *
+     * @param cacheKeys 缓存 key 数组
+     */
+    public void sendDeviceCacheRemoveMessage(Collection<String> cacheKeys) {
+        if (CollUtil.isEmpty(cacheKeys)) {
+            return;
+        }
+        redisMQTemplate.send(new IotDeviceCacheRemoveMessage().setCacheKeys(cacheKeys));
     }
 
 }
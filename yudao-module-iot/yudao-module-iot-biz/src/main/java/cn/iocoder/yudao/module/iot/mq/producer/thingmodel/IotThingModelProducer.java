@@ -0,0 +1,29 @@
+package cn.iocoder.yudao.module.iot.mq.producer.thingmodel;
+
+import cn.iocoder.yudao.framework.mq.redis.core.RedisMQTemplate;
+import cn.iocoder.yudao.module.iot.mq.message.thingmodel.IotThingModelCacheRemoveMessage;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * IoT 物模型相关消息的 Producer
+ *
+ * @author 芋道源码
+ */
+@Component
+public class IotThingModelProducer {
+
+    @Resource
+    private RedisMQTemplate redisMQTemplate;
+
+    /**
+     * 发送 {@link IotThingModelCacheRemoveMessage} 广播消息
+     *
+     * @param productKey 产品标识
+     */
+    public void sendThingModelCacheRemoveMessage(String productKey) {
+        redisMQTemplate.send(new IotThingModelCacheRemoveMessage().setProductKey(productKey));
+    }
+
+}
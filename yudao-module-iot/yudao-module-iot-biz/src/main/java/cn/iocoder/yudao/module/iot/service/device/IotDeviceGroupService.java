@@ -78,6 +78,14 @@ public interface IotDeviceGroupService {
      */
     IotDeviceGroupDO getDeviceGroupByName(String name);
 
+    /**
+     * 获得设备分组列表
+     *
+     * @param names 名称数组
+     * @return 设备分组列表
+     */
+    List<IotDeviceGroupDO> getDeviceGroupListByNames(Collection<String> names);
+
     /**
      * 获得设备分组分页
      *
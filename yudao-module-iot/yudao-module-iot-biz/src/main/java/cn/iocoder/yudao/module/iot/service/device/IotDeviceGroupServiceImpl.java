@@ -1,5 +1,6 @@
 package cn.iocoder.yudao.module.iot.service.device;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.framework.common.util.object.BeanUtils;
 import cn.iocoder.yudao.module.iot.controller.admin.device.vo.group.IotDeviceGroupPageReqVO;
@@ -10,6 +11,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
 import javax.annotation.Resource;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
@@ -81,6 +84,14 @@ public class IotDeviceGroupServiceImpl implements IotDeviceGroupService {
         return deviceGroupMapper.selectByName(name);
     }
 
+    @Override
+    public List<IotDeviceGroupDO> getDeviceGroupListByNames(Collection<String> names) {
+        if (CollUtil.isEmpty(names)) {
+            return Collections.emptyList();
+        }
+        return deviceGroupMapper.selectListByNames(names);
+    }
+
     @Override
     public PageResult<IotDeviceGroupDO> getDeviceGroupPage(IotDeviceGroupPageReqVO pageReqVO) {
         return deviceGroupMapper.selectPage(pageReqVO);
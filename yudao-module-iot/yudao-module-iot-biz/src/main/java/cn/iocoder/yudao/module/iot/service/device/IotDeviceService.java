@@ -67,6 +67,14 @@ public interface IotDeviceService {
      */
     void updateDeviceState(Long id, Integer state);
 
+    /**
+     * 批量更新设备状态
+     *
+     * @param devices 设备列表
+     * @param state   状态
+     */
+    void updateDeviceStateBatch(Collection<IotDeviceDO> devices, Integer state);
+
     /**
      * 更新设备分组
      *
@@ -112,6 +120,16 @@ public interface IotDeviceService {
      */
     IotDeviceDO getDeviceByDeviceKey(String deviceKey);
 
+    /**
+     * 根据设备 key 数组，获得设备列表
+     *
+     * 注意：该方法会忽略租户信息，所以调用时，需要确认会不会有跨租户访问的风险！！！
+     *
+     * @param deviceKeys 设备标识数组
+     * @return 设备列表
+     */
+    List<IotDeviceDO> getDeviceListByDeviceKeys(Collection<String> deviceKeys);
+
     /**
      * 获得设备分页
      *
@@ -171,6 +189,8 @@ public interface IotDeviceService {
     /**
      * 【缓存】根据产品 key 和设备名称，获得设备信息
      * <p>
+     * 优先读取本地缓存，其次 Redis 缓存
+     * <p>
      * 注意：该方法会忽略租户信息，所以调用时，需要确认会不会有跨租户访问的风险！！！
      *
      * @param productKey 产品 key
@@ -180,9 +200,18 @@ public interface IotDeviceService {
     IotDeviceDO getDeviceByProductKeyAndDeviceNameFromCache(String productKey, String deviceName);
 
     /**
-     * 导入设备
+     * 失效设备的本地缓存，不操作 Redis
+     *
+     * 使用场景：其它节点变更设备后，通过广播消息通知当前节点
+     *
+     * @param cacheKeys 缓存 key 数组，格式为 ${productKey}_${deviceName}
+     */
+    void invalidateDeviceLocalCache(Collection<String> cacheKeys);
+
+    /**
+     * 导入设备：一次导入一批，批量查询产品、父设备、分组，批量插入、更新设备
      *
-     * @param importDevices 导入设备列表
+     * @param importDevices 导入设备列表，一批
      * @param updateSupport 是否支持更新
      * @return 导入结果
      */
@@ -19,10 +19,16 @@ import cn.iocoder.yudao.module.iot.dal.mysql.device.IotDeviceMapper;
 import cn.iocoder.yudao.module.iot.dal.redis.RedisKeyConstants;
 import cn.iocoder.yudao.module.iot.enums.device.IotDeviceStateEnum;
 import cn.iocoder.yudao.module.iot.enums.product.IotProductDeviceTypeEnum;
+import cn.iocoder.yudao.module.iot.mq.producer.device.IotDeviceProducer;
 import cn.iocoder.yudao.module.iot.service.product.IotProductService;
 import cn.iocoder.yudao.module.iot.util.MqttSignUtils;
 import cn.iocoder.yudao.module.iot.util.MqttSignUtils.MqttSignResult;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
@@ -31,19 +37,25 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import javax.validation.ConstraintViolationException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
-import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.*;
 import static cn.iocoder.yudao.module.iot.enums.ErrorCodeConstants.*;
 
 /**
  * IoT 设备 Service 实现类
  *
+ * 在 Redis 缓存前面，额外增加一层设备的本地缓存，避免每条设备消息都访问 Redis + JSON 反序列化：
+ * 1. 本地缓存有最大数量、最大存活时长的限制
+ * 2. 设备变更时，通过 Redis Pub/Sub 广播 {@link cn.iocoder.yudao.module.iot.mq.message.device.IotDeviceCacheRemoveMessage} 消息，让其它节点失效本地缓存
+ *
  * @author 芋道源码
  */
 @Service
@@ -51,15 +63,50 @@ import static cn.iocoder.yudao.module.iot.enums.ErrorCodeConstants.*;
 @Slf4j
 public class IotDeviceServiceImpl implements IotDeviceService {
 
+    /**
+     * 本地缓存的最大数量
+     */
+    private static final long LOCAL_CACHE_MAXIMUM_SIZE = 100000L;
+    /**
+     * 本地缓存的最大存活时长
+     *
+     * 兜底作用：即使广播消息丢失，其它节点最多在该时长后感知到设备变更
+     */
+    private static final Duration LOCAL_CACHE_EXPIRE_AFTER_WRITE = Duration.ofMinutes(1L);
+
     @Resource
     private IotDeviceMapper deviceMapper;
 
+    @Resource
+    private IotDeviceProducer deviceProducer;
+    @Autowired(required = false) // 未引入 Micrometer 监控时，不强制注入
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 设备的本地缓存
+     *
+     * KEY：${productKey}_${deviceName}，与 Redis 缓存的 KEY 一致
+     * VALUE：设备信息
+     */
+    private final Cache<String, IotDeviceDO> localCache = CacheBuilder.newBuilder()
+            .maximumSize(LOCAL_CACHE_MAXIMUM_SIZE)
+            .expireAfterWrite(LOCAL_CACHE_EXPIRE_AFTER_WRITE)
+            .recordStats() // 记录命中、未命中、驱逐等统计，用于监控
+            .build();
+
     @Resource
     private IotProductService productService;
     @Resource
     @Lazy // 延迟加载，解决循环依赖
     private IotDeviceGroupService deviceGroupService;
 
+    @PostConstruct
+    public void initLocalCache() {
+        if (meterRegistry != null) {
+            GuavaCacheMetrics.monitor(meterRegistry, localCache, "iot.device.local-cache");
+        }
+    }
+
     @Override
     public Long createDevice(IotDeviceSaveReqVO createReqVO) {
         // 1.1 校验产品是否存在
@@ -245,6 +292,15 @@ public class IotDeviceServiceImpl implements IotDeviceService {
         return deviceMapper.selectByDeviceKey(deviceKey);
     }
 
+    @Override
+    @TenantIgnore
+    public List<IotDeviceDO> getDeviceListByDeviceKeys(Collection<String> deviceKeys) {
+        if (CollUtil.isEmpty(deviceKeys)) {
+            return Collections.emptyList();
+        }
+        return deviceMapper.selectListByDeviceKeys(deviceKeys);
+    }
+
     @Override
     public PageResult<IotDeviceDO> getDevicePage(IotDevicePageReqVO pageReqVO) {
         return deviceMapper.selectPage(pageReqVO);
@@ -292,6 +348,34 @@ public class IotDeviceServiceImpl implements IotDeviceService {
         deleteDeviceCache(device);
     }
 
+    @Override
+    @TenantIgnore // 忽略租户信息，设备编号是全局唯一的
+    public void updateDeviceStateBatch(Collection<IotDeviceDO> devices, Integer state) {
+        if (CollUtil.isEmpty(devices)) {
+            return;
+        }
+        // 1.1 更新状态和时间
+        LocalDateTime now = LocalDateTime.now();
+        IotDeviceDO updateObj = new IotDeviceDO().setState(state);
+        if (Objects.equals(state, IotDeviceStateEnum.ONLINE.getState())) {
+            updateObj.setOnlineTime(now);
+        } else if (Objects.equals(state, IotDeviceStateEnum.OFFLINE.getState())) {
+            updateObj.setOfflineTime(now);
+        }
+        deviceMapper.updateListState(convertList(devices, IotDeviceDO::getId), updateObj);
+        // 1.2 首次上线的设备，记录激活时间
+        if (Objects.equals(state, IotDeviceStateEnum.ONLINE.getState())) {
+            List<Long> activeIds = convertList(filterList(devices, device -> device.getOnlineTime() == null),
+                    IotDeviceDO::getId);
+            if (CollUtil.isNotEmpty(activeIds)) {
+                deviceMapper.updateListState(activeIds, new IotDeviceDO().setActiveTime(now));
+            }
+        }
+
+        // 2. 清空对应缓存
+        deleteDeviceCache(devices);
+    }
+
     @Override
     public Long getDeviceCountByProductId(Long productId) {
         return deviceMapper.selectCountByProductId(productId);
@@ -303,12 +387,33 @@ public class IotDeviceServiceImpl implements IotDeviceService {
     }
 
     @Override
+    public IotDeviceDO getDeviceByProductKeyAndDeviceNameFromCache(String productKey, String deviceName) {
+        // 优先从本地缓存中获取
+        String cacheKey = buildCacheKey(productKey, deviceName);
+        IotDeviceDO device = localCache.getIfPresent(cacheKey);
+        if (device != null) {
+            return device;
+        }
+
+        // 获取不到，从 Redis 缓存中获取，并写入本地缓存
+        device = getSelf().getDeviceByProductKeyAndDeviceNameFromCache0(productKey, deviceName);
+        if (device != null) {
+            localCache.put(cacheKey, device);
+        }
+        return device;
+    }
+
     @Cacheable(value = RedisKeyConstants.DEVICE, key = "#productKey + '_' + #deviceName", unless = "#result == null")
     @TenantIgnore // 忽略租户信息，跨租户 productKey + deviceName 是唯一的
-    public IotDeviceDO getDeviceByProductKeyAndDeviceNameFromCache(String productKey, String deviceName) {
+    public IotDeviceDO getDeviceByProductKeyAndDeviceNameFromCache0(String productKey, String deviceName) {
         return deviceMapper.selectByProductKeyAndDeviceName(productKey, deviceName);
     }
 
+    @Override
+    public void invalidateDeviceLocalCache(Collection<String> cacheKeys) {
+        localCache.invalidateAll(cacheKeys);
+    }
+
     /**
      * 生成 deviceKey
      *
@@ -328,75 +433,138 @@ public class IotDeviceServiceImpl implements IotDeviceService {
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class) // 添加事务，异常则回滚所有导入
+    @Transactional(rollbackFor = Exception.class) // 添加事务，异常则回滚这一批导入
     public IotDeviceImportRespVO importDevice(List<IotDeviceImportExcelVO> importDevices, boolean updateSupport) {
         // 1. 参数校验
         if (CollUtil.isEmpty(importDevices)) {
             throw exception(DEVICE_IMPORT_LIST_IS_EMPTY);
         }
 
-        // 2. 遍历，逐个创建 or 更新
+        // 2. 批量查询产品、设备（包括已存在的设备、父设备）、分组，避免逐个查询
+        Map<String, IotProductDO> productMap = convertMap(productService.getProductListByProductKeys(
+                convertSet(importDevices, IotDeviceImportExcelVO::getProductKey, importDevice ->
+                        StrUtil.isNotEmpty(importDevice.getProductKey()))), IotProductDO::getProductKey);
+        Set<String> deviceNames = convertSet(importDevices, IotDeviceImportExcelVO::getDeviceName,
+                importDevice -> StrUtil.isNotEmpty(importDevice.getDeviceName()));
+        deviceNames.addAll(convertSet(importDevices, IotDeviceImportExcelVO::getParentDeviceName,
+                importDevice -> StrUtil.isNotEmpty(importDevice.getParentDeviceName())));
+        Map<String, IotDeviceDO> existDeviceMap = CollUtil.isEmpty(deviceNames) ? new HashMap<>()
+                : convertMap(deviceMapper.selectListByDeviceNames(deviceNames), IotDeviceDO::getDeviceName);
+        Set<String> groupNames = new HashSet<>();
+        importDevices.forEach(importDevice -> groupNames.addAll(StrUtil.splitTrim(importDevice.getGroupNames(), ',')));
+        Map<String, IotDeviceGroupDO> groupMap = convertMap(deviceGroupService.getDeviceGroupListByNames(groupNames),
+                IotDeviceGroupDO::getName);
+
+        // 3. 遍历，校验并区分创建 or 更新
         IotDeviceImportRespVO respVO = IotDeviceImportRespVO.builder().createDeviceNames(new ArrayList<>())
                 .updateDeviceNames(new ArrayList<>()).failureDeviceNames(new LinkedHashMap<>()).build();
+        List<IotDeviceDO> createDevices = new ArrayList<>();
+        List<IotDeviceDO> updateDevices = new ArrayList<>();
+        Map<IotDeviceDO, IotDeviceDO> pendingGatewayMap = new IdentityHashMap<>(); // 父设备是同一批中待插入的设备
         importDevices.forEach(importDevice -> {
             try {
-                // 2.1.1 校验字段是否符合要求
+                // 3.1.1 校验字段是否符合要求
                 try {
                     ValidationUtils.validate(importDevice);
                 } catch (ConstraintViolationException ex) {
                     respVO.getFailureDeviceNames().put(importDevice.getDeviceName(), ex.getMessage());
                     return;
                 }
-                // 2.1.2 校验产品是否存在
-                IotProductDO product = productService.validateProductExists(importDevice.getProductKey());
-                // 2.1.3 校验父设备是否存在
-                Long gatewayId = null;
+                // 3.1.2 校验产品是否存在
+                IotProductDO product = productMap.get(importDevice.getProductKey());
+                if (product == null) {
+                    throw exception(PRODUCT_NOT_EXISTS);
+                }
+                // 3.1.3 校验父设备是否存在
+                IotDeviceDO gatewayDevice = null;
                 if (StrUtil.isNotEmpty(importDevice.getParentDeviceName())) {
-                    IotDeviceDO gatewayDevice = deviceMapper.selectByDeviceName(importDevice.getParentDeviceName());
+                    gatewayDevice = existDeviceMap.get(importDevice.getParentDeviceName());
                     if (gatewayDevice == null) {
                         throw exception(DEVICE_GATEWAY_NOT_EXISTS);
                     }
                     if (!IotProductDeviceTypeEnum.isGateway(gatewayDevice.getDeviceType())) {
                         throw exception(DEVICE_NOT_GATEWAY);
                     }
-                    gatewayId = gatewayDevice.getId();
                 }
-                // 2.1.4 校验设备分组是否存在
+                // 3.1.4 校验设备分组是否存在
                 Set<Long> groupIds = new HashSet<>();
-                if (StrUtil.isNotEmpty(importDevice.getGroupNames())) {
-                    String[] groupNames = importDevice.getGroupNames().split(",");
-                    for (String groupName : groupNames) {
-                        IotDeviceGroupDO group = deviceGroupService.getDeviceGroupByName(groupName);
-                        if (group == null) {
-                            throw exception(DEVICE_GROUP_NOT_EXISTS);
-                        }
-                        groupIds.add(group.getId());
+                for (String groupName : StrUtil.splitTrim(importDevice.getGroupNames(), ',')) {
+                    IotDeviceGroupDO group = groupMap.get(groupName);
+                    if (group == null) {
+                        throw exception(DEVICE_GROUP_NOT_EXISTS);
                     }
+                    groupIds.add(group.getId());
                 }
 
-                // 2.2.1 判断如果不存在，在进行插入
-                IotDeviceDO existDevice = deviceMapper.selectByDeviceName(importDevice.getDeviceName());
+                // 3.2.1 判断如果不存在，在进行插入
+                IotDeviceDO existDevice = existDeviceMap.get(importDevice.getDeviceName());
                 if (existDevice == null) {
-                    createDevice(new IotDeviceSaveReqVO()
-                            .setDeviceName(importDevice.getDeviceName()).setDeviceKey(generateDeviceKey())
-                            .setProductId(product.getId()).setGatewayId(gatewayId).setGroupIds(groupIds));
+                    IotDeviceDO createDevice = new IotDeviceDO().setDeviceName(importDevice.getDeviceName())
+                            .setDeviceKey(generateDeviceKey()).setGroupIds(groupIds);
+                    initDevice(createDevice, product);
+                    setImportGatewayId(createDevice, gatewayDevice, pendingGatewayMap);
+                    createDevices.add(createDevice);
+                    existDeviceMap.put(importDevice.getDeviceName(), createDevice); // 同一批中，设备名称重复时，视为已存在
                     respVO.getCreateDeviceNames().add(importDevice.getDeviceName());
                     return;
                 }
-                // 2.2.2 如果存在，判断是否允许更新
-                if (updateSupport) {
-                    throw exception(DEVICE_KEY_EXISTS);
+                // 3.2.2 如果存在，判断是否允许更新
+                if (!updateSupport || existDevice.getId() == null) { // id 为空，说明是同一批中待插入的设备
+                    throw exception(DEVICE_NAME_EXISTS);
                 }
-                updateDevice(new IotDeviceSaveReqVO().setId(existDevice.getId())
-                        .setGatewayId(gatewayId).setGroupIds(groupIds));
+                IotDeviceDO updateDevice = new IotDeviceDO().setId(existDevice.getId()).setGroupIds(groupIds);
+                setImportGatewayId(updateDevice, gatewayDevice, pendingGatewayMap);
+                updateDevices.add(updateDevice);
                 respVO.getUpdateDeviceNames().add(importDevice.getDeviceName());
             } catch (ServiceException ex) {
                 respVO.getFailureDeviceNames().put(importDevice.getDeviceName(), ex.getMessage());
             }
         });
+
+        // 4. 批量写入
+        if (CollUtil.isNotEmpty(createDevices)) {
+            regenerateDuplicateDeviceKeys(createDevices);
+            deviceMapper.insertBatch(createDevices);
+        }
+        // 父设备是同一批中待插入的设备，插入后才有编号：待更新的设备直接设置；新插入的设备，需要再更新一次
+        pendingGatewayMap.forEach((device, gatewayDevice) -> device.setGatewayId(gatewayDevice.getId()));
+        createDevices.stream().filter(pendingGatewayMap::containsKey).forEach(device ->
+                updateDevices.add(new IotDeviceDO().setId(device.getId()).setGatewayId(device.getGatewayId())));
+        if (CollUtil.isNotEmpty(updateDevices)) {
+            deviceMapper.updateBatch(updateDevices);
+            Set<Long> updateIds = convertSet(updateDevices, IotDeviceDO::getId);
+            deleteDeviceCache(filterList(existDeviceMap.values(), device -> updateIds.contains(device.getId())));
+        }
         return respVO;
     }
 
+    /**
+     * 设置导入设备的父设备：如果父设备是同一批中待插入的设备，则记录下来，插入后再设置
+     */
+    private static void setImportGatewayId(IotDeviceDO device, IotDeviceDO gatewayDevice,
+                                           Map<IotDeviceDO, IotDeviceDO> pendingGatewayMap) {
+        if (gatewayDevice == null) {
+            return;
+        }
+        if (gatewayDevice.getId() != null) {
+            device.setGatewayId(gatewayDevice.getId());
+        } else {
+            pendingGatewayMap.put(device, gatewayDevice);
+        }
+    }
+
+    /**
+     * 重新生成和已有设备重复的设备标识，保证设备标识唯一
+     */
+    private void regenerateDuplicateDeviceKeys(List<IotDeviceDO> devices) {
+        TenantUtils.executeIgnore(() -> {
+            Set<String> existDeviceKeys = convertSet(deviceMapper.selectListByDeviceKeys(
+                    convertSet(devices, IotDeviceDO::getDeviceKey)), IotDeviceDO::getDeviceKey);
+            devices.stream().filter(device -> existDeviceKeys.contains(device.getDeviceKey()))
+                    .forEach(device -> device.setDeviceKey(generateDeviceKey()));
+        });
+    }
+
     @Override
     public IotDeviceMqttConnectionParamsRespVO getMqttConnectionParams(Long deviceId) {
         IotDeviceDO device = validateDeviceExists(deviceId);
@@ -409,18 +577,28 @@ public class IotDeviceServiceImpl implements IotDeviceService {
     }
 
     private void deleteDeviceCache(IotDeviceDO device) {
-        // 保证 Spring AOP 触发
-        getSelf().deleteDeviceCache0(device);
+        deleteDeviceCache(Collections.singletonList(device));
     }
 
-    private void deleteDeviceCache(List<IotDeviceDO> devices) {
-        devices.forEach(this::deleteDeviceCache);
+    private void deleteDeviceCache(Collection<IotDeviceDO> devices) {
+        // 1. 删除 Redis 缓存，保证 Spring AOP 触发
+        IotDeviceServiceImpl self = getSelf();
+        devices.forEach(self::deleteDeviceCache0);
+
+        // 2. 删除本地缓存，并广播给其它节点
+        List<String> cacheKeys = convertList(devices, device -> buildCacheKey(device.getProductKey(), device.getDeviceName()));
+        localCache.invalidateAll(cacheKeys);
+        deviceProducer.sendDeviceCacheRemoveMessage(cacheKeys);
     }
 
     @CacheEvict(value = RedisKeyConstants.DEVICE, key = "#device.productKey + '_' + #device.deviceName")
     public void deleteDeviceCache0(IotDeviceDO device) {
     }
 
+    private static String buildCacheKey(String productKey, String deviceName) {
+        return productKey + "_" + deviceName;
+    }
+
     private IotDeviceServiceImpl getSelf() {
         return SpringUtil.getBean(getClass());
     }
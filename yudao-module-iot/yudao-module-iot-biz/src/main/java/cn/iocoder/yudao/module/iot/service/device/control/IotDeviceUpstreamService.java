@@ -2,8 +2,11 @@ package cn.iocoder.yudao.module.iot.service.device.control;
 
 import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.*;
 import cn.iocoder.yudao.module.iot.controller.admin.device.vo.control.IotDeviceUpstreamReqVO;
+import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDeviceDO;
 
 import javax.validation.Valid;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * IoT 设备上行 Service 接口
@@ -28,6 +31,17 @@ public interface IotDeviceUpstreamService {
      */
     void updateDeviceState(IotDeviceStateUpdateReqDTO updateReqDTO);
 
+    /**
+     * 批量更新设备状态
+     *
+     * 批量更新状态一致的设备后，再逐个发送设备状态消息
+     *
+     * @param devices 设备列表
+     * @param state   状态
+     * @return 状态发生变化的设备列表
+     */
+    List<IotDeviceDO> updateDeviceStateBatch(Collection<IotDeviceDO> devices, Integer state);
+
     /**
      * 上报设备属性数据
      *
@@ -42,6 +56,16 @@ public interface IotDeviceUpstreamService {
      */
     void reportDeviceEvent(IotDeviceEventReportReqDTO reportReqDTO);
 
+    /**
+     * 批量上报设备的状态、属性、事件数据
+     *
+     * 单条处理失败时，记录日志后继续处理后续的数据，避免影响同一批次的其它设备
+     *
+     * @param batchReqDTO 批量上报 DTO
+     * @return 每条消息的处理结果
+     */
+    IotDeviceUpstreamBatchRespDTO reportDeviceBatch(IotDeviceUpstreamBatchReqDTO batchReqDTO);
+
     /**
      * 注册设备
      *
@@ -63,6 +87,13 @@ public interface IotDeviceUpstreamService {
      */
     void addDeviceTopology(IotDeviceTopologyAddReqDTO addReqDTO);
 
+    /**
+     * 上报设备的 OTA 升级进度
+     *
+     * @param progressReqDTO 升级进度 DTO
+     */
+    void reportDeviceOtaProgress(IotDeviceOtaProgressReqDTO progressReqDTO);
+
     /**
      * Emqx 连接认证
      *
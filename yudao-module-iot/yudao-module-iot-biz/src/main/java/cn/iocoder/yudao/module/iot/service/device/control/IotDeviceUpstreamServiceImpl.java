@@ -2,9 +2,11 @@ package cn.iocoder.yudao.module.iot.service.device.control;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.lang.Assert;
+import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.ObjUtil;
 import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.framework.common.util.collection.CollectionUtils;
 import cn.iocoder.yudao.framework.common.util.object.BeanUtils;
 import cn.iocoder.yudao.framework.common.util.object.ObjectUtils;
 import cn.iocoder.yudao.framework.tenant.core.util.TenantUtils;
@@ -19,6 +21,7 @@ import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
 import cn.iocoder.yudao.module.iot.mq.producer.device.IotDeviceProducer;
 import cn.iocoder.yudao.module.iot.service.device.IotDeviceService;
 import cn.iocoder.yudao.module.iot.service.device.data.IotDevicePropertyService;
+import cn.iocoder.yudao.module.iot.service.ota.IotOtaUpgradeRecordService;
 import cn.iocoder.yudao.module.iot.service.plugin.IotPluginInstanceService;
 import cn.iocoder.yudao.module.iot.util.MqttSignUtils;
 import cn.iocoder.yudao.module.iot.util.MqttSignUtils.MqttSignResult;
@@ -28,6 +31,8 @@ import org.springframework.validation.annotation.Validated;
 
 import javax.annotation.Resource;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -48,6 +53,9 @@ public class IotDeviceUpstreamServiceImpl implements IotDeviceUpstreamService {
     @Resource
     private IotPluginInstanceService pluginInstanceService;
 
+    @Resource
+    private IotOtaUpgradeRecordService upgradeRecordService;
+
     @Resource
     private IotDeviceProducer deviceProducer;
 
@@ -101,8 +109,10 @@ public class IotDeviceUpstreamServiceImpl implements IotDeviceUpstreamService {
             return;
         }
         TenantUtils.execute(device.getTenantId(), () -> {
-            // 1.2 记录设备的最后时间
-            updateDeviceLastTime(device, updateReqDTO);
+            // 1.2 记录设备的最后时间。离线不是设备的活动，不记录，避免离线检测再次扫描到该设备
+            if (ObjUtil.equals(updateReqDTO.getState(), IotDeviceStateEnum.ONLINE.getState())) {
+                updateDeviceLastTime(device, updateReqDTO);
+            }
             // 1.3 当前状态一致，不处理
             if (Objects.equals(device.getState(), updateReqDTO.getState())) {
                 return;
@@ -116,13 +126,40 @@ public class IotDeviceUpstreamServiceImpl implements IotDeviceUpstreamService {
             // 4. 发送设备消息
             IotDeviceMessage message = BeanUtils.toBean(updateReqDTO, IotDeviceMessage.class)
                     .setType(IotDeviceMessageTypeEnum.STATE.getType())
-                    .setIdentifier(ObjUtil.equals(updateReqDTO.getState(), IotDeviceStateEnum.ONLINE.getState())
-                            ? IotDeviceMessageIdentifierEnum.STATE_ONLINE.getIdentifier()
-                            : IotDeviceMessageIdentifierEnum.STATE_OFFLINE.getIdentifier());
+                    .setIdentifier(getStateIdentifier(updateReqDTO.getState()));
             sendDeviceMessage(message, device);
         });
     }
 
+    @Override
+    public List<IotDeviceDO> updateDeviceStateBatch(Collection<IotDeviceDO> devices, Integer state) {
+        Assert.isTrue(ObjectUtils.equalsAny(state,
+                IotDeviceStateEnum.ONLINE.getState(), IotDeviceStateEnum.OFFLINE.getState()),
+                "状态不合法");
+        // 1. 过滤状态一致的设备
+        List<IotDeviceDO> updateDevices = CollectionUtils.filterList(devices,
+                device -> ObjUtil.notEqual(device.getState(), state));
+        if (CollUtil.isEmpty(updateDevices)) {
+            return updateDevices;
+        }
+
+        // 2. 批量更新设备状态
+        deviceService.updateDeviceStateBatch(updateDevices, state);
+
+        // 3. 逐个发送设备消息
+        String identifier = getStateIdentifier(state);
+        updateDevices.forEach(device -> sendDeviceMessage(new IotDeviceMessage()
+                .setProductKey(device.getProductKey()).setDeviceName(device.getDeviceName())
+                .setType(IotDeviceMessageTypeEnum.STATE.getType()).setIdentifier(identifier), device));
+        return updateDevices;
+    }
+
+    private static String getStateIdentifier(Integer state) {
+        return ObjUtil.equals(state, IotDeviceStateEnum.ONLINE.getState())
+                ? IotDeviceMessageIdentifierEnum.STATE_ONLINE.getIdentifier()
+                : IotDeviceMessageIdentifierEnum.STATE_OFFLINE.getIdentifier();
+    }
+
     @Override
     public void reportDeviceProperty(IotDevicePropertyReportReqDTO reportReqDTO) {
         // 1.1 获得设备
@@ -167,6 +204,27 @@ public class IotDeviceUpstreamServiceImpl implements IotDeviceUpstreamService {
         sendDeviceMessage(message, device);
     }
 
+    @Override
+    public IotDeviceUpstreamBatchRespDTO reportDeviceBatch(IotDeviceUpstreamBatchReqDTO batchReqDTO) {
+        return new IotDeviceUpstreamBatchRespDTO()
+                .setStateUpdates(CollectionUtils.convertList(batchReqDTO.getStateUpdates(), updateReqDTO ->
+                        executeQuietly(() -> updateDeviceState(updateReqDTO), updateReqDTO)))
+                .setPropertyReports(CollectionUtils.convertList(batchReqDTO.getPropertyReports(), reportReqDTO ->
+                        executeQuietly(() -> reportDeviceProperty(reportReqDTO), reportReqDTO)))
+                .setEventReports(CollectionUtils.convertList(batchReqDTO.getEventReports(), reportReqDTO ->
+                        executeQuietly(() -> reportDeviceEvent(reportReqDTO), reportReqDTO)));
+    }
+
+    private boolean executeQuietly(Runnable runnable, IotDeviceUpstreamAbstractReqDTO reqDTO) {
+        try {
+            runnable.run();
+            return true;
+        } catch (Exception ex) {
+            log.error("[reportDeviceBatch][处理上行消息({}) 发生异常]", reqDTO, ex);
+            return false;
+        }
+    }
+
     @Override
     public void registerDevice(IotDeviceRegisterReqDTO registerReqDTO) {
         log.info("[registerDevice][注册设备: {}]", registerReqDTO);
@@ -280,6 +338,33 @@ public class IotDeviceUpstreamServiceImpl implements IotDeviceUpstreamService {
         sendDeviceMessage(message, device);
     }
 
+    @Override
+    public void reportDeviceOtaProgress(IotDeviceOtaProgressReqDTO progressReqDTO) {
+        // 1.1 获得设备
+        log.info("[reportDeviceOtaProgress][上报设备 OTA 升级进度: {}]", progressReqDTO);
+        IotDeviceDO device = deviceService.getDeviceByProductKeyAndDeviceNameFromCache(
+                progressReqDTO.getProductKey(), progressReqDTO.getDeviceName());
+        if (device == null) {
+            log.error("[reportDeviceOtaProgress][设备({}/{})不存在]",
+                    progressReqDTO.getProductKey(), progressReqDTO.getDeviceName());
+            return;
+        }
+        // 1.2 记录设备的最后时间
+        updateDeviceLastTime(device, progressReqDTO);
+
+        // 2. 【合并】更新升级记录
+        upgradeRecordService.updateUpgradeRecordProgress(progressReqDTO);
+
+        // 3. 发送设备消息
+        IotDeviceMessage message = BeanUtils.toBean(progressReqDTO, IotDeviceMessage.class)
+                .setType(IotDeviceMessageTypeEnum.OTA.getType())
+                .setIdentifier(IotDeviceMessageIdentifierEnum.OTA_PROGRESS.getIdentifier())
+                .setData(MapUtil.builder().put("firmwareId", progressReqDTO.getFirmwareId())
+                        .put("status", progressReqDTO.getStatus()).put("progress", progressReqDTO.getProgress())
+                        .put("description", progressReqDTO.getDescription()).build());
+        sendDeviceMessage(message, device);
+    }
+
     // TODO @芋艿：后续需要考虑，http 的认证
     @Override
     public boolean authenticateEmqxConnection(IotDeviceEmqxAuthReqDTO authReqDTO) {
@@ -317,8 +402,8 @@ public class IotDeviceUpstreamServiceImpl implements IotDeviceUpstreamService {
         // 1. 【异步】记录设备与插件实例的映射
         pluginInstanceService.updateDevicePluginInstanceProcessIdAsync(device.getDeviceKey(), reqDTO.getProcessId());
 
-        // 2. 【异步】更新设备的最后时间
-        devicePropertyService.updateDeviceReportTimeAsync(device.getDeviceKey(), LocalDateTime.now());
+        // 2. 【合并】更新设备的最后时间
+        devicePropertyService.updateDeviceReportTime(device.getDeviceKey(), LocalDateTime.now());
     }
 
     private void sendDeviceMessage(IotDeviceMessage message, IotDeviceDO device) {
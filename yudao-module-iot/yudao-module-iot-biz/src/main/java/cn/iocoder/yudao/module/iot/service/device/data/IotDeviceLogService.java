@@ -42,6 +42,8 @@ public interface IotDeviceLogService {
     /**
      * 获得设备日志数量
      *
+     * 优先读取 Redis 中增量维护的统计，不随设备日志的数据量增长
+     *
      * @param createTime 创建时间，如果为空，则统计所有日志数量
      * @return 日志数量
      */
@@ -54,7 +56,7 @@ public interface IotDeviceLogService {
      * @param deviceKey 设备标识
      * @param startTime 开始时间
      * @param endTime 结束时间
-     * @return key: 时间戳, value: 消息数量
+     * @return key: 时间戳, value: 消息数量；没有消息的小时，数量为 0
      */
     List<Map<Long, Integer>> getDeviceLogUpCountByHour(@Nullable String deviceKey,
                                                        @Nullable Long startTime,
@@ -66,7 +68,7 @@ public interface IotDeviceLogService {
      * @param deviceKey 设备标识
      * @param startTime 开始时间
      * @param endTime 结束时间
-     * @return key: 时间戳, value: 消息数量
+     * @return key: 时间戳, value: 消息数量；没有消息的小时，数量为 0
      */
     List<Map<Long, Integer>> getDeviceLogDownCountByHour(@Nullable String deviceKey,
                                                          @Nullable Long startTime,
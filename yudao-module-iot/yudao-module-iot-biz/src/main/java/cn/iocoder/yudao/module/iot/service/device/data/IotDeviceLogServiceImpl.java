@@ -2,27 +2,43 @@ package cn.iocoder.yudao.module.iot.service.device.data;
 
 import cn.hutool.core.date.LocalDateTimeUtil;
 import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.BooleanUtil;
+import cn.hutool.core.util.ObjUtil;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.framework.common.core.CoalescingWriter;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
 import cn.iocoder.yudao.framework.common.util.object.BeanUtils;
+import cn.iocoder.yudao.framework.tenant.core.context.TenantContextHolder;
 import cn.iocoder.yudao.module.iot.controller.admin.device.vo.data.IotDeviceLogPageReqVO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDeviceLogDO;
+import cn.iocoder.yudao.module.iot.dal.redis.statistics.DeviceMessageStatisticsRedisDAO;
 import cn.iocoder.yudao.module.iot.dal.tdengine.IotDeviceLogMapper;
+import cn.iocoder.yudao.module.iot.enums.device.IotDeviceMessageIdentifierEnum;
+import cn.iocoder.yudao.module.iot.framework.redis.config.IotRedisWriteProperties;
+import cn.iocoder.yudao.module.iot.framework.redis.core.IotCoalescingWriterMeterBinder;
+import cn.iocoder.yudao.module.iot.framework.tdengine.config.TDengineBatchProperties;
+import cn.iocoder.yudao.module.iot.framework.tdengine.core.TDengineBatchWriter;
 import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static cn.iocoder.yudao.module.iot.dal.redis.statistics.DeviceMessageStatisticsRedisDAO.*;
 
 /**
  * IoT 设备日志数据 Service 实现类
@@ -34,9 +50,91 @@ import java.util.stream.Collectors;
 @Validated
 public class IotDeviceLogServiceImpl implements IotDeviceLogService {
 
+    /**
+     * 上行消息的标识符
+     */
+    private static final Set<String> UPSTREAM_IDENTIFIERS = new HashSet<>(Arrays.asList(
+            IotDeviceMessageIdentifierEnum.STATE_ONLINE.getIdentifier(),
+            IotDeviceMessageIdentifierEnum.STATE_OFFLINE.getIdentifier(),
+            IotDeviceMessageIdentifierEnum.OTA_PULL.getIdentifier(),
+            IotDeviceMessageIdentifierEnum.OTA_PROGRESS.getIdentifier(),
+            IotDeviceMessageIdentifierEnum.PROPERTY_REPORT.getIdentifier(),
+            IotDeviceMessageIdentifierEnum.REGISTER_REGISTER.getIdentifier(),
+            IotDeviceMessageIdentifierEnum.REGISTER_REGISTER_SUB.getIdentifier()));
+    /**
+     * 下行消息的标识符
+     */
+    private static final Set<String> DOWNSTREAM_IDENTIFIERS = new HashSet<>(Arrays.asList(
+            IotDeviceMessageIdentifierEnum.PROPERTY_SET.getIdentifier(),
+            IotDeviceMessageIdentifierEnum.PROPERTY_GET.getIdentifier(),
+            IotDeviceMessageIdentifierEnum.OTA_UPGRADE.getIdentifier(),
+            IotDeviceMessageIdentifierEnum.REGISTER_UNREGISTER_SUB.getIdentifier(),
+            IotDeviceMessageIdentifierEnum.TOPOLOGY_ADD.getIdentifier()));
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
     @Resource
     private IotDeviceLogMapper deviceLogMapper;
 
+    @Resource
+    private DeviceMessageStatisticsRedisDAO deviceMessageStatisticsRedisDAO;
+
+    @Resource
+    private TDengineBatchProperties tdengineBatchProperties;
+    @Resource
+    private IotRedisWriteProperties redisWriteProperties;
+    @Autowired(required = false) // 未引入 Micrometer 监控时，不强制注入
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 设备日志的批量写入器
+     *
+     * 为空时，表示未开启批量写入
+     */
+    private TDengineBatchWriter<IotDeviceLogDO> batchWriter;
+
+    /**
+     * 开始统计的时间（毫秒），即本实例的启动时间；仅第一次写入 Redis 时生效
+     */
+    private final long statisticsStartTime = System.currentTimeMillis();
+    /**
+     * 消息数量统计的合并写入器：相同租户、小时、方向的数量累加后，批量 HINCRBY
+     *
+     * 为空时，表示未开启合并写入
+     */
+    private CoalescingWriter<Counter, Long> statisticsWriter;
+
+    @PostConstruct
+    public void initBatchWriter() {
+        if (BooleanUtil.isTrue(redisWriteProperties.getEnable())) {
+            statisticsWriter = new CoalescingWriter<>("iot-device-message-statistics",
+                    redisWriteProperties.getBatchSize(), redisWriteProperties.getFlushInterval(),
+                    redisWriteProperties.getMaxPendingSize(), Long::sum,
+                    counters -> deviceMessageStatisticsRedisDAO.incrementBatch(counters, statisticsStartTime));
+            if (meterRegistry != null) {
+                new IotCoalescingWriterMeterBinder(statisticsWriter, "待写入的统计计数器数量").bindTo(meterRegistry);
+            }
+        }
+        if (BooleanUtil.isFalse(tdengineBatchProperties.getEnable())) {
+            return;
+        }
+        batchWriter = new TDengineBatchWriter<>("iot-device-log", tdengineBatchProperties,
+                IotDeviceLogDO::getDeviceKey, IotDeviceLogDO::setTs, deviceLogMapper::insertBatch);
+        if (meterRegistry != null) {
+            batchWriter.bindTo(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    public void destroyBatchWriter() {
+        if (batchWriter != null) {
+            batchWriter.shutdown(tdengineBatchProperties.getShutdownTimeout());
+        }
+        if (statisticsWriter != null) {
+            statisticsWriter.shutdown(redisWriteProperties.getShutdownTimeout());
+        }
+    }
+
     @Override
     public void defineDeviceLog() {
         if (StrUtil.isNotEmpty(deviceLogMapper.showDeviceLogSTable())) {
@@ -54,7 +152,35 @@ public class IotDeviceLogServiceImpl implements IotDeviceLogService {
         IotDeviceLogDO log = BeanUtils.toBean(message, IotDeviceLogDO.class)
                 .setId(IdUtil.fastSimpleUUID())
                 .setContent(JsonUtils.toJsonString(message.getData()));
-        deviceLogMapper.insert(log);
+        // 情况一：开启批量写入，放入缓冲队列，由后台线程批量 insert
+        if (batchWriter != null) {
+            batchWriter.offer(log);
+        } else {
+            // 情况二：未开启批量写入，直接 insert
+            deviceLogMapper.insert(log);
+        }
+
+        // 累加消息数量的统计
+        incrementStatistics(message);
+    }
+
+    private void incrementStatistics(IotDeviceMessage message) {
+        Long tenantId = formatTenantId(ObjUtil.defaultIfNull(message.getTenantId(), TenantContextHolder.getTenantId()));
+        long hour = floorHour(System.currentTimeMillis());
+        Map<Counter, Long> counters = new HashMap<>(4);
+        counters.put(new Counter(tenantId, DIRECTION_ALL, hour), 1L);
+        if (UPSTREAM_IDENTIFIERS.contains(message.getIdentifier())) {
+            counters.put(new Counter(tenantId, DIRECTION_UPSTREAM, hour), 1L);
+        } else if (DOWNSTREAM_IDENTIFIERS.contains(message.getIdentifier())) {
+            counters.put(new Counter(tenantId, DIRECTION_DOWNSTREAM, hour), 1L);
+        }
+        // 情况一：开启合并写入，由后台线程累加后批量写入
+        if (statisticsWriter != null) {
+            counters.forEach(statisticsWriter::offer);
+            return;
+        }
+        // 情况二：未开启合并写入，直接写入
+        deviceMessageStatisticsRedisDAO.incrementBatch(counters, statisticsStartTime);
     }
 
     @Override
@@ -73,40 +199,120 @@ public class IotDeviceLogServiceImpl implements IotDeviceLogService {
 
     @Override
     public Long getDeviceLogCount(LocalDateTime createTime) {
-        return deviceLogMapper.selectCountByCreateTime(createTime != null ? LocalDateTimeUtil.toEpochMilli(createTime) : null);
+        Long tenantId = formatTenantId(TenantContextHolder.getTenantId());
+        DeviceMessageStatisticsRedisDAO.Count count = deviceMessageStatisticsRedisDAO.getCount(tenantId);
+        // 情况一：尚未开始统计，只能 COUNT 设备日志
+        if (count == null) {
+            return deviceLogMapper.selectCountByCreateTime(
+                    createTime != null ? LocalDateTimeUtil.toEpochMilli(createTime) : null, null);
+        }
+
+        // 情况二：统计所有日志数量 = 开始统计后的总数 + 开始统计前的总数（只 COUNT 一次，之后缓存在 Redis）
+        if (createTime == null) {
+            Long seed = count.getSeed();
+            if (seed == null) {
+                seed = deviceLogMapper.selectCountByCreateTime(null, count.getStartTime());
+                deviceMessageStatisticsRedisDAO.setSeed(tenantId, seed);
+            }
+            return count.getTotal() + seed;
+        }
+
+        // 情况三：统计某个时间之后的日志数量，按照小时累加（精确到小时）；统计不到的部分，COUNT 设备日志补齐
+        long startTime = LocalDateTimeUtil.toEpochMilli(createTime);
+        long availableTime = getStatisticsAvailableTime(count);
+        long result = 0L;
+        if (startTime < availableTime) {
+            result += deviceLogMapper.selectCountByCreateTime(startTime, availableTime);
+        }
+        long currentHour = floorHour(System.currentTimeMillis());
+        if (currentHour >= floorHour(availableTime)) {
+            result += deviceMessageStatisticsRedisDAO.getHourCountMap(tenantId, DIRECTION_ALL,
+                    floorHour(Math.max(startTime, availableTime)), currentHour)
+                    .values().stream().mapToLong(Long::longValue).sum();
+        }
+        return result;
     }
 
     // TODO @super：加一个参数，Boolean upstream：true 上行，false 下行，null 不过滤
     @Override
     public List<Map<Long, Integer>> getDeviceLogUpCountByHour(String deviceKey, Long startTime, Long endTime) {
-        // TODO @super：不能只基于数据库统计。因为有一些小时，可能出现没数据的情况，导致前端展示的图是不全的。可以参考 CrmStatisticsCustomerService 来实现
-        List<Map<String, Object>> list = deviceLogMapper.selectDeviceLogUpCountByHour(deviceKey, startTime, endTime);
-        return list.stream()
-                .map(map -> {
-                    // 从Timestamp获取时间戳
-                    Timestamp timestamp = (Timestamp) map.get("time");
-                    Long timeMillis = timestamp.getTime();
-                    // 消息数量转换
-                    Integer count = ((Number) map.get("data")).intValue();
-                    return MapUtil.of(timeMillis, count);
-                })
-                .collect(Collectors.toList());
+        return getDeviceLogCountByHour(deviceKey, startTime, endTime, DIRECTION_UPSTREAM,
+                selectEndTime -> deviceLogMapper.selectDeviceLogUpCountByHour(deviceKey, startTime, selectEndTime));
     }
 
     // TODO @super：getDeviceLogDownCountByHour 融合到 getDeviceLogUpCountByHour
     @Override
     public List<Map<Long, Integer>> getDeviceLogDownCountByHour(String deviceKey, Long startTime, Long endTime) {
-        List<Map<String, Object>> list = deviceLogMapper.selectDeviceLogDownCountByHour(deviceKey, startTime, endTime);
-        return list.stream()
-                .map(map -> {
-                    // 从Timestamp获取时间戳
-                    Timestamp timestamp = (Timestamp) map.get("time");
-                    Long timeMillis = timestamp.getTime();
-                    // 消息数量转换
-                    Integer count = ((Number) map.get("data")).intValue();
-                    return MapUtil.of(timeMillis, count);
-                })
-                .collect(Collectors.toList());
+        return getDeviceLogCountByHour(deviceKey, startTime, endTime, DIRECTION_DOWNSTREAM,
+                selectEndTime -> deviceLogMapper.selectDeviceLogDownCountByHour(deviceKey, startTime, selectEndTime));
+    }
+
+    /**
+     * 获得每个小时的消息数量：优先读取 Redis 中的统计，统计不到的部分（开始统计之前、超过保留时长、指定设备），查询设备日志
+     *
+     * @param deviceKey 设备标识
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @param direction 方向
+     * @param selectFunction 查询设备日志的逻辑，参数为结束时间
+     * @return 每个小时的消息数量，没有消息的小时，数量为 0
+     */
+    private List<Map<Long, Integer>> getDeviceLogCountByHour(String deviceKey, Long startTime, Long endTime, String direction,
+                                                             Function<Long, List<Map<String, Object>>> selectFunction) {
+        // 1. 计算统计可用的开始时间：指定设备时，Redis 中没有统计
+        Long tenantId = formatTenantId(TenantContextHolder.getTenantId());
+        DeviceMessageStatisticsRedisDAO.Count count = deviceKey == null ? deviceMessageStatisticsRedisDAO.getCount(tenantId) : null;
+        Long availableTime = count != null ? getStatisticsAvailableTime(count) : null;
+        if (availableTime != null && endTime != null && endTime < availableTime) {
+            availableTime = null;
+        }
+
+        // 2.1 统计不到的部分，查询设备日志
+        Map<Long, Long> countMap = new TreeMap<>();
+        if (availableTime == null || startTime == null || startTime < availableTime) {
+            selectFunction.apply(availableTime != null ? availableTime - 1 : endTime).forEach(map -> {
+                // 从Timestamp获取时间戳
+                Timestamp timestamp = (Timestamp) map.get("time");
+                // 消息数量转换
+                countMap.merge(timestamp.getTime(), ((Number) map.get("data")).longValue(), Long::sum);
+            });
+        }
+        // 2.2 统计可用的部分，读取 Redis
+        if (availableTime != null) {
+            long endHour = floorHour(endTime != null ? endTime : System.currentTimeMillis());
+            deviceMessageStatisticsRedisDAO.getHourCountMap(tenantId, direction,
+                    floorHour(startTime != null ? Math.max(startTime, availableTime) : availableTime), endHour)
+                    .forEach((hour, value) -> countMap.merge(hour, value, Long::sum));
+        }
+
+        // 3. 补齐没有消息的小时，保证前端展示的图是完整的
+        List<Map<Long, Integer>> result = new ArrayList<>();
+        if (startTime != null && endTime != null) {
+            for (long hour = floorHour(startTime); hour <= endTime; hour += HOUR_MILLIS) {
+                countMap.putIfAbsent(hour, 0L);
+            }
+        }
+        countMap.forEach((hour, value) -> result.add(MapUtil.of(hour, value.intValue())));
+        return result;
+    }
+
+    /**
+     * 获得 Redis 统计可用的开始时间：开始统计的时间，与保留时长的较晚者
+     */
+    private static long getStatisticsAvailableTime(DeviceMessageStatisticsRedisDAO.Count count) {
+        long retentionTime = floorHour(System.currentTimeMillis() - HOUR_COUNT_RETENTION.toMillis()) + HOUR_MILLIS;
+        return Math.max(count.getStartTime(), retentionTime);
+    }
+
+    private static long floorHour(long time) {
+        return Math.floorDiv(time, HOUR_MILLIS) * HOUR_MILLIS;
+    }
+
+    /**
+     * 未开启多租户时，租户编号为空，统一使用 0
+     */
+    private static Long formatTenantId(Long tenantId) {
+        return ObjUtil.defaultIfNull(tenantId, 0L);
     }
 
 }
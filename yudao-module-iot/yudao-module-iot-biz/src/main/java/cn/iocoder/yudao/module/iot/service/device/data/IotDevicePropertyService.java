@@ -1,6 +1,7 @@
 package cn.iocoder.yudao.module.iot.service.device.data;
 
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
+import cn.iocoder.yudao.module.iot.controller.admin.device.vo.data.IotDevicePropertyHistoryAggregateReqVO;
 import cn.iocoder.yudao.module.iot.controller.admin.device.vo.data.IotDevicePropertyHistoryPageReqVO;
 import cn.iocoder.yudao.module.iot.controller.admin.device.vo.data.IotDevicePropertyRespVO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDevicePropertyDO;
@@ -8,8 +9,8 @@ import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
 
 import javax.validation.Valid;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * IoT 设备【属性】数据 Service 接口
@@ -37,6 +38,8 @@ public interface IotDevicePropertyService {
     /**
      * 获得设备属性最新数据
      *
+     * 开启 Redis 合并写入时，最多有 flushInterval 的延迟
+     *
      * @param deviceId 设备编号
      * @return 设备属性最新数据
      */
@@ -50,22 +53,44 @@ public interface IotDevicePropertyService {
      */
     PageResult<IotDevicePropertyRespVO> getHistoryDevicePropertyPage(@Valid IotDevicePropertyHistoryPageReqVO pageReqVO);
 
+    /**
+     * 获得设备属性历史的聚合数据
+     *
+     * 按照目标点数（或指定的窗口大小）计算聚合窗口，由 TDengine 按照窗口聚合，已经关闭的窗口会被缓存
+     *
+     * @param reqVO 聚合请求
+     * @return 聚合数据，updateTime 为窗口开始时间，按照时间升序
+     */
+    List<IotDevicePropertyRespVO> getHistoryDevicePropertyAggregateList(@Valid IotDevicePropertyHistoryAggregateReqVO reqVO);
+
     // ========== 设备时间相关操作 ==========
 
     /**
-     * 获得最后上报时间小于指定时间的设备标识
+     * 获得最后上报时间小于等于指定时间的设备，按照上报时间升序
      *
      * @param maxReportTime 最大上报时间
-     * @return 设备标识列表
+     * @param count 最大数量
+     * @return 设备的最后上报时间（毫秒），key 为设备标识
      */
-    Set<String> getDeviceKeysByReportTime(LocalDateTime maxReportTime);
+    Map<String, Long> getDeviceReportTimeMap(LocalDateTime maxReportTime, int count);
 
     /**
-     * 异步更新设备上报时间
+     * 移除设备的最后上报时间，仅移除上报时间未变化的设备
+     *
+     * 设备下线后不再需要检测；重新上报时，会再次写入
+     *
+     * @param reportTimes 设备的最后上报时间（毫秒），key 为设备标识
+     */
+    void removeDeviceReportTimes(Map<String, Long> reportTimes);
+
+    /**
+     * 更新设备上报时间
+     *
+     * 开启合并写入时，先在内存中合并，由后台线程批量写入 Redis
      *
      * @param deviceKey  设备标识
      * @param reportTime 上报时间
      */
-    void updateDeviceReportTimeAsync(String deviceKey, LocalDateTime reportTime);
+    void updateDeviceReportTime(String deviceKey, LocalDateTime reportTime);
 
 }
\ No newline at end of file
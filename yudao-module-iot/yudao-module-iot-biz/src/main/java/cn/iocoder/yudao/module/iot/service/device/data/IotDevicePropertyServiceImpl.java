@@ -3,21 +3,35 @@ package cn.iocoder.yudao.module.iot.service.device.data;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.date.LocalDateTimeUtil;
 import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.BooleanUtil;
 import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.framework.common.core.CoalescingWriter;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
+import cn.iocoder.yudao.framework.common.util.collection.SetUtils;
+import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
 import cn.iocoder.yudao.framework.tenant.core.aop.TenantIgnore;
+import cn.iocoder.yudao.module.iot.controller.admin.device.vo.data.IotDevicePropertyHistoryAggregateReqVO;
 import cn.iocoder.yudao.module.iot.controller.admin.device.vo.data.IotDevicePropertyHistoryPageReqVO;
 import cn.iocoder.yudao.module.iot.controller.admin.device.vo.data.IotDevicePropertyRespVO;
 import cn.iocoder.yudao.module.iot.controller.admin.thingmodel.model.dataType.ThingModelDateOrTextDataSpecs;
 import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDeviceDO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDevicePropertyDO;
+import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDevicePropertyDataDO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.product.IotProductDO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.thingmodel.IotThingModelDO;
+import cn.iocoder.yudao.module.iot.dal.redis.device.DevicePropertyAggregateRedisDAO;
 import cn.iocoder.yudao.module.iot.dal.redis.device.DevicePropertyRedisDAO;
 import cn.iocoder.yudao.module.iot.dal.redis.device.DeviceReportTimeRedisDAO;
 import cn.iocoder.yudao.module.iot.dal.tdengine.IotDevicePropertyMapper;
+import cn.iocoder.yudao.module.iot.enums.device.IotDevicePropertyAggregateFillEnum;
+import cn.iocoder.yudao.module.iot.enums.device.IotDevicePropertyAggregateFunctionEnum;
 import cn.iocoder.yudao.module.iot.enums.thingmodel.IotDataSpecsDataTypeEnum;
 import cn.iocoder.yudao.module.iot.enums.thingmodel.IotThingModelTypeEnum;
+import cn.iocoder.yudao.module.iot.framework.redis.config.IotRedisWriteProperties;
+import cn.iocoder.yudao.module.iot.framework.redis.core.IotCoalescingWriterMeterBinder;
+import cn.iocoder.yudao.module.iot.framework.tdengine.config.TDengineAggregateProperties;
+import cn.iocoder.yudao.module.iot.framework.tdengine.config.TDengineBatchProperties;
+import cn.iocoder.yudao.module.iot.framework.tdengine.core.TDengineBatchWriter;
 import cn.iocoder.yudao.module.iot.framework.tdengine.core.TDengineTableField;
 import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
 import cn.iocoder.yudao.module.iot.service.device.IotDeviceService;
@@ -25,15 +39,24 @@ import cn.iocoder.yudao.module.iot.service.product.IotProductService;
 import cn.iocoder.yudao.module.iot.service.thingmodel.IotThingModelService;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
+import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
 import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.*;
+import static cn.iocoder.yudao.module.iot.enums.ErrorCodeConstants.DEVICE_PROPERTY_AGGREGATE_FUNCTION_NOT_SUPPORT;
+import static cn.iocoder.yudao.module.iot.enums.ErrorCodeConstants.THING_MODEL_NOT_EXISTS;
+import static cn.iocoder.yudao.module.iot.util.IotDevicePropertyAggregateUtils.*;
 
 /**
  * IoT 设备【属性】数据 Service 实现类
@@ -58,6 +81,15 @@ public class IotDevicePropertyServiceImpl implements IotDevicePropertyService {
             .put(IotDataSpecsDataTypeEnum.STRUCT.getDataType(), TDengineTableField.TYPE_NCHAR) // TODO 芋艿：怎么映射！！！！
             .put(IotDataSpecsDataTypeEnum.ARRAY.getDataType(), TDengineTableField.TYPE_NCHAR) // TODO 芋艿：怎么映射！！！！
             .build();
+    /**
+     * 支持数值聚合（avg、min、max）的 TDengine 字段类型
+     */
+    private static final Set<String> NUMERIC_FIELD_TYPES = SetUtils.asSet(
+            TDengineTableField.TYPE_INT, TDengineTableField.TYPE_FLOAT, TDengineTableField.TYPE_DOUBLE);
+    /**
+     * 流计算预聚合的窗口大小（毫秒）
+     */
+    private static final long STREAM_INTERVAL = TimeUnit.MINUTES.toMillis(1L);
 
     @Resource
     private IotDeviceService deviceService;
@@ -70,10 +102,104 @@ public class IotDevicePropertyServiceImpl implements IotDevicePropertyService {
     private DevicePropertyRedisDAO deviceDataRedisDAO;
     @Resource
     private DeviceReportTimeRedisDAO deviceReportTimeRedisDAO;
+    @Resource
+    private DevicePropertyAggregateRedisDAO devicePropertyAggregateRedisDAO;
 
     @Resource
     private IotDevicePropertyMapper devicePropertyMapper;
 
+    @Resource
+    private TDengineBatchProperties tdengineBatchProperties;
+    @Resource
+    private TDengineAggregateProperties tdengineAggregateProperties;
+    @Resource
+    private IotRedisWriteProperties redisWriteProperties;
+    @Autowired(required = false) // 未引入 Micrometer 监控时，不强制注入
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 设备属性数据的批量写入器
+     *
+     * 为空时，表示未开启批量写入
+     */
+    private TDengineBatchWriter<IotDevicePropertyDataDO> batchWriter;
+    /**
+     * 设备最后上报时间的合并写入器：同一设备只保留最大的上报时间
+     *
+     * 为空时，表示未开启合并写入
+     */
+    private CoalescingWriter<String, Long> reportTimeWriter;
+    /**
+     * 设备最新属性的合并写入器：同一设备的同一属性只保留最新的值
+     *
+     * 为空时，表示未开启合并写入
+     */
+    private CoalescingWriter<String, Map<String, IotDevicePropertyDO>> latestPropertyWriter;
+
+    @PostConstruct
+    public void initBatchWriter() {
+        initRedisWriter();
+        if (BooleanUtil.isFalse(tdengineBatchProperties.getEnable())) {
+            return;
+        }
+        batchWriter = new TDengineBatchWriter<>("iot-device-property", tdengineBatchProperties,
+                IotDevicePropertyDataDO::getDeviceKey, IotDevicePropertyDataDO::setTs,
+                devicePropertyMapper::insertBatch);
+        if (meterRegistry != null) {
+            batchWriter.bindTo(meterRegistry);
+        }
+    }
+
+    private void initRedisWriter() {
+        if (BooleanUtil.isFalse(redisWriteProperties.getEnable())) {
+            return;
+        }
+        reportTimeWriter = new CoalescingWriter<>("iot-device-report-time", redisWriteProperties.getBatchSize(),
+                redisWriteProperties.getFlushInterval(), redisWriteProperties.getMaxPendingSize(),
+                Math::max, deviceReportTimeRedisDAO::updateBatch);
+        latestPropertyWriter = new CoalescingWriter<>("iot-device-latest-property", redisWriteProperties.getBatchSize(),
+                redisWriteProperties.getFlushInterval(), redisWriteProperties.getMaxPendingSize(),
+                IotDevicePropertyServiceImpl::mergeLatestProperties, deviceDataRedisDAO::putAll);
+        if (meterRegistry != null) {
+            new IotCoalescingWriterMeterBinder(reportTimeWriter, "待写入的设备数量").bindTo(meterRegistry);
+            new IotCoalescingWriterMeterBinder(latestPropertyWriter, "待写入的设备数量").bindTo(meterRegistry);
+        }
+    }
+
+    /**
+     * 合并设备的最新属性：按照属性的更新时间，保留较新的值
+     *
+     * 更新时间为空时，视为比任何时间都旧；都为空时，保留后上报的值
+     */
+    static Map<String, IotDevicePropertyDO> mergeLatestProperties(Map<String, IotDevicePropertyDO> oldProperties,
+                                                                  Map<String, IotDevicePropertyDO> newProperties) {
+        Map<String, IotDevicePropertyDO> result = new HashMap<>(oldProperties);
+        newProperties.forEach((identifier, property) -> result.merge(identifier, property,
+                (oldProperty, newProperty) -> isAfter(oldProperty.getUpdateTime(), newProperty.getUpdateTime())
+                        ? oldProperty : newProperty));
+        return result;
+    }
+
+    private static boolean isAfter(LocalDateTime time, LocalDateTime other) {
+        if (time == null) {
+            return false;
+        }
+        return other == null || time.isAfter(other);
+    }
+
+    @PreDestroy
+    public void destroyBatchWriter() {
+        if (batchWriter != null) {
+            batchWriter.shutdown(tdengineBatchProperties.getShutdownTimeout());
+        }
+        if (reportTimeWriter != null) {
+            reportTimeWriter.shutdown(redisWriteProperties.getShutdownTimeout());
+        }
+        if (latestPropertyWriter != null) {
+            latestPropertyWriter.shutdown(redisWriteProperties.getShutdownTimeout());
+        }
+    }
+
     // ========== 设备属性相关操作 ==========
 
     @Override
@@ -100,10 +226,54 @@ public class IotDevicePropertyServiceImpl implements IotDevicePropertyService {
                 return;
             }
             devicePropertyMapper.createProductPropertySTable(product.getProductKey(), newFields);
+        } else {
+            // 2.2 情况二：如果是修改的时候，需要更新表
+            devicePropertyMapper.alterProductPropertySTable(product.getProductKey(), oldFields, newFields);
+        }
+
+        // 3. 定义预聚合的流计算
+        defineDevicePropertyAggregateStream(product.getProductKey(), newFields);
+    }
+
+    private void defineDevicePropertyAggregateStream(String productKey, List<TDengineTableField> fields) {
+        if (BooleanUtil.isFalse(tdengineAggregateProperties.getStreamEnable())) {
             return;
         }
-        // 2.2 情况二：如果是修改的时候，需要更新表
-        devicePropertyMapper.alterProductPropertySTable(product.getProductKey(), oldFields, newFields);
+        // 1. 流计算只预聚合数值类型的字段，这些字段没有变化时，无需重建，避免每次重建都 FILL_HISTORY 回填历史数据
+        List<TDengineTableField> numericFields = filterList(fields, field -> NUMERIC_FIELD_TYPES.contains(field.getType()));
+        Set<String> oldFieldTypes = convertSet(getProductPropertyAggregateSourceFieldList(productKey),
+                field -> field.getField() + " " + field.getType());
+        if (oldFieldTypes.equals(convertSet(numericFields, field -> field.getField() + " " + field.getType()))) {
+            return;
+        }
+
+        // 2. 字段变更后，流计算的输出结构随之变化，所以删除后重建；重建时 FILL_HISTORY 会回填历史数据
+        devicePropertyMapper.dropProductPropertyAggregateStream(productKey);
+        devicePropertyMapper.dropProductPropertyAggregateSTable(productKey);
+        if (CollUtil.isEmpty(numericFields)) {
+            return;
+        }
+        devicePropertyMapper.createProductPropertyAggregateStream(productKey, numericFields, STREAM_INTERVAL);
+    }
+
+    /**
+     * 获得预聚合超级表对应的原始字段
+     *
+     * 每个原始字段 xxx，对应 xxx_sum、xxx_count、xxx_min、xxx_max、xxx_last 五列，其中 xxx_last 与原始字段的类型相同
+     */
+    private List<TDengineTableField> getProductPropertyAggregateSourceFieldList(String productKey) {
+        List<TDengineTableField> aggregateFields;
+        try {
+            aggregateFields = devicePropertyMapper.getProductPropertyAggregateSTableFieldList(productKey);
+        } catch (Exception e) {
+            if (e.getMessage() != null && e.getMessage().contains("Table does not exist")) {
+                return Collections.emptyList();
+            }
+            throw e;
+        }
+        return convertList(aggregateFields,
+                field -> new TDengineTableField(StrUtil.removeSuffix(field.getField(), "_last"), field.getType()),
+                field -> StrUtil.endWith(field.getField(), "_last"));
     }
 
     private List<TDengineTableField> buildTableFieldList(List<IotThingModelDO> thingModels) {
@@ -134,10 +304,10 @@ public class IotDevicePropertyServiceImpl implements IotDevicePropertyService {
 
         // 2. 根据物模型，拼接合法的属性
         // TODO @芋艿：【待定 004】赋能后，属性到底以 thingModel 为准（ik），还是 db 的表结构为准（tl）？
-        List<IotThingModelDO> thingModels = thingModelService.getThingModelListByProductKeyFromCache(device.getProductKey());
+        Map<String, IotThingModelDO> thingModels = thingModelService.getThingModelMapByProductKeyFromCache(device.getProductKey());
         Map<String, Object> properties = new HashMap<>();
         ((Map<?, ?>) message.getData()).forEach((key, value) -> {
-            if (CollUtil.findOne(thingModels, thingModel -> thingModel.getIdentifier().equals(key)) == null) {
+            if (!thingModels.containsKey(key)) {
                 log.error("[saveDeviceProperty][消息({}) 的属性({}) 不存在]", message, key);
                 return;
             }
@@ -149,12 +319,27 @@ public class IotDevicePropertyServiceImpl implements IotDevicePropertyService {
         }
 
         // 3.1 保存设备属性【数据】
-        devicePropertyMapper.insert(device, properties,
-                LocalDateTimeUtil.toEpochMilli(message.getReportTime()));
+        Long reportTime = LocalDateTimeUtil.toEpochMilli(message.getReportTime());
+        if (batchWriter != null) {
+            // 情况一：开启批量写入，放入缓冲队列，由后台线程批量 insert
+            batchWriter.offer(IotDevicePropertyDataDO.builder().productKey(device.getProductKey())
+                    .deviceKey(device.getDeviceKey()).properties(new TreeMap<>(properties))
+                    .reportTime(reportTime).build());
+        } else {
+            // 情况二：未开启批量写入，直接 insert
+            devicePropertyMapper.insert(device, properties, reportTime);
+        }
 
         // 3.2 保存设备属性【日志】
-        deviceDataRedisDAO.putAll(message.getDeviceKey(), convertMap(properties.entrySet(), Map.Entry::getKey,
-                entry -> IotDevicePropertyDO.builder().value(entry.getValue()).updateTime(message.getReportTime()).build()));
+        Map<String, IotDevicePropertyDO> latestProperties = convertMap(properties.entrySet(), Map.Entry::getKey,
+                entry -> IotDevicePropertyDO.builder().value(entry.getValue()).updateTime(message.getReportTime()).build());
+        if (latestPropertyWriter != null) {
+            // 情况一：开启合并写入，短时间内同一属性只保留最新值，由后台线程 pipeline 写入
+            latestPropertyWriter.offer(message.getDeviceKey(), latestProperties);
+        } else {
+            // 情况二：未开启合并写入，直接写入
+            deviceDataRedisDAO.putAll(message.getDeviceKey(), latestProperties);
+        }
     }
 
     @Override
@@ -184,16 +369,192 @@ public class IotDevicePropertyServiceImpl implements IotDevicePropertyService {
         }
     }
 
+    @Override
+    public List<IotDevicePropertyRespVO> getHistoryDevicePropertyAggregateList(IotDevicePropertyHistoryAggregateReqVO reqVO) {
+        // 1.1 校验设备、属性存在
+        IotDeviceDO device = deviceService.validateDeviceExists(reqVO.getDeviceId());
+        IotThingModelDO thingModel = thingModelService.getThingModelMapByProductKeyFromCache(device.getProductKey())
+                .get(reqVO.getIdentifier());
+        if (thingModel == null || thingModel.getProperty() == null) {
+            throw exception(THING_MODEL_NOT_EXISTS);
+        }
+        // 1.2 校验聚合函数，avg、min、max 只支持数值类型
+        boolean numeric = NUMERIC_FIELD_TYPES.contains(TYPE_MAPPING.get(thingModel.getProperty().getDataType()));
+        if (IotDevicePropertyAggregateFunctionEnum.of(reqVO.getFunction()).isNumeric() && !numeric) {
+            throw exception(DEVICE_PROPERTY_AGGREGATE_FUNCTION_NOT_SUPPORT, reqVO.getIdentifier(), reqVO.getFunction());
+        }
+
+        // 2. 计算窗口大小，并将开始、结束时间对齐到窗口边界
+        long startTime = LocalDateTimeUtil.toEpochMilli(reqVO.getTimes()[0]);
+        long endTime = LocalDateTimeUtil.toEpochMilli(reqVO.getTimes()[1]);
+        long interval = calculateInterval(startTime, endTime, reqVO.getPoints(), reqVO.getInterval());
+        startTime = floor(startTime, interval);
+        endTime = Math.max(ceil(endTime, interval), startTime + interval);
+        AggregateQuery query = new AggregateQuery(device, reqVO.getIdentifier(), reqVO.getFunction(), numeric, interval);
+
+        // 3.1 已经关闭的窗口：优先读取缓存
+        Map<Long, Object> values = new HashMap<>();
+        long closedEndTime = startTime;
+        if (BooleanUtil.isTrue(tdengineAggregateProperties.getCacheEnable())) {
+            long closeTime = System.currentTimeMillis() - tdengineAggregateProperties.getCloseDelay().toMillis();
+            closedEndTime = Math.max(startTime, Math.min(endTime, floor(closeTime, interval)));
+            values.putAll(getClosedAggregateMap(query, startTime, closedEndTime));
+        }
+        // 3.2 尚未关闭的窗口：直接查询
+        values.putAll(selectAggregateMap(query, closedEndTime, endTime));
+
+        // 4. 按照填充方式，转换成列表
+        return fill(startTime, endTime, interval, values, IotDevicePropertyAggregateFillEnum.of(reqVO.getFill()));
+    }
+
+    /**
+     * 获得已经关闭的窗口的聚合结果：已缓存的窗口读取缓存，未缓存的窗口查询 TDengine 后写入缓存
+     */
+    private Map<Long, Object> getClosedAggregateMap(AggregateQuery query, long startTime, long endTime) {
+        if (startTime >= endTime) {
+            return Collections.emptyMap();
+        }
+        // 1. 读取缓存
+        List<Long> windows = new ArrayList<>();
+        for (long window = startTime; window < endTime; window += query.interval) {
+            windows.add(window);
+        }
+        Map<Long, String> cachedValues = devicePropertyAggregateRedisDAO.get(query.device.getDeviceKey(),
+                query.identifier, query.function, query.interval, windows);
+        Map<Long, Object> result = new HashMap<>();
+        Long firstMissing = null;
+        Long lastMissing = null;
+        for (Long window : windows) {
+            String cachedValue = cachedValues.get(window);
+            if (cachedValue == null) {
+                firstMissing = firstMissing != null ? firstMissing : window;
+                lastMissing = window;
+            } else if (!cachedValue.isEmpty()) {
+                result.put(window, JsonUtils.parseObject(cachedValue, Object.class));
+            }
+        }
+        if (firstMissing == null) {
+            return result;
+        }
+
+        // 2.1 查询未缓存的窗口：流计算的结果可能尚未完整（FILL_HISTORY 回填中、或者尚未触发），所以不写入缓存
+        long missingEndTime = lastMissing + query.interval;
+        Map<Long, Object> streamValues = selectStreamAggregateMap(query, firstMissing, missingEndTime);
+        if (streamValues != null) {
+            result.putAll(streamValues);
+            return result;
+        }
+        // 2.2 查询未缓存的窗口，并写入缓存；没有数据的窗口，使用空字符串占位，避免重复查询
+        Map<Long, Object> queriedValues = selectRawAggregateMap(query, firstMissing, missingEndTime);
+        result.putAll(queriedValues);
+        Map<Long, String> newCachedValues = new HashMap<>();
+        for (long window = firstMissing; window < missingEndTime; window += query.interval) {
+            Object value = queriedValues.get(window);
+            newCachedValues.put(window, value != null ? JsonUtils.toJsonString(value) : "");
+        }
+        devicePropertyAggregateRedisDAO.putAll(query.device.getDeviceKey(), query.identifier, query.function,
+                query.interval, newCachedValues, tdengineAggregateProperties.getCacheTimeout());
+        return result;
+    }
+
+    /**
+     * 查询 TDengine 的聚合结果：优先从流计算预聚合的超级表中二次聚合，不满足时从原始数据聚合
+     */
+    private Map<Long, Object> selectAggregateMap(AggregateQuery query, long startTime, long endTime) {
+        if (startTime >= endTime) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Object> streamValues = selectStreamAggregateMap(query, startTime, endTime);
+        return streamValues != null ? streamValues : selectRawAggregateMap(query, startTime, endTime);
+    }
+
+    /**
+     * 从流计算预聚合的超级表中二次聚合
+     *
+     * 开启流计算预聚合、属性为数值类型、并且窗口是预聚合窗口的整数倍时才可以使用
+     *
+     * @return 聚合结果；不满足条件、或者查询失败时，返回 null
+     */
+    private Map<Long, Object> selectStreamAggregateMap(AggregateQuery query, long startTime, long endTime) {
+        if (BooleanUtil.isFalse(tdengineAggregateProperties.getStreamEnable())
+                || !query.numeric || query.interval % STREAM_INTERVAL != 0) {
+            return null;
+        }
+        IotDeviceDO device = query.device;
+        try {
+            return buildAggregateMap(devicePropertyMapper.selectListByHistoryStreamAggregate(device.getProductKey(),
+                    device.getDeviceKey(), StrUtil.toUnderlineCase(query.identifier), query.function,
+                    startTime, endTime, query.interval));
+        } catch (Exception ex) {
+            log.warn("[selectStreamAggregateMap][设备({}) 属性({}) 查询预聚合数据失败，使用原始数据聚合]",
+                    device.getDeviceKey(), query.identifier, ex);
+            return null;
+        }
+    }
+
+    /**
+     * 从原始数据聚合
+     */
+    private Map<Long, Object> selectRawAggregateMap(AggregateQuery query, long startTime, long endTime) {
+        try {
+            return buildAggregateMap(devicePropertyMapper.selectListByHistoryAggregate(query.device.getDeviceKey(),
+                    StrUtil.toUnderlineCase(query.identifier), query.function, startTime, endTime, query.interval));
+        } catch (Exception ex) {
+            if (ex.getMessage() != null && ex.getMessage().contains("Table does not exist")) {
+                return Collections.emptyMap();
+            }
+            throw ex;
+        }
+    }
+
+    private static Map<Long, Object> buildAggregateMap(List<IotDevicePropertyRespVO> list) {
+        Map<Long, Object> result = new HashMap<>(list.size());
+        list.forEach(item -> {
+            if (item.getValue() != null) {
+                result.put(item.getUpdateTime(), item.getValue());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 聚合查询的参数
+     */
+    @AllArgsConstructor
+    private static class AggregateQuery {
+
+        private final IotDeviceDO device;
+        private final String identifier;
+        private final String function;
+        /**
+         * 属性是否为数值类型
+         */
+        private final boolean numeric;
+        /**
+         * 窗口大小（毫秒）
+         */
+        private final long interval;
+
+    }
+
     // ========== 设备时间相关操作 ==========
 
     @Override
-    public Set<String> getDeviceKeysByReportTime(LocalDateTime maxReportTime) {
-        return deviceReportTimeRedisDAO.range(maxReportTime);
+    public Map<String, Long> getDeviceReportTimeMap(LocalDateTime maxReportTime, int count) {
+        return deviceReportTimeRedisDAO.range(maxReportTime, count);
     }
 
     @Override
-    @Async
-    public void updateDeviceReportTimeAsync(String deviceKey, LocalDateTime reportTime) {
+    public void removeDeviceReportTimes(Map<String, Long> reportTimes) {
+        deviceReportTimeRedisDAO.removeIfUnchanged(reportTimes);
+    }
+
+    @Override
+    public void updateDeviceReportTime(String deviceKey, LocalDateTime reportTime) {
+        if (reportTimeWriter != null) {
+            reportTimeWriter.offer(deviceKey, LocalDateTimeUtil.toEpochMilli(reportTime));
+            return;
+        }
         deviceReportTimeRedisDAO.update(deviceKey, reportTime);
     }
 
@@ -1,10 +1,12 @@
 package cn.iocoder.yudao.module.iot.service.ota;
 
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
+import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.IotDeviceOtaProgressReqDTO;
 import cn.iocoder.yudao.module.iot.controller.admin.ota.vo.upgrade.record.IotOtaUpgradeRecordPageReqVO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.ota.IotOtaUpgradeRecordDO;
 
 import javax.validation.Valid;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -32,6 +34,16 @@ public interface IotOtaUpgradeRecordService {
      */
     Map<Integer, Long> getOtaUpgradeRecordCount(@Valid IotOtaUpgradeRecordPageReqVO pageReqVO);
 
+    /**
+     * 获取升级任务的 OTA 升级记录的精确数量统计
+     *
+     * 直接从数据库统计，不读取 Redis 计数，用于判断升级任务是否结束等需要准确数量的场景
+     *
+     * @param taskId 升级任务编号
+     * @return 返回一个 Map，其中键为状态码，值为对应状态的升级记录数量
+     */
+    Map<Integer, Long> getOtaUpgradeRecordCountByTaskId(Long taskId);
+
     /**
      * 获取 OTA 升级记录的统计信息。
      *
@@ -82,14 +94,24 @@ public interface IotOtaUpgradeRecordService {
     List<IotOtaUpgradeRecordDO> getUpgradeRecordListByState(Integer state);
 
     /**
-     * 更新升级记录的状态。
-     * <p>
-     * 该函数用于批量更新指定升级记录的状态。通过传入的ID列表和状态值，将对应的升级记录的状态更新为指定的值。
+     * 批量更新升级记录的状态，只更新状态仍为 whereStatus 的升级记录
+     *
+     * @param upgradeRecords 升级记录列表，需要属于同一个升级任务
+     * @param whereStatus    当前状态
+     * @param updateObj      更新的字段，必须包含 status
+     * @return 更新的数量
+     */
+    int updateUpgradeRecordStatus(Collection<IotOtaUpgradeRecordDO> upgradeRecords, Integer whereStatus,
+                                  IotOtaUpgradeRecordDO updateObj);
+
+    /**
+     * 更新设备上报的升级进度
+     *
+     * 同一设备短时间内的多次上报会被合并，再批量更新升级记录
      *
-     * @param ids    需要更新状态的升级记录的ID列表。列表中的每个元素代表一个升级记录的ID。
-     * @param status 要更新的状态值。该值应为有效的状态标识符，通常为整数类型。
+     * @param progressReqDTO 升级进度
      */
-    void updateUpgradeRecordStatus(List<Long> ids, Integer status);
+    void updateUpgradeRecordProgress(IotDeviceOtaProgressReqDTO progressReqDTO);
 
     /**
      * 根据任务ID获取升级记录列表
@@ -101,4 +123,14 @@ public interface IotOtaUpgradeRecordService {
      */
     List<IotOtaUpgradeRecordDO> getUpgradeRecordListByTaskId(Long taskId);
 
+    /**
+     * 获得升级任务下指定状态的升级记录列表，按照编号升序
+     *
+     * @param taskId 任务编号
+     * @param status 状态
+     * @param limit  最大数量
+     * @return 升级记录列表
+     */
+    List<IotOtaUpgradeRecordDO> getUpgradeRecordListByTaskIdAndStatus(Long taskId, Integer status, int limit);
+
 }
@@ -1,29 +1,42 @@
 package cn.iocoder.yudao.module.iot.service.ota;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.ObjUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.framework.common.core.CoalescingWriter;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
+import cn.iocoder.yudao.framework.common.util.collection.SetUtils;
 import cn.iocoder.yudao.framework.common.util.object.ObjectUtils;
+import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.IotDeviceOtaProgressReqDTO;
 import cn.iocoder.yudao.module.iot.controller.admin.ota.vo.upgrade.record.IotOtaUpgradeRecordPageReqVO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDeviceDO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.ota.IotOtaFirmwareDO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.ota.IotOtaUpgradeRecordDO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.ota.IotOtaUpgradeTaskDO;
 import cn.iocoder.yudao.module.iot.dal.mysql.ota.IotOtaUpgradeRecordMapper;
+import cn.iocoder.yudao.module.iot.dal.redis.ota.OtaUpgradeRecordCountRedisDAO;
 import cn.iocoder.yudao.module.iot.enums.ota.IotOtaUpgradeRecordStatusEnum;
+import cn.iocoder.yudao.module.iot.framework.ota.config.IotOtaUpgradeProperties;
 import cn.iocoder.yudao.module.iot.service.device.IotDeviceService;
+import com.google.common.annotations.VisibleForTesting;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.validation.annotation.Validated;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.*;
 import static cn.iocoder.yudao.module.iot.enums.ErrorCodeConstants.*;
 
 // TODO @li：@Service、@Validated、@Slf4j，先用关键注解；2）类注释，简单写
@@ -32,6 +45,12 @@ import static cn.iocoder.yudao.module.iot.enums.ErrorCodeConstants.*;
 @Validated
 public class IotOtaUpgradeRecordServiceImpl implements IotOtaUpgradeRecordService {
 
+    /**
+     * 推送中、升级中的状态，即可以接收设备上报升级进度的状态
+     */
+    private static final Set<Integer> ACTIVE_STATUSES = SetUtils.asSet(
+            IotOtaUpgradeRecordStatusEnum.PUSHED.getStatus(), IotOtaUpgradeRecordStatusEnum.UPGRADING.getStatus());
+
     @Resource
     private IotOtaUpgradeRecordMapper upgradeRecordMapper;
     // TODO @li：1）@Resource 写在 @Lazy 之前，先用关键注解；2）有必要的情况下，在写 @Lazy 注解。
@@ -45,11 +64,36 @@ public class IotOtaUpgradeRecordServiceImpl implements IotOtaUpgradeRecordServic
     @Resource
     private IotOtaUpgradeTaskService upgradeTaskService;
 
+    @Resource
+    private OtaUpgradeRecordCountRedisDAO upgradeRecordCountRedisDAO;
+
+    @Resource
+    private IotOtaUpgradeProperties otaUpgradeProperties;
+
+    /**
+     * 升级进度的合并写入器
+     *
+     * KEY：固件编号 + 产品标识 + 设备名称
+     */
+    private CoalescingWriter<String, IotDeviceOtaProgressReqDTO> progressWriter;
+
+    @PostConstruct
+    public void initProgressWriter() {
+        progressWriter = new CoalescingWriter<>("iot-ota-upgrade-progress",
+                otaUpgradeProperties.getProgressBatchSize(), otaUpgradeProperties.getProgressFlushInterval(),
+                otaUpgradeProperties.getProgressMaxPendingSize(), (oldValue, newValue) -> newValue,
+                progresses -> updateUpgradeRecordProgressBatch(progresses.values()));
+    }
+
+    @PreDestroy
+    public void destroyProgressWriter() {
+        progressWriter.shutdown(otaUpgradeProperties.getShutdownTimeout());
+    }
+
     @Override
     public void createOtaUpgradeRecordBatch(List<Long> deviceIds, Long firmwareId, Long upgradeTaskId) {
         // 1. 校验升级记录信息是否存在，并且已经取消的任务可以重新开始
-        // TODO @li：批量查询。。
-        deviceIds.forEach(deviceId -> validateUpgradeRecordDuplicate(firmwareId, upgradeTaskId, String.valueOf(deviceId)));
+        validateUpgradeRecordDuplicate(firmwareId, upgradeTaskId, deviceIds);
 
         // 2.初始化OTA升级记录列表信息
         IotOtaUpgradeTaskDO upgradeTask = upgradeTaskService.getUpgradeTask(upgradeTaskId);
@@ -69,49 +113,55 @@ public class IotOtaUpgradeRecordServiceImpl implements IotOtaUpgradeRecordServic
         }).collect(Collectors.toList());
         // 3.保存数据
         upgradeRecordMapper.insertBatch(upgradeRecordList);
-        // TODO @芋艿：在这里需要处理推送升级任务的逻辑
-
+        incrementStatusCount(firmwareId, upgradeTaskId, buildStatusDeltas(null,
+                IotOtaUpgradeRecordStatusEnum.PENDING.getStatus(), upgradeRecordList.size()));
+        // 4. 推送由 IotOtaUpgradeJob 分波进行
     }
 
-    // TODO @li：1）方法注释，简单写；2）父类写了注释，子类就不用写了。。。
-    /**
-     * 获取OTA升级记录的数量统计。
-     * 该方法根据传入的查询条件，统计不同状态的OTA升级记录数量，并返回一个包含各状态数量的映射。
-     *
-     * @param pageReqVO 包含查询条件的请求对象，主要包括任务ID和设备名称等信息。
-     * @return 返回一个Map，其中键为状态常量，值为对应状态的记录数量。
-     */
     @Override
-    @Transactional
     public Map<Integer, Long> getOtaUpgradeRecordCount(IotOtaUpgradeRecordPageReqVO pageReqVO) {
-        // 分别查询不同状态的OTA升级记录数量
-        List<Map<String, Object>> upgradeRecordCountList = upgradeRecordMapper.selectOtaUpgradeRecordCount(
-                pageReqVO.getTaskId(), pageReqVO.getDeviceName());
-        Map<String, Object> upgradeRecordCountMap = ObjectUtils.defaultIfNull(upgradeRecordCountList.get(0));
-        Objects.requireNonNull(upgradeRecordCountMap);
-        return upgradeRecordCountMap.entrySet().stream().collect(Collectors.toMap(
-                entry -> Convert.toInt(entry.getKey()),
-                entry -> Convert.toLong(entry.getValue())));
+        // 按照设备名称筛选时，无法使用计数，直接 GROUP BY 查询
+        if (StrUtil.isNotEmpty(pageReqVO.getDeviceName())) {
+            return fillStatusCount(upgradeRecordMapper.selectCountMapGroupByStatus(
+                    null, pageReqVO.getTaskId(), pageReqVO.getDeviceName()));
+        }
+        return getStatusCount(OtaUpgradeRecordCountRedisDAO.TYPE_TASK, pageReqVO.getTaskId(),
+                () -> upgradeRecordMapper.selectCountMapGroupByStatus(null, pageReqVO.getTaskId(), null));
+    }
+
+    @Override
+    public Map<Integer, Long> getOtaUpgradeRecordCountByTaskId(Long taskId) {
+        return fillStatusCount(upgradeRecordMapper.selectCountMapGroupByStatus(null, taskId, null));
     }
 
-    // TODO @li：1）方法注释，简单写；2）父类写了注释，子类就不用写了。。。
-    /**
-     * 获取指定固件ID的OTA升级记录统计信息。
-     * 该方法通过查询数据库，统计不同状态的OTA升级记录数量，并返回一个包含各状态数量的映射。
-     *
-     * @param firmwareId 固件ID，用于指定需要统计的固件升级记录。
-     * @return 返回一个Map，其中键为升级记录状态（如PENDING、PUSHED等），值为对应状态的记录数量。
-     */
     @Override
-    @Transactional
     public Map<Integer, Long> getOtaUpgradeRecordStatistics(Long firmwareId) {
-        // 查询并统计不同状态的OTA升级记录数量
-        List<Map<String, Object>> upgradeRecordStatisticsList = upgradeRecordMapper.selectOtaUpgradeRecordStatistics(firmwareId);
-        Map<String, Object> upgradeRecordStatisticsMap = ObjectUtils.defaultIfNull(upgradeRecordStatisticsList.get(0));
-        Objects.requireNonNull(upgradeRecordStatisticsMap);
-        return upgradeRecordStatisticsMap.entrySet().stream().collect(Collectors.toMap(
-                entry -> Convert.toInt(entry.getKey()),
-                entry -> Convert.toLong(entry.getValue())));
+        return getStatusCount(OtaUpgradeRecordCountRedisDAO.TYPE_FIRMWARE, firmwareId,
+                () -> upgradeRecordMapper.selectCountMapGroupByStatus(firmwareId, null, null));
+    }
+
+    /**
+     * 获得各状态的数量：优先读取 Redis 计数；不存在时，从数据库统计后写入
+     */
+    private Map<Integer, Long> getStatusCount(String type, Long id, Supplier<Map<Integer, Long>> loader) {
+        if (id == null) {
+            return fillStatusCount(loader.get());
+        }
+        Map<Integer, Long> counts = upgradeRecordCountRedisDAO.get(type, id);
+        if (counts != null) {
+            return fillStatusCount(counts);
+        }
+        counts = fillStatusCount(loader.get());
+        upgradeRecordCountRedisDAO.set(type, id, counts, otaUpgradeProperties.getCountExpire());
+        return counts;
+    }
+
+    private static Map<Integer, Long> fillStatusCount(Map<Integer, Long> counts) {
+        Map<Integer, Long> result = new LinkedHashMap<>();
+        for (Integer status : IotOtaUpgradeRecordStatusEnum.ARRAYS) {
+            result.put(status, counts.getOrDefault(status, 0L));
+        }
+        return result;
     }
 
     @Override
@@ -122,10 +172,14 @@ public class IotOtaUpgradeRecordServiceImpl implements IotOtaUpgradeRecordServic
         validateUpgradeRecordCanRetry(upgradeRecord);
 
         // 2. 将一些数据重置，这样定时任务轮询就可以重启任务
-        // TODO @li：更新的时候，wherestatus；
-        upgradeRecordMapper.updateById(new IotOtaUpgradeRecordDO()
-                .setId(upgradeRecord.getId()).setProgress(0)
-                .setStatus(IotOtaUpgradeRecordStatusEnum.PENDING.getStatus()));
+        int updateCount = upgradeRecordMapper.updateByIdAndStatus(upgradeRecord.getId(), upgradeRecord.getStatus(),
+                new IotOtaUpgradeRecordDO().setProgress(0)
+                        .setStatus(IotOtaUpgradeRecordStatusEnum.PENDING.getStatus()));
+        if (updateCount == 0) {
+            throw exception(OTA_UPGRADE_RECORD_CANNOT_RETRY);
+        }
+        incrementStatusCount(upgradeRecord.getFirmwareId(), upgradeRecord.getTaskId(), buildStatusDeltas(
+                upgradeRecord.getStatus(), IotOtaUpgradeRecordStatusEnum.PENDING.getStatus(), updateCount));
     }
 
     @Override
@@ -141,9 +195,13 @@ public class IotOtaUpgradeRecordServiceImpl implements IotOtaUpgradeRecordServic
     @Override
     public void cancelUpgradeRecordByTaskId(Long taskId) {
         // 暂定只有待推送的升级记录可以取消 TODO @芋艿：可以看看阿里云，哪些可以取消
-        upgradeRecordMapper.updateUpgradeRecordStatusByTaskIdAndStatus(
+        int updateCount = upgradeRecordMapper.updateUpgradeRecordStatusByTaskIdAndStatus(
                 IotOtaUpgradeRecordStatusEnum.CANCELED.getStatus(), taskId,
                 IotOtaUpgradeRecordStatusEnum.PENDING.getStatus());
+        IotOtaUpgradeTaskDO upgradeTask = upgradeTaskService.getUpgradeTask(taskId);
+        incrementStatusCount(upgradeTask.getFirmwareId(), taskId, buildStatusDeltas(
+                IotOtaUpgradeRecordStatusEnum.PENDING.getStatus(), IotOtaUpgradeRecordStatusEnum.CANCELED.getStatus(),
+                updateCount));
     }
 
     @Override
@@ -152,8 +210,96 @@ public class IotOtaUpgradeRecordServiceImpl implements IotOtaUpgradeRecordServic
     }
 
     @Override
-    public void updateUpgradeRecordStatus(List<Long> ids, Integer status) {
-        upgradeRecordMapper.updateUpgradeRecordStatus(ids, status);
+    public int updateUpgradeRecordStatus(Collection<IotOtaUpgradeRecordDO> upgradeRecords, Integer whereStatus,
+                                         IotOtaUpgradeRecordDO updateObj) {
+        if (CollUtil.isEmpty(upgradeRecords)) {
+            return 0;
+        }
+        int updateCount = upgradeRecordMapper.updateByIdsAndStatus(
+                convertList(upgradeRecords, IotOtaUpgradeRecordDO::getId), whereStatus, updateObj);
+        IotOtaUpgradeRecordDO upgradeRecord = CollUtil.getFirst(upgradeRecords);
+        incrementStatusCount(upgradeRecord.getFirmwareId(), upgradeRecord.getTaskId(),
+                buildStatusDeltas(whereStatus, updateObj.getStatus(), updateCount));
+        return updateCount;
+    }
+
+    @Override
+    public void updateUpgradeRecordProgress(IotDeviceOtaProgressReqDTO progressReqDTO) {
+        if (progressReqDTO.getFirmwareId() == null) {
+            log.warn("[updateUpgradeRecordProgress][升级进度({}) 缺少固件编号，忽略]", progressReqDTO);
+            return;
+        }
+        String key = progressReqDTO.getFirmwareId() + StrUtil.UNDERLINE + progressReqDTO.getProductKey()
+                + StrUtil.UNDERLINE + progressReqDTO.getDeviceName();
+        if (!progressWriter.offer(key, progressReqDTO)) {
+            // 写入器已关闭，直接更新
+            updateUpgradeRecordProgressBatch(Collections.singletonList(progressReqDTO));
+        }
+    }
+
+    /**
+     * 批量更新升级进度：每个固件一次查询，再逐条按照查询时的状态更新
+     *
+     * 查询后升级记录的状态可能已经变化（例如说，被重新升级），所以更新时校验状态，并只累加实际更新的升级记录的计数
+     *
+     * @param progresses 升级进度列表，每个设备最多一条
+     */
+    @VisibleForTesting
+    void updateUpgradeRecordProgressBatch(Collection<IotDeviceOtaProgressReqDTO> progresses) {
+        Map<Long, List<IotDeviceOtaProgressReqDTO>> progressMap = convertMultiMap(progresses,
+                IotDeviceOtaProgressReqDTO::getFirmwareId);
+        progressMap.forEach((firmwareId, firmwareProgresses) -> {
+            // 1. 查询推送中、升级中的升级记录
+            List<IotOtaUpgradeRecordDO> upgradeRecords = upgradeRecordMapper.selectListByFirmwareIdAndDeviceNamesAndStatus(
+                    firmwareId, convertSet(firmwareProgresses, IotDeviceOtaProgressReqDTO::getDeviceName),
+                    ACTIVE_STATUSES);
+            Map<String, IotOtaUpgradeRecordDO> upgradeRecordMap = convertMap(upgradeRecords,
+                    upgradeRecord -> upgradeRecord.getProductKey() + StrUtil.UNDERLINE + upgradeRecord.getDeviceName());
+
+            // 2. 逐条更新升级记录，并统计实际更新的状态变化
+            Map<Long, Map<Integer, Long>> taskDeltas = new HashMap<>();
+            LocalDateTime now = LocalDateTime.now();
+            for (IotDeviceOtaProgressReqDTO progress : firmwareProgresses) {
+                IotOtaUpgradeRecordDO upgradeRecord = upgradeRecordMap.get(
+                        progress.getProductKey() + StrUtil.UNDERLINE + progress.getDeviceName());
+                if (upgradeRecord == null) {
+                    log.warn("[updateUpgradeRecordProgressBatch][升级进度({}) 没有推送中、升级中的升级记录]", progress);
+                    continue;
+                }
+                Integer status = ObjectUtils.equalsAny(progress.getStatus(),
+                        IotOtaUpgradeRecordStatusEnum.SUCCESS.getStatus(), IotOtaUpgradeRecordStatusEnum.FAILURE.getStatus())
+                        ? progress.getStatus() : IotOtaUpgradeRecordStatusEnum.UPGRADING.getStatus();
+                IotOtaUpgradeRecordDO updateObj = new IotOtaUpgradeRecordDO()
+                        .setStatus(status).setProgress(progress.getProgress()).setDescription(progress.getDescription());
+                if (upgradeRecord.getStartTime() == null) {
+                    updateObj.setStartTime(now);
+                }
+                if (ObjUtil.notEqual(status, IotOtaUpgradeRecordStatusEnum.UPGRADING.getStatus())) {
+                    updateObj.setEndTime(now);
+                }
+                int updateCount = upgradeRecordMapper.updateByIdAndStatus(upgradeRecord.getId(),
+                        upgradeRecord.getStatus(), updateObj);
+                if (updateCount == 0) {
+                    log.warn("[updateUpgradeRecordProgressBatch][升级记录({}) 状态已经变化，忽略升级进度({})]",
+                            upgradeRecord.getId(), progress);
+                    continue;
+                }
+                buildStatusDeltas(upgradeRecord.getStatus(), status, updateCount).forEach((deltaStatus, delta) ->
+                        taskDeltas.computeIfAbsent(upgradeRecord.getTaskId(), taskId -> new HashMap<>())
+                                .merge(deltaStatus, delta, Long::sum));
+            }
+            if (taskDeltas.isEmpty()) {
+                return;
+            }
+
+            // 3. 累加计数
+            Map<Integer, Long> firmwareDeltas = new HashMap<>();
+            taskDeltas.forEach((taskId, deltas) -> {
+                upgradeRecordCountRedisDAO.increment(OtaUpgradeRecordCountRedisDAO.TYPE_TASK, taskId, deltas);
+                deltas.forEach((status, delta) -> firmwareDeltas.merge(status, delta, Long::sum));
+            });
+            upgradeRecordCountRedisDAO.increment(OtaUpgradeRecordCountRedisDAO.TYPE_FIRMWARE, firmwareId, firmwareDeltas);
+        });
     }
 
     @Override
@@ -161,6 +307,45 @@ public class IotOtaUpgradeRecordServiceImpl implements IotOtaUpgradeRecordServic
         return upgradeRecordMapper.selectUpgradeRecordListByTaskId(taskId);
     }
 
+    @Override
+    public List<IotOtaUpgradeRecordDO> getUpgradeRecordListByTaskIdAndStatus(Long taskId, Integer status, int limit) {
+        return upgradeRecordMapper.selectListByTaskIdAndStatus(taskId, status, limit);
+    }
+
+    /**
+     * 累加固件、升级任务的各状态数量；在事务中时，提交后再累加，避免回滚导致计数偏差
+     */
+    private void incrementStatusCount(Long firmwareId, Long taskId, Map<Integer, Long> deltas) {
+        Runnable runnable = () -> {
+            upgradeRecordCountRedisDAO.increment(OtaUpgradeRecordCountRedisDAO.TYPE_FIRMWARE, firmwareId, deltas);
+            upgradeRecordCountRedisDAO.increment(OtaUpgradeRecordCountRedisDAO.TYPE_TASK, taskId, deltas);
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+
+        });
+    }
+
+    private static Map<Integer, Long> buildStatusDeltas(Integer fromStatus, Integer toStatus, long count) {
+        Map<Integer, Long> deltas = new HashMap<>();
+        if (count == 0 || Objects.equals(fromStatus, toStatus)) {
+            return deltas;
+        }
+        if (fromStatus != null) {
+            deltas.put(fromStatus, -count);
+        }
+        deltas.put(toStatus, count);
+        return deltas;
+    }
+
     /**
      * 验证指定的升级记录是否存在。
      * <p>
@@ -179,29 +364,25 @@ public class IotOtaUpgradeRecordServiceImpl implements IotOtaUpgradeRecordServic
         return upgradeRecord;
     }
 
-    // TODO @li：注释有点冗余
     /**
-     * 校验固件升级记录是否重复。
-     * <p>
-     * 该函数用于检查给定的固件ID、任务ID和设备ID是否已经存在未取消的升级记录。
-     * 如果存在未取消的记录，则抛出异常，提示升级记录重复。
+     * 校验固件升级记录是否重复：批量查询，存在未取消的升级记录时，抛出异常
      *
-     * @param firmwareId 固件ID，用于标识特定的固件版本
-     * @param taskId     任务ID，用于标识特定的升级任务
-     * @param deviceId   设备ID，用于标识特定的设备
+     * @param firmwareId 固件编号
+     * @param taskId     任务编号
+     * @param deviceIds  设备编号数组
      */
-    private void validateUpgradeRecordDuplicate(Long firmwareId, Long taskId, String deviceId) {
-        // 根据条件查询升级记录
-        IotOtaUpgradeRecordDO upgradeRecord = upgradeRecordMapper.selectByConditions(firmwareId, taskId, deviceId);
-        // 如果查询到升级记录且状态不是已取消，则抛出异常
-        // TODO @li：if return，减少括号层级；
-        // TODO @li：ObjUtil.notEquals，尽量不用 ！取否逻辑；
-        if (upgradeRecord != null) {
-            if (!IotOtaUpgradeRecordStatusEnum.CANCELED.getStatus().equals(upgradeRecord.getStatus())) {
-                // TODO @li：提示的时候，需要把 deviceName 给提示出来，不然用户不知道哪个重复啦。
-                throw exception(OTA_UPGRADE_RECORD_DUPLICATE);
-            }
+    private void validateUpgradeRecordDuplicate(Long firmwareId, Long taskId, List<Long> deviceIds) {
+        if (CollUtil.isEmpty(deviceIds)) {
+            return;
+        }
+        List<IotOtaUpgradeRecordDO> upgradeRecords = upgradeRecordMapper.selectListByFirmwareIdAndTaskIdAndDeviceIds(
+                firmwareId, taskId, convertSet(deviceIds, String::valueOf));
+        IotOtaUpgradeRecordDO upgradeRecord = CollUtil.findOne(upgradeRecords, record ->
+                ObjUtil.notEqual(record.getStatus(), IotOtaUpgradeRecordStatusEnum.CANCELED.getStatus()));
+        if (upgradeRecord == null) {
+            return;
         }
+        throw exception(OTA_UPGRADE_RECORD_DUPLICATE, upgradeRecord.getDeviceName());
     }
 
     // TODO @li：注释有点冗余
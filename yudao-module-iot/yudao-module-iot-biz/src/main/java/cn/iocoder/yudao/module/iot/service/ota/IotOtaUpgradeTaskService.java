@@ -65,4 +65,14 @@ public interface IotOtaUpgradeTaskService {
      */
     void updateUpgradeTaskStatus(Long id, Integer status);
 
+    /**
+     * 推送升级任务的下一波设备，推送速率受 iot.ota-upgrade.push-rate 限制
+     *
+     * 没有待推送的设备时，如果所有设备都已经结束升级，则结束升级任务
+     *
+     * @param upgradeTask 升级任务
+     * @return 推送成功的设备数量
+     */
+    int pushUpgradeTask(IotOtaUpgradeTaskDO upgradeTask);
+
 }
@@ -2,29 +2,43 @@ package cn.iocoder.yudao.module.iot.service.ota;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.StrUtil;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.framework.common.util.object.BeanUtils;
+import cn.iocoder.yudao.framework.tenant.core.util.TenantUtils;
+import cn.iocoder.yudao.module.iot.api.device.dto.control.downstream.IotDeviceOtaUpgradeReqDTO;
+import cn.iocoder.yudao.module.iot.controller.admin.device.vo.control.IotDeviceDownstreamReqVO;
 import cn.iocoder.yudao.module.iot.controller.admin.ota.vo.upgrade.task.IotOtaUpgradeTaskPageReqVO;
 import cn.iocoder.yudao.module.iot.controller.admin.ota.vo.upgrade.task.IotOtaUpgradeTaskSaveReqVO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDeviceDO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.ota.IotOtaFirmwareDO;
+import cn.iocoder.yudao.module.iot.dal.dataobject.ota.IotOtaUpgradeRecordDO;
 import cn.iocoder.yudao.module.iot.dal.dataobject.ota.IotOtaUpgradeTaskDO;
 import cn.iocoder.yudao.module.iot.dal.mysql.ota.IotOtaUpgradeTaskMapper;
+import cn.iocoder.yudao.module.iot.enums.device.IotDeviceMessageIdentifierEnum;
+import cn.iocoder.yudao.module.iot.enums.device.IotDeviceMessageTypeEnum;
+import cn.iocoder.yudao.module.iot.enums.ota.IotOtaUpgradeRecordStatusEnum;
 import cn.iocoder.yudao.module.iot.enums.ota.IotOtaUpgradeTaskScopeEnum;
 import cn.iocoder.yudao.module.iot.enums.ota.IotOtaUpgradeTaskStatusEnum;
+import cn.iocoder.yudao.module.iot.framework.ota.config.IotOtaUpgradeProperties;
 import cn.iocoder.yudao.module.iot.service.device.IotDeviceService;
+import cn.iocoder.yudao.module.iot.service.device.control.IotDeviceDownstreamService;
+import com.google.common.util.concurrent.RateLimiter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
-import java.util.List;
-import java.util.Objects;
+import java.time.LocalDateTime;
+import java.util.*;
 import java.util.stream.Collectors;
 
 import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertMap;
 import static cn.iocoder.yudao.module.iot.enums.ErrorCodeConstants.*;
 
 // TODO @li：完善注释、注解顺序
@@ -45,6 +59,22 @@ public class IotOtaUpgradeTaskServiceImpl implements IotOtaUpgradeTaskService {
     @Resource
     @Lazy
     private IotOtaUpgradeRecordService upgradeRecordService;
+    @Resource
+    @Lazy
+    private IotDeviceDownstreamService deviceDownstreamService;
+
+    @Resource
+    private IotOtaUpgradeProperties otaUpgradeProperties;
+
+    /**
+     * 推送速率的限流器，所有升级任务共享
+     */
+    private RateLimiter pushRateLimiter;
+
+    @PostConstruct
+    public void initPushRateLimiter() {
+        pushRateLimiter = RateLimiter.create(otaUpgradeProperties.getPushRate());
+    }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -105,6 +135,85 @@ public class IotOtaUpgradeTaskServiceImpl implements IotOtaUpgradeTaskService {
         upgradeTaskMapper.updateById(IotOtaUpgradeTaskDO.builder().id(id).status(status).build());
     }
 
+    @Override
+    public int pushUpgradeTask(IotOtaUpgradeTaskDO upgradeTask) {
+        // 1. 获得下一波待推送的升级记录；没有时，判断升级任务是否结束
+        List<IotOtaUpgradeRecordDO> upgradeRecords = upgradeRecordService.getUpgradeRecordListByTaskIdAndStatus(
+                upgradeTask.getId(), IotOtaUpgradeRecordStatusEnum.PENDING.getStatus(), otaUpgradeProperties.getWaveSize());
+        if (CollUtil.isEmpty(upgradeRecords)) {
+            finishUpgradeTaskIfCompleted(upgradeTask);
+            return 0;
+        }
+
+        // 2. 逐个推送：升级记录不区分租户，所以按照设备所属的租户下发
+        IotOtaFirmwareDO firmware = firmwareService.getOtaFirmware(upgradeTask.getFirmwareId());
+        Map<?, ?> data = IotDeviceOtaUpgradeReqDTO.build(new IotDeviceOtaUpgradeReqDTO()
+                .setFirmwareId(firmware.getId()).setVersion(firmware.getVersion())
+                .setSignMethod(firmware.getSignMethod()).setFileSign(firmware.getFileSign())
+                .setFileSize(firmware.getFileSize()).setFileUrl(firmware.getFileUrl())
+                .setInformation(firmware.getInformation()));
+        Map<Long, IotDeviceDO> deviceMap = TenantUtils.executeIgnore(() -> convertMap(deviceService.getDeviceListByIdList(
+                convertList(upgradeRecords, upgradeRecord -> Convert.toLong(upgradeRecord.getDeviceId()))), IotDeviceDO::getId));
+        int pushedCount = 0;
+        List<IotOtaUpgradeRecordDO> notExistsRecords = new ArrayList<>();
+        for (IotOtaUpgradeRecordDO upgradeRecord : upgradeRecords) {
+            IotDeviceDO device = deviceMap.get(Convert.toLong(upgradeRecord.getDeviceId()));
+            if (device == null) {
+                notExistsRecords.add(upgradeRecord);
+                continue;
+            }
+            pushRateLimiter.acquire();
+            // 2.1 先标记为已推送，再推送：避免设备先上报升级进度时，升级记录仍为待推送而被忽略
+            int updateCount = upgradeRecordService.updateUpgradeRecordStatus(Collections.singletonList(upgradeRecord),
+                    IotOtaUpgradeRecordStatusEnum.PENDING.getStatus(), new IotOtaUpgradeRecordDO()
+                            .setStatus(IotOtaUpgradeRecordStatusEnum.PUSHED.getStatus()).setStartTime(LocalDateTime.now()));
+            if (updateCount == 0) { // 升级记录已经不是待推送（例如说，升级任务被取消），不再推送
+                continue;
+            }
+            // 2.2 推送；失败时，标记为升级失败
+            try {
+                TenantUtils.execute(device.getTenantId(), () -> deviceDownstreamService.downstreamDevice(
+                        new IotDeviceDownstreamReqVO().setId(device.getId())
+                                .setType(IotDeviceMessageTypeEnum.OTA.getType())
+                                .setIdentifier(IotDeviceMessageIdentifierEnum.OTA_UPGRADE.getIdentifier())
+                                .setData(data)));
+                pushedCount++;
+            } catch (Exception ex) {
+                log.error("[pushUpgradeTask][升级任务({}) 推送设备({}) 失败]", upgradeTask.getId(), device.getId(), ex);
+                upgradeRecordService.updateUpgradeRecordStatus(Collections.singletonList(upgradeRecord),
+                        IotOtaUpgradeRecordStatusEnum.PUSHED.getStatus(), new IotOtaUpgradeRecordDO()
+                                .setStatus(IotOtaUpgradeRecordStatusEnum.FAILURE.getStatus())
+                                .setDescription(StrUtil.blankToDefault(ex.getMessage(), ex.getClass().getSimpleName()))
+                                .setEndTime(LocalDateTime.now()));
+            }
+        }
+
+        // 3. 批量更新设备不存在的升级记录为升级失败
+        upgradeRecordService.updateUpgradeRecordStatus(notExistsRecords, IotOtaUpgradeRecordStatusEnum.PENDING.getStatus(),
+                new IotOtaUpgradeRecordDO().setStatus(IotOtaUpgradeRecordStatusEnum.FAILURE.getStatus())
+                        .setDescription(DEVICE_NOT_EXISTS.getMsg()).setEndTime(LocalDateTime.now()));
+        return pushedCount;
+    }
+
+    /**
+     * 所有设备都已经结束升级时，结束升级任务：全部成功为已完成，否则为未完成
+     *
+     * 使用数据库的精确数量判断，Redis 计数只用于统计展示
+     */
+    private void finishUpgradeTaskIfCompleted(IotOtaUpgradeTaskDO upgradeTask) {
+        Map<Integer, Long> counts = upgradeRecordService.getOtaUpgradeRecordCountByTaskId(upgradeTask.getId());
+        long upgradingCount = counts.get(IotOtaUpgradeRecordStatusEnum.PENDING.getStatus())
+                + counts.get(IotOtaUpgradeRecordStatusEnum.PUSHED.getStatus())
+                + counts.get(IotOtaUpgradeRecordStatusEnum.UPGRADING.getStatus());
+        if (upgradingCount > 0) {
+            return;
+        }
+        long successCount = counts.get(IotOtaUpgradeRecordStatusEnum.SUCCESS.getStatus());
+        long totalCount = counts.values().stream().mapToLong(Long::longValue).sum();
+        updateUpgradeTaskStatus(upgradeTask.getId(), successCount == totalCount
+                ? IotOtaUpgradeTaskStatusEnum.COMPLETED.getStatus() : IotOtaUpgradeTaskStatusEnum.INCOMPLETE.getStatus());
+    }
+
     // TODO @li：注释有点冗余
     /**
      * 校验固件升级任务是否重复
@@ -8,6 +8,7 @@ import cn.iocoder.yudao.module.iot.dal.dataobject.product.IotProductDO;
 import javax.annotation.Nullable;
 import javax.validation.Valid;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -55,6 +56,14 @@ public interface IotProductService {
      */
     IotProductDO getProductByProductKey(String productKey);
 
+    /**
+     * 根据产品 key 数组，获得产品列表
+     *
+     * @param productKeys 产品 key 数组
+     * @return 产品列表
+     */
+    List<IotProductDO> getProductListByProductKeys(Collection<String> productKeys);
+
     /**
      * 校验产品存在
      *
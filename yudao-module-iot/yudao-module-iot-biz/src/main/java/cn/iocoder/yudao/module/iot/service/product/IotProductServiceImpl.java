@@ -1,5 +1,6 @@
 package cn.iocoder.yudao.module.iot.service.product;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.framework.common.util.object.BeanUtils;
 import cn.iocoder.yudao.framework.tenant.core.util.TenantUtils;
@@ -16,6 +17,8 @@ import org.springframework.validation.annotation.Validated;
 
 import javax.annotation.Resource;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -138,6 +141,14 @@ public class IotProductServiceImpl implements IotProductService {
         return productMapper.selectList();
     }
 
+    @Override
+    public List<IotProductDO> getProductListByProductKeys(Collection<String> productKeys) {
+        if (CollUtil.isEmpty(productKeys)) {
+            return Collections.emptyList();
+        }
+        return productMapper.selectListByProductKeys(productKeys);
+    }
+
     @Override
     public Long getProductCount(LocalDateTime createTime) {
         return productMapper.selectCountByCreateTime(createTime);
@@ -7,12 +7,11 @@ import cn.iocoder.yudao.module.iot.dal.dataobject.rule.IotRuleSceneDO;
 import cn.iocoder.yudao.module.iot.enums.rule.IotRuleSceneActionTypeEnum;
 import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
 import cn.iocoder.yudao.module.iot.service.rule.IotDataBridgeService;
-import cn.iocoder.yudao.module.iot.service.rule.action.databridge.IotDataBridgeExecute;
+import cn.iocoder.yudao.module.iot.service.rule.action.databridge.IotDataBridgeDispatcher;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
-import java.util.List;
 
 /**
  * IoT 数据桥梁的 {@link IotRuleSceneAction} 实现类
@@ -26,7 +25,7 @@ public class IotRuleSceneDataBridgeAction implements IotRuleSceneAction {
     @Resource
     private IotDataBridgeService dataBridgeService;
     @Resource
-    private List<IotDataBridgeExecute<?>> dataBridgeExecutes;
+    private IotDataBridgeDispatcher dataBridgeDispatcher;
 
     @Override
     public void execute(IotDeviceMessage message, IotRuleSceneDO.ActionConfig config) throws Exception {
@@ -46,10 +45,8 @@ public class IotRuleSceneDataBridgeAction implements IotRuleSceneAction {
             return;
         }
 
-        // 2. 执行数据桥接操作
-        for (IotDataBridgeExecute<?> execute : dataBridgeExecutes) {
-            execute.execute(message, dataBridge);
-        }
+        // 2. 执行数据桥接操作：默认放入数据桥梁的缓冲队列后返回，由数据桥梁的后台线程批量发送
+        dataBridgeDispatcher.dispatch(message, dataBridge);
     }
 
     @Override
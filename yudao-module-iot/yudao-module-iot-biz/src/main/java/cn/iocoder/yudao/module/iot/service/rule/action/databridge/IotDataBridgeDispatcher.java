@@ -0,0 +1,238 @@
+package cn.iocoder.yudao.module.iot.service.rule.action.databridge;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.BooleanUtil;
+import cn.iocoder.yudao.framework.common.core.BufferedBatchWriter;
+import cn.iocoder.yudao.module.iot.controller.admin.rule.vo.databridge.config.IotDataBridgeAbstractConfig;
+import cn.iocoder.yudao.module.iot.dal.dataobject.rule.IotDataBridgeDO;
+import cn.iocoder.yudao.module.iot.framework.databridge.config.IotDataBridgeProperties;
+import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertMap;
+
+/**
+ * IoT 数据桥梁的消息分发器
+ *
+ * 每个数据桥梁对应一个 {@link BufferedBatchWriter}：规则场景的执行线程只负责放入有界队列，由数据桥梁自己的后台线程攒批后，
+ * 调用 {@link IotDataBridgeExecute#execute0(List, Object)} 发送。因此：
+ * 1. 隔离：某个数据桥梁（例如说 webhook）缓慢或不可用，只会积压、丢弃它自己的消息，不会拖慢规则场景的执行
+ * 2. 限流：每个数据桥梁最多积压 capacity 条消息，同时最多 1 批消息在发送中
+ * 3. 批量：HTTP 合并成一个 JSON 数组请求，MQ 使用生产者的批量发送
+ *
+ * @author 芋道源码
+ */
+@Component
+@Slf4j
+public class IotDataBridgeDispatcher {
+
+    /**
+     * 发送器的过期时长：超过该时长没有消息的数据桥梁，关闭其后台线程；与 {@link AbstractCacheableDataBridgeExecute} 的 Producer 缓存一致
+     */
+    private static final Duration SENDER_EXPIRE_AFTER_ACCESS = Duration.ofMinutes(30L);
+
+    @Resource
+    private IotDataBridgeProperties dataBridgeProperties;
+    @Resource
+    private List<IotDataBridgeExecute<?>> dataBridgeExecutes;
+    @Autowired(required = false) // 未引入 Micrometer 监控时，不强制注入
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 数据桥梁执行器的映射
+     *
+     * KEY：数据桥梁类型
+     */
+    private Map<Integer, IotDataBridgeExecute<?>> dataBridgeExecuteMap;
+
+    /**
+     * 关闭发送器的线程池
+     */
+    private final ExecutorService closeExecutor = Executors.newCachedThreadPool(
+            new NamedThreadFactory("iot-data-bridge-close-", true));
+    /**
+     * 发送器的缓存
+     *
+     * KEY：数据桥梁编号
+     */
+    private final Cache<Long, Sender> senderCache = CacheBuilder.newBuilder()
+            .expireAfterAccess(SENDER_EXPIRE_AFTER_ACCESS)
+            .removalListener((RemovalListener<Long, Sender>) notification -> {
+                if (notification.getValue() != null) {
+                    notification.getValue().close();
+                }
+            })
+            .build();
+
+    @PostConstruct
+    public void init() {
+        dataBridgeExecuteMap = convertMap(dataBridgeExecutes, IotDataBridgeExecute::getType);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // 关闭所有发送器，等待剩余消息发送
+        senderCache.invalidateAll();
+        closeExecutor.shutdown();
+        try {
+            closeExecutor.awaitTermination(dataBridgeProperties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 分发消息到数据桥梁
+     *
+     * @param message 设备消息
+     * @param dataBridge 数据桥梁
+     */
+    public void dispatch(IotDeviceMessage message, IotDataBridgeDO dataBridge) {
+        Sender sender = getSender(dataBridge);
+        if (sender == null) {
+            log.error("[dispatch][message({}) 数据桥梁({}) 的类型({}) 不支持]", message, dataBridge.getId(), dataBridge.getType());
+            return;
+        }
+        // 情况一：同步发送
+        if (sender.writer == null) {
+            sender.send(Collections.singletonList(message));
+            return;
+        }
+        // 情况二：异步发送，放入数据桥梁的缓冲队列
+        if (!sender.writer.offer(message)) {
+            log.warn("[dispatch][message({}) 数据桥梁({}) 的缓冲队列已满，丢弃消息]", message.getRequestId(), dataBridge.getId());
+        }
+    }
+
+    private Sender getSender(IotDataBridgeDO dataBridge) {
+        Sender sender = senderCache.getIfPresent(dataBridge.getId());
+        if (sender != null && Objects.equals(sender.config, dataBridge.getConfig())) {
+            return sender;
+        }
+        IotDataBridgeExecute<?> execute = dataBridgeExecuteMap.get(dataBridge.getType());
+        if (execute == null) {
+            return null;
+        }
+        synchronized (this) {
+            // 再次检查，避免并发创建
+            sender = senderCache.getIfPresent(dataBridge.getId());
+            if (sender != null && Objects.equals(sender.config, dataBridge.getConfig())) {
+                return sender;
+            }
+            // 配置变更时，先移除旧的发送器，再创建新的发送器，避免监控指标冲突
+            if (sender != null) {
+                senderCache.invalidate(dataBridge.getId());
+            }
+            sender = new Sender(dataBridge, execute);
+            senderCache.put(dataBridge.getId(), sender);
+            return sender;
+        }
+    }
+
+    /**
+     * 数据桥梁的发送器
+     */
+    private class Sender {
+
+        private final Long dataBridgeId;
+        private final IotDataBridgeAbstractConfig config;
+        private final IotDataBridgeExecute<Object> execute;
+        /**
+         * 缓冲 + 批量写入器，为空时表示同步发送
+         */
+        private final BufferedBatchWriter<IotDeviceMessage> writer;
+
+        private final AtomicLong sentCount = new AtomicLong();
+        private final AtomicLong failedCount = new AtomicLong();
+        /**
+         * 发送耗时，为空时不统计
+         */
+        private Timer timer;
+        private final List<Meter> meters = new ArrayList<>();
+
+        @SuppressWarnings("unchecked")
+        private Sender(IotDataBridgeDO dataBridge, IotDataBridgeExecute<?> execute) {
+            this.dataBridgeId = dataBridge.getId();
+            this.config = dataBridge.getConfig();
+            this.execute = (IotDataBridgeExecute<Object>) execute;
+            this.writer = BooleanUtil.isFalse(dataBridgeProperties.getAsync()) ? null
+                    : new BufferedBatchWriter<>("iot-data-bridge-" + dataBridgeId, dataBridgeProperties.getCapacity(),
+                    dataBridgeProperties.getBatchSize(), dataBridgeProperties.getFlushInterval(),
+                    dataBridgeProperties.getOverflowPolicy(), dataBridgeProperties.getSampleRate(),
+                    dataBridgeProperties.getBlockTimeout(), this::send);
+            if (meterRegistry != null) {
+                bindTo(dataBridge, meterRegistry);
+            }
+        }
+
+        /**
+         * 注册监控指标，指标名为 iot.data-bridge.*，通过 bridge、type 标签区分不同的数据桥梁
+         */
+        private void bindTo(IotDataBridgeDO dataBridge, MeterRegistry registry) {
+            Tags tags = Tags.of("bridge", String.valueOf(dataBridgeId), "type", String.valueOf(dataBridge.getType()));
+            if (writer != null) {
+                meters.add(Gauge.builder("iot.data-bridge.queued", writer, BufferedBatchWriter::getQueueSize)
+                        .tags(tags).description("待发送的消息数量").register(registry));
+                meters.add(FunctionCounter.builder("iot.data-bridge.dropped", writer, BufferedBatchWriter::getDroppedCount)
+                        .tags(tags).description("队列满被丢弃的消息数量").register(registry));
+            }
+            meters.add(FunctionCounter.builder("iot.data-bridge.sent", sentCount, AtomicLong::get)
+                    .tags(tags).description("发送成功的消息数量").register(registry));
+            meters.add(FunctionCounter.builder("iot.data-bridge.failed", failedCount, AtomicLong::get)
+                    .tags(tags).description("发送失败的消息数量").register(registry));
+            timer = Timer.builder("iot.data-bridge.send")
+                    .tags(tags).description("每批消息的发送耗时").register(registry);
+            meters.add(timer);
+        }
+
+        private void send(List<IotDeviceMessage> messages) {
+            long startTime = System.nanoTime();
+            try {
+                int failed = execute.execute0(messages, config);
+                sentCount.addAndGet(messages.size() - failed);
+                failedCount.addAndGet(failed);
+                if (failed > 0) {
+                    log.warn("[send][数据桥梁({}) 发送 {} 条消息，其中 {} 条失败]", dataBridgeId, messages.size(), failed);
+                }
+            } catch (Exception ex) {
+                failedCount.addAndGet(messages.size());
+                log.error("[send][数据桥梁({}) 发送 {} 条消息异常]", dataBridgeId, messages.size(), ex);
+            } finally {
+                if (timer != null) {
+                    timer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        /**
+         * 关闭：同步移除监控指标；异步等待剩余消息按照旧的配置发送完，避免阻塞规则场景的执行线程
+         */
+        private void close() {
+            if (meterRegistry != null) {
+                meters.forEach(meterRegistry::remove);
+            }
+            if (writer != null) {
+                closeExecutor.execute(() -> writer.shutdown(dataBridgeProperties.getShutdownTimeout()));
+            }
+        }
+
+    }
+
+}
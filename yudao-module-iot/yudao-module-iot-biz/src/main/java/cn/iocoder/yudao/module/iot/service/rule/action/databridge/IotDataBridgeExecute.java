@@ -3,6 +3,7 @@ package cn.iocoder.yudao.module.iot.service.rule.action.databridge;
 import cn.iocoder.yudao.module.iot.dal.dataobject.rule.IotDataBridgeDO;
 import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
 
+import java.util.List;
 
 /**
  * IoT 数据桥梁的执行器 execute 接口
@@ -43,4 +44,26 @@ public interface IotDataBridgeExecute<Config> {
      */
     void execute0(IotDeviceMessage message, Config config) throws Exception;
 
+    /**
+     * 【真正】批量执行数据桥梁操作
+     *
+     * 默认逐条调用 {@link #execute0(IotDeviceMessage, Object)}，单条失败时继续发送后续的消息；目标支持批量发送时，子类可重写
+     *
+     * @param messages 设备消息列表
+     * @param config   桥梁配置
+     * @return 发送失败的消息数量
+     * @throws Exception 整批发送失败时，抛出异常，此时整批计为失败
+     */
+    default int execute0(List<IotDeviceMessage> messages, Config config) throws Exception {
+        int failedCount = 0;
+        for (IotDeviceMessage message : messages) {
+            try {
+                execute0(message, config);
+            } catch (Exception ex) {
+                failedCount++;
+            }
+        }
+        return failedCount;
+    }
+
 }
@@ -1,19 +1,29 @@
 package cn.iocoder.yudao.module.iot.service.rule.action.databridge;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.BooleanUtil;
 import cn.iocoder.yudao.framework.common.util.http.HttpUtils;
 import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
 import cn.iocoder.yudao.module.iot.controller.admin.rule.vo.databridge.config.IotDataBridgeHttpConfig;
 import cn.iocoder.yudao.module.iot.enums.rule.IotDataBridgeTypeEnum;
+import cn.iocoder.yudao.module.iot.framework.databridge.config.IotDataBridgeProperties;
 import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.http.*;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static cn.iocoder.yudao.framework.web.core.util.WebFrameworkUtils.HEADER_TENANT_ID;
@@ -28,16 +38,66 @@ import static cn.iocoder.yudao.framework.web.core.util.WebFrameworkUtils.HEADER_
 public class IotHttpDataBridgeExecute implements IotDataBridgeExecute<IotDataBridgeHttpConfig> {
 
     @Resource
+    private IotDataBridgeProperties dataBridgeProperties;
+
+    /**
+     * 数据桥梁专用的 HTTP 客户端，基于连接池复用连接，并设置超时时间，避免缓慢的目标长时间占用发送线程
+     */
+    private CloseableHttpClient httpClient;
     private RestTemplate restTemplate;
 
+    @PostConstruct
+    public void initRestTemplate() {
+        IotDataBridgeProperties.Http http = dataBridgeProperties.getHttp();
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(http.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(http.getMaxConnectionsPerRoute());
+        httpClient = HttpClients.custom().setConnectionManager(connectionManager).build();
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setConnectTimeout((int) http.getConnectTimeout().toMillis());
+        requestFactory.setReadTimeout((int) http.getReadTimeout().toMillis());
+        restTemplate = new RestTemplate(requestFactory);
+    }
+
+    @PreDestroy
+    public void destroyRestTemplate() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+    }
+
     @Override
     public Integer getType() {
         return IotDataBridgeTypeEnum.HTTP.getType();
     }
 
     @Override
+    public void execute0(IotDeviceMessage message, IotDataBridgeHttpConfig config) throws Exception {
+        execute0(message, null, config);
+    }
+
+    @Override
+    public int execute0(List<IotDeviceMessage> messages, IotDataBridgeHttpConfig config) throws Exception {
+        // 开启批量推送、并且非 GET 请求时，合并成一个请求，请求体总是 messages 数组；同一批消息属于同一个租户（数据桥梁按租户隔离）
+        if (BooleanUtil.isTrue(config.getBatch()) && !HttpMethod.GET.matches(config.getMethod().toUpperCase())) {
+            execute0(messages.get(0), messages, config);
+            return 0;
+        }
+        // 未开启批量推送（包括未配置 batch 的旧配置）、或者 GET 请求时，逐条发送
+        return IotDataBridgeExecute.super.execute0(messages, config);
+    }
+
+    /**
+     * 发送请求
+     *
+     * @param message  设备消息，用于构建租户等 Header
+     * @param messages 批量推送的设备消息列表；为空时，只推送 message
+     * @param config   桥梁配置
+     * @throws Exception 请求失败时，抛出异常，计入数据桥梁的失败监控
+     */
     @SuppressWarnings({"unchecked", "deprecation"})
-    public void execute0(IotDeviceMessage message, IotDataBridgeHttpConfig config) {
+    private void execute0(IotDeviceMessage message, List<IotDeviceMessage> messages,
+                          IotDataBridgeHttpConfig config) throws Exception {
         String url = null;
         HttpMethod method = HttpMethod.valueOf(config.getMethod().toUpperCase());
         HttpEntity<String> requestEntity = null;
@@ -46,7 +106,7 @@ public class IotHttpDataBridgeExecute implements IotDataBridgeExecute<IotDataBri
             // 1.1 构建 Header
             HttpHeaders headers = new HttpHeaders();
             if (CollUtil.isNotEmpty(config.getHeaders())) {
-                config.getHeaders().putAll(config.getHeaders());
+                headers.setAll(config.getHeaders());
             }
             headers.add(HEADER_TENANT_ID, message.getTenantId().toString());
             // 1.2 构建 URL
@@ -65,25 +125,28 @@ public class IotHttpDataBridgeExecute implements IotDataBridgeExecute<IotDataBri
                 if (requestBody == null) {
                     requestBody = new HashMap<>();
                 }
-                requestBody.put("message", message);
+                if (messages != null) {
+                    requestBody.put("messages", messages);
+                } else {
+                    requestBody.put("message", message);
+                }
                 headers.add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_UTF8_VALUE);
                 requestEntity = new HttpEntity<>(JsonUtils.toJsonString(requestBody), headers);
             }
 
             // 2.1 发送请求
             responseEntity = restTemplate.exchange(url, method, requestEntity, String.class);
-            // 2.2 记录日志
-            if (responseEntity.getStatusCode().is2xxSuccessful()) {
-                log.info("[executeHttp][message({}) config({}) url({}) method({}) requestEntity({}) 请求成功({})]",
-                        message, config, url, method, requestEntity, responseEntity);
-            } else {
-                log.error("[executeHttp][message({}) config({}) url({}) method({}) requestEntity({}) 请求失败({})]",
-                        message, config, url, method, requestEntity, responseEntity);
+            // 2.2 记录日志；请求失败时，抛出异常，在下面统一记录
+            if (!responseEntity.getStatusCode().is2xxSuccessful()) {
+                throw new IllegalStateException("请求失败，状态码：" + responseEntity.getStatusCode());
             }
+            log.debug("[executeHttp][message({}) config({}) url({}) method({}) requestEntity({}) 请求成功({})]",
+                    message, config, url, method, requestEntity, responseEntity);
         } catch (Exception e) {
             log.error("[executeHttp][message({}) config({}) url({}) method({}) requestEntity({}) 请求异常({})]",
                     message, config, url, method, requestEntity, responseEntity, e);
+            throw e;
         }
     }
 
-}
\ No newline at end of file
+}
@@ -12,8 +12,11 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -28,6 +31,7 @@ public class IotKafkaMQDataBridgeExecute extends
         AbstractCacheableDataBridgeExecute<IotDataBridgeKafkaMQConfig, KafkaTemplate<String, String>> {
 
     private static final Duration SEND_TIMEOUT = Duration.ofMillis(10000); // 10 秒超时时间
+    private static final Duration LINGER = Duration.ofMillis(5); // 生产者攒批的等待时间
 
     @Override
     public Integer getType() {
@@ -45,6 +49,23 @@ public class IotKafkaMQDataBridgeExecute extends
         log.info("[execute0][message({}) 发送成功]", message);
     }
 
+    @Override
+    public int execute0(List<IotDeviceMessage> messages, IotDataBridgeKafkaMQConfig config) throws Exception {
+        // 1. 获取或创建 KafkaTemplate
+        KafkaTemplate<String, String> kafkaTemplate = getProducer(config);
+
+        // 2. 先全部发送，由生产者合并成批；再统一等待结果
+        List<Future<?>> futures = new ArrayList<>(messages.size());
+        for (IotDeviceMessage message : messages) {
+            futures.add(kafkaTemplate.send(config.getTopic(), message.toString()));
+        }
+        for (Future<?> future : futures) {
+            future.get(SEND_TIMEOUT.getSeconds(), TimeUnit.SECONDS);
+        }
+        log.debug("[execute0][{} 条消息发送成功]", messages.size());
+        return 0;
+    }
+
     @Override
     protected KafkaTemplate<String, String> initProducer(IotDataBridgeKafkaMQConfig config) {
         // 1.1 构建生产者配置
@@ -52,6 +73,7 @@ public class IotKafkaMQDataBridgeExecute extends
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, config.getBootstrapServers());
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, (int) LINGER.toMillis());
         // 1.2 如果配置了认证信息
         if (config.getUsername() != null && config.getPassword() != null) {
             props.put("security.protocol", "SASL_PLAINTEXT");
@@ -11,6 +11,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 /**
  * RabbitMQ 的 {@link IotDataBridgeExecute} 实现类
@@ -45,6 +46,25 @@ public class IotRabbitMQDataBridgeExecute extends
         log.info("[executeRabbitMQ][message({}) config({}) 发送成功]", message, config);
     }
 
+    @Override
+    public int execute0(List<IotDeviceMessage> messages, IotDataBridgeRabbitMQConfig config) throws Exception {
+        // 1. 获取或创建 Channel
+        Channel channel = getProducer(config);
+
+        // 2. 同一批消息只声明一次；Channel 非线程安全，相同配置的数据桥梁共享时需要串行发送
+        synchronized (channel) {
+            channel.exchangeDeclare(config.getExchange(), "direct", true);
+            channel.queueDeclare(config.getQueue(), true, false, false, null);
+            channel.queueBind(config.getQueue(), config.getExchange(), config.getRoutingKey());
+            for (IotDeviceMessage message : messages) {
+                channel.basicPublish(config.getExchange(), config.getRoutingKey(), null,
+                        message.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        log.debug("[executeRabbitMQ][{} 条消息 config({}) 发送成功]", messages.size(), config);
+        return 0;
+    }
+
     @Override
     @SuppressWarnings("resource")
     protected Channel initProducer(IotDataBridgeRabbitMQConfig config) throws Exception {
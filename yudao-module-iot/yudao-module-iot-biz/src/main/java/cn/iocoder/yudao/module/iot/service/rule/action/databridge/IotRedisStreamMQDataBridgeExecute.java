@@ -16,10 +16,14 @@ import org.redisson.spring.data.connection.RedissonConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.stream.ObjectRecord;
 import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Redis Stream MQ 的 {@link IotDataBridgeExecute} 实现类
  *
@@ -47,6 +51,28 @@ public class IotRedisStreamMQDataBridgeExecute extends
         log.info("[executeRedisStream][消息发送成功] messageId: {}, config: {}", recordId, config);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public int execute0(List<IotDeviceMessage> messages, IotDataBridgeRedisStreamMQConfig config) throws Exception {
+        // 1. 获取 RedisTemplate
+        RedisTemplate<String, Object> redisTemplate = getProducer(config);
+
+        // 2. 通过 pipeline 一次网络往返，批量发送 Stream 记录
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> streamOperations = (RedisOperations<String, Object>) operations;
+                messages.forEach(message -> streamOperations.opsForStream().add(
+                        StreamRecords.newRecord().ofObject(message).withStreamKey(config.getTopic())));
+                return null;
+            }
+
+        });
+        log.debug("[executeRedisStream][{} 条消息发送成功] config: {}", messages.size(), config);
+        return 0;
+    }
+
     @Override
     protected RedisTemplate<String, Object> initProducer(IotDataBridgeRedisStreamMQConfig config) {
         // 1.1 创建 Redisson 配置
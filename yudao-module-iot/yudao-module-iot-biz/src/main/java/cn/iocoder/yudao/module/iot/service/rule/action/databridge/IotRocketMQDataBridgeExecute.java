@@ -12,6 +12,9 @@ import org.apache.rocketmq.remoting.common.RemotingHelper;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * RocketMQ 的 {@link IotDataBridgeExecute} 实现类
  *
@@ -49,6 +52,26 @@ public class IotRocketMQDataBridgeExecute extends
         }
     }
 
+    @Override
+    public int execute0(List<IotDeviceMessage> messages, IotDataBridgeRocketMQConfig config) throws Exception {
+        // 1. 获取或创建 Producer
+        DefaultMQProducer producer = getProducer(config);
+
+        // 2.1 创建消息对象：同一批消息的 Topic 相同，可以批量发送
+        List<Message> msgs = new ArrayList<>(messages.size());
+        for (IotDeviceMessage message : messages) {
+            msgs.add(new Message(config.getTopic(), config.getTags(),
+                    message.toString().getBytes(RemotingHelper.DEFAULT_CHARSET)));
+        }
+        // 2.2 批量发送同步消息并处理结果
+        SendResult sendResult = producer.send(msgs);
+        if (!SendStatus.SEND_OK.equals(sendResult.getSendStatus())) {
+            throw new IllegalStateException("批量发送失败，结果：" + sendResult);
+        }
+        log.debug("[executeRocketMQ][{} 条消息 config({}) 发送成功，结果({})]", messages.size(), config, sendResult);
+        return 0;
+    }
+
     @Override
     protected DefaultMQProducer initProducer(IotDataBridgeRocketMQConfig config) throws Exception {
         DefaultMQProducer producer = new DefaultMQProducer(config.getGroup());
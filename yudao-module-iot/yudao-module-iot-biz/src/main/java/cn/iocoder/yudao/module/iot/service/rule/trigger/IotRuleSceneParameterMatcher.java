@@ -0,0 +1,196 @@
+package cn.iocoder.yudao.module.iot.service.rule.trigger;
+
+import cn.hutool.core.text.CharPool;
+import cn.hutool.core.util.NumberUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.module.iot.dal.dataobject.rule.IotRuleSceneDO;
+import cn.iocoder.yudao.module.iot.enums.rule.IotRuleSceneTriggerConditionParameterOperatorEnum;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的 IoT 场景触发条件参数 {@link IotRuleSceneDO.TriggerConditionParameter}
+ *
+ * 在规则加载时，一次性解析操作符、拆分比较值、预解析数字，匹配消息时只做类型判断与比较，不再构建 Spring 表达式。
+ * 比较语义与 {@link IotRuleSceneTriggerConditionParameterOperatorEnum#getSpringExpression()} 保持一致：
+ * 1. 大小比较（>、>=、<、<=、between、not between）：两边都是数字时，按照数字比较；否则，按照字符串字典序比较
+ * 2. 等值比较（=、!=、in、not in）：按照字符串比较；特殊：消息值是数字、比较值也是数字时，按照数字比较，避免 1.0 与 1 不相等
+ * 3. 字符串比较（like、not null）：按照字符串比较
+ *
+ * @author 芋道源码
+ */
+public class IotRuleSceneParameterMatcher {
+
+    /**
+     * 参数标识符
+     */
+    @Getter
+    private final String identifier;
+    /**
+     * 操作符
+     */
+    @Getter
+    private final IotRuleSceneTriggerConditionParameterOperatorEnum operator;
+
+    /**
+     * 比较值
+     */
+    private final String value;
+    /**
+     * 比较值数组，按照 "," 分隔
+     */
+    private final String[] values;
+    /**
+     * 比较值的数字；非数字时为 NaN
+     */
+    private final double numberValue;
+    /**
+     * 比较值数组的数字；存在非数字时为 null
+     */
+    private final double[] numberValues;
+
+    private IotRuleSceneParameterMatcher(String identifier, IotRuleSceneTriggerConditionParameterOperatorEnum operator,
+                                         String value) {
+        this.identifier = identifier;
+        this.operator = operator;
+        this.value = StrUtil.nullToEmpty(value);
+        List<String> valueList = StrUtil.splitTrim(this.value, CharPool.COMMA);
+        this.values = valueList.toArray(new String[0]);
+        this.numberValue = parseDouble(this.value);
+        double[] numbers = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            numbers[i] = parseDouble(values[i]);
+            if (Double.isNaN(numbers[i])) {
+                numbers = null;
+                break;
+            }
+        }
+        this.numberValues = numbers;
+    }
+
+    /**
+     * 编译触发条件参数
+     *
+     * @param parameter 触发条件参数
+     * @return 编译后的参数；操作符不合法、或者比较值不合法时，抛出 {@link IllegalArgumentException} 异常
+     */
+    public static IotRuleSceneParameterMatcher compile(IotRuleSceneDO.TriggerConditionParameter parameter) {
+        IotRuleSceneTriggerConditionParameterOperatorEnum operator =
+                IotRuleSceneTriggerConditionParameterOperatorEnum.operatorOf(parameter.getOperator());
+        if (operator == null) {
+            throw new IllegalArgumentException(String.format("操作符(%s) 不合法", parameter.getOperator()));
+        }
+        IotRuleSceneParameterMatcher matcher = new IotRuleSceneParameterMatcher(
+                parameter.getIdentifier(), operator, parameter.getValue());
+        if ((operator == IotRuleSceneTriggerConditionParameterOperatorEnum.BETWEEN
+                || operator == IotRuleSceneTriggerConditionParameterOperatorEnum.NOT_BETWEEN)
+                && matcher.values.length < 2) {
+            throw new IllegalArgumentException(String.format("操作符(%s) 的比较值(%s) 需要两个值",
+                    parameter.getOperator(), parameter.getValue()));
+        }
+        return matcher;
+    }
+
+    /**
+     * 判断消息数据是否匹配
+     *
+     * @param data 消息数据
+     * @return 是否匹配
+     */
+    public boolean matches(Map<?, ?> data) {
+        Object source = data.get(identifier);
+        if (source == null) {
+            return false;
+        }
+        switch (operator) {
+            case EQUALS:
+                return isEqual(source);
+            case NOT_EQUALS:
+                return !isEqual(source);
+            case GREATER_THAN:
+                return compare(source, 0) > 0;
+            case GREATER_THAN_OR_EQUALS:
+                return compare(source, 0) >= 0;
+            case LESS_THAN:
+                return compare(source, 0) < 0;
+            case LESS_THAN_OR_EQUALS:
+                return compare(source, 0) <= 0;
+            case IN:
+                return isIn(source);
+            case NOT_IN:
+                return !isIn(source);
+            case BETWEEN:
+                return compare(source, 1) >= 0 && compare(source, 2) <= 0;
+            case NOT_BETWEEN:
+                return compare(source, 1) < 0 || compare(source, 2) > 0;
+            case LIKE:
+                return toString(source).contains(value);
+            case NOT_NULL:
+                return source instanceof String ? !((String) source).isEmpty() : toString(source).length() > 0;
+            default:
+                return false;
+        }
+    }
+
+    private boolean isEqual(Object source) {
+        if (source instanceof Number && !Double.isNaN(numberValue)) {
+            return ((Number) source).doubleValue() == numberValue;
+        }
+        return toString(source).equals(value);
+    }
+
+    private boolean isIn(Object source) {
+        if (source instanceof Number && numberValues != null) {
+            double number = ((Number) source).doubleValue();
+            for (double numberValue : numberValues) {
+                if (number == numberValue) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        String str = toString(source);
+        for (String value : values) {
+            if (value.equals(str)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 比较消息值与比较值
+     *
+     * @param source 消息值
+     * @param index 0 表示 {@link #value}；1、2 分别表示 {@link #values} 的第 1、2 个值
+     * @return 比较结果
+     */
+    private int compare(Object source, int index) {
+        double target = index == 0 ? numberValue : (numberValues != null ? numberValues[index - 1] : Double.NaN);
+        if (!Double.isNaN(target)) {
+            double number = source instanceof Number ? ((Number) source).doubleValue() : parseDouble(toString(source));
+            if (!Double.isNaN(number)) {
+                return Double.compare(number, target);
+            }
+        }
+        return toString(source).compareTo(index == 0 ? value : values[index - 1]);
+    }
+
+    private static String toString(Object source) {
+        return source instanceof String ? (String) source : String.valueOf(source);
+    }
+
+    private static double parseDouble(String str) {
+        if (!NumberUtil.isNumber(str)) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(str);
+        } catch (NumberFormatException ex) { // 例如说，16 进制等 Double 不支持的格式
+            return NumberUtil.parseDouble(str);
+        }
+    }
+
+}
@@ -0,0 +1,284 @@
+package cn.iocoder.yudao.module.iot.service.rule.trigger;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.ObjUtil;
+import cn.iocoder.yudao.framework.common.enums.CommonStatusEnum;
+import cn.iocoder.yudao.module.iot.dal.dataobject.rule.IotRuleSceneDO;
+import cn.iocoder.yudao.module.iot.enums.rule.IotRuleSceneTriggerTypeEnum;
+import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+
+/**
+ * IoT 规则场景的触发器索引
+ *
+ * 将开启的规则场景中 {@link IotRuleSceneTriggerTypeEnum#DEVICE} 类型的触发器，编译后按照
+ * productKey -> deviceName -> 消息类型 -> 消息标识符 建立索引，匹配消息时只需要几次 Map 查找，再逐个比较编译后的参数。
+ *
+ * 该类不可变，变更时通过 {@link #rebuild(Collection, Collection)} 生成新的索引：只重新编译受影响的产品，其它产品复用原有的索引
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class IotRuleSceneTriggerIndex {
+
+    public static final IotRuleSceneTriggerIndex EMPTY = new IotRuleSceneTriggerIndex(Collections.emptyMap());
+
+    /**
+     * 产品索引
+     *
+     * key：产品标识
+     */
+    private final Map<String, ProductIndex> products;
+
+    private IotRuleSceneTriggerIndex(Map<String, ProductIndex> products) {
+        this.products = products;
+    }
+
+    /**
+     * 构建索引
+     *
+     * @param ruleScenes 规则场景列表
+     * @return 索引
+     */
+    public static IotRuleSceneTriggerIndex build(Collection<IotRuleSceneDO> ruleScenes) {
+        return EMPTY.rebuild(ruleScenes, null);
+    }
+
+    /**
+     * 基于当前索引，重新构建指定产品的索引
+     *
+     * @param ruleScenes 全量的规则场景列表
+     * @param productKeys 需要重新构建的产品标识；为 null 时，重新构建全部
+     * @return 新的索引
+     */
+    public IotRuleSceneTriggerIndex rebuild(Collection<IotRuleSceneDO> ruleScenes, Collection<String> productKeys) {
+        // 1. 复用未变更的产品索引
+        Map<String, ProductIndex> newProducts = new HashMap<>();
+        if (productKeys != null) {
+            newProducts.putAll(products);
+            productKeys.forEach(newProducts::remove);
+        }
+
+        // 2. 编译需要重新构建的产品
+        Map<String, ProductIndexBuilder> builders = new HashMap<>();
+        ruleScenes.stream().sorted(Comparator.comparing(IotRuleSceneDO::getId)).forEach(ruleScene -> {
+            if (CommonStatusEnum.isDisable(ruleScene.getStatus()) || CollUtil.isEmpty(ruleScene.getTriggers())) {
+                return;
+            }
+            for (IotRuleSceneDO.TriggerConfig trigger : ruleScene.getTriggers()) {
+                if (ObjUtil.notEqual(trigger.getType(), IotRuleSceneTriggerTypeEnum.DEVICE.getType())
+                        || trigger.getProductKey() == null
+                        || (productKeys != null && !productKeys.contains(trigger.getProductKey()))) {
+                    continue;
+                }
+                builders.computeIfAbsent(trigger.getProductKey(), key -> new ProductIndexBuilder())
+                        .add(ruleScene, trigger);
+            }
+        });
+        builders.forEach((productKey, builder) -> newProducts.put(productKey, builder.build()));
+        return new IotRuleSceneTriggerIndex(newProducts);
+    }
+
+    /**
+     * 获得指定设备的规则场景列表
+     *
+     * @param productKey 产品标识
+     * @param deviceName 设备名称
+     * @return 规则场景列表
+     */
+    public List<IotRuleSceneDO> getRuleSceneList(String productKey, String deviceName) {
+        ProductIndex product = products.get(productKey);
+        if (product == null) {
+            return Collections.emptyList();
+        }
+        DeviceIndex device = product.devices.get(deviceName);
+        if (device == null) {
+            return product.anyDevice.ruleScenes;
+        }
+        List<IotRuleSceneDO> result = new ArrayList<>(device.ruleScenes);
+        product.anyDevice.ruleScenes.forEach(ruleScene -> addIfAbsent(result, ruleScene));
+        return result;
+    }
+
+    /**
+     * 获得消息匹配的规则场景列表
+     *
+     * 一个规则场景的多个条件之间是“或”的关系，一个条件的多个参数之间是“且”的关系
+     *
+     * @param message 设备消息
+     * @return 规则场景列表
+     */
+    public List<IotRuleSceneDO> match(IotDeviceMessage message) {
+        ProductIndex product = products.get(message.getProductKey());
+        if (product == null) {
+            return Collections.emptyList();
+        }
+        List<IotRuleSceneDO> result = null;
+        result = match(product.devices.get(message.getDeviceName()), message, result);
+        result = match(product.anyDevice, message, result);
+        return result != null ? result : Collections.emptyList();
+    }
+
+    private static List<IotRuleSceneDO> match(DeviceIndex device, IotDeviceMessage message, List<IotRuleSceneDO> result) {
+        if (device == null) {
+            return result;
+        }
+        Map<String, CompiledCondition[]> identifiers = device.conditions.get(message.getType());
+        if (identifiers == null) {
+            return result;
+        }
+        CompiledCondition[] conditions = identifiers.get(message.getIdentifier());
+        if (conditions == null) {
+            return result;
+        }
+        Map<?, ?> data = message.getData() instanceof Map ? (Map<?, ?>) message.getData() : Collections.emptyMap();
+        for (CompiledCondition condition : conditions) {
+            if (!condition.matches(data)) {
+                continue;
+            }
+            if (result == null) {
+                result = new ArrayList<>(2);
+            }
+            addIfAbsent(result, condition.ruleScene);
+        }
+        return result;
+    }
+
+    private static boolean addIfAbsent(List<IotRuleSceneDO> list, IotRuleSceneDO ruleScene) {
+        for (IotRuleSceneDO item : list) {
+            if (item == ruleScene) {
+                return false;
+            }
+        }
+        return list.add(ruleScene);
+    }
+
+    /**
+     * 产品索引
+     */
+    @AllArgsConstructor
+    private static class ProductIndex {
+
+        /**
+         * 指定设备的索引
+         *
+         * key：设备名称
+         */
+        private final Map<String, DeviceIndex> devices;
+        /**
+         * 不限制设备的索引
+         */
+        private final DeviceIndex anyDevice;
+
+    }
+
+    /**
+     * 设备索引
+     */
+    @AllArgsConstructor
+    private static class DeviceIndex {
+
+        /**
+         * 规则场景列表
+         */
+        private final List<IotRuleSceneDO> ruleScenes;
+        /**
+         * 编译后的条件
+         *
+         * key1：消息类型；key2：消息标识符
+         */
+        private final Map<String, Map<String, CompiledCondition[]>> conditions;
+
+    }
+
+    /**
+     * 编译后的触发条件 {@link IotRuleSceneDO.TriggerCondition}
+     */
+    @AllArgsConstructor
+    private static class CompiledCondition {
+
+        private final IotRuleSceneDO ruleScene;
+        /**
+         * 参数数组，全部满足才匹配
+         */
+        private final IotRuleSceneParameterMatcher[] parameters;
+
+        private boolean matches(Map<?, ?> data) {
+            for (IotRuleSceneParameterMatcher parameter : parameters) {
+                if (!parameter.matches(data)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    private static class ProductIndexBuilder {
+
+        private final Map<String, DeviceIndexBuilder> devices = new HashMap<>();
+        private final DeviceIndexBuilder anyDevice = new DeviceIndexBuilder();
+
+        private void add(IotRuleSceneDO ruleScene, IotRuleSceneDO.TriggerConfig trigger) {
+            // 1. 编译条件。编译失败时，忽略整个触发器，与原先“参数不匹配”的效果一致
+            List<CompiledCondition> conditions = new ArrayList<>();
+            try {
+                CollUtil.emptyIfNull(trigger.getConditions()).forEach(condition -> {
+                    IotRuleSceneParameterMatcher[] parameters = CollUtil.emptyIfNull(condition.getParameters()).stream()
+                            .map(IotRuleSceneParameterMatcher::compile).toArray(IotRuleSceneParameterMatcher[]::new);
+                    conditions.add(new CompiledCondition(ruleScene, parameters));
+                });
+            } catch (IllegalArgumentException ex) {
+                log.error("[add][规则场景编号({}) 的触发器({}) 编译失败：{}]", ruleScene.getId(), trigger, ex.getMessage());
+                return;
+            }
+
+            // 2. 添加到设备索引
+            if (CollUtil.isEmpty(trigger.getDeviceNames())) {
+                anyDevice.add(ruleScene, trigger.getConditions(), conditions);
+                return;
+            }
+            trigger.getDeviceNames().forEach(deviceName -> devices.computeIfAbsent(deviceName, key -> new DeviceIndexBuilder())
+                    .add(ruleScene, trigger.getConditions(), conditions));
+        }
+
+        private ProductIndex build() {
+            Map<String, DeviceIndex> deviceIndexes = new HashMap<>(devices.size());
+            devices.forEach((deviceName, builder) -> deviceIndexes.put(deviceName, builder.build()));
+            return new ProductIndex(deviceIndexes, anyDevice.build());
+        }
+
+    }
+
+    private static class DeviceIndexBuilder {
+
+        private final List<IotRuleSceneDO> ruleScenes = new ArrayList<>();
+        private final Map<String, Map<String, List<CompiledCondition>>> conditions = new HashMap<>();
+
+        private void add(IotRuleSceneDO ruleScene, List<IotRuleSceneDO.TriggerCondition> triggerConditions,
+                         List<CompiledCondition> compiledConditions) {
+            addIfAbsent(ruleScenes, ruleScene);
+            for (int i = 0; i < compiledConditions.size(); i++) {
+                IotRuleSceneDO.TriggerCondition condition = triggerConditions.get(i);
+                conditions.computeIfAbsent(condition.getType(), key -> new HashMap<>())
+                        .computeIfAbsent(condition.getIdentifier(), key -> new ArrayList<>())
+                        .add(compiledConditions.get(i));
+            }
+        }
+
+        private DeviceIndex build() {
+            Map<String, Map<String, CompiledCondition[]>> result = new HashMap<>(conditions.size());
+            conditions.forEach((type, identifiers) -> {
+                Map<String, CompiledCondition[]> identifierMap = new HashMap<>(identifiers.size());
+                identifiers.forEach((identifier, list) -> identifierMap.put(identifier, list.toArray(new CompiledCondition[0])));
+                result.put(type, identifierMap);
+            });
+            return new DeviceIndex(Collections.unmodifiableList(ruleScenes), result);
+        }
+
+    }
+
+}
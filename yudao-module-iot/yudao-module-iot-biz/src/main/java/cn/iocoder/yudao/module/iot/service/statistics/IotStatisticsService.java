@@ -0,0 +1,29 @@
+package cn.iocoder.yudao.module.iot.service.statistics;
+
+import cn.iocoder.yudao.module.iot.controller.admin.statistics.vo.IotStatisticsDeviceMessageSummaryRespVO;
+import cn.iocoder.yudao.module.iot.controller.admin.statistics.vo.IotStatisticsReqVO;
+import cn.iocoder.yudao.module.iot.controller.admin.statistics.vo.IotStatisticsSummaryRespVO;
+
+/**
+ * IoT 数据统计 Service 接口
+ *
+ * @author 芋道源码
+ */
+public interface IotStatisticsService {
+
+    /**
+     * 获得 IoT 数据统计
+     *
+     * @return 数据统计
+     */
+    IotStatisticsSummaryRespVO getStatisticsSummary();
+
+    /**
+     * 获得设备上下行消息的数据统计
+     *
+     * @param reqVO 查询条件
+     * @return 数据统计
+     */
+    IotStatisticsDeviceMessageSummaryRespVO getDeviceMessageSummary(IotStatisticsReqVO reqVO);
+
+}
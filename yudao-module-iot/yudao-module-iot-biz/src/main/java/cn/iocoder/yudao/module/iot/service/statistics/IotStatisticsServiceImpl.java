@@ -0,0 +1,111 @@
+package cn.iocoder.yudao.module.iot.service.statistics;
+
+import cn.hutool.core.util.ObjUtil;
+import cn.iocoder.yudao.framework.common.util.date.LocalDateTimeUtils;
+import cn.iocoder.yudao.framework.common.util.object.BeanUtils;
+import cn.iocoder.yudao.framework.tenant.core.context.TenantContextHolder;
+import cn.iocoder.yudao.module.iot.controller.admin.statistics.vo.IotStatisticsDeviceMessageSummaryRespVO;
+import cn.iocoder.yudao.module.iot.controller.admin.statistics.vo.IotStatisticsReqVO;
+import cn.iocoder.yudao.module.iot.controller.admin.statistics.vo.IotStatisticsSummaryRespVO;
+import cn.iocoder.yudao.module.iot.enums.device.IotDeviceStateEnum;
+import cn.iocoder.yudao.module.iot.service.device.IotDeviceService;
+import cn.iocoder.yudao.module.iot.service.device.data.IotDeviceLogService;
+import cn.iocoder.yudao.module.iot.service.product.IotProductCategoryService;
+import cn.iocoder.yudao.module.iot.service.product.IotProductService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.SneakyThrows;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * IoT 数据统计 Service 实现类
+ *
+ * 1. 设备消息的数量：读取 {@link IotDeviceLogService} 增量维护的统计，不随设备日志的数据量增长
+ * 2. 产品分类、产品、设备的数量：变化不频繁，本地缓存一段时间，避免每次打开统计页都查询数据库
+ *
+ * @author 芋道源码
+ */
+@Service
+@Validated
+public class IotStatisticsServiceImpl implements IotStatisticsService {
+
+    /**
+     * 本地缓存的最大数量，即租户数量
+     */
+    private static final long LOCAL_CACHE_MAXIMUM_SIZE = 1000L;
+    /**
+     * 本地缓存的最大存活时长
+     */
+    private static final Duration LOCAL_CACHE_EXPIRE_AFTER_WRITE = Duration.ofMinutes(1L);
+
+    @Resource
+    private IotDeviceService deviceService;
+    @Resource
+    private IotProductCategoryService productCategoryService;
+    @Resource
+    private IotProductService productService;
+    @Resource
+    private IotDeviceLogService deviceLogService;
+
+    /**
+     * 产品分类、产品、设备数量的本地缓存
+     *
+     * KEY：租户编号，未开启多租户时为 0
+     * VALUE：数据统计，不包含设备消息的数量
+     */
+    private final Cache<Long, IotStatisticsSummaryRespVO> localCache = CacheBuilder.newBuilder()
+            .maximumSize(LOCAL_CACHE_MAXIMUM_SIZE)
+            .expireAfterWrite(LOCAL_CACHE_EXPIRE_AFTER_WRITE)
+            .build();
+
+    @Override
+    @SneakyThrows
+    public IotStatisticsSummaryRespVO getStatisticsSummary() {
+        // 1. 获取产品分类、产品、设备的统计
+        Long tenantId = ObjUtil.defaultIfNull(TenantContextHolder.getTenantId(), 0L);
+        IotStatisticsSummaryRespVO respVO = BeanUtils.toBean(
+                localCache.get(tenantId, this::buildStatisticsSummary), IotStatisticsSummaryRespVO.class);
+
+        // 2. 获取设备消息的统计
+        respVO.setDeviceMessageCount(deviceLogService.getDeviceLogCount(null));
+        respVO.setDeviceMessageTodayCount(deviceLogService.getDeviceLogCount(LocalDateTimeUtils.getToday()));
+        return respVO;
+    }
+
+    private IotStatisticsSummaryRespVO buildStatisticsSummary() {
+        IotStatisticsSummaryRespVO respVO = new IotStatisticsSummaryRespVO();
+        // 1.1 获取总数
+        respVO.setProductCategoryCount(productCategoryService.getProductCategoryCount(null));
+        respVO.setProductCount(productService.getProductCount(null));
+        respVO.setDeviceCount(deviceService.getDeviceCount(null));
+        // 1.2 获取今日新增数量
+        LocalDateTime todayStart = LocalDateTimeUtils.getToday();
+        respVO.setProductCategoryTodayCount(productCategoryService.getProductCategoryCount(todayStart));
+        respVO.setProductTodayCount(productService.getProductCount(todayStart));
+        respVO.setDeviceTodayCount(deviceService.getDeviceCount(todayStart));
+
+        // 2. 获取各个品类下设备数量统计
+        respVO.setProductCategoryDeviceCounts(productCategoryService.getProductCategoryDeviceCountMap());
+
+        // 3. 获取设备状态数量统计
+        Map<Integer, Long> deviceCountMap = deviceService.getDeviceCountMapByState();
+        respVO.setDeviceOnlineCount(deviceCountMap.getOrDefault(IotDeviceStateEnum.ONLINE.getState(), 0L));
+        respVO.setDeviceOfflineCount(deviceCountMap.getOrDefault(IotDeviceStateEnum.OFFLINE.getState(), 0L));
+        respVO.setDeviceInactiveCount(deviceCountMap.getOrDefault(IotDeviceStateEnum.INACTIVE.getState(), 0L));
+        return respVO;
+    }
+
+    @Override
+    public IotStatisticsDeviceMessageSummaryRespVO getDeviceMessageSummary(IotStatisticsReqVO reqVO) {
+        return new IotStatisticsDeviceMessageSummaryRespVO()
+                .setUpstreamCounts(deviceLogService.getDeviceLogUpCountByHour(null, reqVO.getStartTime(), reqVO.getEndTime()))
+                .setDownstreamCounts(deviceLogService.getDeviceLogDownCountByHour(null, reqVO.getStartTime(), reqVO.getEndTime()));
+    }
+
+}
@@ -9,6 +9,7 @@ import cn.iocoder.yudao.module.iot.dal.dataobject.thingmodel.IotThingModelDO;
 import javax.validation.Valid;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * IoT 产品物模型 Service 接口
@@ -65,6 +66,27 @@ public interface IotThingModelService {
      */
     List<IotThingModelDO> getThingModelListByProductKeyFromCache(String productKey);
 
+    /**
+     * 【缓存】获得产品物模型 Map
+     *
+     * 优先读取本地缓存，其次 Redis 缓存；返回的 Map 不可修改
+     *
+     * 注意：该方法会忽略租户信息，所以调用时，需要确认会不会有跨租户访问的风险！！！
+     *
+     * @param productKey 产品标识
+     * @return 产品物模型 Map，KEY 为物模型标识符
+     */
+    Map<String, IotThingModelDO> getThingModelMapByProductKeyFromCache(String productKey);
+
+    /**
+     * 失效物模型的本地缓存，不操作 Redis
+     *
+     * 使用场景：其它节点变更物模型后，通过广播消息通知当前节点
+     *
+     * @param productKey 产品标识
+     */
+    void invalidateThingModelLocalCache(String productKey);
+
     /**
      * 获得产品物模型分页
      *
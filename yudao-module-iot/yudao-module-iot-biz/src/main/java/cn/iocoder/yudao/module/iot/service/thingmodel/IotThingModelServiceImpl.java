@@ -20,15 +20,23 @@ import cn.iocoder.yudao.module.iot.dal.mysql.thingmodel.IotThingModelMapper;
 import cn.iocoder.yudao.module.iot.dal.redis.RedisKeyConstants;
 import cn.iocoder.yudao.module.iot.enums.product.IotProductStatusEnum;
 import cn.iocoder.yudao.module.iot.enums.thingmodel.*;
+import cn.iocoder.yudao.module.iot.mq.producer.thingmodel.IotThingModelProducer;
 import cn.iocoder.yudao.module.iot.service.product.IotProductService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -39,6 +47,10 @@ import static cn.iocoder.yudao.module.iot.enums.ErrorCodeConstants.*;
 /**
  * IoT 产品物模型 Service 实现类
  *
+ * 在 Redis 缓存前面，额外增加一层「产品 -> 物模型标识 -> 物模型」的本地缓存，避免每条设备消息都访问 Redis + JSON 反序列化、遍历物模型列表：
+ * 1. 本地缓存有最大数量、最大存活时长的限制
+ * 2. 物模型变更时，通过 Redis Pub/Sub 广播 {@link cn.iocoder.yudao.module.iot.mq.message.thingmodel.IotThingModelCacheRemoveMessage} 消息，让其它节点失效本地缓存
+ *
  * @author 芋道源码
  */
 @Service
@@ -46,12 +58,47 @@ import static cn.iocoder.yudao.module.iot.enums.ErrorCodeConstants.*;
 @Slf4j
 public class IotThingModelServiceImpl implements IotThingModelService {
 
+    /**
+     * 本地缓存的最大数量
+     */
+    private static final long LOCAL_CACHE_MAXIMUM_SIZE = 1000L;
+    /**
+     * 本地缓存的最大存活时长
+     *
+     * 兜底作用：即使广播消息丢失，其它节点最多在该时长后感知到物模型变更
+     */
+    private static final Duration LOCAL_CACHE_EXPIRE_AFTER_WRITE = Duration.ofMinutes(1L);
+
     @Resource
     private IotThingModelMapper thingModelMapper;
 
     @Resource
     private IotProductService productService;
 
+    @Resource
+    private IotThingModelProducer thingModelProducer;
+    @Autowired(required = false) // 未引入 Micrometer 监控时，不强制注入
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 物模型的本地缓存
+     *
+     * KEY：产品标识
+     * VALUE：物模型 Map，KEY 为物模型标识符
+     */
+    private final Cache<String, Map<String, IotThingModelDO>> localCache = CacheBuilder.newBuilder()
+            .maximumSize(LOCAL_CACHE_MAXIMUM_SIZE)
+            .expireAfterWrite(LOCAL_CACHE_EXPIRE_AFTER_WRITE)
+            .recordStats() // 记录命中、未命中、驱逐等统计，用于监控
+            .build();
+
+    @PostConstruct
+    public void initLocalCache() {
+        if (meterRegistry != null) {
+            GuavaCacheMetrics.monitor(meterRegistry, localCache, "iot.thing-model.local-cache");
+        }
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public Long createThingModel(IotThingModelSaveReqVO createReqVO) {
@@ -139,6 +186,26 @@ public class IotThingModelServiceImpl implements IotThingModelService {
         return thingModelMapper.selectListByProductKey(productKey);
     }
 
+    @Override
+    public Map<String, IotThingModelDO> getThingModelMapByProductKeyFromCache(String productKey) {
+        // 优先从本地缓存中获取
+        Map<String, IotThingModelDO> thingModelMap = localCache.getIfPresent(productKey);
+        if (thingModelMap != null) {
+            return thingModelMap;
+        }
+
+        // 获取不到，从 Redis 缓存中获取，构建 Map 后写入本地缓存
+        List<IotThingModelDO> thingModels = getSelf().getThingModelListByProductKeyFromCache(productKey);
+        thingModelMap = Collections.unmodifiableMap(convertMap(thingModels, IotThingModelDO::getIdentifier));
+        localCache.put(productKey, thingModelMap);
+        return thingModelMap;
+    }
+
+    @Override
+    public void invalidateThingModelLocalCache(String productKey) {
+        localCache.invalidate(productKey);
+    }
+
     @Override
     public PageResult<IotThingModelDO> getProductThingModelPage(IotThingModelPageReqVO pageReqVO) {
         return thingModelMapper.selectPage(pageReqVO);
@@ -352,8 +419,12 @@ public class IotThingModelServiceImpl implements IotThingModelService {
     }
 
     private void deleteThingModelListCache(String productKey) {
-        // 保证 Spring AOP 触发
+        // 1. 删除 Redis 缓存，保证 Spring AOP 触发
         getSelf().deleteThingModelListCache0(productKey);
+
+        // 2. 删除本地缓存，并广播给其它节点
+        localCache.invalidate(productKey);
+        thingModelProducer.sendThingModelCacheRemoveMessage(productKey);
     }
 
     @CacheEvict(value = RedisKeyConstants.THING_MODEL_LIST, key = "#productKey")
@@ -0,0 +1,140 @@
+package cn.iocoder.yudao.module.iot.util;
+
+import cn.iocoder.yudao.module.iot.controller.admin.device.vo.data.IotDevicePropertyRespVO;
+import cn.iocoder.yudao.module.iot.enums.device.IotDevicePropertyAggregateFillEnum;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IoT 设备属性历史聚合的工具类
+ *
+ * @author 芋道源码
+ */
+public class IotDevicePropertyAggregateUtils {
+
+    /**
+     * 最大窗口数量
+     */
+    public static final int MAX_POINTS = 5000;
+
+    /**
+     * 候选的窗口大小（毫秒），按照目标点数计算出来的窗口，向上取整到其中之一，保证相同分辨率的查询，窗口边界一致、可以复用缓存
+     */
+    private static final long[] INTERVALS = {
+            TimeUnit.SECONDS.toMillis(1), TimeUnit.SECONDS.toMillis(2), TimeUnit.SECONDS.toMillis(5),
+            TimeUnit.SECONDS.toMillis(10), TimeUnit.SECONDS.toMillis(15), TimeUnit.SECONDS.toMillis(30),
+            TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(2), TimeUnit.MINUTES.toMillis(5),
+            TimeUnit.MINUTES.toMillis(10), TimeUnit.MINUTES.toMillis(15), TimeUnit.MINUTES.toMillis(30),
+            TimeUnit.HOURS.toMillis(1), TimeUnit.HOURS.toMillis(2), TimeUnit.HOURS.toMillis(3),
+            TimeUnit.HOURS.toMillis(6), TimeUnit.HOURS.toMillis(12), TimeUnit.DAYS.toMillis(1)
+    };
+
+    /**
+     * 计算聚合窗口大小
+     *
+     * @param startTime 开始时间（毫秒）
+     * @param endTime 结束时间（毫秒）
+     * @param points 目标点数
+     * @param interval 指定的窗口大小（秒），可为空；窗口数量超过 {@link #MAX_POINTS} 时，会被放大
+     * @return 窗口大小（毫秒）
+     */
+    public static long calculateInterval(long startTime, long endTime, int points, Long interval) {
+        long span = Math.max(endTime - startTime, 1L);
+        if (interval != null) {
+            long intervalMillis = TimeUnit.SECONDS.toMillis(interval);
+            if (span / intervalMillis <= MAX_POINTS) {
+                return intervalMillis;
+            }
+            points = MAX_POINTS;
+        }
+        long raw = (span + points - 1) / Math.min(points, MAX_POINTS);
+        for (long candidate : INTERVALS) {
+            if (candidate >= raw) {
+                return candidate;
+            }
+        }
+        long day = INTERVALS[INTERVALS.length - 1];
+        return (raw + day - 1) / day * day;
+    }
+
+    /**
+     * 将时间向下对齐到窗口边界
+     */
+    public static long floor(long time, long interval) {
+        return Math.floorDiv(time, interval) * interval;
+    }
+
+    /**
+     * 将时间向上对齐到窗口边界
+     */
+    public static long ceil(long time, long interval) {
+        return -Math.floorDiv(-time, interval) * interval;
+    }
+
+    /**
+     * 按照填充方式，将各窗口的聚合结果转换成有序的列表
+     *
+     * @param startTime 开始时间（毫秒，已对齐）
+     * @param endTime 结束时间（毫秒，已对齐，不包含）
+     * @param interval 窗口大小（毫秒）
+     * @param values 聚合结果，key 为窗口开始时间；没有数据的窗口不存在，或者为 null
+     * @param fill 填充方式
+     * @return 聚合结果列表，updateTime 为窗口开始时间
+     */
+    public static List<IotDevicePropertyRespVO> fill(long startTime, long endTime, long interval,
+                                                     Map<Long, Object> values, IotDevicePropertyAggregateFillEnum fill) {
+        List<IotDevicePropertyRespVO> result = new ArrayList<>();
+        Object prev = null;
+        for (long window = startTime; window < endTime; window += interval) {
+            Object value = values.get(window);
+            if (value == null) {
+                if (fill == IotDevicePropertyAggregateFillEnum.NONE) {
+                    continue;
+                }
+                if (fill == IotDevicePropertyAggregateFillEnum.PREV) {
+                    value = prev;
+                } else if (fill == IotDevicePropertyAggregateFillEnum.LINEAR) {
+                    value = interpolate(window, endTime, interval, values, result);
+                }
+            } else {
+                prev = value;
+            }
+            result.add(new IotDevicePropertyRespVO().setValue(value).setUpdateTime(window));
+        }
+        return result;
+    }
+
+    /**
+     * 线性插值：取前一个、后一个有数据的窗口；任一不存在或非数值时，返回 null
+     */
+    private static Object interpolate(long window, long endTime, long interval, Map<Long, Object> values,
+                                      List<IotDevicePropertyRespVO> previous) {
+        IotDevicePropertyRespVO before = null;
+        for (int i = previous.size() - 1; i >= 0; i--) {
+            if (values.get(previous.get(i).getUpdateTime()) != null) {
+                before = previous.get(i);
+                break;
+            }
+        }
+        if (before == null || !(before.getValue() instanceof Number)) {
+            return null;
+        }
+        for (long next = window + interval; next < endTime; next += interval) {
+            Object nextValue = values.get(next);
+            if (nextValue == null) {
+                continue;
+            }
+            if (!(nextValue instanceof Number)) {
+                return null;
+            }
+            double beforeValue = ((Number) before.getValue()).doubleValue();
+            double ratio = (double) (window - before.getUpdateTime()) / (next - before.getUpdateTime());
+            return beforeValue + (((Number) nextValue).doubleValue() - beforeValue) * ratio;
+        }
+        return null;
+    }
+
+}
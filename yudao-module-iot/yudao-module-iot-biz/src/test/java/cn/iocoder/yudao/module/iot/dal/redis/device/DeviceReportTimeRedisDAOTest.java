@@ -0,0 +1,76 @@
+package cn.iocoder.yudao.module.iot.dal.redis.device;
+
+import cn.hutool.core.date.LocalDateTimeUtil;
+import cn.iocoder.yudao.framework.test.core.ut.BaseRedisUnitTest;
+import cn.iocoder.yudao.module.iot.dal.redis.RedisKeyConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import javax.annotation.Resource;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link DeviceReportTimeRedisDAO} 的单元测试
+ */
+@Import(DeviceReportTimeRedisDAO.class)
+public class DeviceReportTimeRedisDAOTest extends BaseRedisUnitTest {
+
+    @Resource
+    private DeviceReportTimeRedisDAO deviceReportTimeRedisDAO;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        stringRedisTemplate.delete(RedisKeyConstants.DEVICE_REPORT_TIMES);
+    }
+
+    @Test
+    public void testRange() {
+        // mock 数据
+        Map<String, Long> reportTimes = new HashMap<>();
+        reportTimes.put("d1", 3000L);
+        reportTimes.put("d2", 1000L);
+        reportTimes.put("d3", 2000L);
+        reportTimes.put("d4", 9000L);
+        deviceReportTimeRedisDAO.updateBatch(reportTimes);
+
+        // 调用
+        Map<String, Long> result = deviceReportTimeRedisDAO.range(LocalDateTimeUtil.of(5000L), 2);
+        // 断言：只返回上报时间小于等于 maxReportTime 的设备，按照上报时间升序，且不超过 count 个
+        assertEquals(Arrays.asList("d2", "d3"), new ArrayList<>(result.keySet()));
+        assertEquals(1000L, result.get("d2"));
+        assertEquals(2000L, result.get("d3"));
+    }
+
+    @Test
+    public void testRemoveIfUnchanged() {
+        // mock 数据
+        Map<String, Long> reportTimes = new HashMap<>();
+        reportTimes.put("d1", 1000L);
+        reportTimes.put("d2", 2000L);
+        deviceReportTimeRedisDAO.updateBatch(reportTimes);
+        // 准备参数：读取之后，d2 又上报了一次；d3 已被移除
+        Map<String, Long> expired = deviceReportTimeRedisDAO.range(LocalDateTimeUtil.of(5000L), 10);
+        deviceReportTimeRedisDAO.updateBatch(Collections.singletonMap("d2", 6000L));
+        expired.put("d3", 3000L);
+
+        // 调用
+        long count = deviceReportTimeRedisDAO.removeIfUnchanged(expired);
+        // 断言：只移除上报时间未变化的 d1，保留新上报的 d2
+        assertEquals(1, count);
+        assertNull(stringRedisTemplate.opsForZSet().score(RedisKeyConstants.DEVICE_REPORT_TIMES, "d1"));
+        assertEquals(6000D, stringRedisTemplate.opsForZSet().score(RedisKeyConstants.DEVICE_REPORT_TIMES, "d2"));
+    }
+
+    @Test
+    public void testRemoveIfUnchanged_empty() {
+        assertEquals(0, deviceReportTimeRedisDAO.removeIfUnchanged(Collections.emptyMap()));
+    }
+
+}
@@ -0,0 +1,121 @@
+package cn.iocoder.yudao.module.iot.dal.redis.statistics;
+
+import cn.hutool.core.date.LocalDateTimeUtil;
+import cn.iocoder.yudao.framework.test.core.ut.BaseRedisUnitTest;
+import cn.iocoder.yudao.module.iot.dal.redis.statistics.DeviceMessageStatisticsRedisDAO.Count;
+import cn.iocoder.yudao.module.iot.dal.redis.statistics.DeviceMessageStatisticsRedisDAO.Counter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import javax.annotation.Resource;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static cn.iocoder.yudao.module.iot.dal.redis.statistics.DeviceMessageStatisticsRedisDAO.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link DeviceMessageStatisticsRedisDAO} 的单元测试
+ */
+@Import(DeviceMessageStatisticsRedisDAO.class)
+public class DeviceMessageStatisticsRedisDAOTest extends BaseRedisUnitTest {
+
+    private static final long TENANT_ID = 1L;
+
+    /**
+     * 2026-10-18 23:00，当天的最后一个小时
+     */
+    private static final long HOUR_1 = LocalDateTimeUtil.toEpochMilli(LocalDateTime.of(2026, 10, 18, 23, 0));
+    /**
+     * 2026-10-19 00:00，第二天的第一个小时
+     */
+    private static final long HOUR_2 = LocalDateTimeUtil.toEpochMilli(LocalDateTime.of(2026, 10, 19, 0, 0));
+
+    @Resource
+    private DeviceMessageStatisticsRedisDAO deviceMessageStatisticsRedisDAO;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        stringRedisTemplate.delete(Arrays.asList("iot:device_message_count:1",
+                "iot:device_message_hour_count:1:20261018", "iot:device_message_hour_count:1:20261019",
+                "iot:device_message_count:2", "iot:device_message_hour_count:2:20261019"));
+    }
+
+    @Test
+    public void testIncrementBatch() {
+        // 准备参数：跨天的两个小时
+        Map<Counter, Long> counters = new HashMap<>();
+        counters.put(new Counter(TENANT_ID, DIRECTION_ALL, HOUR_1), 3L);
+        counters.put(new Counter(TENANT_ID, DIRECTION_UPSTREAM, HOUR_1), 2L);
+        counters.put(new Counter(TENANT_ID, DIRECTION_ALL, HOUR_2), 1L);
+        counters.put(new Counter(TENANT_ID, DIRECTION_DOWNSTREAM, HOUR_2), 1L);
+
+        // 调用：第二次的开始统计时间不生效
+        deviceMessageStatisticsRedisDAO.incrementBatch(counters, 1000L);
+        deviceMessageStatisticsRedisDAO.incrementBatch(Collections.singletonMap(
+                new Counter(TENANT_ID, DIRECTION_ALL, HOUR_1), 1L), 2000L);
+        // 断言：按天拆分 KEY，field 为 {direction}:{小时开始时间}，并设置过期时间
+        String hourKey1 = "iot:device_message_hour_count:1:20261018";
+        assertEquals("4", stringRedisTemplate.opsForHash().get(hourKey1, "all:" + HOUR_1));
+        assertEquals("2", stringRedisTemplate.opsForHash().get(hourKey1, "up:" + HOUR_1));
+        assertEquals(2, stringRedisTemplate.opsForHash().size(hourKey1));
+        String hourKey2 = "iot:device_message_hour_count:1:20261019";
+        assertEquals("1", stringRedisTemplate.opsForHash().get(hourKey2, "all:" + HOUR_2));
+        assertEquals("1", stringRedisTemplate.opsForHash().get(hourKey2, "down:" + HOUR_2));
+        Long expire = stringRedisTemplate.getExpire(hourKey1);
+        assertNotNull(expire);
+        assertTrue(expire > 0 && expire <= HOUR_COUNT_RETENTION.getSeconds());
+        // 断言：总数只累加 all 方向
+        Count count = deviceMessageStatisticsRedisDAO.getCount(TENANT_ID);
+        assertEquals(5L, count.getTotal());
+        assertEquals(1000L, count.getStartTime());
+        assertNull(count.getSeed());
+    }
+
+    @Test
+    public void testGetCount_notStarted() {
+        assertNull(deviceMessageStatisticsRedisDAO.getCount(TENANT_ID));
+    }
+
+    @Test
+    public void testSetSeed() {
+        // mock 数据
+        deviceMessageStatisticsRedisDAO.incrementBatch(Collections.singletonMap(
+                new Counter(TENANT_ID, DIRECTION_ALL, HOUR_1), 1L), 1000L);
+
+        // 调用：只有第一次设置生效
+        deviceMessageStatisticsRedisDAO.setSeed(TENANT_ID, 100L);
+        deviceMessageStatisticsRedisDAO.setSeed(TENANT_ID, 200L);
+        // 断言
+        assertEquals(100L, deviceMessageStatisticsRedisDAO.getCount(TENANT_ID).getSeed());
+    }
+
+    @Test
+    public void testGetHourCountMap() {
+        // mock 数据
+        long hour0 = HOUR_1 - 3600_000L;
+        Map<Counter, Long> counters = new HashMap<>();
+        counters.put(new Counter(TENANT_ID, DIRECTION_ALL, hour0), 5L);
+        counters.put(new Counter(TENANT_ID, DIRECTION_ALL, HOUR_1), 3L);
+        counters.put(new Counter(TENANT_ID, DIRECTION_UPSTREAM, HOUR_1), 2L);
+        counters.put(new Counter(TENANT_ID, DIRECTION_ALL, HOUR_2), 1L);
+        counters.put(new Counter(2L, DIRECTION_ALL, HOUR_2), 7L);
+        deviceMessageStatisticsRedisDAO.incrementBatch(counters, 1000L);
+
+        // 调用：跨天读取
+        Map<Long, Long> result = deviceMessageStatisticsRedisDAO.getHourCountMap(TENANT_ID, DIRECTION_ALL, HOUR_1, HOUR_2);
+        // 断言：只返回该租户、该方向、时间范围内的小时
+        Map<Long, Long> expected = new HashMap<>();
+        expected.put(HOUR_1, 3L);
+        expected.put(HOUR_2, 1L);
+        assertEquals(expected, result);
+        assertEquals(Collections.singletonMap(HOUR_1, 2L),
+                deviceMessageStatisticsRedisDAO.getHourCountMap(TENANT_ID, DIRECTION_UPSTREAM, hour0, HOUR_2));
+    }
+
+}
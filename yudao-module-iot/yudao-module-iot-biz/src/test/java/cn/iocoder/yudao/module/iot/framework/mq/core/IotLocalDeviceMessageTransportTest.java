@@ -0,0 +1,109 @@
+package cn.iocoder.yudao.module.iot.framework.mq.core;
+
+import cn.iocoder.yudao.module.iot.framework.mq.config.IotMessagePipelineProperties;
+import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link IotLocalDeviceMessageTransport} 的单元测试
+ */
+public class IotLocalDeviceMessageTransportTest {
+
+    @Test
+    public void testSend_orderedPerDevice() throws InterruptedException {
+        // 准备参数
+        int deviceCount = 8;
+        int messageCount = 200;
+        CountDownLatch latch = new CountDownLatch(deviceCount * messageCount);
+        Map<String, List<String>> received = new ConcurrentHashMap<>();
+        IotLocalDeviceMessageTransport transport = buildTransport(buildProperties(4, 16),
+                buildSubscriber("test", message -> {
+                    received.computeIfAbsent(message.getDeviceKey(), key -> Collections.synchronizedList(new ArrayList<>()))
+                            .add(message.getRequestId());
+                    latch.countDown();
+                }));
+
+        // 调用
+        for (int i = 0; i < messageCount; i++) {
+            for (int j = 0; j < deviceCount; j++) {
+                transport.send(IotDeviceMessage.builder().deviceKey("device" + j).requestId(String.valueOf(i)).build());
+            }
+        }
+        // 断言：每个设备的消息，按照发送顺序消费
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        transport.stop();
+        assertEquals(deviceCount, received.size());
+        received.values().forEach(requestIds -> {
+            for (int i = 0; i < messageCount; i++) {
+                assertEquals(String.valueOf(i), requestIds.get(i));
+            }
+        });
+    }
+
+    @Test
+    public void testSend_stageIsolated() throws InterruptedException {
+        // 准备参数：slow 阻塞，fast 不受影响
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch fastLatch = new CountDownLatch(10);
+        IotLocalDeviceMessageTransport transport = buildTransport(buildProperties(1, 2),
+                buildSubscriber("slow", message -> {
+                    try {
+                        blocked.await();
+                    } catch (InterruptedException ignore) {
+                        Thread.currentThread().interrupt();
+                    }
+                }),
+                buildSubscriber("fast", message -> fastLatch.countDown()));
+
+        // 调用
+        for (int i = 0; i < 10; i++) {
+            transport.send(IotDeviceMessage.builder().deviceKey("device").requestId(String.valueOf(i)).build());
+        }
+        // 断言：slow 队列满时丢弃，fast 全部消费
+        assertTrue(fastLatch.await(10, TimeUnit.SECONDS));
+        blocked.countDown();
+        transport.stop();
+    }
+
+    private static IotMessagePipelineProperties buildProperties(int lanes, int queueCapacity) {
+        IotMessagePipelineProperties properties = new IotMessagePipelineProperties();
+        properties.setLanes(lanes);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setBlockTimeout(Duration.ofMillis(10L));
+        properties.setShutdownTimeout(Duration.ofSeconds(5L));
+        return properties;
+    }
+
+    private static IotLocalDeviceMessageTransport buildTransport(IotMessagePipelineProperties properties,
+                                                                 IotDeviceMessageSubscriber... subscribers) {
+        IotLocalDeviceMessageTransport transport = new IotLocalDeviceMessageTransport(properties, Arrays.asList(subscribers));
+        transport.start();
+        return transport;
+    }
+
+    private static IotDeviceMessageSubscriber buildSubscriber(String name, Consumer<IotDeviceMessage> consumer) {
+        return new IotDeviceMessageSubscriber() {
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public void onMessage(IotDeviceMessage message) {
+                consumer.accept(message);
+            }
+
+        };
+    }
+
+}
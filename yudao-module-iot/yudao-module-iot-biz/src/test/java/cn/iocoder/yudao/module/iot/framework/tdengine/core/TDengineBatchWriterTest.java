@@ -0,0 +1,138 @@
+package cn.iocoder.yudao.module.iot.framework.tdengine.core;
+
+import cn.iocoder.yudao.module.iot.framework.tdengine.config.TDengineBatchProperties;
+import com.google.common.base.Ticker;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TDengineBatchWriter} 的单元测试
+ */
+public class TDengineBatchWriterTest {
+
+    @Test
+    public void testFlush_tsMonotonic() {
+        // 准备参数：两个子表交替写入，多次 flush
+        List<List<TestRow>> statements = new CopyOnWriteArrayList<>();
+        TDengineBatchWriter<TestRow> writer = buildWriter(10, Duration.ofMillis(20), statements::add,
+                Ticker.systemTicker());
+
+        // 调用
+        for (int i = 0; i < 200; i++) {
+            assertTrue(writer.offer(new TestRow("t" + (i % 2), i)));
+        }
+        writer.shutdown(Duration.ofSeconds(5));
+
+        // 断言：每个子表的时间戳，按照写入顺序严格递增，跨 flush 也不重复
+        Map<String, List<TestRow>> tables = statements.stream().flatMap(List::stream)
+                .collect(Collectors.groupingBy(TestRow::getTable, LinkedHashMap::new, Collectors.toList()));
+        assertEquals(2, tables.size());
+        tables.values().forEach(rows -> {
+            assertEquals(100, rows.size());
+            for (int i = 1; i < rows.size(); i++) {
+                assertTrue(rows.get(i).getIndex() > rows.get(i - 1).getIndex());
+                assertTrue(rows.get(i).getTs() > rows.get(i - 1).getTs());
+            }
+        });
+        // 断言：同一条语句中，同一子表的数据连续排列
+        statements.forEach(rows -> {
+            List<String> tableOrder = rows.stream().map(TestRow::getTable).distinct().collect(Collectors.toList());
+            for (int i = 1; i < rows.size(); i++) {
+                assertTrue(tableOrder.indexOf(rows.get(i).getTable()) >= tableOrder.indexOf(rows.get(i - 1).getTable()));
+            }
+        });
+        assertEquals(0, writer.getDiscardedCount());
+    }
+
+    @Test
+    public void testFlush_fallbackPerTable() {
+        // 准备参数：子表 bad 写入失败；6 条数据在一个攒批时长内写入
+        List<List<TestRow>> statements = new CopyOnWriteArrayList<>();
+        TDengineBatchWriter<TestRow> writer = buildWriter(100, Duration.ofMillis(200), rows -> {
+            statements.add(rows);
+            if (rows.stream().anyMatch(row -> "bad".equals(row.getTable()))) {
+                throw new IllegalStateException("模拟超级表未定义");
+            }
+        }, Ticker.systemTicker());
+
+        // 调用
+        for (int i = 0; i < 6; i++) {
+            writer.offer(new TestRow(i % 3 == 0 ? "bad" : "good" + (i % 3), i));
+        }
+        writer.shutdown(Duration.ofSeconds(5));
+
+        // 断言：整批失败后，逐个子表写入，只丢弃 bad 子表的数据
+        assertEquals(4, writer.getStatementCount());
+        assertEquals(4, statements.size());
+        assertEquals(6, statements.get(0).size());
+        assertEquals(2, writer.getDiscardedCount());
+        Set<String> fallbackTables = new HashSet<>();
+        statements.subList(1, 4).forEach(rows -> {
+            assertEquals(1, rows.stream().map(TestRow::getTable).distinct().count());
+            fallbackTables.add(rows.get(0).getTable());
+        });
+        assertEquals(new HashSet<>(Arrays.asList("bad", "good1", "good2")), fallbackTables);
+    }
+
+    @Test
+    public void testFlush_lastTsExpire() {
+        // 准备参数
+        AtomicLong nanos = new AtomicLong();
+        Ticker ticker = new Ticker() {
+
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+
+        };
+        TDengineBatchWriter<TestRow> writer = buildWriter(100, Duration.ofMillis(200), rows -> {}, ticker);
+
+        // 调用
+        for (int i = 0; i < 50; i++) {
+            writer.offer(new TestRow("t" + i, i));
+        }
+        writer.shutdown(Duration.ofSeconds(5));
+        // 断言：记录每个子表的最后时间戳，长时间没有写入后过期
+        assertEquals(50, writer.getLastTsSize());
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        assertEquals(50, writer.getLastTsSize());
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(6));
+        assertEquals(0, writer.getLastTsSize());
+    }
+
+    private static TDengineBatchWriter<TestRow> buildWriter(int batchSize, Duration flushInterval,
+                                                            Consumer<List<TestRow>> inserter, Ticker ticker) {
+        TDengineBatchProperties properties = new TDengineBatchProperties();
+        properties.setBatchSize(batchSize);
+        properties.setFlushInterval(flushInterval);
+        return new TDengineBatchWriter<>("test", properties, TestRow::getTable, TestRow::setTs,
+                rows -> inserter.accept(new ArrayList<>(rows)), ticker);
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class TestRow {
+
+        private String table;
+        private Integer index;
+        private Long ts;
+
+        private TestRow(String table, Integer index) {
+            this(table, index, null);
+        }
+
+    }
+
+}
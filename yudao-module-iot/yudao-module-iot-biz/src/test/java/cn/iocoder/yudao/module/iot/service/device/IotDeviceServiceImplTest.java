@@ -0,0 +1,235 @@
+package cn.iocoder.yudao.module.iot.service.device;
+
+import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.extra.spring.SpringUtil;
+import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
+import cn.iocoder.yudao.module.iot.controller.admin.device.vo.device.IotDeviceImportExcelVO;
+import cn.iocoder.yudao.module.iot.controller.admin.device.vo.device.IotDeviceImportRespVO;
+import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDeviceDO;
+import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDeviceGroupDO;
+import cn.iocoder.yudao.module.iot.dal.dataobject.product.IotProductDO;
+import cn.iocoder.yudao.module.iot.dal.mysql.device.IotDeviceMapper;
+import cn.iocoder.yudao.module.iot.enums.device.IotDeviceStateEnum;
+import cn.iocoder.yudao.module.iot.enums.product.IotProductDeviceTypeEnum;
+import cn.iocoder.yudao.module.iot.mq.consumer.device.IotDeviceCacheRemoveConsumer;
+import cn.iocoder.yudao.module.iot.mq.message.device.IotDeviceCacheRemoveMessage;
+import cn.iocoder.yudao.module.iot.mq.producer.device.IotDeviceProducer;
+import cn.iocoder.yudao.module.iot.service.product.IotProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static cn.iocoder.yudao.module.iot.enums.ErrorCodeConstants.DEVICE_NAME_EXISTS;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link IotDeviceServiceImpl} 的单元测试
+ */
+public class IotDeviceServiceImplTest extends BaseMockitoUnitTest {
+
+    @InjectMocks
+    private IotDeviceServiceImpl deviceService;
+
+    @Mock
+    private IotDeviceMapper deviceMapper;
+    @Mock
+    private IotDeviceProducer deviceProducer;
+    @Mock
+    private IotProductService productService;
+    @Mock
+    private IotDeviceGroupService deviceGroupService;
+
+    /**
+     * 代理对象，即 getSelf() 的返回，负责 Redis 缓存
+     */
+    @Mock
+    private IotDeviceServiceImpl deviceServiceProxy;
+    private MockedStatic<SpringUtil> springUtilMockedStatic;
+
+    @BeforeEach
+    public void setUp() {
+        springUtilMockedStatic = mockStatic(SpringUtil.class);
+        springUtilMockedStatic.when(() -> SpringUtil.getBean(eq(IotDeviceServiceImpl.class)))
+                .thenReturn(deviceServiceProxy);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        springUtilMockedStatic.close();
+    }
+
+    // ========== 本地缓存 ==========
+
+    @Test
+    public void testGetDeviceByProductKeyAndDeviceNameFromCache_localCache() {
+        // mock 方法
+        IotDeviceDO device = new IotDeviceDO().setId(1L).setProductKey("p").setDeviceName("d");
+        when(deviceServiceProxy.getDeviceByProductKeyAndDeviceNameFromCache0(eq("p"), eq("d"))).thenReturn(device);
+
+        // 调用：第二次命中本地缓存
+        assertSame(device, deviceService.getDeviceByProductKeyAndDeviceNameFromCache("p", "d"));
+        assertSame(device, deviceService.getDeviceByProductKeyAndDeviceNameFromCache("p", "d"));
+        // 断言
+        verify(deviceServiceProxy, times(1)).getDeviceByProductKeyAndDeviceNameFromCache0(eq("p"), eq("d"));
+    }
+
+    @Test
+    public void testGetDeviceByProductKeyAndDeviceNameFromCache_removeMessage() {
+        // mock 方法：第二次读取到变更后的设备
+        IotDeviceDO device = new IotDeviceDO().setId(1L).setProductKey("p").setDeviceName("d");
+        IotDeviceDO newDevice = new IotDeviceDO().setId(1L).setProductKey("p").setDeviceName("d")
+                .setState(IotDeviceStateEnum.ONLINE.getState());
+        when(deviceServiceProxy.getDeviceByProductKeyAndDeviceNameFromCache0(eq("p"), eq("d")))
+                .thenReturn(device, newDevice);
+        assertSame(device, deviceService.getDeviceByProductKeyAndDeviceNameFromCache("p", "d"));
+        // 准备参数：其它节点广播的缓存删除消息
+        IotDeviceCacheRemoveConsumer consumer = new IotDeviceCacheRemoveConsumer();
+        ReflectUtil.setFieldValue(consumer, "deviceService", deviceService);
+
+        // 调用
+        consumer.onMessage(new IotDeviceCacheRemoveMessage().setCacheKeys(Collections.singletonList("p_d")));
+        // 断言：本地缓存失效，重新从 Redis 缓存读取
+        assertSame(newDevice, deviceService.getDeviceByProductKeyAndDeviceNameFromCache("p", "d"));
+        verify(deviceServiceProxy, times(2)).getDeviceByProductKeyAndDeviceNameFromCache0(eq("p"), eq("d"));
+    }
+
+    @Test
+    public void testUpdateDeviceState_broadcastCacheRemove() {
+        // mock 数据：本地缓存中已有设备
+        IotDeviceDO device = new IotDeviceDO().setId(1L).setProductKey("p").setDeviceName("d")
+                .setOnlineTime(LocalDateTime.now());
+        when(deviceServiceProxy.getDeviceByProductKeyAndDeviceNameFromCache0(eq("p"), eq("d"))).thenReturn(device);
+        deviceService.getDeviceByProductKeyAndDeviceNameFromCache("p", "d");
+        when(deviceMapper.selectById(eq(1L))).thenReturn(device);
+
+        // 调用
+        deviceService.updateDeviceState(1L, IotDeviceStateEnum.OFFLINE.getState());
+        // 断言：删除 Redis 缓存、本地缓存，并广播给其它节点
+        verify(deviceServiceProxy).deleteDeviceCache0(same(device));
+        verify(deviceProducer).sendDeviceCacheRemoveMessage(eq(Collections.singletonList("p_d")));
+        deviceService.getDeviceByProductKeyAndDeviceNameFromCache("p", "d");
+        verify(deviceServiceProxy, times(2)).getDeviceByProductKeyAndDeviceNameFromCache0(eq("p"), eq("d"));
+    }
+
+    // ========== 导入设备 ==========
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testImportDevice_gatewayInSameBatch() {
+        // mock 方法：网关、子设备都不存在；插入时，模拟数据库生成编号
+        mockImportProducts();
+        AtomicLong idGenerator = new AtomicLong(100L);
+        when(deviceMapper.insertBatch(anyCollection())).thenAnswer(invocation -> {
+            ((Collection<IotDeviceDO>) invocation.getArgument(0)).forEach(device -> device.setId(idGenerator.getAndIncrement()));
+            return true;
+        });
+        // 准备参数：子设备的父设备，是同一批中的网关
+        List<IotDeviceImportExcelVO> importDevices = Arrays.asList(
+                IotDeviceImportExcelVO.builder().deviceName("gw").productKey("gateway").build(),
+                IotDeviceImportExcelVO.builder().deviceName("sub").productKey("sub").parentDeviceName("gw").build());
+
+        // 调用
+        IotDeviceImportRespVO respVO = deviceService.importDevice(importDevices, false);
+        // 断言：两个设备都创建成功
+        assertEquals(Arrays.asList("gw", "sub"), respVO.getCreateDeviceNames());
+        assertTrue(respVO.getUpdateDeviceNames().isEmpty());
+        assertTrue(respVO.getFailureDeviceNames().isEmpty());
+        ArgumentCaptor<Collection<IotDeviceDO>> insertCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(deviceMapper).insertBatch(insertCaptor.capture());
+        List<IotDeviceDO> createDevices = new ArrayList<>(insertCaptor.getValue());
+        assertEquals(2, createDevices.size());
+        assertEquals(IotProductDeviceTypeEnum.GATEWAY_SUB.getType(), createDevices.get(1).getDeviceType());
+        // 断言：网关插入后才有编号，再更新子设备的父设备编号
+        ArgumentCaptor<Collection<IotDeviceDO>> updateCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(deviceMapper).updateBatch(updateCaptor.capture());
+        IotDeviceDO updateDevice = updateCaptor.getValue().iterator().next();
+        assertEquals(1, updateCaptor.getValue().size());
+        assertEquals(101L, updateDevice.getId());
+        assertEquals(100L, updateDevice.getGatewayId());
+        assertEquals(100L, createDevices.get(1).getGatewayId());
+    }
+
+    @Test
+    public void testImportDevice_duplicateNameInBatch() {
+        // mock 方法
+        mockImportProducts();
+        // 准备参数：同一批中，设备名称重复
+        List<IotDeviceImportExcelVO> importDevices = Arrays.asList(
+                IotDeviceImportExcelVO.builder().deviceName("d").productKey("sub").build(),
+                IotDeviceImportExcelVO.builder().deviceName("d").productKey("sub").build());
+
+        // 调用：即使允许更新，也不能更新同一批中待插入的设备
+        IotDeviceImportRespVO respVO = deviceService.importDevice(importDevices, true);
+        // 断言：第一个创建，第二个失败
+        assertEquals(Collections.singletonList("d"), respVO.getCreateDeviceNames());
+        assertTrue(respVO.getUpdateDeviceNames().isEmpty());
+        assertEquals(DEVICE_NAME_EXISTS.getMsg(), respVO.getFailureDeviceNames().get("d"));
+        verify(deviceMapper).insertBatch(argThat(devices -> devices.size() == 1));
+        verify(deviceMapper, never()).updateBatch(anyCollection());
+    }
+
+    @Test
+    public void testImportDevice_updateSupportFalse() {
+        // mock 方法：设备已存在
+        mockImportProducts();
+        when(deviceMapper.selectListByDeviceNames(eq(Collections.singleton("d")))).thenReturn(Collections.singletonList(
+                new IotDeviceDO().setId(1L).setProductKey("sub").setDeviceName("d")));
+        // 准备参数
+        List<IotDeviceImportExcelVO> importDevices = Collections.singletonList(
+                IotDeviceImportExcelVO.builder().deviceName("d").productKey("sub").groupNames("g").build());
+
+        // 调用
+        IotDeviceImportRespVO respVO = deviceService.importDevice(importDevices, false);
+        // 断言：不允许更新，不写入数据库
+        assertTrue(respVO.getCreateDeviceNames().isEmpty());
+        assertTrue(respVO.getUpdateDeviceNames().isEmpty());
+        assertEquals(DEVICE_NAME_EXISTS.getMsg(), respVO.getFailureDeviceNames().get("d"));
+        verify(deviceMapper, never()).insertBatch(anyCollection());
+        verify(deviceMapper, never()).updateBatch(anyCollection());
+        verify(deviceProducer, never()).sendDeviceCacheRemoveMessage(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testImportDevice_updateSupportTrue() {
+        // mock 方法：设备已存在
+        mockImportProducts();
+        IotDeviceDO existDevice = new IotDeviceDO().setId(1L).setProductKey("sub").setDeviceName("d");
+        when(deviceMapper.selectListByDeviceNames(eq(Collections.singleton("d"))))
+                .thenReturn(Collections.singletonList(existDevice));
+        // 准备参数
+        List<IotDeviceImportExcelVO> importDevices = Collections.singletonList(
+                IotDeviceImportExcelVO.builder().deviceName("d").productKey("sub").groupNames("g").build());
+
+        // 调用
+        IotDeviceImportRespVO respVO = deviceService.importDevice(importDevices, true);
+        // 断言：更新分组，并删除缓存
+        assertEquals(Collections.singletonList("d"), respVO.getUpdateDeviceNames());
+        ArgumentCaptor<Collection<IotDeviceDO>> updateCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(deviceMapper).updateBatch(updateCaptor.capture());
+        IotDeviceDO updateDevice = updateCaptor.getValue().iterator().next();
+        assertEquals(1L, updateDevice.getId());
+        assertEquals(Collections.singleton(10L), updateDevice.getGroupIds());
+        verify(deviceServiceProxy).deleteDeviceCache0(same(existDevice));
+        verify(deviceProducer).sendDeviceCacheRemoveMessage(eq(Collections.singletonList("sub_d")));
+    }
+
+    private void mockImportProducts() {
+        when(productService.getProductListByProductKeys(anyCollection())).thenReturn(Arrays.asList(
+                new IotProductDO().setId(1L).setProductKey("gateway").setDeviceType(IotProductDeviceTypeEnum.GATEWAY.getType()),
+                new IotProductDO().setId(2L).setProductKey("sub").setDeviceType(IotProductDeviceTypeEnum.GATEWAY_SUB.getType())));
+        when(deviceGroupService.getDeviceGroupListByNames(anyCollection())).thenReturn(Collections.singletonList(
+                new IotDeviceGroupDO().setId(10L).setName("g")));
+    }
+
+}
@@ -0,0 +1,197 @@
+package cn.iocoder.yudao.module.iot.service.device.data;
+
+import cn.hutool.core.date.LocalDateTimeUtil;
+import cn.iocoder.yudao.framework.tenant.core.context.TenantContextHolder;
+import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
+import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDeviceLogDO;
+import cn.iocoder.yudao.module.iot.dal.redis.statistics.DeviceMessageStatisticsRedisDAO;
+import cn.iocoder.yudao.module.iot.dal.redis.statistics.DeviceMessageStatisticsRedisDAO.Count;
+import cn.iocoder.yudao.module.iot.dal.redis.statistics.DeviceMessageStatisticsRedisDAO.Counter;
+import cn.iocoder.yudao.module.iot.dal.tdengine.IotDeviceLogMapper;
+import cn.iocoder.yudao.module.iot.enums.device.IotDeviceMessageIdentifierEnum;
+import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static cn.iocoder.yudao.module.iot.dal.redis.statistics.DeviceMessageStatisticsRedisDAO.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link IotDeviceLogServiceImpl} 的单元测试
+ */
+public class IotDeviceLogServiceImplTest extends BaseMockitoUnitTest {
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @InjectMocks
+    private IotDeviceLogServiceImpl deviceLogService;
+
+    @Mock
+    private IotDeviceLogMapper deviceLogMapper;
+    @Mock
+    private DeviceMessageStatisticsRedisDAO deviceMessageStatisticsRedisDAO;
+
+    /**
+     * 开始统计的时间：两小时前的整点
+     */
+    private long statisticsStartTime;
+
+    @BeforeEach
+    public void setUp() {
+        TenantContextHolder.setTenantId(1L);
+        statisticsStartTime = floorHour(System.currentTimeMillis()) - 2 * HOUR_MILLIS;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TenantContextHolder.clear();
+    }
+
+    // ========== 累加统计 ==========
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCreateDeviceLog_incrementStatistics() {
+        // 准备参数
+        IotDeviceMessage message = IotDeviceMessage.builder().deviceKey("k").tenantId(2L)
+                .identifier(IotDeviceMessageIdentifierEnum.PROPERTY_REPORT.getIdentifier()).build();
+
+        // 调用
+        long beginHour = floorHour(System.currentTimeMillis());
+        deviceLogService.createDeviceLog(message);
+        long endHour = floorHour(System.currentTimeMillis());
+        // 断言：未开启批量写入，直接 insert
+        verify(deviceLogMapper).insert(any(IotDeviceLogDO.class));
+        // 断言：按照消息的租户、当前小时，累加 all、up 两个方向
+        ArgumentCaptor<Map<Counter, Long>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(deviceMessageStatisticsRedisDAO).incrementBatch(captor.capture(), anyLong());
+        Map<Counter, Long> counters = captor.getValue();
+        assertEquals(2, counters.size());
+        long hour = counters.keySet().iterator().next().getHour();
+        assertEquals(0, hour % HOUR_MILLIS);
+        assertTrue(hour == beginHour || hour == endHour);
+        assertEquals(1L, counters.get(new Counter(2L, DIRECTION_ALL, hour)));
+        assertEquals(1L, counters.get(new Counter(2L, DIRECTION_UPSTREAM, hour)));
+    }
+
+    // ========== 消息数量 ==========
+
+    @Test
+    public void testGetDeviceLogCount_notStarted() {
+        // mock 方法：尚未开始统计
+        when(deviceMessageStatisticsRedisDAO.getCount(eq(1L))).thenReturn(null);
+        when(deviceLogMapper.selectCountByCreateTime(isNull(), isNull())).thenReturn(10L);
+
+        // 调用，并断言：COUNT 设备日志
+        assertEquals(10L, deviceLogService.getDeviceLogCount(null));
+        verify(deviceMessageStatisticsRedisDAO, never()).setSeed(anyLong(), anyLong());
+    }
+
+    @Test
+    public void testGetDeviceLogCount_seed() {
+        // mock 方法：尚未计算开始统计前的总数
+        when(deviceMessageStatisticsRedisDAO.getCount(eq(1L)))
+                .thenReturn(new Count(5L, statisticsStartTime, null));
+        when(deviceLogMapper.selectCountByCreateTime(isNull(), eq(statisticsStartTime))).thenReturn(100L);
+
+        // 调用
+        Long count = deviceLogService.getDeviceLogCount(null);
+        // 断言：COUNT 开始统计前的日志，并缓存到 Redis
+        assertEquals(105L, count);
+        verify(deviceMessageStatisticsRedisDAO).setSeed(eq(1L), eq(100L));
+    }
+
+    @Test
+    public void testGetDeviceLogCount_seedCached() {
+        // mock 方法：已经计算过开始统计前的总数
+        when(deviceMessageStatisticsRedisDAO.getCount(eq(1L)))
+                .thenReturn(new Count(5L, statisticsStartTime, 100L));
+
+        // 调用，并断言：不再 COUNT 设备日志
+        assertEquals(105L, deviceLogService.getDeviceLogCount(null));
+        verify(deviceLogMapper, never()).selectCountByCreateTime(any(), any());
+        verify(deviceMessageStatisticsRedisDAO, never()).setSeed(anyLong(), anyLong());
+    }
+
+    @Test
+    public void testGetDeviceLogCount_createTimeBeforeStart() {
+        // mock 方法
+        long createTime = statisticsStartTime - HOUR_MILLIS;
+        when(deviceMessageStatisticsRedisDAO.getCount(eq(1L)))
+                .thenReturn(new Count(5L, statisticsStartTime, 100L));
+        when(deviceLogMapper.selectCountByCreateTime(eq(createTime), eq(statisticsStartTime))).thenReturn(7L);
+        Map<Long, Long> hourCountMap = new HashMap<>();
+        hourCountMap.put(statisticsStartTime, 3L);
+        hourCountMap.put(statisticsStartTime + HOUR_MILLIS, 4L);
+        when(deviceMessageStatisticsRedisDAO.getHourCountMap(eq(1L), eq(DIRECTION_ALL), eq(statisticsStartTime), anyLong()))
+                .thenReturn(hourCountMap);
+
+        // 调用
+        Long count = deviceLogService.getDeviceLogCount(LocalDateTimeUtil.of(createTime));
+        // 断言：开始统计前的部分 COUNT 设备日志，之后的部分按小时累加
+        assertEquals(14L, count);
+    }
+
+    // ========== 每小时消息数量 ==========
+
+    @Test
+    public void testGetDeviceLogUpCountByHour_beforeStart() {
+        // 准备参数：开始时间在开始统计之前
+        long startTime = statisticsStartTime - 2 * HOUR_MILLIS;
+        long endTime = statisticsStartTime + HOUR_MILLIS;
+        // mock 方法：开始统计前的部分，查询设备日志
+        Map<String, Object> row = new HashMap<>();
+        row.put("time", new Timestamp(startTime));
+        row.put("data", 5L);
+        when(deviceMessageStatisticsRedisDAO.getCount(eq(1L)))
+                .thenReturn(new Count(5L, statisticsStartTime, 100L));
+        when(deviceLogMapper.selectDeviceLogUpCountByHour(isNull(), eq(startTime), eq(statisticsStartTime - 1)))
+                .thenReturn(Collections.singletonList(row));
+        // mock 方法：开始统计后的部分，读取 Redis
+        when(deviceMessageStatisticsRedisDAO.getHourCountMap(eq(1L), eq(DIRECTION_UPSTREAM),
+                eq(statisticsStartTime), eq(endTime))).thenReturn(Collections.singletonMap(statisticsStartTime, 3L));
+
+        // 调用
+        List<Map<Long, Integer>> result = deviceLogService.getDeviceLogUpCountByHour(null, startTime, endTime);
+        // 断言：两部分合并，并补齐没有消息的小时
+        assertEquals(Arrays.asList(Collections.singletonMap(startTime, 5),
+                Collections.singletonMap(startTime + HOUR_MILLIS, 0),
+                Collections.singletonMap(statisticsStartTime, 3),
+                Collections.singletonMap(endTime, 0)), result);
+    }
+
+    @Test
+    public void testGetDeviceLogDownCountByHour_deviceKey() {
+        // 准备参数
+        long startTime = statisticsStartTime;
+        long endTime = statisticsStartTime + HOUR_MILLIS;
+        // mock 方法
+        Map<String, Object> row = new HashMap<>();
+        row.put("time", new Timestamp(endTime));
+        row.put("data", 2L);
+        when(deviceLogMapper.selectDeviceLogDownCountByHour(eq("k"), eq(startTime), eq(endTime)))
+                .thenReturn(Collections.singletonList(row));
+
+        // 调用
+        List<Map<Long, Integer>> result = deviceLogService.getDeviceLogDownCountByHour("k", startTime, endTime);
+        // 断言：指定设备时，Redis 中没有统计，只查询设备日志
+        assertEquals(Arrays.asList(Collections.singletonMap(startTime, 0),
+                Collections.singletonMap(endTime, 2)), result);
+        verifyNoInteractions(deviceMessageStatisticsRedisDAO);
+    }
+
+    private static long floorHour(long time) {
+        return Math.floorDiv(time, HOUR_MILLIS) * HOUR_MILLIS;
+    }
+
+}
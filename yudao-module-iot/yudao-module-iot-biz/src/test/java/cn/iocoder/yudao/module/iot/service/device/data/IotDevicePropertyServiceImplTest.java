@@ -0,0 +1,255 @@
+package cn.iocoder.yudao.module.iot.service.device.data;
+
+import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
+import cn.iocoder.yudao.module.iot.controller.admin.device.vo.data.IotDevicePropertyHistoryAggregateReqVO;
+import cn.iocoder.yudao.module.iot.controller.admin.device.vo.data.IotDevicePropertyRespVO;
+import cn.iocoder.yudao.module.iot.controller.admin.thingmodel.model.ThingModelProperty;
+import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDeviceDO;
+import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDevicePropertyDO;
+import cn.iocoder.yudao.module.iot.dal.dataobject.product.IotProductDO;
+import cn.iocoder.yudao.module.iot.dal.dataobject.thingmodel.IotThingModelDO;
+import cn.iocoder.yudao.module.iot.dal.redis.device.DevicePropertyAggregateRedisDAO;
+import cn.iocoder.yudao.module.iot.dal.tdengine.IotDevicePropertyMapper;
+import cn.iocoder.yudao.module.iot.enums.thingmodel.IotDataSpecsDataTypeEnum;
+import cn.iocoder.yudao.module.iot.enums.thingmodel.IotThingModelTypeEnum;
+import cn.iocoder.yudao.module.iot.framework.tdengine.config.TDengineAggregateProperties;
+import cn.iocoder.yudao.module.iot.framework.tdengine.core.TDengineTableField;
+import cn.iocoder.yudao.module.iot.service.device.IotDeviceService;
+import cn.iocoder.yudao.module.iot.service.product.IotProductService;
+import cn.iocoder.yudao.module.iot.service.thingmodel.IotThingModelService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static cn.iocoder.yudao.module.iot.util.IotDevicePropertyAggregateUtils.floor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link IotDevicePropertyServiceImpl} 的单元测试
+ */
+public class IotDevicePropertyServiceImplTest extends BaseMockitoUnitTest {
+
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    @InjectMocks
+    private IotDevicePropertyServiceImpl devicePropertyService;
+
+    @Mock
+    private IotDeviceService deviceService;
+    @Mock
+    private IotThingModelService thingModelService;
+    @Mock
+    private IotProductService productService;
+    @Mock
+    private DevicePropertyAggregateRedisDAO devicePropertyAggregateRedisDAO;
+    @Mock
+    private IotDevicePropertyMapper devicePropertyMapper;
+    @Spy
+    private TDengineAggregateProperties tdengineAggregateProperties = new TDengineAggregateProperties();
+
+    @BeforeEach
+    public void setUp() {
+        tdengineAggregateProperties.setStreamEnable(true);
+    }
+
+    // ========== 定义流计算 ==========
+
+    @Test
+    public void testDefineDevicePropertyData_streamUnchanged() {
+        // mock 数据：预聚合超级表的字段，与数值类型的属性一致
+        mockProductThingModels();
+        when(devicePropertyMapper.getProductPropertySTableFieldList(eq("p1"))).thenReturn(new ArrayList<>(Arrays.asList(
+                new TDengineTableField("temperature", TDengineTableField.TYPE_DOUBLE),
+                new TDengineTableField("status", TDengineTableField.TYPE_TINYINT))));
+        when(devicePropertyMapper.getProductPropertyAggregateSTableFieldList(eq("p1"))).thenReturn(Arrays.asList(
+                new TDengineTableField(TDengineTableField.FIELD_TS, TDengineTableField.TYPE_TIMESTAMP),
+                new TDengineTableField("temperature_sum", TDengineTableField.TYPE_DOUBLE),
+                new TDengineTableField("temperature_count", "BIGINT"),
+                new TDengineTableField("temperature_last", TDengineTableField.TYPE_DOUBLE)));
+
+        // 调用
+        devicePropertyService.defineDevicePropertyData(1L);
+        // 断言：不重建流计算
+        verify(devicePropertyMapper, never()).dropProductPropertyAggregateStream(any());
+        verify(devicePropertyMapper, never()).createProductPropertyAggregateStream(any(), any(), any());
+    }
+
+    @Test
+    public void testDefineDevicePropertyData_streamChanged() {
+        // mock 数据：预聚合超级表的字段类型，与数值类型的属性不一致
+        mockProductThingModels();
+        when(devicePropertyMapper.getProductPropertySTableFieldList(eq("p1"))).thenReturn(new ArrayList<>(Arrays.asList(
+                new TDengineTableField("temperature", TDengineTableField.TYPE_INT),
+                new TDengineTableField("status", TDengineTableField.TYPE_TINYINT))));
+        when(devicePropertyMapper.getProductPropertyAggregateSTableFieldList(eq("p1"))).thenReturn(Collections.singletonList(
+                new TDengineTableField("temperature_last", TDengineTableField.TYPE_INT)));
+
+        // 调用
+        devicePropertyService.defineDevicePropertyData(1L);
+        // 断言：删除后，只为数值类型的属性重建流计算
+        verify(devicePropertyMapper).dropProductPropertyAggregateStream(eq("p1"));
+        verify(devicePropertyMapper).dropProductPropertyAggregateSTable(eq("p1"));
+        verify(devicePropertyMapper).createProductPropertyAggregateStream(eq("p1"),
+                argThat(fields -> fields.size() == 1 && "temperature".equals(fields.get(0).getField())),
+                eq(MINUTE_MILLIS));
+    }
+
+    @Test
+    public void testDefineDevicePropertyData_streamNotExists() {
+        // mock 数据：预聚合超级表不存在
+        mockProductThingModels();
+        when(devicePropertyMapper.getProductPropertyAggregateSTableFieldList(eq("p1")))
+                .thenThrow(new RuntimeException("Table does not exist"));
+
+        // 调用
+        devicePropertyService.defineDevicePropertyData(1L);
+        // 断言：创建流计算
+        verify(devicePropertyMapper).createProductPropertyAggregateStream(eq("p1"), anyList(), eq(MINUTE_MILLIS));
+    }
+
+    // ========== 聚合查询的缓存 ==========
+
+    @Test
+    public void testGetHistoryDevicePropertyAggregateList_rawCached() {
+        // 准备参数：5 个已经关闭的 1 分钟窗口
+        tdengineAggregateProperties.setStreamEnable(false);
+        IotDevicePropertyHistoryAggregateReqVO reqVO = buildAggregateReqVO();
+        long firstWindow = floor(System.currentTimeMillis(), MINUTE_MILLIS) - 10 * MINUTE_MILLIS;
+        // mock 数据
+        mockDeviceThingModels();
+        when(devicePropertyMapper.selectListByHistoryAggregate(eq("d1"), eq("temperature"), eq("avg"),
+                anyLong(), anyLong(), eq(MINUTE_MILLIS))).thenReturn(Collections.singletonList(aggregate(firstWindow, 1.5)));
+
+        // 调用
+        List<IotDevicePropertyRespVO> list = devicePropertyService.getHistoryDevicePropertyAggregateList(reqVO);
+        // 断言：原始数据聚合的窗口写入缓存，没有数据的窗口使用空字符串占位
+        assertEquals(1, list.size());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Long, String>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(devicePropertyAggregateRedisDAO).putAll(eq("d1"), eq("temperature"), eq("avg"), eq(MINUTE_MILLIS),
+                captor.capture(), any());
+        Map<Long, String> cachedValues = captor.getValue();
+        assertEquals("1.5", cachedValues.get(firstWindow));
+        assertEquals("", cachedValues.get(firstWindow + MINUTE_MILLIS));
+    }
+
+    @Test
+    public void testGetHistoryDevicePropertyAggregateList_streamNotCached() {
+        // 准备参数：5 个已经关闭的 1 分钟窗口
+        IotDevicePropertyHistoryAggregateReqVO reqVO = buildAggregateReqVO();
+        long firstWindow = floor(System.currentTimeMillis(), MINUTE_MILLIS) - 10 * MINUTE_MILLIS;
+        // mock 数据
+        mockDeviceThingModels();
+        when(devicePropertyMapper.selectListByHistoryStreamAggregate(eq("p1"), eq("d1"), eq("temperature"), eq("avg"),
+                anyLong(), anyLong(), eq(MINUTE_MILLIS))).thenReturn(Collections.singletonList(aggregate(firstWindow, 1.5)));
+
+        // 调用
+        List<IotDevicePropertyRespVO> list = devicePropertyService.getHistoryDevicePropertyAggregateList(reqVO);
+        // 断言：从预聚合查询，但不写入缓存
+        assertEquals(1, list.size());
+        assertEquals(1.5, list.get(0).getValue());
+        verify(devicePropertyMapper, never()).selectListByHistoryAggregate(any(), any(), any(), any(), any(), any());
+        verify(devicePropertyAggregateRedisDAO, never()).putAll(any(), any(), any(), anyLong(), any(), any());
+    }
+
+    private void mockProductThingModels() {
+        when(productService.validateProductExists(eq(1L))).thenReturn(IotProductDO.builder().id(1L).productKey("p1").build());
+        when(thingModelService.getThingModelListByProductId(eq(1L))).thenReturn(Arrays.asList(
+                thingModel("temperature", IotDataSpecsDataTypeEnum.DOUBLE),
+                thingModel("status", IotDataSpecsDataTypeEnum.ENUM)));
+    }
+
+    private void mockDeviceThingModels() {
+        when(deviceService.validateDeviceExists(eq(1L))).thenReturn(IotDeviceDO.builder().id(1L)
+                .productKey("p1").deviceKey("d1").build());
+        when(thingModelService.getThingModelMapByProductKeyFromCache(eq("p1"))).thenReturn(
+                Collections.singletonMap("temperature", thingModel("temperature", IotDataSpecsDataTypeEnum.DOUBLE)));
+    }
+
+    private static IotDevicePropertyHistoryAggregateReqVO buildAggregateReqVO() {
+        LocalDateTime now = LocalDateTime.now();
+        IotDevicePropertyHistoryAggregateReqVO reqVO = new IotDevicePropertyHistoryAggregateReqVO();
+        reqVO.setDeviceId(1L);
+        reqVO.setIdentifier("temperature");
+        reqVO.setTimes(new LocalDateTime[]{now.minusMinutes(10), now.minusMinutes(5)});
+        reqVO.setInterval(60L);
+        return reqVO;
+    }
+
+    private static IotThingModelDO thingModel(String identifier, IotDataSpecsDataTypeEnum dataType) {
+        ThingModelProperty property = new ThingModelProperty();
+        property.setIdentifier(identifier);
+        property.setDataType(dataType.getDataType());
+        return IotThingModelDO.builder().identifier(identifier).type(IotThingModelTypeEnum.PROPERTY.getType())
+                .property(property).build();
+    }
+
+    private static IotDevicePropertyRespVO aggregate(long window, Object value) {
+        IotDevicePropertyRespVO respVO = new IotDevicePropertyRespVO();
+        respVO.setUpdateTime(window);
+        respVO.setValue(value);
+        return respVO;
+    }
+
+    // ========== 合并最新属性 ==========
+
+    @Test
+    public void testMergeLatestProperties() {
+        // 准备参数
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, IotDevicePropertyDO> oldProperties = new HashMap<>();
+        oldProperties.put("temperature", property(1, now));
+        oldProperties.put("humidity", property(2, now));
+        oldProperties.put("power", property(3, now));
+        Map<String, IotDevicePropertyDO> newProperties = new HashMap<>();
+        newProperties.put("temperature", property(10, now.plusSeconds(1)));
+        newProperties.put("humidity", property(20, now.minusSeconds(1)));
+        newProperties.put("voltage", property(40, now));
+
+        // 调用
+        Map<String, IotDevicePropertyDO> result = IotDevicePropertyServiceImpl.mergeLatestProperties(
+                oldProperties, newProperties);
+        // 断言：按照更新时间，保留较新的值
+        assertEquals(4, result.size());
+        assertEquals(10, result.get("temperature").getValue());
+        assertEquals(2, result.get("humidity").getValue());
+        assertEquals(3, result.get("power").getValue());
+        assertEquals(40, result.get("voltage").getValue());
+    }
+
+    @Test
+    public void testMergeLatestProperties_nullUpdateTime() {
+        // 准备参数
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, IotDevicePropertyDO> oldProperties = new HashMap<>();
+        oldProperties.put("temperature", property(1, null));
+        oldProperties.put("humidity", property(2, now));
+        oldProperties.put("power", property(3, null));
+        Map<String, IotDevicePropertyDO> newProperties = new HashMap<>();
+        newProperties.put("temperature", property(10, now));
+        newProperties.put("humidity", property(20, null));
+        newProperties.put("power", property(30, null));
+
+        // 调用
+        Map<String, IotDevicePropertyDO> result = IotDevicePropertyServiceImpl.mergeLatestProperties(
+                oldProperties, newProperties);
+        // 断言：更新时间为空时，视为更旧；都为空时，保留后上报的值
+        assertEquals(10, result.get("temperature").getValue());
+        assertEquals(2, result.get("humidity").getValue());
+        assertEquals(30, result.get("power").getValue());
+    }
+
+    private static IotDevicePropertyDO property(Object value, LocalDateTime updateTime) {
+        return IotDevicePropertyDO.builder().value(value).updateTime(updateTime).build();
+    }
+
+}
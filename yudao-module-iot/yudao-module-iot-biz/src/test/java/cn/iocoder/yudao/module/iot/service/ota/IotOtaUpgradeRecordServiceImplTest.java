@@ -0,0 +1,127 @@
+package cn.iocoder.yudao.module.iot.service.ota;
+
+import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
+import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.IotDeviceOtaProgressReqDTO;
+import cn.iocoder.yudao.module.iot.dal.dataobject.ota.IotOtaUpgradeRecordDO;
+import cn.iocoder.yudao.module.iot.dal.mysql.ota.IotOtaUpgradeRecordMapper;
+import cn.iocoder.yudao.module.iot.dal.redis.ota.OtaUpgradeRecordCountRedisDAO;
+import cn.iocoder.yudao.module.iot.enums.ota.IotOtaUpgradeRecordStatusEnum;
+import cn.iocoder.yudao.module.iot.framework.ota.config.IotOtaUpgradeProperties;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link IotOtaUpgradeRecordServiceImpl} 的单元测试
+ */
+public class IotOtaUpgradeRecordServiceImplTest extends BaseMockitoUnitTest {
+
+    @InjectMocks
+    private IotOtaUpgradeRecordServiceImpl upgradeRecordService;
+
+    @Mock
+    private IotOtaUpgradeRecordMapper upgradeRecordMapper;
+    @Mock
+    private OtaUpgradeRecordCountRedisDAO upgradeRecordCountRedisDAO;
+    @Spy
+    private IotOtaUpgradeProperties otaUpgradeProperties = new IotOtaUpgradeProperties();
+
+    @Test
+    public void testUpdateUpgradeRecordProgressBatch() {
+        // mock 数据：设备 a 推送中，设备 b 升级中，设备 c 没有升级记录
+        IotOtaUpgradeRecordDO recordA = new IotOtaUpgradeRecordDO().setId(1L).setFirmwareId(10L).setTaskId(100L)
+                .setProductKey("p").setDeviceName("a").setStatus(IotOtaUpgradeRecordStatusEnum.PUSHED.getStatus());
+        IotOtaUpgradeRecordDO recordB = new IotOtaUpgradeRecordDO().setId(2L).setFirmwareId(10L).setTaskId(100L)
+                .setProductKey("p").setDeviceName("b").setStatus(IotOtaUpgradeRecordStatusEnum.UPGRADING.getStatus());
+        when(upgradeRecordMapper.selectListByFirmwareIdAndDeviceNamesAndStatus(eq(10L), anyCollection(), anyCollection()))
+                .thenReturn(Arrays.asList(recordA, recordB));
+        when(upgradeRecordMapper.updateByIdAndStatus(anyLong(), anyInt(), any())).thenReturn(1);
+        // 准备参数
+        List<IotDeviceOtaProgressReqDTO> progresses = Arrays.asList(
+                buildProgress("a", null, 30),
+                buildProgress("b", IotOtaUpgradeRecordStatusEnum.SUCCESS.getStatus(), 100),
+                buildProgress("c", null, 50));
+
+        // 调用
+        upgradeRecordService.updateUpgradeRecordProgressBatch(progresses);
+        // 断言：按照查询时的状态更新，a 升级中，b 升级成功
+        ArgumentCaptor<IotOtaUpgradeRecordDO> updateCaptorA = ArgumentCaptor.forClass(IotOtaUpgradeRecordDO.class);
+        verify(upgradeRecordMapper).updateByIdAndStatus(eq(1L), eq(IotOtaUpgradeRecordStatusEnum.PUSHED.getStatus()),
+                updateCaptorA.capture());
+        assertEquals(IotOtaUpgradeRecordStatusEnum.UPGRADING.getStatus(), updateCaptorA.getValue().getStatus());
+        assertEquals(30, updateCaptorA.getValue().getProgress());
+        assertNotNull(updateCaptorA.getValue().getStartTime());
+        assertNull(updateCaptorA.getValue().getEndTime());
+        ArgumentCaptor<IotOtaUpgradeRecordDO> updateCaptorB = ArgumentCaptor.forClass(IotOtaUpgradeRecordDO.class);
+        verify(upgradeRecordMapper).updateByIdAndStatus(eq(2L), eq(IotOtaUpgradeRecordStatusEnum.UPGRADING.getStatus()),
+                updateCaptorB.capture());
+        assertEquals(IotOtaUpgradeRecordStatusEnum.SUCCESS.getStatus(), updateCaptorB.getValue().getStatus());
+        assertNotNull(updateCaptorB.getValue().getEndTime());
+        // 断言：计数 PUSHED -1，UPGRADING 0（+1 -1），SUCCESS +1
+        Map<Integer, Long> expectedDeltas = new HashMap<>();
+        expectedDeltas.put(IotOtaUpgradeRecordStatusEnum.PUSHED.getStatus(), -1L);
+        expectedDeltas.put(IotOtaUpgradeRecordStatusEnum.UPGRADING.getStatus(), 0L);
+        expectedDeltas.put(IotOtaUpgradeRecordStatusEnum.SUCCESS.getStatus(), 1L);
+        verify(upgradeRecordCountRedisDAO).increment(OtaUpgradeRecordCountRedisDAO.TYPE_TASK, 100L, expectedDeltas);
+        verify(upgradeRecordCountRedisDAO).increment(OtaUpgradeRecordCountRedisDAO.TYPE_FIRMWARE, 10L, expectedDeltas);
+    }
+
+    @Test
+    public void testUpdateUpgradeRecordProgressBatch_statusChanged() {
+        // mock 数据：设备 a 推送中，设备 b 推送中，但 b 在查询后状态已经变化
+        IotOtaUpgradeRecordDO recordA = new IotOtaUpgradeRecordDO().setId(1L).setFirmwareId(10L).setTaskId(100L)
+                .setProductKey("p").setDeviceName("a").setStatus(IotOtaUpgradeRecordStatusEnum.PUSHED.getStatus());
+        IotOtaUpgradeRecordDO recordB = new IotOtaUpgradeRecordDO().setId(2L).setFirmwareId(10L).setTaskId(100L)
+                .setProductKey("p").setDeviceName("b").setStatus(IotOtaUpgradeRecordStatusEnum.PUSHED.getStatus());
+        when(upgradeRecordMapper.selectListByFirmwareIdAndDeviceNamesAndStatus(eq(10L), anyCollection(), anyCollection()))
+                .thenReturn(Arrays.asList(recordA, recordB));
+        when(upgradeRecordMapper.updateByIdAndStatus(eq(1L), anyInt(), any())).thenReturn(1);
+        when(upgradeRecordMapper.updateByIdAndStatus(eq(2L), anyInt(), any())).thenReturn(0);
+        // 准备参数
+        List<IotDeviceOtaProgressReqDTO> progresses = Arrays.asList(
+                buildProgress("a", IotOtaUpgradeRecordStatusEnum.FAILURE.getStatus(), 10),
+                buildProgress("b", IotOtaUpgradeRecordStatusEnum.FAILURE.getStatus(), 10));
+
+        // 调用
+        upgradeRecordService.updateUpgradeRecordProgressBatch(progresses);
+        // 断言：只累加实际更新的 a 的计数
+        Map<Integer, Long> expectedDeltas = new HashMap<>();
+        expectedDeltas.put(IotOtaUpgradeRecordStatusEnum.PUSHED.getStatus(), -1L);
+        expectedDeltas.put(IotOtaUpgradeRecordStatusEnum.FAILURE.getStatus(), 1L);
+        verify(upgradeRecordCountRedisDAO).increment(OtaUpgradeRecordCountRedisDAO.TYPE_TASK, 100L, expectedDeltas);
+        verify(upgradeRecordCountRedisDAO).increment(OtaUpgradeRecordCountRedisDAO.TYPE_FIRMWARE, 10L, expectedDeltas);
+    }
+
+    @Test
+    public void testGetOtaUpgradeRecordStatistics_loadWhenAbsent() {
+        // mock 数据
+        Map<Integer, Long> dbCounts = new HashMap<>();
+        dbCounts.put(IotOtaUpgradeRecordStatusEnum.SUCCESS.getStatus(), 3L);
+        when(upgradeRecordCountRedisDAO.get(OtaUpgradeRecordCountRedisDAO.TYPE_FIRMWARE, 10L)).thenReturn(null);
+        when(upgradeRecordMapper.selectCountMapGroupByStatus(10L, null, null)).thenReturn(dbCounts);
+
+        // 调用
+        Map<Integer, Long> counts = upgradeRecordService.getOtaUpgradeRecordStatistics(10L);
+        // 断言：补全所有状态，并写入 Redis
+        assertEquals(IotOtaUpgradeRecordStatusEnum.values().length, counts.size());
+        assertEquals(3L, counts.get(IotOtaUpgradeRecordStatusEnum.SUCCESS.getStatus()));
+        assertEquals(0L, counts.get(IotOtaUpgradeRecordStatusEnum.PENDING.getStatus()));
+        verify(upgradeRecordCountRedisDAO).set(eq(OtaUpgradeRecordCountRedisDAO.TYPE_FIRMWARE), eq(10L), eq(counts), any());
+    }
+
+    private static IotDeviceOtaProgressReqDTO buildProgress(String deviceName, Integer status, Integer progress) {
+        IotDeviceOtaProgressReqDTO progressReqDTO = new IotDeviceOtaProgressReqDTO()
+                .setFirmwareId(10L).setStatus(status).setProgress(progress);
+        progressReqDTO.setProductKey("p").setDeviceName(deviceName);
+        return progressReqDTO;
+    }
+
+}
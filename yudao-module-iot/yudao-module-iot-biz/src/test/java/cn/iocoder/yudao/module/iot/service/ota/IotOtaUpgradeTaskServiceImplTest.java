@@ -0,0 +1,136 @@
+package cn.iocoder.yudao.module.iot.service.ota;
+
+import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
+import cn.iocoder.yudao.module.iot.dal.dataobject.device.IotDeviceDO;
+import cn.iocoder.yudao.module.iot.dal.dataobject.ota.IotOtaFirmwareDO;
+import cn.iocoder.yudao.module.iot.dal.dataobject.ota.IotOtaUpgradeRecordDO;
+import cn.iocoder.yudao.module.iot.dal.dataobject.ota.IotOtaUpgradeTaskDO;
+import cn.iocoder.yudao.module.iot.dal.mysql.ota.IotOtaUpgradeTaskMapper;
+import cn.iocoder.yudao.module.iot.enums.ota.IotOtaUpgradeRecordStatusEnum;
+import cn.iocoder.yudao.module.iot.enums.ota.IotOtaUpgradeTaskStatusEnum;
+import cn.iocoder.yudao.module.iot.framework.ota.config.IotOtaUpgradeProperties;
+import cn.iocoder.yudao.module.iot.service.device.IotDeviceService;
+import cn.iocoder.yudao.module.iot.service.device.control.IotDeviceDownstreamService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link IotOtaUpgradeTaskServiceImpl} 的单元测试
+ */
+public class IotOtaUpgradeTaskServiceImplTest extends BaseMockitoUnitTest {
+
+    @InjectMocks
+    private IotOtaUpgradeTaskServiceImpl upgradeTaskService;
+
+    @Mock
+    private IotOtaUpgradeTaskMapper upgradeTaskMapper;
+    @Mock
+    private IotDeviceService deviceService;
+    @Mock
+    private IotOtaFirmwareService firmwareService;
+    @Mock
+    private IotOtaUpgradeRecordService upgradeRecordService;
+    @Mock
+    private IotDeviceDownstreamService deviceDownstreamService;
+    @Spy
+    private IotOtaUpgradeProperties otaUpgradeProperties = new IotOtaUpgradeProperties().setPushRate(1000D);
+
+    @BeforeEach
+    public void setUp() {
+        upgradeTaskService.initPushRateLimiter();
+    }
+
+    @Test
+    public void testPushUpgradeTask_markPushedBeforePush() {
+        // mock 数据：记录 1 正常推送，记录 2 在推送前被取消
+        IotOtaUpgradeTaskDO upgradeTask = new IotOtaUpgradeTaskDO().setId(100L).setFirmwareId(10L);
+        IotOtaUpgradeRecordDO record1 = new IotOtaUpgradeRecordDO().setId(1L).setTaskId(100L).setDeviceId("1");
+        IotOtaUpgradeRecordDO record2 = new IotOtaUpgradeRecordDO().setId(2L).setTaskId(100L).setDeviceId("2");
+        when(upgradeRecordService.getUpgradeRecordListByTaskIdAndStatus(eq(100L),
+                eq(IotOtaUpgradeRecordStatusEnum.PENDING.getStatus()), anyInt())).thenReturn(Arrays.asList(record1, record2));
+        when(firmwareService.getOtaFirmware(10L)).thenReturn(new IotOtaFirmwareDO().setId(10L).setVersion("1.0.1"));
+        when(deviceService.getDeviceListByIdList(anyList())).thenReturn(Arrays.asList(
+                buildDevice(1L), buildDevice(2L)));
+        when(upgradeRecordService.updateUpgradeRecordStatus(eq(Collections.singletonList(record1)),
+                eq(IotOtaUpgradeRecordStatusEnum.PENDING.getStatus()), any())).thenReturn(1);
+        when(upgradeRecordService.updateUpgradeRecordStatus(eq(Collections.singletonList(record2)),
+                eq(IotOtaUpgradeRecordStatusEnum.PENDING.getStatus()), any())).thenReturn(0);
+
+        // 调用
+        int pushedCount = upgradeTaskService.pushUpgradeTask(upgradeTask);
+        // 断言：先标记为已推送，再推送；被取消的记录不推送
+        assertEquals(1, pushedCount);
+        ArgumentCaptor<IotOtaUpgradeRecordDO> updateCaptor = ArgumentCaptor.forClass(IotOtaUpgradeRecordDO.class);
+        InOrder inOrder = inOrder(upgradeRecordService, deviceDownstreamService);
+        inOrder.verify(upgradeRecordService).updateUpgradeRecordStatus(eq(Collections.singletonList(record1)),
+                eq(IotOtaUpgradeRecordStatusEnum.PENDING.getStatus()), updateCaptor.capture());
+        inOrder.verify(deviceDownstreamService).downstreamDevice(argThat(reqVO -> reqVO.getId() == 1L));
+        assertEquals(IotOtaUpgradeRecordStatusEnum.PUSHED.getStatus(), updateCaptor.getValue().getStatus());
+        verify(deviceDownstreamService, never()).downstreamDevice(argThat(reqVO -> reqVO.getId() == 2L));
+    }
+
+    @Test
+    public void testPushUpgradeTask_pushFail() {
+        // mock 数据
+        IotOtaUpgradeTaskDO upgradeTask = new IotOtaUpgradeTaskDO().setId(100L).setFirmwareId(10L);
+        IotOtaUpgradeRecordDO record1 = new IotOtaUpgradeRecordDO().setId(1L).setTaskId(100L).setDeviceId("1");
+        when(upgradeRecordService.getUpgradeRecordListByTaskIdAndStatus(eq(100L),
+                eq(IotOtaUpgradeRecordStatusEnum.PENDING.getStatus()), anyInt())).thenReturn(Collections.singletonList(record1));
+        when(firmwareService.getOtaFirmware(10L)).thenReturn(new IotOtaFirmwareDO().setId(10L).setVersion("1.0.1"));
+        when(deviceService.getDeviceListByIdList(anyList())).thenReturn(Collections.singletonList(
+                buildDevice(1L)));
+        when(upgradeRecordService.updateUpgradeRecordStatus(anyCollection(),
+                eq(IotOtaUpgradeRecordStatusEnum.PENDING.getStatus()), any())).thenReturn(1);
+        doThrow(new IllegalStateException("模拟推送失败")).when(deviceDownstreamService).downstreamDevice(any());
+
+        // 调用
+        int pushedCount = upgradeTaskService.pushUpgradeTask(upgradeTask);
+        // 断言：推送失败时，从已推送更新为升级失败
+        assertEquals(0, pushedCount);
+        ArgumentCaptor<IotOtaUpgradeRecordDO> updateCaptor = ArgumentCaptor.forClass(IotOtaUpgradeRecordDO.class);
+        verify(upgradeRecordService).updateUpgradeRecordStatus(eq(Collections.singletonList(record1)),
+                eq(IotOtaUpgradeRecordStatusEnum.PUSHED.getStatus()), updateCaptor.capture());
+        assertEquals(IotOtaUpgradeRecordStatusEnum.FAILURE.getStatus(), updateCaptor.getValue().getStatus());
+        assertTrue(updateCaptor.getValue().getDescription().contains("模拟推送失败"));
+    }
+
+    @Test
+    public void testPushUpgradeTask_finish() {
+        // mock 数据：没有待推送的记录，数据库统计全部结束，但有一个失败
+        IotOtaUpgradeTaskDO upgradeTask = new IotOtaUpgradeTaskDO().setId(100L).setFirmwareId(10L);
+        when(upgradeRecordService.getUpgradeRecordListByTaskIdAndStatus(eq(100L),
+                eq(IotOtaUpgradeRecordStatusEnum.PENDING.getStatus()), anyInt())).thenReturn(Collections.emptyList());
+        Map<Integer, Long> counts = new HashMap<>();
+        for (Integer status : IotOtaUpgradeRecordStatusEnum.ARRAYS) {
+            counts.put(status, 0L);
+        }
+        counts.put(IotOtaUpgradeRecordStatusEnum.SUCCESS.getStatus(), 2L);
+        counts.put(IotOtaUpgradeRecordStatusEnum.FAILURE.getStatus(), 1L);
+        when(upgradeRecordService.getOtaUpgradeRecordCountByTaskId(100L)).thenReturn(counts);
+
+        // 调用
+        int pushedCount = upgradeTaskService.pushUpgradeTask(upgradeTask);
+        // 断言：升级任务结束为未完成
+        assertEquals(0, pushedCount);
+        verify(upgradeTaskMapper).updateById(argThat((IotOtaUpgradeTaskDO task) -> task.getId() == 100L
+                && Objects.equals(task.getStatus(), IotOtaUpgradeTaskStatusEnum.INCOMPLETE.getStatus())));
+    }
+
+    private static IotDeviceDO buildDevice(Long id) {
+        IotDeviceDO device = new IotDeviceDO().setId(id);
+        device.setTenantId(1L);
+        return device;
+    }
+
+}
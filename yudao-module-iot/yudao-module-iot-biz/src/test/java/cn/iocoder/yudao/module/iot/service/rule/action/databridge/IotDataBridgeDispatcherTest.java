@@ -0,0 +1,123 @@
+package cn.iocoder.yudao.module.iot.service.rule.action.databridge;
+
+import cn.hutool.core.util.ReflectUtil;
+import cn.iocoder.yudao.module.iot.controller.admin.rule.vo.databridge.config.IotDataBridgeHttpConfig;
+import cn.iocoder.yudao.module.iot.dal.dataobject.rule.IotDataBridgeDO;
+import cn.iocoder.yudao.module.iot.enums.rule.IotDataBridgeTypeEnum;
+import cn.iocoder.yudao.module.iot.framework.databridge.config.IotDataBridgeProperties;
+import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link IotDataBridgeDispatcher} 的单元测试
+ */
+public class IotDataBridgeDispatcherTest {
+
+    private final IotDataBridgeProperties properties = new IotDataBridgeProperties();
+    private final List<List<IotDeviceMessage>> batches = new CopyOnWriteArrayList<>();
+    private final CountDownLatch blockLatch = new CountDownLatch(1);
+    private volatile boolean block;
+
+    private final IotDataBridgeDispatcher dispatcher = new IotDataBridgeDispatcher();
+
+    private void init() {
+        IotDataBridgeExecute<IotDataBridgeHttpConfig> execute = new IotDataBridgeExecute<IotDataBridgeHttpConfig>() {
+
+            @Override
+            public Integer getType() {
+                return IotDataBridgeTypeEnum.HTTP.getType();
+            }
+
+            @Override
+            public void execute0(IotDeviceMessage message, IotDataBridgeHttpConfig config) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int execute0(List<IotDeviceMessage> messages, IotDataBridgeHttpConfig config) throws Exception {
+                if (block) {
+                    blockLatch.await(5, TimeUnit.SECONDS);
+                }
+                batches.add(messages);
+                return 0;
+            }
+
+        };
+        ReflectUtil.setFieldValue(dispatcher, "dataBridgeProperties", properties);
+        ReflectUtil.setFieldValue(dispatcher, "dataBridgeExecutes", Collections.singletonList(execute));
+        dispatcher.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        blockLatch.countDown();
+        dispatcher.destroy();
+    }
+
+    @Test
+    public void testDispatch_asyncBatch() {
+        // 准备参数：攒批时长足够长，保证在关闭前合并成一批
+        properties.setFlushInterval(Duration.ofSeconds(1L));
+        init();
+        IotDataBridgeDO dataBridge = buildDataBridge("http://127.0.0.1/a");
+
+        // 调用
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(IotDeviceMessage.builder().requestId(String.valueOf(i)).build(), dataBridge);
+        }
+        dispatcher.destroy();
+        // 断言
+        assertEquals(1, batches.size());
+        assertEquals(10, batches.get(0).size());
+    }
+
+    @Test
+    public void testDispatch_slowBridgeNotBlock() {
+        // 准备参数：目标阻塞，队列容量为 2
+        properties.setCapacity(2).setBatchSize(1).setFlushInterval(Duration.ofMillis(10L));
+        block = true;
+        init();
+        IotDataBridgeDO dataBridge = buildDataBridge("http://127.0.0.1/slow");
+
+        // 调用：发送方不被阻塞，超过容量的消息被丢弃
+        long startTime = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            dispatcher.dispatch(IotDeviceMessage.builder().requestId(String.valueOf(i)).build(), dataBridge);
+        }
+        // 断言
+        assertTrue(System.nanoTime() - startTime < TimeUnit.SECONDS.toNanos(1L));
+        blockLatch.countDown();
+        dispatcher.destroy();
+        assertTrue(batches.size() <= 3);
+    }
+
+    @Test
+    public void testDispatch_sync() {
+        // 准备参数
+        properties.setAsync(false);
+        init();
+
+        // 调用
+        dispatcher.dispatch(IotDeviceMessage.builder().requestId("1").build(), buildDataBridge("http://127.0.0.1/b"));
+        // 断言：在调用线程中直接发送
+        assertEquals(1, batches.size());
+    }
+
+    private static IotDataBridgeDO buildDataBridge(String url) {
+        IotDataBridgeHttpConfig config = new IotDataBridgeHttpConfig();
+        config.setUrl(url);
+        config.setMethod("POST");
+        return IotDataBridgeDO.builder().id(1L).type(IotDataBridgeTypeEnum.HTTP.getType()).config(config).build();
+    }
+
+}
@@ -0,0 +1,118 @@
+package cn.iocoder.yudao.module.iot.service.rule.action.databridge;
+
+import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
+import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
+import cn.iocoder.yudao.module.iot.controller.admin.rule.vo.databridge.config.IotDataBridgeHttpConfig;
+import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link IotHttpDataBridgeExecute} 的单元测试
+ */
+public class IotHttpDataBridgeExecuteTest extends BaseMockitoUnitTest {
+
+    @InjectMocks
+    private IotHttpDataBridgeExecute httpDataBridgeExecute;
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Test
+    public void testExecute0_batchNotConfigured() throws Exception {
+        // mock 方法
+        mockExchangeSuccess();
+        // 准备参数：未配置 batch 的旧配置
+        IotDataBridgeHttpConfig config = buildConfig(null);
+
+        // 调用
+        int failedCount = httpDataBridgeExecute.execute0(buildMessages(2), config);
+        // 断言：逐条发送，请求体为 message 字段
+        assertEquals(0, failedCount);
+        List<Map<String, Object>> bodies = captureRequestBodies(2);
+        bodies.forEach(body -> {
+            assertTrue(body.containsKey("message"));
+            assertFalse(body.containsKey("messages"));
+        });
+    }
+
+    @Test
+    public void testExecute0_batchSingleMessage() throws Exception {
+        // mock 方法
+        mockExchangeSuccess();
+        // 准备参数：开启批量推送，但只有 1 条消息
+        IotDataBridgeHttpConfig config = buildConfig(true);
+
+        // 调用
+        int failedCount = httpDataBridgeExecute.execute0(buildMessages(1), config);
+        // 断言：请求体仍然为 messages 数组
+        assertEquals(0, failedCount);
+        Map<String, Object> body = captureRequestBodies(1).get(0);
+        assertEquals(1, ((List<?>) body.get("messages")).size());
+        assertFalse(body.containsKey("message"));
+    }
+
+    @Test
+    public void testExecute0_notBatchPartialFailure() throws Exception {
+        // mock 方法：第 2 条发送失败
+        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(), eq(String.class)))
+                .thenReturn(new ResponseEntity<>("ok", HttpStatus.OK))
+                .thenThrow(new ResourceAccessException("模拟超时"))
+                .thenReturn(new ResponseEntity<>("ok", HttpStatus.OK));
+        // 准备参数
+        IotDataBridgeHttpConfig config = buildConfig(false);
+
+        // 调用
+        int failedCount = httpDataBridgeExecute.execute0(buildMessages(3), config);
+        // 断言：失败后继续发送后续的消息，并返回失败的数量
+        assertEquals(1, failedCount);
+        verify(restTemplate, times(3)).exchange(anyString(), any(HttpMethod.class), any(), eq(String.class));
+    }
+
+    private void mockExchangeSuccess() {
+        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(), eq(String.class)))
+                .thenReturn(new ResponseEntity<>("ok", HttpStatus.OK));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<Map<String, Object>> captureRequestBodies(int times) {
+        ArgumentCaptor<HttpEntity> captor = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, times(times)).exchange(anyString(), eq(HttpMethod.POST), captor.capture(), eq(String.class));
+        return (List) convertList(captor.getAllValues(),
+                entity -> JsonUtils.parseObject((String) entity.getBody(), Map.class));
+    }
+
+    private static IotDataBridgeHttpConfig buildConfig(Boolean batch) {
+        IotDataBridgeHttpConfig config = new IotDataBridgeHttpConfig();
+        config.setUrl("http://127.0.0.1/bridge");
+        config.setMethod("POST");
+        config.setBatch(batch);
+        return config;
+    }
+
+    private static List<IotDeviceMessage> buildMessages(int count) {
+        List<IotDeviceMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(IotDeviceMessage.builder().requestId(String.valueOf(i)).tenantId(1L).build());
+        }
+        return messages;
+    }
+
+}
@@ -0,0 +1,74 @@
+package cn.iocoder.yudao.module.iot.service.rule.trigger;
+
+import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
+import cn.iocoder.yudao.module.iot.dal.dataobject.rule.IotRuleSceneDO;
+import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link IotRuleSceneParameterMatcher} 的单元测试
+ *
+ * 以原先基于 Spring 表达式的匹配逻辑为对照，保证编译后的匹配结果一致
+ */
+public class IotRuleSceneParameterMatcherTest extends BaseMockitoUnitTest {
+
+    private static final String[][] OPERATOR_VALUES = {
+            {"=", "1"}, {"=", "abc"}, {"!=", "2"}, {"!=", "abc"},
+            {">", "0"}, {">", "10"}, {">", "b"}, {">=", "1"}, {"<", "2"}, {"<", "a"}, {"<=", "1"},
+            {"in", "1,2,3"}, {"in", "abc, def"}, {"not in", "0,2,3"},
+            {"between", "1,3"}, {"between", "-1, 0.5"}, {"not between", "2,3"}, {"not between", "a,c"},
+            {"like", "b"}, {"not null", ""}
+    };
+    private static final Object[] SOURCES = {"1", "2", "10", "0.5", "-3", "abc", "b", "", 1, 3, 0.5D};
+
+    @BeforeAll
+    public static void initSpringExpressionContext() {
+        IotRuleSceneTriggerIndexBenchmark.initSpringExpressionContext();
+    }
+
+    @Test
+    public void testMatches_sameAsSpringExpression() {
+        for (String[] operatorValue : OPERATOR_VALUES) {
+            IotRuleSceneDO.TriggerConditionParameter parameter = buildParameter(operatorValue[0], operatorValue[1]);
+            IotRuleSceneParameterMatcher matcher = IotRuleSceneParameterMatcher.compile(parameter);
+            for (Object source : SOURCES) {
+                IotDeviceMessage message = IotDeviceMessage.builder()
+                        .data(Collections.singletonMap("width", source)).build();
+                assertEquals(IotRuleSceneTriggerIndexBenchmark.matchesBySpringExpression(message, parameter),
+                        matcher.matches((Map<?, ?>) message.getData()),
+                        String.format("source(%s) %s value(%s)", source, operatorValue[0], operatorValue[1]));
+            }
+        }
+    }
+
+    @Test
+    public void testMatches_numberEquals() {
+        // 特殊：数字按照数值比较，与 Spring 表达式按照字符串比较不同
+        IotRuleSceneParameterMatcher matcher = IotRuleSceneParameterMatcher.compile(buildParameter("=", "1"));
+        assertTrue(matcher.matches(Collections.singletonMap("width", 1.0D)));
+        assertFalse(matcher.matches(Collections.singletonMap("height", 1)));
+    }
+
+    @Test
+    public void testCompile_invalid() {
+        assertThrows(IllegalArgumentException.class,
+                () -> IotRuleSceneParameterMatcher.compile(buildParameter("~", "1")));
+        assertThrows(IllegalArgumentException.class,
+                () -> IotRuleSceneParameterMatcher.compile(buildParameter("between", "1")));
+    }
+
+    private static IotRuleSceneDO.TriggerConditionParameter buildParameter(String operator, String value) {
+        IotRuleSceneDO.TriggerConditionParameter parameter = new IotRuleSceneDO.TriggerConditionParameter();
+        parameter.setIdentifier("width");
+        parameter.setOperator(operator);
+        parameter.setValue(value);
+        return parameter;
+    }
+
+}
@@ -0,0 +1,185 @@
+package cn.iocoder.yudao.module.iot.service.rule.trigger;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.text.CharPool;
+import cn.hutool.core.util.NumberUtil;
+import cn.hutool.core.util.ObjUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.extra.spring.SpringUtil;
+import cn.iocoder.yudao.framework.common.enums.CommonStatusEnum;
+import cn.iocoder.yudao.framework.common.util.number.NumberUtils;
+import cn.iocoder.yudao.framework.common.util.object.ObjectUtils;
+import cn.iocoder.yudao.framework.common.util.spring.SpringExpressionUtils;
+import cn.iocoder.yudao.module.iot.dal.dataobject.rule.IotRuleSceneDO;
+import cn.iocoder.yudao.module.iot.enums.device.IotDeviceMessageIdentifierEnum;
+import cn.iocoder.yudao.module.iot.enums.device.IotDeviceMessageTypeEnum;
+import cn.iocoder.yudao.module.iot.enums.rule.IotRuleSceneTriggerConditionParameterOperatorEnum;
+import cn.iocoder.yudao.module.iot.enums.rule.IotRuleSceneTriggerTypeEnum;
+import cn.iocoder.yudao.module.iot.mq.message.IotDeviceMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.filterList;
+
+/**
+ * {@link IotRuleSceneTriggerIndex} 的 JMH 基准测试：对比「编译后的触发器索引」和「原先的全量遍历 + Spring 表达式」匹配一条消息的耗时
+ *
+ * 每个产品 {@link #ruleScenesPerProduct} 个规则场景，每个规则场景 1 个属性上报条件，条件有 {@link #PARAMETER_OPERATORS} 个参数；
+ * 运行方式：直接执行 {@link #main(String[])} 方法
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IotRuleSceneTriggerIndexBenchmark {
+
+    private static final int PRODUCT_COUNT = 20;
+    private static final String[][] PARAMETER_OPERATORS = {
+            {"=", "1"}, {"!=", "2"}, {">", "0"}, {">=", "0"}, {"<", "2"},
+            {"<=", "2"}, {"in", "1,2,3"}, {"not in", "0,2,3"}, {"between", "1,3"}, {"not between", "2,3"}
+    };
+
+    /**
+     * 每个产品的规则场景数量
+     */
+    @Param({"10", "100"})
+    private int ruleScenesPerProduct;
+
+    private List<IotRuleSceneDO> ruleScenes;
+    private IotRuleSceneTriggerIndex index;
+    private IotDeviceMessage message;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        initSpringExpressionContext();
+        ruleScenes = new ArrayList<>();
+        long id = 1;
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            for (int j = 0; j < ruleScenesPerProduct; j++) {
+                ruleScenes.add(buildRuleScene(id++, "product" + i, j % 2 == 0 ? null : "device" + j));
+            }
+        }
+        index = IotRuleSceneTriggerIndex.build(ruleScenes);
+        message = IotDeviceMessage.builder().productKey("product0").deviceName("device1")
+                .type(IotDeviceMessageTypeEnum.PROPERTY.getType())
+                .identifier(IotDeviceMessageIdentifierEnum.PROPERTY_REPORT.getIdentifier())
+                .data(MapUtil.<String, Object>builder().put("width", 1).put("height", 2).build()).build();
+    }
+
+    @Benchmark
+    public List<IotRuleSceneDO> springExpression() {
+        List<IotRuleSceneDO> list = filterList(ruleScenes, ruleScene -> {
+            for (IotRuleSceneDO.TriggerConfig trigger : ruleScene.getTriggers()) {
+                if (ObjUtil.notEqual(trigger.getProductKey(), message.getProductKey())) {
+                    continue;
+                }
+                if (CollUtil.isEmpty(trigger.getDeviceNames()) || trigger.getDeviceNames().contains(message.getDeviceName())) {
+                    return true;
+                }
+            }
+            return false;
+        });
+        return filterList(list, ruleScene -> {
+            for (IotRuleSceneDO.TriggerConfig trigger : ruleScene.getTriggers()) {
+                IotRuleSceneDO.TriggerCondition matchedCondition = CollUtil.findOne(trigger.getConditions(), condition -> {
+                    if (ObjUtil.notEqual(message.getType(), condition.getType())
+                            || ObjUtil.notEqual(message.getIdentifier(), condition.getIdentifier())) {
+                        return false;
+                    }
+                    return CollUtil.findOne(condition.getParameters(), parameter ->
+                            !matchesBySpringExpression(message, parameter)) == null;
+                });
+                return matchedCondition != null;
+            }
+            return false;
+        });
+    }
+
+    @Benchmark
+    public List<IotRuleSceneDO> compiledIndex() {
+        return index.match(message);
+    }
+
+    /**
+     * 初始化 {@link SpringExpressionUtils} 所需的 Spring 容器
+     */
+    static void initSpringExpressionContext() {
+        if (SpringUtil.getApplicationContext() == null) {
+            new SpringUtil().setApplicationContext(new GenericApplicationContext());
+        }
+    }
+
+    /**
+     * 原先基于 Spring 表达式的参数匹配逻辑，作为基准、以及 {@link IotRuleSceneParameterMatcherTest} 的对照
+     */
+    @SuppressWarnings("unchecked")
+    static boolean matchesBySpringExpression(IotDeviceMessage message, IotRuleSceneDO.TriggerConditionParameter parameter) {
+        IotRuleSceneTriggerConditionParameterOperatorEnum operator =
+                IotRuleSceneTriggerConditionParameterOperatorEnum.operatorOf(parameter.getOperator());
+        String messageValue = MapUtil.getStr((Map<String, Object>) message.getData(), parameter.getIdentifier());
+        if (operator == null || messageValue == null) {
+            return false;
+        }
+        Map<String, Object> springExpressionVariables = new HashMap<>();
+        springExpressionVariables.put(IotRuleSceneTriggerConditionParameterOperatorEnum.SPRING_EXPRESSION_SOURCE, messageValue);
+        springExpressionVariables.put(IotRuleSceneTriggerConditionParameterOperatorEnum.SPRING_EXPRESSION_VALUE, parameter.getValue());
+        List<String> parameterValues = StrUtil.splitTrim(parameter.getValue(), CharPool.COMMA);
+        springExpressionVariables.put(IotRuleSceneTriggerConditionParameterOperatorEnum.SPRING_EXPRESSION_VALUE_List, parameterValues);
+        if (ObjectUtils.equalsAny(operator, IotRuleSceneTriggerConditionParameterOperatorEnum.BETWEEN,
+                IotRuleSceneTriggerConditionParameterOperatorEnum.NOT_BETWEEN,
+                IotRuleSceneTriggerConditionParameterOperatorEnum.GREATER_THAN,
+                IotRuleSceneTriggerConditionParameterOperatorEnum.GREATER_THAN_OR_EQUALS,
+                IotRuleSceneTriggerConditionParameterOperatorEnum.LESS_THAN,
+                IotRuleSceneTriggerConditionParameterOperatorEnum.LESS_THAN_OR_EQUALS)
+                && NumberUtil.isNumber(messageValue)
+                && NumberUtils.isAllNumber(parameterValues)) {
+            springExpressionVariables.put(IotRuleSceneTriggerConditionParameterOperatorEnum.SPRING_EXPRESSION_SOURCE,
+                    NumberUtil.parseDouble(messageValue));
+            springExpressionVariables.put(IotRuleSceneTriggerConditionParameterOperatorEnum.SPRING_EXPRESSION_VALUE,
+                    NumberUtil.parseDouble(parameter.getValue()));
+            springExpressionVariables.put(IotRuleSceneTriggerConditionParameterOperatorEnum.SPRING_EXPRESSION_VALUE_List,
+                    convertList(parameterValues, NumberUtil::parseDouble));
+        }
+        return (Boolean) SpringExpressionUtils.parseExpression(operator.getSpringExpression(), springExpressionVariables);
+    }
+
+    private static IotRuleSceneDO buildRuleScene(Long id, String productKey, String deviceName) {
+        IotRuleSceneDO.TriggerCondition condition = new IotRuleSceneDO.TriggerCondition();
+        condition.setType(IotDeviceMessageTypeEnum.PROPERTY.getType());
+        condition.setIdentifier(IotDeviceMessageIdentifierEnum.PROPERTY_REPORT.getIdentifier());
+        condition.setParameters(new ArrayList<>());
+        for (String[] operator : PARAMETER_OPERATORS) {
+            IotRuleSceneDO.TriggerConditionParameter parameter = new IotRuleSceneDO.TriggerConditionParameter();
+            parameter.setIdentifier("width");
+            parameter.setOperator(operator[0]);
+            parameter.setValue(operator[1]);
+            condition.getParameters().add(parameter);
+        }
+        IotRuleSceneDO.TriggerConfig trigger = new IotRuleSceneDO.TriggerConfig();
+        trigger.setType(IotRuleSceneTriggerTypeEnum.DEVICE.getType());
+        trigger.setProductKey(productKey);
+        trigger.setDeviceNames(deviceName != null ? Collections.singletonList(deviceName) : null);
+        trigger.setConditions(Collections.singletonList(condition));
+        return IotRuleSceneDO.builder().id(id).status(CommonStatusEnum.ENABLE.getStatus())
+                .triggers(Collections.singletonList(trigger)).actions(Collections.emptyList()).build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(IotRuleSceneTriggerIndexBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,111 @@
+package cn.iocoder.yudao.module.iot.service.thingmodel;
+
+import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.extra.spring.SpringUtil;
+import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
+import cn.iocoder.yudao.module.iot.dal.dataobject.product.IotProductDO;
+import cn.iocoder.yudao.module.iot.dal.dataobject.thingmodel.IotThingModelDO;
+import cn.iocoder.yudao.module.iot.dal.mysql.thingmodel.IotThingModelMapper;
+import cn.iocoder.yudao.module.iot.enums.product.IotProductStatusEnum;
+import cn.iocoder.yudao.module.iot.enums.thingmodel.IotThingModelTypeEnum;
+import cn.iocoder.yudao.module.iot.mq.consumer.thingmodel.IotThingModelCacheRemoveConsumer;
+import cn.iocoder.yudao.module.iot.mq.message.thingmodel.IotThingModelCacheRemoveMessage;
+import cn.iocoder.yudao.module.iot.mq.producer.thingmodel.IotThingModelProducer;
+import cn.iocoder.yudao.module.iot.service.product.IotProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link IotThingModelServiceImpl} 的单元测试
+ */
+public class IotThingModelServiceImplTest extends BaseMockitoUnitTest {
+
+    @InjectMocks
+    private IotThingModelServiceImpl thingModelService;
+
+    @Mock
+    private IotThingModelMapper thingModelMapper;
+    @Mock
+    private IotProductService productService;
+    @Mock
+    private IotThingModelProducer thingModelProducer;
+
+    /**
+     * 代理对象，即 getSelf() 的返回，负责 Redis 缓存
+     */
+    @Mock
+    private IotThingModelServiceImpl thingModelServiceProxy;
+    private MockedStatic<SpringUtil> springUtilMockedStatic;
+
+    @BeforeEach
+    public void setUp() {
+        springUtilMockedStatic = mockStatic(SpringUtil.class);
+        springUtilMockedStatic.when(() -> SpringUtil.getBean(eq(IotThingModelServiceImpl.class)))
+                .thenReturn(thingModelServiceProxy);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        springUtilMockedStatic.close();
+    }
+
+    // ========== 本地缓存 ==========
+
+    @Test
+    public void testGetThingModelMapByProductKeyFromCache_removeMessage() {
+        // mock 方法：第二次读取到新增的物模型
+        IotThingModelDO temperature = new IotThingModelDO().setId(1L).setProductKey("p").setIdentifier("temperature");
+        IotThingModelDO humidity = new IotThingModelDO().setId(2L).setProductKey("p").setIdentifier("humidity");
+        when(thingModelServiceProxy.getThingModelListByProductKeyFromCache(eq("p")))
+                .thenReturn(Collections.singletonList(temperature), Arrays.asList(temperature, humidity));
+        // 调用：第二次命中本地缓存
+        Map<String, IotThingModelDO> thingModelMap = thingModelService.getThingModelMapByProductKeyFromCache("p");
+        assertSame(thingModelMap, thingModelService.getThingModelMapByProductKeyFromCache("p"));
+        assertEquals(Collections.singleton("temperature"), thingModelMap.keySet());
+        verify(thingModelServiceProxy, times(1)).getThingModelListByProductKeyFromCache(eq("p"));
+
+        // 准备参数：其它节点广播的缓存删除消息
+        IotThingModelCacheRemoveConsumer consumer = new IotThingModelCacheRemoveConsumer();
+        ReflectUtil.setFieldValue(consumer, "thingModelService", thingModelService);
+        // 调用
+        consumer.onMessage(new IotThingModelCacheRemoveMessage().setProductKey("p"));
+        // 断言：本地缓存失效，重新从 Redis 缓存读取
+        thingModelMap = thingModelService.getThingModelMapByProductKeyFromCache("p");
+        assertSame(humidity, thingModelMap.get("humidity"));
+        verify(thingModelServiceProxy, times(2)).getThingModelListByProductKeyFromCache(eq("p"));
+    }
+
+    @Test
+    public void testDeleteThingModel_broadcastCacheRemove() {
+        // mock 数据：本地缓存中已有物模型
+        IotThingModelDO event = new IotThingModelDO().setId(1L).setProductId(10L).setProductKey("p")
+                .setIdentifier("alarm").setType(IotThingModelTypeEnum.EVENT.getType());
+        when(thingModelServiceProxy.getThingModelListByProductKeyFromCache(eq("p")))
+                .thenReturn(Collections.singletonList(event), Collections.emptyList());
+        thingModelService.getThingModelMapByProductKeyFromCache("p");
+        // mock 方法
+        when(thingModelMapper.selectById(eq(1L))).thenReturn(event);
+        when(productService.validateProductExists(eq(10L)))
+                .thenReturn(new IotProductDO().setId(10L).setStatus(IotProductStatusEnum.UNPUBLISHED.getStatus()));
+
+        // 调用
+        thingModelService.deleteThingModel(1L);
+        // 断言：删除 Redis 缓存、本地缓存，并广播给其它节点
+        verify(thingModelServiceProxy).deleteThingModelListCache0(eq("p"));
+        verify(thingModelProducer).sendThingModelCacheRemoveMessage(eq("p"));
+        assertTrue(thingModelService.getThingModelMapByProductKeyFromCache("p").isEmpty());
+    }
+
+}
@@ -0,0 +1,76 @@
+package cn.iocoder.yudao.module.iot.util;
+
+import cn.iocoder.yudao.module.iot.controller.admin.device.vo.data.IotDevicePropertyRespVO;
+import cn.iocoder.yudao.module.iot.enums.device.IotDevicePropertyAggregateFillEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link IotDevicePropertyAggregateUtils} 的单元测试
+ */
+public class IotDevicePropertyAggregateUtilsTest {
+
+    @Test
+    public void testCalculateInterval_points() {
+        // 30 天、500 个点：原始窗口约 86 分钟，向上取整到 2 小时
+        assertEquals(TimeUnit.HOURS.toMillis(2), IotDevicePropertyAggregateUtils.calculateInterval(
+                0, TimeUnit.DAYS.toMillis(30), 500, null));
+        // 1 小时、500 个点：原始窗口 7.2 秒，向上取整到 10 秒
+        assertEquals(TimeUnit.SECONDS.toMillis(10), IotDevicePropertyAggregateUtils.calculateInterval(
+                0, TimeUnit.HOURS.toMillis(1), 500, null));
+        // 超过 1 天的窗口，按照天向上取整
+        assertEquals(TimeUnit.DAYS.toMillis(3), IotDevicePropertyAggregateUtils.calculateInterval(
+                0, TimeUnit.DAYS.toMillis(1200), 500, null));
+    }
+
+    @Test
+    public void testCalculateInterval_interval() {
+        // 指定的窗口数量未超过上限，直接使用
+        assertEquals(TimeUnit.MINUTES.toMillis(1), IotDevicePropertyAggregateUtils.calculateInterval(
+                0, TimeUnit.DAYS.toMillis(1), 500, 60L));
+        // 指定的窗口数量超过上限，按照最大点数放大
+        assertEquals(TimeUnit.MINUTES.toMillis(10), IotDevicePropertyAggregateUtils.calculateInterval(
+                0, TimeUnit.DAYS.toMillis(30), 500, 1L));
+    }
+
+    @Test
+    public void testFloorAndCeil() {
+        assertEquals(60000L, IotDevicePropertyAggregateUtils.floor(119999L, 60000L));
+        assertEquals(120000L, IotDevicePropertyAggregateUtils.ceil(60001L, 60000L));
+        assertEquals(120000L, IotDevicePropertyAggregateUtils.ceil(120000L, 60000L));
+    }
+
+    @Test
+    public void testFill() {
+        // 准备参数：窗口 0、10、20、30、40，其中 10、30 没有数据
+        Map<Long, Object> values = new HashMap<>();
+        values.put(0L, 1D);
+        values.put(20L, 3D);
+        values.put(40L, 7D);
+
+        // 调用，并断言
+        List<IotDevicePropertyRespVO> none = IotDevicePropertyAggregateUtils.fill(0, 50, 10, values,
+                IotDevicePropertyAggregateFillEnum.NONE);
+        assertEquals(3, none.size());
+        assertEquals(20L, none.get(1).getUpdateTime());
+        List<IotDevicePropertyRespVO> nullFill = IotDevicePropertyAggregateUtils.fill(0, 50, 10, values,
+                IotDevicePropertyAggregateFillEnum.NULL);
+        assertEquals(5, nullFill.size());
+        assertNull(nullFill.get(1).getValue());
+        List<IotDevicePropertyRespVO> prev = IotDevicePropertyAggregateUtils.fill(0, 50, 10, values,
+                IotDevicePropertyAggregateFillEnum.PREV);
+        assertEquals(1D, prev.get(1).getValue());
+        assertEquals(3D, prev.get(3).getValue());
+        List<IotDevicePropertyRespVO> linear = IotDevicePropertyAggregateUtils.fill(0, 50, 10, values,
+                IotDevicePropertyAggregateFillEnum.LINEAR);
+        assertEquals(2D, linear.get(1).getValue());
+        assertEquals(5D, linear.get(3).getValue());
+    }
+
+}
@@ -5,12 +5,12 @@ import cn.iocoder.yudao.module.iot.plugin.common.downstream.IotDeviceDownstreamH
 import cn.iocoder.yudao.module.iot.plugin.common.downstream.IotDeviceDownstreamServer;
 import cn.iocoder.yudao.module.iot.plugin.common.heartbeat.IotPluginInstanceHeartbeatJob;
 import cn.iocoder.yudao.module.iot.plugin.common.upstream.IotDeviceUpstreamClient;
+import io.vertx.core.Vertx;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.web.client.RestTemplate;
 
 /**
  * IoT 插件的通用自动配置类
@@ -22,18 +22,18 @@ import org.springframework.web.client.RestTemplate;
 @EnableScheduling // 开启定时任务，因为 IotPluginInstanceHeartbeatJob 是一个定时任务
 public class IotPluginCommonAutoConfiguration {
 
-    @Bean
-    public RestTemplate restTemplate(IotPluginCommonProperties properties) {
-        return new RestTemplateBuilder()
-                .setConnectTimeout(properties.getUpstreamConnectTimeout())
-                .setReadTimeout(properties.getUpstreamReadTimeout())
-                .build();
+    /**
+     * 插件共用的 Vertx 实例，由 Spring 负责关闭；插件已声明时，使用插件的
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public Vertx vertx() {
+        return Vertx.vertx();
     }
 
-    @Bean
-    public IotDeviceUpstreamApi deviceUpstreamApi(IotPluginCommonProperties properties,
-                                                  RestTemplate restTemplate) {
-        return new IotDeviceUpstreamClient(properties, restTemplate);
+    @Bean(destroyMethod = "stop")
+    public IotDeviceUpstreamApi deviceUpstreamApi(IotPluginCommonProperties properties, Vertx vertx) {
+        return new IotDeviceUpstreamClient(properties, vertx);
     }
 
     @Bean(initMethod = "start", destroyMethod = "stop")
@@ -25,6 +25,22 @@ public class IotPluginCommonProperties {
      * 上行读取超时的默认值
      */
     public static final Duration UPSTREAM_READ_TIMEOUT_DEFAULT = Duration.ofSeconds(30);
+    /**
+     * 上行连接池大小的默认值
+     */
+    public static final Integer UPSTREAM_MAX_POOL_SIZE_DEFAULT = 8;
+    /**
+     * 上行单个连接 pipelining 请求数上限的默认值
+     */
+    public static final Integer UPSTREAM_PIPELINING_LIMIT_DEFAULT = 10;
+    /**
+     * 上行批量合并的最大条数的默认值
+     */
+    public static final Integer UPSTREAM_BATCH_SIZE_DEFAULT = 100;
+    /**
+     * 上行批量合并的最长等待时长的默认值
+     */
+    public static final Duration UPSTREAM_BATCH_LINGER_DEFAULT = Duration.ofMillis(5);
 
     /**
      * 下行端口 - 随机
@@ -44,6 +60,30 @@ public class IotPluginCommonProperties {
      * 上行读取超时
      */
     private Duration upstreamReadTimeout = UPSTREAM_READ_TIMEOUT_DEFAULT;
+    /**
+     * 上行连接池大小
+     *
+     * 连接开启 keep-alive 复用，不再每次请求都建立连接
+     */
+    private Integer upstreamMaxPoolSize = UPSTREAM_MAX_POOL_SIZE_DEFAULT;
+    /**
+     * 上行单个连接 pipelining 请求数上限
+     */
+    private Integer upstreamPipeliningLimit = UPSTREAM_PIPELINING_LIMIT_DEFAULT;
+    /**
+     * 上行是否开启批量合并
+     *
+     * 开启后，状态更新、属性上报、事件上报会合并为一次 report-batch 调用
+     */
+    private Boolean upstreamBatchEnable = true;
+    /**
+     * 上行批量合并的最大条数，达到后立即发送
+     */
+    private Integer upstreamBatchSize = UPSTREAM_BATCH_SIZE_DEFAULT;
+    /**
+     * 上行批量合并的最长等待时长，超过后立即发送
+     */
+    private Duration upstreamBatchLinger = UPSTREAM_BATCH_LINGER_DEFAULT;
 
     /**
      * 下行端口
@@ -0,0 +1,92 @@
+package cn.iocoder.yudao.module.iot.plugin.common.upstream;
+
+import cn.iocoder.yudao.framework.common.pojo.CommonResult;
+import cn.iocoder.yudao.module.iot.api.device.IotDeviceUpstreamApi;
+import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.IotDeviceEmqxAuthReqDTO;
+import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.IotDeviceEventReportReqDTO;
+import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.IotDevicePropertyReportReqDTO;
+import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.IotDeviceStateUpdateReqDTO;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+
+/**
+ * 设备数据 Upstream 上行的异步 API
+ *
+ * 供 Vert.x 的 Handler 使用，避免阻塞 event loop 线程
+ *
+ * @author 芋道源码
+ */
+public interface IotDeviceUpstreamAsyncApi {
+
+    /**
+     * 更新设备状态
+     *
+     * @param updateReqDTO 更新设备状态 DTO
+     * @return 结果
+     */
+    Future<CommonResult<Boolean>> updateDeviceStateAsync(IotDeviceStateUpdateReqDTO updateReqDTO);
+
+    /**
+     * 上报设备属性数据
+     *
+     * @param reportReqDTO 上报设备属性数据 DTO
+     * @return 结果
+     */
+    Future<CommonResult<Boolean>> reportDevicePropertyAsync(IotDevicePropertyReportReqDTO reportReqDTO);
+
+    /**
+     * 上报设备事件数据
+     *
+     * @param reportReqDTO 设备事件
+     * @return 结果
+     */
+    Future<CommonResult<Boolean>> reportDeviceEventAsync(IotDeviceEventReportReqDTO reportReqDTO);
+
+    /**
+     * 认证 Emqx 连接
+     *
+     * @param authReqDTO 认证 Emqx 连接 DTO
+     * @return 结果
+     */
+    Future<CommonResult<Boolean>> authenticateEmqxConnectionAsync(IotDeviceEmqxAuthReqDTO authReqDTO);
+
+    /**
+     * 获得 {@link IotDeviceUpstreamApi} 对应的异步 API
+     *
+     * 1. 独立部署时，使用的是 {@link IotDeviceUpstreamClient}，本身就是异步的
+     * 2. 内嵌部署时，使用的是服务端的本地实现，通过 Vert.x 的 worker 线程执行，同样不阻塞 event loop 线程
+     *
+     * @param deviceUpstreamApi 上行 API
+     * @param vertx Vert.x 实例
+     * @return 异步 API
+     */
+    static IotDeviceUpstreamAsyncApi of(IotDeviceUpstreamApi deviceUpstreamApi, Vertx vertx) {
+        if (deviceUpstreamApi instanceof IotDeviceUpstreamAsyncApi) {
+            return (IotDeviceUpstreamAsyncApi) deviceUpstreamApi;
+        }
+        return new IotDeviceUpstreamAsyncApi() {
+
+            @Override
+            public Future<CommonResult<Boolean>> updateDeviceStateAsync(IotDeviceStateUpdateReqDTO updateReqDTO) {
+                return vertx.executeBlocking(() -> deviceUpstreamApi.updateDeviceState(updateReqDTO), false);
+            }
+
+            @Override
+            public Future<CommonResult<Boolean>> reportDevicePropertyAsync(IotDevicePropertyReportReqDTO reportReqDTO) {
+                return vertx.executeBlocking(() -> deviceUpstreamApi.reportDeviceProperty(reportReqDTO), false);
+            }
+
+            @Override
+            public Future<CommonResult<Boolean>> reportDeviceEventAsync(IotDeviceEventReportReqDTO reportReqDTO) {
+                return vertx.executeBlocking(() -> deviceUpstreamApi.reportDeviceEvent(reportReqDTO), false);
+            }
+
+            @Override
+            public Future<CommonResult<Boolean>> authenticateEmqxConnectionAsync(IotDeviceEmqxAuthReqDTO authReqDTO) {
+                return vertx.executeBlocking(() -> deviceUpstreamApi.authenticateEmqxConnection(authReqDTO), false);
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,249 @@
+package cn.iocoder.yudao.module.iot.plugin.common.upstream;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.iocoder.yudao.framework.common.pojo.CommonResult;
+import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.*;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static cn.iocoder.yudao.framework.common.exception.enums.GlobalErrorCodeConstants.INTERNAL_SERVER_ERROR;
+
+/**
+ * 设备数据 Upstream 上行的批量合并器
+ *
+ * 将 lingerMillis 时间内、最多 batchSize 条的上行消息，合并为一个 {@link IotDeviceUpstreamBatchReqDTO} 发送，
+ * 每条消息的结果，取自服务端返回的 {@link IotDeviceUpstreamBatchRespDTO} 中对应位置的处理结果。
+ *
+ * 同一设备的消息，保证按照添加的顺序被服务端处理：
+ * 1. 服务端按照状态更新、属性上报、事件上报的顺序处理一个批次，所以同一设备的消息逆序加入时，先切分出新的批次
+ * 2. 批次按照切分的顺序发送，与发送中的批次存在相同设备时，等待其完成后再发送
+ *
+ * 所有状态只在同一个 Vert.x {@link Context} 中读写，因此无需加锁
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class IotDeviceUpstreamBatcher {
+
+    private static final int ORDER_STATE_UPDATE = 0;
+    private static final int ORDER_PROPERTY_REPORT = 1;
+    private static final int ORDER_EVENT_REPORT = 2;
+
+    private final Vertx vertx;
+    private final Context context;
+    private final int batchSize;
+    private final long lingerMillis;
+    private final Function<IotDeviceUpstreamBatchReqDTO, Future<CommonResult<IotDeviceUpstreamBatchRespDTO>>> sender;
+
+    /**
+     * 合并中的批次
+     */
+    private Batch batch = new Batch();
+    /**
+     * 已切分、等待发送的批次
+     */
+    private final Deque<Batch> readyBatches = new ArrayDeque<>();
+    /**
+     * 发送中的批次包含的设备
+     */
+    private final Set<String> sendingDevices = new HashSet<>();
+    private int sendingCount;
+    /**
+     * 定时发送的 timer 编号，-1 表示未设置
+     */
+    private long timerId = -1;
+    private boolean closed;
+    /**
+     * 关闭的 Promise，在剩余的批次全部发送完成后完成
+     */
+    private Promise<Void> closePromise;
+
+    public IotDeviceUpstreamBatcher(Vertx vertx, int batchSize, long lingerMillis,
+                                    Function<IotDeviceUpstreamBatchReqDTO, Future<CommonResult<IotDeviceUpstreamBatchRespDTO>>> sender) {
+        this.vertx = vertx;
+        this.context = vertx.getOrCreateContext();
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.sender = sender;
+    }
+
+    /**
+     * 添加一条设备状态更新
+     *
+     * @param updateReqDTO 设备状态更新
+     * @return 该消息的处理结果
+     */
+    public Future<CommonResult<Boolean>> addStateUpdate(IotDeviceStateUpdateReqDTO updateReqDTO) {
+        return add(updateReqDTO, ORDER_STATE_UPDATE);
+    }
+
+    /**
+     * 添加一条设备属性上报
+     *
+     * @param reportReqDTO 设备属性上报
+     * @return 该消息的处理结果
+     */
+    public Future<CommonResult<Boolean>> addPropertyReport(IotDevicePropertyReportReqDTO reportReqDTO) {
+        return add(reportReqDTO, ORDER_PROPERTY_REPORT);
+    }
+
+    /**
+     * 添加一条设备事件上报
+     *
+     * @param reportReqDTO 设备事件上报
+     * @return 该消息的处理结果
+     */
+    public Future<CommonResult<Boolean>> addEventReport(IotDeviceEventReportReqDTO reportReqDTO) {
+        return add(reportReqDTO, ORDER_EVENT_REPORT);
+    }
+
+    private Future<CommonResult<Boolean>> add(IotDeviceUpstreamAbstractReqDTO reqDTO, int order) {
+        Promise<CommonResult<Boolean>> promise = Promise.promise();
+        context.runOnContext(v -> {
+            if (closed) {
+                promise.complete(CommonResult.error(INTERNAL_SERVER_ERROR.getCode(), "上行客户端已关闭"));
+                return;
+            }
+            // 同一设备的消息逆序加入时，切分出新的批次，避免服务端处理时乱序
+            String device = reqDTO.getProductKey() + "/" + reqDTO.getDeviceName();
+            if (batch.deviceOrders.getOrDefault(device, order) > order) {
+                flush();
+            }
+            batch.add(device, reqDTO, order, promise);
+            if (batch.size >= batchSize) {
+                flush();
+            } else if (timerId == -1) {
+                timerId = vertx.setTimer(lingerMillis, id -> {
+                    timerId = -1;
+                    flush();
+                });
+            }
+        });
+        return promise.future();
+    }
+
+    /**
+     * 关闭：发送剩余的消息后，不再接收新的消息
+     *
+     * @return 剩余消息全部发送完成
+     */
+    public Future<Void> close() {
+        Promise<Void> promise = Promise.promise();
+        context.runOnContext(v -> {
+            closed = true;
+            closePromise = promise;
+            flush();
+            completeCloseIfDrained();
+        });
+        return promise.future();
+    }
+
+    /**
+     * 切分合并中的批次，加入待发送的队列
+     */
+    private void flush() {
+        if (timerId != -1) {
+            vertx.cancelTimer(timerId);
+            timerId = -1;
+        }
+        if (batch.size == 0) {
+            return;
+        }
+        readyBatches.add(batch);
+        batch = new Batch();
+        sendReadyBatches();
+    }
+
+    /**
+     * 按顺序发送待发送的批次，直到队首的批次与发送中的批次存在相同设备
+     */
+    private void sendReadyBatches() {
+        while (!readyBatches.isEmpty()
+                && Collections.disjoint(readyBatches.peek().deviceOrders.keySet(), sendingDevices)) {
+            send(readyBatches.poll());
+        }
+    }
+
+    private void send(Batch sendBatch) {
+        sendingDevices.addAll(sendBatch.deviceOrders.keySet());
+        sendingCount++;
+        sender.apply(sendBatch.reqDTO).onComplete(ar -> context.runOnContext(v -> {
+            CommonResult<IotDeviceUpstreamBatchRespDTO> result = ar.succeeded() ? ar.result()
+                    : CommonResult.error(INTERNAL_SERVER_ERROR);
+            sendBatch.complete(result);
+            sendingDevices.removeAll(sendBatch.deviceOrders.keySet());
+            sendingCount--;
+            sendReadyBatches();
+            completeCloseIfDrained();
+        }));
+    }
+
+    private void completeCloseIfDrained() {
+        if (closePromise != null && readyBatches.isEmpty() && sendingCount == 0) {
+            closePromise.tryComplete();
+        }
+    }
+
+    /**
+     * 批次，及其每条消息对应的 Promise
+     */
+    private static class Batch {
+
+        private final IotDeviceUpstreamBatchReqDTO reqDTO = new IotDeviceUpstreamBatchReqDTO()
+                .setStateUpdates(new ArrayList<>()).setPropertyReports(new ArrayList<>())
+                .setEventReports(new ArrayList<>());
+        private final List<Promise<CommonResult<Boolean>>> statePromises = new ArrayList<>();
+        private final List<Promise<CommonResult<Boolean>>> propertyPromises = new ArrayList<>();
+        private final List<Promise<CommonResult<Boolean>>> eventPromises = new ArrayList<>();
+        /**
+         * 设备在该批次中，最后加入的消息的处理顺序
+         */
+        private final Map<String, Integer> deviceOrders = new HashMap<>();
+        private int size;
+
+        private void add(String device, IotDeviceUpstreamAbstractReqDTO reqDTO, int order,
+                         Promise<CommonResult<Boolean>> promise) {
+            if (order == ORDER_STATE_UPDATE) {
+                this.reqDTO.getStateUpdates().add((IotDeviceStateUpdateReqDTO) reqDTO);
+                statePromises.add(promise);
+            } else if (order == ORDER_PROPERTY_REPORT) {
+                this.reqDTO.getPropertyReports().add((IotDevicePropertyReportReqDTO) reqDTO);
+                propertyPromises.add(promise);
+            } else {
+                this.reqDTO.getEventReports().add((IotDeviceEventReportReqDTO) reqDTO);
+                eventPromises.add(promise);
+            }
+            deviceOrders.put(device, order);
+            size++;
+        }
+
+        private void complete(CommonResult<IotDeviceUpstreamBatchRespDTO> result) {
+            if (result.isError()) {
+                CommonResult<Boolean> error = CommonResult.error(result);
+                statePromises.forEach(promise -> promise.complete(error));
+                propertyPromises.forEach(promise -> promise.complete(error));
+                eventPromises.forEach(promise -> promise.complete(error));
+                return;
+            }
+            IotDeviceUpstreamBatchRespDTO respDTO = result.getData();
+            complete(statePromises, respDTO != null ? respDTO.getStateUpdates() : null);
+            complete(propertyPromises, respDTO != null ? respDTO.getPropertyReports() : null);
+            complete(eventPromises, respDTO != null ? respDTO.getEventReports() : null);
+        }
+
+        private static void complete(List<Promise<CommonResult<Boolean>>> promises, List<Boolean> results) {
+            for (int i = 0; i < promises.size(); i++) {
+                promises.get(i).complete(Boolean.TRUE.equals(CollUtil.get(results, i)) ? CommonResult.success(true)
+                        : CommonResult.error(INTERNAL_SERVER_ERROR.getCode(), "处理上行消息失败"));
+            }
+        }
+
+    }
+
+}
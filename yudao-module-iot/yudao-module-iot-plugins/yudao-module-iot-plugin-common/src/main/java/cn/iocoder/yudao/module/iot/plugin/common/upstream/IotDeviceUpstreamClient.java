@@ -1,42 +1,129 @@
 package cn.iocoder.yudao.module.iot.plugin.common.upstream;
 
 import cn.iocoder.yudao.framework.common.pojo.CommonResult;
+import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
 import cn.iocoder.yudao.module.iot.api.device.IotDeviceUpstreamApi;
 import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.*;
 import cn.iocoder.yudao.module.iot.plugin.common.config.IotPluginCommonProperties;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.TimeUnit;
 
 import static cn.iocoder.yudao.framework.common.exception.enums.GlobalErrorCodeConstants.INTERNAL_SERVER_ERROR;
 
 /**
  * 设备数据 Upstream 上行客户端
  *
- * 通过 HTTP 调用远程的 IotDeviceUpstreamApi 接口
+ * 通过 HTTP 调用远程的 IotDeviceUpstreamApi 接口：
+ * 1. 基于 Vert.x {@link WebClient} 实现，非阻塞，连接开启 keep-alive 与 pipelining
+ * 2. 开启批量合并时，状态更新、属性上报、事件上报通过 {@link IotDeviceUpstreamBatcher} 合并为一次 report-batch 调用
  *
  * @author haohao
  */
-@RequiredArgsConstructor
 @Slf4j
-public class IotDeviceUpstreamClient implements IotDeviceUpstreamApi {
+public class IotDeviceUpstreamClient implements IotDeviceUpstreamApi, IotDeviceUpstreamAsyncApi {
 
     public static final String URL_PREFIX = "/rpc-api/iot/device/upstream";
 
+    private static final TypeReference<CommonResult<Boolean>> RESULT_TYPE = new TypeReference<CommonResult<Boolean>>() {};
+    private static final TypeReference<CommonResult<IotDeviceUpstreamBatchRespDTO>> BATCH_RESULT_TYPE
+            = new TypeReference<CommonResult<IotDeviceUpstreamBatchRespDTO>>() {};
+
     private final IotPluginCommonProperties properties;
 
-    private final RestTemplate restTemplate;
+    private final WebClient webClient;
+    /**
+     * 批量合并器，为空时表示不开启
+     */
+    private final IotDeviceUpstreamBatcher batcher;
+
+    /**
+     * @param vertx 插件共用的 Vertx 实例，由调用方负责关闭
+     */
+    public IotDeviceUpstreamClient(IotPluginCommonProperties properties, Vertx vertx) {
+        this.properties = properties;
+        this.webClient = WebClient.create(vertx, new WebClientOptions()
+                .setKeepAlive(true)
+                .setPipelining(true)
+                .setPipeliningLimit(properties.getUpstreamPipeliningLimit())
+                .setMaxPoolSize(properties.getUpstreamMaxPoolSize())
+                .setConnectTimeout((int) properties.getUpstreamConnectTimeout().toMillis()));
+        this.batcher = Boolean.TRUE.equals(properties.getUpstreamBatchEnable())
+                ? new IotDeviceUpstreamBatcher(vertx, properties.getUpstreamBatchSize(),
+                        properties.getUpstreamBatchLinger().toMillis(), batch -> doPost("/report-batch", batch, BATCH_RESULT_TYPE))
+                : null;
+    }
+
+    /**
+     * 关闭：发送剩余的批量消息后，关闭连接池。Vertx 实例是共用的，不在这里关闭
+     */
+    public void stop() {
+        log.info("[stop][开始关闭]");
+        try {
+            if (batcher != null) {
+                batcher.close().toCompletionStage().toCompletableFuture()
+                        .get(properties.getUpstreamReadTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } catch (Exception e) {
+            log.error("[stop][发送剩余的批量消息异常]", e);
+        }
+        webClient.close();
+        log.info("[stop][关闭完成]");
+    }
+
+    // ========== 异步 API ==========
+
+    @Override
+    public Future<CommonResult<Boolean>> updateDeviceStateAsync(IotDeviceStateUpdateReqDTO updateReqDTO) {
+        if (batcher != null) {
+            return batcher.addStateUpdate(updateReqDTO);
+        }
+        return doPost("/update-state", updateReqDTO);
+    }
+
+    @Override
+    public Future<CommonResult<Boolean>> reportDevicePropertyAsync(IotDevicePropertyReportReqDTO reportReqDTO) {
+        if (batcher != null) {
+            return batcher.addPropertyReport(reportReqDTO);
+        }
+        return doPost("/report-property", reportReqDTO);
+    }
+
+    @Override
+    public Future<CommonResult<Boolean>> reportDeviceEventAsync(IotDeviceEventReportReqDTO reportReqDTO) {
+        if (batcher != null) {
+            return batcher.addEventReport(reportReqDTO);
+        }
+        return doPost("/report-event", reportReqDTO);
+    }
+
+    @Override
+    public Future<CommonResult<Boolean>> authenticateEmqxConnectionAsync(IotDeviceEmqxAuthReqDTO authReqDTO) {
+        return doPost("/authenticate-emqx-connection", authReqDTO);
+    }
+
+    // ========== 同步 API ==========
 
     @Override
     public CommonResult<Boolean> updateDeviceState(IotDeviceStateUpdateReqDTO updateReqDTO) {
-        String url = properties.getUpstreamUrl() + URL_PREFIX + "/update-state";
-        return doPost(url, updateReqDTO);
+        return await(updateDeviceStateAsync(updateReqDTO));
     }
 
     @Override
     public CommonResult<Boolean> reportDeviceEvent(IotDeviceEventReportReqDTO reportReqDTO) {
-        String url = properties.getUpstreamUrl() + URL_PREFIX + "/report-event";
-        return doPost(url, reportReqDTO);
+        return await(reportDeviceEventAsync(reportReqDTO));
+    }
+
+    @Override
+    public CommonResult<IotDeviceUpstreamBatchRespDTO> reportDeviceBatch(IotDeviceUpstreamBatchReqDTO batchReqDTO) {
+        return await(doPost("/report-batch", batchReqDTO, BATCH_RESULT_TYPE));
     }
 
     // TODO @芋艿：待实现
@@ -57,33 +144,67 @@ public class IotDeviceUpstreamClient implements IotDeviceUpstreamApi {
         return null;
     }
 
+    @Override
+    public CommonResult<Boolean> reportDeviceOtaProgress(IotDeviceOtaProgressReqDTO progressReqDTO) {
+        return await(doPost("/report-ota-progress", progressReqDTO));
+    }
+
     @Override
     public CommonResult<Boolean> authenticateEmqxConnection(IotDeviceEmqxAuthReqDTO authReqDTO) {
-        String url = properties.getUpstreamUrl() + URL_PREFIX + "/authenticate-emqx-connection";
-        return doPost(url, authReqDTO);
+        return await(authenticateEmqxConnectionAsync(authReqDTO));
     }
 
     @Override
     public CommonResult<Boolean> reportDeviceProperty(IotDevicePropertyReportReqDTO reportReqDTO) {
-        String url = properties.getUpstreamUrl() + URL_PREFIX + "/report-property";
-        return doPost(url, reportReqDTO);
+        return await(reportDevicePropertyAsync(reportReqDTO));
     }
 
     @Override
     public CommonResult<Boolean> heartbeatPluginInstance(IotPluginInstanceHeartbeatReqDTO heartbeatReqDTO) {
-        String url = properties.getUpstreamUrl() + URL_PREFIX + "/heartbeat-plugin-instance";
-        return doPost(url, heartbeatReqDTO);
+        return await(doPost("/heartbeat-plugin-instance", heartbeatReqDTO));
     }
 
-    @SuppressWarnings("unchecked")
-    private <T> CommonResult<Boolean> doPost(String url, T requestBody) {
+    /**
+     * 发起 POST 请求
+     *
+     * 返回的 Future 总是成功的：HTTP 异常、响应状态码非 200 时，结果为 {@link CommonResult#error}
+     */
+    private <T> Future<CommonResult<Boolean>> doPost(String path, T requestBody) {
+        return doPost(path, requestBody, RESULT_TYPE);
+    }
+
+    private <T, R> Future<CommonResult<R>> doPost(String path, T requestBody, TypeReference<CommonResult<R>> resultType) {
+        String url = properties.getUpstreamUrl() + URL_PREFIX + path;
+        return webClient.postAbs(url)
+                .timeout(properties.getUpstreamReadTimeout().toMillis())
+                .putHeader(HttpHeaders.CONTENT_TYPE.toString(), "application/json")
+                .sendBuffer(Buffer.buffer(JsonUtils.toJsonByte(requestBody)))
+                .map(response -> {
+                    CommonResult<R> result = response.statusCode() == 200
+                            ? JsonUtils.parseObject(response.bodyAsString(), resultType)
+                            : CommonResult.<R>error(INTERNAL_SERVER_ERROR.getCode(), "HTTP 状态码：" + response.statusCode());
+                    log.debug("[doPost][url({}) requestBody({}) result({})]", url, requestBody, result);
+                    return result;
+                })
+                .otherwise(e -> {
+                    log.error("[doPost][url({}) requestBody({}) 发生异常]", url, requestBody, e);
+                    return CommonResult.error(INTERNAL_SERVER_ERROR);
+                });
+    }
+
+    /**
+     * 同步等待结果，用于心跳等不在 Vert.x event loop 中的调用方
+     */
+    private <R> CommonResult<R> await(Future<CommonResult<R>> future) {
+        long timeout = properties.getUpstreamConnectTimeout().toMillis() + properties.getUpstreamReadTimeout().toMillis()
+                + properties.getUpstreamBatchLinger().toMillis();
         try {
-            CommonResult<Boolean> result = restTemplate.postForObject(url, requestBody,
-                    (Class<CommonResult<Boolean>>) (Class<?>) CommonResult.class);
-            log.info("[doPost][url({}) requestBody({}) result({})]", url, requestBody, result);
-            return result;
+            return future.toCompletionStage().toCompletableFuture().get(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CommonResult.error(INTERNAL_SERVER_ERROR);
         } catch (Exception e) {
-            log.error("[doPost][url({}) requestBody({}) 发生异常]", url, requestBody, e);
+            log.error("[await][等待上行结果异常]", e);
             return CommonResult.error(INTERNAL_SERVER_ERROR);
         }
     }
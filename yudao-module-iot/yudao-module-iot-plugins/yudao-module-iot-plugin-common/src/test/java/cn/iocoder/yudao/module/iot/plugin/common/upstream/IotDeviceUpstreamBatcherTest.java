@@ -0,0 +1,217 @@
+package cn.iocoder.yudao.module.iot.plugin.common.upstream;
+
+import cn.iocoder.yudao.framework.common.pojo.CommonResult;
+import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.*;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static cn.iocoder.yudao.framework.common.exception.enums.GlobalErrorCodeConstants.INTERNAL_SERVER_ERROR;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link IotDeviceUpstreamBatcher} 的单元测试
+ */
+public class IotDeviceUpstreamBatcherTest {
+
+    private Vertx vertx;
+    /**
+     * 发送的批次
+     */
+    private final List<IotDeviceUpstreamBatchReqDTO> batches = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        await(vertx.close());
+    }
+
+    @Test
+    public void testAdd_sizeFlush() throws Exception {
+        // 准备参数：linger 足够长，只能由数量触发
+        IotDeviceUpstreamBatcher batcher = new IotDeviceUpstreamBatcher(vertx, 3, 60000,
+                recordingSender(batch -> Future.succeededFuture(CommonResult.success(allSuccess(batch)))));
+
+        // 调用
+        List<Future<CommonResult<Boolean>>> futures = new ArrayList<>();
+        futures.add(batcher.addStateUpdate(stateUpdate("device01")));
+        futures.add(batcher.addPropertyReport(propertyReport("device01")));
+        futures.add(batcher.addEventReport(eventReport("device01")));
+        // 断言：3 条合并为一个批次发送
+        for (Future<CommonResult<Boolean>> future : futures) {
+            assertTrue(await(future).isSuccess());
+        }
+        assertEquals(1, batches.size());
+        assertEquals(1, batches.get(0).getStateUpdates().size());
+        assertEquals(1, batches.get(0).getPropertyReports().size());
+        assertEquals(1, batches.get(0).getEventReports().size());
+    }
+
+    @Test
+    public void testAdd_lingerFlush() throws Exception {
+        // 准备参数：数量达不到，只能由 linger 触发
+        IotDeviceUpstreamBatcher batcher = new IotDeviceUpstreamBatcher(vertx, 100, 200,
+                recordingSender(batch -> Future.succeededFuture(CommonResult.success(allSuccess(batch)))));
+
+        // 调用
+        long startTime = System.currentTimeMillis();
+        Future<CommonResult<Boolean>> future1 = batcher.addPropertyReport(propertyReport("device01"));
+        Future<CommonResult<Boolean>> future2 = batcher.addPropertyReport(propertyReport("device02"));
+        // 断言：等待 linger 后，2 条合并为一个批次发送
+        assertTrue(await(future1).isSuccess());
+        assertTrue(await(future2).isSuccess());
+        assertTrue(System.currentTimeMillis() - startTime >= 150);
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).getPropertyReports().size());
+    }
+
+    @Test
+    public void testAdd_resultPerMessage() throws Exception {
+        // 准备参数：服务端只处理成功第 1 条属性上报
+        IotDeviceUpstreamBatcher batcher = new IotDeviceUpstreamBatcher(vertx, 3, 60000,
+                recordingSender(batch -> Future.succeededFuture(CommonResult.success(new IotDeviceUpstreamBatchRespDTO()
+                        .setStateUpdates(Collections.singletonList(false))
+                        .setPropertyReports(Arrays.asList(true, false))
+                        .setEventReports(Collections.emptyList())))));
+
+        // 调用
+        Future<CommonResult<Boolean>> future1 = batcher.addPropertyReport(propertyReport("device01"));
+        Future<CommonResult<Boolean>> future2 = batcher.addPropertyReport(propertyReport("device02"));
+        Future<CommonResult<Boolean>> future3 = batcher.addStateUpdate(stateUpdate("device03"));
+        // 断言：每条消息的结果，为服务端对应位置的处理结果
+        assertTrue(await(future1).isSuccess());
+        assertEquals(INTERNAL_SERVER_ERROR.getCode(), await(future2).getCode());
+        assertEquals(INTERNAL_SERVER_ERROR.getCode(), await(future3).getCode());
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    public void testAdd_sendFail() throws Exception {
+        // 准备参数：发送失败
+        IotDeviceUpstreamBatcher batcher = new IotDeviceUpstreamBatcher(vertx, 2, 60000,
+                recordingSender(batch -> Future.failedFuture(new IllegalStateException("模拟网络异常"))));
+
+        // 调用
+        Future<CommonResult<Boolean>> future1 = batcher.addStateUpdate(stateUpdate("device01"));
+        Future<CommonResult<Boolean>> future2 = batcher.addEventReport(eventReport("device02"));
+        // 断言：批次内的每条消息都失败
+        assertEquals(INTERNAL_SERVER_ERROR.getCode(), await(future1).getCode());
+        assertEquals(INTERNAL_SERVER_ERROR.getCode(), await(future2).getCode());
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    public void testAdd_deviceOrder() throws Exception {
+        // 准备参数：每个批次的发送，由测试控制完成
+        List<Promise<CommonResult<IotDeviceUpstreamBatchRespDTO>>> sendPromises = new CopyOnWriteArrayList<>();
+        IotDeviceUpstreamBatcher batcher = new IotDeviceUpstreamBatcher(vertx, 100, 50,
+                recordingSender(batch -> {
+                    Promise<CommonResult<IotDeviceUpstreamBatchRespDTO>> promise = Promise.promise();
+                    sendPromises.add(promise);
+                    return promise.future();
+                }));
+
+        // 调用：device01 先属性上报，再状态更新
+        Future<CommonResult<Boolean>> future1 = batcher.addPropertyReport(propertyReport("device01"));
+        Future<CommonResult<Boolean>> future2 = batcher.addStateUpdate(stateUpdate("device01"));
+        // 断言：状态更新被切分到第二个批次，且在第一个批次完成前不发送
+        waitUntil(() -> sendPromises.size() == 1);
+        Thread.sleep(200L);
+        assertEquals(1, sendPromises.size());
+        assertEquals(1, batches.get(0).getPropertyReports().size());
+        assertTrue(batches.get(0).getStateUpdates().isEmpty());
+        // 调用：第一个批次完成
+        sendPromises.get(0).complete(CommonResult.success(allSuccess(batches.get(0))));
+        assertTrue(await(future1).isSuccess());
+        // 断言：第二个批次发送
+        waitUntil(() -> sendPromises.size() == 2);
+        assertEquals(1, batches.get(1).getStateUpdates().size());
+        assertFalse(future2.isComplete());
+        sendPromises.get(1).complete(CommonResult.success(allSuccess(batches.get(1))));
+        assertTrue(await(future2).isSuccess());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        // 准备参数
+        Promise<CommonResult<IotDeviceUpstreamBatchRespDTO>> sendPromise = Promise.promise();
+        IotDeviceUpstreamBatcher batcher = new IotDeviceUpstreamBatcher(vertx, 100, 60000,
+                recordingSender(batch -> sendPromise.future()));
+        Future<CommonResult<Boolean>> future = batcher.addEventReport(eventReport("device01"));
+
+        // 调用
+        Future<Void> closeFuture = batcher.close();
+        // 断言：关闭时发送剩余的消息，发送完成后才关闭完成
+        waitUntil(() -> batches.size() == 1);
+        assertFalse(closeFuture.isComplete());
+        sendPromise.complete(CommonResult.success(allSuccess(batches.get(0))));
+        await(closeFuture);
+        assertTrue(await(future).isSuccess());
+        // 断言：之后不再接收
+        CommonResult<Boolean> result = await(batcher.addEventReport(eventReport("device01")));
+        assertEquals(INTERNAL_SERVER_ERROR.getCode(), result.getCode());
+        assertEquals(1, batches.size());
+    }
+
+    private Function<IotDeviceUpstreamBatchReqDTO, Future<CommonResult<IotDeviceUpstreamBatchRespDTO>>> recordingSender(
+            Function<IotDeviceUpstreamBatchReqDTO, Future<CommonResult<IotDeviceUpstreamBatchRespDTO>>> sender) {
+        return batch -> {
+            batches.add(batch);
+            return sender.apply(batch);
+        };
+    }
+
+    private static IotDeviceUpstreamBatchRespDTO allSuccess(IotDeviceUpstreamBatchReqDTO batch) {
+        return new IotDeviceUpstreamBatchRespDTO()
+                .setStateUpdates(Collections.nCopies(batch.getStateUpdates().size(), true))
+                .setPropertyReports(Collections.nCopies(batch.getPropertyReports().size(), true))
+                .setEventReports(Collections.nCopies(batch.getEventReports().size(), true));
+    }
+
+    private static IotDeviceStateUpdateReqDTO stateUpdate(String deviceName) {
+        IotDeviceStateUpdateReqDTO reqDTO = new IotDeviceStateUpdateReqDTO();
+        reqDTO.setProductKey("product01").setDeviceName(deviceName);
+        return reqDTO;
+    }
+
+    private static IotDevicePropertyReportReqDTO propertyReport(String deviceName) {
+        IotDevicePropertyReportReqDTO reqDTO = new IotDevicePropertyReportReqDTO();
+        reqDTO.setProductKey("product01").setDeviceName(deviceName);
+        return reqDTO;
+    }
+
+    private static IotDeviceEventReportReqDTO eventReport(String deviceName) {
+        IotDeviceEventReportReqDTO reqDTO = new IotDeviceEventReportReqDTO();
+        reqDTO.setProductKey("product01").setDeviceName(deviceName);
+        return reqDTO;
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待条件超时");
+            Thread.sleep(10L);
+        }
+    }
+
+}
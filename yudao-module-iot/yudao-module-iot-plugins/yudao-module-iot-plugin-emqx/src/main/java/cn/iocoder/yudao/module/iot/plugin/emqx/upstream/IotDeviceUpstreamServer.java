@@ -2,6 +2,7 @@ package cn.iocoder.yudao.module.iot.plugin.emqx.upstream;
 
 import cn.hutool.core.util.ArrayUtil;
 import cn.iocoder.yudao.module.iot.api.device.IotDeviceUpstreamApi;
+import cn.iocoder.yudao.module.iot.plugin.common.upstream.IotDeviceUpstreamAsyncApi;
 import cn.iocoder.yudao.module.iot.plugin.emqx.config.IotPluginEmqxProperties;
 import cn.iocoder.yudao.module.iot.plugin.emqx.upstream.router.IotDeviceAuthVertxHandler;
 import cn.iocoder.yudao.module.iot.plugin.emqx.upstream.router.IotDeviceMqttMessageHandler;
@@ -58,6 +59,7 @@ public class IotDeviceUpstreamServer {
         this.vertx = vertx;
         this.emqxProperties = emqxProperties;
         this.client = client;
+        IotDeviceUpstreamAsyncApi deviceUpstreamAsyncApi = IotDeviceUpstreamAsyncApi.of(deviceUpstreamApi, vertx);
 
         // 创建 Router 实例
         Router router = Router.router(vertx);
@@ -65,13 +67,13 @@ public class IotDeviceUpstreamServer {
         router.post(IotDeviceAuthVertxHandler.PATH)
                 // TODO @haohao：疑问，mqtt 的认证，需要通过 http 呀？
                 // 回复：MQTT 认证不必须通过 HTTP 进行，但 HTTP 认证是 EMQX 等 MQTT 服务器支持的一种灵活的认证方式
-                .handler(new IotDeviceAuthVertxHandler(deviceUpstreamApi));
+                .handler(new IotDeviceAuthVertxHandler(deviceUpstreamAsyncApi));
         // 添加 Webhook 处理器，用于处理设备连接和断开连接事件
         router.post(IotDeviceWebhookVertxHandler.PATH)
-                .handler(new IotDeviceWebhookVertxHandler(deviceUpstreamApi));
+                .handler(new IotDeviceWebhookVertxHandler(deviceUpstreamAsyncApi));
         // 创建 HttpServer 实例
         this.server = vertx.createHttpServer().requestHandler(router);
-        this.mqttMessageHandler = new IotDeviceMqttMessageHandler(deviceUpstreamApi, client);
+        this.mqttMessageHandler = new IotDeviceMqttMessageHandler(deviceUpstreamAsyncApi, client);
     }
 
     /**
@@ -218,14 +220,7 @@ public class IotDeviceUpstreamServer {
                        .toCompletableFuture()
                        .join();
             }
-
-            // 关闭 Vertx 实例
-            if (vertx!= null) {
-                vertx.close()
-                      .toCompletionStage()
-                      .toCompletableFuture()
-                      .join();
-            }
+            // 注意：Vertx 实例由 Spring 管理，与上行客户端共用，这里不关闭
             log.info("[stop][关闭完成]");
         } catch (Exception e) {
             log.error("[stop][关闭服务异常]", e);
@@ -1,8 +1,8 @@
 package cn.iocoder.yudao.module.iot.plugin.emqx.upstream.router;
 
 import cn.iocoder.yudao.framework.common.pojo.CommonResult;
-import cn.iocoder.yudao.module.iot.api.device.IotDeviceUpstreamApi;
 import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.IotDeviceEmqxAuthReqDTO;
+import cn.iocoder.yudao.module.iot.plugin.common.upstream.IotDeviceUpstreamAsyncApi;
 import cn.iocoder.yudao.module.iot.plugin.common.util.IotPluginCommonUtils;
 import io.vertx.core.Handler;
 import io.vertx.core.json.JsonObject;
@@ -28,7 +28,7 @@ public class IotDeviceAuthVertxHandler implements Handler<RoutingContext> {
 
     public static final String PATH = "/mqtt/auth";
 
-    private final IotDeviceUpstreamApi deviceUpstreamApi;
+    private final IotDeviceUpstreamAsyncApi deviceUpstreamApi;
 
     @Override
     public void handle(RoutingContext routingContext) {
@@ -43,17 +43,19 @@ public class IotDeviceAuthVertxHandler implements Handler<RoutingContext> {
                     .setUsername(username)
                     .setPassword(password);
 
-            // 调用认证 API
-            CommonResult<Boolean> authResult = deviceUpstreamApi.authenticateEmqxConnection(authReqDTO);
-            if (authResult.getCode() != 0 || !authResult.getData()) {
-                // 注意：这里必须返回 {"result": "deny"} 格式，以符合 EMQX 认证插件的要求
-                IotPluginCommonUtils.writeJsonResponse(routingContext, Collections.singletonMap("result", "deny"));
-                return;
-            }
+            // 调用认证 API（异步，不阻塞 event loop）
+            deviceUpstreamApi.authenticateEmqxConnectionAsync(authReqDTO).onComplete(ar -> {
+                CommonResult<Boolean> authResult = ar.succeeded() ? ar.result() : null;
+                if (authResult == null || authResult.getCode() != 0 || !Boolean.TRUE.equals(authResult.getData())) {
+                    // 注意：这里必须返回 {"result": "deny"} 格式，以符合 EMQX 认证插件的要求
+                    IotPluginCommonUtils.writeJsonResponse(routingContext, Collections.singletonMap("result", "deny"));
+                    return;
+                }
 
-            // 响应结果
-            // 注意：这里必须返回 {"result": "allow"} 格式，以符合 EMQX 认证插件的要求
-            IotPluginCommonUtils.writeJsonResponse(routingContext, Collections.singletonMap("result", "allow"));
+                // 响应结果
+                // 注意：这里必须返回 {"result": "allow"} 格式，以符合 EMQX 认证插件的要求
+                IotPluginCommonUtils.writeJsonResponse(routingContext, Collections.singletonMap("result", "allow"));
+            });
         } catch (Exception e) {
             log.error("[handle][EMQX 认证异常]", e);
             // 注意：这里必须返回 {"result": "deny"} 格式，以符合 EMQX 认证插件的要求
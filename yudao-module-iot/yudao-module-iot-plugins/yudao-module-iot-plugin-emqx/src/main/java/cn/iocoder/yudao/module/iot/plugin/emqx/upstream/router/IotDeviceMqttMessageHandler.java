@@ -4,10 +4,10 @@ import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
 import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
-import cn.iocoder.yudao.module.iot.api.device.IotDeviceUpstreamApi;
 import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.IotDeviceEventReportReqDTO;
 import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.IotDevicePropertyReportReqDTO;
 import cn.iocoder.yudao.module.iot.plugin.common.pojo.IotStandardResponse;
+import cn.iocoder.yudao.module.iot.plugin.common.upstream.IotDeviceUpstreamAsyncApi;
 import cn.iocoder.yudao.module.iot.plugin.common.util.IotPluginCommonUtils;
 import io.netty.handler.codec.mqtt.MqttQoS;
 import io.vertx.core.buffer.Buffer;
@@ -46,10 +46,10 @@ public class IotDeviceMqttMessageHandler {
     private static final String EVENT_METHOD_PREFIX = "thing.event.";
     private static final String EVENT_METHOD_SUFFIX = ".post";
 
-    private final IotDeviceUpstreamApi deviceUpstreamApi;
+    private final IotDeviceUpstreamAsyncApi deviceUpstreamApi;
     private final MqttClient mqttClient;
 
-    public IotDeviceMqttMessageHandler(IotDeviceUpstreamApi deviceUpstreamApi, MqttClient mqttClient) {
+    public IotDeviceMqttMessageHandler(IotDeviceUpstreamAsyncApi deviceUpstreamApi, MqttClient mqttClient) {
         this.deviceUpstreamApi = deviceUpstreamApi;
         this.mqttClient = mqttClient;
     }
@@ -124,12 +124,11 @@ public class IotDeviceMqttMessageHandler {
             // 构建设备属性上报请求对象
             IotDevicePropertyReportReqDTO reportReqDTO = buildPropertyReportDTO(jsonObject, topicParts);
 
-            // 调用上游 API 处理设备上报数据
-            deviceUpstreamApi.reportDeviceProperty(reportReqDTO);
-            log.info("[handlePropertyPost][处理设备属性上报成功][topic: {}]", topic);
-
-            // 发送响应消息
-            sendResponse(topic, jsonObject, PROPERTY_METHOD, null);
+            // 调用上游 API 处理设备上报数据，成功后发送响应消息
+            deviceUpstreamApi.reportDevicePropertyAsync(reportReqDTO).onSuccess(result -> {
+                log.info("[handlePropertyPost][处理设备属性上报成功][topic: {}]", topic);
+                sendResponse(topic, jsonObject, PROPERTY_METHOD, null);
+            });
         } catch (Exception e) {
             log.error("[handlePropertyPost][处理设备属性上报失败][topic: {}][payload: {}]", topic, payload, e);
         }
@@ -153,19 +152,20 @@ public class IotDeviceMqttMessageHandler {
             // 构建设备事件上报请求对象
             IotDeviceEventReportReqDTO reportReqDTO = buildEventReportDTO(jsonObject, topicParts);
 
-            // 调用上游 API 处理设备上报数据
-            deviceUpstreamApi.reportDeviceEvent(reportReqDTO);
-            log.info("[handleEventPost][处理设备事件上报成功][topic: {}]", topic);
+            // 调用上游 API 处理设备上报数据，成功后发送响应消息
+            deviceUpstreamApi.reportDeviceEventAsync(reportReqDTO).onSuccess(result -> {
+                log.info("[handleEventPost][处理设备事件上报成功][topic: {}]", topic);
 
-            // 从 topic 中获取事件标识符
-            String eventIdentifier = getEventIdentifier(topicParts, topic);
-            if (eventIdentifier == null) {
-                return;
-            }
+                // 从 topic 中获取事件标识符
+                String eventIdentifier = getEventIdentifier(topicParts, topic);
+                if (eventIdentifier == null) {
+                    return;
+                }
 
-            // 发送响应消息
-            String method = EVENT_METHOD_PREFIX + eventIdentifier + EVENT_METHOD_SUFFIX;
-            sendResponse(topic, jsonObject, method, null);
+                // 发送响应消息
+                String method = EVENT_METHOD_PREFIX + eventIdentifier + EVENT_METHOD_SUFFIX;
+                sendResponse(topic, jsonObject, method, null);
+            });
         } catch (Exception e) {
             log.error("[handleEventPost][处理设备事件上报失败][topic: {}][payload: {}]", topic, payload, e);
         }
@@ -1,10 +1,9 @@
 package cn.iocoder.yudao.module.iot.plugin.emqx.upstream.router;
 
 import cn.hutool.core.util.StrUtil;
-import cn.iocoder.yudao.framework.common.pojo.CommonResult;
-import cn.iocoder.yudao.module.iot.api.device.IotDeviceUpstreamApi;
 import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.IotDeviceStateUpdateReqDTO;
 import cn.iocoder.yudao.module.iot.enums.device.IotDeviceStateEnum;
+import cn.iocoder.yudao.module.iot.plugin.common.upstream.IotDeviceUpstreamAsyncApi;
 import cn.iocoder.yudao.module.iot.plugin.common.util.IotPluginCommonUtils;
 import io.vertx.core.Handler;
 import io.vertx.core.json.JsonObject;
@@ -31,7 +30,7 @@ public class IotDeviceWebhookVertxHandler implements Handler<RoutingContext> {
 
     public static final String PATH = "/mqtt/webhook";
 
-    private final IotDeviceUpstreamApi deviceUpstreamApi;
+    private final IotDeviceUpstreamAsyncApi deviceUpstreamApi;
 
     @Override
     public void handle(RoutingContext routingContext) {
@@ -89,13 +88,14 @@ public class IotDeviceWebhookVertxHandler implements Handler<RoutingContext> {
         updateReqDTO.setState(IotDeviceStateEnum.ONLINE.getState());
         updateReqDTO.setProcessId(IotPluginCommonUtils.getProcessId());
         updateReqDTO.setReportTime(LocalDateTime.now());
-        CommonResult<Boolean> result = deviceUpstreamApi.updateDeviceState(updateReqDTO);
-        if (result.getCode() != 0 || !result.getData()) {
-            log.error("[handleClientConnected][更新设备状态为在线失败] clientId={}, username={}, code={}, msg={}",
-                    clientId, username, result.getCode(), result.getMsg());
-        } else {
-            log.info("[handleClientConnected][更新设备状态为在线成功] clientId={}, username={}", clientId, username);
-        }
+        deviceUpstreamApi.updateDeviceStateAsync(updateReqDTO).onSuccess(result -> {
+            if (result.getCode() != 0 || !Boolean.TRUE.equals(result.getData())) {
+                log.error("[handleClientConnected][更新设备状态为在线失败] clientId={}, username={}, code={}, msg={}",
+                        clientId, username, result.getCode(), result.getMsg());
+            } else {
+                log.info("[handleClientConnected][更新设备状态为在线成功] clientId={}, username={}", clientId, username);
+            }
+        });
     }
 
     /**
@@ -122,13 +122,14 @@ public class IotDeviceWebhookVertxHandler implements Handler<RoutingContext> {
         offlineReqDTO.setState(IotDeviceStateEnum.OFFLINE.getState());
         offlineReqDTO.setProcessId(IotPluginCommonUtils.getProcessId());
         offlineReqDTO.setReportTime(LocalDateTime.now());
-        CommonResult<Boolean> offlineResult = deviceUpstreamApi.updateDeviceState(offlineReqDTO);
-        if (offlineResult.getCode() != 0 || !offlineResult.getData()) {
-            log.error("[handleClientDisconnected][更新设备状态为离线失败] clientId={}, username={}, code={}, msg={}",
-                    clientId, username, offlineResult.getCode(), offlineResult.getMsg());
-        } else {
-            log.info("[handleClientDisconnected][更新设备状态为离线成功] clientId={}, username={}", clientId, username);
-        }
+        deviceUpstreamApi.updateDeviceStateAsync(offlineReqDTO).onSuccess(offlineResult -> {
+            if (offlineResult.getCode() != 0 || !Boolean.TRUE.equals(offlineResult.getData())) {
+                log.error("[handleClientDisconnected][更新设备状态为离线失败] clientId={}, username={}, code={}, msg={}",
+                        clientId, username, offlineResult.getCode(), offlineResult.getMsg());
+            } else {
+                log.info("[handleClientDisconnected][更新设备状态为离线成功] clientId={}, username={}", clientId, username);
+            }
+        });
     }
 
     /**
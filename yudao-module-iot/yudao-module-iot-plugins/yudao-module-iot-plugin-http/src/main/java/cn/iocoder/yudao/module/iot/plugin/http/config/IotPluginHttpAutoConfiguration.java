@@ -4,6 +4,7 @@ import cn.iocoder.yudao.module.iot.api.device.IotDeviceUpstreamApi;
 import cn.iocoder.yudao.module.iot.plugin.common.downstream.IotDeviceDownstreamHandler;
 import cn.iocoder.yudao.module.iot.plugin.http.downstream.IotDeviceDownstreamHandlerImpl;
 import cn.iocoder.yudao.module.iot.plugin.http.upstream.IotDeviceUpstreamServer;
+import io.vertx.core.Vertx;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,8 +20,9 @@ public class IotPluginHttpAutoConfiguration {
 
     @Bean(initMethod = "start", destroyMethod = "stop")
     public IotDeviceUpstreamServer deviceUpstreamServer(IotDeviceUpstreamApi deviceUpstreamApi,
-                                                        IotPluginHttpProperties properties) {
-        return new IotDeviceUpstreamServer(properties, deviceUpstreamApi);
+                                                        IotPluginHttpProperties properties,
+                                                        Vertx vertx) {
+        return new IotDeviceUpstreamServer(properties, deviceUpstreamApi, vertx);
     }
 
     @Bean
@@ -1,6 +1,7 @@
 package cn.iocoder.yudao.module.iot.plugin.http.upstream;
 
 import cn.iocoder.yudao.module.iot.api.device.IotDeviceUpstreamApi;
+import cn.iocoder.yudao.module.iot.plugin.common.upstream.IotDeviceUpstreamAsyncApi;
 import cn.iocoder.yudao.module.iot.plugin.http.config.IotPluginHttpProperties;
 import cn.iocoder.yudao.module.iot.plugin.http.upstream.router.IotDeviceUpstreamVertxHandler;
 import io.vertx.core.Vertx;
@@ -24,16 +25,17 @@ public class IotDeviceUpstreamServer {
     private final IotPluginHttpProperties properties;
 
     public IotDeviceUpstreamServer(IotPluginHttpProperties properties,
-                                   IotDeviceUpstreamApi deviceUpstreamApi) {
+                                   IotDeviceUpstreamApi deviceUpstreamApi,
+                                   Vertx vertx) {
         this.properties = properties;
-        // 创建 Vertx 实例
-        this.vertx = Vertx.vertx();
+        this.vertx = vertx;
         // 创建 Router 实例
         Router router = Router.router(vertx);
         router.route().handler(BodyHandler.create()); // 处理 Body
 
         // 使用统一的 Handler 处理所有上行请求
-        IotDeviceUpstreamVertxHandler upstreamHandler = new IotDeviceUpstreamVertxHandler(deviceUpstreamApi);
+        IotDeviceUpstreamVertxHandler upstreamHandler = new IotDeviceUpstreamVertxHandler(
+                IotDeviceUpstreamAsyncApi.of(deviceUpstreamApi, vertx));
         router.post(IotDeviceUpstreamVertxHandler.PROPERTY_PATH).handler(upstreamHandler);
         router.post(IotDeviceUpstreamVertxHandler.EVENT_PATH).handler(upstreamHandler);
 
@@ -66,14 +68,7 @@ public class IotDeviceUpstreamServer {
                         .toCompletableFuture()
                         .join();
             }
-
-            // 关闭 Vertx 实例
-            if (vertx != null) {
-                vertx.close()
-                        .toCompletionStage()
-                        .toCompletableFuture()
-                        .join();
-            }
+            // 注意：Vertx 实例由 Spring 管理，与上行客户端共用，这里不关闭
             log.info("[stop][关闭完成]");
         } catch (Exception e) {
             log.error("[stop][关闭异常]", e);
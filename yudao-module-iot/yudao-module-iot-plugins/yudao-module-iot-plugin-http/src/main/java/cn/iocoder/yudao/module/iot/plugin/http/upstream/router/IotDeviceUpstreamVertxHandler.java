@@ -3,13 +3,14 @@ package cn.iocoder.yudao.module.iot.plugin.http.upstream.router;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.ObjUtil;
 import cn.iocoder.yudao.framework.common.pojo.CommonResult;
-import cn.iocoder.yudao.module.iot.api.device.IotDeviceUpstreamApi;
 import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.IotDeviceEventReportReqDTO;
 import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.IotDevicePropertyReportReqDTO;
 import cn.iocoder.yudao.module.iot.api.device.dto.control.upstream.IotDeviceStateUpdateReqDTO;
 import cn.iocoder.yudao.module.iot.enums.device.IotDeviceStateEnum;
 import cn.iocoder.yudao.module.iot.plugin.common.pojo.IotStandardResponse;
+import cn.iocoder.yudao.module.iot.plugin.common.upstream.IotDeviceUpstreamAsyncApi;
 import cn.iocoder.yudao.module.iot.plugin.common.util.IotPluginCommonUtils;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
@@ -48,7 +49,7 @@ public class IotDeviceUpstreamVertxHandler implements Handler<RoutingContext> {
     private static final String EVENT_METHOD_PREFIX = "thing.event.";
     private static final String EVENT_METHOD_SUFFIX = ".post";
 
-    private final IotDeviceUpstreamApi deviceUpstreamApi;
+    private final IotDeviceUpstreamAsyncApi deviceUpstreamApi;
 
     // TODO @haohao：要不要分成多个 Handler？每个只解决一个问题哈。
     @Override
@@ -64,7 +65,7 @@ public class IotDeviceUpstreamVertxHandler implements Handler<RoutingContext> {
             requestId = ObjUtil.defaultIfBlank(body.getString("id"), requestId);
 
             // 2. 根据路径模式处理不同类型的请求
-            CommonResult<Boolean> result;
+            Future<CommonResult<Boolean>> resultFuture;
             String method;
             if (path.matches(".*/thing/event/property/post")) {
                 // 处理属性上报
@@ -74,7 +75,7 @@ public class IotDeviceUpstreamVertxHandler implements Handler<RoutingContext> {
                 updateDeviceState(reportReqDTO.getProductKey(), reportReqDTO.getDeviceName());
 
                 // 属性上报
-                result = deviceUpstreamApi.reportDeviceProperty(reportReqDTO);
+                resultFuture = deviceUpstreamApi.reportDevicePropertyAsync(reportReqDTO);
                 method = PROPERTY_METHOD;
             } else if (path.matches(".*/thing/event/.+/post")) {
                 // 处理事件上报
@@ -85,7 +86,7 @@ public class IotDeviceUpstreamVertxHandler implements Handler<RoutingContext> {
                 updateDeviceState(reportReqDTO.getProductKey(), reportReqDTO.getDeviceName());
 
                 // 事件上报
-                result = deviceUpstreamApi.reportDeviceEvent(reportReqDTO);
+                resultFuture = deviceUpstreamApi.reportDeviceEventAsync(reportReqDTO);
                 method = EVENT_METHOD_PREFIX + identifier + EVENT_METHOD_SUFFIX;
             } else {
                 // 不支持的请求路径
@@ -94,14 +95,18 @@ public class IotDeviceUpstreamVertxHandler implements Handler<RoutingContext> {
                 return;
             }
 
-            // 3. 返回标准响应
-            IotStandardResponse response;
-            if (result.isSuccess()) {
-                response = IotStandardResponse.success(requestId, method, result.getData());
-            } else {
-                response = IotStandardResponse.error(requestId, method, result.getCode(), result.getMsg());
-            }
-            IotPluginCommonUtils.writeJsonResponse(routingContext, response);
+            // 3. 返回标准响应（异步，不阻塞 event loop）
+            String finalRequestId = requestId;
+            resultFuture.onComplete(ar -> {
+                CommonResult<Boolean> result = ar.succeeded() ? ar.result() : CommonResult.error(INTERNAL_SERVER_ERROR);
+                IotStandardResponse response;
+                if (result.isSuccess()) {
+                    response = IotStandardResponse.success(finalRequestId, method, result.getData());
+                } else {
+                    response = IotStandardResponse.error(finalRequestId, method, result.getCode(), result.getMsg());
+                }
+                IotPluginCommonUtils.writeJsonResponse(routingContext, response);
+            });
         } catch (Exception e) {
             log.error("[handle][处理上行请求异常] path={}", path, e);
             String method = path.contains("/property/") ? PROPERTY_METHOD
@@ -114,13 +119,13 @@ public class IotDeviceUpstreamVertxHandler implements Handler<RoutingContext> {
     }
 
     /**
-     * 更新设备状态
+     * 更新设备状态，无需等待结果
      *
      * @param productKey 产品 Key
      * @param deviceName 设备名称
      */
     private void updateDeviceState(String productKey, String deviceName) {
-        deviceUpstreamApi.updateDeviceState(((IotDeviceStateUpdateReqDTO) new IotDeviceStateUpdateReqDTO()
+        deviceUpstreamApi.updateDeviceStateAsync(((IotDeviceStateUpdateReqDTO) new IotDeviceStateUpdateReqDTO()
                 .setRequestId(IdUtil.fastSimpleUUID()).setProcessId(IotPluginCommonUtils.getProcessId()).setReportTime(LocalDateTime.now())
                 .setProductKey(productKey).setDeviceName(deviceName)).setState(IotDeviceStateEnum.ONLINE.getState()));
     }
@@ -1,8 +1,8 @@
 package cn.iocoder.yudao.module.system.controller.admin.logger;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.iocoder.yudao.framework.apilog.core.annotation.ApiAccessLog;
 import cn.iocoder.yudao.framework.common.pojo.CommonResult;
-import cn.iocoder.yudao.framework.common.pojo.PageParam;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.framework.common.util.object.BeanUtils;
 import cn.iocoder.yudao.framework.excel.core.util.ExcelUtils;
@@ -49,11 +49,17 @@ public class LoginLogController {
     @PreAuthorize("@ss.hasPermission('system:login-log:export')")
     @ApiAccessLog(operateType = EXPORT)
     public void exportLoginLog(HttpServletResponse response, @Valid LoginLogPageReqVO exportReqVO) throws IOException {
-        exportReqVO.setPageSize(PageParam.PAGE_SIZE_NONE);
-        List<LoginLogDO> list = loginLogService.getLoginLogPage(exportReqVO).getList();
-        // 输出
+        // 输出：游标分批查询 + 流式写入
+        exportReqVO.setPageSize(ExcelUtils.STREAM_PAGE_SIZE_DEFAULT);
+        exportReqVO.setSearchCount(false);
         ExcelUtils.write(response, "登录日志.xls", "数据列表", LoginLogRespVO.class,
-                BeanUtils.toBean(list, LoginLogRespVO.class));
+                ExcelUtils.STREAM_PAGE_SIZE_DEFAULT, pageNo -> {
+                    List<LoginLogDO> list = loginLogService.getLoginLogPage(exportReqVO).getList();
+                    if (CollUtil.isNotEmpty(list)) {
+                        exportReqVO.setLastId(CollUtil.getLast(list).getId());
+                    }
+                    return BeanUtils.toBean(list, LoginLogRespVO.class);
+                });
     }
 
 }
@@ -1,8 +1,8 @@
 package cn.iocoder.yudao.module.system.controller.admin.logger;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.iocoder.yudao.framework.apilog.core.annotation.ApiAccessLog;
 import cn.iocoder.yudao.framework.common.pojo.CommonResult;
-import cn.iocoder.yudao.framework.common.pojo.PageParam;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.framework.common.util.object.BeanUtils;
 import cn.iocoder.yudao.framework.excel.core.util.ExcelUtils;
@@ -50,10 +50,17 @@ public class OperateLogController {
     @PreAuthorize("@ss.hasPermission('system:operate-log:export')")
     @ApiAccessLog(operateType = EXPORT)
     public void exportOperateLog(HttpServletResponse response, @Valid OperateLogPageReqVO exportReqVO) throws IOException {
-        exportReqVO.setPageSize(PageParam.PAGE_SIZE_NONE);
-        List<OperateLogDO> list = operateLogService.getOperateLogPage(exportReqVO).getList();
+        // 游标分批查询 + 流式写入
+        exportReqVO.setPageSize(ExcelUtils.STREAM_PAGE_SIZE_DEFAULT);
+        exportReqVO.setSearchCount(false);
         ExcelUtils.write(response, "操作日志.xls", "数据列表", OperateLogRespVO.class,
-                TranslateUtils.translate(BeanUtils.toBean(list, OperateLogRespVO.class)));
+                ExcelUtils.STREAM_PAGE_SIZE_DEFAULT, pageNo -> {
+                    List<OperateLogDO> list = operateLogService.getOperateLogPage(exportReqVO).getList();
+                    if (CollUtil.isNotEmpty(list)) {
+                        exportReqVO.setLastId(CollUtil.getLast(list).getId());
+                    }
+                    return TranslateUtils.translate(BeanUtils.toBean(list, OperateLogRespVO.class));
+                });
     }
 
 }
@@ -1,6 +1,6 @@
 package cn.iocoder.yudao.module.system.controller.admin.logger.vo.loginlog;
 
-import cn.iocoder.yudao.framework.common.pojo.PageParam;
+import cn.iocoder.yudao.framework.common.pojo.CursorPageParam;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -13,7 +13,7 @@ import static cn.iocoder.yudao.framework.common.util.date.DateUtils.FORMAT_YEAR_
 @Schema(description = "管理后台 - 登录日志分页列表 Request VO")
 @Data
 @EqualsAndHashCode(callSuper = true)
-public class LoginLogPageReqVO extends PageParam {
+public class LoginLogPageReqVO extends CursorPageParam {
 
     @Schema(description = "用户 IP，模拟匹配", example = "127.0.0.1")
     private String userIp;
@@ -6,6 +6,7 @@ import cn.iocoder.yudao.framework.common.enums.CommonStatusEnum;
 import cn.iocoder.yudao.framework.common.pojo.CommonResult;
 import cn.iocoder.yudao.framework.common.pojo.PageParam;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
+import cn.iocoder.yudao.framework.excel.core.listener.BatchReadListener;
 import cn.iocoder.yudao.framework.excel.core.util.ExcelUtils;
 import cn.iocoder.yudao.module.system.controller.admin.user.vo.user.*;
 import cn.iocoder.yudao.module.system.convert.user.UserConvert;
@@ -27,13 +28,17 @@ import javax.annotation.Resource;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import static cn.iocoder.yudao.framework.apilog.core.enums.OperateTypeEnum.EXPORT;
+import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
 import static cn.iocoder.yudao.framework.common.pojo.CommonResult.success;
 import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
+import static cn.iocoder.yudao.module.system.enums.ErrorCodeConstants.USER_IMPORT_LIST_IS_EMPTY;
 
 @Tag(name = "管理后台 - 用户")
 @RestController
@@ -165,8 +170,23 @@ public class UserController {
     @PreAuthorize("@ss.hasPermission('system:user:import')")
     public CommonResult<UserImportRespVO> importExcel(@RequestParam("file") MultipartFile file,
                                                       @RequestParam(value = "updateSupport", required = false, defaultValue = "false") Boolean updateSupport) throws Exception {
-        List<UserImportExcelVO> list = ExcelUtils.read(file, UserImportExcelVO.class);
-        return success(userService.importUserList(list, updateSupport));
+        // 分批读取、导入，避免一次性加载整个 Excel
+        UserImportRespVO respVO = UserImportRespVO.builder().createUsernames(new ArrayList<>())
+                .updateUsernames(new ArrayList<>()).failureUsernames(new LinkedHashMap<>()).build();
+        BatchReadListener<UserImportExcelVO> readResult = ExcelUtils.read(file, UserImportExcelVO.class,
+                ExcelUtils.BATCH_READ_SIZE_DEFAULT, list -> {
+                    UserImportRespVO batchRespVO = userService.importUserList(list, updateSupport);
+                    respVO.getCreateUsernames().addAll(batchRespVO.getCreateUsernames());
+                    respVO.getUpdateUsernames().addAll(batchRespVO.getUpdateUsernames());
+                    respVO.getFailureUsernames().putAll(batchRespVO.getFailureUsernames());
+                });
+        // 格式不正确的行，没有用户名，使用行号作为 key
+        readResult.getFailureRows().forEach((rowNo, message) ->
+                respVO.getFailureUsernames().put(String.format("第 %d 行", rowNo), message));
+        if (readResult.getReadCount() == 0 && readResult.getFailureRows().isEmpty()) {
+            throw exception(USER_IMPORT_LIST_IS_EMPTY);
+        }
+        return success(respVO);
     }
 
 }
@@ -21,8 +21,8 @@ public interface LoginLogMapper extends BaseMapperX<LoginLogDO> {
         } else if (Boolean.FALSE.equals(reqVO.getStatus())) {
             query.gt(LoginLogDO::getResult, LoginResultEnum.SUCCESS.getResult());
         }
-        query.orderByDesc(LoginLogDO::getId); // 降序
-        return selectPage(reqVO, query);
+        // 按照编号降序；第一页、传入 lastId 时，使用游标分页
+        return selectCursorOrOffsetPage(reqVO, LoginLogDO::getId, query);
     }
 
 }
@@ -12,14 +12,14 @@ import org.apache.ibatis.annotations.Mapper;
 public interface OperateLogMapper extends BaseMapperX<OperateLogDO> {
 
     default PageResult<OperateLogDO> selectPage(OperateLogPageReqVO pageReqDTO) {
-        return selectPage(pageReqDTO, new LambdaQueryWrapperX<OperateLogDO>()
+        // 按照编号降序；第一页、传入 lastId 时，使用游标分页
+        return selectCursorOrOffsetPage(pageReqDTO, OperateLogDO::getId, new LambdaQueryWrapperX<OperateLogDO>()
                 .eqIfPresent(OperateLogDO::getUserId, pageReqDTO.getUserId())
                 .eqIfPresent(OperateLogDO::getBizId, pageReqDTO.getBizId())
                 .likeIfPresent(OperateLogDO::getType, pageReqDTO.getType())
                 .likeIfPresent(OperateLogDO::getSubType, pageReqDTO.getSubType())
                 .likeIfPresent(OperateLogDO::getAction, pageReqDTO.getAction())
-                .betweenIfPresent(OperateLogDO::getCreateTime, pageReqDTO.getCreateTime())
-                .orderByDesc(OperateLogDO::getId));
+                .betweenIfPresent(OperateLogDO::getCreateTime, pageReqDTO.getCreateTime()));
     }
 
     default PageResult<OperateLogDO> selectPage(OperateLogPageReqDTO pageReqDTO) {
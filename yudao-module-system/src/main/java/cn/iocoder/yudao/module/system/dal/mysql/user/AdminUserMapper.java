@@ -17,14 +17,26 @@ public interface AdminUserMapper extends BaseMapperX<AdminUserDO> {
         return selectOne(AdminUserDO::getUsername, username);
     }
 
+    default List<AdminUserDO> selectListByUsernames(Collection<String> usernames) {
+        return selectList(AdminUserDO::getUsername, usernames);
+    }
+
     default AdminUserDO selectByEmail(String email) {
         return selectOne(AdminUserDO::getEmail, email);
     }
 
+    default List<AdminUserDO> selectListByEmails(Collection<String> emails) {
+        return selectList(AdminUserDO::getEmail, emails);
+    }
+
     default AdminUserDO selectByMobile(String mobile) {
         return selectOne(AdminUserDO::getMobile, mobile);
     }
 
+    default List<AdminUserDO> selectListByMobiles(Collection<String> mobiles) {
+        return selectList(AdminUserDO::getMobile, mobiles);
+    }
+
     default PageResult<AdminUserDO> selectPage(UserPageReqVO reqVO, Collection<Long> deptIds, Collection<Long> userIds) {
         return selectPage(reqVO, new LambdaQueryWrapperX<AdminUserDO>()
                 .likeIfPresent(AdminUserDO::getUsername, reqVO.getUsername())
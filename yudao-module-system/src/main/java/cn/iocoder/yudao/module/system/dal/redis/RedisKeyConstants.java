@@ -1,5 +1,6 @@
 package cn.iocoder.yudao.module.system.dal.redis;
 
+import cn.iocoder.yudao.framework.common.biz.system.permission.dto.DeptDataPermissionRespDTO;
 import cn.iocoder.yudao.module.system.dal.dataobject.oauth2.OAuth2AccessTokenDO;
 
 /**
@@ -33,6 +34,14 @@ public interface RedisKeyConstants {
      */
     String USER_ROLE_ID_LIST = "user_role_ids";
 
+    /**
+     * 用户的部门数据权限的缓存
+     * <p>
+     * KEY 格式：user_dept_data_permission:{userId}
+     * VALUE 数据类型：String 部门数据权限 {@link DeptDataPermissionRespDTO}
+     */
+    String USER_DEPT_DATA_PERMISSION = "user_dept_data_permission";
+
     /**
      * 拥有指定菜单的角色编号的缓存
      * <p>
@@ -2,12 +2,20 @@ package cn.iocoder.yudao.module.system.dal.redis.oauth2;
 
 import cn.hutool.core.date.LocalDateTimeUtil;
 import cn.iocoder.yudao.framework.common.util.collection.CollectionUtils;
+import cn.iocoder.yudao.framework.common.util.date.DateUtils;
 import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
 import cn.iocoder.yudao.module.system.dal.dataobject.oauth2.OAuth2AccessTokenDO;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Collection;
@@ -19,17 +27,69 @@ import static cn.iocoder.yudao.module.system.dal.redis.RedisKeyConstants.OAUTH2_
 /**
  * {@link OAuth2AccessTokenDO} 的 RedisDAO
  *
+ * 在 Redis 前面，额外增加一层本地缓存，避免每个请求都访问 Redis + JSON 反序列化：
+ * 1. 本地缓存有最大数量、最大存活时长的限制，并且读取时会校验令牌的过期时间，保证不超过 expiresTime
+ * 2. 令牌被删除时，通过 Redis Pub/Sub 广播 {@link cn.iocoder.yudao.module.system.mq.message.oauth2.OAuth2AccessTokenRemoveMessage} 消息，让其它节点失效本地缓存
+ *
  * @author 芋道源码
  */
 @Repository
 public class OAuth2AccessTokenRedisDAO {
 
+    /**
+     * 本地缓存的最大数量
+     */
+    private static final long LOCAL_CACHE_MAXIMUM_SIZE = 10000L;
+    /**
+     * 本地缓存的最大存活时长
+     *
+     * 兜底作用：即使广播消息丢失，其它节点最多在该时长后感知到令牌被删除
+     */
+    private static final Duration LOCAL_CACHE_EXPIRE_AFTER_WRITE = Duration.ofMinutes(1L);
+
     @Resource
     private StringRedisTemplate stringRedisTemplate;
 
+    @Autowired(required = false) // 未引入 Micrometer 监控时，不强制注入
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 访问令牌的本地缓存
+     *
+     * KEY：访问令牌
+     * VALUE：访问令牌信息
+     */
+    private final Cache<String, OAuth2AccessTokenDO> localCache = CacheBuilder.newBuilder()
+            .maximumSize(LOCAL_CACHE_MAXIMUM_SIZE)
+            .expireAfterWrite(LOCAL_CACHE_EXPIRE_AFTER_WRITE)
+            .recordStats() // 记录命中、未命中、驱逐等统计，用于监控
+            .build();
+
+    @PostConstruct
+    public void init() {
+        if (meterRegistry != null) {
+            GuavaCacheMetrics.monitor(meterRegistry, localCache, "system.oauth2.access-token.local-cache");
+        }
+    }
+
     public OAuth2AccessTokenDO get(String accessToken) {
+        // 优先从本地缓存中获取
+        OAuth2AccessTokenDO accessTokenDO = localCache.getIfPresent(accessToken);
+        if (accessTokenDO != null) {
+            if (!DateUtils.isExpired(accessTokenDO.getExpiresTime())) {
+                return accessTokenDO;
+            }
+            // 已过期，则移除本地缓存，交给 Redis 判断
+            localCache.invalidate(accessToken);
+        }
+
+        // 获取不到，从 Redis 中获取，并写入本地缓存
         String redisKey = formatKey(accessToken);
-        return JsonUtils.parseObject(stringRedisTemplate.opsForValue().get(redisKey), OAuth2AccessTokenDO.class);
+        accessTokenDO = JsonUtils.parseObject(stringRedisTemplate.opsForValue().get(redisKey), OAuth2AccessTokenDO.class);
+        if (accessTokenDO != null && !DateUtils.isExpired(accessTokenDO.getExpiresTime())) {
+            localCache.put(accessToken, accessTokenDO);
+        }
+        return accessTokenDO;
     }
 
     public void set(OAuth2AccessTokenDO accessTokenDO) {
@@ -39,17 +99,31 @@ public class OAuth2AccessTokenRedisDAO {
         long time = LocalDateTimeUtil.between(LocalDateTime.now(), accessTokenDO.getExpiresTime(), ChronoUnit.SECONDS);
         if (time > 0) {
             stringRedisTemplate.opsForValue().set(redisKey, JsonUtils.toJsonString(accessTokenDO), time, TimeUnit.SECONDS);
+            localCache.put(accessTokenDO.getAccessToken(), accessTokenDO);
         }
     }
 
     public void delete(String accessToken) {
         String redisKey = formatKey(accessToken);
         stringRedisTemplate.delete(redisKey);
+        localCache.invalidate(accessToken);
     }
 
     public void deleteList(Collection<String> accessTokens) {
         List<String> redisKeys = CollectionUtils.convertList(accessTokens, OAuth2AccessTokenRedisDAO::formatKey);
         stringRedisTemplate.delete(redisKeys);
+        localCache.invalidateAll(accessTokens);
+    }
+
+    /**
+     * 失效本地缓存，不操作 Redis
+     *
+     * 使用场景：其它节点删除访问令牌后，通过广播消息通知当前节点
+     *
+     * @param accessTokens 访问令牌数组
+     */
+    public void invalidateLocalCache(Collection<String> accessTokens) {
+        localCache.invalidateAll(accessTokens);
     }
 
     private static String formatKey(String accessToken) {
@@ -0,0 +1,29 @@
+package cn.iocoder.yudao.module.system.mq.consumer.oauth2;
+
+import cn.iocoder.yudao.framework.mq.redis.core.pubsub.AbstractRedisChannelMessageListener;
+import cn.iocoder.yudao.module.system.dal.redis.oauth2.OAuth2AccessTokenRedisDAO;
+import cn.iocoder.yudao.module.system.mq.message.oauth2.OAuth2AccessTokenRemoveMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 针对 {@link OAuth2AccessTokenRemoveMessage} 的消费者，失效当前节点的访问令牌本地缓存
+ *
+ * @author 芋道源码
+ */
+@Component
+@Slf4j
+public class OAuth2AccessTokenRemoveConsumer extends AbstractRedisChannelMessageListener<OAuth2AccessTokenRemoveMessage> {
+
+    @Resource
+    private OAuth2AccessTokenRedisDAO oauth2AccessTokenRedisDAO;
+
+    @Override
+    public void onMessage(OAuth2AccessTokenRemoveMessage message) {
+        log.debug("[onMessage][失效访问令牌本地缓存({})]", message.getAccessTokens());
+        oauth2AccessTokenRedisDAO.invalidateLocalCache(message.getAccessTokens());
+    }
+
+}
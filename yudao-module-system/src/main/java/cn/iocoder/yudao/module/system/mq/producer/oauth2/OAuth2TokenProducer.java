@@ -0,0 +1,34 @@
+package cn.iocoder.yudao.module.system.mq.producer.oauth2;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.iocoder.yudao.framework.mq.redis.core.RedisMQTemplate;
+import cn.iocoder.yudao.module.system.mq.message.oauth2.OAuth2AccessTokenRemoveMessage;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.Collection;
+
+/**
+ * OAuth2 令牌相关消息的 Producer
+ *
+ * @author 芋道源码
+ */
+@Component
+public class OAuth2TokenProducer {
+
+    @Resource
+    private RedisMQTemplate redisMQTemplate;
+
+    /**
+     * 发送 {@link OAuth2AccessTokenRemoveMessage} 广播消息
+     *
+     * @param accessTokens 被删除的访问令牌数组
+     */
+    public void sendAccessTokenRemoveMessage(Collection<String> accessTokens) {
+        if (CollUtil.isEmpty(accessTokens)) {
+            return;
+        }
+        redisMQTemplate.send(new OAuth2AccessTokenRemoveMessage().setAccessTokens(accessTokens));
+    }
+
+}
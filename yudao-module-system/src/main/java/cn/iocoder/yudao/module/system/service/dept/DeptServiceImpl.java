@@ -14,6 +14,7 @@ import com.google.common.annotations.VisibleForTesting;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
@@ -38,8 +39,12 @@ public class DeptServiceImpl implements DeptService {
     private DeptMapper deptMapper;
 
     @Override
-    @CacheEvict(cacheNames = RedisKeyConstants.DEPT_CHILDREN_ID_LIST,
-            allEntries = true) // allEntries 清空所有缓存，因为操作一个部门，涉及到多个缓存
+    @Caching(evict = {
+            @CacheEvict(cacheNames = RedisKeyConstants.DEPT_CHILDREN_ID_LIST,
+                    allEntries = true), // allEntries 清空所有缓存，因为操作一个部门，涉及到多个缓存
+            @CacheEvict(cacheNames = RedisKeyConstants.USER_DEPT_DATA_PERMISSION,
+                    allEntries = true) // allEntries 清空所有缓存，因为“本部门及以下”的数据权限，依赖部门的层级
+    })
     public Long createDept(DeptSaveReqVO createReqVO) {
         if (createReqVO.getParentId() == null) {
             createReqVO.setParentId(DeptDO.PARENT_ID_ROOT);
@@ -56,8 +61,12 @@ public class DeptServiceImpl implements DeptService {
     }
 
     @Override
-    @CacheEvict(cacheNames = RedisKeyConstants.DEPT_CHILDREN_ID_LIST,
-            allEntries = true) // allEntries 清空所有缓存，因为操作一个部门，涉及到多个缓存
+    @Caching(evict = {
+            @CacheEvict(cacheNames = RedisKeyConstants.DEPT_CHILDREN_ID_LIST,
+                    allEntries = true), // allEntries 清空所有缓存，因为操作一个部门，涉及到多个缓存
+            @CacheEvict(cacheNames = RedisKeyConstants.USER_DEPT_DATA_PERMISSION,
+                    allEntries = true) // allEntries 清空所有缓存，因为“本部门及以下”的数据权限，依赖部门的层级
+    })
     public void updateDept(DeptSaveReqVO updateReqVO) {
         if (updateReqVO.getParentId() == null) {
             updateReqVO.setParentId(DeptDO.PARENT_ID_ROOT);
@@ -75,8 +84,12 @@ public class DeptServiceImpl implements DeptService {
     }
 
     @Override
-    @CacheEvict(cacheNames = RedisKeyConstants.DEPT_CHILDREN_ID_LIST,
-            allEntries = true) // allEntries 清空所有缓存，因为操作一个部门，涉及到多个缓存
+    @Caching(evict = {
+            @CacheEvict(cacheNames = RedisKeyConstants.DEPT_CHILDREN_ID_LIST,
+                    allEntries = true), // allEntries 清空所有缓存，因为操作一个部门，涉及到多个缓存
+            @CacheEvict(cacheNames = RedisKeyConstants.USER_DEPT_DATA_PERMISSION,
+                    allEntries = true) // allEntries 清空所有缓存，因为“本部门及以下”的数据权限，依赖部门的层级
+    })
     public void deleteDept(Long id) {
         // 校验是否存在
         validateDeptExists(id);
@@ -165,6 +165,8 @@ public class PermissionServiceImpl implements PermissionService {
             @CacheEvict(value = RedisKeyConstants.MENU_ROLE_ID_LIST,
                     allEntries = true), // allEntries 清空所有缓存，此处无法方便获得 roleId 对应的 menu 缓存们
             @CacheEvict(value = RedisKeyConstants.USER_ROLE_ID_LIST,
+                    allEntries = true), // allEntries 清空所有缓存，此处无法方便获得 roleId 对应的 user 缓存们
+            @CacheEvict(value = RedisKeyConstants.USER_DEPT_DATA_PERMISSION,
                     allEntries = true) // allEntries 清空所有缓存，此处无法方便获得 roleId 对应的 user 缓存们
     })
     public void processRoleDeleted(Long roleId) {
@@ -204,7 +206,10 @@ public class PermissionServiceImpl implements PermissionService {
 
     @Override
     @DSTransactional // 多数据源，使用 @DSTransactional 保证本地事务，以及数据源的切换
-    @CacheEvict(value = RedisKeyConstants.USER_ROLE_ID_LIST, key = "#userId")
+    @Caching(evict = {
+            @CacheEvict(value = RedisKeyConstants.USER_ROLE_ID_LIST, key = "#userId"),
+            @CacheEvict(value = RedisKeyConstants.USER_DEPT_DATA_PERMISSION, key = "#userId")
+    })
     public void assignUserRole(Long userId, Set<Long> roleIds) {
         // 获得角色拥有角色编号
         Set<Long> dbRoleIds = convertSet(userRoleMapper.selectListByUserId(userId),
@@ -228,7 +233,10 @@ public class PermissionServiceImpl implements PermissionService {
     }
 
     @Override
-    @CacheEvict(value = RedisKeyConstants.USER_ROLE_ID_LIST, key = "#userId")
+    @Caching(evict = {
+            @CacheEvict(value = RedisKeyConstants.USER_ROLE_ID_LIST, key = "#userId"),
+            @CacheEvict(value = RedisKeyConstants.USER_DEPT_DATA_PERMISSION, key = "#userId")
+    })
     public void processUserDeleted(Long userId) {
         userRoleMapper.deleteListByUserId(userId);
     }
@@ -274,6 +282,7 @@ public class PermissionServiceImpl implements PermissionService {
 
     @Override
     @DataPermission(enable = false) // 关闭数据权限，不然就会出现递归获取数据权限的问题
+    @Cacheable(value = RedisKeyConstants.USER_DEPT_DATA_PERMISSION, key = "#userId")
     public DeptDataPermissionRespDTO getDeptDataPermission(Long userId) {
         // 获得用户的角色
         List<RoleDO> roles = getEnableUserRoleListByUserIdFromCache(userId);
@@ -24,6 +24,7 @@ import com.mzt.logapi.starter.annotation.LogRecord;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -72,7 +73,11 @@ public class RoleServiceImpl implements RoleService {
     }
 
     @Override
-    @CacheEvict(value = RedisKeyConstants.ROLE, key = "#updateReqVO.id")
+    @Caching(evict = {
+            @CacheEvict(value = RedisKeyConstants.ROLE, key = "#updateReqVO.id"),
+            @CacheEvict(value = RedisKeyConstants.USER_DEPT_DATA_PERMISSION,
+                    allEntries = true) // allEntries 清空所有缓存，角色的状态可能变化，此处无法方便获得 roleId 对应的 user 缓存们
+    })
     @LogRecord(type = SYSTEM_ROLE_TYPE, subType = SYSTEM_ROLE_UPDATE_SUB_TYPE, bizNo = "{{#updateReqVO.id}}",
             success = SYSTEM_ROLE_UPDATE_SUCCESS)
     public void updateRole(RoleSaveReqVO updateReqVO) {
@@ -91,7 +96,11 @@ public class RoleServiceImpl implements RoleService {
     }
 
     @Override
-    @CacheEvict(value = RedisKeyConstants.ROLE, key = "#id")
+    @Caching(evict = {
+            @CacheEvict(value = RedisKeyConstants.ROLE, key = "#id"),
+            @CacheEvict(value = RedisKeyConstants.USER_DEPT_DATA_PERMISSION,
+                    allEntries = true) // allEntries 清空所有缓存，此处无法方便获得 roleId 对应的 user 缓存们
+    })
     public void updateRoleDataScope(Long id, Integer dataScope, Set<Long> dataScopeDeptIds) {
         // 校验是否可以更新
         validateRoleForUpdate(id);
@@ -106,7 +115,11 @@ public class RoleServiceImpl implements RoleService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    @CacheEvict(value = RedisKeyConstants.ROLE, key = "#id")
+    @Caching(evict = {
+            @CacheEvict(value = RedisKeyConstants.ROLE, key = "#id"),
+            @CacheEvict(value = RedisKeyConstants.USER_DEPT_DATA_PERMISSION,
+                    allEntries = true) // allEntries 清空所有缓存，此处无法方便获得 roleId 对应的 user 缓存们
+    })
     @LogRecord(type = SYSTEM_ROLE_TYPE, subType = SYSTEM_ROLE_DELETE_SUB_TYPE, bizNo = "{{#id}}",
             success = SYSTEM_ROLE_DELETE_SUCCESS)
     public void deleteRole(Long id) {
@@ -184,6 +184,8 @@ public interface AdminUserService {
     /**
      * 批量导入用户
      *
+     * 导入 Excel 时，会按批调用该方法，每批独立事务
+     *
      * @param importUsers     导入用户列表
      * @param isUpdateSupport 是否支持更新
      * @return 导入结果
@@ -5,6 +5,7 @@ import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.util.ObjUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.iocoder.yudao.framework.common.enums.CommonStatusEnum;
+import cn.iocoder.yudao.framework.common.exception.ErrorCode;
 import cn.iocoder.yudao.framework.common.exception.ServiceException;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.framework.common.util.collection.CollectionUtils;
@@ -24,6 +25,7 @@ import cn.iocoder.yudao.module.system.dal.dataobject.dept.UserPostDO;
 import cn.iocoder.yudao.module.system.dal.dataobject.user.AdminUserDO;
 import cn.iocoder.yudao.module.system.dal.mysql.dept.UserPostMapper;
 import cn.iocoder.yudao.module.system.dal.mysql.user.AdminUserMapper;
+import cn.iocoder.yudao.module.system.dal.redis.RedisKeyConstants;
 import cn.iocoder.yudao.module.system.service.dept.DeptService;
 import cn.iocoder.yudao.module.system.service.dept.PostService;
 import cn.iocoder.yudao.module.system.service.permission.PermissionService;
@@ -33,6 +35,7 @@ import com.mzt.logapi.context.LogRecordContext;
 import com.mzt.logapi.service.impl.DiffParseFunction;
 import com.mzt.logapi.starter.annotation.LogRecord;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -139,6 +142,7 @@ public class AdminUserServiceImpl implements AdminUserService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(value = RedisKeyConstants.USER_DEPT_DATA_PERMISSION, key = "#updateReqVO.id") // 部门可能变化
     @LogRecord(type = SYSTEM_USER_TYPE, subType = SYSTEM_USER_UPDATE_SUB_TYPE, bizNo = "{{#updateReqVO.id}}",
             success = SYSTEM_USER_UPDATE_SUCCESS)
     public void updateUser(UserSaveReqVO updateReqVO) {
@@ -444,7 +448,9 @@ public class AdminUserServiceImpl implements AdminUserService {
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class) // 添加事务，异常则回滚所有导入
+    @Transactional(rollbackFor = Exception.class) // 添加事务，异常则回滚本批导入
+    @CacheEvict(value = RedisKeyConstants.USER_DEPT_DATA_PERMISSION, allEntries = true,
+            condition = "#isUpdateSupport") // 更新已存在的用户时，部门可能变化
     public UserImportRespVO importUserList(List<UserImportExcelVO> importUsers, boolean isUpdateSupport) {
         // 1.1 参数校验
         if (CollUtil.isEmpty(importUsers)) {
@@ -456,47 +462,133 @@ public class AdminUserServiceImpl implements AdminUserService {
             throw exception(USER_IMPORT_INIT_PASSWORD);
         }
 
-        // 2. 遍历，逐个创建 or 更新
+        // 2.1 批量查询已存在的用户名、手机号、邮箱和部门，避免逐个查询。关闭数据权限，避免唯一校验不正确
+        Map<String, AdminUserDO> existUserMap = new HashMap<>();
+        Map<String, AdminUserDO> existMobileMap = new HashMap<>();
+        Map<String, AdminUserDO> existEmailMap = new HashMap<>();
+        DataPermissionUtils.executeIgnore(() -> {
+            existUserMap.putAll(convertMap(userMapper.selectListByUsernames(
+                    convertSet(importUsers, UserImportExcelVO::getUsername)), AdminUserDO::getUsername));
+            Set<String> mobiles = convertSet(importUsers, UserImportExcelVO::getMobile, user -> StrUtil.isNotBlank(user.getMobile()));
+            if (CollUtil.isNotEmpty(mobiles)) {
+                existMobileMap.putAll(convertMap(userMapper.selectListByMobiles(mobiles), AdminUserDO::getMobile));
+            }
+            Set<String> emails = convertSet(importUsers, UserImportExcelVO::getEmail, user -> StrUtil.isNotBlank(user.getEmail()));
+            if (CollUtil.isNotEmpty(emails)) {
+                existEmailMap.putAll(convertMap(userMapper.selectListByEmails(emails), AdminUserDO::getEmail));
+            }
+        });
+        Set<Long> deptIds = convertSet(importUsers, UserImportExcelVO::getDeptId, user -> user.getDeptId() != null);
+        Map<Long, DeptDO> deptMap = CollUtil.isNotEmpty(deptIds) ? deptService.getDeptMap(deptIds) : Collections.emptyMap();
+        // 2.2 初始密码相同，只加密一次，避免每个用户都进行一次耗时的加密
+        String encodedInitPassword = encodePassword(initPassword);
+
+        // 3. 遍历，校验并区分创建 or 更新
         UserImportRespVO respVO = UserImportRespVO.builder().createUsernames(new ArrayList<>())
                 .updateUsernames(new ArrayList<>()).failureUsernames(new LinkedHashMap<>()).build();
+        List<AdminUserDO> createUsers = new ArrayList<>();
+        List<AdminUserDO> updateUsers = new ArrayList<>();
+        Set<String> acceptedMobiles = new HashSet<>();
+        Set<String> acceptedEmails = new HashSet<>();
         importUsers.forEach(importUser -> {
-            // 2.1.1 校验字段是否符合要求
+            // 3.1.1 校验字段是否符合要求
             try {
                 ValidationUtils.validate(BeanUtils.toBean(importUser, UserSaveReqVO.class).setPassword(initPassword));
             } catch (ConstraintViolationException ex){
                 respVO.getFailureUsernames().put(importUser.getUsername(), ex.getMessage());
                 return;
             }
-            // 2.1.2 校验，判断是否有不符合的原因
+            // 3.1.2 校验用户名：不存在时插入；存在时，判断是否允许更新
+            AdminUserDO existUser = existUserMap.get(importUser.getUsername());
+            if (existUser != null && (!isUpdateSupport || existUser.getId() == null)) { // id 为空，说明是同一批中待插入的用户
+                respVO.getFailureUsernames().put(importUser.getUsername(), USER_USERNAME_EXISTS.getMsg());
+                return;
+            }
+            // 3.1.3 校验手机号、邮箱唯一（包括数据库中已存在的，和同一批中已接受的），以及部门
+            Long userId = existUser != null ? existUser.getId() : null;
             try {
-                validateUserForCreateOrUpdate(null, null, importUser.getMobile(), importUser.getEmail(),
-                        importUser.getDeptId(), null);
+                validateImportUserUnique(userId, importUser.getMobile(), existMobileMap, acceptedMobiles, USER_MOBILE_EXISTS);
+                validateImportUserUnique(userId, importUser.getEmail(), existEmailMap, acceptedEmails, USER_EMAIL_EXISTS);
+                validateImportUserDept(importUser.getDeptId(), deptMap);
             } catch (ServiceException ex) {
                 respVO.getFailureUsernames().put(importUser.getUsername(), ex.getMessage());
                 return;
             }
+            if (StrUtil.isNotBlank(importUser.getMobile())) {
+                acceptedMobiles.add(importUser.getMobile());
+            }
+            if (StrUtil.isNotBlank(importUser.getEmail())) {
+                acceptedEmails.add(importUser.getEmail());
+            }
 
-            // 2.2.1 判断如果不存在，在进行插入
-            AdminUserDO existUser = userMapper.selectByUsername(importUser.getUsername());
+            // 3.2.1 不存在，进行插入
             if (existUser == null) {
-                userMapper.insert(BeanUtils.toBean(importUser, AdminUserDO.class)
-                        .setPassword(encodePassword(initPassword)).setPostIds(new HashSet<>())); // 设置默认密码及空岗位编号数组
+                AdminUserDO createUser = BeanUtils.toBean(importUser, AdminUserDO.class)
+                        .setPassword(encodedInitPassword).setPostIds(new HashSet<>()); // 设置默认密码及空岗位编号数组
+                createUsers.add(createUser);
+                existUserMap.put(importUser.getUsername(), createUser); // 同一批中，用户名重复时，视为已存在
                 respVO.getCreateUsernames().add(importUser.getUsername());
                 return;
             }
-            // 2.2.2 如果存在，判断是否允许更新
-            if (!isUpdateSupport) {
-                respVO.getFailureUsernames().put(importUser.getUsername(), USER_USERNAME_EXISTS.getMsg());
-                return;
-            }
+            // 3.2.2 存在，进行更新
             AdminUserDO updateUser = BeanUtils.toBean(importUser, AdminUserDO.class);
             updateUser.setId(existUser.getId());
-            userMapper.updateById(updateUser);
+            updateUsers.add(updateUser);
             respVO.getUpdateUsernames().add(importUser.getUsername());
         });
+
+        // 4. 批量写入
+        if (CollUtil.isNotEmpty(createUsers)) {
+            userMapper.insertBatch(createUsers);
+        }
+        if (CollUtil.isNotEmpty(updateUsers)) {
+            userMapper.updateBatch(updateUsers);
+        }
         return respVO;
     }
 
+    /**
+     * 校验导入用户的手机号、邮箱唯一
+     *
+     * @param userId 待更新的用户编号；插入时为空
+     * @param value 手机号 or 邮箱
+     * @param existMap 数据库中已存在的用户，KEY 为手机号 or 邮箱
+     * @param acceptedValues 同一批中，已接受的手机号 or 邮箱
+     * @param errorCode 重复时的错误码
+     */
+    private static void validateImportUserUnique(Long userId, String value, Map<String, AdminUserDO> existMap,
+                                                 Set<String> acceptedValues, ErrorCode errorCode) {
+        if (StrUtil.isBlank(value)) {
+            return;
+        }
+        if (acceptedValues.contains(value)) {
+            throw exception(errorCode);
+        }
+        AdminUserDO existUser = existMap.get(value);
+        if (existUser != null && !existUser.getId().equals(userId)) {
+            throw exception(errorCode);
+        }
+    }
+
+    /**
+     * 校验导入用户的部门存在、且处于开启状态，逻辑同 {@link DeptService#validateDeptList(Collection)}
+     *
+     * @param deptId 部门编号
+     * @param deptMap 批量查询的部门
+     */
+    private static void validateImportUserDept(Long deptId, Map<Long, DeptDO> deptMap) {
+        if (deptId == null) {
+            return;
+        }
+        DeptDO dept = deptMap.get(deptId);
+        if (dept == null) {
+            throw exception(DEPT_NOT_FOUND);
+        }
+        if (!CommonStatusEnum.ENABLE.getStatus().equals(dept.getStatus())) {
+            throw exception(DEPT_NOT_ENABLE, dept.getName());
+        }
+    }
+
     @Override
     public List<AdminUserDO> getUserListByStatus(Integer status) {
         return userMapper.selectListByStatus(status);
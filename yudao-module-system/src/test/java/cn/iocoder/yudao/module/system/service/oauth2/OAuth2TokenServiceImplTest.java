@@ -14,15 +14,19 @@ import cn.iocoder.yudao.module.system.dal.dataobject.oauth2.OAuth2RefreshTokenDO
 import cn.iocoder.yudao.module.system.dal.dataobject.user.AdminUserDO;
 import cn.iocoder.yudao.module.system.dal.mysql.oauth2.OAuth2AccessTokenMapper;
 import cn.iocoder.yudao.module.system.dal.mysql.oauth2.OAuth2RefreshTokenMapper;
+import cn.iocoder.yudao.module.system.dal.redis.RedisKeyConstants;
 import cn.iocoder.yudao.module.system.dal.redis.oauth2.OAuth2AccessTokenRedisDAO;
+import cn.iocoder.yudao.module.system.mq.producer.oauth2.OAuth2TokenProducer;
 import cn.iocoder.yudao.module.system.service.user.AdminUserService;
 import org.assertj.core.util.Lists;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
 
 import javax.annotation.Resource;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 
 import static cn.iocoder.yudao.framework.common.util.object.ObjectUtils.cloneIgnoreId;
@@ -31,6 +35,7 @@ import static cn.iocoder.yudao.framework.test.core.util.AssertUtils.assertServic
 import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -52,10 +57,15 @@ public class OAuth2TokenServiceImplTest extends BaseDbAndRedisUnitTest {
     @Resource
     private OAuth2AccessTokenRedisDAO oauth2AccessTokenRedisDAO;
 
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
     @MockBean
     private OAuth2ClientService oauth2ClientService;
     @MockBean
     private AdminUserService adminUserService;
+    @MockBean
+    private OAuth2TokenProducer oauth2TokenProducer;
 
     @Test
     public void testCreateAccessToken() {
@@ -290,6 +300,24 @@ public class OAuth2TokenServiceImplTest extends BaseDbAndRedisUnitTest {
         assertNull(oauth2AccessTokenMapper.selectByAccessToken(accessTokenDO.getAccessToken()));
         assertNull(oauth2RefreshTokenMapper.selectByRefreshToken(accessTokenDO.getRefreshToken()));
         assertNull(oauth2AccessTokenRedisDAO.get(accessTokenDO.getAccessToken()));
+        verify(oauth2TokenProducer).sendAccessTokenRemoveMessage(eq(Collections.singletonList(accessTokenDO.getAccessToken())));
+    }
+
+    @Test
+    public void testGetAccessToken_localCacheInvalidate() {
+        // mock 数据（访问令牌）
+        OAuth2AccessTokenDO accessTokenDO = randomPojo(OAuth2AccessTokenDO.class)
+                .setExpiresTime(LocalDateTime.now().plusDays(1));
+        oauth2AccessTokenRedisDAO.set(accessTokenDO);
+        String accessToken = accessTokenDO.getAccessToken();
+        // 模拟其它节点删除 Redis 缓存，本地缓存仍然命中
+        stringRedisTemplate.delete(String.format(RedisKeyConstants.OAUTH2_ACCESS_TOKEN, accessToken));
+        assertNotNull(oauth2AccessTokenRedisDAO.get(accessToken));
+
+        // 调用，模拟接收到广播消息
+        oauth2AccessTokenRedisDAO.invalidateLocalCache(Collections.singletonList(accessToken));
+        // 断言
+        assertNull(oauth2AccessTokenRedisDAO.get(accessToken));
     }
 
 
@@ -6,6 +6,7 @@ import cn.iocoder.yudao.framework.common.exception.ServiceException;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.framework.common.util.collection.ArrayUtils;
 import cn.iocoder.yudao.framework.common.util.collection.CollectionUtils;
+import cn.iocoder.yudao.framework.common.util.object.BeanUtils;
 import cn.iocoder.yudao.framework.test.core.ut.BaseDbUnitTest;
 import cn.iocoder.yudao.module.infra.api.config.ConfigApi;
 import cn.iocoder.yudao.module.infra.api.file.FileApi;
@@ -36,6 +37,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 import javax.annotation.Resource;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
@@ -51,6 +53,7 @@ import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.*;
 import static cn.iocoder.yudao.module.system.enums.ErrorCodeConstants.*;
 import static cn.iocoder.yudao.module.system.service.user.AdminUserServiceImpl.USER_INIT_PASSWORD_KEY;
 import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.util.Lists.newArrayList;
 import static org.junit.jupiter.api.Assertions.*;
@@ -415,8 +418,8 @@ public class AdminUserServiceImplTest extends BaseDbUnitTest {
             o.setEmail(randomEmail());
             o.setMobile(randomMobile());
         });
-        // mock 方法，模拟失败
-        doThrow(new ServiceException(DEPT_NOT_FOUND)).when(deptService).validateDeptList(any());
+        // mock 方法，模拟部门不存在
+        when(deptService.getDeptMap(any())).thenReturn(Collections.emptyMap());
 
         // 调用
         UserImportRespVO respVO = userService.importUserList(newArrayList(importUser), true);
@@ -444,7 +447,7 @@ public class AdminUserServiceImplTest extends BaseDbUnitTest {
             o.setId(importUser.getDeptId());
             o.setStatus(CommonStatusEnum.ENABLE.getStatus());
         });
-        when(deptService.getDept(eq(dept.getId()))).thenReturn(dept);
+        when(deptService.getDeptMap(any())).thenReturn(singletonMap(dept.getId(), dept));
         // mock passwordEncoder 的方法
         when(passwordEncoder.encode(eq("yudaoyuanma"))).thenReturn("java");
 
@@ -480,7 +483,7 @@ public class AdminUserServiceImplTest extends BaseDbUnitTest {
             o.setId(importUser.getDeptId());
             o.setStatus(CommonStatusEnum.ENABLE.getStatus());
         });
-        when(deptService.getDept(eq(dept.getId()))).thenReturn(dept);
+        when(deptService.getDeptMap(any())).thenReturn(singletonMap(dept.getId(), dept));
 
         // 调用
         UserImportRespVO respVO = userService.importUserList(newArrayList(importUser), false);
@@ -512,7 +515,7 @@ public class AdminUserServiceImplTest extends BaseDbUnitTest {
             o.setId(importUser.getDeptId());
             o.setStatus(CommonStatusEnum.ENABLE.getStatus());
         });
-        when(deptService.getDept(eq(dept.getId()))).thenReturn(dept);
+        when(deptService.getDeptMap(any())).thenReturn(singletonMap(dept.getId(), dept));
 
         // 调用
         UserImportRespVO respVO = userService.importUserList(newArrayList(importUser), true);
@@ -524,6 +527,136 @@ public class AdminUserServiceImplTest extends BaseDbUnitTest {
         assertEquals(0, respVO.getFailureUsernames().size());
     }
 
+    /**
+     * 情况五，同一批中，用户名重复
+     */
+    @Test
+    public void testImportUserList_05() {
+        // 准备参数
+        String username = randomString();
+        List<UserImportExcelVO> importUsers = newArrayList(randomPojo(UserImportExcelVO.class, o -> {
+            o.setStatus(randomEle(CommonStatusEnum.values()).getStatus()); // 保证 status 的范围
+            o.setSex(randomEle(SexEnum.values()).getSex()); // 保证 sex 的范围
+            o.setUsername(username);
+            o.setEmail(randomEmail());
+            o.setMobile(randomMobile());
+        }));
+        importUsers.add(BeanUtils.toBean(importUsers.get(0), UserImportExcelVO.class, o -> {
+            o.setEmail(randomEmail());
+            o.setMobile(randomMobile());
+        }));
+        // mock deptService 的方法
+        DeptDO dept = randomPojo(DeptDO.class, o -> {
+            o.setId(importUsers.get(0).getDeptId());
+            o.setStatus(CommonStatusEnum.ENABLE.getStatus());
+        });
+        when(deptService.getDeptMap(any())).thenReturn(singletonMap(dept.getId(), dept));
+        // mock passwordEncoder 的方法
+        when(passwordEncoder.encode(eq("yudaoyuanma"))).thenReturn("java");
+
+        // 调用
+        UserImportRespVO respVO = userService.importUserList(importUsers, true);
+        // 断言
+        assertEquals(singletonList(username), respVO.getCreateUsernames());
+        assertEquals(0, respVO.getUpdateUsernames().size());
+        assertEquals(USER_USERNAME_EXISTS.getMsg(), respVO.getFailureUsernames().get(username));
+        assertEquals(1, userMapper.selectListByUsernames(singletonList(username)).size());
+    }
+
+    /**
+     * 情况六，同一批中，手机号、邮箱重复
+     */
+    @Test
+    public void testImportUserList_06() {
+        // 准备参数
+        Long deptId = randomLongId();
+        String mobile = randomMobile();
+        String email = randomEmail();
+        UserImportExcelVO importUser01 = randomImportUser(deptId, o -> {
+            o.setMobile(mobile);
+            o.setEmail(email);
+        });
+        UserImportExcelVO importUser02 = randomImportUser(deptId, o -> o.setMobile(mobile)); // 手机号重复
+        UserImportExcelVO importUser03 = randomImportUser(deptId, o -> o.setEmail(email)); // 邮箱重复
+        UserImportExcelVO importUser04 = randomImportUser(deptId, o -> {}); // 正常
+        // mock deptService 的方法
+        DeptDO dept = randomPojo(DeptDO.class, o -> {
+            o.setId(deptId);
+            o.setStatus(CommonStatusEnum.ENABLE.getStatus());
+        });
+        when(deptService.getDeptMap(any())).thenReturn(singletonMap(deptId, dept));
+        // mock passwordEncoder 的方法
+        when(passwordEncoder.encode(eq("yudaoyuanma"))).thenReturn("java");
+
+        // 调用
+        UserImportRespVO respVO = userService.importUserList(
+                newArrayList(importUser01, importUser02, importUser03, importUser04), true);
+        // 断言
+        assertEquals(newArrayList(importUser01.getUsername(), importUser04.getUsername()), respVO.getCreateUsernames());
+        assertEquals(0, respVO.getUpdateUsernames().size());
+        assertEquals(2, respVO.getFailureUsernames().size());
+        assertEquals(USER_MOBILE_EXISTS.getMsg(), respVO.getFailureUsernames().get(importUser02.getUsername()));
+        assertEquals(USER_EMAIL_EXISTS.getMsg(), respVO.getFailureUsernames().get(importUser03.getUsername()));
+        assertEquals(1, userMapper.selectListByMobiles(singletonList(mobile)).size());
+        assertEquals(1, userMapper.selectListByEmails(singletonList(email)).size());
+        // 断言：部门只批量查询一次
+        verify(deptService, times(1)).getDeptMap(any());
+        verify(deptService, never()).validateDeptList(any());
+    }
+
+    /**
+     * 情况七，手机号、邮箱已被其它用户使用；更新用户自身的手机号、邮箱不变时，允许更新
+     */
+    @Test
+    public void testImportUserList_07() {
+        // mock 数据
+        AdminUserDO dbUser01 = randomAdminUserDO(o -> {
+            o.setMobile(randomMobile());
+            o.setEmail(randomEmail());
+        });
+        userMapper.insert(dbUser01);
+        AdminUserDO dbUser02 = randomAdminUserDO(o -> {
+            o.setMobile(randomMobile());
+            o.setEmail(randomEmail());
+        });
+        userMapper.insert(dbUser02);
+        // 准备参数
+        Long deptId = randomLongId();
+        UserImportExcelVO importUser01 = randomImportUser(deptId, o -> o.setMobile(dbUser01.getMobile())); // 手机号已被使用
+        UserImportExcelVO importUser02 = randomImportUser(deptId, o -> o.setEmail(dbUser01.getEmail())); // 邮箱已被使用
+        UserImportExcelVO importUser03 = randomImportUser(deptId, o -> { // 更新自身
+            o.setUsername(dbUser02.getUsername());
+            o.setMobile(dbUser02.getMobile());
+            o.setEmail(dbUser02.getEmail());
+        });
+        // mock deptService 的方法
+        DeptDO dept = randomPojo(DeptDO.class, o -> {
+            o.setId(deptId);
+            o.setStatus(CommonStatusEnum.ENABLE.getStatus());
+        });
+        when(deptService.getDeptMap(any())).thenReturn(singletonMap(deptId, dept));
+
+        // 调用
+        UserImportRespVO respVO = userService.importUserList(
+                newArrayList(importUser01, importUser02, importUser03), true);
+        // 断言
+        assertEquals(0, respVO.getCreateUsernames().size());
+        assertEquals(singletonList(dbUser02.getUsername()), respVO.getUpdateUsernames());
+        assertEquals(USER_MOBILE_EXISTS.getMsg(), respVO.getFailureUsernames().get(importUser01.getUsername()));
+        assertEquals(USER_EMAIL_EXISTS.getMsg(), respVO.getFailureUsernames().get(importUser02.getUsername()));
+    }
+
+    private static UserImportExcelVO randomImportUser(Long deptId, Consumer<UserImportExcelVO> consumer) {
+        return randomPojo(UserImportExcelVO.class, o -> {
+            o.setStatus(randomEle(CommonStatusEnum.values()).getStatus()); // 保证 status 的范围
+            o.setSex(randomEle(SexEnum.values()).getSex()); // 保证 sex 的范围
+            o.setDeptId(deptId);
+            o.setEmail(randomEmail());
+            o.setMobile(randomMobile());
+            consumer.accept(o);
+        });
+    }
+
     @Test
     public void testValidateUserExists_notExists() {
         assertServiceException(() -> userService.validateUserExists(randomLongId()), USER_NOT_EXISTS);